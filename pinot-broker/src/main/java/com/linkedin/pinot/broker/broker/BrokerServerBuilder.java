@@ -17,6 +17,7 @@ package com.linkedin.pinot.broker.broker;
 
 import com.linkedin.pinot.broker.broker.helix.LiveInstancesChangeListenerImpl;
 import com.linkedin.pinot.broker.requesthandler.BrokerRequestHandler;
+import com.linkedin.pinot.broker.requesthandler.BrokerResultCache;
 import com.linkedin.pinot.broker.servlet.PinotBrokerHealthCheckServlet;
 import com.linkedin.pinot.broker.servlet.PinotBrokerRoutingTableDebugServlet;
 import com.linkedin.pinot.broker.servlet.PinotBrokerServletContextChangeListener;
@@ -169,6 +170,12 @@ public class BrokerServerBuilder {
     _requestHandler = new BrokerRequestHandler(_routingTable, _timeBoundaryService, _scatterGather,
         reduceServiceRegistry, _brokerMetrics, _config);
 
+    // Invalidate the cached query results whenever the routing of a table changes
+    BrokerResultCache resultCache = _requestHandler.getResultCache();
+    if (resultCache != null && _routingTable instanceof HelixExternalViewBasedRouting) {
+      ((HelixExternalViewBasedRouting) _routingTable).addRoutingTableChangeListener(resultCache);
+    }
+
     LOGGER.info("Network initialized !!");
   }
 
@@ -21,6 +21,7 @@ import com.linkedin.pinot.common.exception.QueryException;
 import com.linkedin.pinot.common.metrics.BrokerMeter;
 import com.linkedin.pinot.common.metrics.BrokerMetrics;
 import com.linkedin.pinot.common.metrics.BrokerQueryPhase;
+import com.linkedin.pinot.common.query.IncrementalReducer;
 import com.linkedin.pinot.common.query.ReduceService;
 import com.linkedin.pinot.common.query.ReduceServiceRegistry;
 import com.linkedin.pinot.common.request.BrokerRequest;
@@ -46,6 +47,7 @@ import com.linkedin.pinot.transport.common.CompositeFuture;
 import com.linkedin.pinot.transport.common.ReplicaSelection;
 import com.linkedin.pinot.transport.common.ReplicaSelectionGranularity;
 import com.linkedin.pinot.transport.common.RoundRobinReplicaSelection;
+import com.linkedin.pinot.transport.common.SegmentId;
 import com.linkedin.pinot.transport.common.SegmentIdSet;
 import com.linkedin.pinot.transport.scattergather.ScatterGather;
 import com.linkedin.pinot.transport.scattergather.ScatterGatherRequest;
@@ -53,6 +55,7 @@ import com.linkedin.pinot.transport.scattergather.ScatterGatherStats;
 import io.netty.buffer.ByteBuf;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -60,6 +63,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -84,6 +88,11 @@ public class BrokerRequestHandler {
   private static final String BROKER_QUERY_RESPONSE_LIMIT_CONFIG = "pinot.broker.query.response.limit";
   public static final long DEFAULT_BROKER_TIME_OUT_MS = 10 * 1000L;
   private static final String BROKER_TIME_OUT_CONFIG = "pinot.broker.timeoutMs";
+  // Highest data table version to request from the servers, servers respond with version 2 if they do not support it
+  private static final String BROKER_DATA_TABLE_VERSION_CONFIG = "pinot.broker.dataTable.version";
+  // Whether to de-serialize and reduce each server response as soon as it is received instead of after gathering all
+  private static final String BROKER_STREAMING_REDUCE_CONFIG = "pinot.broker.query.streamingReduce";
+  private static final boolean DEFAULT_BROKER_STREAMING_REDUCE = false;
   private static final String DEFAULT_BROKER_ID;
   public static final String BROKER_ID_CONFIG_KEY = "pinot.broker.id";
   private static final ResponseType DEFAULT_BROKER_RESPONSE_TYPE = ResponseType.BROKER_RESPONSE_TYPE_NATIVE;
@@ -108,6 +117,9 @@ public class BrokerRequestHandler {
   private final int _queryResponseLimit;
   private final AtomicLong _requestIdGenerator;
   private final String _brokerId;
+  private final BrokerResultCache _resultCache;
+  private final int _dataTableVersion;
+  private final boolean _streamingReduce;
   // TODO: Currently only using RoundRobin selection. But, this can be allowed to be configured.
   private RoundRobinReplicaSelection _replicaSelection;
 
@@ -125,9 +137,14 @@ public class BrokerRequestHandler {
     _queryResponseLimit = config.getInt(BROKER_QUERY_RESPONSE_LIMIT_CONFIG, DEFAULT_BROKER_QUERY_RESPONSE_LIMIT);
     _brokerTimeOutMs = config.getLong(BROKER_TIME_OUT_CONFIG, DEFAULT_BROKER_TIME_OUT_MS);
     _brokerId = config.getString(BROKER_ID_CONFIG_KEY, DEFAULT_BROKER_ID);
+    _resultCache = BrokerResultCache.create(config, brokerMetrics);
+    _dataTableVersion = config.getInt(BROKER_DATA_TABLE_VERSION_CONFIG, DataTableFactory.MAX_SUPPORTED_VERSION);
+    _streamingReduce = config.getBoolean(BROKER_STREAMING_REDUCE_CONFIG, DEFAULT_BROKER_STREAMING_REDUCE);
     LOGGER.info("Broker response limit is: " + _queryResponseLimit);
     LOGGER.info("Broker timeout is - " + _brokerTimeOutMs + " ms");
     LOGGER.info("Broker id: " + _brokerId);
+    LOGGER.info("Broker data table version: " + _dataTableVersion);
+    LOGGER.info("Broker streaming reduce: " + _streamingReduce);
   }
 
   /**
@@ -413,37 +430,76 @@ public class BrokerRequestHandler {
     ResponseType serverResponseType = BrokerResponseFactory.getResponseType(originalBrokerRequest.getResponseFormat());
     PhaseTimes phaseTimes = new PhaseTimes();
 
+    // Partial result options are only applied when gathering the responses as they are received.
+    PartialResultOptions partialResultOptions;
+    try {
+      partialResultOptions = PartialResultOptions.getPartialResultOptions(originalBrokerRequest);
+    } catch (Exception e) {
+      LOGGER.warn("Invalid partial result options for table: {}", originalTableName, e);
+      _brokerMetrics.addMeteredTableValue(originalTableName, BrokerMeter.QUERY_VALIDATION_EXCEPTIONS, 1);
+      return BrokerResponseFactory.getBrokerResponseWithException(serverResponseType,
+          QueryException.getException(QueryException.QUERY_VALIDATION_ERROR, e));
+    }
+
     // Step 1: find the candidate servers to be queried for each set of segments from the routing table.
     // Step 2: select servers for each segment set and scatter request to the servers.
+    // Only responses for OFFLINE tables are cached, REALTIME tables keep consuming new data.
     String offlineTableName = null;
+    Map<ServerInstance, SegmentIdSet> offlineSegmentServices = null;
     CompositeFuture<ServerInstance, ByteBuf> offlineCompositeFuture = null;
+    boolean isOfflineResultCacheable = false;
+    long offlineTableVersion = 0L;
+    Map<ServerInstance, byte[]> cachedOfflineServerResponses = null;
     if (offlineBrokerRequest != null) {
       offlineTableName = offlineBrokerRequest.getQuerySource().getTableName();
-      offlineCompositeFuture =
-          routeAndScatterBrokerRequest(offlineBrokerRequest, phaseTimes, scatterGatherStats, bucketingSelection,
-              requestId);
+      isOfflineResultCacheable = isResultCacheable(offlineBrokerRequest);
+      if (isOfflineResultCacheable) {
+        cachedOfflineServerResponses = _resultCache.get(offlineBrokerRequest);
+        offlineTableVersion = _resultCache.getTableVersion(offlineTableName);
+      }
+      if (cachedOfflineServerResponses == null) {
+        offlineSegmentServices = routeBrokerRequest(offlineBrokerRequest, phaseTimes);
+        if (offlineSegmentServices != null) {
+          offlineCompositeFuture =
+              scatterBrokerRequest(offlineBrokerRequest, offlineSegmentServices, phaseTimes, scatterGatherStats,
+                  bucketingSelection, requestId, _brokerTimeOutMs);
+        }
+      }
     }
     String realtimeTableName = null;
+    Map<ServerInstance, SegmentIdSet> realtimeSegmentServices = null;
     CompositeFuture<ServerInstance, ByteBuf> realtimeCompositeFuture = null;
     if (realtimeBrokerRequest != null) {
       realtimeTableName = realtimeBrokerRequest.getQuerySource().getTableName();
-      realtimeCompositeFuture =
-          routeAndScatterBrokerRequest(realtimeBrokerRequest, phaseTimes, scatterGatherStats, bucketingSelection,
-              requestId);
+      realtimeSegmentServices = routeBrokerRequest(realtimeBrokerRequest, phaseTimes);
+      if (realtimeSegmentServices != null) {
+        realtimeCompositeFuture =
+            scatterBrokerRequest(realtimeBrokerRequest, realtimeSegmentServices, phaseTimes, scatterGatherStats,
+                bucketingSelection, requestId, _brokerTimeOutMs);
+      }
     }
-    if ((offlineCompositeFuture == null) && (realtimeCompositeFuture == null)) {
+    if ((offlineCompositeFuture == null) && (realtimeCompositeFuture == null)
+        && (cachedOfflineServerResponses == null)) {
       // No server found in either OFFLINE or REALTIME table.
       return BrokerResponseFactory.getStaticEmptyBrokerResponse(serverResponseType);
     }
+    if (_streamingReduce || partialResultOptions != null) {
+      return gatherAndReduceServerResponses(originalBrokerRequest, offlineBrokerRequest, offlineSegmentServices,
+          offlineCompositeFuture, realtimeBrokerRequest, realtimeSegmentServices, realtimeCompositeFuture,
+          cachedOfflineServerResponses, isOfflineResultCacheable, offlineTableVersion, reduceService,
+          partialResultOptions, scatterGatherStats, phaseTimes, requestId);
+    }
 
     // Step 3: gather response from the servers.
     int numServersQueried = 0;
+    int numOfflineServersQueried = 0;
     long gatherStartTime = System.nanoTime();
     List<ProcessingException> processingExceptions = new ArrayList<>();
     Map<ServerInstance, ByteBuf> offlineServerResponseMap = null;
     Map<ServerInstance, ByteBuf> realtimeServerResponseMap = null;
     if (offlineCompositeFuture != null) {
-      numServersQueried += offlineCompositeFuture.getNumFutures();
+      numOfflineServersQueried = offlineCompositeFuture.getNumFutures();
+      numServersQueried += numOfflineServersQueried;
       offlineServerResponseMap =
           gatherServerResponses(offlineCompositeFuture, scatterGatherStats, true, offlineTableName,
               processingExceptions);
@@ -455,7 +511,8 @@ public class BrokerRequestHandler {
               processingExceptions);
     }
     phaseTimes.addToGatherTime(System.nanoTime() - gatherStartTime);
-    if ((offlineServerResponseMap == null) && (realtimeServerResponseMap == null)) {
+    if ((offlineServerResponseMap == null) && (realtimeServerResponseMap == null)
+        && (cachedOfflineServerResponses == null)) {
       // No response gathered.
       return BrokerResponseFactory.getBrokerResponseWithExceptions(serverResponseType, processingExceptions);
     }
@@ -466,12 +523,24 @@ public class BrokerRequestHandler {
     Map<ServerInstance, DataTable> dataTableMap = new HashMap<>();
     if (offlineServerResponseMap != null) {
       numServersResponded += offlineServerResponseMap.size();
-      deserializeServerResponses(offlineServerResponseMap, true, dataTableMap, offlineTableName, processingExceptions);
+      Map<ServerInstance, ByteBuffer> offlineServerResponses = readServerResponses(offlineServerResponseMap);
+      int numProcessingExceptions = processingExceptions.size();
+      deserializeServerResponses(offlineServerResponses, true, dataTableMap, offlineTableName, processingExceptions);
+
+      // Only cache complete responses without any exception.
+      if (isOfflineResultCacheable && offlineServerResponses.size() == numOfflineServersQueried
+          && processingExceptions.size() == numProcessingExceptions && !hasExceptions(dataTableMap)) {
+        _resultCache.put(offlineBrokerRequest, offlineTableVersion, copyServerResponses(offlineServerResponses));
+      }
+    }
+    if (cachedOfflineServerResponses != null) {
+      deserializeServerResponses(wrapServerResponses(cachedOfflineServerResponses), true, dataTableMap,
+          offlineTableName, processingExceptions);
     }
     if (realtimeServerResponseMap != null) {
       numServersResponded += realtimeServerResponseMap.size();
-      deserializeServerResponses(realtimeServerResponseMap, false, dataTableMap, realtimeTableName,
-          processingExceptions);
+      deserializeServerResponses(readServerResponses(realtimeServerResponseMap), false, dataTableMap,
+          realtimeTableName, processingExceptions);
     }
     phaseTimes.addToDeserializationTime(System.nanoTime() - deserializationStartTime);
 
@@ -481,6 +550,270 @@ public class BrokerRequestHandler {
         reduceService.reduceOnDataTable(originalBrokerRequest, dataTableMap, _brokerMetrics);
     phaseTimes.addToReduceTime(System.nanoTime() - reduceStartTime);
 
+    return finishBrokerResponse(brokerResponse, originalTableName, processingExceptions, numServersQueried,
+        numServersResponded, phaseTimes);
+  }
+
+  /**
+   * Gather, de-serialize and reduce the server responses one at a time as soon as each of them is received, instead of
+   * waiting for all the servers to respond before de-serializing and reducing them.
+   * <p>Only the running reduce result and the response being processed are kept in memory, unless the OFFLINE
+   * responses have to be put into the result cache.
+   * <p>With partial result options, the broker can stop waiting for the servers slow to respond and return a partial
+   * result, or hedge them by re-sending their segments to other replicas.
+   *
+   * @return broker response.
+   * @throws InterruptedException
+   */
+  @Nonnull
+  private BrokerResponse gatherAndReduceServerResponses(@Nonnull BrokerRequest originalBrokerRequest,
+      @Nullable BrokerRequest offlineBrokerRequest, @Nullable Map<ServerInstance, SegmentIdSet> offlineSegmentServices,
+      @Nullable CompositeFuture<ServerInstance, ByteBuf> offlineCompositeFuture,
+      @Nullable BrokerRequest realtimeBrokerRequest, @Nullable Map<ServerInstance, SegmentIdSet> realtimeSegmentServices,
+      @Nullable CompositeFuture<ServerInstance, ByteBuf> realtimeCompositeFuture,
+      @Nullable Map<ServerInstance, byte[]> cachedOfflineServerResponses, boolean isOfflineResultCacheable,
+      long offlineTableVersion, @Nonnull ReduceService reduceService,
+      @Nullable PartialResultOptions partialResultOptions, @Nonnull ScatterGatherStats scatterGatherStats,
+      @Nonnull PhaseTimes phaseTimes, long requestId)
+      throws InterruptedException {
+    long gatherStartTimeMs = System.currentTimeMillis();
+    String originalTableName = originalBrokerRequest.getQuerySource().getTableName();
+    String offlineTableName = null;
+    if (offlineBrokerRequest != null) {
+      offlineTableName = offlineBrokerRequest.getQuerySource().getTableName();
+    }
+    String realtimeTableName = null;
+    if (realtimeBrokerRequest != null) {
+      realtimeTableName = realtimeBrokerRequest.getQuerySource().getTableName();
+    }
+    List<ProcessingException> processingExceptions = new ArrayList<>();
+    IncrementalReducer<?> reducer = reduceService.startIncrementalReduce(originalBrokerRequest, _brokerMetrics);
+
+    // Start gathering the responses from the servers.
+    int numServersQueried = 0;
+    int numOfflineServersQueried = 0;
+    List<CompositeFuture<ServerInstance, ByteBuf>> compositeFutures = new ArrayList<>();
+    StreamingResponseGatherer responseGatherer = new StreamingResponseGatherer();
+    if (offlineCompositeFuture != null) {
+      numOfflineServersQueried = offlineCompositeFuture.getNumFutures();
+      numServersQueried += numOfflineServersQueried;
+      compositeFutures.add(offlineCompositeFuture);
+      responseGatherer.addCompositeFuture(offlineCompositeFuture, true, offlineSegmentServices);
+    }
+    if (realtimeCompositeFuture != null) {
+      numServersQueried += realtimeCompositeFuture.getNumFutures();
+      compositeFutures.add(realtimeCompositeFuture);
+      responseGatherer.addCompositeFuture(realtimeCompositeFuture, false, realtimeSegmentServices);
+    }
+
+    // Reduce the cached OFFLINE server responses while waiting for the other servers.
+    if (cachedOfflineServerResponses != null) {
+      for (Entry<ServerInstance, byte[]> entry : cachedOfflineServerResponses.entrySet()) {
+        DataTable dataTable =
+            deserializeServerResponse(entry.getKey(), ByteBuffer.wrap(entry.getValue()), offlineTableName,
+                processingExceptions, phaseTimes);
+        if (dataTable != null) {
+          mergeDataTable(reducer, entry.getKey(), dataTable, phaseTimes);
+        }
+      }
+    }
+
+    // OFFLINE responses are copied to be put into the result cache, only complete responses from the original
+    // requests without any exception are cached.
+    Map<ServerInstance, byte[]> offlineServerResponsesToCache = null;
+    if (isOfflineResultCacheable && offlineCompositeFuture != null) {
+      offlineServerResponsesToCache = new HashMap<>(numOfflineServersQueried);
+    }
+
+    // Deadlines of the gather phase.
+    long timeoutEndTimeMs = gatherStartTimeMs + _brokerTimeOutMs;
+    long partialResultEndTimeMs = Long.MAX_VALUE;
+    long hedgeTimeMs = Long.MAX_VALUE;
+    double serverFraction = 1.0;
+    double segmentFraction = 1.0;
+    if (partialResultOptions != null) {
+      if (partialResultOptions.getTimeoutMs() != PartialResultOptions.NOT_SET) {
+        partialResultEndTimeMs = gatherStartTimeMs + partialResultOptions.getTimeoutMs();
+      }
+      if (partialResultOptions.getHedgeDelayMs() != PartialResultOptions.NOT_SET) {
+        hedgeTimeMs = gatherStartTimeMs + partialResultOptions.getHedgeDelayMs();
+      }
+      serverFraction = partialResultOptions.getServerFraction();
+      segmentFraction = partialResultOptions.getSegmentFraction();
+    }
+
+    // Gather, de-serialize and reduce the server responses as they are received.
+    boolean isPartialResult = false;
+    while (!responseGatherer.isDone()) {
+      long currentTimeMs = System.currentTimeMillis();
+      if (currentTimeMs >= timeoutEndTimeMs) {
+        String errorMessage = "Timed out waiting for server responses after " + _brokerTimeOutMs + "ms";
+        LOGGER.error("Caught exception while fetching responses for table: {}", originalTableName);
+        _brokerMetrics.addMeteredTableValue(originalTableName, BrokerMeter.RESPONSE_FETCH_EXCEPTIONS, 1);
+        processingExceptions.add(
+            QueryException.getException(QueryException.BROKER_GATHER_ERROR, new TimeoutException(errorMessage)));
+        offlineServerResponsesToCache = null;
+        break;
+      }
+      if (currentTimeMs >= partialResultEndTimeMs || responseGatherer.hasEnoughResponses(serverFraction,
+          segmentFraction)) {
+        isPartialResult = true;
+        break;
+      }
+      if (currentTimeMs >= hedgeTimeMs) {
+        if (offlineCompositeFuture != null) {
+          sendHedgedRequests(offlineBrokerRequest, true, responseGatherer, compositeFutures, requestId,
+              timeoutEndTimeMs - currentTimeMs);
+        }
+        if (realtimeCompositeFuture != null) {
+          sendHedgedRequests(realtimeBrokerRequest, false, responseGatherer, compositeFutures, requestId,
+              timeoutEndTimeMs - currentTimeMs);
+        }
+        hedgeTimeMs = Long.MAX_VALUE;
+      }
+
+      long gatherStartTime = System.nanoTime();
+      StreamingResponseGatherer.ServerResponse serverResponse = responseGatherer.poll(
+          Math.min(Math.min(timeoutEndTimeMs, partialResultEndTimeMs), hedgeTimeMs) - currentTimeMs);
+      phaseTimes.addToGatherTime(System.nanoTime() - gatherStartTime);
+      if (serverResponse == null) {
+        continue;
+      }
+
+      ServerInstance serverInstance = serverResponse.getServerInstance();
+      ByteBuffer response = serverResponse.getResponse().nioBuffer();
+      String tableName;
+      if (serverResponse.isOfflineTable()) {
+        tableName = offlineTableName;
+        if (serverResponse.isHedged()) {
+          offlineServerResponsesToCache = null;
+        } else if (offlineServerResponsesToCache != null) {
+          offlineServerResponsesToCache.put(serverInstance, copyServerResponse(response));
+        }
+      } else {
+        tableName = realtimeTableName;
+      }
+      DataTable dataTable =
+          deserializeServerResponse(serverInstance, response, tableName, processingExceptions, phaseTimes);
+      if (serverResponse.isOfflineTable() && (dataTable == null || hasExceptions(dataTable))) {
+        offlineServerResponsesToCache = null;
+      }
+      if (dataTable != null) {
+        mergeDataTable(reducer, serverInstance, dataTable, phaseTimes);
+      }
+    }
+
+    // Stop waiting for the servers not responded yet.
+    for (CompositeFuture<ServerInstance, ByteBuf> compositeFuture : compositeFutures) {
+      if (!compositeFuture.isDone()) {
+        compositeFuture.cancel(true);
+      }
+    }
+    if (offlineCompositeFuture != null) {
+      scatterGatherStats.setResponseTimeMillis(offlineCompositeFuture.getResponseTimes(), true);
+      if (offlineServerResponsesToCache != null && offlineServerResponsesToCache.size() == numOfflineServersQueried) {
+        _resultCache.put(offlineBrokerRequest, offlineTableVersion, offlineServerResponsesToCache);
+      }
+    }
+    if (realtimeCompositeFuture != null) {
+      scatterGatherStats.setResponseTimeMillis(realtimeCompositeFuture.getResponseTimes(), false);
+    }
+    int numHedgedRequestsUsed = responseGatherer.getNumHedgedRequestsUsed();
+    if (numHedgedRequestsUsed > 0) {
+      _brokerMetrics.addMeteredTableValue(originalTableName, BrokerMeter.HEDGED_REQUESTS_USED, numHedgedRequestsUsed);
+    }
+
+    long reduceStartTime = System.nanoTime();
+    BrokerResponse brokerResponse = reducer.finish();
+    phaseTimes.addToReduceTime(System.nanoTime() - reduceStartTime);
+
+    if (isPartialResult) {
+      brokerResponse.setPartialResult(true);
+      _brokerMetrics.addMeteredTableValue(originalTableName, BrokerMeter.BROKER_RESPONSES_WITH_PARTIAL_RESULT, 1);
+    }
+    return finishBrokerResponse(brokerResponse, originalTableName, processingExceptions, numServersQueried,
+        responseGatherer.getNumServersResponded(), phaseTimes);
+  }
+
+  /**
+   * Re-send the segments of the servers not responded yet to other replicas selected with the replica selection.
+   * <p>Servers with any segment not hosted by another replica are not hedged.
+   */
+  private void sendHedgedRequests(@Nonnull BrokerRequest brokerRequest, boolean isOfflineTable,
+      @Nonnull StreamingResponseGatherer responseGatherer,
+      @Nonnull List<CompositeFuture<ServerInstance, ByteBuf>> compositeFutures, long requestId, long timeoutMs)
+      throws InterruptedException {
+    String tableName = brokerRequest.getQuerySource().getTableName();
+    for (Entry<ServerInstance, SegmentIdSet> entry : responseGatherer.getServersToHedge(isOfflineTable).entrySet()) {
+      ServerInstance hedgedServer = entry.getKey();
+      Map<ServerInstance, SegmentIdSet> segmentServices =
+          selectOtherReplicas(tableName, hedgedServer, entry.getValue(), brokerRequest.getBucketHashKey());
+      if (segmentServices == null) {
+        continue;
+      }
+      LOGGER.debug("Hedging server: {} of table: {} with servers: {}", hedgedServer, tableName,
+          segmentServices.keySet());
+      // Hedged requests are not tracked in the scatter-gather statistics and phase times of the query.
+      CompositeFuture<ServerInstance, ByteBuf> compositeFuture =
+          scatterBrokerRequest(brokerRequest, segmentServices, new PhaseTimes(), new ScatterGatherStats(), null,
+              requestId, timeoutMs);
+      compositeFutures.add(compositeFuture);
+      responseGatherer.addHedgedCompositeFuture(compositeFuture, isOfflineTable, hedgedServer);
+      _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.HEDGED_REQUESTS, 1);
+    }
+  }
+
+  /**
+   * Select a replica other than the given server for each segment.
+   *
+   * @return map from server to set of segments, or null if any segment is not hosted by another replica.
+   */
+  @Nullable
+  private Map<ServerInstance, SegmentIdSet> selectOtherReplicas(@Nonnull String tableName,
+      @Nonnull ServerInstance serverInstance, @Nonnull SegmentIdSet segmentIdSet, @Nullable Object hashKey) {
+    Map<SegmentId, List<ServerInstance>> replicas = _routingTable.findReplicas(tableName, segmentIdSet);
+    Map<ServerInstance, SegmentIdSet> segmentServices = new HashMap<>();
+    for (SegmentId segmentId : segmentIdSet.getSegments()) {
+      List<ServerInstance> servers = replicas.get(segmentId);
+      if (servers == null) {
+        return null;
+      }
+      List<ServerInstance> otherServers = new ArrayList<>(servers);
+      otherServers.remove(serverInstance);
+      if (otherServers.isEmpty()) {
+        return null;
+      }
+      ServerInstance selectedServer = _replicaSelection.selectServer(segmentId, otherServers, hashKey);
+      SegmentIdSet selectedSegments = segmentServices.get(selectedServer);
+      if (selectedSegments == null) {
+        selectedSegments = new SegmentIdSet();
+        segmentServices.put(selectedServer, selectedSegments);
+      }
+      selectedSegments.addSegment(segmentId);
+    }
+    return segmentServices;
+  }
+
+  /**
+   * Merge a de-serialized server response into the incremental reducer.
+   */
+  private static void mergeDataTable(@Nonnull IncrementalReducer<?> reducer, @Nonnull ServerInstance serverInstance,
+      @Nonnull DataTable dataTable, @Nonnull PhaseTimes phaseTimes) {
+    long reduceStartTime = System.nanoTime();
+    reducer.merge(serverInstance, dataTable);
+    phaseTimes.addToReduceTime(System.nanoTime() - reduceStartTime);
+  }
+
+  /**
+   * Set processing exceptions and number of servers queried/responded into the broker response, and update broker
+   * metrics.
+   *
+   * @return broker response.
+   */
+  @Nonnull
+  private BrokerResponse finishBrokerResponse(@Nonnull BrokerResponse brokerResponse, @Nonnull String originalTableName,
+      @Nonnull List<ProcessingException> processingExceptions, int numServersQueried, int numServersResponded,
+      @Nonnull PhaseTimes phaseTimes) {
     // Set processing exceptions and number of servers queried/responded.
     brokerResponse.setExceptions(processingExceptions);
     brokerResponse.setNumServersQueried(numServersQueried);
@@ -501,15 +834,13 @@ public class BrokerRequestHandler {
   }
 
   /**
-   * Route and scatter the broker request.
+   * Route the broker request.
    *
-   * @return composite future used to gather responses.
+   * @return map from server to set of segments to be queried, or null if no server found.
    */
   @Nullable
-  private CompositeFuture<ServerInstance, ByteBuf> routeAndScatterBrokerRequest(@Nonnull BrokerRequest brokerRequest,
-      @Nonnull PhaseTimes phaseTimes, @Nonnull ScatterGatherStats scatterGatherStats,
-      @Nullable BucketingSelection bucketingSelection, long requestId)
-      throws InterruptedException {
+  private Map<ServerInstance, SegmentIdSet> routeBrokerRequest(@Nonnull BrokerRequest brokerRequest,
+      @Nonnull PhaseTimes phaseTimes) {
     // Step 1: find the candidate servers to be queried for each set of segments from the routing table.
     // TODO: add checks for whether all segments are covered.
     long routingStartTime = System.nanoTime();
@@ -521,19 +852,46 @@ public class BrokerRequestHandler {
       _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.NO_SERVER_FOUND_EXCEPTIONS, 1);
       return null;
     }
+    return segmentServices;
+  }
 
+  /**
+   * Scatter the broker request to the servers.
+   *
+   * @return composite future used to gather responses.
+   */
+  @Nonnull
+  private CompositeFuture<ServerInstance, ByteBuf> scatterBrokerRequest(@Nonnull BrokerRequest brokerRequest,
+      @Nonnull Map<ServerInstance, SegmentIdSet> segmentServices, @Nonnull PhaseTimes phaseTimes,
+      @Nonnull ScatterGatherStats scatterGatherStats, @Nullable BucketingSelection bucketingSelection, long requestId,
+      long timeoutMs)
+      throws InterruptedException {
     // Step 2: select servers for each segment set and scatter request to the servers.
     long scatterStartTime = System.nanoTime();
     ScatterGatherRequestImpl scatterRequest =
-        new ScatterGatherRequestImpl(brokerRequest, segmentServices, _replicaSelection,
+        new ScatterGatherRequestImpl(getServerBrokerRequest(brokerRequest), segmentServices, _replicaSelection,
             ReplicaSelectionGranularity.SEGMENT_ID_SET, brokerRequest.getBucketHashKey(), 0, bucketingSelection,
-            requestId, _brokerTimeOutMs, _brokerId);
+            requestId, timeoutMs, _brokerId);
     CompositeFuture<ServerInstance, ByteBuf> compositeFuture =
         _scatterGatherer.scatterGather(scatterRequest, scatterGatherStats, true, _brokerMetrics);
     phaseTimes.addToScatterTime(System.nanoTime() - scatterStartTime);
     return compositeFuture;
   }
 
+  /**
+   * Returns the broker request to be sent to the servers, with the highest data table version the broker can read put
+   * into the debug options. The passed in broker request is not modified as it is used as result cache key.
+   */
+  @Nonnull
+  private BrokerRequest getServerBrokerRequest(@Nonnull BrokerRequest brokerRequest) {
+    if (_dataTableVersion <= DataTableFactory.VERSION_2) {
+      return brokerRequest;
+    }
+    BrokerRequest serverBrokerRequest = brokerRequest.deepCopy();
+    serverBrokerRequest.putToDebugOptions(DataTableFactory.DATA_TABLE_VERSION_KEY, Integer.toString(_dataTableVersion));
+    return serverBrokerRequest;
+  }
+
   /**
    * Find the candidate servers to be queried for each set of segments from the routing table.
    *
@@ -551,7 +909,8 @@ public class BrokerRequestHandler {
       routingOptions =
           Splitter.on(",").omitEmptyStrings().trimResults().splitToList(debugOptions.get("routingOptions"));
     }
-    RoutingTableLookupRequest routingTableLookupRequest = new RoutingTableLookupRequest(tableName, routingOptions);
+    RoutingTableLookupRequest routingTableLookupRequest =
+        new RoutingTableLookupRequest(tableName, routingOptions, brokerRequest);
     return _routingTable.findServers(routingTableLookupRequest);
   }
 
@@ -582,6 +941,85 @@ public class BrokerRequestHandler {
     }
   }
 
+  /**
+   * Returns whether the server responses of the broker request can be served from and put into the result cache.
+   * <p>Requests with trace enabled are never cached as the trace info is per request.
+   */
+  private boolean isResultCacheable(@Nonnull BrokerRequest brokerRequest) {
+    return _resultCache != null && !brokerRequest.isEnableTrace();
+  }
+
+  /**
+   * Read the server responses as byte buffers sharing the content of the Netty buffers, without copying.
+   */
+  @Nonnull
+  private static Map<ServerInstance, ByteBuffer> readServerResponses(
+      @Nonnull Map<ServerInstance, ByteBuf> responseMap) {
+    Map<ServerInstance, ByteBuffer> serverResponses = new HashMap<>(responseMap.size());
+    for (Entry<ServerInstance, ByteBuf> entry : responseMap.entrySet()) {
+      serverResponses.put(entry.getKey(), entry.getValue().nioBuffer());
+    }
+    return serverResponses;
+  }
+
+  /**
+   * Copy the server responses into byte arrays to be put into the result cache.
+   */
+  @Nonnull
+  private static Map<ServerInstance, byte[]> copyServerResponses(
+      @Nonnull Map<ServerInstance, ByteBuffer> serverResponses) {
+    Map<ServerInstance, byte[]> serverResponseBytes = new HashMap<>(serverResponses.size());
+    for (Entry<ServerInstance, ByteBuffer> entry : serverResponses.entrySet()) {
+      serverResponseBytes.put(entry.getKey(), copyServerResponse(entry.getValue()));
+    }
+    return serverResponseBytes;
+  }
+
+  @Nonnull
+  private static byte[] copyServerResponse(@Nonnull ByteBuffer serverResponse) {
+    ByteBuffer byteBuffer = serverResponse.duplicate();
+    byte[] bytes = new byte[byteBuffer.remaining()];
+    byteBuffer.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Wrap the cached server responses into byte buffers.
+   */
+  @Nonnull
+  private static Map<ServerInstance, ByteBuffer> wrapServerResponses(
+      @Nonnull Map<ServerInstance, byte[]> serverResponseBytes) {
+    Map<ServerInstance, ByteBuffer> serverResponses = new HashMap<>(serverResponseBytes.size());
+    for (Entry<ServerInstance, byte[]> entry : serverResponseBytes.entrySet()) {
+      serverResponses.put(entry.getKey(), ByteBuffer.wrap(entry.getValue()));
+    }
+    return serverResponses;
+  }
+
+  /**
+   * Returns whether any of the data tables contains a processing exception from the server.
+   */
+  private static boolean hasExceptions(@Nonnull Map<ServerInstance, DataTable> dataTableMap) {
+    for (DataTable dataTable : dataTableMap.values()) {
+      if (hasExceptions(dataTable)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether the data table contains a processing exception from the server.
+   */
+  private static boolean hasExceptions(@Nonnull DataTable dataTable) {
+    for (String key : dataTable.getMetadata().keySet()) {
+      if (key.startsWith(DataTable.EXCEPTION_METADATA_KEY)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Deserialize the server responses, put the de-serialized data table into the data table map passed in, append
    * processing exceptions to the processing exception list passed in.
@@ -594,28 +1032,50 @@ public class BrokerRequestHandler {
    * @param tableName table name.
    * @param processingExceptions list of processing exceptions.
    */
-  private void deserializeServerResponses(@Nonnull Map<ServerInstance, ByteBuf> responseMap, boolean isOfflineTable,
-      @Nonnull Map<ServerInstance, DataTable> dataTableMap, @Nonnull String tableName,
+  private void deserializeServerResponses(@Nonnull Map<ServerInstance, ByteBuffer> responseMap,
+      boolean isOfflineTable, @Nonnull Map<ServerInstance, DataTable> dataTableMap, @Nonnull String tableName,
       @Nonnull List<ProcessingException> processingExceptions) {
-    for (Entry<ServerInstance, ByteBuf> entry : responseMap.entrySet()) {
+    for (Entry<ServerInstance, ByteBuffer> entry : responseMap.entrySet()) {
       ServerInstance serverInstance = entry.getKey();
       if (!isOfflineTable) {
         serverInstance = new ServerInstance(serverInstance.getHostname(), serverInstance.getPort(), 1);
       }
-      ByteBuf byteBuf = entry.getValue();
       try {
-        byte[] byteArray = new byte[byteBuf.readableBytes()];
-        byteBuf.readBytes(byteArray);
-        dataTableMap.put(serverInstance, DataTableFactory.getDataTable(byteArray));
+        dataTableMap.put(serverInstance, DataTableFactory.getDataTable(entry.getValue()));
       } catch (Exception e) {
-        LOGGER.error("Caught exceptions while deserializing response for table: {} from server: {}", tableName,
-            serverInstance, e);
-        _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.DATA_TABLE_DESERIALIZATION_EXCEPTIONS, 1);
-        processingExceptions.add(QueryException.getException(QueryException.DATA_TABLE_DESERIALIZATION_ERROR, e));
+        handleDeserializationException(serverInstance, tableName, processingExceptions, e);
       }
     }
   }
 
+  /**
+   * Deserialize a server response, append processing exceptions to the processing exception list passed in.
+   *
+   * @return de-serialized data table, or null if failed to de-serialize the response.
+   */
+  @Nullable
+  private DataTable deserializeServerResponse(@Nonnull ServerInstance serverInstance, @Nonnull ByteBuffer response,
+      @Nonnull String tableName, @Nonnull List<ProcessingException> processingExceptions,
+      @Nonnull PhaseTimes phaseTimes) {
+    long deserializationStartTime = System.nanoTime();
+    try {
+      return DataTableFactory.getDataTable(response);
+    } catch (Exception e) {
+      handleDeserializationException(serverInstance, tableName, processingExceptions, e);
+      return null;
+    } finally {
+      phaseTimes.addToDeserializationTime(System.nanoTime() - deserializationStartTime);
+    }
+  }
+
+  private void handleDeserializationException(@Nonnull ServerInstance serverInstance, @Nonnull String tableName,
+      @Nonnull List<ProcessingException> processingExceptions, @Nonnull Exception e) {
+    LOGGER.error("Caught exceptions while deserializing response for table: {} from server: {}", tableName,
+        serverInstance, e);
+    _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.DATA_TABLE_DESERIALIZATION_EXCEPTIONS, 1);
+    processingExceptions.add(QueryException.getException(QueryException.DATA_TABLE_DESERIALIZATION_ERROR, e));
+  }
+
   /**
    * Container for time statistics in all phases.
    */
@@ -745,6 +1205,14 @@ public class BrokerRequestHandler {
     }
   }
 
+  /**
+   * Returns the query result cache, or <code>null</code> if it is disabled.
+   */
+  @Nullable
+  public BrokerResultCache getResultCache() {
+    return _resultCache;
+  }
+
   public String getRoutingTableSnapshot(String tableName)
       throws Exception {
     return _routingTable.dumpSnapshot(tableName);
@@ -0,0 +1,225 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.requesthandler;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.common.metrics.BrokerGauge;
+import com.linkedin.pinot.common.metrics.BrokerMeter;
+import com.linkedin.pinot.common.metrics.BrokerMetrics;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.common.utils.request.RequestUtils;
+import com.linkedin.pinot.routing.RoutingTableChangeListener;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>BrokerResultCache</code> class caches the serialized server responses of broker requests on OFFLINE
+ * tables, so that identical queries can be reduced again without being routed and scattered to the servers.
+ * <p>Entries are keyed by the normalized optimized broker request sent to the servers (including the time boundary
+ * filter for hybrid tables), bounded by the total size of the cached responses with LRU eviction, and expire after a
+ * TTL.
+ * <p>All entries of a table are invalidated when its routing table changes, or when the CRC of one of its segments
+ * changes in the segment ZK metadata (segment refreshed with the same name, which does not change the routing table).
+ * Responses of requests started before the change are not cached, which is tracked through a per table version.
+ * Responses gathered while the servers are still loading a refreshed segment can be cached until the TTL expires.
+ */
+@ThreadSafe
+public class BrokerResultCache implements RoutingTableChangeListener {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BrokerResultCache.class);
+
+  // Cache is disabled when max size is not positive
+  public static final String MAX_SIZE_IN_BYTES_CONFIG = "pinot.broker.result.cache.maxSizeInBytes";
+  public static final long DEFAULT_MAX_SIZE_IN_BYTES = 0L;
+  public static final String TTL_MS_CONFIG = "pinot.broker.result.cache.ttlMs";
+  public static final long DEFAULT_TTL_MS = 5 * 60 * 1000L;
+
+  private final long _maxSizeInBytes;
+  private final long _ttlMs;
+  private final BrokerMetrics _brokerMetrics;
+
+  // Guarded by this, in access order for LRU eviction
+  private final LinkedHashMap<BrokerRequest, CachedResult> _cache = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, Long> _tableVersions = new HashMap<>();
+  private long _sizeInBytes = 0L;
+
+  public BrokerResultCache(long maxSizeInBytes, long ttlMs, @Nonnull BrokerMetrics brokerMetrics) {
+    Preconditions.checkArgument(maxSizeInBytes > 0, "Max size in bytes must be positive, got: %s", maxSizeInBytes);
+    Preconditions.checkArgument(ttlMs > 0, "TTL must be positive, got: %s", ttlMs);
+    _maxSizeInBytes = maxSizeInBytes;
+    _ttlMs = ttlMs;
+    _brokerMetrics = brokerMetrics;
+    LOGGER.info("Broker result cache max size: {} bytes, TTL: {} ms", maxSizeInBytes, ttlMs);
+  }
+
+  /**
+   * Creates the result cache from the broker config, or returns <code>null</code> if the cache is disabled.
+   */
+  @Nullable
+  public static BrokerResultCache create(@Nonnull Configuration config, @Nonnull BrokerMetrics brokerMetrics) {
+    long maxSizeInBytes = config.getLong(MAX_SIZE_IN_BYTES_CONFIG, DEFAULT_MAX_SIZE_IN_BYTES);
+    if (maxSizeInBytes <= 0) {
+      return null;
+    }
+    return new BrokerResultCache(maxSizeInBytes, config.getLong(TTL_MS_CONFIG, DEFAULT_TTL_MS), brokerMetrics);
+  }
+
+  /**
+   * Returns the cached server responses for the given broker request, or <code>null</code> if not cached.
+   */
+  @Nullable
+  public Map<ServerInstance, byte[]> get(@Nonnull BrokerRequest brokerRequest) {
+    String tableName = brokerRequest.getQuerySource().getTableName();
+    CachedResult cachedResult;
+    BrokerRequest normalizedBrokerRequest = RequestUtils.normalizeFilterQueryIds(brokerRequest);
+    synchronized (this) {
+      cachedResult = _cache.get(normalizedBrokerRequest);
+      if (cachedResult != null && System.currentTimeMillis() >= cachedResult._expirationTimeMs) {
+        removeEntry(normalizedBrokerRequest, cachedResult);
+        _brokerMetrics.addMeteredGlobalValue(BrokerMeter.RESULT_CACHE_EVICTIONS, 1L);
+        cachedResult = null;
+      }
+    }
+    if (cachedResult == null) {
+      _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.RESULT_CACHE_MISSES, 1L);
+      return null;
+    }
+    _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.RESULT_CACHE_HITS, 1L);
+    return cachedResult._serverResponses;
+  }
+
+  /**
+   * Returns the current version of the given table, to be passed to {@link #put} once the responses are gathered.
+   */
+  public synchronized long getTableVersion(@Nonnull String tableName) {
+    Long tableVersion = _tableVersions.get(tableName);
+    return tableVersion != null ? tableVersion : 0L;
+  }
+
+  /**
+   * Caches the complete server responses for the given broker request.
+   * <p>The responses are dropped if the routing of the table changed since the given table version was fetched, or
+   * if they are larger than the cache.
+   *
+   * @param brokerRequest broker request.
+   * @param tableVersion table version fetched before the request was routed.
+   * @param serverResponses serialized data tables from all the servers queried.
+   */
+  public void put(@Nonnull BrokerRequest brokerRequest, long tableVersion,
+      @Nonnull Map<ServerInstance, byte[]> serverResponses) {
+    long sizeInBytes = 0L;
+    for (byte[] serverResponse : serverResponses.values()) {
+      sizeInBytes += serverResponse.length;
+    }
+    if (sizeInBytes > _maxSizeInBytes) {
+      return;
+    }
+    String tableName = brokerRequest.getQuerySource().getTableName();
+    BrokerRequest normalizedBrokerRequest = RequestUtils.normalizeFilterQueryIds(brokerRequest);
+    CachedResult cachedResult =
+        new CachedResult(serverResponses, sizeInBytes, System.currentTimeMillis() + _ttlMs);
+
+    int numEvicted = 0;
+    synchronized (this) {
+      if (getTableVersion(tableName) != tableVersion) {
+        return;
+      }
+      CachedResult previousResult = _cache.put(normalizedBrokerRequest, cachedResult);
+      if (previousResult != null) {
+        _sizeInBytes -= previousResult._sizeInBytes;
+      }
+      _sizeInBytes += sizeInBytes;
+
+      // Evict the least recently used entries
+      Iterator<Map.Entry<BrokerRequest, CachedResult>> iterator = _cache.entrySet().iterator();
+      while (_sizeInBytes > _maxSizeInBytes) {
+        CachedResult evictedResult = iterator.next().getValue();
+        iterator.remove();
+        _sizeInBytes -= evictedResult._sizeInBytes;
+        numEvicted++;
+      }
+      updateGauges();
+    }
+    if (numEvicted > 0) {
+      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.RESULT_CACHE_EVICTIONS, numEvicted);
+    }
+  }
+
+  /**
+   * Invalidates all the cached results of the table.
+   */
+  @Override
+  public void onRoutingTableChange(String tableName) {
+    int numInvalidated = 0;
+    synchronized (this) {
+      _tableVersions.put(tableName, getTableVersion(tableName) + 1);
+      Iterator<Map.Entry<BrokerRequest, CachedResult>> iterator = _cache.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<BrokerRequest, CachedResult> entry = iterator.next();
+        if (entry.getKey().getQuerySource().getTableName().equals(tableName)) {
+          iterator.remove();
+          _sizeInBytes -= entry.getValue()._sizeInBytes;
+          numInvalidated++;
+        }
+      }
+      updateGauges();
+    }
+    if (numInvalidated > 0) {
+      LOGGER.info("Invalidated {} cached results for table {}", numInvalidated, tableName);
+      _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.RESULT_CACHE_INVALIDATIONS, numInvalidated);
+    }
+  }
+
+  public synchronized int size() {
+    return _cache.size();
+  }
+
+  public synchronized long getSizeInBytes() {
+    return _sizeInBytes;
+  }
+
+  private void removeEntry(BrokerRequest brokerRequest, CachedResult cachedResult) {
+    _cache.remove(brokerRequest);
+    _sizeInBytes -= cachedResult._sizeInBytes;
+    updateGauges();
+  }
+
+  private void updateGauges() {
+    _brokerMetrics.setValueOfGlobalGauge(BrokerGauge.RESULT_CACHE_SIZE_IN_BYTES, _sizeInBytes);
+    _brokerMetrics.setValueOfGlobalGauge(BrokerGauge.RESULT_CACHE_NUM_ENTRIES, _cache.size());
+  }
+
+  private static class CachedResult {
+    private final Map<ServerInstance, byte[]> _serverResponses;
+    private final long _sizeInBytes;
+    private final long _expirationTimeMs;
+
+    private CachedResult(Map<ServerInstance, byte[]> serverResponses, long sizeInBytes, long expirationTimeMs) {
+      _serverResponses = serverResponses;
+      _sizeInBytes = sizeInBytes;
+      _expirationTimeMs = expirationTimeMs;
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.requesthandler;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+
+/**
+ * Holder for the query options allowing the broker not to wait for the servers slow to respond.
+ *
+ * The options are specified as broker request debug options:
+ * <ul>
+ *   <li>"partialResultServerFraction": return as soon as this fraction of the queried servers responded.</li>
+ *   <li>"partialResultSegmentFraction": return as soon as the servers queried for this fraction of the segments
+ *   responded.</li>
+ *   <li>"partialResultTimeoutMs": return the responses received so far after this soft deadline, instead of waiting
+ *   until the broker timeout.</li>
+ *   <li>"hedgeDelayMs": after this delay, re-send the segments of the servers that did not respond yet to another
+ *   replica, and use whichever response arrives first.</li>
+ * </ul>
+ * Broker responses returned before all the servers responded are marked as partial result.
+ */
+public class PartialResultOptions {
+  public static final String SERVER_FRACTION_KEY = "partialResultServerFraction";
+  public static final String SEGMENT_FRACTION_KEY = "partialResultSegmentFraction";
+  public static final String TIMEOUT_MS_KEY = "partialResultTimeoutMs";
+  public static final String HEDGE_DELAY_MS_KEY = "hedgeDelayMs";
+
+  public static final long NOT_SET = -1L;
+
+  private final double _serverFraction;
+  private final double _segmentFraction;
+  private final long _timeoutMs;
+  private final long _hedgeDelayMs;
+
+  private PartialResultOptions(double serverFraction, double segmentFraction, long timeoutMs, long hedgeDelayMs) {
+    _serverFraction = serverFraction;
+    _segmentFraction = segmentFraction;
+    _timeoutMs = timeoutMs;
+    _hedgeDelayMs = hedgeDelayMs;
+  }
+
+  /**
+   * Returns the fraction of servers to wait for, 1 if not set.
+   */
+  public double getServerFraction() {
+    return _serverFraction;
+  }
+
+  /**
+   * Returns the fraction of segments to wait for, 1 if not set.
+   */
+  public double getSegmentFraction() {
+    return _segmentFraction;
+  }
+
+  /**
+   * Returns the soft deadline in milliseconds, or {@link #NOT_SET}.
+   */
+  public long getTimeoutMs() {
+    return _timeoutMs;
+  }
+
+  /**
+   * Returns the delay in milliseconds before sending hedged requests, or {@link #NOT_SET}.
+   */
+  public long getHedgeDelayMs() {
+    return _hedgeDelayMs;
+  }
+
+  /**
+   * Returns the partial result options contained in the debug options of a broker request, or null if there are no
+   * such options.
+   *
+   * @param brokerRequest The broker request from which to extract the partial result options
+   * @return The partial result options for this request, or null.
+   */
+  public static @Nullable PartialResultOptions getPartialResultOptions(BrokerRequest brokerRequest) {
+    if (brokerRequest == null || brokerRequest.getDebugOptions() == null) {
+      return null;
+    }
+
+    Map<String, String> debugOptions = brokerRequest.getDebugOptions();
+    String serverFraction = debugOptions.get(SERVER_FRACTION_KEY);
+    String segmentFraction = debugOptions.get(SEGMENT_FRACTION_KEY);
+    String timeoutMs = debugOptions.get(TIMEOUT_MS_KEY);
+    String hedgeDelayMs = debugOptions.get(HEDGE_DELAY_MS_KEY);
+    if (serverFraction == null && segmentFraction == null && timeoutMs == null && hedgeDelayMs == null) {
+      return null;
+    }
+
+    return new PartialResultOptions(parseFraction(SERVER_FRACTION_KEY, serverFraction),
+        parseFraction(SEGMENT_FRACTION_KEY, segmentFraction), parseTimeMs(TIMEOUT_MS_KEY, timeoutMs),
+        parseTimeMs(HEDGE_DELAY_MS_KEY, hedgeDelayMs));
+  }
+
+  private static double parseFraction(String key, @Nullable String value) {
+    if (value == null) {
+      return 1.0;
+    }
+    double fraction = Double.parseDouble(value);
+    Preconditions.checkArgument(fraction > 0.0 && fraction <= 1.0, "Invalid %s: %s, should be in (0, 1]", key, value);
+    return fraction;
+  }
+
+  private static long parseTimeMs(String key, @Nullable String value) {
+    if (value == null) {
+      return NOT_SET;
+    }
+    long timeMs = Long.parseLong(value);
+    Preconditions.checkArgument(timeMs >= 0L, "Invalid %s: %s, should not be negative", key, value);
+    return timeMs;
+  }
+}
@@ -0,0 +1,347 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.requesthandler;
+
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.transport.common.CompositeFuture;
+import com.linkedin.pinot.transport.common.SegmentIdSet;
+import io.netty.buffer.ByteBuf;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+
+/**
+ * The <code>StreamingResponseGatherer</code> class gathers the server responses of the composite futures of one query
+ * one at a time, as soon as each of them is received, so that the broker can de-serialize and reduce them while the
+ * other servers are still processing the query.
+ * <p>The responses are put into a queue by the transport threads, and taken from it by the broker request thread,
+ * which also keeps track of the servers not responded yet. A server slow to respond can be hedged by re-sending its
+ * segments to other replicas, in which case whichever of the original or the hedged responses completes first is
+ * used and the other one is dropped.
+ */
+@NotThreadSafe
+class StreamingResponseGatherer {
+  // For hybrid use case, multiple responses might be from the same instance. Use response sequence to distinguish
+  // them.
+  private static final int REALTIME_SEQUENCE = 1;
+  private static final int FIRST_HEDGED_SEQUENCE = 2;
+
+  private final BlockingQueue<GatherEvent> _eventQueue = new LinkedBlockingQueue<>();
+  private final Map<ServerInstance, PendingServer> _pendingOfflineServers = new HashMap<>();
+  private final Map<ServerInstance, PendingServer> _pendingRealtimeServers = new HashMap<>();
+  private final Queue<ServerResponse> _readyResponses = new ArrayDeque<>();
+
+  private int _numServers = 0;
+  private int _numSegments = 0;
+  private int _numServersResponded = 0;
+  private int _numSegmentsResponded = 0;
+  private int _numHedgedRequestsUsed = 0;
+  private int _nextHedgedSequence = FIRST_HEDGED_SEQUENCE;
+
+  /**
+   * Start gathering the responses of the composite future.
+   *
+   * @param compositeFuture composite future returned from scatter phase.
+   * @param isOfflineTable whether the scatter-gather target is an OFFLINE table.
+   * @param segmentServices map from server to segments queried on it.
+   */
+  void addCompositeFuture(@Nonnull CompositeFuture<ServerInstance, ByteBuf> compositeFuture,
+      final boolean isOfflineTable, @Nonnull Map<ServerInstance, SegmentIdSet> segmentServices) {
+    // Composite future without underlying futures never completes, and the request was not sent to any server.
+    if (compositeFuture.getNumFutures() == 0) {
+      return;
+    }
+    Map<ServerInstance, PendingServer> pendingServers = getPendingServers(isOfflineTable);
+    for (Map.Entry<ServerInstance, SegmentIdSet> entry : segmentServices.entrySet()) {
+      ServerInstance serverInstance = entry.getKey();
+      SegmentIdSet segmentIdSet = entry.getValue();
+      pendingServers.put(serverInstance, new PendingServer(serverInstance, segmentIdSet));
+      _numServers++;
+      _numSegments += segmentIdSet.getSegments().size();
+    }
+    listen(compositeFuture, isOfflineTable, null);
+  }
+
+  /**
+   * Start gathering the responses of a hedged request for a server not responded yet.
+   *
+   * @param compositeFuture composite future returned from scatter phase of the hedged request.
+   * @param isOfflineTable whether the scatter-gather target is an OFFLINE table.
+   * @param hedgedServer server hedged by the request.
+   */
+  void addHedgedCompositeFuture(@Nonnull CompositeFuture<ServerInstance, ByteBuf> compositeFuture,
+      boolean isOfflineTable, @Nonnull ServerInstance hedgedServer) {
+    PendingServer pendingServer = getPendingServers(isOfflineTable).get(hedgedServer);
+    if (pendingServer == null || compositeFuture.getNumFutures() == 0) {
+      return;
+    }
+    pendingServer._hedgedRequest = new HedgedRequest(compositeFuture.getNumFutures());
+    listen(compositeFuture, isOfflineTable, pendingServer);
+  }
+
+  private void listen(@Nonnull CompositeFuture<ServerInstance, ByteBuf> compositeFuture, final boolean isOfflineTable,
+      @Nullable final PendingServer hedgedServer) {
+    compositeFuture.setResponseListener(new CompositeFuture.ResponseListener<ServerInstance, ByteBuf>() {
+      @Override
+      public void onResponse(ServerInstance serverInstance, ByteBuf response) {
+        _eventQueue.add(new GatherEvent(isOfflineTable, hedgedServer, serverInstance, response));
+      }
+    });
+    compositeFuture.addListener(new Runnable() {
+      @Override
+      public void run() {
+        _eventQueue.add(new GatherEvent(isOfflineTable, hedgedServer, null, null));
+      }
+    }, null);
+  }
+
+  /**
+   * Returns the servers not responded yet and not hedged yet, with the segments queried on them.
+   *
+   * @param isOfflineTable whether to return the servers of the OFFLINE or the REALTIME table.
+   */
+  @Nonnull
+  Map<ServerInstance, SegmentIdSet> getServersToHedge(boolean isOfflineTable) {
+    Map<ServerInstance, SegmentIdSet> serversToHedge = new HashMap<>();
+    for (PendingServer pendingServer : getPendingServers(isOfflineTable).values()) {
+      if (pendingServer._hedgedRequest == null && !pendingServer._isFailed) {
+        serversToHedge.put(pendingServer._serverInstance, pendingServer._segmentIdSet);
+      }
+    }
+    return serversToHedge;
+  }
+
+  /**
+   * Wait for the next server response.
+   *
+   * @param timeoutMs timeout in milliseconds.
+   * @return next server response, or null if timed out or all the servers responded or failed.
+   * @throws InterruptedException
+   */
+  @Nullable
+  ServerResponse poll(long timeoutMs)
+      throws InterruptedException {
+    long endTimeNs = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    while (_readyResponses.isEmpty() && hasPendingServers()) {
+      GatherEvent event = _eventQueue.poll(endTimeNs - System.nanoTime(), TimeUnit.NANOSECONDS);
+      if (event == null) {
+        return null;
+      }
+      processEvent(event);
+    }
+    return _readyResponses.poll();
+  }
+
+  private void processEvent(@Nonnull GatherEvent event) {
+    Map<ServerInstance, PendingServer> pendingServers = getPendingServers(event._isOfflineTable);
+    PendingServer hedgedServer = event._hedgedServer;
+
+    if (hedgedServer == null) {
+      // Event from the original request.
+      if (event._response != null) {
+        PendingServer pendingServer = pendingServers.remove(event._serverInstance);
+        if (pendingServer != null) {
+          ServerInstance serverInstance = event._serverInstance;
+          if (!event._isOfflineTable) {
+            serverInstance =
+                new ServerInstance(serverInstance.getHostname(), serverInstance.getPort(), REALTIME_SEQUENCE);
+          }
+          addReadyResponse(pendingServer, new ServerResponse(serverInstance, event._response, event._isOfflineTable,
+              false));
+        }
+      } else {
+        // The composite future completed, the servers not responded failed unless they are still hedged.
+        Iterator<PendingServer> iterator = pendingServers.values().iterator();
+        while (iterator.hasNext()) {
+          PendingServer pendingServer = iterator.next();
+          pendingServer._isFailed = true;
+          HedgedRequest hedgedRequest = pendingServer._hedgedRequest;
+          if (hedgedRequest == null || hedgedRequest._isDone) {
+            iterator.remove();
+          }
+        }
+      }
+      return;
+    }
+
+    // Event from a hedged request, ignored if the hedged server already responded.
+    if (pendingServers.get(hedgedServer._serverInstance) != hedgedServer) {
+      return;
+    }
+    HedgedRequest hedgedRequest = hedgedServer._hedgedRequest;
+    if (event._response != null) {
+      hedgedRequest._responses.add(event);
+      if (hedgedRequest._responses.size() == hedgedRequest._numRequests) {
+        pendingServers.remove(hedgedServer._serverInstance);
+        for (GatherEvent hedgedResponse : hedgedRequest._responses) {
+          ServerInstance serverInstance = new ServerInstance(hedgedResponse._serverInstance.getHostname(),
+              hedgedResponse._serverInstance.getPort(), _nextHedgedSequence++);
+          _readyResponses.add(
+              new ServerResponse(serverInstance, hedgedResponse._response, hedgedResponse._isOfflineTable, true));
+        }
+        _numServersResponded++;
+        _numSegmentsResponded += hedgedServer._segmentIdSet.getSegments().size();
+        _numHedgedRequestsUsed++;
+      }
+    } else {
+      hedgedRequest._isDone = true;
+      if (hedgedServer._isFailed) {
+        pendingServers.remove(hedgedServer._serverInstance);
+      }
+    }
+  }
+
+  private void addReadyResponse(@Nonnull PendingServer pendingServer, @Nonnull ServerResponse serverResponse) {
+    _readyResponses.add(serverResponse);
+    _numServersResponded++;
+    _numSegmentsResponded += pendingServer._segmentIdSet.getSegments().size();
+  }
+
+  @Nonnull
+  private Map<ServerInstance, PendingServer> getPendingServers(boolean isOfflineTable) {
+    return isOfflineTable ? _pendingOfflineServers : _pendingRealtimeServers;
+  }
+
+  private boolean hasPendingServers() {
+    return !_pendingOfflineServers.isEmpty() || !_pendingRealtimeServers.isEmpty();
+  }
+
+  /**
+   * Returns whether all the servers responded or failed, and all their responses got polled.
+   */
+  boolean isDone() {
+    return _readyResponses.isEmpty() && !hasPendingServers();
+  }
+
+  /**
+   * Returns whether enough servers or segments responded, and all their responses got polled.
+   *
+   * @param serverFraction fraction of the servers to wait for.
+   * @param segmentFraction fraction of the segments to wait for.
+   */
+  boolean hasEnoughResponses(double serverFraction, double segmentFraction) {
+    if (!_readyResponses.isEmpty()) {
+      return false;
+    }
+    return (serverFraction < 1.0 && _numServersResponded >= serverFraction * _numServers) || (segmentFraction < 1.0
+        && _numSegmentsResponded >= segmentFraction * _numSegments);
+  }
+
+  /**
+   * Returns the number of servers responded, either directly or through hedged requests.
+   */
+  int getNumServersResponded() {
+    return _numServersResponded;
+  }
+
+  int getNumHedgedRequestsUsed() {
+    return _numHedgedRequestsUsed;
+  }
+
+  static class ServerResponse {
+    private final ServerInstance _serverInstance;
+    private final ByteBuf _response;
+    private final boolean _isOfflineTable;
+    private final boolean _isHedged;
+
+    private ServerResponse(ServerInstance serverInstance, ByteBuf response, boolean isOfflineTable,
+        boolean isHedged) {
+      _serverInstance = serverInstance;
+      _response = response;
+      _isOfflineTable = isOfflineTable;
+      _isHedged = isHedged;
+    }
+
+    /**
+     * Returns the server instance, with a sequence distinguishing the responses of the same instance.
+     */
+    ServerInstance getServerInstance() {
+      return _serverInstance;
+    }
+
+    ByteBuf getResponse() {
+      return _response;
+    }
+
+    boolean isOfflineTable() {
+      return _isOfflineTable;
+    }
+
+    /**
+     * Returns whether the response is from a hedged request instead of the original one.
+     */
+    boolean isHedged() {
+      return _isHedged;
+    }
+  }
+
+  /**
+   * Response or completion of a composite future, put into the queue by the transport threads.
+   */
+  private static class GatherEvent {
+    private final boolean _isOfflineTable;
+    // Server hedged by the request, null for the original request
+    private final PendingServer _hedgedServer;
+    // Both null for the completion of the composite future
+    private final ServerInstance _serverInstance;
+    private final ByteBuf _response;
+
+    private GatherEvent(boolean isOfflineTable, PendingServer hedgedServer, ServerInstance serverInstance,
+        ByteBuf response) {
+      _isOfflineTable = isOfflineTable;
+      _hedgedServer = hedgedServer;
+      _serverInstance = serverInstance;
+      _response = response;
+    }
+  }
+
+  private static class PendingServer {
+    private final ServerInstance _serverInstance;
+    private final SegmentIdSet _segmentIdSet;
+    // Whether the original request failed
+    private boolean _isFailed = false;
+    private HedgedRequest _hedgedRequest;
+
+    private PendingServer(ServerInstance serverInstance, SegmentIdSet segmentIdSet) {
+      _serverInstance = serverInstance;
+      _segmentIdSet = segmentIdSet;
+    }
+  }
+
+  /**
+   * Hedged request for the segments of a server, possibly sent to multiple replicas.
+   */
+  private static class HedgedRequest {
+    private final int _numRequests;
+    private final List<GatherEvent> _responses = new ArrayList<>();
+    private boolean _isDone = false;
+
+    private HedgedRequest(int numRequests) {
+      _numRequests = numRequests;
+    }
+  }
+}
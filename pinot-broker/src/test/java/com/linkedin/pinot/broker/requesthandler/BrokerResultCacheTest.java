@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.requesthandler;
+
+import com.linkedin.pinot.common.metrics.BrokerMetrics;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.util.Collections;
+import java.util.Map;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class BrokerResultCacheTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final String QUERY = "SELECT COUNT(*) FROM myTable_OFFLINE WHERE a = 1 AND (b = 2 OR c < 3)";
+  private static final ServerInstance SERVER_INSTANCE = new ServerInstance("localhost", 1234);
+
+  private final BrokerMetrics _brokerMetrics = new BrokerMetrics(new MetricsRegistry());
+
+  @Test
+  public void testGetAndPut() {
+    BrokerResultCache resultCache = new BrokerResultCache(1000L, 60_000L, _brokerMetrics);
+    BrokerRequest brokerRequest = compile(QUERY);
+    Assert.assertNull(resultCache.get(brokerRequest));
+
+    resultCache.put(brokerRequest, resultCache.getTableVersion("myTable_OFFLINE"), createServerResponses(100));
+    Assert.assertEquals(resultCache.size(), 1);
+    Assert.assertEquals(resultCache.getSizeInBytes(), 100L);
+
+    // Same query with different formatting and filter query ids is normalized into the same broker request
+    Map<ServerInstance, byte[]> cachedResponses =
+        resultCache.get(compile("select count(*) from myTable_OFFLINE where a=1 and (b=2 or c<3)"));
+    Assert.assertNotNull(cachedResponses);
+    Assert.assertEquals(cachedResponses.get(SERVER_INSTANCE).length, 100);
+    Assert.assertNull(resultCache.get(compile(QUERY.replace("c < 3", "c < 4"))));
+
+    // Modifying the request after put does not affect the cache
+    brokerRequest.getQuerySource().setTableName("otherTable_OFFLINE");
+    Assert.assertNotNull(resultCache.get(compile(QUERY)));
+  }
+
+  @Test
+  public void testLruEviction() {
+    BrokerResultCache resultCache = new BrokerResultCache(250L, 60_000L, _brokerMetrics);
+    BrokerRequest request1 = compile("SELECT COUNT(*) FROM myTable_OFFLINE WHERE a = 1");
+    BrokerRequest request2 = compile("SELECT COUNT(*) FROM myTable_OFFLINE WHERE a = 2");
+    BrokerRequest request3 = compile("SELECT COUNT(*) FROM myTable_OFFLINE WHERE a = 3");
+    resultCache.put(request1, 0L, createServerResponses(100));
+    resultCache.put(request2, 0L, createServerResponses(100));
+    // Access request1 so that request2 becomes the least recently used
+    Assert.assertNotNull(resultCache.get(request1));
+    resultCache.put(request3, 0L, createServerResponses(100));
+
+    Assert.assertEquals(resultCache.size(), 2);
+    Assert.assertEquals(resultCache.getSizeInBytes(), 200L);
+    Assert.assertNotNull(resultCache.get(request1));
+    Assert.assertNull(resultCache.get(request2));
+    Assert.assertNotNull(resultCache.get(request3));
+
+    // Responses larger than the cache are not cached
+    resultCache.put(request2, 0L, createServerResponses(300));
+    Assert.assertNull(resultCache.get(request2));
+    Assert.assertEquals(resultCache.size(), 2);
+  }
+
+  @Test
+  public void testTtlExpiration()
+      throws Exception {
+    BrokerResultCache resultCache = new BrokerResultCache(1000L, 50L, _brokerMetrics);
+    BrokerRequest brokerRequest = compile("SELECT COUNT(*) FROM myTable_OFFLINE");
+    resultCache.put(brokerRequest, 0L, createServerResponses(100));
+    Assert.assertNotNull(resultCache.get(brokerRequest));
+    Thread.sleep(100L);
+    Assert.assertNull(resultCache.get(brokerRequest));
+    Assert.assertEquals(resultCache.size(), 0);
+    Assert.assertEquals(resultCache.getSizeInBytes(), 0L);
+  }
+
+  @Test
+  public void testRoutingTableChangeInvalidation() {
+    BrokerResultCache resultCache = new BrokerResultCache(1000L, 60_000L, _brokerMetrics);
+    BrokerRequest request1 = compile("SELECT COUNT(*) FROM myTable_OFFLINE");
+    BrokerRequest request2 = compile("SELECT COUNT(*) FROM otherTable_OFFLINE");
+    resultCache.put(request1, resultCache.getTableVersion("myTable_OFFLINE"), createServerResponses(100));
+    resultCache.put(request2, resultCache.getTableVersion("otherTable_OFFLINE"), createServerResponses(100));
+
+    // Responses gathered before the routing change must not be cached
+    long tableVersion = resultCache.getTableVersion("myTable_OFFLINE");
+    resultCache.onRoutingTableChange("myTable_OFFLINE");
+    Assert.assertNull(resultCache.get(request1));
+    Assert.assertNotNull(resultCache.get(request2));
+    Assert.assertEquals(resultCache.getSizeInBytes(), 100L);
+
+    resultCache.put(request1, tableVersion, createServerResponses(100));
+    Assert.assertNull(resultCache.get(request1));
+    resultCache.put(request1, resultCache.getTableVersion("myTable_OFFLINE"), createServerResponses(100));
+    Assert.assertNotNull(resultCache.get(request1));
+  }
+
+  private static BrokerRequest compile(String pql) {
+    return COMPILER.compileToBrokerRequest(pql);
+  }
+
+  private static Map<ServerInstance, byte[]> createServerResponses(int size) {
+    return Collections.singletonMap(SERVER_INSTANCE, new byte[size]);
+  }
+}
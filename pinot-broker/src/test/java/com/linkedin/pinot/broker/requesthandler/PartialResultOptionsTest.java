@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.requesthandler;
+
+import com.linkedin.pinot.common.request.BrokerRequest;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for the partial result options.
+ */
+public class PartialResultOptionsTest {
+  @Test
+  public void testNoOptions() {
+    BrokerRequest brokerRequest = new BrokerRequest();
+    Assert.assertNull(PartialResultOptions.getPartialResultOptions(brokerRequest));
+
+    brokerRequest.setDebugOptions(Collections.singletonMap("optimizationFlags", "-foo"));
+    Assert.assertNull(PartialResultOptions.getPartialResultOptions(brokerRequest));
+  }
+
+  @Test
+  public void testOptions() {
+    Map<String, String> debugOptions = new HashMap<>();
+    debugOptions.put(PartialResultOptions.SERVER_FRACTION_KEY, "0.9");
+    debugOptions.put(PartialResultOptions.HEDGE_DELAY_MS_KEY, "50");
+    BrokerRequest brokerRequest = new BrokerRequest();
+    brokerRequest.setDebugOptions(debugOptions);
+
+    PartialResultOptions partialResultOptions = PartialResultOptions.getPartialResultOptions(brokerRequest);
+    Assert.assertNotNull(partialResultOptions);
+    Assert.assertEquals(partialResultOptions.getServerFraction(), 0.9);
+    Assert.assertEquals(partialResultOptions.getSegmentFraction(), 1.0);
+    Assert.assertEquals(partialResultOptions.getTimeoutMs(), PartialResultOptions.NOT_SET);
+    Assert.assertEquals(partialResultOptions.getHedgeDelayMs(), 50L);
+  }
+
+  @Test
+  public void testInvalidOptions() {
+    BrokerRequest brokerRequest = new BrokerRequest();
+    brokerRequest.setDebugOptions(Collections.singletonMap(PartialResultOptions.SEGMENT_FRACTION_KEY, "1.5"));
+    try {
+      PartialResultOptions.getPartialResultOptions(brokerRequest);
+      Assert.fail("Expected exception");
+    } catch (IllegalArgumentException e) {
+      // Expected
+    }
+
+    brokerRequest.setDebugOptions(Collections.singletonMap(PartialResultOptions.TIMEOUT_MS_KEY, "-1"));
+    try {
+      PartialResultOptions.getPartialResultOptions(brokerRequest);
+      Assert.fail("Expected exception");
+    } catch (IllegalArgumentException e) {
+      // Expected
+    }
+  }
+}
@@ -0,0 +1,224 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.requesthandler;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.query.IncrementalReducer;
+import com.linkedin.pinot.common.request.AggregationInfo;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.request.QuerySource;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.common.utils.DataSchema;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.datatable.DataTableBuilder;
+import com.linkedin.pinot.core.common.datatable.DataTableFactory;
+import com.linkedin.pinot.core.query.reduce.BrokerReduceService;
+import com.linkedin.pinot.transport.common.AsyncResponseFuture;
+import com.linkedin.pinot.transport.common.CompositeFuture;
+import com.linkedin.pinot.transport.common.CompositeFuture.GatherModeOnError;
+import com.linkedin.pinot.transport.common.KeyedFuture;
+import com.linkedin.pinot.transport.common.SegmentId;
+import com.linkedin.pinot.transport.common.SegmentIdSet;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class StreamingResponseGathererTest {
+  private static final long TIMEOUT_MS = 10_000L;
+  private static final ServerInstance SERVER_1 = new ServerInstance("server1", 8098);
+  private static final ServerInstance SERVER_2 = new ServerInstance("server2", 8098);
+  private static final ServerInstance SERVER_3 = new ServerInstance("server3", 8098);
+
+  @Test
+  public void testPartialResult()
+      throws Exception {
+    Map<ServerInstance, AsyncResponseFuture<ServerInstance, ByteBuf>> futures = new HashMap<>();
+    CompositeFuture<ServerInstance, ByteBuf> compositeFuture = startCompositeFuture(futures, SERVER_1, SERVER_2);
+    Map<ServerInstance, SegmentIdSet> segmentServices = new HashMap<>();
+    segmentServices.put(SERVER_1, createSegmentIdSet("segment0", "segment1", "segment2"));
+    segmentServices.put(SERVER_2, createSegmentIdSet("segment3"));
+
+    StreamingResponseGatherer responseGatherer = new StreamingResponseGatherer();
+    responseGatherer.addCompositeFuture(compositeFuture, false, segmentServices);
+    Assert.assertFalse(responseGatherer.hasEnoughResponses(0.5, 1.0));
+
+    futures.get(SERVER_1).onSuccess(Unpooled.buffer(0));
+    StreamingResponseGatherer.ServerResponse serverResponse = responseGatherer.poll(TIMEOUT_MS);
+    Assert.assertNotNull(serverResponse);
+    Assert.assertFalse(serverResponse.isOfflineTable());
+    Assert.assertFalse(serverResponse.isHedged());
+    // REALTIME responses are keyed separately from the OFFLINE responses of the same server
+    Assert.assertEquals(serverResponse.getServerInstance().getHostname(), "server1");
+    Assert.assertFalse(serverResponse.getServerInstance().equals(SERVER_1));
+
+    Assert.assertTrue(responseGatherer.hasEnoughResponses(0.5, 1.0));
+    Assert.assertTrue(responseGatherer.hasEnoughResponses(1.0, 0.75));
+    Assert.assertFalse(responseGatherer.hasEnoughResponses(1.0, 0.8));
+    Assert.assertFalse(responseGatherer.hasEnoughResponses(1.0, 1.0));
+    Assert.assertFalse(responseGatherer.isDone());
+    Assert.assertEquals(responseGatherer.getNumServersResponded(), 1);
+
+    // Server 2 failing completes the gathering
+    futures.get(SERVER_2).onError(new Exception());
+    Assert.assertNull(responseGatherer.poll(TIMEOUT_MS));
+    Assert.assertTrue(responseGatherer.isDone());
+    Assert.assertEquals(responseGatherer.getNumServersResponded(), 1);
+  }
+
+  @Test
+  public void testHedgedRequest()
+      throws Exception {
+    Map<ServerInstance, AsyncResponseFuture<ServerInstance, ByteBuf>> futures = new HashMap<>();
+    CompositeFuture<ServerInstance, ByteBuf> compositeFuture = startCompositeFuture(futures, SERVER_1, SERVER_2);
+    Map<ServerInstance, SegmentIdSet> segmentServices = new HashMap<>();
+    segmentServices.put(SERVER_1, createSegmentIdSet("segment0"));
+    segmentServices.put(SERVER_2, createSegmentIdSet("segment1", "segment2"));
+
+    StreamingResponseGatherer responseGatherer = new StreamingResponseGatherer();
+    responseGatherer.addCompositeFuture(compositeFuture, true, segmentServices);
+    futures.get(SERVER_1).onSuccess(Unpooled.buffer(0));
+    Assert.assertEquals(responseGatherer.poll(TIMEOUT_MS).getServerInstance(), SERVER_1);
+    Assert.assertEquals(responseGatherer.getServersToHedge(true), Collections.singletonMap(SERVER_2,
+        segmentServices.get(SERVER_2)));
+    Assert.assertTrue(responseGatherer.getServersToHedge(false).isEmpty());
+
+    // Hedge server 2 with server 1 and server 3
+    Map<ServerInstance, AsyncResponseFuture<ServerInstance, ByteBuf>> hedgedFutures = new HashMap<>();
+    CompositeFuture<ServerInstance, ByteBuf> hedgedCompositeFuture =
+        startCompositeFuture(hedgedFutures, SERVER_1, SERVER_3);
+    responseGatherer.addHedgedCompositeFuture(hedgedCompositeFuture, true, SERVER_2);
+    Assert.assertTrue(responseGatherer.getServersToHedge(true).isEmpty());
+
+    // Hedged responses are only used once all of them arrived
+    hedgedFutures.get(SERVER_3).onSuccess(Unpooled.buffer(0));
+    Assert.assertNull(responseGatherer.poll(100L));
+    hedgedFutures.get(SERVER_1).onSuccess(Unpooled.buffer(0));
+    List<ServerInstance> hedgedServers = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      StreamingResponseGatherer.ServerResponse serverResponse = responseGatherer.poll(TIMEOUT_MS);
+      Assert.assertTrue(serverResponse.isHedged());
+      Assert.assertTrue(serverResponse.isOfflineTable());
+      hedgedServers.add(serverResponse.getServerInstance());
+    }
+    // Hedged responses do not collide with the response from the original request of server 1
+    Assert.assertFalse(hedgedServers.contains(SERVER_1));
+    Assert.assertFalse(hedgedServers.get(0).equals(hedgedServers.get(1)));
+    Assert.assertTrue(responseGatherer.isDone());
+    Assert.assertEquals(responseGatherer.getNumServersResponded(), 2);
+    Assert.assertEquals(responseGatherer.getNumHedgedRequestsUsed(), 1);
+
+    // Late response from the original request is ignored
+    futures.get(SERVER_2).onSuccess(Unpooled.buffer(0));
+    Assert.assertNull(responseGatherer.poll(TIMEOUT_MS));
+  }
+
+  @Test
+  public void testStreamingReduce()
+      throws Exception {
+    Map<ServerInstance, AsyncResponseFuture<ServerInstance, ByteBuf>> futures = new HashMap<>();
+    CompositeFuture<ServerInstance, ByteBuf> compositeFuture =
+        startCompositeFuture(futures, SERVER_1, SERVER_2, SERVER_3);
+    Map<ServerInstance, SegmentIdSet> segmentServices = new HashMap<>();
+    segmentServices.put(SERVER_1, createSegmentIdSet("segment0"));
+    segmentServices.put(SERVER_2, createSegmentIdSet("segment1"));
+    segmentServices.put(SERVER_3, createSegmentIdSet("segment2"));
+    StreamingResponseGatherer responseGatherer = new StreamingResponseGatherer();
+    responseGatherer.addCompositeFuture(compositeFuture, true, segmentServices);
+
+    // Server 3 responds before server 1, server 2 fails
+    byte[] response1 = getCountDataTableBytes(10L);
+    byte[] response3 = getCountDataTableBytes(30L);
+    futures.get(SERVER_3).onSuccess(Unpooled.wrappedBuffer(response3));
+    futures.get(SERVER_1).onSuccess(Unpooled.wrappedBuffer(response1));
+    futures.get(SERVER_2).onError(new Exception());
+
+    BrokerRequest brokerRequest = getCountBrokerRequest();
+    BrokerReduceService reduceService = new BrokerReduceService();
+    IncrementalReducer<BrokerResponseNative> reducer = reduceService.startIncrementalReduce(brokerRequest, null);
+    List<ServerInstance> respondedServers = new ArrayList<>();
+    StreamingResponseGatherer.ServerResponse serverResponse;
+    while ((serverResponse = responseGatherer.poll(TIMEOUT_MS)) != null) {
+      respondedServers.add(serverResponse.getServerInstance());
+      reducer.merge(serverResponse.getServerInstance(),
+          DataTableFactory.getDataTable(serverResponse.getResponse().nioBuffer()));
+    }
+    Assert.assertEquals(respondedServers, Arrays.asList(SERVER_3, SERVER_1));
+    Assert.assertTrue(responseGatherer.isDone());
+
+    // Streaming reduce gives the same response as the batch reduce of the gathered responses
+    Map<ServerInstance, DataTable> dataTableMap = new HashMap<>();
+    dataTableMap.put(SERVER_1, DataTableFactory.getDataTable(response1));
+    dataTableMap.put(SERVER_3, DataTableFactory.getDataTable(response3));
+    BrokerResponseNative streamingResponse = reducer.finish();
+    Assert.assertEquals(streamingResponse.toJsonString(),
+        reduceService.reduceOnDataTable(brokerRequest, dataTableMap).toJsonString());
+    Assert.assertEquals(streamingResponse.getAggregationResults().get(0).getValue(), "40");
+  }
+
+  private static CompositeFuture<ServerInstance, ByteBuf> startCompositeFuture(
+      Map<ServerInstance, AsyncResponseFuture<ServerInstance, ByteBuf>> futures, ServerInstance... servers) {
+    List<KeyedFuture<ServerInstance, ByteBuf>> futureList = new ArrayList<>();
+    for (ServerInstance server : servers) {
+      AsyncResponseFuture<ServerInstance, ByteBuf> future = new AsyncResponseFuture<>(server, "test");
+      futures.put(server, future);
+      futureList.add(future);
+    }
+    CompositeFuture<ServerInstance, ByteBuf> compositeFuture =
+        new CompositeFuture<>("test", GatherModeOnError.SHORTCIRCUIT_AND);
+    compositeFuture.start(futureList);
+    return compositeFuture;
+  }
+
+  private static SegmentIdSet createSegmentIdSet(String... segmentNames) {
+    SegmentIdSet segmentIdSet = new SegmentIdSet();
+    for (String segmentName : segmentNames) {
+      segmentIdSet.addSegment(new SegmentId(segmentName));
+    }
+    return segmentIdSet;
+  }
+
+  private static BrokerRequest getCountBrokerRequest() {
+    BrokerRequest brokerRequest = new BrokerRequest();
+    QuerySource querySource = new QuerySource();
+    querySource.setTableName("testTable_OFFLINE");
+    brokerRequest.setQuerySource(querySource);
+    AggregationInfo aggregationInfo = new AggregationInfo();
+    aggregationInfo.setAggregationType("count");
+    aggregationInfo.setAggregationParams(Collections.singletonMap("column", "*"));
+    brokerRequest.setAggregationsInfo(Collections.singletonList(aggregationInfo));
+    return brokerRequest;
+  }
+
+  private static byte[] getCountDataTableBytes(long count)
+      throws Exception {
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(
+        new DataSchema(new String[]{"count_star"}, new FieldSpec.DataType[]{FieldSpec.DataType.LONG}),
+        DataTableFactory.VERSION_3);
+    dataTableBuilder.startRow();
+    dataTableBuilder.setColumn(0, count);
+    dataTableBuilder.finishRow();
+    return dataTableBuilder.build().toBytes();
+  }
+}
@@ -30,12 +30,15 @@ public class IndexingConfig {
   private static final Logger LOGGER = LoggerFactory.getLogger(IndexingConfig.class);
 
   private List<String> invertedIndexColumns;
+  private List<String> bloomFilterColumns;
+  private List<String> rangeIndexColumns;
   private List<String> sortedColumn = new ArrayList<String>();
   private String loadMode;
   private String lazyLoad;
   private Map<String, String> streamConfigs = new HashMap<String, String>();
   private String segmentFormatVersion;
   private String starTreeFormat;
+  private SegmentPartitionConfig segmentPartitionConfig;
 
   public IndexingConfig() {
 
@@ -65,6 +68,22 @@ public class IndexingConfig {
     this.invertedIndexColumns = invertedIndexColumns;
   }
 
+  public List<String> getBloomFilterColumns() {
+    return bloomFilterColumns;
+  }
+
+  public void setBloomFilterColumns(List<String> bloomFilterColumns) {
+    this.bloomFilterColumns = bloomFilterColumns;
+  }
+
+  public List<String> getRangeIndexColumns() {
+    return rangeIndexColumns;
+  }
+
+  public void setRangeIndexColumns(List<String> rangeIndexColumns) {
+    this.rangeIndexColumns = rangeIndexColumns;
+  }
+
   public String getLoadMode() {
     return loadMode;
   }
@@ -128,4 +147,12 @@ public class IndexingConfig {
   public void setStarTreeFormat(String starTreeFormat) {
     this.starTreeFormat = starTreeFormat;
   }
+
+  public SegmentPartitionConfig getSegmentPartitionConfig() {
+    return segmentPartitionConfig;
+  }
+
+  public void setSegmentPartitionConfig(SegmentPartitionConfig segmentPartitionConfig) {
+    this.segmentPartitionConfig = segmentPartitionConfig;
+  }
 }
@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.common.config;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+import org.codehaus.jackson.map.ObjectMapper;
+
+
+/**
+ * Partitioning of the segments of a table, from the partitioned column to its partition config. For LLC realtime
+ * tables, the partition config of the Kafka message key column should match the Kafka partitioning.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SegmentPartitionConfig {
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private Map<String, ColumnPartitionConfig> columnPartitionMap = new HashMap<>();
+
+  public SegmentPartitionConfig() {
+  }
+
+  public SegmentPartitionConfig(Map<String, ColumnPartitionConfig> columnPartitionMap) {
+    this.columnPartitionMap = columnPartitionMap;
+  }
+
+  public Map<String, ColumnPartitionConfig> getColumnPartitionMap() {
+    return columnPartitionMap;
+  }
+
+  public void setColumnPartitionMap(Map<String, ColumnPartitionConfig> columnPartitionMap) {
+    this.columnPartitionMap = columnPartitionMap;
+  }
+
+  /**
+   * Parses the partition config from its JSON form, as found in the table indexing config, e.g.
+   * <code>{"columnPartitionMap": {"memberId": {"functionName": "modulo", "numPartitions": 8}}}</code>.
+   */
+  public static SegmentPartitionConfig fromJsonString(String jsonString)
+      throws IOException {
+    return OBJECT_MAPPER.readValue(jsonString, SegmentPartitionConfig.class);
+  }
+
+  public String toJsonString()
+      throws IOException {
+    return OBJECT_MAPPER.writeValueAsString(this);
+  }
+
+  @Override
+  public String toString() {
+    return columnPartitionMap.toString();
+  }
+}
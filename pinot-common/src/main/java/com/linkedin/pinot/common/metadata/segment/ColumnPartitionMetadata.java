@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.common.metadata.segment;
+
+import com.linkedin.pinot.common.utils.EqualityUtils;
+import java.util.HashSet;
+import java.util.Set;
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+
+
+/**
+ * Partitions of a column contained in a segment, with the partition function used to compute them.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ColumnPartitionMetadata {
+  private String _functionName;
+  private int _numPartitions;
+  private Set<Integer> _partitions = new HashSet<>();
+
+  public ColumnPartitionMetadata() {
+  }
+
+  public ColumnPartitionMetadata(String functionName, int numPartitions, Set<Integer> partitions) {
+    _functionName = functionName;
+    _numPartitions = numPartitions;
+    _partitions = partitions;
+  }
+
+  public String getFunctionName() {
+    return _functionName;
+  }
+
+  public void setFunctionName(String functionName) {
+    _functionName = functionName;
+  }
+
+  public int getNumPartitions() {
+    return _numPartitions;
+  }
+
+  public void setNumPartitions(int numPartitions) {
+    _numPartitions = numPartitions;
+  }
+
+  public Set<Integer> getPartitions() {
+    return _partitions;
+  }
+
+  public void setPartitions(Set<Integer> partitions) {
+    _partitions = partitions;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (EqualityUtils.isSameReference(this, obj)) {
+      return true;
+    }
+    if (EqualityUtils.isNullOrNotSameClass(this, obj)) {
+      return false;
+    }
+    ColumnPartitionMetadata that = (ColumnPartitionMetadata) obj;
+    return EqualityUtils.isEqual(_functionName, that._functionName) && _numPartitions == that._numPartitions
+        && EqualityUtils.isEqual(_partitions, that._partitions);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = EqualityUtils.hashCodeOf(_functionName);
+    result = EqualityUtils.hashCodeOf(result, _numPartitions);
+    result = EqualityUtils.hashCodeOf(result, _partitions);
+    return result;
+  }
+}
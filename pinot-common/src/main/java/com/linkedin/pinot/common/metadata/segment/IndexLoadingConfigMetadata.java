@@ -31,26 +31,45 @@ import org.apache.commons.configuration.Configuration;
 public class IndexLoadingConfigMetadata {
 
   public static final String KEY_OF_LOADING_INVERTED_INDEX = "metadata.loading.inverted.index.columns";
+  public static final String KEY_OF_LOADING_BLOOM_FILTER = "metadata.loading.bloom.filter.columns";
+  public static final String KEY_OF_LOADING_RANGE_INDEX = "metadata.loading.range.index.columns";
   public static final String KEY_OF_SEGMENT_FORMAT_VERSION = "segment.format.version";
   public static final String KEY_OF_ENABLE_DEFAULT_COLUMNS = "enable.default.columns";
   public static final String KEY_OF_STAR_TREE_FORMAT_VERSION = "startree.format.version";
+  public static final String KEY_OF_FILTER_BITMAP_CACHE_MAX_SIZE_IN_BYTES = "filter.bitmap.cache.maxSizeInBytes";
+  public static final String KEY_OF_REALTIME_DIRECT_MEMORY_MAX_SIZE_IN_BYTES = "realtime.direct.memory.maxSizeInBytes";
 
   private final Set<String> _loadingInvertedIndexColumnSet = new HashSet<String>();
+  private final Set<String> _loadingBloomFilterColumnSet = new HashSet<String>();
+  private final Set<String> _loadingRangeIndexColumnSet = new HashSet<String>();
   private final String DEFAULT_SEGMENT_FORMAT = "v1";
   private String segmentVersionToLoad;
   private boolean enableDefaultColumns;
   private final String starTreeVersionToLoad;
+  private final long filterBitmapCacheMaxSizeInBytes;
+  private final long realtimeDirectMemoryMaxSizeInBytes;
 
   public IndexLoadingConfigMetadata(Configuration tableDataManagerConfig) {
     List<String> valueOfLoadingInvertedIndexConfig = tableDataManagerConfig.getList(KEY_OF_LOADING_INVERTED_INDEX, null);
     if ((valueOfLoadingInvertedIndexConfig != null) && (!valueOfLoadingInvertedIndexConfig.isEmpty())) {
       initLoadingInvertedIndexColumnSet(valueOfLoadingInvertedIndexConfig.toArray(new String[0]));
     }
+    List<String> valueOfLoadingBloomFilterConfig = tableDataManagerConfig.getList(KEY_OF_LOADING_BLOOM_FILTER, null);
+    if (valueOfLoadingBloomFilterConfig != null) {
+      _loadingBloomFilterColumnSet.addAll(valueOfLoadingBloomFilterConfig);
+    }
+    List<String> valueOfLoadingRangeIndexConfig = tableDataManagerConfig.getList(KEY_OF_LOADING_RANGE_INDEX, null);
+    if (valueOfLoadingRangeIndexConfig != null) {
+      _loadingRangeIndexColumnSet.addAll(valueOfLoadingRangeIndexConfig);
+    }
 
     segmentVersionToLoad = tableDataManagerConfig.getString(KEY_OF_SEGMENT_FORMAT_VERSION, DEFAULT_SEGMENT_FORMAT);
     enableDefaultColumns = tableDataManagerConfig.getBoolean(KEY_OF_ENABLE_DEFAULT_COLUMNS, false);
     starTreeVersionToLoad = tableDataManagerConfig.getString(KEY_OF_STAR_TREE_FORMAT_VERSION,
         CommonConstants.Server.DEFAULT_STAR_TREE_FORMAT_VERSION);
+    filterBitmapCacheMaxSizeInBytes = tableDataManagerConfig.getLong(KEY_OF_FILTER_BITMAP_CACHE_MAX_SIZE_IN_BYTES, 0L);
+    realtimeDirectMemoryMaxSizeInBytes =
+        tableDataManagerConfig.getLong(KEY_OF_REALTIME_DIRECT_MEMORY_MAX_SIZE_IN_BYTES, 0L);
   }
 
   public void initLoadingInvertedIndexColumnSet(String[] columnCollections) {
@@ -65,6 +84,20 @@ public class IndexLoadingConfigMetadata {
     return _loadingInvertedIndexColumnSet.contains(columnName);
   }
 
+  /**
+   * Returns the columns to create bloom filter for when loading the segments, if not created yet.
+   */
+  public Set<String> getLoadingBloomFilterColumns() {
+    return _loadingBloomFilterColumnSet;
+  }
+
+  /**
+   * Returns the columns to create range index for when loading the segments, if not created yet.
+   */
+  public Set<String> getLoadingRangeIndexColumns() {
+    return _loadingRangeIndexColumnSet;
+  }
+
   public String segmentVersionToLoad() {
     return segmentVersionToLoad;
   }
@@ -84,4 +117,20 @@ public class IndexLoadingConfigMetadata {
   public String getStarTreeVersionToLoad() {
     return starTreeVersionToLoad;
   }
+
+  /**
+   * Returns the max size in bytes of the cache for the inverted index based filter bitmaps of each segment, the cache
+   * is disabled when not positive.
+   */
+  public long getFilterBitmapCacheMaxSizeInBytes() {
+    return filterBitmapCacheMaxSizeInBytes;
+  }
+
+  /**
+   * Returns the max size in bytes of the direct memory used by the consuming segments of the server, beyond which
+   * their indexes are stored in memory-mapped files. Direct memory is not bounded when not positive.
+   */
+  public long getRealtimeDirectMemoryMaxSizeInBytes() {
+    return realtimeDirectMemoryMaxSizeInBytes;
+  }
 }
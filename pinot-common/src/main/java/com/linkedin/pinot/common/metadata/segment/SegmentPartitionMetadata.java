@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.common.metadata.segment;
+
+import com.linkedin.pinot.common.utils.EqualityUtils;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+import org.codehaus.jackson.map.ObjectMapper;
+
+
+/**
+ * Partition metadata of a segment, from the partitioned column to its {@link ColumnPartitionMetadata}. Stored as a
+ * JSON string in the segment ZK metadata.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SegmentPartitionMetadata {
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private Map<String, ColumnPartitionMetadata> _columnPartitionMap = new HashMap<>();
+
+  public SegmentPartitionMetadata() {
+  }
+
+  public SegmentPartitionMetadata(Map<String, ColumnPartitionMetadata> columnPartitionMap) {
+    _columnPartitionMap = columnPartitionMap;
+  }
+
+  public Map<String, ColumnPartitionMetadata> getColumnPartitionMap() {
+    return _columnPartitionMap;
+  }
+
+  public void setColumnPartitionMap(Map<String, ColumnPartitionMetadata> columnPartitionMap) {
+    _columnPartitionMap = columnPartitionMap;
+  }
+
+  public String toJsonString()
+      throws IOException {
+    return OBJECT_MAPPER.writeValueAsString(this);
+  }
+
+  public static SegmentPartitionMetadata fromJsonString(String jsonString)
+      throws IOException {
+    return OBJECT_MAPPER.readValue(jsonString, SegmentPartitionMetadata.class);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (EqualityUtils.isSameReference(this, obj)) {
+      return true;
+    }
+    if (EqualityUtils.isNullOrNotSameClass(this, obj)) {
+      return false;
+    }
+    return EqualityUtils.isEqual(_columnPartitionMap, ((SegmentPartitionMetadata) obj)._columnPartitionMap);
+  }
+
+  @Override
+  public int hashCode() {
+    return EqualityUtils.hashCodeOf(_columnPartitionMap);
+  }
+}
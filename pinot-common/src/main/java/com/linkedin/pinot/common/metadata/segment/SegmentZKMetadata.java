@@ -15,11 +15,15 @@
  */
 package com.linkedin.pinot.common.metadata.segment;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import javax.annotation.Nullable;
 import org.apache.helix.ZNRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.linkedin.pinot.common.metadata.ZKMetadata;
 import com.linkedin.pinot.common.utils.CommonConstants;
@@ -32,6 +36,7 @@ import static com.linkedin.pinot.common.utils.EqualityUtils.isNullOrNotSameClass
 
 
 public abstract class SegmentZKMetadata implements ZKMetadata {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentZKMetadata.class);
 
   private static final String NULL = "null";
 
@@ -45,6 +50,7 @@ public abstract class SegmentZKMetadata implements ZKMetadata {
   private long _totalRawDocs = -1;
   private long _crc = -1;
   private long _creationTime = -1;
+  private SegmentPartitionMetadata _partitionMetadata = null;
 
   public SegmentZKMetadata() {
   }
@@ -63,6 +69,15 @@ public abstract class SegmentZKMetadata implements ZKMetadata {
     _totalRawDocs = znRecord.getLongField(CommonConstants.Segment.TOTAL_DOCS, -1);
     _crc = znRecord.getLongField(CommonConstants.Segment.CRC, -1);
     _creationTime = znRecord.getLongField(CommonConstants.Segment.CREATION_TIME, -1);
+    String partitionMetadataJson = znRecord.getSimpleField(CommonConstants.Segment.PARTITION_METADATA);
+    if (partitionMetadataJson != null) {
+      try {
+        _partitionMetadata = SegmentPartitionMetadata.fromJsonString(partitionMetadataJson);
+      } catch (IOException e) {
+        LOGGER.warn("Caught exception while reading partition metadata: {} of segment: {}", partitionMetadataJson,
+            _segmentName, e);
+      }
+    }
   }
 
   public String getSegmentName() {
@@ -145,6 +160,18 @@ public abstract class SegmentZKMetadata implements ZKMetadata {
     _creationTime = creationTime;
   }
 
+  /**
+   * Returns the partitions of the partitioned columns contained in the segment, or null if not recorded.
+   */
+  @Nullable
+  public SegmentPartitionMetadata getPartitionMetadata() {
+    return _partitionMetadata;
+  }
+
+  public void setPartitionMetadata(@Nullable SegmentPartitionMetadata partitionMetadata) {
+    _partitionMetadata = partitionMetadata;
+  }
+
   @Override
   public boolean equals(Object segmentMetadata) {
     if (isSameReference(this, segmentMetadata)) {
@@ -165,7 +192,8 @@ public abstract class SegmentZKMetadata implements ZKMetadata {
         isEqual(_segmentType, metadata._segmentType) &&
         isEqual(_totalRawDocs, metadata._totalRawDocs) &&
         isEqual(_crc, metadata._crc) &&
-        isEqual(_creationTime, metadata._creationTime);
+        isEqual(_creationTime, metadata._creationTime) &&
+        isEqual(_partitionMetadata, metadata._partitionMetadata);
   }
 
   @Override
@@ -180,6 +208,7 @@ public abstract class SegmentZKMetadata implements ZKMetadata {
     result = hashCodeOf(result, _totalRawDocs);
     result = hashCodeOf(result, _crc);
     result = hashCodeOf(result, _creationTime);
+    result = hashCodeOf(result, _partitionMetadata);
     return result;
   }
 
@@ -201,6 +230,9 @@ public abstract class SegmentZKMetadata implements ZKMetadata {
     znRecord.setLongField(CommonConstants.Segment.TOTAL_DOCS, _totalRawDocs);
     znRecord.setLongField(CommonConstants.Segment.CRC, _crc);
     znRecord.setLongField(CommonConstants.Segment.CREATION_TIME, _creationTime);
+    if (_partitionMetadata != null) {
+      znRecord.setSimpleField(CommonConstants.Segment.PARTITION_METADATA, getPartitionMetadataJson());
+    }
     return znRecord;
   }
 
@@ -221,6 +253,18 @@ public abstract class SegmentZKMetadata implements ZKMetadata {
     configMap.put(CommonConstants.Segment.TOTAL_DOCS, Long.toString(_totalRawDocs));
     configMap.put(CommonConstants.Segment.CRC, Long.toString(_crc));
     configMap.put(CommonConstants.Segment.CREATION_TIME, Long.toString(_creationTime));
+    if (_partitionMetadata != null) {
+      configMap.put(CommonConstants.Segment.PARTITION_METADATA, getPartitionMetadataJson());
+    }
     return configMap;
   }
+
+  private String getPartitionMetadataJson() {
+    try {
+      return _partitionMetadata.toJsonString();
+    } catch (IOException e) {
+      throw new RuntimeException("Caught exception while serializing partition metadata of segment: " + _segmentName,
+          e);
+    }
+  }
 }
@@ -45,12 +45,14 @@ public class KafkaStreamMetadata implements StreamMetadata {
   private final String _decoderClass;
   private final long _kafkaConnectionTimeoutMillis;
   private final int _kafkaFetchTimeoutMillis;
+  private final int _llcDecoderThreads;
   private final Map<String, String> _decoderProperties = new HashMap<String, String>();
   private final Map<String, String> _kafkaConsumerProperties = new HashMap<String, String>();
   private final Map<String, String> _streamConfigMap = new HashMap<String, String>();
 
   private static final long DEFAULT_KAFKA_CONNECTION_TIMEOUT_MILLIS = 30000L;
   private static final int DEFAULT_KAFKA_FETCH_TIMEOUT_MILLIS = 5000;
+  private static final int DEFAULT_LLC_DECODER_THREADS = 0;
 
   public KafkaStreamMetadata(Map<String, String> streamConfigMap) {
     _zkBrokerUrl =
@@ -113,6 +115,22 @@ public class KafkaStreamMetadata implements StreamMetadata {
     }
     _kafkaFetchTimeoutMillis = kafkaFetchTimeoutMillis;
 
+    final String llcDecoderThreadsPropertyKey = StringUtil.join(".", Helix.DataSource.STREAM_PREFIX,
+        Helix.DataSource.Realtime.Kafka.LLC_DECODER_THREADS);
+    int llcDecoderThreads;
+    if (streamConfigMap.containsKey(llcDecoderThreadsPropertyKey)) {
+      try {
+        llcDecoderThreads = Integer.parseInt(streamConfigMap.get(llcDecoderThreadsPropertyKey));
+      } catch (Exception e) {
+        LOGGER.warn("Caught exception while parsing the number of LLC decoder threads, defaulting to {}",
+            DEFAULT_LLC_DECODER_THREADS, e);
+        llcDecoderThreads = DEFAULT_LLC_DECODER_THREADS;
+      }
+    } else {
+      llcDecoderThreads = DEFAULT_LLC_DECODER_THREADS;
+    }
+    _llcDecoderThreads = llcDecoderThreads;
+
     for (String key : streamConfigMap.keySet()) {
       if (key.startsWith(CommonConstants.Helix.DataSource.STREAM_PREFIX + ".")) {
         _streamConfigMap.put(key, streamConfigMap.get(key));
@@ -146,6 +164,10 @@ public class KafkaStreamMetadata implements StreamMetadata {
     return _kafkaFetchTimeoutMillis;
   }
 
+  public int getLlcDecoderThreads() {
+    return _llcDecoderThreads;
+  }
+
   public String getKafkaTopicName() {
     return _kafkaTopicName;
   }
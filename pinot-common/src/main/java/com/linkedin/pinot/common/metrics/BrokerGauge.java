@@ -23,7 +23,9 @@ import com.linkedin.pinot.common.Utils;
 *
 */
 public enum BrokerGauge implements AbstractMetrics.Gauge {
-  ;
+  // Memory used by and number of entries in the query result cache.
+  RESULT_CACHE_SIZE_IN_BYTES("bytes", true),
+  RESULT_CACHE_NUM_ENTRIES("entries", true);
 
   private final String brokerGaugeName;
   private final String unit;
@@ -51,6 +51,19 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   // This metric track the number of broker responses with not all servers responded.
   // (numServersQueried > numServersResponded)
   BROKER_RESPONSES_WITH_PARTIAL_SERVERS_RESPONDED("badResponses", false),
+  // This metric track the number of broker responses returned before all servers responded, as allowed by the
+  // partial result query options.
+  BROKER_RESPONSES_WITH_PARTIAL_RESULT("badResponses", false),
+
+  // These metrics track the hedged requests sent to another replica for the servers slow to respond, and the ones
+  // answering before the original request.
+  HEDGED_REQUESTS("requests", false),
+  HEDGED_REQUESTS_USED("requests", false),
+
+  // These metrics track the segments and servers pruned by the broker before routing the queries, based on the
+  // segment metadata cached in the routing table.
+  SEGMENTS_PRUNED_BY_BROKER("segments", false),
+  SERVERS_PRUNED_BY_BROKER("servers", false),
 
   // These metrics track the cost of the query.
   DOCUMENTS_SCANNED("documents", false),
@@ -75,7 +88,15 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   LLC_QUERY_COUNT("queries", false),
   HLC_QUERY_COUNT("queries", false),
 
-  ROUTING_TABLE_REBUILD_FAILURES("failures", false);
+  ROUTING_TABLE_REBUILD_FAILURES("failures", false),
+
+  // These metrics track the query result cache, the hit rate is hits / (hits + misses).
+  RESULT_CACHE_HITS("queries", false),
+  RESULT_CACHE_MISSES("queries", false),
+  // Entries removed to make room for new ones or expired.
+  RESULT_CACHE_EVICTIONS("entries", true),
+  // Entries removed because the routing of their table changed.
+  RESULT_CACHE_INVALIDATIONS("entries", false);
 
   private final String brokerMeterName;
   private final String unit;
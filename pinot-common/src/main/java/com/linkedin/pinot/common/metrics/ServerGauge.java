@@ -30,7 +30,13 @@ public enum ServerGauge implements AbstractMetrics.Gauge {
   LAST_REALTIME_SEGMENT_INITIAL_CONSUMPTION_DURATION_SECONDS("seconds", false),
   LAST_REALTIME_SEGMENT_CATCHUP_DURATION_SECONDS("seconds", false),
   LAST_REALTIME_SEGMENT_COMPLETION_DURATION_SECONDS("seconds", false),
-  KAFKA_PARTITION_OFFSET_LAG("messages", false);
+  KAFKA_PARTITION_OFFSET_LAG("messages", false),
+  LLC_DECODE_QUEUE_DEPTH("messages", false),
+  SCHEDULER_GROUP_QUEUE_DEPTH("queries", false),
+  SEGMENT_RESULT_CACHE_SIZE_IN_BYTES("bytes", true),
+  FILTER_BITMAP_CACHE_SIZE_IN_BYTES("bytes", false),
+  REALTIME_OFFHEAP_MEMORY_USED("bytes", false),
+  REALTIME_MMAP_MEMORY_USED("bytes", false);
 
   private final String gaugeName;
   private final String unit;
@@ -31,6 +31,8 @@ public enum ServerMeter implements AbstractMetrics.Meter {
   HELIX_ZOOKEEPER_RECONNECTS("reconnects", true),
   DELETED_SEGMENT_COUNT("segments", false),
   REALTIME_ROWS_CONSUMED("rows", true),
+  REALTIME_ROWS_FETCHED("rows", false),
+  REALTIME_ROWS_DECODED("rows", false),
   INVALID_REALTIME_ROWS_DROPPED("rows", false),
   REALTIME_CONSUMPTION_EXCEPTIONS("exceptions", true),
   REALTIME_OFFSET_COMMITS("commits", true),
@@ -46,7 +48,14 @@ public enum ServerMeter implements AbstractMetrics.Meter {
   LLC_CONTROLLER_RESPONSE_KEEP("messages", false),
   LLC_CONTROLLER_RESPONSE_NOT_LEADER("messages", false),
   LLC_CONTROLLER_RESPONSE_FAILED("messages", false),
-  LLC_CONTROLLER_RESPONSE_COMMIT_SUCCESS("messages", false);
+  LLC_CONTROLLER_RESPONSE_COMMIT_SUCCESS("messages", false),
+  SCHEDULING_TIMEOUT_EXCEPTIONS("exceptions", false),
+  SEGMENT_RESULT_CACHE_HITS("segments", false),
+  SEGMENT_RESULT_CACHE_MISSES("segments", false),
+  SEGMENT_RESULT_CACHE_EVICTIONS("segments", true),
+  FILTER_BITMAP_CACHE_HITS("bitmaps", false),
+  FILTER_BITMAP_CACHE_MISSES("bitmaps", false),
+  FILTER_BITMAP_CACHE_EVICTIONS("bitmaps", false);
 
   private final String meterName;
   private final String unit;
@@ -23,7 +23,8 @@ import com.linkedin.pinot.common.Utils;
 *
 */
 public enum ServerTimer implements AbstractMetrics.Timer {
-  CURRENT_MSG_EVENT_TIMESTAMP_LAG("currentMsgEventTimestampLag", false);
+  CURRENT_MSG_EVENT_TIMESTAMP_LAG("currentMsgEventTimestampLag", false),
+  SCHEDULER_GROUP_WAIT_TIME("schedulerGroupWaitTime", false);
 
   private final String timerName;
   private final boolean global;
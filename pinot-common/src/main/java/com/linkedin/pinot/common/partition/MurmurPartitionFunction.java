@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.common.partition;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.common.data.FieldSpec;
+import java.nio.charset.Charset;
+import javax.annotation.Nullable;
+
+
+/**
+ * Partition function hashing the string value of the column with murmur2, the same way as the default partitioner of
+ * the Kafka producer, so that the partitions match the Kafka partitions when the column is the message key.
+ * <p>When the data type of the column is known, values of numeric columns are hashed in their canonical string form
+ * (e.g. "1" for the INT value 1 and "1.0" for the DOUBLE value 1), whether they are given as numbers or strings.
+ */
+public class MurmurPartitionFunction implements PartitionFunction {
+  public static final String NAME = "murmur";
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private final int _numPartitions;
+  private final FieldSpec.DataType _dataType;
+
+  public MurmurPartitionFunction(int numPartitions) {
+    this(numPartitions, null);
+  }
+
+  public MurmurPartitionFunction(int numPartitions, @Nullable FieldSpec.DataType dataType) {
+    Preconditions.checkArgument(numPartitions > 0, "Number of partitions must be positive, got: %s", numPartitions);
+    _numPartitions = numPartitions;
+    _dataType = dataType;
+  }
+
+  @Override
+  public int getPartition(Object value) {
+    return (murmur2(normalize(value).getBytes(UTF_8)) & 0x7fffffff) % _numPartitions;
+  }
+
+  /**
+   * Returns the canonical string form of the value for the data type of the column. Values which cannot be parsed as
+   * the data type cannot be contained in the column, so their string form is returned as is.
+   */
+  private String normalize(Object value) {
+    if (_dataType == null) {
+      return value.toString();
+    }
+    try {
+      switch (_dataType) {
+        case INT:
+        case LONG:
+          if (value instanceof Number) {
+            return Long.toString(((Number) value).longValue());
+          }
+          String stringValue = value.toString();
+          try {
+            return Long.toString(Long.parseLong(stringValue));
+          } catch (NumberFormatException e) {
+            // Integral values can also be written as decimals, e.g. "1.0"
+            double doubleValue = Double.parseDouble(stringValue);
+            long longValue = (long) doubleValue;
+            return longValue == doubleValue ? Long.toString(longValue) : stringValue;
+          }
+        case FLOAT:
+          if (value instanceof Number) {
+            return Float.toString(((Number) value).floatValue());
+          }
+          return Float.toString(Float.parseFloat(value.toString()));
+        case DOUBLE:
+          if (value instanceof Number) {
+            return Double.toString(((Number) value).doubleValue());
+          }
+          return Double.toString(Double.parseDouble(value.toString()));
+        default:
+          return value.toString();
+      }
+    } catch (NumberFormatException e) {
+      return value.toString();
+    }
+  }
+
+  @Override
+  public int getNumPartitions() {
+    return _numPartitions;
+  }
+
+  @Override
+  public String toString() {
+    return NAME;
+  }
+
+  /**
+   * 32-bit murmur2 hash, as implemented by Kafka.
+   */
+  static int murmur2(byte[] data) {
+    int length = data.length;
+    int seed = 0x9747b28c;
+    final int m = 0x5bd1e995;
+    final int r = 24;
+
+    int h = seed ^ length;
+    int length4 = length / 4;
+
+    for (int i = 0; i < length4; i++) {
+      final int i4 = i * 4;
+      int k = (data[i4] & 0xff) + ((data[i4 + 1] & 0xff) << 8) + ((data[i4 + 2] & 0xff) << 16)
+          + ((data[i4 + 3] & 0xff) << 24);
+      k *= m;
+      k ^= k >>> r;
+      k *= m;
+      h *= m;
+      h ^= k;
+    }
+
+    switch (length % 4) {
+      case 3:
+        h ^= (data[(length & ~3) + 2] & 0xff) << 16;
+      case 2:
+        h ^= (data[(length & ~3) + 1] & 0xff) << 8;
+      case 1:
+        h ^= data[length & ~3] & 0xff;
+        h *= m;
+    }
+
+    h ^= h >>> 13;
+    h *= m;
+    h ^= h >>> 15;
+
+    return h;
+  }
+}
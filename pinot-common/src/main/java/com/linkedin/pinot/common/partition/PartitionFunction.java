@@ -0,0 +1,33 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.common.partition;
+
+/**
+ * Function mapping the values of a column to partitions, used to skip the segments not containing the partition of
+ * the values queried.
+ */
+public interface PartitionFunction {
+
+  /**
+   * Returns the partition id (between 0 and the number of partitions - 1) of the given value.
+   */
+  int getPartition(Object value);
+
+  /**
+   * Returns the number of partitions.
+   */
+  int getNumPartitions();
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.common.partition;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import javax.annotation.Nullable;
+
+
+/**
+ * Factory for the {@link PartitionFunction}s declared in the table config.
+ */
+public class PartitionFunctionFactory {
+  private PartitionFunctionFactory() {
+  }
+
+  /**
+   * Returns the partition function with the given name (case insensitive) and number of partitions.
+   *
+   * @throws IllegalArgumentException if the function name is not supported
+   */
+  public static PartitionFunction getPartitionFunction(String functionName, int numPartitions) {
+    return getPartitionFunction(functionName, numPartitions, null);
+  }
+
+  /**
+   * Returns the partition function with the given name (case insensitive) and number of partitions, for a column of
+   * the given data type.
+   * <p>The data type is used to normalize the values before partitioning them, so that the typed values of the
+   * segments and the string values of the queries (e.g. 1.0 and "1" for a DOUBLE column) get the same partition.
+   *
+   * @throws IllegalArgumentException if the function name is not supported
+   */
+  public static PartitionFunction getPartitionFunction(String functionName, int numPartitions,
+      @Nullable FieldSpec.DataType dataType) {
+    if (ModuloPartitionFunction.NAME.equalsIgnoreCase(functionName)) {
+      return new ModuloPartitionFunction(numPartitions);
+    }
+    if (MurmurPartitionFunction.NAME.equalsIgnoreCase(functionName)) {
+      return new MurmurPartitionFunction(numPartitions, dataType);
+    }
+    throw new IllegalArgumentException("Unsupported partition function: " + functionName);
+  }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.common.query;
+
+import com.linkedin.pinot.common.response.BrokerResponse;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.common.utils.DataTable;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+
+/**
+ * Reducer merging the data tables of one query one at a time, as soon as each of them is gathered from a server.
+ * <p>Implementations should avoid referencing the data tables after merging them when possible, so that only the
+ * running merged result has to be kept in memory instead of all the server responses.
+ * @param <T> type of broker response.
+ */
+@NotThreadSafe
+public interface IncrementalReducer<T extends BrokerResponse> {
+
+  /**
+   * Merge the data table gathered from the server instance into the running result.
+   *
+   * @param serverInstance server instance.
+   * @param dataTable data table.
+   */
+  void merge(@Nonnull ServerInstance serverInstance, @Nonnull DataTable dataTable);
+
+  /**
+   * Finish the reduce after all the data tables are merged.
+   *
+   * @return broker response.
+   */
+  @Nonnull
+  T finish();
+}
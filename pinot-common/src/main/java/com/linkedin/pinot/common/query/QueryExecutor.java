@@ -35,4 +35,9 @@ public interface QueryExecutor {
   boolean isStarted();
 
   void updateResourceTimeOutInMs(String resource, long timeOutMs);
+
+  /**
+   * Returns the query timeout in milliseconds for the given resource (table).
+   */
+  long getResourceTimeOutInMs(String resource);
 }
@@ -57,4 +57,17 @@ public interface ReduceService<T extends BrokerResponse> {
   @Nonnull
   T reduceOnDataTable(@Nonnull BrokerRequest brokerRequest, @Nonnull Map<ServerInstance, DataTable> instanceResponseMap,
       @Nullable BrokerMetrics brokerMetrics);
+
+  /**
+   * Start an incremental reduce, where data tables are merged one by one as they are gathered from the servers.
+   * <p>Merging all the data tables of the instance response map into the returned reducer gives the same broker
+   * response as {@link #reduceOnDataTable(BrokerRequest, Map, BrokerMetrics)}.
+   *
+   * @param brokerRequest broker request.
+   * @param brokerMetrics broker metrics to track execution statistics.
+   * @return incremental reducer.
+   */
+  @Nonnull
+  IncrementalReducer<T> startIncrementalReduce(@Nonnull BrokerRequest brokerRequest,
+      @Nullable BrokerMetrics brokerMetrics);
 }
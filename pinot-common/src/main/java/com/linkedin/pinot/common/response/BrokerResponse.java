@@ -43,6 +43,13 @@ public interface BrokerResponse {
    */
   void setNumServersResponded(int numServersResponded);
 
+  /**
+   * Set whether the broker response got returned before all the servers responded.
+   *
+   * @param partialResult whether the broker response is partial.
+   */
+  void setPartialResult(boolean partialResult);
+
   /**
    * Set the total time used in request handling, into the broker response.
    */
@@ -39,7 +39,7 @@ import org.json.JSONObject;
  *
  * Supports serialization via JSON.
  */
-@JsonPropertyOrder({"selectionResults", "aggregationResults", "exceptions", "numServersQueried", "numServersResponded", "numDocsScanned", "numEntriesScannedInFilter", "numEntriesScannedPostFilter", "totalDocs", "timeUsedMs", "segmentStatistics", "traceInfo"})
+@JsonPropertyOrder({"selectionResults", "aggregationResults", "exceptions", "numServersQueried", "numServersResponded", "partialResult", "numDocsScanned", "numEntriesScannedInFilter", "numEntriesScannedInFilterPerColumn", "numEntriesScannedPostFilter", "totalDocs", "timeUsedMs", "segmentStatistics", "traceInfo"})
 public class BrokerResponseNative implements BrokerResponse {
   private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
@@ -49,8 +49,10 @@ public class BrokerResponseNative implements BrokerResponse {
 
   private int _numServersQueried = 0;
   private int _numServersResponded = 0;
+  private boolean _partialResult = false;
   private long _numDocsScanned = 0L;
   private long _numEntriesScannedInFilter = 0L;
+  private Map<String, Long> _numEntriesScannedInFilterPerColumn = new HashMap<>();
   private long _numEntriesScannedPostFilter = 0L;
   private long _totalDocs = 0L;
   private long _timeUsedMs = 0L;
@@ -136,6 +138,17 @@ public class BrokerResponseNative implements BrokerResponse {
     _numServersResponded = numServersResponded;
   }
 
+  @JsonProperty("partialResult")
+  public boolean isPartialResult() {
+    return _partialResult;
+  }
+
+  @JsonProperty("partialResult")
+  @Override
+  public void setPartialResult(boolean partialResult) {
+    _partialResult = partialResult;
+  }
+
   @JsonProperty("numDocsScanned")
   public long getNumDocsScanned() {
     return _numDocsScanned;
@@ -157,6 +170,16 @@ public class BrokerResponseNative implements BrokerResponse {
     _numEntriesScannedInFilter = numEntriesScannedInFilter;
   }
 
+  @JsonProperty("numEntriesScannedInFilterPerColumn")
+  public Map<String, Long> getNumEntriesScannedInFilterPerColumn() {
+    return _numEntriesScannedInFilterPerColumn;
+  }
+
+  @JsonProperty("numEntriesScannedInFilterPerColumn")
+  public void setNumEntriesScannedInFilterPerColumn(Map<String, Long> numEntriesScannedInFilterPerColumn) {
+    _numEntriesScannedInFilterPerColumn = numEntriesScannedInFilterPerColumn;
+  }
+
   @JsonProperty("numEntriesScannedPostFilter")
   @Override
   public long getNumEntriesScannedPostFilter() {
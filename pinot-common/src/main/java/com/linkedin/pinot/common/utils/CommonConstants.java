@@ -130,6 +130,9 @@ public class CommonConstants {
           public static final String KAFKA_FETCH_TIMEOUT_MILLIS = "kafka.fetch.timeout.ms";
           public static final String ZK_BROKER_URL = "kafka.zk.broker.url";
           public static final String KAFKA_BROKER_LIST = "kafka.broker.list";
+          // Number of threads decoding the messages of each partition for the low level consumer, 0 to decode on the
+          // consuming thread
+          public static final String LLC_DECODER_THREADS = "kafka.llc.decoder.threads";
 
           // Consumer properties
           public static final String AUTO_OFFSET_RESET = "auto.offset.reset";
@@ -263,6 +266,7 @@ public class CommonConstants {
     public static final String TOTAL_DOCS = "segment.total.docs";
     public static final String CRC = "segment.crc";
     public static final String CREATION_TIME = "segment.creation.time";
+    public static final String PARTITION_METADATA = "segment.partition.metadata";
     public static final String FLUSH_THRESHOLD_SIZE = "segment.flush.threshold.size";
 
     public static enum SegmentType {
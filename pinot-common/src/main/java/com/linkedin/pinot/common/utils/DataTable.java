@@ -29,6 +29,7 @@ public interface DataTable {
   String EXCEPTION_METADATA_KEY = "Exception";
   String NUM_DOCS_SCANNED_METADATA_KEY = "numDocsScanned";
   String NUM_ENTRIES_SCANNED_IN_FILTER_METADATA_KEY = "numEntriesScannedInFilter";
+  String NUM_ENTRIES_SCANNED_IN_FILTER_PER_COLUMN_METADATA_KEY = "numEntriesScannedInFilterPerColumn";
   String NUM_ENTRIES_SCANNED_POST_FILTER_METADATA_KEY = "numEntriesScannedPostFilter";
   String TOTAL_DOCS_METADATA_KEY = "totalDocs";
   String TIME_USED_MS_METADATA_KEY = "timeUsedMs";
@@ -234,4 +234,41 @@ public class RequestUtils {
     String useStarTreeString = debugOptions.get(USE_STAR_TREE_KEY);
     return (useStarTreeString != null) ? Boolean.valueOf(useStarTreeString) : true;
   }
+
+  /**
+   * Returns a copy of the broker request with the filter query ids renumbered in depth-first order.
+   * <p>The compiler assigns different filter query ids for each compilation of the same query, so broker requests
+   * should be normalized before being compared or used as keys.
+   *
+   * @param brokerRequest Broker Request
+   * @return Normalized copy of the broker request
+   */
+  public static BrokerRequest normalizeFilterQueryIds(BrokerRequest brokerRequest) {
+    BrokerRequest normalizedBrokerRequest = brokerRequest.deepCopy();
+    FilterQuery filterQuery = normalizedBrokerRequest.getFilterQuery();
+    FilterQueryMap filterSubQueryMap = normalizedBrokerRequest.getFilterSubQueryMap();
+    if (filterQuery != null && filterSubQueryMap != null) {
+      Map<Integer, FilterQuery> normalizedFilterQueryMap = new HashMap<>();
+      renumberFilterQuery(filterQuery, filterSubQueryMap.getFilterQueryMap(), normalizedFilterQueryMap);
+      filterSubQueryMap.setFilterQueryMap(normalizedFilterQueryMap);
+    }
+    return normalizedBrokerRequest;
+  }
+
+  private static int renumberFilterQuery(FilterQuery filterQuery, Map<Integer, FilterQuery> filterQueryMap,
+      Map<Integer, FilterQuery> normalizedFilterQueryMap) {
+    int id = normalizedFilterQueryMap.size();
+    filterQuery.setId(id);
+    normalizedFilterQueryMap.put(id, filterQuery);
+    List<Integer> nestedFilterQueryIds = filterQuery.getNestedFilterQueryIds();
+    if (nestedFilterQueryIds != null) {
+      List<Integer> normalizedNestedFilterQueryIds = new ArrayList<>(nestedFilterQueryIds.size());
+      for (Integer nestedFilterQueryId : nestedFilterQueryIds) {
+        normalizedNestedFilterQueryIds.add(
+            renumberFilterQuery(filterQueryMap.get(nestedFilterQueryId), filterQueryMap, normalizedFilterQueryMap));
+      }
+      filterQuery.setNestedFilterQueryIds(normalizedNestedFilterQueryIds);
+    }
+    return id;
+  }
 }
@@ -15,14 +15,19 @@
  */
 package com.linkedin.pinot.common.metadata;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.helix.ZNRecord;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import com.linkedin.pinot.common.metadata.segment.ColumnPartitionMetadata;
 import com.linkedin.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
 import com.linkedin.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
+import com.linkedin.pinot.common.metadata.segment.SegmentPartitionMetadata;
 import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.common.utils.CommonConstants.Segment.Realtime.Status;
 import com.linkedin.pinot.common.utils.CommonConstants.Segment.SegmentType;
@@ -63,6 +68,21 @@ public class SegmentZKMetadataTest {
     Assert.assertTrue(offlineSegmentMetadata.equals(new OfflineSegmentZKMetadata(offlineSegmentMetadata.toZNRecord())));
   }
 
+  @Test
+  public void partitionMetadataConvertionTest() {
+    OfflineSegmentZKMetadata offlineSegmentMetadata = getTestOfflineSegmentMetadata();
+    Assert.assertNull(offlineSegmentMetadata.getPartitionMetadata());
+    SegmentPartitionMetadata partitionMetadata = new SegmentPartitionMetadata(Collections.singletonMap("memberId",
+        new ColumnPartitionMetadata("murmur", 8, new HashSet<>(Arrays.asList(1, 5)))));
+    offlineSegmentMetadata.setPartitionMetadata(partitionMetadata);
+
+    ZNRecord znRecord = offlineSegmentMetadata.toZNRecord();
+    Assert.assertNotNull(znRecord.getSimpleField(CommonConstants.Segment.PARTITION_METADATA));
+    OfflineSegmentZKMetadata convertedSegmentMetadata = new OfflineSegmentZKMetadata(znRecord);
+    Assert.assertEquals(convertedSegmentMetadata.getPartitionMetadata(), partitionMetadata);
+    Assert.assertTrue(offlineSegmentMetadata.equals(convertedSegmentMetadata));
+  }
+
   private ZNRecord getTestDoneRealtimeSegmentZNRecord() {
     String segmentName = "testTable_R_1000_2000_groupId0_part0";
     ZNRecord record = new ZNRecord(segmentName);
@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.common.partition;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import java.nio.charset.Charset;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class PartitionFunctionTest {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  @Test
+  public void testModuloPartitionFunction() {
+    PartitionFunction partitionFunction = PartitionFunctionFactory.getPartitionFunction("Modulo", 4);
+    Assert.assertTrue(partitionFunction instanceof ModuloPartitionFunction);
+    Assert.assertEquals(partitionFunction.getNumPartitions(), 4);
+    Assert.assertEquals(partitionFunction.getPartition(0), 0);
+    Assert.assertEquals(partitionFunction.getPartition(7), 3);
+    Assert.assertEquals(partitionFunction.getPartition(9L), 1);
+    Assert.assertEquals(partitionFunction.getPartition("10"), 2);
+    Assert.assertEquals(partitionFunction.getPartition(-3), 1);
+  }
+
+  @Test
+  public void testMurmurPartitionFunction() {
+    // Same hashes as the Kafka murmur2 implementation
+    Assert.assertEquals(MurmurPartitionFunction.murmur2("21".getBytes(UTF_8)), -973932308);
+    Assert.assertEquals(MurmurPartitionFunction.murmur2("foobar".getBytes(UTF_8)), -790332482);
+    Assert.assertEquals(MurmurPartitionFunction.murmur2("a-little-bit-long-string".getBytes(UTF_8)), -985981536);
+    Assert.assertEquals(MurmurPartitionFunction.murmur2("a-little-bit-longer-string".getBytes(UTF_8)), -1486304829);
+    Assert.assertEquals(MurmurPartitionFunction.murmur2("abc".getBytes(UTF_8)), 479470107);
+
+    PartitionFunction partitionFunction = PartitionFunctionFactory.getPartitionFunction("murmur", 10);
+    Assert.assertTrue(partitionFunction instanceof MurmurPartitionFunction);
+    for (int i = 0; i < 100; i++) {
+      int partition = partitionFunction.getPartition(i);
+      Assert.assertTrue(partition >= 0 && partition < 10);
+      Assert.assertEquals(partitionFunction.getPartition(Integer.toString(i)), partition);
+    }
+  }
+
+  @Test
+  public void testMurmurPartitionFunctionWithDataType() {
+    // Typed values of the segments and string values of the queries get the same partition
+    PartitionFunction partitionFunction =
+        PartitionFunctionFactory.getPartitionFunction("murmur", 10, FieldSpec.DataType.DOUBLE);
+    int partition = partitionFunction.getPartition(1.0);
+    Assert.assertEquals(partitionFunction.getPartition("1"), partition);
+    Assert.assertEquals(partitionFunction.getPartition("1.0"), partition);
+    Assert.assertEquals(partitionFunction.getPartition(1), partition);
+
+    partitionFunction = PartitionFunctionFactory.getPartitionFunction("murmur", 10, FieldSpec.DataType.FLOAT);
+    Assert.assertEquals(partitionFunction.getPartition("1.1"), partitionFunction.getPartition(1.1f));
+
+    // Integral values are hashed as the Kafka producer hashes their string keys
+    partitionFunction = PartitionFunctionFactory.getPartitionFunction("murmur", 10, FieldSpec.DataType.LONG);
+    partition = (MurmurPartitionFunction.murmur2("21".getBytes(UTF_8)) & 0x7fffffff) % 10;
+    Assert.assertEquals(partitionFunction.getPartition(21L), partition);
+    Assert.assertEquals(partitionFunction.getPartition(21), partition);
+    Assert.assertEquals(partitionFunction.getPartition("21"), partition);
+    Assert.assertEquals(partitionFunction.getPartition("21.0"), partition);
+
+    // String values are hashed as is
+    partitionFunction = PartitionFunctionFactory.getPartitionFunction("murmur", 10, FieldSpec.DataType.STRING);
+    Assert.assertEquals(partitionFunction.getPartition("1.0"),
+        (MurmurPartitionFunction.murmur2("1.0".getBytes(UTF_8)) & 0x7fffffff) % 10);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testUnsupportedPartitionFunction() {
+    PartitionFunctionFactory.getPartitionFunction("unknown", 4);
+  }
+}
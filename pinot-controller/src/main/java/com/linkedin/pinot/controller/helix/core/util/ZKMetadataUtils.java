@@ -15,13 +15,19 @@
  */
 package com.linkedin.pinot.controller.helix.core.util;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.joda.time.Duration;
 
+import com.linkedin.pinot.common.metadata.segment.ColumnPartitionMetadata;
 import com.linkedin.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
+import com.linkedin.pinot.common.metadata.segment.SegmentPartitionMetadata;
 import com.linkedin.pinot.common.segment.SegmentMetadata;
 import com.linkedin.pinot.common.utils.CommonConstants.Segment.SegmentType;
+import com.linkedin.pinot.core.segment.index.ColumnMetadata;
+import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
 
 
 public class ZKMetadataUtils {
@@ -45,9 +51,28 @@ public class ZKMetadataUtils {
     offlineSegmentZKMetadata.setTotalRawDocs(segmentMetadata.getTotalRawDocs());
     offlineSegmentZKMetadata.setCreationTime(segmentMetadata.getIndexCreationTime());
     offlineSegmentZKMetadata.setCrc(Long.parseLong(segmentMetadata.getCrc()));
+    offlineSegmentZKMetadata.setPartitionMetadata(extractPartitionMetadata(segmentMetadata));
     return offlineSegmentZKMetadata;
   }
 
+  /**
+   * Returns the partitions of the partitioned columns recorded in the segment metadata, or null if there is none.
+   */
+  private static SegmentPartitionMetadata extractPartitionMetadata(SegmentMetadata segmentMetadata) {
+    if (!(segmentMetadata instanceof SegmentMetadataImpl)) {
+      return null;
+    }
+    Map<String, ColumnPartitionMetadata> columnPartitionMap = new HashMap<>();
+    for (Map.Entry<String, ColumnMetadata> entry : ((SegmentMetadataImpl) segmentMetadata).getColumnMetadataMap()
+        .entrySet()) {
+      ColumnPartitionMetadata partitionMetadata = entry.getValue().getPartitionMetadata();
+      if (partitionMetadata != null) {
+        columnPartitionMap.put(entry.getKey(), partitionMetadata);
+      }
+    }
+    return columnPartitionMap.isEmpty() ? null : new SegmentPartitionMetadata(columnPartitionMap);
+  }
+
   private static TimeUnit extractTimeUnitFromDuration(Duration timeGranularity) {
     if (timeGranularity == null) {
       return null;
@@ -21,6 +21,7 @@ import com.linkedin.pinot.core.plan.DocIdSetPlanNode;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import com.linkedin.pinot.core.operator.BaseOperator;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
@@ -113,6 +114,15 @@ public class DataFetcher {
     return _columnToBlockValIteratorMap.get(column);
   }
 
+  /**
+   * Returns the columns managed by the data fetcher.
+   *
+   * @return Set of column names.
+   */
+  public Set<String> getColumns() {
+    return _columnToBlockValSetMap.keySet();
+  }
+
   public BlockMetadata getBlockMetadataFor(String column) {
     return _columnToBlockMetadataMap.get(column);
   }
@@ -177,8 +187,13 @@ public class DataFetcher {
    */
   public void fetchIntValues(String column, int[] inDocIds, int inStartPos, int length, int[] outValues, int outStartPos) {
     Dictionary dictionary = getDictionaryForColumn(column);
-    fetchSingleDictIds(column, inDocIds, inStartPos, length, _reusableDictIds, 0);
-    dictionary.readIntValues(_reusableDictIds, 0, length, outValues, outStartPos);
+    if (dictionary != null) {
+      fetchSingleDictIds(column, inDocIds, inStartPos, length, _reusableDictIds, 0);
+      dictionary.readIntValues(_reusableDictIds, 0, length, outValues, outStartPos);
+    } else {
+      BlockValSet blockValSet = _columnToBlockValSetMap.get(column);
+      blockValSet.getIntValues(inDocIds, inStartPos, length, outValues, outStartPos);
+    }
   }
 
   /**
@@ -216,8 +231,13 @@ public class DataFetcher {
    */
   public void fetchLongValues(String column, int[] inDocIds, int inStartPos, int length, long[] outValues, int outStartPos) {
     Dictionary dictionary = getDictionaryForColumn(column);
-    fetchSingleDictIds(column, inDocIds, inStartPos, length, _reusableDictIds, 0);
-    dictionary.readLongValues(_reusableDictIds, 0, length, outValues, outStartPos);
+    if (dictionary != null) {
+      fetchSingleDictIds(column, inDocIds, inStartPos, length, _reusableDictIds, 0);
+      dictionary.readLongValues(_reusableDictIds, 0, length, outValues, outStartPos);
+    } else {
+      BlockValSet blockValSet = _columnToBlockValSetMap.get(column);
+      blockValSet.getLongValues(inDocIds, inStartPos, length, outValues, outStartPos);
+    }
   }
 
   /**
@@ -255,8 +275,13 @@ public class DataFetcher {
    */
   public void fetchFloatValues(String column, int[] inDocIds, int inStartPos, int length, float[] outValues, int outStartPos) {
     Dictionary dictionary = getDictionaryForColumn(column);
-    fetchSingleDictIds(column, inDocIds, inStartPos, length, _reusableDictIds, 0);
-    dictionary.readFloatValues(_reusableDictIds, 0, length, outValues, outStartPos);
+    if (dictionary != null) {
+      fetchSingleDictIds(column, inDocIds, inStartPos, length, _reusableDictIds, 0);
+      dictionary.readFloatValues(_reusableDictIds, 0, length, outValues, outStartPos);
+    } else {
+      BlockValSet blockValSet = _columnToBlockValSetMap.get(column);
+      blockValSet.getFloatValues(inDocIds, inStartPos, length, outValues, outStartPos);
+    }
   }
 
   /**
@@ -299,7 +324,7 @@ public class DataFetcher {
       dictionary.readDoubleValues(_reusableDictIds, 0, length, outValues, outStartPos);
     } else {
       BlockValSet blockValSet = _columnToBlockValSetMap.get(column);
-      blockValSet.getDoubleValues(inDocIds, 0, length, outValues, 0);
+      blockValSet.getDoubleValues(inDocIds, inStartPos, length, outValues, outStartPos);
     }
   }
 
@@ -340,7 +365,7 @@ public class DataFetcher {
       dictionary.readStringValues(_reusableDictIds, 0, length, outValues, outStartPos);
     } else {
       BlockValSet blockValSet = _columnToBlockValSetMap.get(column);
-      blockValSet.getStringValues(inDocIds, 0, length, outValues, 0);
+      blockValSet.getStringValues(inDocIds, inStartPos, length, outValues, outStartPos);
     }
   }
 
@@ -16,7 +16,9 @@
 package com.linkedin.pinot.core.common;
 
 import com.linkedin.pinot.core.operator.BaseOperator;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
+import com.linkedin.pinot.core.segment.index.readers.RangeIndexReader;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
 
 public abstract class DataSource extends BaseOperator {
@@ -28,4 +30,14 @@ public abstract class DataSource extends BaseOperator {
   public abstract InvertedIndexReader getInvertedIndex();
 
   public abstract Dictionary getDictionary();
+
+  /**
+   * Returns the bloom filter of the column, or null if the column has no bloom filter.
+   */
+  public abstract BloomFilterReader getBloomFilter();
+
+  /**
+   * Returns the range index of the column, or null if the column has no range index.
+   */
+  public abstract RangeIndexReader getRangeIndex();
 }
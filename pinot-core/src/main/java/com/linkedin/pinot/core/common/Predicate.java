@@ -49,7 +49,7 @@ public abstract class Predicate {
     this.rhs = rhs;
   }
 
-  protected String getLhs() {
+  public String getLhs() {
     return lhs;
   }
 
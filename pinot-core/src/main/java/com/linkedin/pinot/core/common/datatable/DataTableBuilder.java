@@ -82,13 +82,42 @@ public class DataTableBuilder {
   private final DataOutputStream _variableSizeDataOutputStream =
       new DataOutputStream(_variableSizeDataByteArrayOutputStream);
 
+  private final int _version;
+  private final int _objectEncodingVersion;
+  // For version 3, the fixed size data of each column is written into its own section when the row is finished
+  private final int[] _columnSizes;
+  private final ByteArrayOutputStream[] _columnDataByteArrayOutputStreams;
+
   private int _numRows;
   private ByteBuffer _currentRowDataByteBuffer;
 
   public DataTableBuilder(@Nonnull DataSchema dataSchema) {
+    this(dataSchema, DataTableFactory.VERSION_2);
+  }
+
+  /**
+   * Construct a builder for data tables of the given version. Objects are serialized with the encoding of that
+   * version, so that the data table can be serialized without re-encoding them.
+   */
+  public DataTableBuilder(@Nonnull DataSchema dataSchema, int version) {
     _dataSchema = dataSchema;
     _columnOffsets = new int[dataSchema.size()];
     _rowSizeInBytes = DataTableUtils.computeColumnOffsets(dataSchema, _columnOffsets);
+    _version = version;
+    _objectEncodingVersion = DataTableFactory.getObjectEncodingVersion(version);
+    if (version >= DataTableFactory.VERSION_3) {
+      int numColumns = _columnOffsets.length;
+      _columnSizes = new int[numColumns];
+      _columnDataByteArrayOutputStreams = new ByteArrayOutputStream[numColumns];
+      for (int i = 0; i < numColumns; i++) {
+        int nextColumnOffset = (i == numColumns - 1) ? _rowSizeInBytes : _columnOffsets[i + 1];
+        _columnSizes[i] = nextColumnOffset - _columnOffsets[i];
+        _columnDataByteArrayOutputStreams[i] = new ByteArrayOutputStream();
+      }
+    } else {
+      _columnSizes = null;
+      _columnDataByteArrayOutputStreams = null;
+    }
   }
 
   public void startRow() {
@@ -163,7 +192,7 @@ public class DataTableBuilder {
       throws IOException {
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
-    byte[] bytes = ObjectCustomSerDe.serialize(value);
+    byte[] bytes = ObjectCustomSerDe.serialize(value, _objectEncodingVersion);
     _currentRowDataByteBuffer.putInt(bytes.length);
     _variableSizeDataOutputStream.writeInt(ObjectCustomSerDe.getObjectType(value).getValue());
     _variableSizeDataByteArrayOutputStream.write(bytes);
@@ -265,10 +294,30 @@ public class DataTableBuilder {
 
   public void finishRow()
       throws IOException {
-    _fixedSizeDataByteArrayOutputStream.write(_currentRowDataByteBuffer.array());
+    byte[] rowBytes = _currentRowDataByteBuffer.array();
+    if (_columnDataByteArrayOutputStreams != null) {
+      int numColumns = _columnOffsets.length;
+      for (int i = 0; i < numColumns; i++) {
+        _columnDataByteArrayOutputStreams[i].write(rowBytes, _columnOffsets[i], _columnSizes[i]);
+      }
+    } else {
+      _fixedSizeDataByteArrayOutputStream.write(rowBytes);
+    }
   }
 
   public DataTable build() {
+    if (_columnDataByteArrayOutputStreams != null) {
+      // Concatenate the column sections into the column based fixed size data.
+      byte[] fixedSizeDataBytes = new byte[_numRows * _rowSizeInBytes];
+      int position = 0;
+      for (ByteArrayOutputStream columnDataByteArrayOutputStream : _columnDataByteArrayOutputStreams) {
+        byte[] columnDataBytes = columnDataByteArrayOutputStream.toByteArray();
+        System.arraycopy(columnDataBytes, 0, fixedSizeDataBytes, position, columnDataBytes.length);
+        position += columnDataBytes.length;
+      }
+      return new DataTableImplV3(_numRows, _dataSchema, _reverseDictionaryMap, fixedSizeDataBytes,
+          _variableSizeDataByteArrayOutputStream.toByteArray(), new HashMap<String, String>());
+    }
     return new DataTableImplV2(_numRows, _dataSchema, _reverseDictionaryMap,
         _fixedSizeDataByteArrayOutputStream.toByteArray(), _variableSizeDataByteArrayOutputStream.toByteArray());
   }
@@ -15,24 +15,99 @@
  */
 package com.linkedin.pinot.core.common.datatable;
 
+import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.utils.DataTable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Map;
+import javax.annotation.Nonnull;
 
 
+/**
+ * The <code>DataTableFactory</code> class serializes and de-serializes data tables of all the supported versions.
+ * <p>The data table version is negotiated per request: the broker puts the highest version it can read into the
+ * debug options of the request, and the server responds with the highest version both sides support. Servers not
+ * aware of the option keep responding with version 2, and requests without the option get version 2 responses.
+ */
 public class DataTableFactory {
+  public static final int VERSION_2 = 2;
+  public static final int VERSION_3 = 3;
+  public static final int MAX_SUPPORTED_VERSION = VERSION_3;
+
+  // Key in the debug options of the broker request for the highest data table version the broker can read
+  public static final String DATA_TABLE_VERSION_KEY = "dataTableVersion";
+
   private DataTableFactory() {
   }
 
   public static DataTable getDataTable(byte[] bytes)
       throws IOException {
-    ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+    return getDataTable(ByteBuffer.wrap(bytes));
+  }
+
+  /**
+   * De-serialize the data table from the remaining bytes of the byte buffer.
+   * <p>Data tables of version 3 read their data in place, so the content of the byte buffer must not be modified
+   * while the data table is in use.
+   */
+  public static DataTable getDataTable(@Nonnull ByteBuffer byteBuffer)
+      throws IOException {
+    // Positions inside the data table header are relative to the start of the data table.
+    byteBuffer = byteBuffer.slice();
     int version = byteBuffer.getInt();
     switch (version) {
-      case 2:
+      case VERSION_2:
         return new DataTableImplV2(byteBuffer);
+      case VERSION_3:
+        return new DataTableImplV3(byteBuffer);
       default:
         throw new UnsupportedOperationException("Unsupported data table version: " + version);
     }
   }
+
+  /**
+   * Serialize the data table with the given version.
+   * <p>Data tables with data are built for the response version by {@link DataTableBuilder} and serialized as is. Only
+   * data tables of version 2 holding nothing but metadata (e.g. exceptions) are converted, which does not touch any
+   * data. Data tables of version 2 with data are kept as version 2, which every broker can read.
+   */
+  @Nonnull
+  public static byte[] toBytes(@Nonnull DataTable dataTable, int version)
+      throws IOException {
+    if (version >= VERSION_3 && dataTable instanceof DataTableImplV2 && dataTable.getDataSchema() == null) {
+      DataTableImplV3 metadataOnlyDataTable = new DataTableImplV3();
+      metadataOnlyDataTable.getMetadata().putAll(dataTable.getMetadata());
+      return metadataOnlyDataTable.toBytes();
+    }
+    return dataTable.toBytes();
+  }
+
+  /**
+   * Returns the {@link ObjectCustomSerDe} encoding version of the objects inside data tables of the given version.
+   */
+  public static int getObjectEncodingVersion(int version) {
+    if (version >= VERSION_3) {
+      return ObjectCustomSerDe.ENCODING_VERSION_2;
+    }
+    return ObjectCustomSerDe.ENCODING_VERSION_1;
+  }
+
+  /**
+   * Returns the data table version to respond to the broker request with.
+   */
+  public static int getResponseVersion(@Nonnull BrokerRequest brokerRequest) {
+    Map<String, String> debugOptions = brokerRequest.getDebugOptions();
+    if (debugOptions == null) {
+      return VERSION_2;
+    }
+    String versionString = debugOptions.get(DATA_TABLE_VERSION_KEY);
+    if (versionString == null) {
+      return VERSION_2;
+    }
+    try {
+      return Math.max(VERSION_2, Math.min(Integer.parseInt(versionString), MAX_SUPPORTED_VERSION));
+    } catch (NumberFormatException e) {
+      return VERSION_2;
+    }
+  }
 }
@@ -0,0 +1,632 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.common.datatable;
+
+import com.linkedin.pinot.common.response.ProcessingException;
+import com.linkedin.pinot.common.utils.DataSchema;
+import com.linkedin.pinot.common.utils.DataTable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+
+/**
+ * The <code>DataTableImplV3</code> class is the columnar version of the data table.
+ * <p>Compared to {@link DataTableImplV2}:
+ * <ul>
+ *   <li>Fixed size data is stored column by column, so that each column is a section of values of the same type.</li>
+ *   <li>Dictionaries are stored as arrays of values indexed by dictionary id.</li>
+ *   <li>Serialization computes the exact size first and writes all the sections in a single pass into one array.</li>
+ *   <li>De-serialization reads the fixed and variable size data in place from the given buffer without copying.</li>
+ * </ul>
+ * The fixed and variable size data are accessed with absolute positions, so reading values does not modify any
+ * buffer state.
+ */
+public class DataTableImplV3 implements DataTable {
+  static final int VERSION = 3;
+  // Objects are serialized with the compact encoding.
+  static final int OBJECT_ENCODING_VERSION = ObjectCustomSerDe.ENCODING_VERSION_2;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final int INT_SIZE = Integer.SIZE / Byte.SIZE;
+
+  // VERSION
+  // NUM_ROWS
+  // NUM_COLUMNS
+  // DICTIONARY_MAP (START|SIZE)
+  // METADATA (START|SIZE)
+  // DATA_SCHEMA (START|SIZE)
+  // FIXED_SIZE_DATA (START|SIZE)
+  // VARIABLE_SIZE_DATA (START|SIZE)
+  private static final int HEADER_SIZE = INT_SIZE * 13;
+
+  private final int _numRows;
+  private final int _numColumns;
+  private final DataSchema _dataSchema;
+  // Start position of each column inside the fixed size data, and size of each value of the column
+  private final int[] _columnStarts;
+  private final int[] _columnSizes;
+  private final Map<String, String[]> _dictionaryMap;
+  // Dictionary for each column, null for columns without dictionary
+  private final String[][] _columnDictionaries;
+  private final ByteBuffer _fixedSizeData;
+  private final ByteBuffer _variableSizeData;
+  private final Map<String, String> _metadata;
+
+  /**
+   * Construct data table from the column based fixed size data generated by {@link DataTableBuilder}. (Server side)
+   * <p>The dictionary ids inside the dictionaries must be consecutive and start from 0.
+   */
+  DataTableImplV3(int numRows, @Nullable DataSchema dataSchema,
+      @Nullable Map<String, Map<Integer, String>> dictionaryMap, @Nullable byte[] fixedSizeDataBytes,
+      @Nullable byte[] variableSizeDataBytes, @Nonnull Map<String, String> metadata) {
+    _numRows = numRows;
+    _dataSchema = dataSchema;
+    if (dataSchema != null) {
+      _numColumns = dataSchema.size();
+      _columnStarts = new int[_numColumns];
+      _columnSizes = new int[_numColumns];
+      computeColumnStartsAndSizes(dataSchema, numRows, _columnStarts, _columnSizes);
+    } else {
+      _numColumns = 0;
+      _columnStarts = null;
+      _columnSizes = null;
+    }
+    if (fixedSizeDataBytes != null && dataSchema != null) {
+      _fixedSizeData = ByteBuffer.wrap(fixedSizeDataBytes);
+    } else {
+      _fixedSizeData = null;
+    }
+    if (dictionaryMap != null) {
+      _dictionaryMap = new HashMap<>(dictionaryMap.size());
+      for (Entry<String, Map<Integer, String>> entry : dictionaryMap.entrySet()) {
+        Map<Integer, String> dictionary = entry.getValue();
+        int dictionarySize = dictionary.size();
+        String[] values = new String[dictionarySize];
+        for (int dictId = 0; dictId < dictionarySize; dictId++) {
+          values[dictId] = dictionary.get(dictId);
+        }
+        _dictionaryMap.put(entry.getKey(), values);
+      }
+    } else {
+      _dictionaryMap = null;
+    }
+    _columnDictionaries = getColumnDictionaries(_dataSchema, _dictionaryMap);
+    if (variableSizeDataBytes != null) {
+      _variableSizeData = ByteBuffer.wrap(variableSizeDataBytes);
+    } else {
+      _variableSizeData = null;
+    }
+    _metadata = metadata;
+  }
+
+  /**
+   * Construct empty data table. (Server side)
+   */
+  public DataTableImplV3() {
+    this(0, null, null, null, null, new HashMap<String, String>());
+  }
+
+  /**
+   * Construct data table from the serialized bytes in the byte buffer, positioned right after the version. (Broker
+   * side)
+   * <p>The start positions inside the header are relative to the start of the byte buffer. The fixed and variable size
+   * data are read in place, so the content of the byte buffer must not be modified while the data table is in use.
+   */
+  public DataTableImplV3(@Nonnull ByteBuffer byteBuffer)
+      throws IOException {
+    // Read header.
+    _numRows = byteBuffer.getInt();
+    _numColumns = byteBuffer.getInt();
+    int dictionaryMapStart = byteBuffer.getInt();
+    int dictionaryMapLength = byteBuffer.getInt();
+    int metadataStart = byteBuffer.getInt();
+    int metadataLength = byteBuffer.getInt();
+    int dataSchemaStart = byteBuffer.getInt();
+    int dataSchemaLength = byteBuffer.getInt();
+    int fixedSizeDataStart = byteBuffer.getInt();
+    int fixedSizeDataLength = byteBuffer.getInt();
+    int variableSizeDataStart = byteBuffer.getInt();
+    int variableSizeDataLength = byteBuffer.getInt();
+
+    // Read dictionary.
+    if (dictionaryMapLength != 0) {
+      byteBuffer.position(dictionaryMapStart);
+      _dictionaryMap = deserializeDictionaryMap(byteBuffer);
+    } else {
+      _dictionaryMap = null;
+    }
+
+    // Read metadata.
+    byteBuffer.position(metadataStart);
+    _metadata = deserializeMetadata(byteBuffer);
+    assert byteBuffer.position() == metadataStart + metadataLength;
+
+    // Read data schema.
+    if (dataSchemaLength != 0) {
+      byte[] schemaBytes = new byte[dataSchemaLength];
+      byteBuffer.position(dataSchemaStart);
+      byteBuffer.get(schemaBytes);
+      _dataSchema = DataSchema.fromBytes(schemaBytes);
+      _columnStarts = new int[_numColumns];
+      _columnSizes = new int[_numColumns];
+      computeColumnStartsAndSizes(_dataSchema, _numRows, _columnStarts, _columnSizes);
+    } else {
+      _dataSchema = null;
+      _columnStarts = null;
+      _columnSizes = null;
+    }
+    _columnDictionaries = getColumnDictionaries(_dataSchema, _dictionaryMap);
+
+    // Read fixed size data and variable size data in place.
+    _fixedSizeData = getSection(byteBuffer, fixedSizeDataStart, fixedSizeDataLength);
+    _variableSizeData = getSection(byteBuffer, variableSizeDataStart, variableSizeDataLength);
+  }
+
+  /**
+   * Compute the start position inside the fixed size data and the value size for each column.
+   */
+  private static void computeColumnStartsAndSizes(DataSchema dataSchema, int numRows, int[] columnStarts,
+      int[] columnSizes) {
+    int numColumns = columnStarts.length;
+    int rowSizeInBytes = DataTableUtils.computeColumnOffsets(dataSchema, columnStarts);
+    for (int i = 0; i < numColumns; i++) {
+      int nextColumnOffset = (i == numColumns - 1) ? rowSizeInBytes : columnStarts[i + 1];
+      columnSizes[i] = nextColumnOffset - columnStarts[i];
+    }
+    for (int i = 0; i < numColumns; i++) {
+      columnStarts[i] *= numRows;
+    }
+  }
+
+  @Nullable
+  private static String[][] getColumnDictionaries(@Nullable DataSchema dataSchema,
+      @Nullable Map<String, String[]> dictionaryMap) {
+    if (dataSchema == null || dictionaryMap == null) {
+      return null;
+    }
+    int numColumns = dataSchema.size();
+    String[][] columnDictionaries = new String[numColumns][];
+    for (int i = 0; i < numColumns; i++) {
+      columnDictionaries[i] = dictionaryMap.get(dataSchema.getColumnName(i));
+    }
+    return columnDictionaries;
+  }
+
+  @Nullable
+  private static ByteBuffer getSection(ByteBuffer byteBuffer, int start, int length) {
+    if (length == 0) {
+      return null;
+    }
+    ByteBuffer section = byteBuffer.duplicate();
+    section.limit(start + length);
+    section.position(start);
+    return section.slice();
+  }
+
+  private static Map<String, String[]> deserializeDictionaryMap(ByteBuffer byteBuffer) {
+    int numDictionaries = byteBuffer.getInt();
+    Map<String, String[]> dictionaryMap = new HashMap<>(numDictionaries);
+    for (int i = 0; i < numDictionaries; i++) {
+      String columnName = readString(byteBuffer);
+      int dictionarySize = byteBuffer.getInt();
+      String[] values = new String[dictionarySize];
+      for (int dictId = 0; dictId < dictionarySize; dictId++) {
+        values[dictId] = readString(byteBuffer);
+      }
+      dictionaryMap.put(columnName, values);
+    }
+    return dictionaryMap;
+  }
+
+  private static Map<String, String> deserializeMetadata(ByteBuffer byteBuffer) {
+    int numEntries = byteBuffer.getInt();
+    Map<String, String> metadata = new HashMap<>(numEntries);
+    for (int i = 0; i < numEntries; i++) {
+      String key = readString(byteBuffer);
+      metadata.put(key, readString(byteBuffer));
+    }
+    return metadata;
+  }
+
+  private static String readString(ByteBuffer byteBuffer) {
+    int length = byteBuffer.getInt();
+    String value;
+    if (byteBuffer.hasArray()) {
+      value = new String(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(), length, UTF_8);
+      byteBuffer.position(byteBuffer.position() + length);
+    } else {
+      byte[] bytes = new byte[length];
+      byteBuffer.get(bytes);
+      value = new String(bytes, UTF_8);
+    }
+    return value;
+  }
+
+  @Override
+  public void addException(@Nonnull ProcessingException processingException) {
+    _metadata.put(EXCEPTION_METADATA_KEY + processingException.getErrorCode(), processingException.getMessage());
+  }
+
+  @Nonnull
+  @Override
+  public byte[] toBytes()
+      throws IOException {
+    // Encode the strings and compute the size of each section first, so that all the sections can be written in a
+    // single pass into a byte array of the exact size.
+    List<byte[]> dictionaryMapBytes = null;
+    int dictionaryMapLength = 0;
+    if (_dictionaryMap != null) {
+      dictionaryMapBytes = new ArrayList<>();
+      dictionaryMapLength = INT_SIZE;
+      for (Entry<String, String[]> entry : _dictionaryMap.entrySet()) {
+        dictionaryMapLength += addString(dictionaryMapBytes, entry.getKey()) + INT_SIZE;
+        for (String value : entry.getValue()) {
+          dictionaryMapLength += addString(dictionaryMapBytes, value);
+        }
+      }
+    }
+    List<byte[]> metadataBytes = new ArrayList<>(2 * _metadata.size());
+    int metadataLength = INT_SIZE;
+    for (Entry<String, String> entry : _metadata.entrySet()) {
+      metadataLength += addString(metadataBytes, entry.getKey());
+      metadataLength += addString(metadataBytes, entry.getValue());
+    }
+    byte[] dataSchemaBytes = null;
+    int dataSchemaLength = 0;
+    if (_dataSchema != null) {
+      dataSchemaBytes = _dataSchema.toBytes();
+      dataSchemaLength = dataSchemaBytes.length;
+    }
+    int fixedSizeDataLength = _fixedSizeData != null ? _fixedSizeData.limit() : 0;
+    int variableSizeDataLength = _variableSizeData != null ? _variableSizeData.limit() : 0;
+
+    // Write header.
+    int dictionaryMapStart = HEADER_SIZE;
+    int metadataStart = dictionaryMapStart + dictionaryMapLength;
+    int dataSchemaStart = metadataStart + metadataLength;
+    int fixedSizeDataStart = dataSchemaStart + dataSchemaLength;
+    int variableSizeDataStart = fixedSizeDataStart + fixedSizeDataLength;
+    byte[] bytes = new byte[variableSizeDataStart + variableSizeDataLength];
+    ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+    byteBuffer.putInt(VERSION);
+    byteBuffer.putInt(_numRows);
+    byteBuffer.putInt(_numColumns);
+    byteBuffer.putInt(dictionaryMapStart);
+    byteBuffer.putInt(dictionaryMapLength);
+    byteBuffer.putInt(metadataStart);
+    byteBuffer.putInt(metadataLength);
+    byteBuffer.putInt(dataSchemaStart);
+    byteBuffer.putInt(dataSchemaLength);
+    byteBuffer.putInt(fixedSizeDataStart);
+    byteBuffer.putInt(fixedSizeDataLength);
+    byteBuffer.putInt(variableSizeDataStart);
+    byteBuffer.putInt(variableSizeDataLength);
+
+    // Write dictionary.
+    if (dictionaryMapBytes != null) {
+      int index = 0;
+      byteBuffer.putInt(_dictionaryMap.size());
+      for (String[] values : _dictionaryMap.values()) {
+        putBytes(byteBuffer, dictionaryMapBytes.get(index++));
+        byteBuffer.putInt(values.length);
+        for (int i = 0; i < values.length; i++) {
+          putBytes(byteBuffer, dictionaryMapBytes.get(index++));
+        }
+      }
+    }
+
+    // Write metadata.
+    byteBuffer.putInt(_metadata.size());
+    for (byte[] keyOrValueBytes : metadataBytes) {
+      putBytes(byteBuffer, keyOrValueBytes);
+    }
+
+    // Write data schema, fixed size data and variable size data.
+    if (dataSchemaBytes != null) {
+      byteBuffer.put(dataSchemaBytes);
+    }
+    if (_fixedSizeData != null) {
+      byteBuffer.put(_fixedSizeData.duplicate());
+    }
+    if (_variableSizeData != null) {
+      byteBuffer.put(_variableSizeData.duplicate());
+    }
+    assert !byteBuffer.hasRemaining();
+
+    return bytes;
+  }
+
+  /**
+   * Encode the string, add the bytes to the list and return the serialized size (LENGTH|BYTES).
+   */
+  private static int addString(List<byte[]> bytesList, String value) {
+    byte[] bytes = value.getBytes(UTF_8);
+    bytesList.add(bytes);
+    return INT_SIZE + bytes.length;
+  }
+
+  private static void putBytes(ByteBuffer byteBuffer, byte[] bytes) {
+    byteBuffer.putInt(bytes.length);
+    byteBuffer.put(bytes);
+  }
+
+  @Nonnull
+  @Override
+  public Map<String, String> getMetadata() {
+    return _metadata;
+  }
+
+  @Nullable
+  @Override
+  public DataSchema getDataSchema() {
+    return _dataSchema;
+  }
+
+  @Override
+  public int getNumberOfRows() {
+    return _numRows;
+  }
+
+  @Override
+  public boolean getBoolean(int rowId, int colId) {
+    return _fixedSizeData.get(getPosition(rowId, colId)) == 1;
+  }
+
+  @Override
+  public char getChar(int rowId, int colId) {
+    return _fixedSizeData.getChar(getPosition(rowId, colId));
+  }
+
+  @Override
+  public byte getByte(int rowId, int colId) {
+    return _fixedSizeData.get(getPosition(rowId, colId));
+  }
+
+  @Override
+  public short getShort(int rowId, int colId) {
+    return _fixedSizeData.getShort(getPosition(rowId, colId));
+  }
+
+  @Override
+  public int getInt(int rowId, int colId) {
+    return _fixedSizeData.getInt(getPosition(rowId, colId));
+  }
+
+  @Override
+  public long getLong(int rowId, int colId) {
+    return _fixedSizeData.getLong(getPosition(rowId, colId));
+  }
+
+  @Override
+  public float getFloat(int rowId, int colId) {
+    return _fixedSizeData.getFloat(getPosition(rowId, colId));
+  }
+
+  @Override
+  public double getDouble(int rowId, int colId) {
+    return _fixedSizeData.getDouble(getPosition(rowId, colId));
+  }
+
+  @Nonnull
+  @Override
+  public String getString(int rowId, int colId) {
+    return _columnDictionaries[colId][_fixedSizeData.getInt(getPosition(rowId, colId))];
+  }
+
+  @Nonnull
+  @Override
+  public <T> T getObject(int rowId, int colId) {
+    int position = getPosition(rowId, colId);
+    ObjectType objectType = ObjectType.getObjectType(_variableSizeData.getInt(_fixedSizeData.getInt(position)));
+    try {
+      return ObjectCustomSerDe.deserialize(getObjectBuffer(position), objectType, OBJECT_ENCODING_VERSION);
+    } catch (IOException e) {
+      throw new RuntimeException("Caught exception while de-serializing object.", e);
+    }
+  }
+
+  /**
+   * Visit the entries of the {@link java.util.HashMap} object at the given row and column in place, without
+   * de-serializing the map.
+   */
+  public void visitHashMapEntries(int rowId, int colId, @Nonnull ObjectCustomSerDe.HashMapEntryVisitor visitor) {
+    try {
+      ObjectCustomSerDe.visitHashMapEntries(getObjectBuffer(getPosition(rowId, colId)), OBJECT_ENCODING_VERSION,
+          visitor);
+    } catch (IOException e) {
+      throw new RuntimeException("Caught exception while de-serializing object.", e);
+    }
+  }
+
+  /**
+   * Returns a buffer over the serialized object referenced from the given position of the fixed size data, without
+   * the object type.
+   */
+  private ByteBuffer getObjectBuffer(int position) {
+    int variableSizeDataPosition = _fixedSizeData.getInt(position);
+    int size = _fixedSizeData.getInt(position + INT_SIZE);
+    ByteBuffer objectBuffer = _variableSizeData.duplicate();
+    objectBuffer.position(variableSizeDataPosition + INT_SIZE);
+    objectBuffer = objectBuffer.slice();
+    objectBuffer.limit(size);
+    return objectBuffer;
+  }
+
+  @Nonnull
+  @Override
+  public byte[] getByteArray(int rowId, int colId) {
+    int position = getPosition(rowId, colId);
+    int variableSizeDataPosition = _fixedSizeData.getInt(position);
+    byte[] bytes = new byte[_fixedSizeData.getInt(position + INT_SIZE)];
+    ByteBuffer variableSizeData = _variableSizeData.duplicate();
+    variableSizeData.position(variableSizeDataPosition);
+    variableSizeData.get(bytes);
+    return bytes;
+  }
+
+  @Nonnull
+  @Override
+  public char[] getCharArray(int rowId, int colId) {
+    int position = getPosition(rowId, colId);
+    int variableSizeDataPosition = _fixedSizeData.getInt(position);
+    char[] chars = new char[_fixedSizeData.getInt(position + INT_SIZE)];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = _variableSizeData.getChar(variableSizeDataPosition);
+      variableSizeDataPosition += 2;
+    }
+    return chars;
+  }
+
+  @Nonnull
+  @Override
+  public short[] getShortArray(int rowId, int colId) {
+    int position = getPosition(rowId, colId);
+    int variableSizeDataPosition = _fixedSizeData.getInt(position);
+    short[] shorts = new short[_fixedSizeData.getInt(position + INT_SIZE)];
+    for (int i = 0; i < shorts.length; i++) {
+      shorts[i] = _variableSizeData.getShort(variableSizeDataPosition);
+      variableSizeDataPosition += 2;
+    }
+    return shorts;
+  }
+
+  @Nonnull
+  @Override
+  public int[] getIntArray(int rowId, int colId) {
+    int position = getPosition(rowId, colId);
+    int variableSizeDataPosition = _fixedSizeData.getInt(position);
+    int[] ints = new int[_fixedSizeData.getInt(position + INT_SIZE)];
+    for (int i = 0; i < ints.length; i++) {
+      ints[i] = _variableSizeData.getInt(variableSizeDataPosition);
+      variableSizeDataPosition += 4;
+    }
+    return ints;
+  }
+
+  @Nonnull
+  @Override
+  public long[] getLongArray(int rowId, int colId) {
+    int position = getPosition(rowId, colId);
+    int variableSizeDataPosition = _fixedSizeData.getInt(position);
+    long[] longs = new long[_fixedSizeData.getInt(position + INT_SIZE)];
+    for (int i = 0; i < longs.length; i++) {
+      longs[i] = _variableSizeData.getLong(variableSizeDataPosition);
+      variableSizeDataPosition += 8;
+    }
+    return longs;
+  }
+
+  @Nonnull
+  @Override
+  public float[] getFloatArray(int rowId, int colId) {
+    int position = getPosition(rowId, colId);
+    int variableSizeDataPosition = _fixedSizeData.getInt(position);
+    float[] floats = new float[_fixedSizeData.getInt(position + INT_SIZE)];
+    for (int i = 0; i < floats.length; i++) {
+      floats[i] = _variableSizeData.getFloat(variableSizeDataPosition);
+      variableSizeDataPosition += 4;
+    }
+    return floats;
+  }
+
+  @Nonnull
+  @Override
+  public double[] getDoubleArray(int rowId, int colId) {
+    int position = getPosition(rowId, colId);
+    int variableSizeDataPosition = _fixedSizeData.getInt(position);
+    double[] doubles = new double[_fixedSizeData.getInt(position + INT_SIZE)];
+    for (int i = 0; i < doubles.length; i++) {
+      doubles[i] = _variableSizeData.getDouble(variableSizeDataPosition);
+      variableSizeDataPosition += 8;
+    }
+    return doubles;
+  }
+
+  @Nonnull
+  @Override
+  public String[] getStringArray(int rowId, int colId) {
+    int position = getPosition(rowId, colId);
+    int variableSizeDataPosition = _fixedSizeData.getInt(position);
+    String[] strings = new String[_fixedSizeData.getInt(position + INT_SIZE)];
+    String[] dictionary = _columnDictionaries[colId];
+    for (int i = 0; i < strings.length; i++) {
+      strings[i] = dictionary[_variableSizeData.getInt(variableSizeDataPosition)];
+      variableSizeDataPosition += 4;
+    }
+    return strings;
+  }
+
+  private int getPosition(int rowId, int colId) {
+    return _columnStarts[colId] + rowId * _columnSizes[colId];
+  }
+
+  @Override
+  public String toString() {
+    if (_dataSchema == null) {
+      return _metadata.toString();
+    }
+
+    StringBuilder stringBuilder = new StringBuilder();
+    stringBuilder.append(_dataSchema.toString()).append('\n');
+    stringBuilder.append("numRows: ").append(_numRows).append('\n');
+
+    for (int rowId = 0; rowId < _numRows; rowId++) {
+      for (int colId = 0; colId < _numColumns; colId++) {
+        int position = getPosition(rowId, colId);
+        switch (_dataSchema.getColumnType(colId)) {
+          case BOOLEAN:
+          case BYTE:
+            stringBuilder.append(_fixedSizeData.get(position));
+            break;
+          case CHAR:
+            stringBuilder.append(_fixedSizeData.getChar(position));
+            break;
+          case SHORT:
+            stringBuilder.append(_fixedSizeData.getShort(position));
+            break;
+          case INT:
+          case STRING:
+            stringBuilder.append(_fixedSizeData.getInt(position));
+            break;
+          case LONG:
+            stringBuilder.append(_fixedSizeData.getLong(position));
+            break;
+          case FLOAT:
+            stringBuilder.append(_fixedSizeData.getFloat(position));
+            break;
+          case DOUBLE:
+            stringBuilder.append(_fixedSizeData.getDouble(position));
+            break;
+          // Object and array.
+          default:
+            stringBuilder.append(String.format("(%s:%s)", _fixedSizeData.getInt(position),
+                _fixedSizeData.getInt(position + INT_SIZE)));
+            break;
+        }
+        stringBuilder.append("\t");
+      }
+      stringBuilder.append("\n");
+    }
+    return stringBuilder.toString();
+  }
+}
@@ -16,10 +16,13 @@
 package com.linkedin.pinot.core.common.datatable;
 
 import com.clearspring.analytics.stream.cardinality.HyperLogLog;
+import com.clearspring.analytics.stream.cardinality.RegisterSet;
+import com.google.common.base.Preconditions;
 import com.linkedin.pinot.core.operator.aggregation.function.customobject.AvgPair;
 import com.linkedin.pinot.core.operator.aggregation.function.customobject.MinMaxRangePair;
 import com.linkedin.pinot.core.operator.aggregation.function.customobject.QuantileDigest;
 import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import com.linkedin.pinot.core.util.VarIntUtils;
 import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 import it.unimi.dsi.fastutil.ints.IntIterator;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
@@ -30,6 +33,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import javax.annotation.Nonnull;
@@ -44,6 +48,23 @@ public class ObjectCustomSerDe {
 
   private static final Charset UTF_8 = Charset.forName("UTF-8");
 
+  // Original encoding with fixed width sizes and values, used by data table version 2.
+  public static final int ENCODING_VERSION_1 = 1;
+  // Compact encoding with variable length sizes, sorted delta encoded sets, sparse hyper log log registers and compact
+  // quantile digests, used by data table version 3.
+  public static final int ENCODING_VERSION_2 = 2;
+
+  private static final byte DENSE_REGISTERS = 0;
+  private static final byte SPARSE_REGISTERS = 1;
+
+  /**
+   * Visitor for the entries of a serialized {@link HashMap}, used to merge the entries into another map without
+   * materializing the de-serialized map.
+   */
+  public interface HashMapEntryVisitor {
+    void visit(@Nonnull Object key, @Nonnull Object value);
+  }
+
   /**
    * Given an object, serialize it into a byte array.
    */
@@ -109,6 +130,81 @@ public class ObjectCustomSerDe {
     }
   }
 
+  /**
+   * Given an object and the encoding version, serialize it into a byte array.
+   */
+  @Nonnull
+  public static byte[] serialize(@Nonnull Object object, int encodingVersion)
+      throws IOException {
+    if (encodingVersion == ENCODING_VERSION_1) {
+      return serialize(object);
+    }
+    Preconditions.checkArgument(encodingVersion == ENCODING_VERSION_2, "Unsupported encoding version: %s",
+        encodingVersion);
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    serializeCompact(object, new DataOutputStream(byteArrayOutputStream));
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  /**
+   * Given a byte array, the object type and the encoding version, de-serialize the byte array into an object.
+   */
+  @Nonnull
+  public static <T> T deserialize(@Nonnull byte[] bytes, @Nonnull ObjectType objectType, int encodingVersion)
+      throws IOException {
+    if (encodingVersion == ENCODING_VERSION_1) {
+      return deserialize(bytes, objectType);
+    }
+    return deserialize(ByteBuffer.wrap(bytes), objectType, encodingVersion);
+  }
+
+  /**
+   * Given a byte buffer, the object type and the encoding version, de-serialize the remaining bytes of the byte buffer
+   * into an object.
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  public static <T> T deserialize(@Nonnull ByteBuffer byteBuffer, @Nonnull ObjectType objectType, int encodingVersion)
+      throws IOException {
+    if (encodingVersion == ENCODING_VERSION_1) {
+      byte[] bytes = new byte[byteBuffer.remaining()];
+      byteBuffer.get(bytes);
+      return deserialize(bytes, objectType);
+    }
+    Preconditions.checkArgument(encodingVersion == ENCODING_VERSION_2, "Unsupported encoding version: %s",
+        encodingVersion);
+    return (T) deserializeCompact(byteBuffer, objectType, byteBuffer.remaining());
+  }
+
+  /**
+   * Given a byte buffer holding a serialized {@link HashMap} and the encoding version, visit the entries of the map
+   * one by one without building the map.
+   */
+  public static void visitHashMapEntries(@Nonnull ByteBuffer byteBuffer, int encodingVersion,
+      @Nonnull HashMapEntryVisitor visitor)
+      throws IOException {
+    if (encodingVersion == ENCODING_VERSION_1) {
+      HashMap<Object, Object> hashMap = deserialize(byteBuffer, ObjectType.HashMap, encodingVersion);
+      for (Map.Entry<Object, Object> entry : hashMap.entrySet()) {
+        visitor.visit(entry.getKey(), entry.getValue());
+      }
+      return;
+    }
+    Preconditions.checkArgument(encodingVersion == ENCODING_VERSION_2, "Unsupported encoding version: %s",
+        encodingVersion);
+    int size = VarIntUtils.readUnsignedVarInt(byteBuffer);
+    if (size == 0) {
+      return;
+    }
+    ObjectType keyType = ObjectType.getObjectType(byteBuffer.get());
+    ObjectType valueType = ObjectType.getObjectType(byteBuffer.get());
+    for (int i = 0; i < size; i++) {
+      Object key = deserializeCompactElement(byteBuffer, keyType);
+      Object value = deserializeCompactElement(byteBuffer, valueType);
+      visitor.visit(key, value);
+    }
+  }
+
   /**
    * Given an object, get its {@link ObjectType}.
    */
@@ -306,4 +402,235 @@ public class ObjectCustomSerDe {
 
     return intOpenHashSet;
   }
+
+  /**
+   * Helper method to serialize an object with the compact encoding.
+   */
+  @SuppressWarnings("unchecked")
+  private static void serializeCompact(Object object, DataOutputStream dataOutputStream)
+      throws IOException {
+    if (object instanceof Long) {
+      VarIntUtils.writeVarLong(dataOutputStream, (Long) object);
+    } else if (object instanceof DoubleArrayList) {
+      DoubleArrayList doubleArray = (DoubleArrayList) object;
+      int size = doubleArray.size();
+      VarIntUtils.writeUnsignedVarInt(dataOutputStream, size);
+      double[] elements = doubleArray.elements();
+      for (int i = 0; i < size; i++) {
+        dataOutputStream.writeDouble(elements[i]);
+      }
+    } else if (object instanceof HyperLogLog) {
+      serializeCompactHyperLogLog((HyperLogLog) object, dataOutputStream);
+    } else if (object instanceof QuantileDigest) {
+      ((QuantileDigest) object).serializeCompact(dataOutputStream);
+    } else if (object instanceof HashMap) {
+      serializeCompactHashMap((HashMap<Object, Object>) object, dataOutputStream);
+    } else if (object instanceof IntOpenHashSet) {
+      serializeCompactIntOpenHashSet((IntOpenHashSet) object, dataOutputStream);
+    } else {
+      // String, Double, AvgPair and MinMaxRangePair have no more compact form.
+      dataOutputStream.write(serialize(object));
+    }
+  }
+
+  /**
+   * Helper method to de-serialize an object of the given size in bytes with the compact encoding.
+   */
+  private static Object deserializeCompact(ByteBuffer byteBuffer, ObjectType objectType, int numBytes)
+      throws IOException {
+    switch (objectType) {
+      case String:
+        byte[] stringBytes = new byte[numBytes];
+        byteBuffer.get(stringBytes);
+        return new String(stringBytes, UTF_8);
+      case Long:
+        return VarIntUtils.readVarLong(byteBuffer);
+      case Double:
+        return byteBuffer.getDouble();
+      case DoubleArrayList:
+        int size = VarIntUtils.readUnsignedVarInt(byteBuffer);
+        DoubleArrayList doubleArray = new DoubleArrayList(size);
+        for (int i = 0; i < size; i++) {
+          doubleArray.add(byteBuffer.getDouble());
+        }
+        return doubleArray;
+      case AvgPair:
+        return new AvgPair(byteBuffer.getDouble(), byteBuffer.getLong());
+      case MinMaxRangePair:
+        return new MinMaxRangePair(byteBuffer.getDouble(), byteBuffer.getDouble());
+      case HyperLogLog:
+        return deserializeCompactHyperLogLog(byteBuffer);
+      case QuantileDigest:
+        return QuantileDigest.deserializeCompact(byteBuffer);
+      case HashMap:
+        final HashMap<Object, Object> hashMap = new HashMap<>();
+        visitHashMapEntries(byteBuffer, ENCODING_VERSION_2, new HashMapEntryVisitor() {
+          @Override
+          public void visit(@Nonnull Object key, @Nonnull Object value) {
+            hashMap.put(key, value);
+          }
+        });
+        return hashMap;
+      case IntOpenHashSet:
+        return deserializeCompactIntOpenHashSet(byteBuffer);
+      default:
+        throw new IllegalArgumentException("Illegal object type for de-serialization: " + objectType);
+    }
+  }
+
+  /**
+   * Helper method to serialize a key or value of a {@link HashMap} with the compact encoding. Values of fixed or self
+   * delimited size are written as is, others are prefixed with their size.
+   */
+  private static void serializeCompactElement(Object object, DataOutputStream dataOutputStream)
+      throws IOException {
+    if (object instanceof Long || object instanceof Double || object instanceof AvgPair
+        || object instanceof MinMaxRangePair) {
+      serializeCompact(object, dataOutputStream);
+    } else {
+      byte[] bytes = serialize(object, ENCODING_VERSION_2);
+      VarIntUtils.writeUnsignedVarInt(dataOutputStream, bytes.length);
+      dataOutputStream.write(bytes);
+    }
+  }
+
+  /**
+   * Helper method to de-serialize a key or value of a {@link HashMap} with the compact encoding.
+   */
+  private static Object deserializeCompactElement(ByteBuffer byteBuffer, ObjectType objectType)
+      throws IOException {
+    switch (objectType) {
+      case Long:
+      case Double:
+      case AvgPair:
+      case MinMaxRangePair:
+        return deserializeCompact(byteBuffer, objectType, 0);
+      default:
+        int numBytes = VarIntUtils.readUnsignedVarInt(byteBuffer);
+        ByteBuffer elementBuffer = byteBuffer.slice();
+        elementBuffer.limit(numBytes);
+        byteBuffer.position(byteBuffer.position() + numBytes);
+        return deserializeCompact(elementBuffer, objectType, numBytes);
+    }
+  }
+
+  /**
+   * Helper method to serialize a {@link HashMap} with the compact encoding.
+   */
+  private static void serializeCompactHashMap(HashMap<Object, Object> map, DataOutputStream dataOutputStream)
+      throws IOException {
+    VarIntUtils.writeUnsignedVarInt(dataOutputStream, map.size());
+    boolean first = true;
+    for (Map.Entry<Object, Object> entry : map.entrySet()) {
+      // Write the key and value type before writing the first key-value pair.
+      if (first) {
+        dataOutputStream.writeByte(getObjectType(entry.getKey()).getValue());
+        dataOutputStream.writeByte(getObjectType(entry.getValue()).getValue());
+        first = false;
+      }
+      serializeCompactElement(entry.getKey(), dataOutputStream);
+      serializeCompactElement(entry.getValue(), dataOutputStream);
+    }
+  }
+
+  /**
+   * Helper method to serialize a {@link HyperLogLog} with the compact encoding: log2m, then either all the register
+   * words, or only the non-zero ones with their index gap when most of the registers are still empty.
+   */
+  private static void serializeCompactHyperLogLog(HyperLogLog hyperLogLog, DataOutputStream dataOutputStream)
+      throws IOException {
+    // The original encoding holds log2m, the size of the registers in bytes, then the register words.
+    ByteBuffer byteBuffer = ByteBuffer.wrap(hyperLogLog.getBytes());
+    int log2m = byteBuffer.getInt();
+    int numWords = byteBuffer.getInt() / V1Constants.Numbers.INTEGER_SIZE;
+    int[] words = new int[numWords];
+    int numNonZeroWords = 0;
+    for (int i = 0; i < numWords; i++) {
+      int word = byteBuffer.getInt();
+      words[i] = word;
+      if (word != 0) {
+        numNonZeroWords++;
+      }
+    }
+
+    dataOutputStream.writeByte(log2m);
+    // Sparse words take up to 5 bytes for the word and the index gap.
+    if (numNonZeroWords * 5 < numWords * V1Constants.Numbers.INTEGER_SIZE) {
+      dataOutputStream.writeByte(SPARSE_REGISTERS);
+      VarIntUtils.writeUnsignedVarInt(dataOutputStream, numNonZeroWords);
+      int previousIndex = 0;
+      for (int i = 0; i < numWords; i++) {
+        if (words[i] != 0) {
+          VarIntUtils.writeUnsignedVarInt(dataOutputStream, i - previousIndex);
+          dataOutputStream.writeInt(words[i]);
+          previousIndex = i;
+        }
+      }
+    } else {
+      dataOutputStream.writeByte(DENSE_REGISTERS);
+      for (int word : words) {
+        dataOutputStream.writeInt(word);
+      }
+    }
+  }
+
+  /**
+   * Helper method to de-serialize a {@link HyperLogLog} with the compact encoding.
+   */
+  private static HyperLogLog deserializeCompactHyperLogLog(ByteBuffer byteBuffer) {
+    int log2m = byteBuffer.get();
+    int count = 1 << log2m;
+    int[] words = new int[RegisterSet.getSizeForCount(count)];
+    if (byteBuffer.get() == SPARSE_REGISTERS) {
+      int numNonZeroWords = VarIntUtils.readUnsignedVarInt(byteBuffer);
+      int index = 0;
+      for (int i = 0; i < numNonZeroWords; i++) {
+        index += VarIntUtils.readUnsignedVarInt(byteBuffer);
+        words[index] = byteBuffer.getInt();
+      }
+    } else {
+      for (int i = 0; i < words.length; i++) {
+        words[i] = byteBuffer.getInt();
+      }
+    }
+    return new HyperLogLog(log2m, new RegisterSet(count, words));
+  }
+
+  /**
+   * Helper method to serialize an {@link IntOpenHashSet} with the compact encoding: the values are sorted, then the
+   * smallest value and the gaps between consecutive values are written as variable length longs.
+   */
+  private static void serializeCompactIntOpenHashSet(IntOpenHashSet intOpenHashSet,
+      DataOutputStream dataOutputStream)
+      throws IOException {
+    int size = intOpenHashSet.size();
+    VarIntUtils.writeUnsignedVarInt(dataOutputStream, size);
+    if (size == 0) {
+      return;
+    }
+    int[] values = intOpenHashSet.toIntArray();
+    Arrays.sort(values);
+    VarIntUtils.writeVarLong(dataOutputStream, values[0]);
+    for (int i = 1; i < size; i++) {
+      VarIntUtils.writeUnsignedVarLong(dataOutputStream, (long) values[i] - values[i - 1]);
+    }
+  }
+
+  /**
+   * Helper method to de-serialize an {@link IntOpenHashSet} with the compact encoding.
+   */
+  private static IntOpenHashSet deserializeCompactIntOpenHashSet(ByteBuffer byteBuffer) {
+    int size = VarIntUtils.readUnsignedVarInt(byteBuffer);
+    IntOpenHashSet intOpenHashSet = new IntOpenHashSet(size);
+    if (size == 0) {
+      return intOpenHashSet;
+    }
+    long value = VarIntUtils.readVarLong(byteBuffer);
+    intOpenHashSet.add((int) value);
+    for (int i = 1; i < size; i++) {
+      value += VarIntUtils.readUnsignedVarLong(byteBuffer);
+      intOpenHashSet.add((int) value);
+    }
+    return intOpenHashSet;
+  }
 }
@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.data;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+
+
+/**
+ * Columnar batch of rows, indexed together by a realtime segment.
+ * <p>There is one column per field of the schema, in the order of {@link Schema#getAllFieldSpecs()}. Single-value
+ * columns of type INT, LONG, FLOAT and DOUBLE are stored in primitive arrays, the other columns (STRING and BOOLEAN
+ * single-value columns, and all the multi-value columns as <code>Object[]</code>) in object arrays. Values are
+ * never null.
+ * <p>A batch is filled by one thread before being handed over to the indexing thread, it is not thread safe.
+ */
+public class RowBatch {
+  private final Schema _schema;
+  private final FieldSpec[] _fieldSpecs;
+  // Primitive type of each column stored in a primitive array, null for the columns stored in an object array
+  private final FieldSpec.DataType[] _primitiveTypes;
+  private final Object[] _columnValues;
+  private final int _capacity;
+  private int _numRows = 0;
+
+  public RowBatch(Schema schema, int capacity) {
+    _schema = schema;
+    _capacity = capacity;
+    _fieldSpecs = schema.getAllFieldSpecs().toArray(new FieldSpec[schema.size()]);
+    int numColumns = _fieldSpecs.length;
+    _primitiveTypes = new FieldSpec.DataType[numColumns];
+    _columnValues = new Object[numColumns];
+    for (int i = 0; i < numColumns; i++) {
+      FieldSpec fieldSpec = _fieldSpecs[i];
+      FieldSpec.DataType primitiveType = fieldSpec.isSingleValueField() ? fieldSpec.getDataType() : null;
+      if (primitiveType == null) {
+        _columnValues[i] = new Object[capacity];
+        continue;
+      }
+      switch (primitiveType) {
+        case INT:
+          _columnValues[i] = new int[capacity];
+          break;
+        case LONG:
+          _columnValues[i] = new long[capacity];
+          break;
+        case FLOAT:
+          _columnValues[i] = new float[capacity];
+          break;
+        case DOUBLE:
+          _columnValues[i] = new double[capacity];
+          break;
+        default:
+          primitiveType = null;
+          _columnValues[i] = new Object[capacity];
+          break;
+      }
+      _primitiveTypes[i] = primitiveType;
+    }
+  }
+
+  public Schema getSchema() {
+    return _schema;
+  }
+
+  public int getNumColumns() {
+    return _fieldSpecs.length;
+  }
+
+  public FieldSpec getFieldSpec(int columnIndex) {
+    return _fieldSpecs[columnIndex];
+  }
+
+  /**
+   * Returns the type of the primitive array storing the given column, or null if the column is stored in an object
+   * array.
+   */
+  public FieldSpec.DataType getPrimitiveType(int columnIndex) {
+    return _primitiveTypes[columnIndex];
+  }
+
+  public int[] getIntValues(int columnIndex) {
+    return (int[]) _columnValues[columnIndex];
+  }
+
+  public long[] getLongValues(int columnIndex) {
+    return (long[]) _columnValues[columnIndex];
+  }
+
+  public float[] getFloatValues(int columnIndex) {
+    return (float[]) _columnValues[columnIndex];
+  }
+
+  public double[] getDoubleValues(int columnIndex) {
+    return (double[]) _columnValues[columnIndex];
+  }
+
+  public Object[] getObjectValues(int columnIndex) {
+    return (Object[]) _columnValues[columnIndex];
+  }
+
+  public int getCapacity() {
+    return _capacity;
+  }
+
+  public int size() {
+    return _numRows;
+  }
+
+  public boolean isFull() {
+    return _numRows == _capacity;
+  }
+
+  /**
+   * Appends a row with the values of the given row, which must already be converted to the schema (e.g. by a field
+   * extractor).
+   *
+   * @return Whether the row was appended, false if a value is missing in the row
+   */
+  public boolean addRow(GenericRow row) {
+    Preconditions.checkState(_numRows < _capacity, "Row batch is full");
+    int numColumns = _fieldSpecs.length;
+    for (int i = 0; i < numColumns; i++) {
+      if (row.getValue(_fieldSpecs[i].getName()) == null) {
+        return false;
+      }
+    }
+
+    int rowId = _numRows;
+    for (int i = 0; i < numColumns; i++) {
+      Object value = row.getValue(_fieldSpecs[i].getName());
+      FieldSpec.DataType primitiveType = _primitiveTypes[i];
+      if (primitiveType == null) {
+        ((Object[]) _columnValues[i])[rowId] = value;
+        continue;
+      }
+      switch (primitiveType) {
+        case INT:
+          ((int[]) _columnValues[i])[rowId] =
+              value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(value.toString());
+          break;
+        case LONG:
+          ((long[]) _columnValues[i])[rowId] =
+              value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString());
+          break;
+        case FLOAT:
+          ((float[]) _columnValues[i])[rowId] =
+              value instanceof Number ? ((Number) value).floatValue() : Float.parseFloat(value.toString());
+          break;
+        case DOUBLE:
+          ((double[]) _columnValues[i])[rowId] =
+              value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString());
+          break;
+        default:
+          throw new IllegalStateException("Unsupported primitive type: " + primitiveType);
+      }
+    }
+    _numRows++;
+    return true;
+  }
+
+  /**
+   * Drops the rows after the first given number of rows.
+   */
+  public void truncate(int numRows) {
+    Preconditions.checkArgument(numRows >= 0 && numRows <= _numRows, "Cannot truncate %s rows to %s", _numRows,
+        numRows);
+    _numRows = numRows;
+  }
+
+  /**
+   * Drops all the rows, so that the batch can be reused.
+   */
+  public void clear() {
+    _numRows = 0;
+  }
+}
@@ -92,6 +92,17 @@ public class TableDataManagerConfig {
     if (_instanceDataManagerConfig.isEnableDefaultColumns()) {
       defaultConfig.addProperty(IndexLoadingConfigMetadata.KEY_OF_ENABLE_DEFAULT_COLUMNS, true);
     }
+    Configuration instanceConfig = _instanceDataManagerConfig.getConfig();
+    if (instanceConfig != null
+        && instanceConfig.containsKey(IndexLoadingConfigMetadata.KEY_OF_FILTER_BITMAP_CACHE_MAX_SIZE_IN_BYTES)) {
+      defaultConfig.addProperty(IndexLoadingConfigMetadata.KEY_OF_FILTER_BITMAP_CACHE_MAX_SIZE_IN_BYTES,
+          instanceConfig.getLong(IndexLoadingConfigMetadata.KEY_OF_FILTER_BITMAP_CACHE_MAX_SIZE_IN_BYTES));
+    }
+    if (instanceConfig != null
+        && instanceConfig.containsKey(IndexLoadingConfigMetadata.KEY_OF_REALTIME_DIRECT_MEMORY_MAX_SIZE_IN_BYTES)) {
+      defaultConfig.addProperty(IndexLoadingConfigMetadata.KEY_OF_REALTIME_DIRECT_MEMORY_MAX_SIZE_IN_BYTES,
+          instanceConfig.getLong(IndexLoadingConfigMetadata.KEY_OF_REALTIME_DIRECT_MEMORY_MAX_SIZE_IN_BYTES));
+    }
     defaultConfig.addProperty(TABLE_DATA_MANAGER_NUM_QUERY_EXECUTOR_THREADS, 20);
     TableDataManagerConfig tableDataManagerConfig = new TableDataManagerConfig(defaultConfig);
 
@@ -115,6 +126,10 @@ public class TableDataManagerConfig {
     _tableDataManagerConfig.setProperty(TABLE_DATA_MANAGER_NAME, tableConfig.getTableName());
     _tableDataManagerConfig.setProperty(IndexLoadingConfigMetadata.getKeyOfLoadingInvertedIndex(),
         indexingConfig.getInvertedIndexColumns());
+    _tableDataManagerConfig.setProperty(IndexLoadingConfigMetadata.KEY_OF_LOADING_BLOOM_FILTER,
+        indexingConfig.getBloomFilterColumns());
+    _tableDataManagerConfig.setProperty(IndexLoadingConfigMetadata.KEY_OF_LOADING_RANGE_INDEX,
+        indexingConfig.getRangeIndexColumns());
     _tableDataManagerConfig.setProperty(IndexLoadingConfigMetadata.KEY_OF_STAR_TREE_FORMAT_VERSION,
         indexingConfig.getStarTreeFormat());
     String segmentVersionKey = IndexLoadingConfigMetadata.KEY_OF_SEGMENT_FORMAT_VERSION;
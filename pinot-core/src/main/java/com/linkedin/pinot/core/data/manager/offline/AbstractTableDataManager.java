@@ -36,6 +36,8 @@ import com.linkedin.pinot.common.segment.ReadMode;
 import com.linkedin.pinot.common.utils.NamedThreadFactory;
 import com.linkedin.pinot.core.data.manager.config.TableDataManagerConfig;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.query.cache.FilterBitmapCache;
+import com.linkedin.pinot.core.segment.index.IndexSegmentImpl;
 import javax.annotation.Nonnull;
 
 
@@ -142,6 +144,13 @@ public abstract  class AbstractTableDataManager implements TableDataManager {
   public void addSegment(final IndexSegment indexSegmentToAdd) {
     final String segmentName = indexSegmentToAdd.getSegmentName();
     LOGGER.info("Trying to add a new segment {} of table {} with OfflineSegmentDataManager", segmentName, _tableName);
+    if (_indexLoadingConfigMetadata != null && indexSegmentToAdd instanceof IndexSegmentImpl) {
+      long filterBitmapCacheMaxSizeInBytes = _indexLoadingConfigMetadata.getFilterBitmapCacheMaxSizeInBytes();
+      if (filterBitmapCacheMaxSizeInBytes > 0) {
+        ((IndexSegmentImpl) indexSegmentToAdd).setFilterBitmapCache(
+            new FilterBitmapCache(filterBitmapCacheMaxSizeInBytes, _tableName, _serverMetrics));
+      }
+    }
     OfflineSegmentDataManager newSegmentManager = new OfflineSegmentDataManager(indexSegmentToAdd);
     final int newNumDocs = indexSegmentToAdd.getSegmentMetadata().getTotalRawDocs();
     SegmentDataManager oldSegmentManager;
@@ -19,9 +19,14 @@ package com.linkedin.pinot.core.data.manager.realtime;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
@@ -47,11 +52,13 @@ import com.linkedin.pinot.common.utils.LLCSegmentName;
 import com.linkedin.pinot.common.utils.NetUtil;
 import com.linkedin.pinot.common.utils.TarGzCompressionUtils;
 import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.RowBatch;
 import com.linkedin.pinot.core.data.extractors.FieldExtractorFactory;
 import com.linkedin.pinot.core.data.extractors.PlainFieldExtractor;
 import com.linkedin.pinot.core.data.manager.offline.SegmentDataManager;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.io.readerwriter.RealtimeIndexOffHeapMemoryManager;
 import com.linkedin.pinot.core.realtime.converter.RealtimeSegmentConverter;
 import com.linkedin.pinot.core.realtime.impl.RealtimeSegmentImpl;
 import com.linkedin.pinot.core.realtime.impl.kafka.KafkaLowLevelStreamProviderConfig;
@@ -159,6 +166,10 @@ public class LLRealtimeSegmentDataManager extends SegmentDataManager {
   final String _clientId;
   private final LLCSegmentName _segmentName;
   private final PlainFieldExtractor _fieldExtractor;
+  // Decodes messages on a pool of worker threads, null to decode on the consuming thread
+  private final PipelinedMessageDecoder _pipelinedDecoder;
+  // Prefetches the next batch of messages with the pipelined decoder, null otherwise
+  private final MessagePrefetcher<Pair<Iterable<MessageAndOffset>, Long>> _messagePrefetcher;
   private SimpleConsumerWrapper _consumerWrapper = null;
   private final File _resourceTmpDir;
   private final String _tableName;
@@ -251,19 +262,38 @@ public class LLRealtimeSegmentDataManager extends SegmentDataManager {
   }
 
   protected boolean consumeLoop() throws Exception {
-    _fieldExtractor.resetCounters();
+    for (PlainFieldExtractor fieldExtractor : getFieldExtractors()) {
+      fieldExtractor.resetCounters();
+    }
 
     final long _endOffset = Long.MAX_VALUE; // No upper limit on Kafka offset
     segmentLogger.info("Starting consumption loop start offset {}, finalOffset {}", _currentOffset, _finalOffset);
+    try {
+      consumeMessages(_endOffset);
+    } finally {
+      // The consumer wrapper must not be in use by a prefetch once we stop consuming
+      if (_messagePrefetcher != null) {
+        _messagePrefetcher.discard();
+      }
+    }
+
+    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_WITH_ERRORS, (long) getTotalErrors());
+    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_NEEDING_CONVERSIONS,
+        (long) getTotalConversions());
+    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_WITH_NULL_VALUES, (long) getTotalNulls());
+    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.COLUMNS_WITH_NULL_VALUES,
+        (long) getTotalNullCols());
+    return true;
+  }
+
+  private void consumeMessages(final long _endOffset) throws Exception {
     while(!_shouldStop && !endCriteriaReached()) {
       // Consume for the next _kafkaReadTime ms, or we get to final offset, whichever happens earlier,
       // Update _currentOffset upon return from this method
       Iterable<MessageAndOffset> messagesAndOffsets = null;
       Long highWatermark = null;
       try {
-        Pair<Iterable<MessageAndOffset>, Long> messagesAndWatermark =
-            _consumerWrapper.fetchMessagesAndHighWatermark(_currentOffset, _endOffset,
-                _kafkaStreamMetadata.getKafkaFetchTimeoutMillis());
+        Pair<Iterable<MessageAndOffset>, Long> messagesAndWatermark = fetchMessagesAndHighWatermark(_endOffset);
         consecutiveErrorCount = 0;
         messagesAndOffsets = messagesAndWatermark.getLeft();
         highWatermark = messagesAndWatermark.getRight();
@@ -283,18 +313,38 @@ public class LLRealtimeSegmentDataManager extends SegmentDataManager {
         continue;
       }
 
-      processKafkaEvents(messagesAndOffsets, highWatermark);
+      if (_pipelinedDecoder != null) {
+        processKafkaEventsPipelined(messagesAndOffsets, highWatermark, _endOffset);
+      } else {
+        processKafkaEvents(messagesAndOffsets, highWatermark);
+      }
     }
+  }
 
-    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_WITH_ERRORS,
-        (long) _fieldExtractor.getTotalErrors());
-    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_NEEDING_CONVERSIONS,
-        (long) _fieldExtractor.getTotalConversions());
-    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_WITH_NULL_VALUES,
-        (long) _fieldExtractor.getTotalNulls());
-    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.COLUMNS_WITH_NULL_VALUES,
-        (long) _fieldExtractor.getTotalNullCols());
-    return true;
+  /**
+   * Fetches the messages from the current offset, or returns the messages prefetched while indexing the previous
+   * batch.
+   */
+  private Pair<Iterable<MessageAndOffset>, Long> fetchMessagesAndHighWatermark(long endOffset) throws Exception {
+    if (_messagePrefetcher != null) {
+      Pair<Iterable<MessageAndOffset>, Long> prefetchedMessages = _messagePrefetcher.take(_currentOffset);
+      if (prefetchedMessages != null) {
+        return prefetchedMessages;
+      }
+    }
+    return _consumerWrapper.fetchMessagesAndHighWatermark(_currentOffset, endOffset,
+        _kafkaStreamMetadata.getKafkaFetchTimeoutMillis());
+  }
+
+  private void prefetchMessages(final long startOffset, final long endOffset) {
+    final SimpleConsumerWrapper consumerWrapper = _consumerWrapper;
+    _messagePrefetcher.prefetch(startOffset, new Callable<Pair<Iterable<MessageAndOffset>, Long>>() {
+      @Override
+      public Pair<Iterable<MessageAndOffset>, Long> call() throws Exception {
+        return consumerWrapper.fetchMessagesAndHighWatermark(startOffset, endOffset,
+            _kafkaStreamMetadata.getKafkaFetchTimeoutMillis());
+      }
+    });
   }
 
   private void processKafkaEvents(Iterable<MessageAndOffset> messagesAndOffsets, Long highWatermark) {
@@ -371,6 +421,106 @@ public class LLRealtimeSegmentDataManager extends SegmentDataManager {
     }
   }
 
+  /**
+   * Indexes the messages decoded by the pipelined decoder. Slices of messages are decoded into row batches on the
+   * worker threads and indexed in offset order on this thread, while the next batch of messages is prefetched.
+   */
+  private void processKafkaEventsPipelined(Iterable<MessageAndOffset> messagesAndOffsets, Long highWatermark,
+      long endOffset) throws Exception {
+    List<MessageAndOffset> messages = new ArrayList<>();
+    for (MessageAndOffset messageAndOffset : messagesAndOffsets) {
+      messages.add(messageAndOffset);
+    }
+    int numMessages = messages.size();
+    if (numMessages == 0) {
+      updateCurrentDocumentCountMetrics();
+      // If there were no messages to be fetched from Kafka, wait for a little bit as to avoid hammering the
+      // Kafka broker
+      Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+      return;
+    }
+    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_FETCHED, numMessages);
+    _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.KAFKA_PARTITION_OFFSET_LAG,
+        highWatermark - messages.get(0).offset());
+
+    List<Future<PipelinedMessageDecoder.DecodedSlice>> slices = _pipelinedDecoder.decode(messages);
+    long nextOffset = messages.get(numMessages - 1).nextOffset();
+    if (nextOffset < highWatermark) {
+      prefetchMessages(nextOffset, endOffset);
+    }
+
+    int indexedMessageCount = 0;
+    int kafkaMessageCount = 0;
+    boolean canTakeMore = true;
+    Iterator<Future<PipelinedMessageDecoder.DecodedSlice>> sliceIterator = slices.iterator();
+    try {
+      while (!_shouldStop && !endCriteriaReached() && sliceIterator.hasNext()) {
+        if (!canTakeMore) {
+          // See processKafkaEvents() for the cases where the segment cannot take more rows
+          segmentLogger.error("Buffer full with {} rows consumed (row limit {})", _numRowsConsumed,
+              _segmentMaxRowCount);
+          throw new RuntimeException("Realtime segment full");
+        }
+        _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.LLC_DECODE_QUEUE_DEPTH,
+            numMessages - kafkaMessageCount);
+        PipelinedMessageDecoder.DecodedSlice slice = Uninterruptibles.getUninterruptibly(sliceIterator.next());
+
+        // Index the whole slice at once, up to the message that reaches the end criteria
+        int numSliceMessages =
+            getNumMessagesToConsume(slice, _state, _segmentMaxRowCount - _numRowsConsumed, _finalOffset);
+        RowBatch rowBatch = slice.getRowBatch(numSliceMessages);
+        int numRows = rowBatch.size();
+        if (numRows > 0) {
+          canTakeMore = _realtimeSegment.index(rowBatch);
+        }
+        _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_CONSUMED, numRows);
+        if (numRows < numSliceMessages) {
+          _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED,
+              numSliceMessages - numRows);
+        }
+
+        _currentOffset = slice.getMessage(numSliceMessages - 1).nextOffset();
+        _numRowsConsumed += numSliceMessages;
+        indexedMessageCount += numRows;
+        kafkaMessageCount += numSliceMessages;
+      }
+    } finally {
+      // Slices past the end criteria are dropped
+      for (Future<PipelinedMessageDecoder.DecodedSlice> future : slices) {
+        future.cancel(false);
+      }
+      _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.LLC_DECODE_QUEUE_DEPTH, 0L);
+    }
+
+    updateCurrentDocumentCountMetrics();
+    segmentLogger.debug("Indexed {} messages ({} messages read from Kafka) current offset {}", indexedMessageCount,
+        kafkaMessageCount, _currentOffset);
+    _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.HIGHEST_KAFKA_OFFSET_CONSUMED, _currentOffset);
+  }
+
+  /**
+   * Returns the number of messages of the slice to consume in the given state, before reaching the row limit or the
+   * final offset.
+   */
+  static int getNumMessagesToConsume(PipelinedMessageDecoder.DecodedSlice slice, State state, int numRowsLeft,
+      long finalOffset) {
+    int numMessages = slice.size();
+    switch (state) {
+      case INITIAL_CONSUMING:
+        return Math.min(numMessages, numRowsLeft);
+      case CATCHING_UP:
+      case CONSUMING_TO_ONLINE:
+        for (int i = 0; i < numMessages; i++) {
+          if (slice.getMessage(i).nextOffset() >= finalOffset) {
+            return i + 1;
+          }
+        }
+        return numMessages;
+      default:
+        return numMessages;
+    }
+  }
+
   public class PartitionConsumer implements Runnable {
     public void run() {
       long initialConsumptionEnd = 0L;
@@ -787,8 +937,11 @@ public class LLRealtimeSegmentDataManager extends SegmentDataManager {
     _segmentMaxRowCount = segmentMaxRowCount;
 
     // Start new realtime segment
+    RealtimeIndexOffHeapMemoryManager memoryManager = new RealtimeIndexOffHeapMemoryManager(
+        new File(new File(resourceDataDir, "_tmp"), "consumer-" + segmentZKMetadata.getSegmentName()),
+        realtimeTableDataManager.getRealtimeDirectMemoryMaxSizeInBytes(), tableConfig.getTableName(), _serverMetrics);
     _realtimeSegment = new RealtimeSegmentImpl(schema, _segmentMaxRowCount, tableConfig.getTableName(),
-        segmentZKMetadata.getSegmentName(), _kafkaTopic, _serverMetrics, invertedIndexColumns);
+        segmentZKMetadata.getSegmentName(), _kafkaTopic, _serverMetrics, invertedIndexColumns, memoryManager);
     _realtimeSegment.setSegmentMetadata(segmentZKMetadata, schema);
 
     // Create message decoder
@@ -797,6 +950,17 @@ public class LLRealtimeSegmentDataManager extends SegmentDataManager {
 
     // Create field extractor
     _fieldExtractor = (PlainFieldExtractor) FieldExtractorFactory.getPlainFieldExtractor(schema);
+    int llcDecoderThreads = _kafkaStreamMetadata.getLlcDecoderThreads();
+    if (llcDecoderThreads > 0) {
+      segmentLogger.info("Decoding messages on {} threads", llcDecoderThreads);
+      _pipelinedDecoder = new PipelinedMessageDecoder(kafkaStreamProviderConfig, schema,
+          realtimeTableDataManager.getLlcDecoderExecutorService(llcDecoderThreads), llcDecoderThreads,
+          _serverMetrics, _metricKeyName);
+      _messagePrefetcher = new MessagePrefetcher<>(realtimeTableDataManager.getLlcFetcherExecutorService());
+    } else {
+      _pipelinedDecoder = null;
+      _messagePrefetcher = null;
+    }
     makeConsumerWrapper();
     _startOffset = _segmentZKMetadata.getStartOffset();
     _currentOffset = _startOffset;
@@ -813,33 +977,83 @@ public class LLRealtimeSegmentDataManager extends SegmentDataManager {
 
   private void logStatistics() {
     int numErrors, numConversions, numNulls, numNullCols;
-    if ((numErrors = _fieldExtractor.getTotalErrors()) > 0) {
+    if ((numErrors = getTotalErrors()) > 0) {
       _serverMetrics.addMeteredTableValue(_tableStreamName,
           ServerMeter.ROWS_WITH_ERRORS, (long) numErrors);
     }
-    Map<String, Integer> errorCount = _fieldExtractor.getErrorCount();
+    Map<String, Integer> errorCount = getErrorCount();
     for (String column : errorCount.keySet()) {
       if ((numErrors = errorCount.get(column)) > 0) {
         segmentLogger.warn("Column {} had {} rows with errors", column, numErrors);
       }
     }
-    if ((numConversions = _fieldExtractor.getTotalConversions()) > 0) {
+    if ((numConversions = getTotalConversions()) > 0) {
       _serverMetrics.addMeteredTableValue(_tableStreamName,
           ServerMeter.ROWS_NEEDING_CONVERSIONS, (long) numConversions);
       segmentLogger.info("{} rows needed conversions ", numConversions);
     }
-    if ((numNulls = _fieldExtractor.getTotalNulls()) > 0) {
+    if ((numNulls = getTotalNulls()) > 0) {
       _serverMetrics.addMeteredTableValue(_tableStreamName,
           ServerMeter.ROWS_WITH_NULL_VALUES, (long) numNulls);
       segmentLogger.info("{} rows had null columns", numNulls);
     }
-    if ((numNullCols = _fieldExtractor.getTotalNullCols()) > 0) {
+    if ((numNullCols = getTotalNullCols()) > 0) {
       _serverMetrics.addMeteredTableValue(_tableStreamName,
           ServerMeter.COLUMNS_WITH_NULL_VALUES, (long) numNullCols);
       segmentLogger.info("{} columns had null values", numNullCols);
     }
   }
 
+  private List<PlainFieldExtractor> getFieldExtractors() {
+    if (_pipelinedDecoder != null) {
+      return _pipelinedDecoder.getFieldExtractors();
+    }
+    return Collections.singletonList(_fieldExtractor);
+  }
+
+  private int getTotalErrors() {
+    int totalErrors = 0;
+    for (PlainFieldExtractor fieldExtractor : getFieldExtractors()) {
+      totalErrors += fieldExtractor.getTotalErrors();
+    }
+    return totalErrors;
+  }
+
+  private Map<String, Integer> getErrorCount() {
+    Map<String, Integer> errorCount = new HashMap<>();
+    for (PlainFieldExtractor fieldExtractor : getFieldExtractors()) {
+      for (Map.Entry<String, Integer> entry : fieldExtractor.getErrorCount().entrySet()) {
+        Integer count = errorCount.get(entry.getKey());
+        errorCount.put(entry.getKey(), count == null ? entry.getValue() : count + entry.getValue());
+      }
+    }
+    return errorCount;
+  }
+
+  private int getTotalConversions() {
+    int totalConversions = 0;
+    for (PlainFieldExtractor fieldExtractor : getFieldExtractors()) {
+      totalConversions += fieldExtractor.getTotalConversions();
+    }
+    return totalConversions;
+  }
+
+  private int getTotalNulls() {
+    int totalNulls = 0;
+    for (PlainFieldExtractor fieldExtractor : getFieldExtractors()) {
+      totalNulls += fieldExtractor.getTotalNulls();
+    }
+    return totalNulls;
+  }
+
+  private int getTotalNullCols() {
+    int totalNullCols = 0;
+    for (PlainFieldExtractor fieldExtractor : getFieldExtractors()) {
+      totalNullCols += fieldExtractor.getTotalNullCols();
+    }
+    return totalNullCols;
+  }
+
   private void makeConsumerWrapper() {
     if (_consumerWrapper != null) {
       try {
@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.data.manager.realtime;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Fetches the next batch of messages of a partition on a fetcher pool while the current batch is being indexed.
+ * <p>A prefetch is only used by the consumer if it starts at the offset the consumer has reached, and is discarded
+ * otherwise, so that fetches stay ordered per partition. Only used by the consuming thread.
+ */
+public class MessagePrefetcher<T> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MessagePrefetcher.class);
+
+  private final ExecutorService _fetcherExecutorService;
+  private Future<T> _prefetchedMessages;
+  private long _prefetchOffset;
+
+  /**
+   * @param fetcherExecutorService pool running the fetches, which is not shut down by the prefetcher
+   */
+  public MessagePrefetcher(ExecutorService fetcherExecutorService) {
+    _fetcherExecutorService = fetcherExecutorService;
+  }
+
+  /**
+   * Starts fetching the messages from the given offset, after discarding the prefetch in progress if any.
+   */
+  public void prefetch(long startOffset, Callable<T> fetcher) {
+    discard();
+    _prefetchOffset = startOffset;
+    _prefetchedMessages = _fetcherExecutorService.submit(fetcher);
+  }
+
+  /**
+   * Returns the messages prefetched from the given offset, waiting for the fetch to complete, or null if there is no
+   * prefetch from this offset, in which case the prefetch from another offset is discarded.
+   *
+   * @throws Exception the exception thrown by the fetch
+   */
+  @Nullable
+  public T take(long offset)
+      throws Exception {
+    if (_prefetchedMessages == null) {
+      return null;
+    }
+    if (_prefetchOffset != offset) {
+      discard();
+      return null;
+    }
+    Future<T> prefetchedMessages = _prefetchedMessages;
+    _prefetchedMessages = null;
+    try {
+      return Uninterruptibles.getUninterruptibly(prefetchedMessages);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Waits for the prefetch in progress if any, and drops its messages, so that the consumer is no longer in use by a
+   * fetch.
+   */
+  public void discard() {
+    if (_prefetchedMessages != null) {
+      try {
+        Uninterruptibles.getUninterruptibly(_prefetchedMessages);
+      } catch (ExecutionException e) {
+        LOGGER.debug("Discarding failed prefetch from offset {}", _prefetchOffset, e);
+      }
+      _prefetchedMessages = null;
+    }
+  }
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.data.manager.realtime;
+
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.metrics.ServerMeter;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.RowBatch;
+import com.linkedin.pinot.core.data.extractors.FieldExtractorFactory;
+import com.linkedin.pinot.core.data.extractors.PlainFieldExtractor;
+import com.linkedin.pinot.core.realtime.impl.kafka.KafkaLowLevelStreamProviderConfig;
+import com.linkedin.pinot.core.realtime.impl.kafka.KafkaMessageDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.annotation.concurrent.ThreadSafe;
+import kafka.message.MessageAndOffset;
+
+
+/**
+ * Decodes and transforms the messages of a partition consumed by the low level consumer on a pool of worker threads
+ * shared by the consuming segments of the table.
+ * <p>Messages of a batch are split into slices decoded in parallel into {@link RowBatch}es. Slices are returned in
+ * offset order, so that the consuming thread indexes each slice as soon as it is decoded, while the following slices
+ * are still being decoded.
+ * Decoders and field extractors are not thread safe, so each slice being decoded takes one of the contexts of the
+ * decoder, one per thread of the pool.
+ */
+@ThreadSafe
+public class PipelinedMessageDecoder {
+  static final int SLICE_SIZE = 256;
+
+  private final Schema _schema;
+  private final ServerMetrics _serverMetrics;
+  private final String _metricKeyName;
+  private final ExecutorService _decoderExecutorService;
+  private final BlockingQueue<DecoderContext> _decoderContexts;
+  private final List<PlainFieldExtractor> _fieldExtractors;
+
+  /**
+   * @param decoderExecutorService pool of <code>numDecoderThreads</code> threads decoding the messages, which is not
+   *                               shut down by the decoder
+   */
+  public PipelinedMessageDecoder(KafkaLowLevelStreamProviderConfig streamProviderConfig, Schema schema,
+      ExecutorService decoderExecutorService, int numDecoderThreads, ServerMetrics serverMetrics,
+      String metricKeyName)
+      throws Exception {
+    _schema = schema;
+    _serverMetrics = serverMetrics;
+    _metricKeyName = metricKeyName;
+    _decoderExecutorService = decoderExecutorService;
+
+    // One context per worker thread, so that a task never waits for a context
+    _decoderContexts = new ArrayBlockingQueue<>(numDecoderThreads);
+    List<PlainFieldExtractor> fieldExtractors = new ArrayList<>(numDecoderThreads);
+    for (int i = 0; i < numDecoderThreads; i++) {
+      PlainFieldExtractor fieldExtractor = (PlainFieldExtractor) FieldExtractorFactory.getPlainFieldExtractor(schema);
+      _decoderContexts.add(new DecoderContext(streamProviderConfig.getDecoder(), fieldExtractor));
+      fieldExtractors.add(fieldExtractor);
+    }
+    _fieldExtractors = Collections.unmodifiableList(fieldExtractors);
+  }
+
+  /**
+   * Submits the messages to decode, and returns the decoded slices in offset order.
+   */
+  public List<Future<DecodedSlice>> decode(List<MessageAndOffset> messages) {
+    int numMessages = messages.size();
+    List<Future<DecodedSlice>> slices = new ArrayList<>((numMessages + SLICE_SIZE - 1) / SLICE_SIZE);
+    for (int start = 0; start < numMessages; start += SLICE_SIZE) {
+      final List<MessageAndOffset> sliceMessages = messages.subList(start, Math.min(start + SLICE_SIZE, numMessages));
+      slices.add(_decoderExecutorService.submit(new Callable<DecodedSlice>() {
+        @Override
+        public DecodedSlice call()
+            throws Exception {
+          return decodeSlice(sliceMessages);
+        }
+      }));
+    }
+    return slices;
+  }
+
+  private DecodedSlice decodeSlice(List<MessageAndOffset> messages)
+      throws InterruptedException {
+    int numMessages = messages.size();
+    RowBatch rowBatch = new RowBatch(_schema, numMessages);
+    boolean[] indexable = new boolean[numMessages];
+    DecoderContext context = _decoderContexts.take();
+    try {
+      GenericRow decodedRow = null;
+      GenericRow transformedRow = null;
+      for (int i = 0; i < numMessages; i++) {
+        kafka.message.Message message = messages.get(i).message();
+        decodedRow = GenericRow.createOrReuseRow(decodedRow);
+        decodedRow = context._messageDecoder.decode(message.payload().array(), message.payload().arrayOffset(),
+            message.payloadSize(), decodedRow);
+        if (decodedRow != null) {
+          // The row batch copies the values, so the transformed row can be reused
+          transformedRow = GenericRow.createOrReuseRow(transformedRow);
+          transformedRow = context._fieldExtractor.transform(decodedRow, transformedRow);
+          indexable[i] = transformedRow != null && rowBatch.addRow(transformedRow);
+        }
+      }
+    } finally {
+      _decoderContexts.add(context);
+    }
+    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_DECODED, numMessages);
+    return new DecodedSlice(messages, indexable, rowBatch);
+  }
+
+  /**
+   * Returns the field extractors of all the worker threads, to aggregate their counters.
+   */
+  public List<PlainFieldExtractor> getFieldExtractors() {
+    return _fieldExtractors;
+  }
+
+  /**
+   * Messages of a slice, with the batch of rows decoded from them. Messages that could not be decoded or that have
+   * missing values have no row in the batch.
+   */
+  public static class DecodedSlice {
+    private final List<MessageAndOffset> _messages;
+    private final boolean[] _indexable;
+    private final RowBatch _rowBatch;
+
+    DecodedSlice(List<MessageAndOffset> messages, boolean[] indexable, RowBatch rowBatch) {
+      _messages = messages;
+      _indexable = indexable;
+      _rowBatch = rowBatch;
+    }
+
+    public int size() {
+      return _messages.size();
+    }
+
+    public MessageAndOffset getMessage(int index) {
+      return _messages.get(index);
+    }
+
+    /**
+     * Returns the batch of rows decoded from the first <code>numMessages</code> messages of the slice.
+     */
+    public RowBatch getRowBatch(int numMessages) {
+      int numRows = 0;
+      for (int i = 0; i < numMessages; i++) {
+        if (_indexable[i]) {
+          numRows++;
+        }
+      }
+      _rowBatch.truncate(numRows);
+      return _rowBatch;
+    }
+  }
+
+  private static class DecoderContext {
+    final KafkaMessageDecoder _messageDecoder;
+    final PlainFieldExtractor _fieldExtractor;
+
+    DecoderContext(KafkaMessageDecoder messageDecoder, PlainFieldExtractor fieldExtractor) {
+      _messageDecoder = messageDecoder;
+      _fieldExtractor = fieldExtractor;
+    }
+  }
+}
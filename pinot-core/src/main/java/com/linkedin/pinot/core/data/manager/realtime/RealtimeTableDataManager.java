@@ -52,6 +52,9 @@ public class RealtimeTableDataManager extends AbstractTableDataManager {
   private final ExecutorService _segmentAsyncExecutorService = Executors
       .newSingleThreadExecutor(new NamedThreadFactory("SegmentAsyncExecutorService"));
   private ZkHelixPropertyStore<ZNRecord> _helixPropertyStore;
+  // Pools shared by the low level consuming segments of the table that decode their messages in parallel
+  private ExecutorService _llcDecoderExecutorService;
+  private ExecutorService _llcFetcherExecutorService;
 
   public RealtimeTableDataManager() {
     super();
@@ -60,8 +63,19 @@ public class RealtimeTableDataManager extends AbstractTableDataManager {
   @Override
   protected void doShutdown() {
     _segmentAsyncExecutorService.shutdown();
+    // Segments still acquired by queries are destroyed (and their off-heap buffers freed) when they are released
     for (SegmentDataManager segmentDataManager :_segmentsMap.values() ) {
-      segmentDataManager.destroy();
+      if (segmentDataManager.decrementRefCnt() == 0) {
+        segmentDataManager.destroy();
+      }
+    }
+    synchronized (this) {
+      if (_llcDecoderExecutorService != null) {
+        _llcDecoderExecutorService.shutdownNow();
+      }
+      if (_llcFetcherExecutorService != null) {
+        _llcFetcherExecutorService.shutdownNow();
+      }
     }
     KafkaConsumerManager.closeAllConsumers();
   }
@@ -70,6 +84,41 @@ public class RealtimeTableDataManager extends AbstractTableDataManager {
     LOGGER = LoggerFactory.getLogger(_tableName + "-RealtimeTableDataManager");
   }
 
+  /**
+   * Returns the max size in bytes of the direct memory used by the consuming segments of the server, not bounded when
+   * not positive.
+   */
+  public long getRealtimeDirectMemoryMaxSizeInBytes() {
+    if (_indexLoadingConfigMetadata == null) {
+      return 0L;
+    }
+    return _indexLoadingConfigMetadata.getRealtimeDirectMemoryMaxSizeInBytes();
+  }
+
+  /**
+   * Returns the pool decoding the messages of the low level consuming segments of the table, created with the given
+   * number of threads (from the stream configs of the table) by the first consuming segment.
+   */
+  public synchronized ExecutorService getLlcDecoderExecutorService(int numThreads) {
+    if (_llcDecoderExecutorService == null) {
+      LOGGER.info("Creating pool of {} threads to decode the messages of the consuming segments", numThreads);
+      _llcDecoderExecutorService =
+          Executors.newFixedThreadPool(numThreads, new NamedThreadFactory(_tableName + "-llc-decoder"));
+    }
+    return _llcDecoderExecutorService;
+  }
+
+  /**
+   * Returns the pool prefetching the messages of the low level consuming segments of the table, which runs at most
+   * one fetch per consuming segment at a time.
+   */
+  public synchronized ExecutorService getLlcFetcherExecutorService() {
+    if (_llcFetcherExecutorService == null) {
+      _llcFetcherExecutorService = Executors.newCachedThreadPool(new NamedThreadFactory(_tableName + "-llc-fetcher"));
+    }
+    return _llcFetcherExecutorService;
+  }
+
   public void notifySegmentCommitted(RealtimeSegmentZKMetadata metadata, IndexSegment segment) {
     ZKMetadataProvider.setRealtimeSegmentZKMetadata(_helixPropertyStore, metadata);
     markSegmentAsLoaded(metadata.getSegmentName());
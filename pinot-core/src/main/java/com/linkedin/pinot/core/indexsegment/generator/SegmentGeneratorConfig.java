@@ -16,6 +16,7 @@
 package com.linkedin.pinot.core.indexsegment.generator;
 
 import com.google.common.base.Preconditions;
+import com.linkedin.pinot.common.config.SegmentPartitionConfig;
 import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.common.data.FieldSpec.FieldType;
 import com.linkedin.pinot.common.data.Schema;
@@ -55,6 +56,8 @@ public class SegmentGeneratorConfig {
   private Map<String, String> _customProperties = new HashMap<>();
   private Set<String> _rawIndexCreationColumns = new HashSet<>();
   private List<String> _invertedIndexCreationColumns = new ArrayList<>();
+  private List<String> _bloomFilterCreationColumns = new ArrayList<>();
+  private List<String> _rangeIndexCreationColumns = new ArrayList<>();
   private String _dataDir = null;
   private String _inputFilePath = null;
   private FileFormat _format = FileFormat.AVRO;
@@ -79,6 +82,8 @@ public class SegmentGeneratorConfig {
   private String _creatorVersion = null;
   private char _paddingCharacter = V1Constants.Str.DEFAULT_STRING_PAD_CHAR;
   private HllConfig _hllConfig = null;
+  private SegmentPartitionConfig _segmentPartitionConfig = null;
+  private int _numIndexingThreads = 0;
 
   public SegmentGeneratorConfig() {
   }
@@ -88,6 +93,8 @@ public class SegmentGeneratorConfig {
     _customProperties.putAll(config._customProperties);
     _rawIndexCreationColumns.addAll(config._rawIndexCreationColumns);
     _invertedIndexCreationColumns.addAll(config._invertedIndexCreationColumns);
+    _bloomFilterCreationColumns.addAll(config._bloomFilterCreationColumns);
+    _rangeIndexCreationColumns.addAll(config._rangeIndexCreationColumns);
     _dataDir = config._dataDir;
     _inputFilePath = config._inputFilePath;
     _format = config._format;
@@ -112,6 +119,8 @@ public class SegmentGeneratorConfig {
     _creatorVersion = config._creatorVersion;
     _paddingCharacter = config._paddingCharacter;
     _hllConfig = config._hllConfig;
+    _segmentPartitionConfig = config._segmentPartitionConfig;
+    _numIndexingThreads = config._numIndexingThreads;
   }
 
   public SegmentGeneratorConfig(Schema schema) {
@@ -150,6 +159,48 @@ public class SegmentGeneratorConfig {
     _invertedIndexCreationColumns.addAll(indexCreationColumns);
   }
 
+  public List<String> getBloomFilterCreationColumns() {
+    return _bloomFilterCreationColumns;
+  }
+
+  public void setBloomFilterCreationColumns(List<String> bloomFilterCreationColumns) {
+    Preconditions.checkNotNull(bloomFilterCreationColumns);
+    _bloomFilterCreationColumns.addAll(bloomFilterCreationColumns);
+  }
+
+  public SegmentPartitionConfig getSegmentPartitionConfig() {
+    return _segmentPartitionConfig;
+  }
+
+  /**
+   * Sets the partitioning of the table, used to record the partitions of the partitioned columns in the segment.
+   */
+  public void setSegmentPartitionConfig(SegmentPartitionConfig segmentPartitionConfig) {
+    _segmentPartitionConfig = segmentPartitionConfig;
+  }
+
+  public int getNumIndexingThreads() {
+    return _numIndexingThreads;
+  }
+
+  /**
+   * Sets the number of threads creating the columns of the segment. When positive, the input is read only once and
+   * spooled off-heap, then the dictionaries and indexes of all the columns are built in parallel. Otherwise (the
+   * default), and for segments with a star tree or raw indexes, the input is read twice and indexed row by row.
+   */
+  public void setNumIndexingThreads(int numIndexingThreads) {
+    _numIndexingThreads = numIndexingThreads;
+  }
+
+  public List<String> getRangeIndexCreationColumns() {
+    return _rangeIndexCreationColumns;
+  }
+
+  public void setRangeIndexCreationColumns(List<String> rangeIndexCreationColumns) {
+    Preconditions.checkNotNull(rangeIndexCreationColumns);
+    _rangeIndexCreationColumns.addAll(rangeIndexCreationColumns);
+  }
+
   public void createInvertedIndexForColumn(String column) {
     Preconditions.checkNotNull(column);
     if (_schema != null && _schema.getFieldSpecFor(column) == null) {
@@ -25,11 +25,13 @@ import java.nio.ByteBuffer;
  *   <li> Chunk Buffer from the previous read. Useful if the subsequent read is from the same buffer,
  *        as it avoids chunk decompression. </li>
  *   <li> Id for the chunk </li>
+ *   <li> Id of the reader the chunk was loaded by, when the context is shared across readers </li>
  * </ul>
  */
 public class ChunkReaderContext extends UnSortedValueReaderContext {
   int _chunkId;
   ByteBuffer _chunkBuffer;
+  int _readerId = -1;
 
   public ChunkReaderContext(int maxChunkSize) {
     _chunkBuffer = ByteBuffer.allocateDirect(maxChunkSize);
@@ -47,4 +49,21 @@ public class ChunkReaderContext extends UnSortedValueReaderContext {
   public void setChunkId(int chunkId) {
     _chunkId = chunkId;
   }
+
+  public int getReaderId() {
+    return _readerId;
+  }
+
+  public void setReaderId(int readerId) {
+    _readerId = readerId;
+  }
+
+  /**
+   * Drops the chunk buffer, after which the context can no longer be used.
+   */
+  public void releaseChunkBuffer() {
+    _chunkBuffer = null;
+    _chunkId = -1;
+    _readerId = -1;
+  }
 }
@@ -38,6 +38,8 @@ import org.slf4j.LoggerFactory;
 public class FixedBitSingleValueMultiColReader implements Closeable {
   private static final Logger LOGGER =
       LoggerFactory.getLogger(FixedBitSingleValueMultiColReader.class);
+  // Minimum number of consecutive rows to decode in bulk instead of row by row
+  private static final int MIN_SEQUENTIAL_RUN_LENGTH = 8;
 
   private int rows;
   private int cols;
@@ -135,12 +137,36 @@ public class FixedBitSingleValueMultiColReader implements Closeable {
    * @return
    */
   public void getInt(int startRow, int length, int col, int[] output) {
-    long startBitOffset = computeBitOffset(startRow, col);
-    long endBitOffset;
-    for (int i = 0; i < length; i++) {
-      endBitOffset = startBitOffset + colSizesInBits[col];
-      output[i] = customBitSet.readInt(startBitOffset, endBitOffset) - offsets[col];
-      startBitOffset = endBitOffset;
+    getInt(startRow, length, col, output, 0);
+  }
+
+  /**
+   * Reads the values of a column for a range of consecutive rows.
+   *
+   * @param startRow first row to read
+   * @param length number of rows to read
+   * @param col column to read
+   * @param output output array
+   * @param outputStartPos position in the output array of the first value
+   */
+  public void getInt(int startRow, int length, int col, int[] output, int outputStartPos) {
+    int colSize = colSizesInBits[col];
+    int offset = offsets[col];
+    int endPos = outputStartPos + length;
+    if (cols == 1) {
+      // Values of consecutive rows are contiguous in the bit set
+      customBitSet.readInts(computeBitOffset(startRow, col), colSize, length, output, outputStartPos);
+      if (offset != 0) {
+        for (int i = outputStartPos; i < endPos; i++) {
+          output[i] -= offset;
+        }
+      }
+    } else {
+      long startBitOffset = computeBitOffset(startRow, col);
+      for (int i = outputStartPos; i < endPos; i++) {
+        output[i] = customBitSet.readInt(startBitOffset, startBitOffset + colSize) - offset;
+        startBitOffset += rowSizeInBits;
+      }
     }
   }
 
@@ -180,10 +206,28 @@ public class FixedBitSingleValueMultiColReader implements Closeable {
     return true;
   }
 
+  /**
+   * Reads the values of a column for the given rows. Runs of consecutive rows (e.g. the doc ids matched by a sorted
+   * index) are decoded in bulk with {@link #getInt(int, int, int, int[], int)}.
+   */
   public void readValues(int[] rows, int col, int rowStartPos, int rowSize, int[] values, int valuesStartPos) {
     int endPos = rowStartPos + rowSize;
-    for (int ri = rowStartPos; ri < endPos; ++ri) {
-      values[valuesStartPos++] = getInt(rows[ri], col);
+    int ri = rowStartPos;
+    while (ri < endPos) {
+      int runEnd = ri + 1;
+      while (runEnd < endPos && rows[runEnd] == rows[runEnd - 1] + 1) {
+        runEnd++;
+      }
+      int runLength = runEnd - ri;
+      if (runLength >= MIN_SEQUENTIAL_RUN_LENGTH) {
+        getInt(rows[ri], runLength, col, values, valuesStartPos);
+        valuesStartPos += runLength;
+      } else {
+        for (int i = ri; i < runEnd; i++) {
+          values[valuesStartPos++] = getInt(rows[i], col);
+        }
+      }
+      ri = runEnd;
     }
   }
 }
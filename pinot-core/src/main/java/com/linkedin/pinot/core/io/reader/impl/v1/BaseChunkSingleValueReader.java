@@ -21,6 +21,10 @@ import com.linkedin.pinot.core.io.reader.impl.ChunkReaderContext;
 import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +42,14 @@ public abstract class BaseChunkSingleValueReader extends BaseSingleColumnSingleV
   protected static final int FLOAT_SIZE = Float.SIZE / Byte.SIZE;
   protected static final int DOUBLE_SIZE = Double.SIZE / Byte.SIZE;
 
+  // Reader context of each thread, shared by all the chunk readers and sized to the largest chunk read by the thread.
+  private static final ThreadLocal<ChunkReaderContext> THREAD_LOCAL_CONTEXT = new ThreadLocal<>();
+  // Reader contexts of all the threads, to release the chunk buffers loaded by a reader when it is closed. Contexts of
+  // terminated threads are dropped by the weak map.
+  private static final Set<ChunkReaderContext> THREAD_LOCAL_CONTEXTS =
+      Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<ChunkReaderContext, Boolean>()));
+  private static final AtomicInteger NEXT_READER_ID = new AtomicInteger();
+
   protected final PinotDataBuffer _dataBuffer;
   protected final PinotDataBuffer _header;
   protected final ChunkDecompressor _chunkDecompressor;
@@ -47,6 +59,9 @@ public abstract class BaseChunkSingleValueReader extends BaseSingleColumnSingleV
   protected final int _numChunks;
   protected final int _lengthOfLongestEntry;
 
+  // Identifies the reader in the thread local contexts, which do not reference the reader.
+  private final int _readerId = NEXT_READER_ID.getAndIncrement();
+
   /**
    * Constructor for the class.
    *
@@ -73,11 +88,62 @@ public abstract class BaseChunkSingleValueReader extends BaseSingleColumnSingleV
     _header = _dataBuffer.view(headerOffset, headerOffset + headerLength);
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>Releases the chunk buffers of the thread local contexts last used by this reader. The reader must no longer be
+   * in use by any thread.
+   */
   @Override
   public void close() {
-    // Nothing to close here.
+    synchronized (THREAD_LOCAL_CONTEXTS) {
+      for (ChunkReaderContext context : THREAD_LOCAL_CONTEXTS) {
+        synchronized (context) {
+          if (context.getReaderId() == _readerId) {
+            context.releaseChunkBuffer();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the reader context of the current thread, to read values in bulk without allocating a chunk buffer for
+   * each call. The context is shared by all the chunk readers, so it is only valid until the thread reads from another
+   * chunk reader.
+   *
+   * @return Reader context of the current thread
+   */
+  public ChunkReaderContext getThreadLocalContext() {
+    int chunkBufferSize = getMaxChunkSize();
+    ChunkReaderContext context = THREAD_LOCAL_CONTEXT.get();
+    if (context != null) {
+      synchronized (context) {
+        ByteBuffer chunkBuffer = context.getChunkBuffer();
+        if (chunkBuffer != null) {
+          if (chunkBuffer.capacity() >= chunkBufferSize) {
+            if (context.getReaderId() != _readerId) {
+              context.setReaderId(_readerId);
+              context.setChunkId(-1);
+            }
+            return context;
+          }
+          chunkBufferSize = Math.max(chunkBufferSize, chunkBuffer.capacity());
+        }
+      }
+      THREAD_LOCAL_CONTEXTS.remove(context);
+    }
+    context = new ChunkReaderContext(chunkBufferSize);
+    context.setReaderId(_readerId);
+    THREAD_LOCAL_CONTEXT.set(context);
+    THREAD_LOCAL_CONTEXTS.add(context);
+    return context;
   }
 
+  /**
+   * Returns the size of the largest uncompressed chunk, which is the size of the chunk buffer of the reader context.
+   */
+  protected abstract int getMaxChunkSize();
+
   /**
    * Helper method to get the chunk for a given row.
    * <ul>
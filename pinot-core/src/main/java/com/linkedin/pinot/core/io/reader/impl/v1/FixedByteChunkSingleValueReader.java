@@ -78,4 +78,9 @@ public class FixedByteChunkSingleValueReader extends BaseChunkSingleValueReader
   public ChunkReaderContext createContext() {
     return new ChunkReaderContext(_chunkSize);
   }
+
+  @Override
+  protected int getMaxChunkSize() {
+    return _chunkSize;
+  }
 }
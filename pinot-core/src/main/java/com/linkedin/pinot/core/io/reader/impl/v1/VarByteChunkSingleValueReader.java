@@ -87,4 +87,9 @@ public class VarByteChunkSingleValueReader extends BaseChunkSingleValueReader {
   public ChunkReaderContext createContext() {
     return new ChunkReaderContext(_maxChunkSize);
   }
+
+  @Override
+  protected int getMaxChunkSize() {
+    return _maxChunkSize;
+  }
 }
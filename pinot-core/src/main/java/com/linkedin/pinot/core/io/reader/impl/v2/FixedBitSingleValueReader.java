@@ -81,23 +81,7 @@ public class FixedBitSingleValueReader extends BaseSingleColumnSingleValueReader
    * @param length
    */
   public void getIntBatch(int startRow, int length, int[] values) {
-    int counter = 0;
-    BitUnpackResult tempResult = bitUnpackWrapper.get();
-    while (counter < length) {
-      int batchPosition = (startRow + counter) / uncompressedSize;
-      if (tempResult.position != batchPosition) {
-        int startIndex = batchPosition * numBits * 4;
-        for (int i = 0; i < numBits; i++) {
-          tempResult.compressed[i] = indexDataBuffer.getInt(startIndex + i * 4);
-        }
-        BitPacking.fastunpack(tempResult.compressed, 0, tempResult.uncompressed, 0, numBits);
-      }
-      int endRowId = (batchPosition + 1) * uncompressedSize;
-      while (counter < length && (startRow + counter) < endRowId) {
-        values[counter] = tempResult.uncompressed[(startRow + counter) % uncompressedSize];
-        counter = counter + 1;
-      }
-    }
+    readValues(startRow, length, values, 0);
   }
 
   /**
@@ -106,23 +90,7 @@ public class FixedBitSingleValueReader extends BaseSingleColumnSingleValueReader
    * @param length
    */
   public void getIntBatch(int rowIds[], int[] values, int length) {
-    int counter = 0;
-    BitUnpackResult tempResult = bitUnpackWrapper.get();
-    while (counter < length) {
-      int batchPosition = rowIds[counter] / uncompressedSize;
-      if (tempResult.position != batchPosition) {
-        int startIndex = batchPosition * numBits * 4;
-        for (int i = 0; i < numBits; i++) {
-          tempResult.compressed[i] = indexDataBuffer.getInt(startIndex + i * 4);
-        }
-        BitPacking.fastunpack(tempResult.compressed, 0, tempResult.uncompressed, 0, numBits);
-      }
-      int endRowId = (batchPosition + 1) * uncompressedSize;
-      while (counter < length && rowIds[counter] < endRowId) {
-        values[counter] = tempResult.uncompressed[rowIds[counter] % uncompressedSize];
-        counter = counter + 1;
-      }
-    }
+    readValues(rowIds, 0, length, values, 0);
   }
 
   /**
@@ -133,25 +101,70 @@ public class FixedBitSingleValueReader extends BaseSingleColumnSingleValueReader
     BitUnpackResult result = bitUnpackWrapper.get();
     int batchPosition = row / uncompressedSize;
     if (result.position != batchPosition) {
-      int index = -1;
-      int startIndex = batchPosition * numBits * 4;
-      for (int i = 0; i < numBits; i++) {
-        try {
-          index = startIndex + i * 4;
-          result.compressed[i] = indexDataBuffer.getInt(index);
-        } catch (Exception e) {
-          LOGGER.error("Exception while retreiving value for row:{} at index:{} numBits:{}", row,
-              index, numBits, e);
-          throw e;
-        }
+      unpackBatch(result, batchPosition);
+    }
+    return result.uncompressed[row % uncompressedSize];
+  }
+
+  /**
+   * Unpacks the batch at the given position into the uncompressed values of the result.
+   */
+  private void unpackBatch(BitUnpackResult result, int batchPosition) {
+    int[] compressed = result.compressed;
+    int index = -1;
+    int startIndex = batchPosition * numBits * 4;
+    for (int i = 0; i < numBits; i++) {
+      try {
+        index = startIndex + i * 4;
+        compressed[i] = indexDataBuffer.getInt(index);
+      } catch (Exception e) {
+        LOGGER.error("Exception while retreiving value for batch:{} at index:{} numBits:{}", batchPosition, index,
+            numBits, e);
+        throw e;
       }
-      BitPacking.fastunpack(result.compressed, 0, result.uncompressed, 0, numBits);
-      result.position = batchPosition;
-      // bitUnpackWrapper.set(result);
     }
-    int ret = result.uncompressed[row % uncompressedSize];
-    return ret;
+    BitPacking.fastunpack(compressed, 0, result.uncompressed, 0, numBits);
+    result.position = batchPosition;
+  }
 
+  /**
+   * Reads the values of a range of consecutive rows. Batches fully covered by the range are unpacked directly into
+   * the output array, only the partial batches at both ends go through the cached batch.
+   *
+   * @param startRow first row to read
+   * @param length number of rows to read
+   * @param values output array
+   * @param valuesStartPos position in the output array of the first value
+   */
+  public void readValues(int startRow, int length, int[] values, int valuesStartPos) {
+    BitUnpackResult result = bitUnpackWrapper.get();
+    int row = startRow;
+    int endRow = startRow + length;
+    int outPos = valuesStartPos;
+    while (row < endRow) {
+      int batchPosition = row / uncompressedSize;
+      int batchStartRow = batchPosition * uncompressedSize;
+      if (row == batchStartRow && row + uncompressedSize <= endRow) {
+        int startIndex = batchPosition * numBits * 4;
+        int[] compressed = result.compressed;
+        for (int i = 0; i < numBits; i++) {
+          compressed[i] = indexDataBuffer.getInt(startIndex + i * 4);
+        }
+        BitPacking.fastunpack(compressed, 0, values, outPos, numBits);
+        row += uncompressedSize;
+        outPos += uncompressedSize;
+      } else {
+        if (result.position != batchPosition) {
+          unpackBatch(result, batchPosition);
+        }
+        int[] uncompressed = result.uncompressed;
+        int batchEndRow = Math.min(batchStartRow + uncompressedSize, endRow);
+        while (row < batchEndRow) {
+          values[outPos++] = uncompressed[row - batchStartRow];
+          row++;
+        }
+      }
+    }
   }
 
   public int getNumberOfRows() {
@@ -167,11 +180,39 @@ public class FixedBitSingleValueReader extends BaseSingleColumnSingleValueReader
     return true;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>Runs of consecutive rows (e.g. the doc ids matched by a sorted index) are read with
+   * {@link #readValues(int, int, int[], int)}, other rows share the cached batch as long as they fall in it.
+   */
   @Override
   public void readValues(int[] rows, int rowStartPos, int rowSize, int[] values, int valuesStartPos) {
+    BitUnpackResult result = bitUnpackWrapper.get();
+    int[] uncompressed = result.uncompressed;
     int endPos = rowStartPos + rowSize;
-    for (int ri = rowStartPos; ri < endPos; ++ri) {
-      values[valuesStartPos++] = getInt(rows[ri]);
+    int outPos = valuesStartPos;
+    int ri = rowStartPos;
+    while (ri < endPos) {
+      int row = rows[ri];
+      int runEnd = ri + 1;
+      while (runEnd < endPos && rows[runEnd] == rows[runEnd - 1] + 1) {
+        runEnd++;
+      }
+      int runLength = runEnd - ri;
+      if (runLength >= uncompressedSize) {
+        readValues(row, runLength, values, outPos);
+        outPos += runLength;
+      } else {
+        for (int i = ri; i < runEnd; i++) {
+          row = rows[i];
+          int batchPosition = row / uncompressedSize;
+          if (result.position != batchPosition) {
+            unpackBatch(result, batchPosition);
+          }
+          values[outPos++] = uncompressed[row % uncompressedSize];
+        }
+      }
+      ri = runEnd;
     }
   }
 }
@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.io.readerwriter;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.common.metrics.ServerGauge;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Allocates the off-heap buffers of the mutable indexes of a consuming segment, and releases all of them when the
+ * segment is destroyed.
+ * <p>Buffers are allocated in direct memory as long as the direct memory used by the consuming segments of all the
+ * tables of the server stays within the configured budget, and in memory-mapped files under the given directory
+ * beyond it, so that consuming segments larger than the budget are paged by the OS instead of failing (or growing
+ * the process) when running out of direct memory.
+ * <p>Memory used per table is reported through the {@link ServerGauge#REALTIME_OFFHEAP_MEMORY_USED} and
+ * {@link ServerGauge#REALTIME_MMAP_MEMORY_USED} gauges.
+ */
+public class RealtimeIndexOffHeapMemoryManager implements Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RealtimeIndexOffHeapMemoryManager.class);
+
+  // Direct memory allocated by the consuming segments of all the tables of the server
+  private static final AtomicLong SERVER_DIRECT_MEMORY_USED = new AtomicLong();
+
+  private final File _mmapDir;
+  private final long _maxServerDirectMemory;
+  private final String _tableName;
+  private final ServerMetrics _serverMetrics;
+
+  private final List<PinotDataBuffer> _buffers = new ArrayList<>();
+  private long _directMemoryUsed = 0L;
+  private long _mmapMemoryUsed = 0L;
+  private int _numFiles = 0;
+
+  /**
+   * Creates a memory manager allocating all the buffers in direct memory, without bound.
+   */
+  public RealtimeIndexOffHeapMemoryManager(String tableName, @Nullable ServerMetrics serverMetrics) {
+    this(null, 0L, tableName, serverMetrics);
+  }
+
+  /**
+   * @param mmapDir directory of the memory-mapped files, deleted when the memory manager is closed
+   * @param maxServerDirectMemory max direct memory used by the consuming segments of the server, beyond which buffers
+   *                              are memory-mapped, not bounded when not positive
+   */
+  public RealtimeIndexOffHeapMemoryManager(@Nullable File mmapDir, long maxServerDirectMemory, String tableName,
+      @Nullable ServerMetrics serverMetrics) {
+    Preconditions.checkArgument(mmapDir != null || maxServerDirectMemory <= 0L,
+        "Directory of the memory-mapped files is required to bound direct memory");
+    _mmapDir = mmapDir;
+    _maxServerDirectMemory = maxServerDirectMemory > 0L ? maxServerDirectMemory : Long.MAX_VALUE;
+    _tableName = tableName;
+    _serverMetrics = serverMetrics;
+    if (_mmapDir != null) {
+      // Left over by a server that did not shut down cleanly
+      FileUtils.deleteQuietly(_mmapDir);
+    }
+  }
+
+  /**
+   * Allocates a zeroed buffer of the given size, which stays valid until the memory manager is closed.
+   */
+  public synchronized PinotDataBuffer allocate(long size, String context) {
+    Preconditions.checkArgument(size > 0L, "Invalid size: %s to allocate for: %s", size, context);
+    PinotDataBuffer buffer;
+    if (reserveDirectMemory(size)) {
+      try {
+        buffer = PinotDataBuffer.allocateDirect(size);
+      } catch (RuntimeException | Error e) {
+        SERVER_DIRECT_MEMORY_USED.addAndGet(-size);
+        throw e;
+      }
+      _directMemoryUsed += size;
+      updateGauge(ServerGauge.REALTIME_OFFHEAP_MEMORY_USED, size);
+    } else {
+      buffer = mapFile(size, context);
+      _mmapMemoryUsed += size;
+      updateGauge(ServerGauge.REALTIME_MMAP_MEMORY_USED, size);
+    }
+    _buffers.add(buffer);
+    return buffer;
+  }
+
+  /**
+   * Returns the direct memory in bytes allocated by this memory manager.
+   */
+  public synchronized long getDirectMemoryUsed() {
+    return _directMemoryUsed;
+  }
+
+  /**
+   * Returns the memory-mapped memory in bytes allocated by this memory manager.
+   */
+  public synchronized long getMmapMemoryUsed() {
+    return _mmapMemoryUsed;
+  }
+
+  /**
+   * Returns the direct memory in bytes allocated by the consuming segments of the server.
+   */
+  public static long getServerDirectMemoryUsed() {
+    return SERVER_DIRECT_MEMORY_USED.get();
+  }
+
+  /**
+   * Releases all the allocated buffers, which must not be accessed afterwards.
+   */
+  @Override
+  public synchronized void close() {
+    for (PinotDataBuffer buffer : _buffers) {
+      buffer.close();
+    }
+    _buffers.clear();
+    SERVER_DIRECT_MEMORY_USED.addAndGet(-_directMemoryUsed);
+    updateGauge(ServerGauge.REALTIME_OFFHEAP_MEMORY_USED, -_directMemoryUsed);
+    updateGauge(ServerGauge.REALTIME_MMAP_MEMORY_USED, -_mmapMemoryUsed);
+    _directMemoryUsed = 0L;
+    _mmapMemoryUsed = 0L;
+    if (_mmapDir != null) {
+      FileUtils.deleteQuietly(_mmapDir);
+    }
+  }
+
+  private boolean reserveDirectMemory(long size) {
+    while (true) {
+      long used = SERVER_DIRECT_MEMORY_USED.get();
+      if (used + size > _maxServerDirectMemory && _mmapDir != null) {
+        return false;
+      }
+      if (SERVER_DIRECT_MEMORY_USED.compareAndSet(used, used + size)) {
+        return true;
+      }
+    }
+  }
+
+  private PinotDataBuffer mapFile(long size, String context) {
+    File file = new File(_mmapDir, "buffer-" + _numFiles++);
+    try {
+      FileUtils.forceMkdir(_mmapDir);
+      return PinotDataBuffer.fromFile(file, 0L, size, ReadMode.mmap, FileChannel.MapMode.READ_WRITE, context);
+    } catch (IOException e) {
+      LOGGER.error("Failed to map file: {} of size: {} for: {}", file, size, context, e);
+      throw new RuntimeException("Failed to map file: " + file + " for: " + context, e);
+    }
+  }
+
+  private void updateGauge(ServerGauge gauge, long delta) {
+    if (_serverMetrics != null && delta != 0L) {
+      _serverMetrics.addValueToTableGauge(_tableName, gauge, delta);
+    }
+  }
+}
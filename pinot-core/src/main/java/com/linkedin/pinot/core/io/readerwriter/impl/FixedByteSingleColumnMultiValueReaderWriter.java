@@ -17,6 +17,7 @@ package com.linkedin.pinot.core.io.readerwriter.impl;
 
 import com.linkedin.pinot.core.io.reader.impl.FixedByteSingleValueMultiColReader;
 import com.linkedin.pinot.core.io.readerwriter.BaseSingleColumnMultiValueReaderWriter;
+import com.linkedin.pinot.core.io.readerwriter.RealtimeIndexOffHeapMemoryManager;
 import com.linkedin.pinot.core.io.writer.impl.FixedByteSingleValueMultiColWriter;
 import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
 import java.io.IOException;
@@ -30,6 +31,8 @@ import java.util.List;
  * It is very similar to the SingleColumnMultiValue format representation <br>
  * except that the variable size data buffer size is not known up front in case FixedByteSingleColumnMultiValueReaderWriter
  * This class allocates extra memory in chunks as needed.
+ * When constructed with a memory manager, the header is also allocated in chunks as rows are written, and all the
+ * buffers are allocated from (and released by) the memory manager.
  * Data format
  * <code>
  *  HEADER SECTION
@@ -66,48 +69,67 @@ public class FixedByteSingleColumnMultiValueReaderWriter extends BaseSingleColum
   private static final int AVERAGE_NUM_VALUES_PER_ROW = 10;//used to compute the initial size
   private static final int INCREMENT_PERCENTAGE = 100;//Increments the Initial size by 100% of initial capacity every time we runs out of capacity
 
-  private PinotDataBuffer headerBuffer;
+  // dataBufferId, startIndex, length of each row
+  private final FixedByteSingleColumnSingleValueReaderWriter[] headerReaderWriters =
+      new FixedByteSingleColumnSingleValueReaderWriter[NUM_COLS_IN_HEADER];
   private List<PinotDataBuffer> dataBuffers = new ArrayList<>();
-  private FixedByteSingleValueMultiColWriter headerWriter;
-  private FixedByteSingleValueMultiColReader headerReader;
   private List<FixedByteSingleValueMultiColWriter> dataWriters = new ArrayList<FixedByteSingleValueMultiColWriter>();
   private List<FixedByteSingleValueMultiColReader> dataReaders = new ArrayList<FixedByteSingleValueMultiColReader>();
   private FixedByteSingleValueMultiColWriter currentDataWriter;
   private int currentDataWriterIndex = -1;
   private int currentCapacity = 0;
-  private int headerSize;
   private int incrementalCapacity;
   private int columnSizeInBytes;
   private int maxNumberOfMultiValuesPerRow;
+  private RealtimeIndexOffHeapMemoryManager memoryManager;
+  private String context;
 
   public FixedByteSingleColumnMultiValueReaderWriter(int rows, int columnSizeInBytes, int maxNumberOfMultiValuesPerRow)
       throws IOException {
     int initialCapacity = Math.max(maxNumberOfMultiValuesPerRow, rows * AVERAGE_NUM_VALUES_PER_ROW);
     int incrementalCapacity =
         Math.max(maxNumberOfMultiValuesPerRow, (int) (initialCapacity * 1.0f * INCREMENT_PERCENTAGE / 100));
-    init(rows, columnSizeInBytes, maxNumberOfMultiValuesPerRow, initialCapacity, incrementalCapacity);
+    initHeader(rows);
+    init(columnSizeInBytes, maxNumberOfMultiValuesPerRow, initialCapacity, incrementalCapacity);
   }
 
   public FixedByteSingleColumnMultiValueReaderWriter(int rows, int columnSizeInBytes, int maxNumberOfMultiValuesPerRow,
       int initialCapacity, int incrementalCapacity) throws IOException {
-    init(rows, columnSizeInBytes, maxNumberOfMultiValuesPerRow, initialCapacity, incrementalCapacity);
+    initHeader(rows);
+    init(columnSizeInBytes, maxNumberOfMultiValuesPerRow, initialCapacity, incrementalCapacity);
+  }
+
+  /**
+   * Allocates memory from the given memory manager, by chunks of the given number of rows for the header.
+   *
+   * @param numRowsPerChunk number of rows per header chunk, must be a power of 2
+   * @param columnSizeInBytes
+   * @param maxNumberOfMultiValuesPerRow
+   * @param memoryManager memory manager to allocate the buffers from, which releases them
+   * @param context description of the index, for the memory-mapped files
+   */
+  public FixedByteSingleColumnMultiValueReaderWriter(int numRowsPerChunk, int columnSizeInBytes,
+      int maxNumberOfMultiValuesPerRow, RealtimeIndexOffHeapMemoryManager memoryManager, String context) {
+    this.memoryManager = memoryManager;
+    this.context = context;
+    for (int i = 0; i < NUM_COLS_IN_HEADER; i++) {
+      headerReaderWriters[i] = new FixedByteSingleColumnSingleValueReaderWriter(numRowsPerChunk, SIZE_OF_INT,
+          memoryManager, context + ".header" + i);
+    }
+    int capacity = Math.max(maxNumberOfMultiValuesPerRow, numRowsPerChunk * AVERAGE_NUM_VALUES_PER_ROW);
+    init(columnSizeInBytes, maxNumberOfMultiValuesPerRow, capacity, capacity);
+  }
 
+  private void initHeader(int rows) throws IOException {
+    for (int i = 0; i < NUM_COLS_IN_HEADER; i++) {
+      headerReaderWriters[i] = new FixedByteSingleColumnSingleValueReaderWriter(rows, SIZE_OF_INT);
+    }
   }
 
-  private void init(int rows, int columnSizeInBytes, int maxNumberOfMultiValuesPerRow, int initialCapacity,
-      int incrementalCapacity) throws IOException {
+  private void init(int columnSizeInBytes, int maxNumberOfMultiValuesPerRow, int initialCapacity,
+      int incrementalCapacity) {
     this.columnSizeInBytes = columnSizeInBytes;
     this.maxNumberOfMultiValuesPerRow = maxNumberOfMultiValuesPerRow;
-    headerSize = rows * SIZE_OF_INT * NUM_COLS_IN_HEADER;
-    headerBuffer = PinotDataBuffer.allocateDirect(headerSize);
-//    headerBuffer.order(ByteOrder.nativeOrder());
-    //dataBufferId, startIndex, length
-    headerWriter =
-        new FixedByteSingleValueMultiColWriter(headerBuffer, rows, 3,
-            new int[] { SIZE_OF_INT, SIZE_OF_INT, SIZE_OF_INT });
-    headerReader =
-        new FixedByteSingleValueMultiColReader(headerBuffer, rows, 3,
-            new int[] { SIZE_OF_INT, SIZE_OF_INT, SIZE_OF_INT });
     //at least create space for million entries, which for INT translates into 4mb buffer
     this.incrementalCapacity = incrementalCapacity;
     addCapacity(initialCapacity);
@@ -121,7 +143,12 @@ public class FixedByteSingleColumnMultiValueReaderWriter extends BaseSingleColum
   private void addCapacity(int rowCapacity) throws RuntimeException {
     PinotDataBuffer dataBuffer;
     try {
-      dataBuffer = PinotDataBuffer.allocateDirect(rowCapacity * columnSizeInBytes);
+      long dataBufferSize = (long) rowCapacity * columnSizeInBytes;
+      if (memoryManager == null) {
+        dataBuffer = PinotDataBuffer.allocateDirect(dataBufferSize);
+      } else {
+        dataBuffer = memoryManager.allocate(dataBufferSize, context + ".data" + dataBuffers.size());
+      }
       //dataBuffer.order(ByteOrder.nativeOrder());
       dataBuffers.add(dataBuffer);
       currentDataWriter =
@@ -146,8 +173,13 @@ public class FixedByteSingleColumnMultiValueReaderWriter extends BaseSingleColum
       dataBuffer.close();
     }
     dataBuffers.clear();
-    headerBuffer.close();
-    headerBuffer = null;
+    for (FixedByteSingleColumnSingleValueReaderWriter headerReaderWriter : headerReaderWriters) {
+      try {
+        headerReaderWriter.close();
+      } catch (IOException e) {
+        throw new RuntimeException("Error while closing the header", e);
+      }
+    }
   }
 
   private int updateHeader(int row, int length) {
@@ -155,8 +187,8 @@ public class FixedByteSingleColumnMultiValueReaderWriter extends BaseSingleColum
     int prevRowStartIndex = 0;
     int prevRowLength = 0;
     if (row > 0) {
-      prevRowStartIndex = headerReader.getInt(row - 1, 1);
-      prevRowLength = headerReader.getInt(row - 1, 2);
+      prevRowStartIndex = headerReaderWriters[1].getInt(row - 1);
+      prevRowLength = headerReaderWriters[2].getInt(row - 1);
     }
     int newStartIndex = prevRowStartIndex + prevRowLength;
     if (newStartIndex + length > currentCapacity) {
@@ -165,9 +197,9 @@ public class FixedByteSingleColumnMultiValueReaderWriter extends BaseSingleColum
       prevRowLength = 0;
       newStartIndex = prevRowStartIndex + prevRowLength;
     }
-    headerWriter.setInt(row, 0, currentDataWriterIndex);
-    headerWriter.setInt(row, 1, newStartIndex);
-    headerWriter.setInt(row, 2, length);
+    headerReaderWriters[0].setInt(row, currentDataWriterIndex);
+    headerReaderWriters[1].setInt(row, newStartIndex);
+    headerReaderWriters[2].setInt(row, length);
     return newStartIndex;
   }
 
@@ -238,9 +270,9 @@ public class FixedByteSingleColumnMultiValueReaderWriter extends BaseSingleColum
 
   @Override
   public int getCharArray(int row, char[] charArray) {
-    int bufferIndex = headerReader.getInt(row, 1);
-    int startIndex = headerReader.getInt(row, 1);
-    int length = headerReader.getInt(row, 2);
+    int bufferIndex = headerReaderWriters[0].getInt(row);
+    int startIndex = headerReaderWriters[1].getInt(row);
+    int length = headerReaderWriters[2].getInt(row);
     FixedByteSingleValueMultiColReader dataReader = dataReaders.get(bufferIndex);
     for (int i = 0; i < length; i++) {
       charArray[i] = dataReader.getChar(startIndex + i, 0);
@@ -250,9 +282,9 @@ public class FixedByteSingleColumnMultiValueReaderWriter extends BaseSingleColum
 
   @Override
   public int getShortArray(int row, short[] shortsArray) {
-    int bufferIndex = headerReader.getInt(row, 1);
-    int startIndex = headerReader.getInt(row, 1);
-    int length = headerReader.getInt(row, 2);
+    int bufferIndex = headerReaderWriters[0].getInt(row);
+    int startIndex = headerReaderWriters[1].getInt(row);
+    int length = headerReaderWriters[2].getInt(row);
     FixedByteSingleValueMultiColReader dataReader = dataReaders.get(bufferIndex);
     for (int i = 0; i < length; i++) {
       shortsArray[i] = dataReader.getShort(startIndex + i, 0);
@@ -262,9 +294,9 @@ public class FixedByteSingleColumnMultiValueReaderWriter extends BaseSingleColum
 
   @Override
   public int getIntArray(int row, int[] intArray) {
-    int bufferIndex = headerReader.getInt(row, 0);
-    int startIndex = headerReader.getInt(row, 1);
-    int length = headerReader.getInt(row, 2);
+    int bufferIndex = headerReaderWriters[0].getInt(row);
+    int startIndex = headerReaderWriters[1].getInt(row);
+    int length = headerReaderWriters[2].getInt(row);
     FixedByteSingleValueMultiColReader dataReader = dataReaders.get(bufferIndex);
     for (int i = 0; i < length; i++) {
       intArray[i] = dataReader.getInt(startIndex + i, 0);
@@ -274,9 +306,9 @@ public class FixedByteSingleColumnMultiValueReaderWriter extends BaseSingleColum
 
   @Override
   public int getLongArray(int row, long[] longArray) {
-    int bufferIndex = headerReader.getInt(row, 0);
-    int startIndex = headerReader.getInt(row, 1);
-    int length = headerReader.getInt(row, 2);
+    int bufferIndex = headerReaderWriters[0].getInt(row);
+    int startIndex = headerReaderWriters[1].getInt(row);
+    int length = headerReaderWriters[2].getInt(row);
     FixedByteSingleValueMultiColReader dataReader = dataReaders.get(bufferIndex);
     for (int i = 0; i < length; i++) {
       longArray[i] = dataReader.getLong(startIndex + i, 0);
@@ -286,9 +318,9 @@ public class FixedByteSingleColumnMultiValueReaderWriter extends BaseSingleColum
 
   @Override
   public int getFloatArray(int row, float[] floatArray) {
-    int bufferIndex = headerReader.getInt(row, 1);
-    int startIndex = headerReader.getInt(row, 1);
-    int length = headerReader.getInt(row, 2);
+    int bufferIndex = headerReaderWriters[0].getInt(row);
+    int startIndex = headerReaderWriters[1].getInt(row);
+    int length = headerReaderWriters[2].getInt(row);
     FixedByteSingleValueMultiColReader dataReader = dataReaders.get(bufferIndex);
     for (int i = 0; i < length; i++) {
       floatArray[i] = dataReader.getFloat(startIndex + i, 0);
@@ -298,9 +330,9 @@ public class FixedByteSingleColumnMultiValueReaderWriter extends BaseSingleColum
 
   @Override
   public int getDoubleArray(int row, double[] doubleArray) {
-    int bufferIndex = headerReader.getInt(row, 1);
-    int startIndex = headerReader.getInt(row, 1);
-    int length = headerReader.getInt(row, 2);
+    int bufferIndex = headerReaderWriters[0].getInt(row);
+    int startIndex = headerReaderWriters[1].getInt(row);
+    int length = headerReaderWriters[2].getInt(row);
     FixedByteSingleValueMultiColReader dataReader = dataReaders.get(bufferIndex);
     for (int i = 0; i < length; i++) {
       doubleArray[i] = dataReader.getDouble(startIndex + i, 0);
@@ -310,9 +342,9 @@ public class FixedByteSingleColumnMultiValueReaderWriter extends BaseSingleColum
 
   @Override
   public int getStringArray(int row, String[] stringArray) {
-    int bufferIndex = headerReader.getInt(row, 1);
-    int startIndex = headerReader.getInt(row, 1);
-    int length = headerReader.getInt(row, 2);
+    int bufferIndex = headerReaderWriters[0].getInt(row);
+    int startIndex = headerReaderWriters[1].getInt(row);
+    int length = headerReaderWriters[2].getInt(row);
     FixedByteSingleValueMultiColReader dataReader = dataReaders.get(bufferIndex);
     for (int i = 0; i < length; i++) {
       stringArray[i] = dataReader.getString(startIndex + i, 0);
@@ -322,9 +354,9 @@ public class FixedByteSingleColumnMultiValueReaderWriter extends BaseSingleColum
 
   @Override
   public int getBytesArray(int row, byte[][] bytesArray) {
-    int bufferIndex = headerReader.getInt(row, 1);
-    int startIndex = headerReader.getInt(row, 1);
-    int length = headerReader.getInt(row, 2);
+    int bufferIndex = headerReaderWriters[0].getInt(row);
+    int startIndex = headerReaderWriters[1].getInt(row);
+    int length = headerReaderWriters[2].getInt(row);
     FixedByteSingleValueMultiColReader dataReader = dataReaders.get(bufferIndex);
     for (int i = 0; i < length; i++) {
       bytesArray[i] = dataReader.getBytes(startIndex + i, 0);
@@ -15,142 +15,245 @@
  */
 package com.linkedin.pinot.core.io.readerwriter.impl;
 
+import com.google.common.base.Preconditions;
 import com.linkedin.pinot.core.io.reader.impl.FixedByteSingleValueMultiColReader;
 import com.linkedin.pinot.core.io.readerwriter.BaseSingleColumnSingleValueReaderWriter;
+import com.linkedin.pinot.core.io.readerwriter.RealtimeIndexOffHeapMemoryManager;
 import com.linkedin.pinot.core.io.writer.impl.FixedByteSingleValueMultiColWriter;
 import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
 import java.io.IOException;
+import java.util.Arrays;
 
 
+/**
+ * Fixed byte single-value forward index supporting both reads and writes.
+ * <p>Rows are stored in fixed size chunks of off-heap memory. When constructed with a memory manager, chunks are
+ * allocated from it as rows are written instead of being pre-allocated for the max number of rows, and are released
+ * by the memory manager. Supports one writer thread and multiple reader threads, which only read rows already
+ * written.
+ */
 public class FixedByteSingleColumnSingleValueReaderWriter extends BaseSingleColumnSingleValueReaderWriter {
+  private final int[] _columnSizesInBytes;
+  private final int _rowSize;
+  private final int _numRowsPerChunk;
+  private final int _chunkShift;
+  private final int _rowMask;
+  private final RealtimeIndexOffHeapMemoryManager _memoryManager;
+  private final String _context;
 
-  FixedByteSingleValueMultiColReader reader;
-  FixedByteSingleValueMultiColWriter writer;
-  private int cols;
-  private int[] colOffSets;
-  private int rowSize;
-  private PinotDataBuffer _buffer;
+  // Chunks are only appended by the writer thread, arrays are replaced (never modified) once published.
+  private volatile FixedByteSingleValueMultiColReader[] _readers = new FixedByteSingleValueMultiColReader[0];
+  private FixedByteSingleValueMultiColWriter[] _writers = new FixedByteSingleValueMultiColWriter[0];
+  private PinotDataBuffer[] _buffers = new PinotDataBuffer[0];
 
   public FixedByteSingleColumnSingleValueReaderWriter(int rows, int columnSizesInBytes) throws IOException {
     this(rows, new int[]{columnSizesInBytes});
   }
+
   /**
+   * Pre-allocates direct memory for the given number of rows.
    *
    * @param rows
    * @param columnSizesInBytes
    */
   public FixedByteSingleColumnSingleValueReaderWriter(int rows, int[] columnSizesInBytes) throws IOException {
-    this.cols = 1;
-    colOffSets = new int[columnSizesInBytes.length];
-    rowSize = 0;
-    for (int i = 0; i < columnSizesInBytes.length; i++) {
-      colOffSets[i] = rowSize;
-      rowSize += columnSizesInBytes[i];
+    _columnSizesInBytes = columnSizesInBytes;
+    _rowSize = getRowSize(columnSizesInBytes);
+    _numRowsPerChunk = rows;
+    // All the rows are in the first chunk.
+    _chunkShift = 32 - Integer.numberOfLeadingZeros(Math.max(rows - 1, 1));
+    _rowMask = (1 << _chunkShift) - 1;
+    _memoryManager = null;
+    _context = null;
+    addChunk();
+  }
+
+  /**
+   * Allocates memory from the given memory manager by chunks of the given number of rows, as rows are written.
+   *
+   * @param numRowsPerChunk number of rows per chunk, must be a power of 2
+   * @param columnSizeInBytes
+   * @param memoryManager memory manager to allocate the chunks from, which releases them
+   * @param context description of the index, for the memory-mapped files
+   */
+  public FixedByteSingleColumnSingleValueReaderWriter(int numRowsPerChunk, int columnSizeInBytes,
+      RealtimeIndexOffHeapMemoryManager memoryManager, String context) {
+    Preconditions.checkArgument(numRowsPerChunk > 0 && Integer.bitCount(numRowsPerChunk) == 1,
+        "Number of rows per chunk: %s must be a power of 2", numRowsPerChunk);
+    _columnSizesInBytes = new int[]{columnSizeInBytes};
+    _rowSize = columnSizeInBytes;
+    _numRowsPerChunk = numRowsPerChunk;
+    _chunkShift = Integer.numberOfTrailingZeros(numRowsPerChunk);
+    _rowMask = numRowsPerChunk - 1;
+    _memoryManager = memoryManager;
+    _context = context;
+  }
+
+  private static int getRowSize(int[] columnSizesInBytes) {
+    int rowSize = 0;
+    for (int columnSizeInBytes : columnSizesInBytes) {
+      rowSize += columnSizeInBytes;
+    }
+    return rowSize;
+  }
+
+  private void addChunk() {
+    long chunkSize = (long) _rowSize * _numRowsPerChunk;
+    PinotDataBuffer buffer;
+    if (_memoryManager == null) {
+      buffer = PinotDataBuffer.allocateDirect(chunkSize);
+    } else {
+      buffer = _memoryManager.allocate(chunkSize, _context + ".chunk" + _buffers.length);
+    }
+    int numChunks = _buffers.length;
+    _buffers = Arrays.copyOf(_buffers, numChunks + 1);
+    _buffers[numChunks] = buffer;
+    _writers = Arrays.copyOf(_writers, numChunks + 1);
+    try {
+      _writers[numChunks] = new FixedByteSingleValueMultiColWriter(buffer, _numRowsPerChunk, 1, _columnSizesInBytes);
+    } catch (IOException e) {
+      throw new RuntimeException("Error while adding chunk: " + numChunks, e);
     }
-    final int totalSize = rowSize * rows;
-    _buffer = PinotDataBuffer.allocateDirect(totalSize);
-    //_buffer.order(ByteOrder.nativeOrder());
-    reader = new FixedByteSingleValueMultiColReader(_buffer, rows, cols, columnSizesInBytes);
-    writer = new FixedByteSingleValueMultiColWriter(_buffer, rows, cols, columnSizesInBytes);
+    FixedByteSingleValueMultiColReader[] readers = Arrays.copyOf(_readers, numChunks + 1);
+    readers[numChunks] = new FixedByteSingleValueMultiColReader(buffer, _numRowsPerChunk, 1, _columnSizesInBytes);
+    _readers = readers;
+  }
+
+  private FixedByteSingleValueMultiColWriter getWriter(int row) {
+    int chunkId = row >>> _chunkShift;
+    while (chunkId >= _writers.length) {
+      addChunk();
+    }
+    return _writers[chunkId];
+  }
+
+  private FixedByteSingleValueMultiColReader getReader(int row) {
+    return _readers[row >>> _chunkShift];
+  }
+
+  /**
+   * Returns the number of bytes of the allocated chunks.
+   */
+  public long getAllocatedSize() {
+    return (long) _rowSize * _numRowsPerChunk * _buffers.length;
   }
 
   @Override
   public void close() throws IOException {
-    reader.close();
-    reader = null;
-    writer.close();
-    writer = null;
-    _buffer.close();
-    _buffer = null;
+    // Closing the readers and writers releases the chunks (chunks allocated from a memory manager are released
+    // again, without effect, when it is closed).
+    for (FixedByteSingleValueMultiColReader reader : _readers) {
+      reader.close();
+    }
+    _readers = new FixedByteSingleValueMultiColReader[0];
+    for (FixedByteSingleValueMultiColWriter writer : _writers) {
+      writer.close();
+    }
+    _writers = new FixedByteSingleValueMultiColWriter[0];
+    _buffers = new PinotDataBuffer[0];
   }
 
   @Override
   public void setChar(int row, char ch) {
-    writer.setChar(row, 0, ch);
+    getWriter(row).setChar(row & _rowMask, 0, ch);
   }
 
   @Override
   public void setInt(int row, int i) {
-    writer.setInt(row, 0, i);
+    getWriter(row).setInt(row & _rowMask, 0, i);
+  }
 
+  /**
+   * Sets the int values of the <code>numValues</code> rows starting at <code>startRow</code>.
+   */
+  public void setIntValues(int startRow, int[] values, int numValues) {
+    for (int i = 0; i < numValues; i++) {
+      int row = startRow + i;
+      getWriter(row).setInt(row & _rowMask, 0, values[i]);
+    }
   }
 
   @Override
   public void setShort(int row, short s) {
-    writer.setShort(row, 0, s);
-
+    getWriter(row).setShort(row & _rowMask, 0, s);
   }
 
   @Override
   public void setLong(int row, long l) {
-    writer.setLong(row, 0, l);
-
+    getWriter(row).setLong(row & _rowMask, 0, l);
   }
 
   @Override
   public void setFloat(int row, float f) {
-    writer.setFloat(row, 0, f);
-
+    getWriter(row).setFloat(row & _rowMask, 0, f);
   }
 
   @Override
   public void setDouble(int row, double d) {
-    writer.setDouble(row, 0, d);
-
+    getWriter(row).setDouble(row & _rowMask, 0, d);
   }
 
   @Override
   public void setString(int row, String string) {
-    writer.setString(row, 0, string);
+    getWriter(row).setString(row & _rowMask, 0, string);
   }
 
   @Override
   public void setBytes(int row, byte[] bytes) {
-    writer.setBytes(row, 0, bytes);
+    getWriter(row).setBytes(row & _rowMask, 0, bytes);
   }
 
   @Override
   public char getChar(int row) {
-    return reader.getChar(row, 0);
+    return getReader(row).getChar(row & _rowMask, 0);
   }
 
   @Override
   public short getShort(int row) {
-    return reader.getShort(row, 0);
+    return getReader(row).getShort(row & _rowMask, 0);
   }
 
   @Override
   public int getInt(int row) {
-    return reader.getInt(row, 0);
+    return getReader(row).getInt(row & _rowMask, 0);
   }
 
   @Override
   public long getLong(int row) {
-    return reader.getLong(row, 0);
+    return getReader(row).getLong(row & _rowMask, 0);
   }
 
   @Override
   public float getFloat(int row) {
-    return reader.getFloat(row, 0);
+    return getReader(row).getFloat(row & _rowMask, 0);
   }
 
   @Override
   public double getDouble(int row) {
-    return reader.getDouble(row, 0);
+    return getReader(row).getDouble(row & _rowMask, 0);
   }
 
   @Override
   public String getString(int row) {
-    return reader.getString(row, 0);
+    return getReader(row).getString(row & _rowMask, 0);
   }
 
   @Override
   public byte[] getBytes(int row) {
-    return reader.getBytes(row, 0);
+    return getReader(row).getBytes(row & _rowMask, 0);
   }
 
   @Override
   public void readValues(int[] rows, int rowStartPos, int rowSize, int[] values, int valuesStartPos) {
-    reader.readIntValues(rows, 0, rowStartPos, rowSize, values, valuesStartPos);
+    FixedByteSingleValueMultiColReader[] readers = _readers;
+    if (readers.length == 1) {
+      readers[0].readIntValues(rows, 0, rowStartPos, rowSize, values, valuesStartPos);
+      return;
+    }
+    int rowEndPos = rowStartPos + rowSize;
+    for (int i = rowStartPos; i < rowEndPos; i++) {
+      int row = rows[i];
+      values[valuesStartPos++] = readers[row >>> _chunkShift].getInt(row & _rowMask, 0);
+    }
   }
 }
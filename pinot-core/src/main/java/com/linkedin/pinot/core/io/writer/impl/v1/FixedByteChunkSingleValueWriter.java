@@ -94,6 +94,21 @@ public class FixedByteChunkSingleValueWriter extends BaseChunkSingleValueWriter
     flushChunkIfNeeded();
   }
 
+  @Override
+  public void close()
+      throws IOException {
+
+    // Write the chunk if it is non-empty. Values are written with absolute puts, so the buffer position is not moved.
+    if (_chunkDataOffset > 0) {
+      writeChunk();
+    }
+
+    // Write the header and close the file.
+    _header.flip();
+    _dataFile.write(_header, 0);
+    _dataFile.close();
+  }
+
   private void flushChunkIfNeeded() {
     // If buffer filled, then compress and write to file.
     if (_chunkDataOffset == _chunkSize) {
@@ -22,9 +22,17 @@ import com.linkedin.pinot.core.common.BlockId;
 import com.linkedin.pinot.core.common.Constants;
 import com.linkedin.pinot.core.common.Operator;
 import com.linkedin.pinot.core.operator.blocks.DocIdSetBlock;
+import com.linkedin.pinot.core.operator.docidsets.AndBlockDocIdSet;
+import com.linkedin.pinot.core.operator.docidsets.CompositeFilterBlockDocIdSet;
 import com.linkedin.pinot.core.operator.docidsets.FilterBlockDocIdSet;
+import com.linkedin.pinot.core.operator.docidsets.OrBlockDocIdSet;
+import com.linkedin.pinot.core.operator.docidsets.ScanBasedMultiValueDocIdSet;
+import com.linkedin.pinot.core.operator.docidsets.ScanBasedSingleValueDocIdSet;
 import com.linkedin.pinot.core.operator.filter.BaseFilterOperator;
 import com.linkedin.pinot.core.plan.DocIdSetPlanNode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * BReusableFilteredDocIdSetOperator will take a filter Operator and get the matched docId set.
@@ -105,6 +113,45 @@ public class BReusableFilteredDocIdSetOperator extends BaseOperator {
 
   @Override
   public ExecutionStatistics getExecutionStatistics() {
-    return new ExecutionStatistics(0L, _filterBlockDocIdSet.getNumEntriesScannedInFilter(), 0L, 0L);
+    ExecutionStatistics executionStatistics =
+        new ExecutionStatistics(0L, _filterBlockDocIdSet.getNumEntriesScannedInFilter(), 0L, 0L);
+    Map<String, Long> numEntriesScannedInFilterPerColumn = new HashMap<>();
+    addNumEntriesScannedInFilter(_filterBlockDocIdSet, numEntriesScannedInFilterPerColumn);
+    executionStatistics.setNumEntriesScannedInFilterPerColumn(numEntriesScannedInFilterPerColumn);
+    return executionStatistics;
+  }
+
+  /**
+   * Walks the filter doc id set tree and accumulates the number of entries scanned by each scan based filter.
+   */
+  private static void addNumEntriesScannedInFilter(FilterBlockDocIdSet filterBlockDocIdSet,
+      Map<String, Long> numEntriesScannedInFilterPerColumn) {
+    String column;
+    if (filterBlockDocIdSet instanceof ScanBasedSingleValueDocIdSet) {
+      column = ((ScanBasedSingleValueDocIdSet) filterBlockDocIdSet).getDatasourceName();
+    } else if (filterBlockDocIdSet instanceof ScanBasedMultiValueDocIdSet) {
+      column = ((ScanBasedMultiValueDocIdSet) filterBlockDocIdSet).getDatasourceName();
+    } else {
+      List<FilterBlockDocIdSet> children = null;
+      if (filterBlockDocIdSet instanceof AndBlockDocIdSet) {
+        children = ((AndBlockDocIdSet) filterBlockDocIdSet).getDocIdSets();
+      } else if (filterBlockDocIdSet instanceof OrBlockDocIdSet) {
+        children = ((OrBlockDocIdSet) filterBlockDocIdSet).getDocIdSets();
+      } else if (filterBlockDocIdSet instanceof CompositeFilterBlockDocIdSet) {
+        children = ((CompositeFilterBlockDocIdSet) filterBlockDocIdSet).getDocIdSets();
+      }
+      if (children != null) {
+        for (FilterBlockDocIdSet child : children) {
+          addNumEntriesScannedInFilter(child, numEntriesScannedInFilterPerColumn);
+        }
+      }
+      return;
+    }
+    long numEntriesScanned = filterBlockDocIdSet.getNumEntriesScannedInFilter();
+    Long previous = numEntriesScannedInFilterPerColumn.get(column);
+    if (previous != null) {
+      numEntriesScanned += previous;
+    }
+    numEntriesScannedInFilterPerColumn.put(column, numEntriesScanned);
   }
 }
@@ -15,6 +15,10 @@
  */
 package com.linkedin.pinot.core.operator;
 
+import java.util.HashMap;
+import java.util.Map;
+
+
 /**
  * The <code>ExecutionStatistics</code> class contains the operator statistics during execution time.
  */
@@ -23,6 +27,8 @@ public class ExecutionStatistics {
   private long _numEntriesScannedInFilter;
   private long _numEntriesScannedPostFilter;
   private long _numTotalRawDocs;
+  // Number of entries scanned by each scan based filter, keyed by column name
+  private Map<String, Long> _numEntriesScannedInFilterPerColumn = new HashMap<>();
 
   public ExecutionStatistics() {
   }
@@ -51,6 +57,14 @@ public class ExecutionStatistics {
     return _numTotalRawDocs;
   }
 
+  public Map<String, Long> getNumEntriesScannedInFilterPerColumn() {
+    return _numEntriesScannedInFilterPerColumn;
+  }
+
+  public void setNumEntriesScannedInFilterPerColumn(Map<String, Long> numEntriesScannedInFilterPerColumn) {
+    _numEntriesScannedInFilterPerColumn = numEntriesScannedInFilterPerColumn;
+  }
+
   /**
    * Merge another execution statistics into the current one.
    *
@@ -61,6 +75,15 @@ public class ExecutionStatistics {
     _numEntriesScannedInFilter += executionStatisticsToMerge._numEntriesScannedInFilter;
     _numEntriesScannedPostFilter += executionStatisticsToMerge._numEntriesScannedPostFilter;
     _numTotalRawDocs += executionStatisticsToMerge._numTotalRawDocs;
+    for (Map.Entry<String, Long> entry : executionStatisticsToMerge._numEntriesScannedInFilterPerColumn.entrySet()) {
+      String column = entry.getKey();
+      Long numEntriesScanned = _numEntriesScannedInFilterPerColumn.get(column);
+      if (numEntriesScanned == null) {
+        _numEntriesScannedInFilterPerColumn.put(column, entry.getValue());
+      } else {
+        _numEntriesScannedInFilterPerColumn.put(column, numEntriesScanned + entry.getValue());
+      }
+    }
   }
 
   @Override
@@ -68,6 +91,7 @@ public class ExecutionStatistics {
     return "Execution Statistics:"
         + "\n  numDocsScanned: " + _numDocsScanned
         + "\n  numEntriesScannedInFilter: " + _numEntriesScannedInFilter
+        + "\n  numEntriesScannedInFilterPerColumn: " + _numEntriesScannedInFilterPerColumn
         + "\n  numEntriesScannedPostFilter: " + _numEntriesScannedPostFilter
         + "\n  numTotalRawDocs: " + _numTotalRawDocs;
   }
@@ -30,6 +30,7 @@ import com.linkedin.pinot.core.operator.aggregation.groupby.AggregationGroupByTr
 import com.linkedin.pinot.core.operator.aggregation.groupby.GroupKeyGenerator;
 import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
 import com.linkedin.pinot.core.util.trace.TraceRunnable;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -68,6 +69,7 @@ public class MCombineGroupByOperator extends BaseOperator {
   private final ExecutorService _executorService;
   private final BrokerRequest _brokerRequest;
   private final long _timeOutMs;
+  private final int _numPartitions;
 
   /**
    * Constructor for the class.
@@ -80,12 +82,30 @@ public class MCombineGroupByOperator extends BaseOperator {
    */
   public MCombineGroupByOperator(List<Operator> operators, ExecutorService executorService, long timeOutMs,
       BrokerRequest brokerRequest) {
+    this(operators, executorService, timeOutMs, brokerRequest, 0);
+  }
+
+  /**
+   * Constructor for the class.
+   * - When number of partitions is positive, group keys are hash-partitioned and each partition is merged by a single
+   *   owner thread without any locking.
+   * - Otherwise, group keys are merged into a shared map with striped locks.
+   *
+   * @param operators List of operators, whose result needs to be combined.
+   * @param executorService Executor service to use for multi-threaded portions of combine.
+   * @param timeOutMs Timeout for combine.
+   * @param brokerRequest BrokerRequest corresponding to the query.
+   * @param numPartitions Number of group key partitions, non-positive value to use the striped-lock combine.
+   */
+  public MCombineGroupByOperator(List<Operator> operators, ExecutorService executorService, long timeOutMs,
+      BrokerRequest brokerRequest, int numPartitions) {
     Preconditions.checkArgument(brokerRequest.isSetAggregationsInfo() && brokerRequest.isSetGroupBy());
 
     _operators = operators;
     _executorService = executorService;
     _brokerRequest = brokerRequest;
     _timeOutMs = timeOutMs;
+    _numPartitions = numPartitions;
   }
 
   /**
@@ -115,7 +135,11 @@ public class MCombineGroupByOperator extends BaseOperator {
   @Override
   public Block getNextBlock() {
     try {
-      return combineBlocks();
+      if (_numPartitions > 0) {
+        return combineBlocksPartitioned();
+      } else {
+        return combineBlocks();
+      }
     } catch (InterruptedException e) {
       LOGGER.error("InterruptedException caught while executing CombineGroupBy", e);
       return new IntermediateResultsBlock(QueryException.COMBINE_GROUP_BY_EXCEPTION_ERROR, e);
@@ -221,6 +245,168 @@ public class MCombineGroupByOperator extends BaseOperator {
     AggregationGroupByTrimmingService aggregationGroupByTrimmingService =
         new AggregationGroupByTrimmingService(aggregationFunctionContexts, (int) _brokerRequest.getGroupBy().getTopN());
     List<Map<String, Object>> trimmedResults = aggregationGroupByTrimmingService.trimIntermediateResultsMap(resultsMap);
+
+    return buildMergedBlock(aggregationFunctionContexts, trimmedResults, mergedProcessingExceptions);
+  }
+
+  /**
+   * This method combines the result blocks from underlying operators by hash-partitioning the group keys, so that no
+   * locking is needed while merging.
+   * 1. Result blocks from underlying operators are computed concurrently. Each thread scatters the group-by results of
+   *   its own block into one buffer per partition, based on the hash of the group key.
+   *
+   * 2. Once all the blocks are scattered, each partition is merged by a single owner thread into its own open
+   *    addressing map. Partitions have disjoint group keys, so no synchronization is required.
+   *
+   * 3. The partition maps are then trimmed together as per 'TOP N' in the brokerRequest.
+   *
+   * @return IntermediateResultBlock containing the final results from combine operation.
+   */
+  private IntermediateResultsBlock combineBlocksPartitioned()
+      throws InterruptedException {
+    long endTimeMs = System.currentTimeMillis() + _timeOutMs;
+    final int numOperators = _operators.size();
+    final int numPartitions = _numPartitions;
+    final CountDownLatch operatorLatch = new CountDownLatch(numOperators);
+    final GroupByPartitionBuffer[][] partitionBuffers = new GroupByPartitionBuffer[numOperators][];
+    final ConcurrentLinkedQueue<ProcessingException> mergedProcessingExceptions = new ConcurrentLinkedQueue<>();
+
+    List<AggregationInfo> aggregationInfos = _brokerRequest.getAggregationsInfo();
+    final AggregationFunctionContext[] aggregationFunctionContexts =
+        AggregationFunctionUtils.getAggregationFunctionContexts(aggregationInfos, null);
+    final int numAggregationFunctions = aggregationFunctionContexts.length;
+
+    // Compute the result blocks and scatter the group-by results into partition buffers.
+    for (int i = 0; i < numOperators; i++) {
+      final int index = i;
+
+      _executorService.execute(new TraceRunnable() {
+        @Override
+        public void runJob() {
+          try {
+            IntermediateResultsBlock intermediateResultsBlock =
+                (IntermediateResultsBlock) _operators.get(index).nextBlock();
+
+            // Merge processing exceptions.
+            List<ProcessingException> processingExceptionsToMerge = intermediateResultsBlock.getProcessingExceptions();
+            if (processingExceptionsToMerge != null) {
+              mergedProcessingExceptions.addAll(processingExceptionsToMerge);
+            }
+
+            // Scatter aggregation group-by result.
+            AggregationGroupByResult aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
+            if (aggregationGroupByResult != null) {
+              GroupByPartitionBuffer[] buffers = new GroupByPartitionBuffer[numPartitions];
+              Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+              while (groupKeyIterator.hasNext()) {
+                GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+                String groupKeyString = groupKey.getStringKey();
+                Object[] results = new Object[numAggregationFunctions];
+                for (int j = 0; j < numAggregationFunctions; j++) {
+                  results[j] = aggregationGroupByResult.getResultForKey(groupKey, j);
+                }
+
+                // HashCode method might return negative value, make it non-negative
+                int partitionId = (groupKeyString.hashCode() & Integer.MAX_VALUE) % numPartitions;
+                GroupByPartitionBuffer buffer = buffers[partitionId];
+                if (buffer == null) {
+                  buffer = new GroupByPartitionBuffer();
+                  buffers[partitionId] = buffer;
+                }
+                buffer.add(groupKeyString, results);
+              }
+              partitionBuffers[index] = buffers;
+            }
+          } catch (Exception e) {
+            LOGGER.error("Exception processing CombineGroupBy for index {}, operator {}", index,
+                _operators.get(index).getClass().getName(), e);
+            mergedProcessingExceptions.add(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, e));
+          }
+
+          operatorLatch.countDown();
+        }
+      });
+    }
+
+    boolean opCompleted = operatorLatch.await(endTimeMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    if (!opCompleted) {
+      // If this happens, the broker side should already timed out, just log the error in server side.
+      LOGGER.error("Timed out while combining group-by results, after {}ms.", _timeOutMs);
+      return new IntermediateResultsBlock(new TimeoutException("CombineGroupBy timed out."));
+    }
+
+    // Merge each partition on its owner thread.
+    final CountDownLatch partitionLatch = new CountDownLatch(numPartitions);
+    final List<Map<String, Object[]>> partitionResultsMaps = new ArrayList<>(numPartitions);
+    for (int i = 0; i < numPartitions; i++) {
+      partitionResultsMaps.add(null);
+    }
+    for (int i = 0; i < numPartitions; i++) {
+      final int partitionId = i;
+
+      _executorService.execute(new TraceRunnable() {
+        @Override
+        public void runJob() {
+          try {
+            Object2ObjectOpenHashMap<String, Object[]> resultsMap = new Object2ObjectOpenHashMap<>();
+            for (GroupByPartitionBuffer[] buffers : partitionBuffers) {
+              if (buffers == null || buffers[partitionId] == null) {
+                continue;
+              }
+              GroupByPartitionBuffer buffer = buffers[partitionId];
+              int numGroupKeys = buffer.size();
+              for (int j = 0; j < numGroupKeys; j++) {
+                String groupKeyString = buffer.getGroupKey(j);
+                Object[] resultsToMerge = buffer.getResults(j);
+                Object[] results = resultsMap.get(groupKeyString);
+                if (results == null) {
+                  resultsMap.put(groupKeyString, resultsToMerge);
+                } else {
+                  for (int k = 0; k < numAggregationFunctions; k++) {
+                    results[k] = aggregationFunctionContexts[k].getAggregationFunction()
+                        .merge(results[k], resultsToMerge[k]);
+                  }
+                }
+              }
+            }
+            partitionResultsMaps.set(partitionId, resultsMap);
+          } catch (Exception e) {
+            LOGGER.error("Exception merging CombineGroupBy partition {}", partitionId, e);
+            mergedProcessingExceptions.add(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, e));
+          }
+
+          partitionLatch.countDown();
+        }
+      });
+    }
+
+    boolean partitionsCompleted = partitionLatch.await(endTimeMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    if (!partitionsCompleted) {
+      LOGGER.error("Timed out while merging group-by partitions, after {}ms.", _timeOutMs);
+      return new IntermediateResultsBlock(new TimeoutException("CombineGroupBy timed out."));
+    }
+
+    // Trim the partition results maps, group keys are disjoint across partitions.
+    List<Map<String, Object[]>> resultsMaps = new ArrayList<>(numPartitions);
+    for (Map<String, Object[]> partitionResultsMap : partitionResultsMaps) {
+      if (partitionResultsMap != null) {
+        resultsMaps.add(partitionResultsMap);
+      }
+    }
+    AggregationGroupByTrimmingService aggregationGroupByTrimmingService =
+        new AggregationGroupByTrimmingService(aggregationFunctionContexts, (int) _brokerRequest.getGroupBy().getTopN());
+    List<Map<String, Object>> trimmedResults =
+        aggregationGroupByTrimmingService.trimIntermediateResultsMaps(resultsMaps);
+
+    return buildMergedBlock(aggregationFunctionContexts, trimmedResults, mergedProcessingExceptions);
+  }
+
+  /**
+   * Helper method to build the merged result block from the trimmed results, and set the processing exceptions and
+   * execution statistics.
+   */
+  private IntermediateResultsBlock buildMergedBlock(AggregationFunctionContext[] aggregationFunctionContexts,
+      List<Map<String, Object>> trimmedResults, ConcurrentLinkedQueue<ProcessingException> mergedProcessingExceptions) {
     IntermediateResultsBlock mergedBlock =
         new IntermediateResultsBlock(aggregationFunctionContexts, trimmedResults, true);
 
@@ -239,12 +425,39 @@ public class MCombineGroupByOperator extends BaseOperator {
     }
     mergedBlock.setNumDocsScanned(executionStatistics.getNumDocsScanned());
     mergedBlock.setNumEntriesScannedInFilter(executionStatistics.getNumEntriesScannedInFilter());
+    mergedBlock.setNumEntriesScannedInFilterPerColumn(executionStatistics.getNumEntriesScannedInFilterPerColumn());
     mergedBlock.setNumEntriesScannedPostFilter(executionStatistics.getNumEntriesScannedPostFilter());
     mergedBlock.setNumTotalRawDocs(executionStatistics.getNumTotalRawDocs());
 
     return mergedBlock;
   }
 
+  /**
+   * Buffer for the group-by results of one operator that fall into one partition.
+   * <p>Written by the thread computing the operator, then read by the thread owning the partition.
+   */
+  private static class GroupByPartitionBuffer {
+    private final List<String> _groupKeys = new ArrayList<>();
+    private final List<Object[]> _results = new ArrayList<>();
+
+    void add(String groupKey, Object[] results) {
+      _groupKeys.add(groupKey);
+      _results.add(results);
+    }
+
+    int size() {
+      return _groupKeys.size();
+    }
+
+    String getGroupKey(int index) {
+      return _groupKeys.get(index);
+    }
+
+    Object[] getResults(int index) {
+      return _results.get(index);
+    }
+  }
+
   @Override
   public Block getNextBlock(BlockId blockId) {
     throw new UnsupportedOperationException();
@@ -189,6 +189,7 @@ public class MCombineOperator extends BaseOperator {
     }
     mergedBlock.setNumDocsScanned(executionStatistics.getNumDocsScanned());
     mergedBlock.setNumEntriesScannedInFilter(executionStatistics.getNumEntriesScannedInFilter());
+    mergedBlock.setNumEntriesScannedInFilterPerColumn(executionStatistics.getNumEntriesScannedInFilterPerColumn());
     mergedBlock.setNumEntriesScannedPostFilter(executionStatistics.getNumEntriesScannedPostFilter());
     mergedBlock.setNumTotalRawDocs(executionStatistics.getNumTotalRawDocs());
 
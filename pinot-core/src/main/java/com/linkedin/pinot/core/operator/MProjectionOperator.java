@@ -26,9 +26,11 @@ import org.slf4j.LoggerFactory;
 
 import com.linkedin.pinot.core.common.Block;
 import com.linkedin.pinot.core.common.BlockId;
+import com.linkedin.pinot.core.common.BlockValSet;
 import com.linkedin.pinot.core.common.DataSource;
 import com.linkedin.pinot.core.common.Operator;
 import com.linkedin.pinot.core.operator.blocks.ProjectionBlock;
+import com.linkedin.pinot.core.operator.docvalsets.ProjectionBlockValSet;
 
 
 /**
@@ -44,6 +46,7 @@ public class MProjectionOperator extends BaseOperator {
   private Map<String, Block> _blockMap;
   private DataBlockCache _dataBlockCache;
   private final DataFetcher _dataFetcher;
+  private final Map<String, BlockValSet> _blockValSetMap;
 
   public MProjectionOperator(Map<String, BaseOperator> dataSourceMap, BReusableFilteredDocIdSetOperator docIdSetOperator) {
     _docIdSetOperator = docIdSetOperator;
@@ -51,6 +54,12 @@ public class MProjectionOperator extends BaseOperator {
     _blockMap = new HashMap<>();
     _dataFetcher = new DataFetcher(_columnToDataSourceMap);
     _dataBlockCache = new DataBlockCache(_dataFetcher);
+
+    // Column slots of the data block cache are resolved once here, and the value sets are shared by all blocks
+    _blockValSetMap = new HashMap<>();
+    for (String column : _columnToDataSourceMap.keySet()) {
+      _blockValSetMap.put(column, new ProjectionBlockValSet(_dataBlockCache, column));
+    }
   }
 
   @Override
@@ -81,7 +90,7 @@ public class MProjectionOperator extends BaseOperator {
       for (String column : _columnToDataSourceMap.keySet()) {
         _blockMap.put(column, _columnToDataSourceMap.get(column).nextBlock(new BlockId(0)));
       }
-      _currentBlock = new ProjectionBlock(_blockMap, _dataBlockCache, docIdSetBlock);
+      _currentBlock = new ProjectionBlock(_blockMap, _dataBlockCache, _blockValSetMap, docIdSetBlock);
     }
     return _currentBlock;
   }
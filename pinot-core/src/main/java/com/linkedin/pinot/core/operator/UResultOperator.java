@@ -18,6 +18,7 @@ package com.linkedin.pinot.core.operator;
 import com.linkedin.pinot.core.common.Block;
 import com.linkedin.pinot.core.common.BlockId;
 import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.common.datatable.DataTableFactory;
 import com.linkedin.pinot.core.operator.blocks.InstanceResponseBlock;
 
 
@@ -30,9 +31,15 @@ import com.linkedin.pinot.core.operator.blocks.InstanceResponseBlock;
 public class UResultOperator extends BaseOperator {
 
   private final Operator _operator;
+  private final int _dataTableVersion;
 
   public UResultOperator(Operator combinedOperator) {
+    this(combinedOperator, DataTableFactory.VERSION_2);
+  }
+
+  public UResultOperator(Operator combinedOperator, int dataTableVersion) {
     _operator = combinedOperator;
+    _dataTableVersion = dataTableVersion;
   }
 
   @Override
@@ -43,7 +50,7 @@ public class UResultOperator extends BaseOperator {
 
   @Override
   public Block getNextBlock() {
-    return new InstanceResponseBlock(_operator.nextBlock());
+    return new InstanceResponseBlock(_operator.nextBlock(), _dataTableVersion);
   }
 
   @Override
@@ -15,43 +15,69 @@
  */
 package com.linkedin.pinot.core.operator.aggregation;
 
+import com.google.common.base.Preconditions;
 import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.core.common.BlockMetadata;
+import com.linkedin.pinot.core.common.BlockMultiValIterator;
 import com.linkedin.pinot.core.common.DataFetcher;
 import com.linkedin.pinot.core.plan.DocIdSetPlanNode;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 
 /**
  * This class serves as a single/multi value column block level cache. Using this class can prevent fetching the same column
  * data multiple times. This class allocate resources on demand, and reuse them as much as possible to prevent garbage
  * collection.
+ * <p>Columns are resolved once to integer slots (see {@link #getColumnSlot(String)}), and callers on the hot path
+ * should use the slot based methods. A buffer is loaded for the current block if its load generation matches the
+ * generation of the current block, which is bumped in {@link #initNewBlock(int[], int, int)}.
  */
 @SuppressWarnings("Duplicates")
 public class DataBlockCache {
-  private final DataFetcher _dataFetcher;
-
-  /** _columnXXLoaded must be cleared in initNewBlock */
-  private final Set<String> _columnDictIdLoaded = new HashSet<>();
-  private final Set<String> _columnValueLoaded = new HashSet<>();
-  private final Set<String> _columnHashCodeLoaded = new HashSet<>();
-  private final Set<String> _columnStringLoaded = new HashSet<>();
-
-  /** _columnToXXsMap must be defined accordingly */
-  private final Map<String, int[]> _columnToDictIdsMap = new HashMap<>();
-  private final Map<String, Object> _columnToValuesMap = new HashMap<>();
-  private final Map<String, String[]> _columnToStringsMap = new HashMap<>();
-
-  private final Map<String, int[]> _columnToNumberOfEntriesMap = new HashMap<>();
+  // Kinds of buffers tracked for each column slot
+  private static final int DICT_IDS = 0;
+  private static final int MV_DICT_IDS = 1;
+  private static final int NUM_ENTRIES = 2;
+  private static final int INT_VALUES = 3;
+  private static final int LONG_VALUES = 4;
+  private static final int FLOAT_VALUES = 5;
+  private static final int DOUBLE_VALUES = 6;
+  private static final int STRING_VALUES = 7;
+  private static final int INT_VALUES_MV = 8;
+  private static final int LONG_VALUES_MV = 9;
+  private static final int FLOAT_VALUES_MV = 10;
+  private static final int DOUBLE_VALUES_MV = 11;
+  private static final int STRING_VALUES_MV = 12;
+  private static final int NUM_KINDS = 13;
 
-  private final Map<String, int[][]> _columnToDictIdsArrayMap = new HashMap<>();
-  private final Map<String, Object> _columnToValuesArrayMap = new HashMap<>();
-  private final Map<String, String[][]> _columnToStringsArrayMap = new HashMap<>();
-
-  private final Map<String, int[]> _columnToTempDictIdsMap = new HashMap<>();
+  private final DataFetcher _dataFetcher;
+  private final Map<String, Integer> _columnToSlotMap = new HashMap<>();
+  private final String[] _columns;
+
+  /** Generation of the current block, and generation of the block each buffer is loaded for */
+  private int _blockGeneration = 0;
+  private final int[][] _loadedGenerations;
+
+  private final int[][] _dictIds;
+  private final int[][] _intValues;
+  private final long[][] _longValues;
+  private final float[][] _floatValues;
+  private final double[][] _doubleValues;
+  private final String[][] _stringValues;
+
+  /** Multi-value dictionary ids of the block flattened in a single array, with the offset of each doc */
+  private final int[][] _mvDictIds;
+  private final int[][] _mvOffsets;
+  private final int[][] _numEntries;
+  private final int[][] _tempDictIds;
+
+  private final int[][][] _intValuesMV;
+  private final long[][][] _longValuesMV;
+  private final float[][][] _floatValuesMV;
+  private final double[][][] _doubleValuesMV;
+  private final String[][][] _stringValuesMV;
 
   private int[] _docIds;
   private int _startPos;
@@ -64,6 +90,43 @@ public class DataBlockCache {
    */
   public DataBlockCache(DataFetcher dataFetcher) {
     _dataFetcher = dataFetcher;
+
+    _columns = dataFetcher.getColumns().toArray(new String[0]);
+    int numColumns = _columns.length;
+    for (int slot = 0; slot < numColumns; slot++) {
+      _columnToSlotMap.put(_columns[slot], slot);
+    }
+    _loadedGenerations = new int[NUM_KINDS][numColumns];
+
+    _dictIds = new int[numColumns][];
+    _intValues = new int[numColumns][];
+    _longValues = new long[numColumns][];
+    _floatValues = new float[numColumns][];
+    _doubleValues = new double[numColumns][];
+    _stringValues = new String[numColumns][];
+
+    _mvDictIds = new int[numColumns][];
+    _mvOffsets = new int[numColumns][];
+    _numEntries = new int[numColumns][];
+    _tempDictIds = new int[numColumns][];
+
+    _intValuesMV = new int[numColumns][][];
+    _longValuesMV = new long[numColumns][][];
+    _floatValuesMV = new float[numColumns][][];
+    _doubleValuesMV = new double[numColumns][][];
+    _stringValuesMV = new String[numColumns][][];
+  }
+
+  /**
+   * Returns the slot of the given column, to be resolved once and passed to the slot based methods.
+   *
+   * @param column column name.
+   * @return slot of the column.
+   */
+  public int getColumnSlot(String column) {
+    Integer slot = _columnToSlotMap.get(column);
+    Preconditions.checkArgument(slot != null, "Invalid column %s specified in DataBlockCache.", column);
+    return slot;
   }
 
   /**
@@ -75,16 +138,22 @@ public class DataBlockCache {
    * @param length length.
    */
   public void initNewBlock(int[] docIds, int startPos, int length) {
-    _columnDictIdLoaded.clear();
-    _columnValueLoaded.clear();
-    _columnHashCodeLoaded.clear();
-    _columnStringLoaded.clear();
+    // Invalidates all the buffers loaded for the previous block
+    _blockGeneration++;
 
     _docIds = docIds;
     _startPos = startPos;
     _length = length;
   }
 
+  private boolean isLoaded(int kind, int slot) {
+    return _loadedGenerations[kind][slot] == _blockGeneration;
+  }
+
+  private void setLoaded(int kind, int slot) {
+    _loadedGenerations[kind][slot] = _blockGeneration;
+  }
+
   /**
    * Get dictionary id array for a given column for the specific block initialized in the initNewBlock.
    *
@@ -92,46 +161,78 @@ public class DataBlockCache {
    * @return dictionary id array associated with this column.
    */
   public int[] getDictIdArrayForColumn(String column) {
-    int[] dictIds = _columnToDictIdsMap.get(column);
-    if (!_columnDictIdLoaded.contains(column)) {
+    return getDictIdArrayForColumn(getColumnSlot(column));
+  }
+
+  public int[] getDictIdArrayForColumn(int slot) {
+    int[] dictIds = _dictIds[slot];
+    if (!isLoaded(DICT_IDS, slot)) {
       if (dictIds == null) {
         dictIds = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
-        _columnToDictIdsMap.put(column, dictIds);
+        _dictIds[slot] = dictIds;
       }
-      _dataFetcher.fetchSingleDictIds(column, _docIds, _startPos, _length, dictIds, 0);
-      _columnDictIdLoaded.add(column);
+      _dataFetcher.fetchSingleDictIds(_columns[slot], _docIds, _startPos, _length, dictIds, 0);
+      setLoaded(DICT_IDS, slot);
     }
     return dictIds;
   }
 
   /**
-   * Get an array of array representation for dictionary ids for a given column for the
-   * specific block initialized in the initNewBlock.
+   * Get the dictionary ids of a multi-value column for the specific block initialized in the initNewBlock, flattened
+   * in a single array. The dictionary ids of the doc at position i of the block are stored between
+   * {@link #getMultiValueOffsetsForColumn(int)}[i] (inclusive) and [i + 1] (exclusive).
    *
-   * @param column column name.
-   * @return dictionary ids array associated with this column.
+   * @param slot column slot.
+   * @return flattened dictionary ids of the column.
    */
-  private int[][] getDictIdsArrayForColumn(String column) {
-    int[][] dictIdsArray = _columnToDictIdsArrayMap.get(column);
-    if (!_columnDictIdLoaded.contains(column)) {
-      if (dictIdsArray == null) {
-        dictIdsArray = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
-        _columnToDictIdsArrayMap.put(column, dictIdsArray);
-      }
-      _dataFetcher.fetchMultiValueDictIds(column, _docIds, _startPos, _length, dictIdsArray, 0,
-          getTempDictIdArrayForColumn(column));
-      _columnDictIdLoaded.add(column);
-    }
-    return dictIdsArray;
+  public int[] getMultiValueDictIdsForColumn(int slot) {
+    loadMultiValueDictIds(slot);
+    return _mvDictIds[slot];
   }
 
-  private int[] getTempDictIdArrayForColumn(String column) {
-    if (!_columnToTempDictIdsMap.containsKey(column)) {
-      int maxNumberOfEntries = _dataFetcher.getMaxNumberOfEntriesForColumn(column);
-      int[] tempDictIdArray = new int[maxNumberOfEntries];
-      _columnToTempDictIdsMap.put(column, tempDictIdArray);
+  /**
+   * Get the offsets of the docs of the block in {@link #getMultiValueDictIdsForColumn(int)}, with one extra entry at
+   * the end for the total number of dictionary ids.
+   *
+   * @param slot column slot.
+   * @return offsets of the docs in the flattened dictionary ids.
+   */
+  public int[] getMultiValueOffsetsForColumn(int slot) {
+    loadMultiValueDictIds(slot);
+    return _mvOffsets[slot];
+  }
+
+  private void loadMultiValueDictIds(int slot) {
+    if (isLoaded(MV_DICT_IDS, slot)) {
+      return;
+    }
+    String column = _columns[slot];
+    int[] tempDictIds = _tempDictIds[slot];
+    int maxNumEntries = _dataFetcher.getMaxNumberOfEntriesForColumn(column);
+    if (tempDictIds == null) {
+      tempDictIds = new int[maxNumEntries];
+      _tempDictIds[slot] = tempDictIds;
+      _mvOffsets[slot] = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL + 1];
+      _mvDictIds[slot] = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
     }
-    return _columnToTempDictIdsMap.get(column);
+    int[] offsets = _mvOffsets[slot];
+    int[] dictIds = _mvDictIds[slot];
+
+    BlockMultiValIterator iterator = (BlockMultiValIterator) _dataFetcher.getBlockValIteratorForColumn(column);
+    int offset = 0;
+    for (int pos = 0; pos < _length; pos++) {
+      iterator.skipTo(_docIds[_startPos + pos]);
+      int numEntries = iterator.nextIntVal(tempDictIds);
+      if (offset + numEntries > dictIds.length) {
+        dictIds = Arrays.copyOf(dictIds, Math.max(2 * dictIds.length, offset + maxNumEntries));
+        _mvDictIds[slot] = dictIds;
+      }
+      System.arraycopy(tempDictIds, 0, dictIds, offset, numEntries);
+      offsets[pos] = offset;
+      offset += numEntries;
+    }
+    offsets[_length] = offset;
+    setLoaded(MV_DICT_IDS, slot);
   }
 
   /**
@@ -141,15 +242,18 @@ public class DataBlockCache {
    * @return value array associated with this column.
    */
   public int[] getIntValueArrayForColumn(String column) {
-    String key = getKeyForColumnAndType(column, FieldSpec.DataType.INT);
-    int[] intValues = (int []) _columnToValuesMap.get(key);
-    if (!_columnValueLoaded.contains(key)) {
+    return getIntValueArrayForColumn(getColumnSlot(column));
+  }
+
+  public int[] getIntValueArrayForColumn(int slot) {
+    int[] intValues = _intValues[slot];
+    if (!isLoaded(INT_VALUES, slot)) {
       if (intValues == null) {
         intValues = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
-        _columnToValuesMap.put(key, intValues);
+        _intValues[slot] = intValues;
       }
-      _dataFetcher.fetchIntValues(column, _docIds, _startPos, _length, intValues, 0);
-      _columnValueLoaded.add(key);
+      _dataFetcher.fetchIntValues(_columns[slot], _docIds, _startPos, _length, intValues, 0);
+      setLoaded(INT_VALUES, slot);
     }
     return intValues;
   }
@@ -161,17 +265,18 @@ public class DataBlockCache {
    * @return int values array associated with this column.
    */
   public int[][] getIntValuesArrayForColumn(String column) {
-    String key = getKeyForColumnAndType(column, FieldSpec.DataType.INT_ARRAY);
-    int[][] intValues = (int[][]) _columnToValuesArrayMap.get(key);
+    return getIntValuesArrayForColumn(getColumnSlot(column));
+  }
 
-    if (!_columnValueLoaded.contains(key)) {
+  public int[][] getIntValuesArrayForColumn(int slot) {
+    int[][] intValues = _intValuesMV[slot];
+    if (!isLoaded(INT_VALUES_MV, slot)) {
       if (intValues == null) {
         intValues = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
-        _columnToValuesArrayMap.put(key, intValues);
+        _intValuesMV[slot] = intValues;
       }
-
-      _dataFetcher.fetchIntValues(column, _docIds, _startPos, _length, intValues, 0);
-      _columnValueLoaded.add(key);
+      _dataFetcher.fetchIntValues(_columns[slot], _docIds, _startPos, _length, intValues, 0);
+      setLoaded(INT_VALUES_MV, slot);
     }
     return intValues;
   }
@@ -183,15 +288,18 @@ public class DataBlockCache {
    * @return value array associated with this column.
    */
   public long[] getLongValueArrayForColumn(String column) {
-    String key = getKeyForColumnAndType(column, FieldSpec.DataType.LONG);
-    long[] longValues = (long []) _columnToValuesMap.get(key);
-    if (!_columnValueLoaded.contains(key)) {
+    return getLongValueArrayForColumn(getColumnSlot(column));
+  }
+
+  public long[] getLongValueArrayForColumn(int slot) {
+    long[] longValues = _longValues[slot];
+    if (!isLoaded(LONG_VALUES, slot)) {
       if (longValues == null) {
         longValues = new long[DocIdSetPlanNode.MAX_DOC_PER_CALL];
-        _columnToValuesMap.put(key, longValues);
+        _longValues[slot] = longValues;
       }
-      _dataFetcher.fetchLongValues(column, _docIds, _startPos, _length, longValues, 0);
-      _columnValueLoaded.add(key);
+      _dataFetcher.fetchLongValues(_columns[slot], _docIds, _startPos, _length, longValues, 0);
+      setLoaded(LONG_VALUES, slot);
     }
     return longValues;
   }
@@ -203,17 +311,18 @@ public class DataBlockCache {
    * @return long values array associated with this column.
    */
   public long[][] getLongValuesArrayForColumn(String column) {
-    String key = getKeyForColumnAndType(column, FieldSpec.DataType.LONG_ARRAY);
-    long[][] longValues = (long[][]) _columnToValuesArrayMap.get(key);
+    return getLongValuesArrayForColumn(getColumnSlot(column));
+  }
 
-    if (!_columnValueLoaded.contains(key)) {
+  public long[][] getLongValuesArrayForColumn(int slot) {
+    long[][] longValues = _longValuesMV[slot];
+    if (!isLoaded(LONG_VALUES_MV, slot)) {
       if (longValues == null) {
         longValues = new long[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
-        _columnToValuesArrayMap.put(key, longValues);
+        _longValuesMV[slot] = longValues;
       }
-
-      _dataFetcher.fetchLongValues(column, _docIds, _startPos, _length, longValues, 0);
-      _columnValueLoaded.add(key);
+      _dataFetcher.fetchLongValues(_columns[slot], _docIds, _startPos, _length, longValues, 0);
+      setLoaded(LONG_VALUES_MV, slot);
     }
     return longValues;
   }
@@ -225,15 +334,18 @@ public class DataBlockCache {
    * @return value array associated with this column.
    */
   public float[] getFloatValueArrayForColumn(String column) {
-    String key = getKeyForColumnAndType(column, FieldSpec.DataType.FLOAT);
-    float[] floatValues = (float []) _columnToValuesMap.get(key);
-    if (!_columnValueLoaded.contains(key)) {
+    return getFloatValueArrayForColumn(getColumnSlot(column));
+  }
+
+  public float[] getFloatValueArrayForColumn(int slot) {
+    float[] floatValues = _floatValues[slot];
+    if (!isLoaded(FLOAT_VALUES, slot)) {
       if (floatValues == null) {
         floatValues = new float[DocIdSetPlanNode.MAX_DOC_PER_CALL];
-        _columnToValuesMap.put(key, floatValues);
+        _floatValues[slot] = floatValues;
       }
-      _dataFetcher.fetchFloatValues(column, _docIds, _startPos, _length, floatValues, 0);
-      _columnValueLoaded.add(key);
+      _dataFetcher.fetchFloatValues(_columns[slot], _docIds, _startPos, _length, floatValues, 0);
+      setLoaded(FLOAT_VALUES, slot);
     }
     return floatValues;
   }
@@ -245,17 +357,18 @@ public class DataBlockCache {
    * @return long values array associated with this column.
    */
   public float[][] getFloatValuesArrayForColumn(String column) {
-    String key = getKeyForColumnAndType(column, FieldSpec.DataType.FLOAT_ARRAY);
-    float[][] floatValues = (float[][]) _columnToValuesArrayMap.get(key);
+    return getFloatValuesArrayForColumn(getColumnSlot(column));
+  }
 
-    if (!_columnValueLoaded.contains(key)) {
+  public float[][] getFloatValuesArrayForColumn(int slot) {
+    float[][] floatValues = _floatValuesMV[slot];
+    if (!isLoaded(FLOAT_VALUES_MV, slot)) {
       if (floatValues == null) {
         floatValues = new float[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
-        _columnToValuesArrayMap.put(key, floatValues);
+        _floatValuesMV[slot] = floatValues;
       }
-
-      _dataFetcher.fetchFloatValues(column, _docIds, _startPos, _length, floatValues, 0);
-      _columnValueLoaded.add(key);
+      _dataFetcher.fetchFloatValues(_columns[slot], _docIds, _startPos, _length, floatValues, 0);
+      setLoaded(FLOAT_VALUES_MV, slot);
     }
     return floatValues;
   }
@@ -267,15 +380,18 @@ public class DataBlockCache {
    * @return value array associated with this column.
    */
   public double[] getDoubleValueArrayForColumn(String column) {
-    String key = getKeyForColumnAndType(column, FieldSpec.DataType.DOUBLE);
-    double[] doubleValues = (double []) _columnToValuesMap.get(key);
-    if (!_columnValueLoaded.contains(key)) {
+    return getDoubleValueArrayForColumn(getColumnSlot(column));
+  }
+
+  public double[] getDoubleValueArrayForColumn(int slot) {
+    double[] doubleValues = _doubleValues[slot];
+    if (!isLoaded(DOUBLE_VALUES, slot)) {
       if (doubleValues == null) {
         doubleValues = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL];
-        _columnToValuesMap.put(key, doubleValues);
+        _doubleValues[slot] = doubleValues;
       }
-      _dataFetcher.fetchDoubleValues(column, _docIds, _startPos, _length, doubleValues, 0);
-      _columnValueLoaded.add(key);
+      _dataFetcher.fetchDoubleValues(_columns[slot], _docIds, _startPos, _length, doubleValues, 0);
+      setLoaded(DOUBLE_VALUES, slot);
     }
     return doubleValues;
   }
@@ -287,39 +403,45 @@ public class DataBlockCache {
    * @return double values array associated with this column.
    */
   public double[][] getDoubleValuesArrayForColumn(String column) {
-    String key = getKeyForColumnAndType(column, FieldSpec.DataType.DOUBLE_ARRAY);
-    double[][] doubleValuesArray = (double[][]) _columnToValuesArrayMap.get(key);
+    return getDoubleValuesArrayForColumn(getColumnSlot(column));
+  }
 
-    if (!_columnValueLoaded.contains(key)) {
+  public double[][] getDoubleValuesArrayForColumn(int slot) {
+    double[][] doubleValuesArray = _doubleValuesMV[slot];
+    if (!isLoaded(DOUBLE_VALUES_MV, slot)) {
       if (doubleValuesArray == null) {
         doubleValuesArray = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
-        _columnToValuesArrayMap.put(key, doubleValuesArray);
+        _doubleValuesMV[slot] = doubleValuesArray;
       }
-
-      _dataFetcher.fetchDoubleValues(column, _docIds, _startPos, _length, doubleValuesArray, 0);
-      _columnValueLoaded.add(key);
+      _dataFetcher.fetchDoubleValues(_columns[slot], _docIds, _startPos, _length, doubleValuesArray, 0);
+      setLoaded(DOUBLE_VALUES_MV, slot);
     }
     return doubleValuesArray;
   }
 
   /**
-   * Get hash code array for a given column for the specific block initialized in the initNewBlock.
+   * Get number of entries array for a given multi-value column for the specific block initialized in the
+   * initNewBlock.
    *
    * @param column column name.
-   * @return hash codes array associated with this column.
+   * @return number of entries array associated with this column.
    */
   public int[] getNumberOfEntriesArrayForColumn(String column) {
-    int[] numberOfEntriesArray = _columnToNumberOfEntriesMap.get(column);
-    if (!_columnHashCodeLoaded.contains(column)) {
+    return getNumberOfEntriesArrayForColumn(getColumnSlot(column));
+  }
+
+  public int[] getNumberOfEntriesArrayForColumn(int slot) {
+    int[] numberOfEntriesArray = _numEntries[slot];
+    if (!isLoaded(NUM_ENTRIES, slot)) {
       if (numberOfEntriesArray == null) {
         numberOfEntriesArray = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
-        _columnToNumberOfEntriesMap.put(column, numberOfEntriesArray);
+        _numEntries[slot] = numberOfEntriesArray;
       }
-      int[][] dictIdsArray = getDictIdsArrayForColumn(column);
+      int[] offsets = getMultiValueOffsetsForColumn(slot);
       for (int pos = 0; pos < _length; ++pos) {
-        numberOfEntriesArray[pos] = dictIdsArray[pos].length;
+        numberOfEntriesArray[pos] = offsets[pos + 1] - offsets[pos];
       }
-      _columnHashCodeLoaded.add(column);
+      setLoaded(NUM_ENTRIES, slot);
     }
     return numberOfEntriesArray;
   }
@@ -331,14 +453,18 @@ public class DataBlockCache {
    * @return value array associated with this column.
    */
   public String[] getStringValueArrayForColumn(String column) {
-    String[] stringValues = _columnToStringsMap.get(column);
-    if (!_columnStringLoaded.contains(column)) {
+    return getStringValueArrayForColumn(getColumnSlot(column));
+  }
+
+  public String[] getStringValueArrayForColumn(int slot) {
+    String[] stringValues = _stringValues[slot];
+    if (!isLoaded(STRING_VALUES, slot)) {
       if (stringValues == null) {
         stringValues = new String[DocIdSetPlanNode.MAX_DOC_PER_CALL];
-        _columnToStringsMap.put(column, stringValues);
+        _stringValues[slot] = stringValues;
       }
-      _dataFetcher.fetchStringValues(column, _docIds, _startPos, _length, stringValues, 0);
-      _columnStringLoaded.add(column);
+      _dataFetcher.fetchStringValues(_columns[slot], _docIds, _startPos, _length, stringValues, 0);
+      setLoaded(STRING_VALUES, slot);
     }
     return stringValues;
   }
@@ -350,15 +476,18 @@ public class DataBlockCache {
    * @return string values array associated with this column.
    */
   public String[][] getStringValuesArrayForColumn(String column) {
-    String[][] stringsArray = _columnToStringsArrayMap.get(column);
-    if (!_columnHashCodeLoaded.contains(column)) {
+    return getStringValuesArrayForColumn(getColumnSlot(column));
+  }
+
+  public String[][] getStringValuesArrayForColumn(int slot) {
+    String[][] stringsArray = _stringValuesMV[slot];
+    if (!isLoaded(STRING_VALUES_MV, slot)) {
       if (stringsArray == null) {
         stringsArray = new String[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
-        _columnToStringsArrayMap.put(column, stringsArray);
+        _stringValuesMV[slot] = stringsArray;
       }
-
-      _dataFetcher.fetchStringValues(column, _docIds, _startPos, _length, stringsArray, 0);
-      _columnHashCodeLoaded.add(column);
+      _dataFetcher.fetchStringValues(_columns[slot], _docIds, _startPos, _length, stringsArray, 0);
+      setLoaded(STRING_VALUES_MV, slot);
     }
     return stringsArray;
   }
@@ -391,19 +520,4 @@ public class DataBlockCache {
   public DataFetcher getDataFetcher() {
     return _dataFetcher;
   }
-
-  /**
-   * Helper method that generates a key for {@link #_columnToValuesMap} using column name and data type
-   * to be fetched for the column.
-   *
-   * @param column Column Name
-   * @param dataType Data Type
-   * @return Key of column name and data type
-   */
-  private String getKeyForColumnAndType(String column, FieldSpec.DataType dataType) {
-    StringBuilder builder = new StringBuilder(column);
-    builder.append("_");
-    builder.append(dataType);
-    return builder.toString();
-  }
 }
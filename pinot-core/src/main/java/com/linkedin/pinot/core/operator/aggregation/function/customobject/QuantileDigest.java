@@ -28,6 +28,7 @@ import com.google.common.collect.Multimaps;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.PeekingIterator;
 import com.google.common.util.concurrent.AtomicDouble;
+import com.linkedin.pinot.core.util.VarIntUtils;
 import java.io.ByteArrayInputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
@@ -38,6 +39,7 @@ import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -433,6 +435,110 @@ public class QuantileDigest implements Serializable {
     return new Node(value, level, weight);
   }
 
+  /**
+   * Serialize the digest in the compact form, where the header fields, the node values and the whole number node
+   * weights are written as variable length longs.
+   */
+  public void serializeCompact(final DataOutput output) {
+    try {
+      output.writeDouble(maxError);
+      output.writeDouble(alpha);
+      VarIntUtils.writeVarLong(output, landmarkInSeconds);
+      VarIntUtils.writeVarLong(output, min);
+      VarIntUtils.writeVarLong(output, max);
+      VarIntUtils.writeUnsignedVarInt(output, totalNodeCount);
+
+      postOrderTraversal(root, new Callback() {
+        @Override
+        public boolean process(Node node) {
+          try {
+            serializeCompactNode(output, node);
+          } catch (IOException e) {
+            Throwables.propagate(e);
+          }
+          return true;
+        }
+      });
+    } catch (IOException e) {
+      Throwables.propagate(e);
+    }
+  }
+
+  private static void serializeCompactNode(DataOutput output, Node node)
+      throws IOException {
+    int flags = 0;
+    if (node.left != null) {
+      flags |= Flags.HAS_LEFT;
+    }
+    if (node.right != null) {
+      flags |= Flags.HAS_RIGHT;
+    }
+    long wholeWeight = (long) node.weightedCount;
+    boolean isWholeWeight = wholeWeight >= 0 && wholeWeight == node.weightedCount;
+    if (isWholeWeight) {
+      flags |= Flags.WHOLE_WEIGHT;
+    }
+
+    output.writeByte(flags);
+    output.writeByte(node.level);
+    VarIntUtils.writeVarLong(output, bitsToLong(node.bits));
+    if (isWholeWeight) {
+      VarIntUtils.writeUnsignedVarLong(output, wholeWeight);
+    } else {
+      output.writeDouble(node.weightedCount);
+    }
+  }
+
+  /**
+   * De-serialize a digest serialized with {@link #serializeCompact(DataOutput)} from the byte buffer.
+   */
+  public static QuantileDigest deserializeCompact(ByteBuffer input) {
+    double maxError = input.getDouble();
+    double alpha = input.getDouble();
+
+    QuantileDigest result = new QuantileDigest(maxError, alpha);
+
+    result.landmarkInSeconds = VarIntUtils.readVarLong(input);
+    result.min = VarIntUtils.readVarLong(input);
+    result.max = VarIntUtils.readVarLong(input);
+    result.totalNodeCount = VarIntUtils.readUnsignedVarInt(input);
+
+    Deque<Node> stack = new ArrayDeque<>();
+    for (int i = 0; i < result.totalNodeCount; i++) {
+      int flags = input.get();
+      int level = input.get() & 0xFF;
+      long bits = longToBits(VarIntUtils.readVarLong(input));
+      double weight;
+      if ((flags & Flags.WHOLE_WEIGHT) != 0) {
+        weight = VarIntUtils.readUnsignedVarLong(input);
+      } else {
+        weight = input.getDouble();
+      }
+      Node node = new Node(bits, level, weight);
+
+      if ((flags & Flags.HAS_RIGHT) != 0) {
+        node.right = stack.pop();
+      }
+
+      if ((flags & Flags.HAS_LEFT) != 0) {
+        node.left = stack.pop();
+      }
+
+      stack.push(node);
+      result.weightedCount += node.weightedCount;
+      if (node.weightedCount >= ZERO_WEIGHT_THRESHOLD) {
+        result.nonZeroNodeCount++;
+      }
+    }
+
+    if (!stack.isEmpty()) {
+      Preconditions.checkArgument(stack.size() == 1, "Tree is corrupted. Expected a single root node");
+      result.root = stack.pop();
+    }
+
+    return result;
+  }
+
   @VisibleForTesting
   int getTotalNodeCount() {
     return totalNodeCount;
@@ -1084,6 +1190,7 @@ public class QuantileDigest implements Serializable {
   private static class Flags {
     public static final int HAS_LEFT = 1 << 0;
     public static final int HAS_RIGHT = 1 << 1;
+    public static final int WHOLE_WEIGHT = 1 << 2;
   }
 
   // ----------------------------
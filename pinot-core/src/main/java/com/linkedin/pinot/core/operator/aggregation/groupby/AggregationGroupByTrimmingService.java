@@ -22,6 +22,7 @@ import com.linkedin.pinot.core.operator.aggregation.function.AggregationFunction
 import com.linkedin.pinot.core.operator.aggregation.function.AggregationFunctionUtils;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -84,22 +85,42 @@ public class AggregationGroupByTrimmingService {
    */
   @Nonnull
   public List<Map<String, Object>> trimIntermediateResultsMap(@Nonnull Map<String, Object[]> intermediateResultsMap) {
+    return trimIntermediateResultsMaps(Collections.singletonList(intermediateResultsMap));
+  }
+
+  /**
+   * Given a list of maps with disjoint group keys from group key to the intermediate results for multiple aggregation
+   * functions, trim the results of all maps together to desired size and put them into a list of maps from group key to
+   * intermediate result for each aggregation function.
+   */
+  @Nonnull
+  public List<Map<String, Object>> trimIntermediateResultsMaps(
+      @Nonnull List<? extends Map<String, Object[]>> intermediateResultsMaps) {
     List<Map<String, Object>> trimmedResults = new ArrayList<>(_numAggregationFunctions);
     for (int i = 0; i < _numAggregationFunctions; i++) {
       trimmedResults.add(new HashMap<String, Object>());
     }
 
-    if (intermediateResultsMap.isEmpty()) {
+    int numGroups = 0;
+    Object[] sampleResults = null;
+    for (Map<String, Object[]> intermediateResultsMap : intermediateResultsMaps) {
+      if (!intermediateResultsMap.isEmpty()) {
+        numGroups += intermediateResultsMap.size();
+        if (sampleResults == null) {
+          sampleResults = intermediateResultsMap.values().iterator().next();
+        }
+      }
+    }
+    if (numGroups == 0) {
       return trimmedResults;
     }
 
-    if (intermediateResultsMap.size() > _trimThreshold) {
+    if (numGroups > _trimThreshold) {
       // Need to trim.
 
       // Construct the priority queues.
       @SuppressWarnings("unchecked")
       PriorityQueue<GroupKeyResultPair>[] priorityQueues = new PriorityQueue[_numAggregationFunctions];
-      Object[] sampleResults = intermediateResultsMap.values().iterator().next();
       for (int i = 0; i < _numAggregationFunctions; i++) {
         if (sampleResults[i] instanceof Comparable) {
           priorityQueues[i] = new PriorityQueue<>(_trimSize + 1, getGroupKeyResultPairComparator(_minOrders[i]));
@@ -107,17 +128,19 @@ public class AggregationGroupByTrimmingService {
       }
 
       // Fill results into the priority queues.
-      for (Map.Entry<String, Object[]> entry : intermediateResultsMap.entrySet()) {
-        String groupKey = entry.getKey();
-        Object[] intermediateResults = entry.getValue();
-        for (int i = 0; i < _numAggregationFunctions; i++) {
-          PriorityQueue<GroupKeyResultPair> priorityQueue = priorityQueues[i];
-          if (priorityQueue == null) {
-            trimmedResults.get(i).put(groupKey, intermediateResults[i]);
-          } else {
-            priorityQueue.add(new GroupKeyResultPair(groupKey, (Comparable) intermediateResults[i]));
-            if (priorityQueue.size() > _trimSize) {
-              priorityQueue.poll();
+      for (Map<String, Object[]> intermediateResultsMap : intermediateResultsMaps) {
+        for (Map.Entry<String, Object[]> entry : intermediateResultsMap.entrySet()) {
+          String groupKey = entry.getKey();
+          Object[] intermediateResults = entry.getValue();
+          for (int i = 0; i < _numAggregationFunctions; i++) {
+            PriorityQueue<GroupKeyResultPair> priorityQueue = priorityQueues[i];
+            if (priorityQueue == null) {
+              trimmedResults.get(i).put(groupKey, intermediateResults[i]);
+            } else {
+              priorityQueue.add(new GroupKeyResultPair(groupKey, (Comparable) intermediateResults[i]));
+              if (priorityQueue.size() > _trimSize) {
+                priorityQueue.poll();
+              }
             }
           }
         }
@@ -135,11 +158,13 @@ public class AggregationGroupByTrimmingService {
       }
     } else {
       // No need to trim.
-      for (Map.Entry<String, Object[]> entry : intermediateResultsMap.entrySet()) {
-        String groupKey = entry.getKey();
-        Object[] intermediateResults = entry.getValue();
-        for (int i = 0; i < _numAggregationFunctions; i++) {
-          trimmedResults.get(i).put(groupKey, intermediateResults[i]);
+      for (Map<String, Object[]> intermediateResultsMap : intermediateResultsMaps) {
+        for (Map.Entry<String, Object[]> entry : intermediateResultsMap.entrySet()) {
+          String groupKey = entry.getKey();
+          Object[] intermediateResults = entry.getValue();
+          for (int i = 0; i < _numAggregationFunctions; i++) {
+            trimmedResults.get(i).put(groupKey, intermediateResults[i]);
+          }
         }
       }
     }
@@ -0,0 +1,69 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.aggregation.groupby;
+
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+
+/**
+ * Aggregation group-by result materialized from the segment result cache, with the group keys and the intermediate
+ * results of all the aggregation functions for each group.
+ */
+public class CachedAggregationGroupByResult extends AggregationGroupByResult {
+  private final List<String> _groupKeys;
+  private final List<Object[]> _results;
+
+  /**
+   * @param groupKeys string group keys.
+   * @param results results of all the aggregation functions for each group, in the same order as the group keys.
+   */
+  public CachedAggregationGroupByResult(@Nonnull List<String> groupKeys, @Nonnull List<Object[]> results) {
+    super(null, null, null);
+    _groupKeys = groupKeys;
+    _results = results;
+  }
+
+  @Override
+  public Iterator<GroupKeyGenerator.GroupKey> getGroupKeyIterator() {
+    return new Iterator<GroupKeyGenerator.GroupKey>() {
+      private int _index = 0;
+
+      @Override
+      public boolean hasNext() {
+        return _index < _groupKeys.size();
+      }
+
+      @Override
+      public GroupKeyGenerator.GroupKey next() {
+        GroupKeyGenerator.GroupKey groupKey = new GroupKeyGenerator.GroupKey(_index, _groupKeys.get(_index));
+        _index++;
+        return groupKey;
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Override
+  public Object getResultForKey(GroupKeyGenerator.GroupKey groupKey, int index) {
+    return _results.get(groupKey.getFirst())[index];
+  }
+}
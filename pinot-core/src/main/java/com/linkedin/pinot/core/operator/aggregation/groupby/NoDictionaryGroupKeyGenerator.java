@@ -145,15 +145,11 @@ public class NoDictionaryGroupKeyGenerator implements GroupKeyGenerator {
    * @return Group id
    */
   private int getGroupIdForKey(String key) {
-    int groupId;
-
-    if (!_groupKeyMap.containsKey(key)) {
-      _groupKeyMap.put(key, _numGroupKeys);
+    Integer groupId = _groupKeyMap.get(key);
+    if (groupId == null) {
       groupId = _numGroupKeys++;
-    } else {
-      groupId = _groupKeyMap.get(key);
+      _groupKeyMap.put(key, groupId);
     }
-
     return groupId;
   }
 
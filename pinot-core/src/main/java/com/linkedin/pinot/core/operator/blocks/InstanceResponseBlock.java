@@ -23,6 +23,7 @@ import com.linkedin.pinot.core.common.BlockId;
 import com.linkedin.pinot.core.common.BlockMetadata;
 import com.linkedin.pinot.core.common.BlockValSet;
 import com.linkedin.pinot.core.common.Predicate;
+import com.linkedin.pinot.core.common.datatable.DataTableFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,9 +39,13 @@ public class InstanceResponseBlock implements Block {
   private DataTable _instanceResponseDataTable;
 
   public InstanceResponseBlock(Block block) {
+    this(block, DataTableFactory.VERSION_2);
+  }
+
+  public InstanceResponseBlock(Block block, int dataTableVersion) {
     IntermediateResultsBlock intermediateResultsBlock = (IntermediateResultsBlock) block;
     try {
-      _instanceResponseDataTable = intermediateResultsBlock.getDataTable();
+      _instanceResponseDataTable = intermediateResultsBlock.getDataTable(dataTableVersion);
     } catch (Exception e) {
       LOGGER.error("Caught exception while building data table.", e);
       throw new RuntimeException("Caught exception while building data table.", e);
@@ -28,6 +28,7 @@ import com.linkedin.pinot.core.common.BlockMetadata;
 import com.linkedin.pinot.core.common.BlockValSet;
 import com.linkedin.pinot.core.common.Predicate;
 import com.linkedin.pinot.core.common.datatable.DataTableBuilder;
+import com.linkedin.pinot.core.common.datatable.DataTableFactory;
 import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
 import com.linkedin.pinot.core.operator.aggregation.AggregationFunctionContext;
 import com.linkedin.pinot.core.operator.aggregation.function.AggregationFunction;
@@ -40,6 +41,7 @@ import java.util.List;
 import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.json.JSONObject;
 
 
 /**
@@ -55,6 +57,7 @@ public class IntermediateResultsBlock implements Block {
   private List<ProcessingException> _processingExceptions;
   private long _numDocsScanned;
   private long _numEntriesScannedInFilter;
+  private Map<String, Long> _numEntriesScannedInFilterPerColumn;
   private long _numEntriesScannedPostFilter;
   private long _numTotalRawDocs;
 
@@ -172,6 +175,10 @@ public class IntermediateResultsBlock implements Block {
     _numEntriesScannedInFilter = numEntriesScannedInFilter;
   }
 
+  public void setNumEntriesScannedInFilterPerColumn(@Nonnull Map<String, Long> numEntriesScannedInFilterPerColumn) {
+    _numEntriesScannedInFilterPerColumn = numEntriesScannedInFilterPerColumn;
+  }
+
   public void setNumEntriesScannedPostFilter(long numEntriesScannedPostFilter) {
     _numEntriesScannedPostFilter = numEntriesScannedPostFilter;
   }
@@ -183,16 +190,26 @@ public class IntermediateResultsBlock implements Block {
   @Nonnull
   public DataTable getDataTable()
       throws Exception {
+    return getDataTable(DataTableFactory.VERSION_2);
+  }
+
+  /**
+   * Build the data table of the given version. Results are built directly with that version, so that the data is
+   * written only once in the layout and object encoding of the version.
+   */
+  @Nonnull
+  public DataTable getDataTable(int dataTableVersion)
+      throws Exception {
     if (_selectionResult != null) {
-      return getSelectionResultDataTable();
+      return getSelectionResultDataTable(dataTableVersion);
     }
 
     if (_aggregationResult != null) {
-      return getAggregationResultDataTable();
+      return getAggregationResultDataTable(dataTableVersion);
     }
 
     if (_combinedAggregationGroupByResult != null) {
-      return getAggregationGroupByResultDataTable();
+      return getAggregationGroupByResultDataTable(dataTableVersion);
     }
 
     if (_processingExceptions != null && _processingExceptions.size() > 0) {
@@ -203,14 +220,14 @@ public class IntermediateResultsBlock implements Block {
   }
 
   @Nonnull
-  private DataTable getSelectionResultDataTable()
+  private DataTable getSelectionResultDataTable(int dataTableVersion)
       throws Exception {
     return attachMetadataToDataTable(
-        SelectionOperatorUtils.getDataTableFromRows(_selectionResult, _selectionDataSchema));
+        SelectionOperatorUtils.getDataTableFromRows(_selectionResult, _selectionDataSchema, dataTableVersion));
   }
 
   @Nonnull
-  private DataTable getAggregationResultDataTable()
+  private DataTable getAggregationResultDataTable(int dataTableVersion)
       throws Exception {
     // Extract each aggregation column name and type from aggregation function context.
     int numAggregationFunctions = _aggregationFunctionContexts.length;
@@ -224,7 +241,8 @@ public class IntermediateResultsBlock implements Block {
     }
 
     // Build the data table.
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(new DataSchema(columnNames, columnTypes));
+    DataTableBuilder dataTableBuilder =
+        new DataTableBuilder(new DataSchema(columnNames, columnTypes), dataTableVersion);
     dataTableBuilder.startRow();
     for (int i = 0; i < numAggregationFunctions; i++) {
       switch (columnTypes[i]) {
@@ -249,13 +267,14 @@ public class IntermediateResultsBlock implements Block {
   }
 
   @Nonnull
-  private DataTable getAggregationGroupByResultDataTable()
+  private DataTable getAggregationGroupByResultDataTable(int dataTableVersion)
       throws Exception {
     String[] columnNames = new String[]{"functionName", "GroupByResultMap"};
     FieldSpec.DataType[] columnTypes = new FieldSpec.DataType[]{FieldSpec.DataType.STRING, FieldSpec.DataType.OBJECT};
 
     // Build the data table.
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(new DataSchema(columnNames, columnTypes));
+    DataTableBuilder dataTableBuilder =
+        new DataTableBuilder(new DataSchema(columnNames, columnTypes), dataTableVersion);
     int numAggregationFunctions = _aggregationFunctionContexts.length;
     for (int i = 0; i < numAggregationFunctions; i++) {
       dataTableBuilder.startRow();
@@ -278,6 +297,11 @@ public class IntermediateResultsBlock implements Block {
     dataTable.getMetadata().put(DataTable.NUM_DOCS_SCANNED_METADATA_KEY, String.valueOf(_numDocsScanned));
     dataTable.getMetadata()
         .put(DataTable.NUM_ENTRIES_SCANNED_IN_FILTER_METADATA_KEY, String.valueOf(_numEntriesScannedInFilter));
+    if (_numEntriesScannedInFilterPerColumn != null && !_numEntriesScannedInFilterPerColumn.isEmpty()) {
+      dataTable.getMetadata()
+          .put(DataTable.NUM_ENTRIES_SCANNED_IN_FILTER_PER_COLUMN_METADATA_KEY,
+              new JSONObject(_numEntriesScannedInFilterPerColumn).toString());
+    }
     dataTable.getMetadata()
         .put(DataTable.NUM_ENTRIES_SCANNED_POST_FILTER_METADATA_KEY, String.valueOf(_numEntriesScannedPostFilter));
     dataTable.getMetadata().put(DataTable.TOTAL_DOCS_METADATA_KEY, String.valueOf(_numTotalRawDocs));
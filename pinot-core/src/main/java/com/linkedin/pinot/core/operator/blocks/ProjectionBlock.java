@@ -24,6 +24,7 @@ import com.linkedin.pinot.core.common.BlockValSet;
 import com.linkedin.pinot.core.common.Predicate;
 import com.linkedin.pinot.core.operator.aggregation.DataBlockCache;
 import com.linkedin.pinot.core.operator.docvalsets.ProjectionBlockValSet;
+import java.util.Collections;
 import java.util.Map;
 
 
@@ -36,11 +37,22 @@ public class ProjectionBlock implements Block {
   private final Map<String, Block> _blockMap;
   private final DocIdSetBlock _docIdSetBlock;
   private final DataBlockCache _dataBlockCache;
+  private final Map<String, BlockValSet> _blockValSetMap;
 
   public ProjectionBlock(Map<String, Block> blockMap, DataBlockCache dataBlockCache, DocIdSetBlock docIdSetBlock) {
+    this(blockMap, dataBlockCache, Collections.<String, BlockValSet>emptyMap(), docIdSetBlock);
+  }
+
+  /**
+   * Constructor with the block value sets of the columns, which are bound to the data block cache and can be reused
+   * across blocks.
+   */
+  public ProjectionBlock(Map<String, Block> blockMap, DataBlockCache dataBlockCache,
+      Map<String, BlockValSet> blockValSetMap, DocIdSetBlock docIdSetBlock) {
     _blockMap = blockMap;
     _docIdSetBlock = docIdSetBlock;
     _dataBlockCache = dataBlockCache;
+    _blockValSetMap = blockValSetMap;
     _dataBlockCache.initNewBlock(docIdSetBlock.getDocIdSet(), 0, docIdSetBlock.getSearchableLength());
   }
 
@@ -79,6 +91,10 @@ public class ProjectionBlock implements Block {
   }
 
   public BlockValSet getBlockValueSet(String column) {
+    BlockValSet blockValSet = _blockValSetMap.get(column);
+    if (blockValSet != null) {
+      return blockValSet;
+    }
     return new ProjectionBlockValSet(_dataBlockCache, column);
   }
 
@@ -35,31 +35,33 @@ public final class AndDocIdIterator implements BlockDocIdIterator {
   int currentMax = -1;
   private boolean hasScanBasedIterators;
 
+  /**
+   * The iterators are expected in evaluation order (see FilterPlanNode). Scan based iterators only probe the docs
+   * matched by the other iterators: if all iterators are scan based, the first one drives the iteration.
+   */
   public AndDocIdIterator(BlockDocIdIterator[] blockDocIdIterators) {
-    int numIndexBasedIterators = 0;
     int numScanBasedIterators = 0;
     for (int i = 0; i < blockDocIdIterators.length; i++) {
-      if (blockDocIdIterators[i] instanceof IndexBasedDocIdIterator) {
-        numIndexBasedIterators = numIndexBasedIterators + 1;
-      } else if (blockDocIdIterators[i] instanceof ScanBasedDocIdIterator) {
+      if (blockDocIdIterators[i] instanceof ScanBasedDocIdIterator) {
         numScanBasedIterators = numScanBasedIterators + 1;
       }
     }
-    // if we have at least one index based then do intersection based on index based only, and then
-    // check if matching docs apply on scan based iterator
-    if (numIndexBasedIterators > 0 && numScanBasedIterators > 0) {
+    // if we have at least one non scan based iterator, do intersection based on them only, and then check if matching
+    // docs apply on scan based iterators. With only scan based iterators, the first one is used for the intersection.
+    boolean allScanBased = numScanBasedIterators == blockDocIdIterators.length;
+    int numProbingIterators = allScanBased ? numScanBasedIterators - 1 : numScanBasedIterators;
+    if (numProbingIterators > 0) {
       hasScanBasedIterators = true;
-      int nonScanIteratorsSize = blockDocIdIterators.length - numScanBasedIterators;
-      this.docIdIterators = new BlockDocIdIterator[nonScanIteratorsSize];
-      this.scanBasedDocIdIterators = new ScanBasedDocIdIterator[numScanBasedIterators];
+      this.docIdIterators = new BlockDocIdIterator[blockDocIdIterators.length - numProbingIterators];
+      this.scanBasedDocIdIterators = new ScanBasedDocIdIterator[numProbingIterators];
       int nonScanBasedIndex = 0;
       int scanBasedIndex = 0;
       for (int i = 0; i < blockDocIdIterators.length; i++) {
-        if (blockDocIdIterators[i] instanceof ScanBasedDocIdIterator) {
-          this.scanBasedDocIdIterators[scanBasedIndex++] =
-              (ScanBasedDocIdIterator) blockDocIdIterators[i];
-        } else {
+        boolean isDriving = !(blockDocIdIterators[i] instanceof ScanBasedDocIdIterator) || (allScanBased && i == 0);
+        if (isDriving) {
           this.docIdIterators[nonScanBasedIndex++] = blockDocIdIterators[i];
+        } else {
+          this.scanBasedDocIdIterators[scanBasedIndex++] = (ScanBasedDocIdIterator) blockDocIdIterators[i];
         }
       }
     } else {
@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.dociditerators;
+
+import com.linkedin.pinot.core.common.BlockDocIdIterator;
+import com.linkedin.pinot.core.common.Constants;
+
+
+/**
+ * Iterates the doc ids within [startDocId, endDocId] that are not returned by the given iterator.
+ */
+public final class ExclusionDocIdIterator implements IndexBasedDocIdIterator {
+  private final BlockDocIdIterator _excludedDocIdIterator;
+  private final int _endDocId;
+  private int _nextExcludedDocId = -1;
+  private int _nextDocId;
+  private int _currentDocId = -1;
+
+  /**
+   * @param excludedDocIdIterator iterator over the doc ids to exclude
+   * @param startDocId inclusive
+   * @param endDocId inclusive
+   */
+  public ExclusionDocIdIterator(BlockDocIdIterator excludedDocIdIterator, int startDocId, int endDocId) {
+    _excludedDocIdIterator = excludedDocIdIterator;
+    _nextDocId = startDocId;
+    _endDocId = endDocId;
+  }
+
+  @Override
+  public int currentDocId() {
+    return _currentDocId;
+  }
+
+  @Override
+  public int next() {
+    return advance(_nextDocId);
+  }
+
+  @Override
+  public int advance(int targetDocId) {
+    if (_currentDocId == Constants.EOF) {
+      return Constants.EOF;
+    }
+    int docId = Math.max(targetDocId, _nextDocId);
+    while (docId <= _endDocId) {
+      if (_nextExcludedDocId != Constants.EOF && _nextExcludedDocId < docId) {
+        _nextExcludedDocId = _excludedDocIdIterator.advance(docId);
+      }
+      if (_nextExcludedDocId != docId) {
+        _currentDocId = docId;
+        _nextDocId = docId + 1;
+        return docId;
+      }
+      docId++;
+    }
+    _currentDocId = Constants.EOF;
+    return Constants.EOF;
+  }
+}
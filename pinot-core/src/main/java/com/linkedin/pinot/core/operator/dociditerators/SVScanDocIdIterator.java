@@ -18,10 +18,12 @@ package com.linkedin.pinot.core.operator.dociditerators;
 import org.roaringbitmap.IntIterator;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
+import com.linkedin.pinot.common.data.FieldSpec.DataType;
 import com.linkedin.pinot.core.common.BlockMetadata;
 import com.linkedin.pinot.core.common.BlockSingleValIterator;
 import com.linkedin.pinot.core.common.BlockValSet;
 import com.linkedin.pinot.core.common.Constants;
+import com.linkedin.pinot.core.operator.filter.predicate.BaseRawValuePredicateEvaluator;
 import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
 
 
@@ -33,11 +35,18 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   private PredicateEvaluator evaluator;
   private String datasourceName;
   private int _numEntriesScanned = 0;
+  // Set for columns without dictionary, where the predicate is applied on the raw values
+  private BaseRawValuePredicateEvaluator _rawValueEvaluator;
+  private DataType _dataType;
 
   public SVScanDocIdIterator(String datasourceName, BlockValSet blockValSet, BlockMetadata blockMetadata,
       PredicateEvaluator evaluator) {
     this.datasourceName = datasourceName;
     this.evaluator = evaluator;
+    if (evaluator instanceof BaseRawValuePredicateEvaluator) {
+      _rawValueEvaluator = (BaseRawValuePredicateEvaluator) evaluator;
+      _dataType = blockMetadata.getDataType();
+    }
     valueIterator = (BlockSingleValIterator) blockValSet.iterator();
     if (evaluator.alwaysFalse()) {
       currentDocId = Constants.EOF;
@@ -75,8 +84,7 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     }
     valueIterator.skipTo(docId);
     _numEntriesScanned++;
-    int dictIdForCurrentDoc = valueIterator.nextIntVal();
-    return evaluator.apply(dictIdForCurrentDoc);
+    return matchNextValue();
   }
 
   @Override
@@ -106,10 +114,7 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     while (valueIterator.hasNext() && currentDocId < endDocId) {
       currentDocId = currentDocId + 1;
       _numEntriesScanned++;
-      int dictIdForCurrentDoc = valueIterator.nextIntVal();
-      if (evaluator.apply(dictIdForCurrentDoc)) {
-        // System.out.println("Returning deom " + this +"doc Id:"+ currentDocId + " dictId:"+
-        // dictIdForCurrentDoc);
+      if (matchNextValue()) {
         return currentDocId;
       }
     }
@@ -140,7 +145,7 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
       if (docId >= startDocId) {
         valueIterator.skipTo(docId);
         _numEntriesScanned++;
-        if (evaluator.apply(valueIterator.nextIntVal())) {
+        if (matchNextValue()) {
           result.add(docId);
         }
       }
@@ -152,4 +157,27 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   public int getNumEntriesScanned() {
     return _numEntriesScanned;
   }
+
+  /**
+   * Reads the next value from the value iterator and applies the predicate on it.
+   */
+  private boolean matchNextValue() {
+    if (_rawValueEvaluator == null) {
+      return evaluator.apply(valueIterator.nextIntVal());
+    }
+    switch (_dataType) {
+      case INT:
+        return _rawValueEvaluator.applyInt(valueIterator.nextIntVal());
+      case LONG:
+        return _rawValueEvaluator.applyLong(valueIterator.nextLongVal());
+      case FLOAT:
+        return _rawValueEvaluator.applyFloat(valueIterator.nextFloatVal());
+      case DOUBLE:
+        return _rawValueEvaluator.applyDouble(valueIterator.nextDoubleVal());
+      case STRING:
+        return _rawValueEvaluator.applyString(valueIterator.nextStringVal());
+      default:
+        throw new UnsupportedOperationException("Unsupported data type for raw value scan: " + _dataType);
+    }
+  }
 }
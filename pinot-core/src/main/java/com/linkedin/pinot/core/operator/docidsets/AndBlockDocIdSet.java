@@ -205,11 +205,14 @@ public final class AndBlockDocIdSet implements FilterBlockDocIdSet {
       // At this point, we must have 'answer' to be non-null.
       assert (answer != null) : "sortedRangeSets=" + sortedRangeSets.size() + ",childBitmaps=" + childBitmaps.size();
 
-      // handle raw iterators
+      // handle raw iterators, in the order given by the plan (most selective first), each one only evaluating the
+      // docs matched so far
       for (FilterBlockDocIdSet scanBasedDocIdSet : scanBasedDocIdSets) {
+        if (answer.isEmpty()) {
+          break;
+        }
         ScanBasedDocIdIterator iterator = (ScanBasedDocIdIterator) scanBasedDocIdSet.iterator();
-        MutableRoaringBitmap scanAnswer = iterator.applyAnd(answer);
-        answer.and(scanAnswer);
+        answer = iterator.applyAnd(answer);
       }
       long end = System.currentTimeMillis();
       LOGGER.debug("Time to evaluate and Filter:{}", (end - start));
@@ -256,6 +259,10 @@ public final class AndBlockDocIdSet implements FilterBlockDocIdSet {
     updateMinMaxRange();
   }
 
+  public List<FilterBlockDocIdSet> getDocIdSets() {
+    return blockDocIdSets;
+  }
+
   @Override
   public long getNumEntriesScannedInFilter() {
     long numEntriesScannedInFilter = 0L;
@@ -63,6 +63,10 @@ public final class CompositeFilterBlockDocIdSet implements FilterBlockDocIdSet {
     throw new UnsupportedOperationException();
   }
 
+  public List<FilterBlockDocIdSet> getDocIdSets() {
+    return filterDocIdSets;
+  }
+
   @Override
   public long getNumEntriesScannedInFilter() {
     long numEntriesScannedInFilter = 0L;
@@ -139,6 +139,10 @@ public final class OrBlockDocIdSet implements FilterBlockDocIdSet {
     updateMinMaxRange();
   }
 
+  public List<FilterBlockDocIdSet> getDocIdSets() {
+    return docIdSets;
+  }
+
   @Override
   public long getNumEntriesScannedInFilter() {
     long numEntriesScannedInFilter = 0L;
@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.docidsets;
+
+import com.linkedin.pinot.core.common.BlockDocIdIterator;
+import com.linkedin.pinot.core.operator.dociditerators.BitmapDocIdIterator;
+import com.linkedin.pinot.core.operator.dociditerators.EmptyDocIdIterator;
+import com.linkedin.pinot.core.operator.dociditerators.ExclusionDocIdIterator;
+import com.linkedin.pinot.core.operator.dociditerators.OrDocIdIterator;
+import com.linkedin.pinot.core.realtime.impl.invertedIndex.RealtimeInvertedIndex;
+import java.util.Arrays;
+
+
+/**
+ * Doc id set of a consuming segment filtered on its inverted index. The doc ids are iterated in place from the
+ * inverted index, up to the end doc id, instead of being materialized into a bitmap.
+ */
+public final class RealtimeInvertedIndexDocIdSet implements FilterBlockDocIdSet {
+  private final RealtimeInvertedIndex _invertedIndex;
+  private final int[] _dictIds;
+  private final boolean _exclusion;
+  private int _startDocId;
+  private int _endDocId;
+
+  /**
+   * @param invertedIndex inverted index of the column
+   * @param dictIds dictionary ids to match, or to exclude if exclusion is true
+   * @param exclusion whether the doc ids of the dictionary ids are excluded rather than matched
+   * @param startDocId inclusive
+   * @param endDocId inclusive, must not exceed the searchable doc id of the segment when the query started
+   */
+  public RealtimeInvertedIndexDocIdSet(RealtimeInvertedIndex invertedIndex, int[] dictIds, boolean exclusion,
+      int startDocId, int endDocId) {
+    _invertedIndex = invertedIndex;
+    _dictIds = dictIds;
+    _exclusion = exclusion;
+    _startDocId = startDocId;
+    _endDocId = endDocId;
+  }
+
+  @Override
+  public int getMinDocId() {
+    return _startDocId;
+  }
+
+  @Override
+  public int getMaxDocId() {
+    return _endDocId;
+  }
+
+  @Override
+  public void setStartDocId(int startDocId) {
+    _startDocId = startDocId;
+  }
+
+  @Override
+  public void setEndDocId(int endDocId) {
+    _endDocId = endDocId;
+  }
+
+  @Override
+  public long getNumEntriesScannedInFilter() {
+    return 0L;
+  }
+
+  @Override
+  public BlockDocIdIterator iterator() {
+    BlockDocIdIterator docIdIterator;
+    int numDictIds = _dictIds.length;
+    if (numDictIds == 0) {
+      docIdIterator = new EmptyDocIdIterator();
+    } else if (numDictIds == 1) {
+      docIdIterator = getDocIdIterator(_dictIds[0]);
+    } else {
+      BlockDocIdIterator[] docIdIterators = new BlockDocIdIterator[numDictIds];
+      for (int i = 0; i < numDictIds; i++) {
+        docIdIterators[i] = getDocIdIterator(_dictIds[i]);
+      }
+      OrDocIdIterator orDocIdIterator = new OrDocIdIterator(docIdIterators);
+      orDocIdIterator.setStartDocId(_startDocId);
+      orDocIdIterator.setEndDocId(_endDocId);
+      docIdIterator = orDocIdIterator;
+    }
+    if (_exclusion) {
+      return new ExclusionDocIdIterator(docIdIterator, _startDocId, _endDocId);
+    }
+    return docIdIterator;
+  }
+
+  private BlockDocIdIterator getDocIdIterator(int dictId) {
+    BitmapDocIdIterator docIdIterator = new BitmapDocIdIterator(_invertedIndex.getDocIdIterator(dictId, _endDocId));
+    docIdIterator.setStartDocId(_startDocId);
+    docIdIterator.setEndDocId(_endDocId);
+    return docIdIterator;
+  }
+
+  @Override
+  public <T> T getRaw() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return (_exclusion ? "NOT " : "") + Arrays.toString(_dictIds);
+  }
+}
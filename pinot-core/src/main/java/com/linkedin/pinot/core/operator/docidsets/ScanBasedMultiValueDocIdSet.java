@@ -66,6 +66,10 @@ public class ScanBasedMultiValueDocIdSet implements FilterBlockDocIdSet {
     blockValSetBlockDocIdIterator.setEndDocId(endDocId);
   }
 
+  public String getDatasourceName() {
+    return datasourceName;
+  }
+
   @Override
   public long getNumEntriesScannedInFilter() {
     return blockValSetBlockDocIdIterator.getNumEntriesScanned();
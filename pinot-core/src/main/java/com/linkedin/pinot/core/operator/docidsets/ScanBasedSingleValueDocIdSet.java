@@ -67,6 +67,10 @@ public class ScanBasedSingleValueDocIdSet implements FilterBlockDocIdSet {
     blockValSetBlockDocIdIterator.setEndDocId(endDocId);
   }
 
+  public String getDatasourceName() {
+    return datasourceName;
+  }
+
   @Override
   public long getNumEntriesScannedInFilter() {
     return blockValSetBlockDocIdIterator.getNumEntriesScanned();
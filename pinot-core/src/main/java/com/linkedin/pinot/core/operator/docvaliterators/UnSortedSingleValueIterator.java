@@ -18,6 +18,7 @@ package com.linkedin.pinot.core.operator.docvaliterators;
 import com.linkedin.pinot.common.data.FieldSpec.DataType;
 import com.linkedin.pinot.core.common.BlockSingleValIterator;
 import com.linkedin.pinot.core.common.Constants;
+import com.linkedin.pinot.core.io.reader.ReaderContext;
 import com.linkedin.pinot.core.io.reader.SingleColumnSingleValueReader;
 import com.linkedin.pinot.core.segment.index.ColumnMetadata;
 
@@ -26,13 +27,17 @@ public final class UnSortedSingleValueIterator extends BlockSingleValIterator {
   private int counter = 0;
   private ColumnMetadata columnMetadata;
   private SingleColumnSingleValueReader sVReader;
-
+  // Context to read raw (no-dictionary) values, null for dictionary encoded columns
+  private ReaderContext context;
 
   public UnSortedSingleValueIterator(SingleColumnSingleValueReader sVReader,
       ColumnMetadata columnMetadata) {
     super();
     this.sVReader = sVReader;
     this.columnMetadata = columnMetadata;
+    if (!columnMetadata.hasDictionary()) {
+      context = sVReader.createContext();
+    }
   }
 
   @Override
@@ -57,14 +62,53 @@ public final class UnSortedSingleValueIterator extends BlockSingleValIterator {
       return Constants.EOF;
     }
 
+    if (context != null) {
+      return sVReader.getInt(counter++, context);
+    }
     return sVReader.getInt(counter++);
   }
 
+  @Override
+  public long nextLongVal() {
+    if (counter >= columnMetadata.getTotalDocs()) {
+      return Constants.EOF;
+    }
+    if (context != null) {
+      return sVReader.getLong(counter++, context);
+    }
+    return sVReader.getLong(counter++);
+  }
+
+  @Override
+  public float nextFloatVal() {
+    if (counter >= columnMetadata.getTotalDocs()) {
+      return Constants.EOF;
+    }
+    if (context != null) {
+      return sVReader.getFloat(counter++, context);
+    }
+    return sVReader.getFloat(counter++);
+  }
+
+  @Override
+  public double nextDoubleVal() {
+    if (counter >= columnMetadata.getTotalDocs()) {
+      return Constants.EOF;
+    }
+    if (context != null) {
+      return sVReader.getDouble(counter++, context);
+    }
+    return sVReader.getDouble(counter++);
+  }
+
   @Override
   public String nextStringVal() {
     if (counter >= columnMetadata.getTotalDocs()) {
       return null;
     }
+    if (context != null) {
+      return sVReader.getString(counter++, context);
+    }
     return sVReader.getString(counter++);
   }
 
@@ -33,7 +33,7 @@ public class ProjectionBlockValSet extends BaseBlockValSet {
   private DataBlockCache _dataBlockCache;
   private final BlockValIterator _blockValIterator;
   private final FieldSpec.DataType _columnDataType;
-  private String _column;
+  private final int _columnSlot;
 
   /**
 
@@ -47,39 +47,39 @@ public class ProjectionBlockValSet extends BaseBlockValSet {
    */
   public ProjectionBlockValSet(DataBlockCache dataBlockCache, String column) {
     _dataBlockCache = dataBlockCache;
-    _column = column;
+    _columnSlot = dataBlockCache.getColumnSlot(column);
     _columnDataType = _dataBlockCache.getDataType(column);
     _blockValIterator = _dataBlockCache.getDataFetcher().getBlockValIteratorForColumn(column);
   }
 
   @Override
   public int[] getIntValuesSV() {
-    return _dataBlockCache.getIntValueArrayForColumn(_column);
+    return _dataBlockCache.getIntValueArrayForColumn(_columnSlot);
   }
 
   @Override
   public int[][] getIntValuesMV() {
-    return _dataBlockCache.getIntValuesArrayForColumn(_column);
+    return _dataBlockCache.getIntValuesArrayForColumn(_columnSlot);
   }
 
   @Override
   public long[] getLongValuesSV() {
-    return _dataBlockCache.getLongValueArrayForColumn(_column);
+    return _dataBlockCache.getLongValueArrayForColumn(_columnSlot);
   }
 
   @Override
   public long[][] getLongValuesMV() {
-    return _dataBlockCache.getLongValuesArrayForColumn(_column);
+    return _dataBlockCache.getLongValuesArrayForColumn(_columnSlot);
   }
 
   @Override
   public float[] getFloatValuesSV() {
-    return _dataBlockCache.getFloatValueArrayForColumn(_column);
+    return _dataBlockCache.getFloatValueArrayForColumn(_columnSlot);
   }
 
   @Override
   public float[][] getFloatValuesMV() {
-    return _dataBlockCache.getFloatValuesArrayForColumn(_column);
+    return _dataBlockCache.getFloatValuesArrayForColumn(_columnSlot);
   }
 
   /**
@@ -90,7 +90,7 @@ public class ProjectionBlockValSet extends BaseBlockValSet {
    */
   @Override
   public double[] getDoubleValuesSV() {
-    return _dataBlockCache.getDoubleValueArrayForColumn(_column);
+    return _dataBlockCache.getDoubleValueArrayForColumn(_columnSlot);
   }
 
   /**
@@ -101,18 +101,18 @@ public class ProjectionBlockValSet extends BaseBlockValSet {
    */
   @Override
   public double[][] getDoubleValuesMV() {
-    return _dataBlockCache.getDoubleValuesArrayForColumn(_column);
+    return _dataBlockCache.getDoubleValuesArrayForColumn(_columnSlot);
   }
 
 
   @Override
   public String[] getStringValuesSV() {
-    return _dataBlockCache.getStringValueArrayForColumn(_column);
+    return _dataBlockCache.getStringValueArrayForColumn(_columnSlot);
   }
 
   @Override
   public String[][] getStringValuesMV() {
-    return _dataBlockCache.getStringValuesArrayForColumn(_column);
+    return _dataBlockCache.getStringValuesArrayForColumn(_columnSlot);
   }
 
   @Override
@@ -129,7 +129,7 @@ public class ProjectionBlockValSet extends BaseBlockValSet {
 
   @Override
   public int[] getDictionaryIds() {
-    return _dataBlockCache.getDictIdArrayForColumn(_column);
+    return _dataBlockCache.getDictIdArrayForColumn(_columnSlot);
   }
 
   @Override
@@ -141,6 +141,6 @@ public class ProjectionBlockValSet extends BaseBlockValSet {
 
   @Override
   public int[] getNumberOfMVEntriesArray() {
-    return _dataBlockCache.getNumberOfEntriesArrayForColumn(_column);
+    return _dataBlockCache.getNumberOfEntriesArrayForColumn(_columnSlot);
   }
 }
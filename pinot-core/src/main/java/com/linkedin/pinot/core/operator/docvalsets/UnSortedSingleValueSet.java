@@ -21,6 +21,7 @@ import com.linkedin.pinot.core.common.BaseBlockValSet;
 import com.linkedin.pinot.core.common.BlockValIterator;
 import com.linkedin.pinot.core.io.reader.ReaderContext;
 import com.linkedin.pinot.core.io.reader.SingleColumnSingleValueReader;
+import com.linkedin.pinot.core.io.reader.impl.v1.BaseChunkSingleValueReader;
 import com.linkedin.pinot.core.operator.docvaliterators.UnSortedSingleValueIterator;
 import com.linkedin.pinot.core.segment.index.ColumnMetadata;
 
@@ -45,6 +46,101 @@ public final class UnSortedSingleValueSet extends BaseBlockValSet {
     return this.columnMetadata.getDataType();
   }
 
+  /**
+   * Reads int values for the given docIds and returns in the passed in int[].
+   *
+   * @param inDocIds DocIds for which to get the values
+   * @param inStartPos start index in the inDocIds array
+   * @param inDocIdsSize size of docIds to read
+   * @param outValues Array where output is written
+   * @param outStartPos start index into output array
+   */
+  @Override
+  public void getIntValues(int[] inDocIds, int inStartPos, int inDocIdsSize, int[] outValues, int outStartPos) {
+    int inEndPos = inStartPos + inDocIdsSize;
+    ReaderContext context = getReaderContext();
+
+    switch (columnMetadata.getDataType()) {
+      case INT:
+        for (int i = inStartPos; i < inEndPos; i++) {
+          outValues[outStartPos++] = sVReader.getInt(inDocIds[i], context);
+        }
+        break;
+
+      default:
+        throw new UnsupportedOperationException(
+            "Cannot fetch int values for column: " + columnMetadata.getColumnName());
+    }
+  }
+
+  /**
+   * Reads long values for the given docIds and returns in the passed in long[].
+   * Compatible type (int) can also be read in as long.
+   *
+   * @param inDocIds DocIds for which to get the values
+   * @param inStartPos start index in the inDocIds array
+   * @param inDocIdsSize size of docIds to read
+   * @param outValues Array where output is written
+   * @param outStartPos start index into output array
+   */
+  @Override
+  public void getLongValues(int[] inDocIds, int inStartPos, int inDocIdsSize, long[] outValues, int outStartPos) {
+    int inEndPos = inStartPos + inDocIdsSize;
+    ReaderContext context = getReaderContext();
+
+    switch (columnMetadata.getDataType()) {
+      case INT:
+        for (int i = inStartPos; i < inEndPos; i++) {
+          outValues[outStartPos++] = sVReader.getInt(inDocIds[i], context);
+        }
+        break;
+
+      case LONG:
+        for (int i = inStartPos; i < inEndPos; i++) {
+          outValues[outStartPos++] = sVReader.getLong(inDocIds[i], context);
+        }
+        break;
+
+      default:
+        throw new UnsupportedOperationException(
+            "Cannot fetch long values for column: " + columnMetadata.getColumnName());
+    }
+  }
+
+  /**
+   * Reads float values for the given docIds and returns in the passed in float[].
+   * Compatible type (int) can also be read in as float.
+   *
+   * @param inDocIds DocIds for which to get the values
+   * @param inStartPos start index in the inDocIds array
+   * @param inDocIdsSize size of docIds to read
+   * @param outValues Array where output is written
+   * @param outStartPos start index into output array
+   */
+  @Override
+  public void getFloatValues(int[] inDocIds, int inStartPos, int inDocIdsSize, float[] outValues, int outStartPos) {
+    int inEndPos = inStartPos + inDocIdsSize;
+    ReaderContext context = getReaderContext();
+
+    switch (columnMetadata.getDataType()) {
+      case INT:
+        for (int i = inStartPos; i < inEndPos; i++) {
+          outValues[outStartPos++] = sVReader.getInt(inDocIds[i], context);
+        }
+        break;
+
+      case FLOAT:
+        for (int i = inStartPos; i < inEndPos; i++) {
+          outValues[outStartPos++] = sVReader.getFloat(inDocIds[i], context);
+        }
+        break;
+
+      default:
+        throw new UnsupportedOperationException(
+            "Cannot fetch float values for column: " + columnMetadata.getColumnName());
+    }
+  }
+
   /**
    * Reads double values for the given docIds and returns in the passed in double[].
    * Compatible types (int, float, long) can also be read in as double.
@@ -58,7 +154,7 @@ public final class UnSortedSingleValueSet extends BaseBlockValSet {
   @Override
   public void getDoubleValues(int[] inDocIds, int inStartPos, int inDocIdsSize, double[] outValues, int outStartPos) {
     int inEndPos = inStartPos + inDocIdsSize;
-    ReaderContext context = sVReader.createContext();
+    ReaderContext context = getReaderContext();
 
     switch (columnMetadata.getDataType()) {
       case INT:
@@ -93,7 +189,7 @@ public final class UnSortedSingleValueSet extends BaseBlockValSet {
 
   @Override
   public void getStringValues(int[] inDocIds, int inStartPos, int inDocIdsSize, String[] outValues, int outStartPos) {
-    ReaderContext context = sVReader.createContext();
+    ReaderContext context = getReaderContext();
     int inEndPos = inStartPos + inDocIdsSize;
     try {
       for (int i = inStartPos; i < inEndPos; i++) {
@@ -109,4 +205,15 @@ public final class UnSortedSingleValueSet extends BaseBlockValSet {
       int outStartPos) {
     sVReader.readValues(inDocIds, inStartPos, inDocIdsSize, outDictionaryIds, outStartPos);
   }
+
+  /**
+   * Returns the reader context to read values in bulk. Chunk readers of raw columns share a context per thread, so
+   * that the chunk buffer is not allocated for each block.
+   */
+  private ReaderContext getReaderContext() {
+    if (sVReader instanceof BaseChunkSingleValueReader) {
+      return ((BaseChunkSingleValueReader) sVReader).getThreadLocalContext();
+    }
+    return sVReader.createContext();
+  }
 }
@@ -21,6 +21,9 @@ import com.linkedin.pinot.core.common.Operator;
 import com.linkedin.pinot.core.common.Predicate;
 import com.linkedin.pinot.core.operator.BaseOperator;
 import com.linkedin.pinot.core.operator.blocks.BaseFilterBlock;
+import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
 
 
 /**
@@ -30,6 +33,7 @@ import com.linkedin.pinot.core.operator.blocks.BaseFilterBlock;
 public abstract class BaseFilterOperator extends BaseOperator {
 
   private Predicate predicate;
+  private PredicateEvaluator predicateEvaluator;
   private int nextBlockCallCounter = 0;
 
   public void setPredicate(Predicate predicate) {
@@ -40,6 +44,24 @@ public abstract class BaseFilterOperator extends BaseOperator {
     return predicate;
   }
 
+  /**
+   * Sets the predicate evaluator already built on the dictionary of the column at planning time, so that the operator
+   * does not build it again.
+   */
+  public void setPredicateEvaluator(PredicateEvaluator predicateEvaluator) {
+    this.predicateEvaluator = predicateEvaluator;
+  }
+
+  /**
+   * Returns the predicate evaluator set at planning time, or builds one on the given dictionary of the column.
+   */
+  protected PredicateEvaluator getPredicateEvaluator(Dictionary dictionary) {
+    if (predicateEvaluator == null) {
+      predicateEvaluator = PredicateEvaluatorProvider.getPredicateFunctionFor(predicate, dictionary);
+    }
+    return predicateEvaluator;
+  }
+
   @Override
   public final BaseFilterBlock getNextBlock() {
     return getNextBlock(new BlockId(0));
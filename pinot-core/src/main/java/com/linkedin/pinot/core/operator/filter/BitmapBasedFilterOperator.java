@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.core.operator.filter;
 
+import javax.annotation.Nullable;
 import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,7 +27,7 @@ import com.linkedin.pinot.core.common.Predicate;
 import com.linkedin.pinot.core.operator.blocks.BaseFilterBlock;
 import com.linkedin.pinot.core.operator.blocks.BitmapBlock;
 import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
-import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import com.linkedin.pinot.core.query.cache.FilterBitmapCache;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
 
@@ -41,6 +42,8 @@ public class BitmapBasedFilterOperator extends BaseFilterOperator {
 
   private int endDocId;
 
+  private FilterBitmapCache filterBitmapCache;
+
   /**
    * 
    * @param dataSource
@@ -48,9 +51,21 @@ public class BitmapBasedFilterOperator extends BaseFilterOperator {
    * @param endDocId inclusive
    */
   public BitmapBasedFilterOperator(DataSource dataSource, int startDocId, int endDocId) {
+    this(dataSource, startDocId, endDocId, null);
+  }
+
+  /**
+   * @param dataSource
+   * @param startDocId inclusive
+   * @param endDocId inclusive
+   * @param filterBitmapCache cache for the union of the matching bitmaps of the segment, null if disabled
+   */
+  public BitmapBasedFilterOperator(DataSource dataSource, int startDocId, int endDocId,
+      @Nullable FilterBitmapCache filterBitmapCache) {
     this.dataSource = dataSource;
     this.startDocId = startDocId;
     this.endDocId = endDocId;
+    this.filterBitmapCache = filterBitmapCache;
   }
 
   @Override
@@ -64,7 +79,7 @@ public class BitmapBasedFilterOperator extends BaseFilterOperator {
     InvertedIndexReader invertedIndex = dataSource.getInvertedIndex();
     Block dataSourceBlock = dataSource.nextBlock();
     Dictionary dictionary = dataSource.getDictionary();
-    PredicateEvaluator evaluator = PredicateEvaluatorProvider.getPredicateFunctionFor(predicate, dictionary);
+    PredicateEvaluator evaluator = getPredicateEvaluator(dictionary);
     int[] dictionaryIds;
     boolean exclusion = false;
     switch (predicate.getType()) {
@@ -83,9 +98,17 @@ public class BitmapBasedFilterOperator extends BaseFilterOperator {
       default:
         throw new UnsupportedOperationException("Regex is not supported");
     }
-    ImmutableRoaringBitmap[] bitmaps = new ImmutableRoaringBitmap[dictionaryIds.length];
-    for (int i = 0; i < dictionaryIds.length; i++) {
-      bitmaps[i] = invertedIndex.getImmutable(dictionaryIds[i]);
+    ImmutableRoaringBitmap[] bitmaps;
+    if (filterBitmapCache != null && dictionaryIds.length > 1) {
+      // Serve the union of the bitmaps from the cache, the matching dictionary ids being the normalized predicate
+      bitmaps = new ImmutableRoaringBitmap[]{
+          filterBitmapCache.getOrCompute(dataSource.getOperatorName(), dictionaryIds, invertedIndex)
+      };
+    } else {
+      bitmaps = new ImmutableRoaringBitmap[dictionaryIds.length];
+      for (int i = 0; i < dictionaryIds.length; i++) {
+        bitmaps[i] = invertedIndex.getImmutable(dictionaryIds[i]);
+      }
     }
     bitmapBlock = new BitmapBlock(dataSource.getOperatorName(), dataSourceBlock.getMetadata(), startDocId, endDocId, bitmaps, exclusion);
     return bitmapBlock;
@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.filter;
+
+import com.linkedin.pinot.core.common.BlockId;
+import com.linkedin.pinot.core.operator.blocks.BaseFilterBlock;
+import com.linkedin.pinot.core.operator.blocks.MatchEntireSegmentDocIdSetBlock;
+
+
+/**
+ * Filter operator matching no document, used when the filter is known to match nothing in the segment (e.g. the
+ * bloom filter of the column does not contain the value of an EQ predicate).
+ */
+public class EmptyFilterOperator extends BaseFilterOperator {
+
+  @Override
+  public boolean open() {
+    return true;
+  }
+
+  @Override
+  public boolean close() {
+    return true;
+  }
+
+  @Override
+  public BaseFilterBlock nextFilterBlock(BlockId blockId) {
+    return new MatchEntireSegmentDocIdSetBlock(0);
+  }
+}
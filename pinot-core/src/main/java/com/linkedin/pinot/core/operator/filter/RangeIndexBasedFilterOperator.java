@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.filter;
+
+import com.linkedin.pinot.core.common.Block;
+import com.linkedin.pinot.core.common.BlockId;
+import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.operator.blocks.BaseFilterBlock;
+import com.linkedin.pinot.core.operator.blocks.BitmapBlock;
+import com.linkedin.pinot.core.operator.dociditerators.ScanBasedDocIdIterator;
+import com.linkedin.pinot.core.operator.docidsets.FilterBlockDocIdSet;
+import com.linkedin.pinot.core.operator.docidsets.ScanBasedMultiValueDocIdSet;
+import com.linkedin.pinot.core.operator.docidsets.ScanBasedSingleValueDocIdSet;
+import com.linkedin.pinot.core.operator.filter.predicate.RangeOfflineDictionaryPredicateEvaluator;
+import com.linkedin.pinot.core.segment.index.readers.RangeIndexReader;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Filter operator for range predicates on columns with a range index.
+ * <p>The docs of the buckets fully covered by the range match without looking at their values, and only the docs of
+ * the boundary buckets are checked against the forward index.
+ */
+public class RangeIndexBasedFilterOperator extends BaseFilterOperator {
+  private final DataSource _dataSource;
+  private final int _startDocId;
+  private final int _endDocId;
+
+  /**
+   * @param dataSource data source of a column with a range index
+   * @param startDocId inclusive
+   * @param endDocId inclusive
+   */
+  public RangeIndexBasedFilterOperator(DataSource dataSource, int startDocId, int endDocId) {
+    _dataSource = dataSource;
+    _startDocId = startDocId;
+    _endDocId = endDocId;
+  }
+
+  @Override
+  public boolean open() {
+    return true;
+  }
+
+  @Override
+  public BaseFilterBlock nextFilterBlock(BlockId blockId) {
+    RangeIndexReader rangeIndex = _dataSource.getRangeIndex();
+    Block dataSourceBlock = _dataSource.nextBlock();
+    RangeOfflineDictionaryPredicateEvaluator evaluator =
+        (RangeOfflineDictionaryPredicateEvaluator) getPredicateEvaluator(_dataSource.getDictionary());
+
+    MutableRoaringBitmap matchingDocIds = new MutableRoaringBitmap();
+    int startDictId = evaluator.getStartDictId();
+    int endDictId = evaluator.getEndDictId();
+    if (startDictId <= endDictId) {
+      MutableRoaringBitmap boundaryDocIds = new MutableRoaringBitmap();
+      int endBucketId = rangeIndex.getBucketId(endDictId);
+      for (int bucketId = rangeIndex.getBucketId(startDictId); bucketId <= endBucketId; bucketId++) {
+        ImmutableRoaringBitmap docIds = rangeIndex.getDocIds(bucketId);
+        if (rangeIndex.getBucketStartDictId(bucketId) >= startDictId
+            && rangeIndex.getBucketStartDictId(bucketId + 1) - 1 <= endDictId) {
+          matchingDocIds.or(docIds);
+        } else {
+          boundaryDocIds.or(docIds);
+        }
+      }
+
+      if (!boundaryDocIds.isEmpty()) {
+        // Multi-value docs can be in several buckets, so skip the ones already matched
+        boundaryDocIds.andNot(matchingDocIds);
+        FilterBlockDocIdSet scanDocIdSet;
+        if (_dataSource.getDataSourceMetadata().isSingleValue()) {
+          scanDocIdSet = new ScanBasedSingleValueDocIdSet(_dataSource.getOperatorName(),
+              dataSourceBlock.getBlockValueSet(), dataSourceBlock.getMetadata(), evaluator);
+        } else {
+          scanDocIdSet = new ScanBasedMultiValueDocIdSet(_dataSource.getOperatorName(),
+              dataSourceBlock.getBlockValueSet(), dataSourceBlock.getMetadata(), evaluator);
+        }
+        matchingDocIds.or(((ScanBasedDocIdIterator) scanDocIdSet.iterator()).applyAnd(boundaryDocIds));
+      }
+    }
+
+    return new BitmapBlock(_dataSource.getOperatorName(), dataSourceBlock.getMetadata(), _startDocId, _endDocId,
+        new ImmutableRoaringBitmap[]{matchingDocIds});
+  }
+
+  @Override
+  public boolean close() {
+    return true;
+  }
+}
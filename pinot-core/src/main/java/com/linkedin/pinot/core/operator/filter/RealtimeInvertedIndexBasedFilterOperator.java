@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.filter;
+
+import com.linkedin.pinot.core.common.BlockDocIdValueSet;
+import com.linkedin.pinot.core.common.BlockId;
+import com.linkedin.pinot.core.common.BlockMetadata;
+import com.linkedin.pinot.core.common.BlockValSet;
+import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.common.Predicate;
+import com.linkedin.pinot.core.operator.blocks.BaseFilterBlock;
+import com.linkedin.pinot.core.operator.docidsets.FilterBlockDocIdSet;
+import com.linkedin.pinot.core.operator.docidsets.RealtimeInvertedIndexDocIdSet;
+import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import com.linkedin.pinot.core.realtime.impl.datasource.RealtimeColumnDataSource;
+import com.linkedin.pinot.core.realtime.impl.invertedIndex.RealtimeInvertedIndex;
+
+
+/**
+ * Filter operator on the inverted index of a consuming segment, which iterates the doc ids of the matching values
+ * from the index in place instead of getting their bitmaps.
+ */
+public class RealtimeInvertedIndexBasedFilterOperator extends BaseFilterOperator {
+  private final DataSource _dataSource;
+  private final int _startDocId;
+  private final int _endDocId;
+
+  /**
+   * @param dataSource
+   * @param startDocId inclusive
+   * @param endDocId inclusive
+   */
+  public RealtimeInvertedIndexBasedFilterOperator(DataSource dataSource, int startDocId, int endDocId) {
+    _dataSource = dataSource;
+    _startDocId = startDocId;
+    _endDocId = endDocId;
+  }
+
+  @Override
+  public boolean open() {
+    return true;
+  }
+
+  @Override
+  public BaseFilterBlock nextFilterBlock(BlockId blockId) {
+    Predicate predicate = getPredicate();
+    PredicateEvaluator evaluator = getPredicateEvaluator(_dataSource.getDictionary());
+    int[] dictIds;
+    boolean exclusion = false;
+    switch (predicate.getType()) {
+      case EQ:
+      case IN:
+      case RANGE:
+        dictIds = evaluator.getMatchingDictionaryIds();
+        break;
+      case NEQ:
+      case NOT_IN:
+        exclusion = true;
+        dictIds = evaluator.getNonMatchingDictionaryIds();
+        break;
+      case REGEX:
+      default:
+        throw new UnsupportedOperationException("Regex is not supported");
+    }
+    RealtimeInvertedIndex invertedIndex = ((RealtimeColumnDataSource) _dataSource).getRealtimeInvertedIndex();
+    return new RealtimeInvertedIndexBlock(
+        new RealtimeInvertedIndexDocIdSet(invertedIndex, dictIds, exclusion, _startDocId, _endDocId));
+  }
+
+  @Override
+  public boolean close() {
+    return true;
+  }
+
+  public static class RealtimeInvertedIndexBlock extends BaseFilterBlock {
+    private final RealtimeInvertedIndexDocIdSet _docIdSet;
+
+    public RealtimeInvertedIndexBlock(RealtimeInvertedIndexDocIdSet docIdSet) {
+      _docIdSet = docIdSet;
+    }
+
+    @Override
+    public BlockId getId() {
+      return new BlockId(0);
+    }
+
+    @Override
+    public boolean applyPredicate(Predicate predicate) {
+      throw new UnsupportedOperationException("applypredicate not supported in " + this.getClass());
+    }
+
+    @Override
+    public FilterBlockDocIdSet getFilteredBlockDocIdSet() {
+      return _docIdSet;
+    }
+
+    @Override
+    public BlockValSet getBlockValueSet() {
+      throw new UnsupportedOperationException("getBlockValueSet not supported in " + this.getClass());
+    }
+
+    @Override
+    public BlockDocIdValueSet getBlockDocIdValueSet() {
+      throw new UnsupportedOperationException("getBlockDocIdValueSet not supported in " + this.getClass());
+    }
+
+    @Override
+    public BlockMetadata getMetadata() {
+      throw new UnsupportedOperationException("getMetadata not supported in " + this.getClass());
+    }
+  }
+}
@@ -70,12 +70,18 @@ public class ScanBasedFilterOperator extends BaseFilterOperator {
     Block nextBlock = dataSource.nextBlock();
     BlockValSet blockValueSet = nextBlock.getBlockValueSet();
     BlockMetadata blockMetadata = nextBlock.getMetadata();
-    PredicateEvaluator evaluator = PredicateEvaluatorProvider.getPredicateFunctionFor(predicate, dictionary);
+    PredicateEvaluator evaluator;
+    if (dictionary != null) {
+      evaluator = getPredicateEvaluator(dictionary);
+    } else {
+      evaluator = PredicateEvaluatorProvider.getRawValuePredicateEvaluator(predicate, blockMetadata.getDataType());
+    }
+    // Name the doc id set after the predicate column, so that the entries it scans can be reported per column
+    String column = predicate.getLhs();
     if (dataSourceMetadata.isSingleValue()) {
-      docIdSet =
-          new ScanBasedSingleValueDocIdSet(dataSource.getOperatorName(), blockValueSet, blockMetadata, evaluator);
+      docIdSet = new ScanBasedSingleValueDocIdSet(column, blockValueSet, blockMetadata, evaluator);
     } else {
-      docIdSet = new ScanBasedMultiValueDocIdSet(dataSource.getOperatorName(), blockValueSet, blockMetadata, evaluator);
+      docIdSet = new ScanBasedMultiValueDocIdSet(column, blockValueSet, blockMetadata, evaluator);
     }
 
     if (startDocId != null) {
@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.filter.predicate;
+
+/**
+ * Base class for predicate evaluators on columns without dictionary, which are applied on the raw values instead of
+ * the dictionary ids.
+ */
+public abstract class BaseRawValuePredicateEvaluator implements PredicateEvaluator {
+
+  public boolean applyInt(int value) {
+    throw new UnsupportedOperationException();
+  }
+
+  public boolean applyLong(long value) {
+    throw new UnsupportedOperationException();
+  }
+
+  public boolean applyFloat(float value) {
+    throw new UnsupportedOperationException();
+  }
+
+  public boolean applyDouble(double value) {
+    throw new UnsupportedOperationException();
+  }
+
+  public boolean applyString(String value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean apply(int dictionaryId) {
+    throw new UnsupportedOperationException("Raw value predicate evaluator does not support dictionary ids");
+  }
+
+  @Override
+  public boolean apply(int[] dictionaryIds) {
+    throw new UnsupportedOperationException("Raw value predicate evaluator does not support dictionary ids");
+  }
+
+  @Override
+  public boolean apply(int[] dictionaryIds, int length) {
+    throw new UnsupportedOperationException("Raw value predicate evaluator does not support dictionary ids");
+  }
+
+  @Override
+  public int[] getMatchingDictionaryIds() {
+    throw new UnsupportedOperationException("Raw value predicate evaluator does not support dictionary ids");
+  }
+
+  @Override
+  public int[] getNonMatchingDictionaryIds() {
+    throw new UnsupportedOperationException("Raw value predicate evaluator does not support dictionary ids");
+  }
+
+  /**
+   * Without dictionary there is no cheap way to know that no value matches, so the column is always scanned.
+   */
+  @Override
+  public boolean alwaysFalse() {
+    return false;
+  }
+}
@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.core.operator.filter.predicate;
 
+import com.linkedin.pinot.common.data.FieldSpec.DataType;
 import com.linkedin.pinot.core.common.Predicate;
 import com.linkedin.pinot.core.common.predicate.EqPredicate;
 import com.linkedin.pinot.core.common.predicate.InPredicate;
@@ -52,4 +53,28 @@ public class PredicateEvaluatorProvider {
         throw new UnsupportedOperationException("UnKnown predicate type");
     }
   }
+
+  /**
+   * Returns the predicate evaluator for a column without dictionary, which is applied on the raw values.
+   */
+  public static BaseRawValuePredicateEvaluator getRawValuePredicateEvaluator(Predicate predicate, DataType dataType) {
+    switch (predicate.getType()) {
+      case EQ:
+        return new RawValueSetPredicateEvaluator(new String[]{((EqPredicate) predicate).getEqualsValue()}, false,
+            dataType);
+      case NEQ:
+        return new RawValueSetPredicateEvaluator(new String[]{((NEqPredicate) predicate).getNotEqualsValue()}, true,
+            dataType);
+      case IN:
+        return new RawValueSetPredicateEvaluator(((InPredicate) predicate).getInRange(), false, dataType);
+      case NOT_IN:
+        return new RawValueSetPredicateEvaluator(((NotInPredicate) predicate).getNotInRange(), true, dataType);
+      case RANGE:
+        return new RawValueRangePredicateEvaluator((RangePredicate) predicate, dataType);
+      case REGEX:
+        throw new UnsupportedOperationException("regex is not supported");
+      default:
+        throw new UnsupportedOperationException("UnKnown predicate type");
+    }
+  }
 }
@@ -82,6 +82,27 @@ public class RangeOfflineDictionaryPredicateEvaluator implements PredicateEvalua
     return false;
   }
 
+  /**
+   * Returns the first matching dictionary id (inclusive).
+   */
+  public int getStartDictId() {
+    return rangeStartIndex;
+  }
+
+  /**
+   * Returns the last matching dictionary id (inclusive), smaller than the first one if nothing matches.
+   */
+  public int getEndDictId() {
+    return rangeEndIndex;
+  }
+
+  /**
+   * Returns the number of matching dictionary ids, without materializing them.
+   */
+  public int getNumMatchingDictionaryIds() {
+    return matchingSize;
+  }
+
   @Override
   public int[] getMatchingDictionaryIds() {
     if (matchingIds == null) {
@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.filter.predicate;
+
+import com.linkedin.pinot.common.data.FieldSpec.DataType;
+import com.linkedin.pinot.core.common.predicate.RangePredicate;
+
+
+/**
+ * Raw value predicate evaluator for RANGE predicates. Numeric values are compared against the parsed boundaries,
+ * string values lexicographically. A <code>*</code> boundary means the range is unbounded on that side.
+ */
+public class RawValueRangePredicateEvaluator extends BaseRawValuePredicateEvaluator {
+  private static final String UNBOUNDED = "*";
+
+  private final boolean _hasLower;
+  private final boolean _hasUpper;
+  private final boolean _incLower;
+  private final boolean _incUpper;
+  private long _longLower;
+  private long _longUpper;
+  private double _doubleLower;
+  private double _doubleUpper;
+  private String _stringLower;
+  private String _stringUpper;
+
+  public RawValueRangePredicateEvaluator(RangePredicate predicate, DataType dataType) {
+    String lower = predicate.getLowerBoundary();
+    String upper = predicate.getUpperBoundary();
+    _hasLower = !lower.equals(UNBOUNDED);
+    _hasUpper = !upper.equals(UNBOUNDED);
+    _incLower = predicate.includeLowerBoundary();
+    _incUpper = predicate.includeUpperBoundary();
+
+    switch (dataType) {
+      case LONG:
+        if (_hasLower) {
+          _longLower = Long.parseLong(lower);
+        }
+        if (_hasUpper) {
+          _longUpper = Long.parseLong(upper);
+        }
+        break;
+      case INT:
+      case FLOAT:
+      case DOUBLE:
+        if (_hasLower) {
+          _doubleLower = Double.parseDouble(lower);
+        }
+        if (_hasUpper) {
+          _doubleUpper = Double.parseDouble(upper);
+        }
+        break;
+      case STRING:
+        _stringLower = lower;
+        _stringUpper = upper;
+        break;
+      default:
+        throw new UnsupportedOperationException("Unsupported data type for raw value predicate: " + dataType);
+    }
+  }
+
+  @Override
+  public boolean applyInt(int value) {
+    return applyDouble(value);
+  }
+
+  @Override
+  public boolean applyLong(long value) {
+    if (_hasLower && (_incLower ? value < _longLower : value <= _longLower)) {
+      return false;
+    }
+    return !(_hasUpper && (_incUpper ? value > _longUpper : value >= _longUpper));
+  }
+
+  @Override
+  public boolean applyFloat(float value) {
+    return applyDouble(value);
+  }
+
+  @Override
+  public boolean applyDouble(double value) {
+    if (_hasLower && (_incLower ? value < _doubleLower : value <= _doubleLower)) {
+      return false;
+    }
+    return !(_hasUpper && (_incUpper ? value > _doubleUpper : value >= _doubleUpper));
+  }
+
+  @Override
+  public boolean applyString(String value) {
+    if (_hasLower) {
+      int compare = value.compareTo(_stringLower);
+      if (_incLower ? compare < 0 : compare <= 0) {
+        return false;
+      }
+    }
+    if (_hasUpper) {
+      int compare = value.compareTo(_stringUpper);
+      if (_incUpper ? compare > 0 : compare >= 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
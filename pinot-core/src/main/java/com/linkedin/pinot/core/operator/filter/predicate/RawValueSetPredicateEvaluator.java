@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.filter.predicate;
+
+import com.linkedin.pinot.common.data.FieldSpec.DataType;
+import it.unimi.dsi.fastutil.doubles.DoubleOpenHashSet;
+import it.unimi.dsi.fastutil.doubles.DoubleSet;
+import it.unimi.dsi.fastutil.floats.FloatOpenHashSet;
+import it.unimi.dsi.fastutil.floats.FloatSet;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import java.util.HashSet;
+import java.util.Set;
+
+
+/**
+ * Raw value predicate evaluator for EQ, NEQ, IN and NOT IN predicates. Values are looked up in a primitive hash set
+ * of the column data type, and the result is negated for the exclusive predicates (NEQ and NOT IN).
+ */
+public class RawValueSetPredicateEvaluator extends BaseRawValuePredicateEvaluator {
+  private final boolean _exclusive;
+  private IntSet _intValues;
+  private LongSet _longValues;
+  private FloatSet _floatValues;
+  private DoubleSet _doubleValues;
+  private Set<String> _stringValues;
+
+  public RawValueSetPredicateEvaluator(String[] values, boolean exclusive, DataType dataType) {
+    _exclusive = exclusive;
+    switch (dataType) {
+      case INT:
+        _intValues = new IntOpenHashSet(values.length);
+        for (String value : values) {
+          _intValues.add(Integer.parseInt(value));
+        }
+        break;
+      case LONG:
+        _longValues = new LongOpenHashSet(values.length);
+        for (String value : values) {
+          _longValues.add(Long.parseLong(value));
+        }
+        break;
+      case FLOAT:
+        _floatValues = new FloatOpenHashSet(values.length);
+        for (String value : values) {
+          _floatValues.add(Float.parseFloat(value));
+        }
+        break;
+      case DOUBLE:
+        _doubleValues = new DoubleOpenHashSet(values.length);
+        for (String value : values) {
+          _doubleValues.add(Double.parseDouble(value));
+        }
+        break;
+      case STRING:
+        _stringValues = new HashSet<>(values.length);
+        for (String value : values) {
+          _stringValues.add(value);
+        }
+        break;
+      default:
+        throw new UnsupportedOperationException("Unsupported data type for raw value predicate: " + dataType);
+    }
+  }
+
+  @Override
+  public boolean applyInt(int value) {
+    return _intValues.contains(value) != _exclusive;
+  }
+
+  @Override
+  public boolean applyLong(long value) {
+    return _longValues.contains(value) != _exclusive;
+  }
+
+  @Override
+  public boolean applyFloat(float value) {
+    return _floatValues.contains(value) != _exclusive;
+  }
+
+  @Override
+  public boolean applyDouble(double value) {
+    return _doubleValues.contains(value) != _exclusive;
+  }
+
+  @Override
+  public boolean applyString(String value) {
+    return _stringValues.contains(value) != _exclusive;
+  }
+}
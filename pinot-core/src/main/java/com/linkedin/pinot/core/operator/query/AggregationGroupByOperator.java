@@ -72,11 +72,14 @@ public class AggregationGroupByOperator extends BaseOperator {
     groupByExecutor.finish();
 
     // Create execution statistics.
-    long numEntriesScannedInFilter = _transformOperator.getExecutionStatistics().getNumEntriesScannedInFilter();
+    ExecutionStatistics filterExecutionStatistics = _transformOperator.getExecutionStatistics();
+    long numEntriesScannedInFilter = filterExecutionStatistics.getNumEntriesScannedInFilter();
     long numEntriesScannedPostFilter = numDocsScanned * _transformOperator.getNumProjectionColumns();
     _executionStatistics =
         new ExecutionStatistics(numDocsScanned, numEntriesScannedInFilter, numEntriesScannedPostFilter,
             _numTotalRawDocs);
+    _executionStatistics.setNumEntriesScannedInFilterPerColumn(
+        filterExecutionStatistics.getNumEntriesScannedInFilterPerColumn());
 
     // Build intermediate result block based on aggregation group-by result from the executor.
     return new IntermediateResultsBlock(_aggregationFunctionContexts, groupByExecutor.getResult());
@@ -94,12 +94,15 @@ public class MSelectionOnlyOperator extends BaseOperator {
     }
 
     // Create execution statistics.
-    long numEntriesScannedInFilter = _projectionOperator.getExecutionStatistics().getNumEntriesScannedInFilter();
+    ExecutionStatistics filterExecutionStatistics = _projectionOperator.getExecutionStatistics();
+    long numEntriesScannedInFilter = filterExecutionStatistics.getNumEntriesScannedInFilter();
     long numEntriesScannedPostFilter = numDocsScanned * _projectionOperator.getNumProjectionColumns();
     long numTotalRawDocs = _indexSegment.getSegmentMetadata().getTotalRawDocs();
     _executionStatistics =
         new ExecutionStatistics(numDocsScanned, numEntriesScannedInFilter, numEntriesScannedPostFilter,
             numTotalRawDocs);
+    _executionStatistics.setNumEntriesScannedInFilterPerColumn(
+        filterExecutionStatistics.getNumEntriesScannedInFilterPerColumn());
 
     return new IntermediateResultsBlock(_dataSchema, _rowEvents);
   }
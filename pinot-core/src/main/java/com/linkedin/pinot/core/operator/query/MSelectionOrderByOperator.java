@@ -99,12 +99,15 @@ public class MSelectionOrderByOperator extends BaseOperator {
 
     // Create execution statistics.
     numDocsScanned += _selectionOperatorService.getNumDocsScanned();
-    long numEntriesScannedInFilter = _projectionOperator.getExecutionStatistics().getNumEntriesScannedInFilter();
+    ExecutionStatistics filterExecutionStatistics = _projectionOperator.getExecutionStatistics();
+    long numEntriesScannedInFilter = filterExecutionStatistics.getNumEntriesScannedInFilter();
     long numEntriesScannedPostFilter = numDocsScanned * _projectionOperator.getNumProjectionColumns();
     long numTotalRawDocs = _indexSegment.getSegmentMetadata().getTotalRawDocs();
     _executionStatistics =
         new ExecutionStatistics(numDocsScanned, numEntriesScannedInFilter, numEntriesScannedPostFilter,
             numTotalRawDocs);
+    _executionStatistics.setNumEntriesScannedInFilterPerColumn(
+        filterExecutionStatistics.getNumEntriesScannedInFilterPerColumn());
 
     return new IntermediateResultsBlock(_selectionOperatorService.getDataSchema(), _selectionOperatorService.getRows());
   }
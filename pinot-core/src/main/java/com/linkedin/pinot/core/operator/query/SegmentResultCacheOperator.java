@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.query;
+
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.core.common.Block;
+import com.linkedin.pinot.core.common.BlockId;
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.operator.BaseOperator;
+import com.linkedin.pinot.core.operator.ExecutionStatistics;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
+import javax.annotation.Nonnull;
+
+
+/**
+ * The <code>SegmentResultCacheOperator</code> class provides the operator for a single segment backed by the
+ * {@link SegmentResultCache}. It either returns the cached results of the segment without scanning it, or returns the
+ * results computed by the inner operator and caches them.
+ */
+public class SegmentResultCacheOperator extends BaseOperator {
+  private final IndexSegment _indexSegment;
+  private final BrokerRequest _canonicalRequest;
+  private final SegmentResultCache _segmentResultCache;
+  private final IntermediateResultsBlock _cachedResultsBlock;
+  private final Operator _innerOperator;
+  private ExecutionStatistics _executionStatistics;
+
+  /**
+   * Constructor for the cached results of the segment.
+   */
+  public SegmentResultCacheOperator(@Nonnull IndexSegment indexSegment,
+      @Nonnull IntermediateResultsBlock cachedResultsBlock) {
+    _indexSegment = indexSegment;
+    _canonicalRequest = null;
+    _segmentResultCache = null;
+    _cachedResultsBlock = cachedResultsBlock;
+    _innerOperator = null;
+  }
+
+  /**
+   * Constructor for the results of the segment computed by the inner operator, to be put into the cache.
+   */
+  public SegmentResultCacheOperator(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest canonicalRequest,
+      @Nonnull SegmentResultCache segmentResultCache, @Nonnull Operator innerOperator) {
+    _indexSegment = indexSegment;
+    _canonicalRequest = canonicalRequest;
+    _segmentResultCache = segmentResultCache;
+    _cachedResultsBlock = null;
+    _innerOperator = innerOperator;
+  }
+
+  @Override
+  public boolean open() {
+    if (_innerOperator != null) {
+      _innerOperator.open();
+    }
+    return true;
+  }
+
+  @Override
+  public Block getNextBlock() {
+    if (_innerOperator == null) {
+      // No document scanned for cached results.
+      _executionStatistics =
+          new ExecutionStatistics(0L, 0L, 0L, _indexSegment.getSegmentMetadata().getTotalRawDocs());
+      return _cachedResultsBlock;
+    }
+
+    // Cache the results before they get merged into the results of other segments.
+    IntermediateResultsBlock resultsBlock = (IntermediateResultsBlock) _innerOperator.nextBlock();
+    _executionStatistics = _innerOperator.getExecutionStatistics();
+    _segmentResultCache.put(_indexSegment, _canonicalRequest, resultsBlock);
+    return resultsBlock;
+  }
+
+  @Override
+  public Block getNextBlock(BlockId blockId) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean close() {
+    if (_innerOperator != null) {
+      _innerOperator.close();
+    }
+    return true;
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    return _executionStatistics;
+  }
+}
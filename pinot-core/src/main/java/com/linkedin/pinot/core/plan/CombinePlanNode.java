@@ -42,6 +42,7 @@ public class CombinePlanNode implements PlanNode {
   private final BrokerRequest _brokerRequest;
   private final ExecutorService _executorService;
   private final long _timeOutMs;
+  private final int _numGroupByPartitions;
 
   /**
    * Constructor.
@@ -53,10 +54,25 @@ public class CombinePlanNode implements PlanNode {
    */
   public CombinePlanNode(List<PlanNode> planNodes, BrokerRequest brokerRequest, ExecutorService executorService,
       long timeOutMs) {
+    this(planNodes, brokerRequest, executorService, timeOutMs, 0);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param planNodes list of underlying plan nodes.
+   * @param brokerRequest broker request.
+   * @param executorService executor service.
+   * @param timeOutMs time out in milliseconds.
+   * @param numGroupByPartitions number of partitions for partitioned group-by combine, non-positive to disable it.
+   */
+  public CombinePlanNode(List<PlanNode> planNodes, BrokerRequest brokerRequest, ExecutorService executorService,
+      long timeOutMs, int numGroupByPartitions) {
     _planNodes = planNodes;
     _brokerRequest = brokerRequest;
     _executorService = executorService;
     _timeOutMs = timeOutMs;
+    _numGroupByPartitions = numGroupByPartitions;
   }
 
   @Override
@@ -115,7 +131,8 @@ public class CombinePlanNode implements PlanNode {
     // TODO: use the same combine operator for both aggregation and selection query.
     if (_brokerRequest.isSetAggregationsInfo() && _brokerRequest.getGroupBy() != null) {
       // Aggregation group-by query.
-      return new MCombineGroupByOperator(operators, _executorService, _timeOutMs, _brokerRequest);
+      return new MCombineGroupByOperator(operators, _executorService, _timeOutMs, _brokerRequest,
+          _numGroupByPartitions);
     } else {
       // Selection or aggregation only query.
       return new MCombineOperator(operators, _executorService, _timeOutMs, _brokerRequest);
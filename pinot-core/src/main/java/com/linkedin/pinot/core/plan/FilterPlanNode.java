@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -38,20 +39,37 @@ import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.operator.filter.AndOperator;
 import com.linkedin.pinot.core.operator.filter.BaseFilterOperator;
 import com.linkedin.pinot.core.operator.filter.BitmapBasedFilterOperator;
+import com.linkedin.pinot.core.operator.filter.EmptyFilterOperator;
 import com.linkedin.pinot.core.operator.filter.MatchEntireSegmentOperator;
 import com.linkedin.pinot.core.operator.filter.OrOperator;
+import com.linkedin.pinot.core.operator.filter.RangeIndexBasedFilterOperator;
+import com.linkedin.pinot.core.operator.filter.RealtimeInvertedIndexBasedFilterOperator;
 import com.linkedin.pinot.core.operator.filter.ScanBasedFilterOperator;
 import com.linkedin.pinot.core.operator.filter.SortedInvertedIndexBasedFilterOperator;
 import com.linkedin.pinot.core.operator.filter.StarTreeIndexOperator;
+import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import com.linkedin.pinot.core.operator.filter.predicate.RangeOfflineDictionaryPredicateEvaluator;
+import com.linkedin.pinot.core.query.cache.FilterBitmapCache;
+import com.linkedin.pinot.core.query.pruner.BloomFilterSegmentPruner;
 import com.linkedin.pinot.core.realtime.RealtimeSegment;
+import com.linkedin.pinot.core.realtime.impl.datasource.RealtimeColumnDataSource;
+import com.linkedin.pinot.core.segment.index.IndexSegmentImpl;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
 
 
 /**
  */
 public class FilterPlanNode implements PlanNode {
   private static final Logger LOGGER = LoggerFactory.getLogger(FilterPlanNode.class);
+  // Selectivity of the filters for which it cannot be estimated
+  private static final double DEFAULT_SELECTIVITY = 1.0;
+
   private final BrokerRequest _brokerRequest;
   private final IndexSegment _segment;
+  // Estimated fraction of the docs of the segment matched by each filter operator
+  private final Map<Operator, Double> _selectivityMap = new IdentityHashMap<>();
 
   public FilterPlanNode(IndexSegment segment, BrokerRequest brokerRequest) {
     _segment = segment;
@@ -86,19 +104,42 @@ public class FilterPlanNode implements PlanNode {
 
     if (!isLeaf) {
       List<Operator> operators = new ArrayList<Operator>();
+      final FilterOperator filterType = filterQueryTree.getOperator();
       for (final FilterQueryTree query : childFilters) {
         Operator childOperator = constructPhysicalOperator(query);
+        if (childOperator instanceof EmptyFilterOperator) {
+          // AND with a child matching nothing matches nothing, OR can skip the child
+          if (filterType == FilterOperator.AND) {
+            return childOperator;
+          }
+          continue;
+        }
         operators.add(childOperator);
       }
-      final FilterOperator filterType = filterQueryTree.getOperator();
       switch (filterType) {
         case AND:
           reorder(operators);
           ret = new AndOperator(operators);
+          double andSelectivity = 1.0;
+          for (Operator operator : operators) {
+            andSelectivity *= getSelectivity(operator);
+          }
+          _selectivityMap.put(ret, andSelectivity);
           break;
         case OR:
+          if (operators.isEmpty()) {
+            return new EmptyFilterOperator();
+          }
+          if (operators.size() == 1) {
+            return operators.get(0);
+          }
           reorder(operators);
           ret = new OrOperator(operators);
+          double orSelectivity = 0.0;
+          for (Operator operator : operators) {
+            orSelectivity += getSelectivity(operator);
+          }
+          _selectivityMap.put(ret, Math.min(orSelectivity, 1.0));
           break;
         default:
           throw new UnsupportedOperationException(
@@ -111,18 +152,42 @@ public class FilterPlanNode implements PlanNode {
 
       DataSource ds;
       ds = _segment.getDataSource(column);
+      BloomFilterReader bloomFilter = ds.getBloomFilter();
+      if (bloomFilter != null && !BloomFilterSegmentPruner.mightMatch(bloomFilter, filterType, column,
+          filterQueryTree.getValue())) {
+        return new EmptyFilterOperator();
+      }
+      // Build the predicate evaluator once, it is used for the selectivity estimate and then by the filter operator
+      PredicateEvaluator predicateEvaluator = null;
+      Dictionary dictionary = ds.getDictionary();
+      if (dictionary != null && predicate.getType() != Predicate.Type.REGEX) {
+        predicateEvaluator = PredicateEvaluatorProvider.getPredicateFunctionFor(predicate, dictionary);
+      }
+      double selectivity = estimateSelectivity(predicate, predicateEvaluator, ds.getDataSourceMetadata().cardinality());
+      if (selectivity == 0.0 && !(_segment instanceof RealtimeSegment)) {
+        // No value of the segment matches the predicate (realtime dictionaries can still get new values)
+        return new EmptyFilterOperator();
+      }
       DataSourceMetadata dataSourceMetadata = ds.getDataSourceMetadata();
       BaseFilterOperator baseFilterOperator;
       int startDocId = 0;
       int endDocId = _segment.getSegmentMetadata().getTotalRawDocs() - 1; //end is inclusive
-      if (dataSourceMetadata.hasInvertedIndex()) {
+      if (filterType.equals(FilterOperator.RANGE) && ds.getRangeIndex() != null) {
+        baseFilterOperator = new RangeIndexBasedFilterOperator(ds, startDocId, endDocId);
+      } else if (dataSourceMetadata.hasInvertedIndex()) {
         // range evaluation based on inv index is inefficient, so do this only if is NOT range.
         if (!filterType.equals(FilterOperator.RANGE)) {
           if (dataSourceMetadata.isSingleValue() && dataSourceMetadata.isSorted()) {
             // if the column is sorted use sorted inverted index based implementation
             baseFilterOperator = new SortedInvertedIndexBasedFilterOperator(ds, startDocId, endDocId);
+          } else if (ds instanceof RealtimeColumnDataSource) {
+            baseFilterOperator = new RealtimeInvertedIndexBasedFilterOperator(ds, startDocId, endDocId);
           } else {
-            baseFilterOperator = new BitmapBasedFilterOperator(ds, startDocId, endDocId);
+            FilterBitmapCache filterBitmapCache = null;
+            if (_segment instanceof IndexSegmentImpl) {
+              filterBitmapCache = ((IndexSegmentImpl) _segment).getFilterBitmapCache();
+            }
+            baseFilterOperator = new BitmapBasedFilterOperator(ds, startDocId, endDocId, filterBitmapCache);
           }
         } else {
           baseFilterOperator = new ScanBasedFilterOperator(ds, startDocId, endDocId);
@@ -131,14 +196,55 @@ public class FilterPlanNode implements PlanNode {
         baseFilterOperator = new ScanBasedFilterOperator(ds, startDocId, endDocId);
       }
       baseFilterOperator.setPredicate(predicate);
+      baseFilterOperator.setPredicateEvaluator(predicateEvaluator);
+      _selectivityMap.put(baseFilterOperator, selectivity);
       ret = baseFilterOperator;
     }
     return ret;
   }
 
   /**
-   * Re orders operators, puts Sorted -> Inverted and then Raw scan. TODO: With Inverted, we can
-   * further optimize based on cardinality
+   * Estimates the fraction of the docs of the segment matched by a predicate, from the number of dictionary ids it
+   * matches and the cardinality of the column, assuming values are uniformly distributed.
+   *
+   * @param predicateEvaluator evaluator of the predicate on the dictionary of the column, or null without dictionary.
+   * @return estimated selectivity between 0 and 1, 0 only if no value of the column matches the predicate.
+   */
+  static double estimateSelectivity(Predicate predicate, PredicateEvaluator predicateEvaluator, int cardinality) {
+    if (predicateEvaluator == null || cardinality <= 0) {
+      return DEFAULT_SELECTIVITY;
+    }
+    switch (predicate.getType()) {
+      case EQ:
+      case IN:
+        return Math.min((double) predicateEvaluator.getMatchingDictionaryIds().length / cardinality, 1.0);
+      case NEQ:
+      case NOT_IN:
+        // Multi-value docs can still match with a non matching value, so never estimate 0 here
+        double nonMatchingFraction = (double) predicateEvaluator.getNonMatchingDictionaryIds().length / cardinality;
+        return Math.max(1.0 - nonMatchingFraction, 1.0 / cardinality);
+      case RANGE:
+        // Offline range evaluators only materialize the matching dictionary ids on demand
+        if (predicateEvaluator instanceof RangeOfflineDictionaryPredicateEvaluator) {
+          int numMatchingDictionaryIds =
+              ((RangeOfflineDictionaryPredicateEvaluator) predicateEvaluator).getNumMatchingDictionaryIds();
+          return Math.min((double) numMatchingDictionaryIds / cardinality, 1.0);
+        }
+        return Math.min((double) predicateEvaluator.getMatchingDictionaryIds().length / cardinality, 1.0);
+      default:
+        return DEFAULT_SELECTIVITY;
+    }
+  }
+
+  private double getSelectivity(Operator operator) {
+    Double selectivity = _selectivityMap.get(operator);
+    return selectivity != null ? selectivity : DEFAULT_SELECTIVITY;
+  }
+
+  /**
+   * Re orders operators by evaluation cost: puts Sorted -> Inverted and then Raw scan, and within each kind the most
+   * selective operators first. For AND, the index based children narrow down the candidate docs first, and the scan
+   * based children are evaluated most selective first, each only on the docs matched so far.
    * @param operators
    */
   private void reorder(List<Operator> operators) {
@@ -150,7 +256,9 @@ public class FilterPlanNode implements PlanNode {
         priority = 0;
       } else if (operator instanceof AndOperator) {
         priority = 1;
-      } else if (operator instanceof BitmapBasedFilterOperator) {
+      } else if (operator instanceof BitmapBasedFilterOperator
+          || operator instanceof RealtimeInvertedIndexBasedFilterOperator
+          || operator instanceof RangeIndexBasedFilterOperator) {
         priority = 2;
       } else if (operator instanceof ScanBasedFilterOperator) {
         priority = 3;
@@ -163,7 +271,11 @@ public class FilterPlanNode implements PlanNode {
     Comparator<? super Operator> comparator = new Comparator<Operator>() {
       @Override
       public int compare(Operator o1, Operator o2) {
-        return Integer.compare(operatorPriorityMap.get(o1), operatorPriorityMap.get(o2));
+        int result = Integer.compare(operatorPriorityMap.get(o1), operatorPriorityMap.get(o2));
+        if (result != 0) {
+          return result;
+        }
+        return Double.compare(getSelectivity(o1), getSelectivity(o2));
       }
     };
     Collections.sort(operators, comparator);
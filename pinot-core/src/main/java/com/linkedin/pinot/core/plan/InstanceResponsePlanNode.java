@@ -16,6 +16,7 @@
 package com.linkedin.pinot.core.plan;
 
 import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.common.datatable.DataTableFactory;
 import com.linkedin.pinot.core.operator.UResultOperator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,15 +29,24 @@ public class InstanceResponsePlanNode implements PlanNode {
   private static final Logger LOGGER = LoggerFactory.getLogger(InstanceResponsePlanNode.class);
 
   private final CombinePlanNode _combinePlanNode;
+  private final int _dataTableVersion;
 
   public InstanceResponsePlanNode(CombinePlanNode combinePlanNode) {
+    this(combinePlanNode, DataTableFactory.VERSION_2);
+  }
+
+  /**
+   * @param dataTableVersion version of the data table to build the instance response with
+   */
+  public InstanceResponsePlanNode(CombinePlanNode combinePlanNode, int dataTableVersion) {
     _combinePlanNode = combinePlanNode;
+    _dataTableVersion = dataTableVersion;
   }
 
   @Override
   public Operator run() {
     long start = System.currentTimeMillis();
-    UResultOperator uResultOperator = new UResultOperator(_combinePlanNode.run());
+    UResultOperator uResultOperator = new UResultOperator(_combinePlanNode.run(), _dataTableVersion);
     long end = System.currentTimeMillis();
     LOGGER.debug("InstanceResponsePlanNode.run took: {}ms", end - start);
     return uResultOperator;
@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.plan;
+
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.operator.aggregation.function.AggregationFunctionUtils;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.operator.query.SegmentResultCacheOperator;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>SegmentResultCachePlanNode</code> class provides the execution plan for a single segment backed by the
+ * {@link SegmentResultCache}, only running the inner plan node if the results of the segment are not cached.
+ */
+public class SegmentResultCachePlanNode implements PlanNode {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentResultCachePlanNode.class);
+
+  private final IndexSegment _indexSegment;
+  private final BrokerRequest _canonicalRequest;
+  private final SegmentResultCache _segmentResultCache;
+  private final PlanNode _innerPlanNode;
+
+  /**
+   * @param indexSegment immutable index segment.
+   * @param canonicalRequest canonical form of the aggregation (group-by) request.
+   * @param segmentResultCache segment result cache.
+   * @param innerPlanNode plan node computing the results of the segment.
+   */
+  public SegmentResultCachePlanNode(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest canonicalRequest,
+      @Nonnull SegmentResultCache segmentResultCache, @Nonnull PlanNode innerPlanNode) {
+    _indexSegment = indexSegment;
+    _canonicalRequest = canonicalRequest;
+    _segmentResultCache = segmentResultCache;
+    _innerPlanNode = innerPlanNode;
+  }
+
+  @Override
+  public Operator run() {
+    IntermediateResultsBlock cachedResultsBlock = _segmentResultCache.get(_indexSegment, _canonicalRequest,
+        AggregationFunctionUtils.getAggregationFunctionContexts(_canonicalRequest.getAggregationsInfo(),
+            _indexSegment.getSegmentMetadata()));
+    if (cachedResultsBlock != null) {
+      return new SegmentResultCacheOperator(_indexSegment, cachedResultsBlock);
+    }
+    return new SegmentResultCacheOperator(_indexSegment, _canonicalRequest, _segmentResultCache,
+        _innerPlanNode.run());
+  }
+
+  @Override
+  public void showTree(String prefix) {
+    LOGGER.debug(prefix + "Segment Level Inner-Segment Plan Node:");
+    LOGGER.debug(prefix + "Operator: SegmentResultCacheOperator");
+    LOGGER.debug(prefix + "Argument 0: IndexSegment - " + _indexSegment.getSegmentName());
+    LOGGER.debug(prefix + "Argument 1: Inner Plan -");
+    _innerPlanNode.showTree(prefix + "    ");
+  }
+}
@@ -16,6 +16,7 @@
 package com.linkedin.pinot.core.plan.maker;
 
 import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.core.common.datatable.DataTableFactory;
 import com.linkedin.pinot.core.data.manager.offline.SegmentDataManager;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.plan.AggregationGroupByPlanNode;
@@ -25,11 +26,14 @@ import com.linkedin.pinot.core.plan.GlobalPlanImplV0;
 import com.linkedin.pinot.core.plan.InstanceResponsePlanNode;
 import com.linkedin.pinot.core.plan.Plan;
 import com.linkedin.pinot.core.plan.PlanNode;
+import com.linkedin.pinot.core.plan.SegmentResultCachePlanNode;
 import com.linkedin.pinot.core.plan.SelectionPlanNode;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
 import com.linkedin.pinot.core.query.config.QueryExecutorConfig;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,25 +51,52 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   // private static final int DEFAULT_NUM_AGGR_GROUPS_LIMIT = 100_000;
   private final int _numAggrGroupsLimit = Integer.MAX_VALUE;
 
+  // Number of partitions for the partitioned group-by combine, non-positive value to use the striped-lock combine.
+  public static final String NUM_GROUP_BY_COMBINE_PARTITIONS = "num.groupby.combine.partitions";
+  private static final int DEFAULT_NUM_GROUP_BY_COMBINE_PARTITIONS = 0;
+  private final int _numGroupByCombinePartitions;
+
+  // Cache for the per segment results, null if disabled.
+  private final SegmentResultCache _segmentResultCache;
+
   /**
    * Default constructor.
    */
   public InstancePlanMakerImplV2() {
 //    _numAggrGroupsLimit = DEFAULT_NUM_AGGR_GROUPS_LIMIT;
+    _numGroupByCombinePartitions = DEFAULT_NUM_GROUP_BY_COMBINE_PARTITIONS;
+    _segmentResultCache = null;
   }
 
   /**
    * Constructor for usage when client requires to pass {@link QueryExecutorConfig} to this class.
    * <ul>
    *   <li>Set limit on number of aggregation groups in query result.</li>
+   *   <li>Set number of partitions for the partitioned group-by combine.</li>
    * </ul>
    *
    * @param queryExecutorConfig query executor configuration.
    */
   public InstancePlanMakerImplV2(QueryExecutorConfig queryExecutorConfig) {
+    this(queryExecutorConfig, null);
+  }
+
+  /**
+   * Constructor for usage when client requires to pass {@link QueryExecutorConfig} and the {@link SegmentResultCache}
+   * to this class.
+   *
+   * @param queryExecutorConfig query executor configuration.
+   * @param segmentResultCache cache for the per segment results, null if disabled.
+   */
+  public InstancePlanMakerImplV2(QueryExecutorConfig queryExecutorConfig,
+      @Nullable SegmentResultCache segmentResultCache) {
     // TODO: Read the limit on number of aggregation groups in query result from config.
     // _numAggrGroupsLimit = queryExecutorConfig.getConfig().getInt(NUM_AGGR_GROUPS_LIMIT, DEFAULT_NUM_AGGR_GROUPS_LIMIT);
     // LOGGER.info("Maximum number of allowed groups for group-by query results: '{}'", _numAggrGroupsLimit);
+    _numGroupByCombinePartitions = queryExecutorConfig.getConfig()
+        .getInt(NUM_GROUP_BY_COMBINE_PARTITIONS, DEFAULT_NUM_GROUP_BY_COMBINE_PARTITIONS);
+    LOGGER.info("Number of partitions for group-by combine: '{}'", _numGroupByCombinePartitions);
+    _segmentResultCache = segmentResultCache;
   }
 
   @Override
@@ -99,12 +130,24 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     }
     BrokerRequestPreProcessor.preProcess(indexSegments, brokerRequest);
 
+    // Serve the results of immutable segments from the segment result cache if enabled.
+    BrokerRequest canonicalRequest = null;
+    if (_segmentResultCache != null && SegmentResultCache.isCacheable(brokerRequest)) {
+      canonicalRequest = SegmentResultCache.getCanonicalRequest(brokerRequest);
+    }
+
     List<PlanNode> planNodes = new ArrayList<>();
     for (IndexSegment indexSegment : indexSegments) {
-      planNodes.add(makeInnerSegmentPlan(indexSegment, brokerRequest));
+      PlanNode planNode = makeInnerSegmentPlan(indexSegment, brokerRequest);
+      if (canonicalRequest != null && SegmentResultCache.isCacheable(indexSegment)) {
+        planNode = new SegmentResultCachePlanNode(indexSegment, canonicalRequest, _segmentResultCache, planNode);
+      }
+      planNodes.add(planNode);
     }
-    CombinePlanNode combinePlanNode = new CombinePlanNode(planNodes, brokerRequest, executorService, timeOutMs);
+    CombinePlanNode combinePlanNode =
+        new CombinePlanNode(planNodes, brokerRequest, executorService, timeOutMs, _numGroupByCombinePartitions);
 
-    return new GlobalPlanImplV0(new InstanceResponsePlanNode(combinePlanNode));
+    return new GlobalPlanImplV0(
+        new InstanceResponsePlanNode(combinePlanNode, DataTableFactory.getResponseVersion(brokerRequest)));
   }
 }
@@ -0,0 +1,196 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.cache;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.common.metrics.ServerGauge;
+import com.linkedin.pinot.common.metrics.ServerMeter;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.roaringbitmap.buffer.BufferFastAggregation;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * The <code>FilterBitmapCache</code> class caches the materialized bitmaps of the inverted index based filters on an
+ * immutable segment, so that the predicates applied repeatedly by different queries do not OR the same per dictionary
+ * id bitmaps every time.
+ * <p>One cache is attached to each loaded segment. Entries are keyed by the column and the sorted matching dictionary
+ * ids, which is the normalized form of the predicate on the segment, and bounded by the total size of the bitmaps
+ * with LRU eviction. The cache is cleared when the segment is destroyed.
+ * <p>Enabled with <code>filter.bitmap.cache.maxSizeInBytes</code> in the instance data manager config, which bounds the
+ * cache of each segment.
+ */
+@ThreadSafe
+public class FilterBitmapCache {
+  private final long _maxSizeInBytes;
+  private final String _tableName;
+  private final ServerMetrics _serverMetrics;
+
+  // Guarded by this, in access order for LRU eviction
+  private final LinkedHashMap<Key, ImmutableRoaringBitmap> _cache = new LinkedHashMap<>(16, 0.75f, true);
+  private long _sizeInBytes = 0L;
+
+  /**
+   * @param maxSizeInBytes max total size of the cached bitmaps and keys.
+   * @param tableName table name with type suffix, to emit the metrics for.
+   * @param serverMetrics server metrics, null to not emit metrics.
+   */
+  public FilterBitmapCache(long maxSizeInBytes, @Nonnull String tableName, @Nullable ServerMetrics serverMetrics) {
+    Preconditions.checkArgument(maxSizeInBytes > 0, "Max size in bytes must be positive, got: %s", maxSizeInBytes);
+    _maxSizeInBytes = maxSizeInBytes;
+    _tableName = tableName;
+    _serverMetrics = serverMetrics;
+  }
+
+  /**
+   * Returns the union of the inverted index bitmaps for the given dictionary ids of the column, from the cache if
+   * present, otherwise computed and cached.
+   *
+   * @param column column (data source) name.
+   * @param dictionaryIds matching dictionary ids, sorted or not.
+   * @param invertedIndex inverted index of the column.
+   */
+  @Nonnull
+  public ImmutableRoaringBitmap getOrCompute(@Nonnull String column, @Nonnull int[] dictionaryIds,
+      @Nonnull InvertedIndexReader invertedIndex) {
+    Key key = new Key(column, dictionaryIds);
+    ImmutableRoaringBitmap bitmap;
+    synchronized (this) {
+      bitmap = _cache.get(key);
+    }
+    if (bitmap != null) {
+      addMeteredValue(ServerMeter.FILTER_BITMAP_CACHE_HITS, 1L);
+      return bitmap;
+    }
+    addMeteredValue(ServerMeter.FILTER_BITMAP_CACHE_MISSES, 1L);
+
+    int numDictionaryIds = dictionaryIds.length;
+    ImmutableRoaringBitmap[] bitmaps = new ImmutableRoaringBitmap[numDictionaryIds];
+    for (int i = 0; i < numDictionaryIds; i++) {
+      bitmaps[i] = invertedIndex.getImmutable(dictionaryIds[i]);
+    }
+    MutableRoaringBitmap union = BufferFastAggregation.or(bitmaps);
+    union.runOptimize();
+    long entrySizeInBytes = key.getSizeInBytes() + union.serializedSizeInBytes();
+    if (entrySizeInBytes > _maxSizeInBytes) {
+      return union;
+    }
+
+    long sizeDelta = entrySizeInBytes;
+    int numEvicted = 0;
+    synchronized (this) {
+      ImmutableRoaringBitmap previousBitmap = _cache.put(key, union);
+      if (previousBitmap != null) {
+        // Computed concurrently by another query
+        sizeDelta -= key.getSizeInBytes() + previousBitmap.serializedSizeInBytes();
+      }
+
+      // Evict the least recently used entries
+      _sizeInBytes += sizeDelta;
+      Iterator<Map.Entry<Key, ImmutableRoaringBitmap>> iterator = _cache.entrySet().iterator();
+      while (_sizeInBytes > _maxSizeInBytes) {
+        Map.Entry<Key, ImmutableRoaringBitmap> entry = iterator.next();
+        long evictedSizeInBytes = entry.getKey().getSizeInBytes() + entry.getValue().serializedSizeInBytes();
+        _sizeInBytes -= evictedSizeInBytes;
+        sizeDelta -= evictedSizeInBytes;
+        iterator.remove();
+        numEvicted++;
+      }
+    }
+    addGaugeValue(sizeDelta);
+    if (numEvicted > 0) {
+      addMeteredValue(ServerMeter.FILTER_BITMAP_CACHE_EVICTIONS, numEvicted);
+    }
+    return union;
+  }
+
+  /**
+   * Drops all the cached bitmaps, to be invoked when the segment is destroyed.
+   */
+  public void clear() {
+    long sizeInBytes;
+    synchronized (this) {
+      sizeInBytes = _sizeInBytes;
+      _cache.clear();
+      _sizeInBytes = 0L;
+    }
+    addGaugeValue(-sizeInBytes);
+  }
+
+  public synchronized int size() {
+    return _cache.size();
+  }
+
+  public synchronized long getSizeInBytes() {
+    return _sizeInBytes;
+  }
+
+  private void addMeteredValue(ServerMeter meter, long unitCount) {
+    if (_serverMetrics != null) {
+      _serverMetrics.addMeteredTableValue(_tableName, meter, unitCount);
+    }
+  }
+
+  private void addGaugeValue(long unitCount) {
+    if (_serverMetrics != null && unitCount != 0L) {
+      _serverMetrics.addValueToTableGauge(_tableName, ServerGauge.FILTER_BITMAP_CACHE_SIZE_IN_BYTES, unitCount);
+    }
+  }
+
+  private static class Key {
+    private final String _column;
+    private final int[] _dictionaryIds;
+    private final int _hashCode;
+
+    private Key(String column, int[] dictionaryIds) {
+      _column = column;
+      _dictionaryIds = dictionaryIds.clone();
+      Arrays.sort(_dictionaryIds);
+      _hashCode = 31 * column.hashCode() + Arrays.hashCode(_dictionaryIds);
+    }
+
+    private long getSizeInBytes() {
+      return 2L * _column.length() + 4L * _dictionaryIds.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return _hashCode == that._hashCode && _column.equals(that._column)
+          && Arrays.equals(_dictionaryIds, that._dictionaryIds);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+}
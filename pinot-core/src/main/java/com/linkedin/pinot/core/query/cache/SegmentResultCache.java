@@ -0,0 +1,373 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.cache;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.common.metrics.ServerGauge;
+import com.linkedin.pinot.common.metrics.ServerMeter;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.utils.request.RequestUtils;
+import com.linkedin.pinot.core.common.datatable.ObjectCustomSerDe;
+import com.linkedin.pinot.core.common.datatable.ObjectType;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.operator.aggregation.AggregationFunctionContext;
+import com.linkedin.pinot.core.operator.aggregation.groupby.AggregationGroupByResult;
+import com.linkedin.pinot.core.operator.aggregation.groupby.CachedAggregationGroupByResult;
+import com.linkedin.pinot.core.operator.aggregation.groupby.GroupKeyGenerator;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.realtime.MutableIndexSegment;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>SegmentResultCache</code> class caches the per segment intermediate results of aggregation queries on
+ * immutable segments, so that the combine operators can merge them with the results computed for the other segments.
+ * <p>Entries are keyed by the segment name, the segment CRC and the canonical form of the request, and hold the
+ * serialized aggregation (group-by) results. They are stored on heap or off heap, bounded by the total size of the
+ * serialized results with LRU eviction, and evicted when the segment is unloaded or refreshed.
+ */
+@ThreadSafe
+public class SegmentResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentResultCache.class);
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  // Keys under the query executor config, cache is disabled when max size is not positive
+  public static final String MAX_SIZE_IN_BYTES_CONFIG = "segment.result.cache.maxSizeInBytes";
+  public static final long DEFAULT_MAX_SIZE_IN_BYTES = 0L;
+  public static final String OFF_HEAP_CONFIG = "segment.result.cache.offHeap";
+  public static final boolean DEFAULT_OFF_HEAP = false;
+
+  private static final byte AGGREGATION_RESULT = 0;
+  private static final byte AGGREGATION_GROUP_BY_RESULT = 1;
+
+  private final long _maxSizeInBytes;
+  private final boolean _offHeap;
+  private final ServerMetrics _serverMetrics;
+
+  // Guarded by this, in access order for LRU eviction
+  private final LinkedHashMap<Key, ByteBuffer> _cache = new LinkedHashMap<>(16, 0.75f, true);
+  private long _sizeInBytes = 0L;
+
+  public SegmentResultCache(long maxSizeInBytes, boolean offHeap, @Nonnull ServerMetrics serverMetrics) {
+    Preconditions.checkArgument(maxSizeInBytes > 0, "Max size in bytes must be positive, got: %s", maxSizeInBytes);
+    _maxSizeInBytes = maxSizeInBytes;
+    _offHeap = offHeap;
+    _serverMetrics = serverMetrics;
+    LOGGER.info("Segment result cache max size: {} bytes, off heap: {}", maxSizeInBytes, offHeap);
+  }
+
+  /**
+   * Creates the segment result cache from the query executor config, or returns <code>null</code> if the cache is
+   * disabled.
+   */
+  @Nullable
+  public static SegmentResultCache create(@Nonnull Configuration queryExecutorConfig,
+      @Nonnull ServerMetrics serverMetrics) {
+    long maxSizeInBytes = queryExecutorConfig.getLong(MAX_SIZE_IN_BYTES_CONFIG, DEFAULT_MAX_SIZE_IN_BYTES);
+    if (maxSizeInBytes <= 0) {
+      return null;
+    }
+    return new SegmentResultCache(maxSizeInBytes, queryExecutorConfig.getBoolean(OFF_HEAP_CONFIG, DEFAULT_OFF_HEAP),
+        serverMetrics);
+  }
+
+  /**
+   * Returns whether the results of the request can be cached, only aggregation (group-by) queries without trace are
+   * cached.
+   */
+  public static boolean isCacheable(@Nonnull BrokerRequest brokerRequest) {
+    return brokerRequest.isSetAggregationsInfo() && !brokerRequest.isEnableTrace();
+  }
+
+  /**
+   * Returns whether the results on the segment can be cached, only immutable segments with a CRC are cached.
+   */
+  public static boolean isCacheable(@Nonnull IndexSegment indexSegment) {
+    return !(indexSegment instanceof MutableIndexSegment) && indexSegment.getSegmentMetadata().getCrc() != null;
+  }
+
+  /**
+   * Returns the canonical form of the request, with only the parts affecting the segment results and the filter query
+   * ids normalized.
+   */
+  @Nonnull
+  public static BrokerRequest getCanonicalRequest(@Nonnull BrokerRequest brokerRequest) {
+    BrokerRequest canonicalRequest = new BrokerRequest();
+    canonicalRequest.setQuerySource(brokerRequest.getQuerySource());
+    canonicalRequest.setFilterQuery(brokerRequest.getFilterQuery());
+    canonicalRequest.setFilterSubQueryMap(brokerRequest.getFilterSubQueryMap());
+    canonicalRequest.setAggregationsInfo(brokerRequest.getAggregationsInfo());
+    canonicalRequest.setGroupBy(brokerRequest.getGroupBy());
+    return RequestUtils.normalizeFilterQueryIds(canonicalRequest);
+  }
+
+  /**
+   * Returns a new results block with the cached results of the segment for the canonical request, or
+   * <code>null</code> if not cached.
+   */
+  @Nullable
+  public IntermediateResultsBlock get(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest canonicalRequest,
+      @Nonnull AggregationFunctionContext[] aggregationFunctionContexts) {
+    String tableName = canonicalRequest.getQuerySource().getTableName();
+    ByteBuffer serializedResult;
+    synchronized (this) {
+      serializedResult = _cache.get(new Key(indexSegment, canonicalRequest));
+    }
+    if (serializedResult != null) {
+      try {
+        IntermediateResultsBlock resultsBlock = deserialize(serializedResult, aggregationFunctionContexts);
+        _serverMetrics.addMeteredTableValue(tableName, ServerMeter.SEGMENT_RESULT_CACHE_HITS, 1L);
+        return resultsBlock;
+      } catch (Exception e) {
+        LOGGER.error("Caught exception while de-serializing cached result for segment: {}",
+            indexSegment.getSegmentName(), e);
+      }
+    }
+    _serverMetrics.addMeteredTableValue(tableName, ServerMeter.SEGMENT_RESULT_CACHE_MISSES, 1L);
+    return null;
+  }
+
+  /**
+   * Caches the results of the segment for the canonical request. Results with processing exceptions, results with
+   * objects that cannot be serialized and results larger than the cache are not cached.
+   * <p>Must be called before the results block is merged into other blocks.
+   */
+  public void put(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest canonicalRequest,
+      @Nonnull IntermediateResultsBlock resultsBlock) {
+    List<?> processingExceptions = resultsBlock.getProcessingExceptions();
+    if (processingExceptions != null && !processingExceptions.isEmpty()) {
+      return;
+    }
+    byte[] bytes;
+    try {
+      bytes = serialize(resultsBlock);
+    } catch (Exception e) {
+      LOGGER.debug("Cannot cache result for segment: {}", indexSegment.getSegmentName(), e);
+      return;
+    }
+    if (bytes == null || bytes.length > _maxSizeInBytes) {
+      return;
+    }
+    ByteBuffer serializedResult;
+    if (_offHeap) {
+      serializedResult = ByteBuffer.allocateDirect(bytes.length);
+      serializedResult.put(bytes);
+      serializedResult.flip();
+    } else {
+      serializedResult = ByteBuffer.wrap(bytes);
+    }
+
+    int numEvicted = 0;
+    synchronized (this) {
+      ByteBuffer previousResult = _cache.put(new Key(indexSegment, canonicalRequest), serializedResult);
+      if (previousResult != null) {
+        _sizeInBytes -= previousResult.capacity();
+      }
+      _sizeInBytes += bytes.length;
+
+      // Evict the least recently used entries
+      Iterator<ByteBuffer> iterator = _cache.values().iterator();
+      while (_sizeInBytes > _maxSizeInBytes) {
+        _sizeInBytes -= iterator.next().capacity();
+        iterator.remove();
+        numEvicted++;
+      }
+      _serverMetrics.setValueOfGlobalGauge(ServerGauge.SEGMENT_RESULT_CACHE_SIZE_IN_BYTES, _sizeInBytes);
+    }
+    if (numEvicted > 0) {
+      _serverMetrics.addMeteredGlobalValue(ServerMeter.SEGMENT_RESULT_CACHE_EVICTIONS, numEvicted);
+    }
+  }
+
+  /**
+   * Evicts all the cached results of the segment, to be invoked when the segment is unloaded or refreshed.
+   *
+   * @param tableName table name with type suffix.
+   * @param segmentName segment name.
+   */
+  public void invalidateSegment(@Nonnull String tableName, @Nonnull String segmentName) {
+    int numEvicted = 0;
+    synchronized (this) {
+      Iterator<Map.Entry<Key, ByteBuffer>> iterator = _cache.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<Key, ByteBuffer> entry = iterator.next();
+        Key key = entry.getKey();
+        if (key._segmentName.equals(segmentName) && key._canonicalRequest.getQuerySource()
+            .getTableName()
+            .equals(tableName)) {
+          _sizeInBytes -= entry.getValue().capacity();
+          iterator.remove();
+          numEvicted++;
+        }
+      }
+      _serverMetrics.setValueOfGlobalGauge(ServerGauge.SEGMENT_RESULT_CACHE_SIZE_IN_BYTES, _sizeInBytes);
+    }
+    if (numEvicted > 0) {
+      LOGGER.info("Evicted {} cached results for segment: {} of table: {}", numEvicted, segmentName, tableName);
+      _serverMetrics.addMeteredGlobalValue(ServerMeter.SEGMENT_RESULT_CACHE_EVICTIONS, numEvicted);
+    }
+  }
+
+  public synchronized int size() {
+    return _cache.size();
+  }
+
+  public synchronized long getSizeInBytes() {
+    return _sizeInBytes;
+  }
+
+  /**
+   * Serializes the aggregation (group-by) results of the block, or returns <code>null</code> if the block contains no
+   * aggregation result.
+   */
+  @Nullable
+  private static byte[] serialize(IntermediateResultsBlock resultsBlock)
+      throws IOException {
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+    List<Object> aggregationResult = resultsBlock.getAggregationResult();
+    AggregationGroupByResult aggregationGroupByResult = resultsBlock.getAggregationGroupByResult();
+    if (aggregationResult != null) {
+      dataOutputStream.writeByte(AGGREGATION_RESULT);
+      dataOutputStream.writeInt(aggregationResult.size());
+      for (Object result : aggregationResult) {
+        writeObject(dataOutputStream, result);
+      }
+    } else if (aggregationGroupByResult != null) {
+      int numAggregationFunctions = resultsBlock.getAggregationFunctionContexts().length;
+      dataOutputStream.writeByte(AGGREGATION_GROUP_BY_RESULT);
+      Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+      while (groupKeyIterator.hasNext()) {
+        GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+        dataOutputStream.writeBoolean(true);
+        writeBytes(dataOutputStream, groupKey.getStringKey().getBytes(UTF_8));
+        for (int i = 0; i < numAggregationFunctions; i++) {
+          writeObject(dataOutputStream, aggregationGroupByResult.getResultForKey(groupKey, i));
+        }
+      }
+      dataOutputStream.writeBoolean(false);
+    } else {
+      return null;
+    }
+    dataOutputStream.close();
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  private static IntermediateResultsBlock deserialize(ByteBuffer serializedResult,
+      AggregationFunctionContext[] aggregationFunctionContexts)
+      throws IOException {
+    byte[] bytes = new byte[serializedResult.capacity()];
+    serializedResult.duplicate().get(bytes);
+    DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(bytes));
+    if (dataInputStream.readByte() == AGGREGATION_RESULT) {
+      int numResults = dataInputStream.readInt();
+      List<Object> aggregationResult = new ArrayList<>(numResults);
+      for (int i = 0; i < numResults; i++) {
+        aggregationResult.add(readObject(dataInputStream));
+      }
+      return new IntermediateResultsBlock(aggregationFunctionContexts, aggregationResult, false);
+    } else {
+      int numAggregationFunctions = aggregationFunctionContexts.length;
+      List<String> groupKeys = new ArrayList<>();
+      List<Object[]> results = new ArrayList<>();
+      while (dataInputStream.readBoolean()) {
+        groupKeys.add(new String(readBytes(dataInputStream), UTF_8));
+        Object[] result = new Object[numAggregationFunctions];
+        for (int i = 0; i < numAggregationFunctions; i++) {
+          result[i] = readObject(dataInputStream);
+        }
+        results.add(result);
+      }
+      return new IntermediateResultsBlock(aggregationFunctionContexts,
+          new CachedAggregationGroupByResult(groupKeys, results));
+    }
+  }
+
+  private static void writeObject(DataOutputStream dataOutputStream, Object object)
+      throws IOException {
+    dataOutputStream.writeInt(ObjectCustomSerDe.getObjectType(object).getValue());
+    writeBytes(dataOutputStream, ObjectCustomSerDe.serialize(object, ObjectCustomSerDe.ENCODING_VERSION_2));
+  }
+
+  private static Object readObject(DataInputStream dataInputStream)
+      throws IOException {
+    ObjectType objectType = ObjectType.getObjectType(dataInputStream.readInt());
+    return ObjectCustomSerDe.deserialize(readBytes(dataInputStream), objectType, ObjectCustomSerDe.ENCODING_VERSION_2);
+  }
+
+  private static void writeBytes(DataOutputStream dataOutputStream, byte[] bytes)
+      throws IOException {
+    dataOutputStream.writeInt(bytes.length);
+    dataOutputStream.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream dataInputStream)
+      throws IOException {
+    byte[] bytes = new byte[dataInputStream.readInt()];
+    dataInputStream.readFully(bytes);
+    return bytes;
+  }
+
+  private static class Key {
+    private final String _segmentName;
+    private final String _crc;
+    private final BrokerRequest _canonicalRequest;
+    private final int _hashCode;
+
+    private Key(IndexSegment indexSegment, BrokerRequest canonicalRequest) {
+      _segmentName = indexSegment.getSegmentName();
+      _crc = indexSegment.getSegmentMetadata().getCrc();
+      _canonicalRequest = canonicalRequest;
+      _hashCode = 31 * (31 * _segmentName.hashCode() + _crc.hashCode()) + canonicalRequest.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return _hashCode == that._hashCode && _segmentName.equals(that._segmentName) && _crc.equals(that._crc)
+          && _canonicalRequest.equals(that._canonicalRequest);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+}
@@ -34,6 +34,7 @@ import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.plan.Plan;
 import com.linkedin.pinot.core.plan.maker.InstancePlanMakerImplV2;
 import com.linkedin.pinot.core.plan.maker.PlanMaker;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
 import com.linkedin.pinot.core.query.config.QueryExecutorConfig;
 import com.linkedin.pinot.core.query.pruner.SegmentPrunerService;
 import com.linkedin.pinot.core.query.pruner.SegmentPrunerServiceImpl;
@@ -43,6 +44,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationException;
 import org.slf4j.Logger;
@@ -55,6 +58,7 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
   private InstanceDataManager _instanceDataManager = null;
   private SegmentPrunerService _segmentPrunerService = null;
   private PlanMaker _planMaker = null;
+  private SegmentResultCache _segmentResultCache = null;
   private volatile boolean _isStarted = false;
   private long _defaultTimeOutMs = 15000;
   private boolean _printQueryPlan = false;
@@ -81,7 +85,8 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
     LOGGER.info("Trying to build SegmentPrunerService");
     _segmentPrunerService = new SegmentPrunerServiceImpl(queryExecutorConfig.getPrunerConfig());
     LOGGER.info("Trying to build QueryPlanMaker");
-    _planMaker = new InstancePlanMakerImplV2(queryExecutorConfig);
+    _segmentResultCache = SegmentResultCache.create(queryExecutorConfig.getConfig(), serverMetrics);
+    _planMaker = new InstancePlanMakerImplV2(queryExecutorConfig, _segmentResultCache);
     LOGGER.info("Trying to build QueryExecutorTimer");
   }
 
@@ -96,6 +101,7 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
 
     DataTable dataTable;
     List<SegmentDataManager> queryableSegmentDataManagerList = null;
+    TaskTrackingExecutorService taskTrackingExecutorService = null;
     InstanceRequest instanceRequest = queryRequest.getInstanceRequest();
     final long requestId = instanceRequest.getRequestId();
     final long nSegmentsInQuery = instanceRequest.getSearchSegmentsSize();
@@ -116,9 +122,16 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
       }
 
       TimerContext.Timer planBuildTimer = timerContext.startNewPhaseTimer(ServerQueryPhase.BUILD_QUERY_PLAN);
+      // Use the bounded per query workers handed out by the scheduler if any, the table executor otherwise
+      ExecutorService executorService = queryRequest.getQueryWorkers();
+      if (executorService == null) {
+        String tableName = brokerRequest.getQuerySource().getTableName();
+        executorService = _instanceDataManager.getTableDataManager(tableName).getExecutorService();
+      }
+      // Track the tasks reading the segments, which may outlive the query when it times out
+      taskTrackingExecutorService = new TaskTrackingExecutorService(executorService);
       final Plan globalQueryPlan = _planMaker.makeInterSegmentPlan(queryableSegmentDataManagerList, brokerRequest,
-          _instanceDataManager.getTableDataManager(brokerRequest.getQuerySource().getTableName()).getExecutorService(),
-          getResourceTimeOut(instanceRequest.getQuery()));
+          taskTrackingExecutorService, getResourceTimeOut(instanceRequest.getQuery()));
       planBuildTimer.stopAndRecord();
 
       if (_printQueryPlan) {
@@ -167,12 +180,23 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
           .put(DataTable.TRACE_INFO_METADATA_KEY, TraceContext.getTraceInfoOfRequestId(instanceRequest.getRequestId()));
       return dataTable;
     } finally {
-      if (_instanceDataManager.getTableDataManager(instanceRequest.getQuery().getQuerySource().getTableName()) != null) {
-        if (queryableSegmentDataManagerList != null) {
-          for (SegmentDataManager segmentDataManager : queryableSegmentDataManagerList) {
-            _instanceDataManager.getTableDataManager(instanceRequest.getQuery().getQuerySource().getTableName())
-                .releaseSegment(segmentDataManager);
+      final TableDataManager tableDataManager =
+          _instanceDataManager.getTableDataManager(instanceRequest.getQuery().getQuerySource().getTableName());
+      if (tableDataManager != null && queryableSegmentDataManagerList != null) {
+        final List<SegmentDataManager> segmentDataManagersToRelease = queryableSegmentDataManagerList;
+        Runnable releaseSegments = new Runnable() {
+          @Override
+          public void run() {
+            for (SegmentDataManager segmentDataManager : segmentDataManagersToRelease) {
+              tableDataManager.releaseSegment(segmentDataManager);
+            }
           }
+        };
+        if (taskTrackingExecutorService != null) {
+          // Segments are released (and possibly destroyed) only once no task of the query can read them anymore
+          taskTrackingExecutorService.runWhenTasksDone(releaseSegments);
+        } else {
+          releaseSegments.run();
         }
       }
       TraceContext.unregister(instanceRequest);
@@ -213,6 +237,14 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
     }
   }
 
+  /**
+   * Returns the cache for the per segment results, or <code>null</code> if disabled.
+   */
+  @Nullable
+  public SegmentResultCache getSegmentResultCache() {
+    return _segmentResultCache;
+  }
+
   @Override
   public boolean isStarted() {
     return _isStarted;
@@ -229,6 +261,15 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
     _resourceTimeOutMsMap.put(resource, timeOutMs);
   }
 
+  @Override
+  public long getResourceTimeOutInMs(String resource) {
+    Long timeOutMs = _resourceTimeOutMsMap.get(resource);
+    if (timeOutMs != null) {
+      return timeOutMs;
+    }
+    return _defaultTimeOutMs;
+  }
+
   private long getResourceTimeOut(BrokerRequest brokerRequest) {
     try {
       String resourceName = brokerRequest.getQuerySource().getTableName();
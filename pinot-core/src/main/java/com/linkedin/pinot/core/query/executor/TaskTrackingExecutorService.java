@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.executor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+
+/**
+ * Executor service tracking the tasks a query submits to a shared executor service, so that an action (e.g. releasing
+ * the segments of the query) can be deferred until all of them are done.
+ * <p>Query operators keep reading the segments from the worker threads after the query timed out, so the segments
+ * must not be released (and their off-heap buffers freed) before these tasks end. Shutting down this executor service
+ * does not shut down the shared one.
+ */
+public class TaskTrackingExecutorService extends AbstractExecutorService {
+  private final ExecutorService _executorService;
+
+  // Guarded by this
+  private int _numPendingTasks = 0;
+  private Runnable _onTasksDone;
+  private boolean _isShutDown = false;
+
+  public TaskTrackingExecutorService(@Nonnull ExecutorService executorService) {
+    _executorService = executorService;
+  }
+
+  @Override
+  public void execute(@Nonnull final Runnable command) {
+    synchronized (this) {
+      if (_isShutDown) {
+        throw new RejectedExecutionException("Executor service is shut down");
+      }
+      _numPendingTasks++;
+    }
+    try {
+      _executorService.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            command.run();
+          } finally {
+            taskDone();
+          }
+        }
+      });
+    } catch (RuntimeException e) {
+      taskDone();
+      throw e;
+    }
+  }
+
+  private void taskDone() {
+    Runnable onTasksDone = null;
+    synchronized (this) {
+      _numPendingTasks--;
+      if (_numPendingTasks == 0) {
+        onTasksDone = _onTasksDone;
+        _onTasksDone = null;
+        notifyAll();
+      }
+    }
+    if (onTasksDone != null) {
+      onTasksDone.run();
+    }
+  }
+
+  /**
+   * Shuts down this executor service and runs the given action once all the submitted tasks are done, right away in
+   * the calling thread if there is no pending task, otherwise in the thread finishing the last task.
+   */
+  public void runWhenTasksDone(@Nonnull Runnable onTasksDone) {
+    synchronized (this) {
+      _isShutDown = true;
+      if (_numPendingTasks > 0) {
+        _onTasksDone = onTasksDone;
+        return;
+      }
+    }
+    onTasksDone.run();
+  }
+
+  public synchronized int getNumPendingTasks() {
+    return _numPendingTasks;
+  }
+
+  @Override
+  public synchronized void shutdown() {
+    _isShutDown = true;
+  }
+
+  @Nonnull
+  @Override
+  public synchronized List<Runnable> shutdownNow() {
+    _isShutDown = true;
+    return new ArrayList<>();
+  }
+
+  @Override
+  public synchronized boolean isShutdown() {
+    return _isShutDown;
+  }
+
+  @Override
+  public synchronized boolean isTerminated() {
+    return _isShutDown && _numPendingTasks == 0;
+  }
+
+  @Override
+  public synchronized boolean awaitTermination(long timeout, @Nonnull TimeUnit unit)
+      throws InterruptedException {
+    long endTimeNs = System.nanoTime() + unit.toNanos(timeout);
+    while (!isTerminated()) {
+      long remainingNs = endTimeNs - System.nanoTime();
+      if (remainingNs <= 0) {
+        return false;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remainingNs);
+    }
+    return true;
+  }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.pruner;
+
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.request.FilterOperator;
+import com.linkedin.pinot.common.request.FilterQuery;
+import com.linkedin.pinot.common.request.FilterQueryMap;
+import com.linkedin.pinot.core.common.predicate.InPredicate;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
+import java.util.List;
+import org.apache.commons.configuration.Configuration;
+
+
+/**
+ * An implementation of SegmentPruner.
+ * Pruner will prune segment if the bloom filters of the filtering columns show that the segment does not contain any
+ * value of the EQ or IN predicates of the query.
+ * <p>Only columns configured with a bloom filter can be pruned, see
+ * <code>IndexingConfig.getBloomFilterColumns()</code>.
+ */
+public class BloomFilterSegmentPruner implements SegmentPruner {
+
+  @Override
+  public boolean prune(IndexSegment segment, BrokerRequest brokerRequest) {
+    FilterQuery filterQuery = brokerRequest.getFilterQuery();
+    if (filterQuery == null) {
+      return false;
+    }
+    return pruneSegment(segment, filterQuery, brokerRequest.getFilterSubQueryMap());
+  }
+
+  /**
+   * Returns true if no document of the segment can match the filter query.
+   */
+  private static boolean pruneSegment(IndexSegment segment, FilterQuery filterQuery, FilterQueryMap filterQueryMap) {
+    List<Integer> nestedFilterQueryIds = filterQuery.getNestedFilterQueryIds();
+    switch (filterQuery.getOperator()) {
+      case AND:
+        for (Integer queryId : nestedFilterQueryIds) {
+          if (pruneSegment(segment, filterQueryMap.getFilterQueryMap().get(queryId), filterQueryMap)) {
+            return true;
+          }
+        }
+        return false;
+      case OR:
+        for (Integer queryId : nestedFilterQueryIds) {
+          if (!pruneSegment(segment, filterQueryMap.getFilterQueryMap().get(queryId), filterQueryMap)) {
+            return false;
+          }
+        }
+        return true;
+      case EQUALITY:
+      case IN:
+        String column = filterQuery.getColumn();
+        Schema schema = segment.getSegmentMetadata().getSchema();
+        if (schema == null || !schema.hasColumn(column)) {
+          return false;
+        }
+        BloomFilterReader bloomFilter = segment.getDataSource(column).getBloomFilter();
+        if (bloomFilter == null) {
+          return false;
+        }
+        return !mightMatch(bloomFilter, filterQuery.getOperator(), column, filterQuery.getValue());
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Returns false if the column definitely does not contain any value of the EQ or IN predicate, true otherwise.
+   */
+  public static boolean mightMatch(BloomFilterReader bloomFilter, FilterOperator operator, String column,
+      List<String> values) {
+    switch (operator) {
+      case EQUALITY:
+        return bloomFilter.mightContain(values.get(0));
+      case IN:
+        for (String value : new InPredicate(column, values).getInRange()) {
+          if (bloomFilter.mightContain(value)) {
+            return true;
+          }
+        }
+        return false;
+      default:
+        return true;
+    }
+  }
+
+  @Override
+  public void init(Configuration config) {
+
+  }
+
+  @Override
+  public String toString() {
+    return "BloomFilterSegmentPruner";
+  }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.pruner;
+
+import com.linkedin.pinot.common.data.FieldSpec.DataType;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.request.FilterQuery;
+import com.linkedin.pinot.common.request.FilterQueryMap;
+import com.linkedin.pinot.common.segment.SegmentMetadata;
+import com.linkedin.pinot.core.common.predicate.InPredicate;
+import com.linkedin.pinot.core.common.predicate.RangePredicate;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.segment.index.ColumnMetadata;
+import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import java.math.BigDecimal;
+import java.util.List;
+import org.apache.commons.configuration.Configuration;
+
+
+/**
+ * An implementation of SegmentPruner.
+ * Pruner will prune segment if the min/max values of the filtering columns recorded in the segment metadata cannot
+ * satisfy the EQ, IN or RANGE predicates of the query.
+ * <p>Only numeric columns have min/max values recorded, segments created before that are never pruned.
+ */
+public class ColumnValueSegmentPruner implements SegmentPruner {
+
+  @Override
+  public boolean prune(IndexSegment segment, BrokerRequest brokerRequest) {
+    FilterQuery filterQuery = brokerRequest.getFilterQuery();
+    if (filterQuery == null) {
+      return false;
+    }
+    SegmentMetadata segmentMetadata = segment.getSegmentMetadata();
+    if (!(segmentMetadata instanceof SegmentMetadataImpl)) {
+      return false;
+    }
+    return pruneSegment((SegmentMetadataImpl) segmentMetadata, filterQuery, brokerRequest.getFilterSubQueryMap());
+  }
+
+  /**
+   * Returns true if no document of the segment can match the filter query.
+   */
+  private static boolean pruneSegment(SegmentMetadataImpl segmentMetadata, FilterQuery filterQuery,
+      FilterQueryMap filterQueryMap) {
+    List<Integer> nestedFilterQueryIds = filterQuery.getNestedFilterQueryIds();
+    switch (filterQuery.getOperator()) {
+      case AND:
+        for (Integer queryId : nestedFilterQueryIds) {
+          if (pruneSegment(segmentMetadata, filterQueryMap.getFilterQueryMap().get(queryId), filterQueryMap)) {
+            return true;
+          }
+        }
+        return false;
+      case OR:
+        for (Integer queryId : nestedFilterQueryIds) {
+          if (!pruneSegment(segmentMetadata, filterQueryMap.getFilterQueryMap().get(queryId), filterQueryMap)) {
+            return false;
+          }
+        }
+        return true;
+      case EQUALITY:
+      case IN:
+      case RANGE:
+        ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(filterQuery.getColumn());
+        if (columnMetadata == null || columnMetadata.getMinValue() == null || columnMetadata.getMaxValue() == null) {
+          return false;
+        }
+        try {
+          return pruneColumn(columnMetadata, filterQuery);
+        } catch (NumberFormatException e) {
+          // Leave the query to the filter operators if the values cannot be compared with the column values
+          return false;
+        }
+      default:
+        return false;
+    }
+  }
+
+  private static boolean pruneColumn(ColumnMetadata columnMetadata, FilterQuery filterQuery) {
+    DataType dataType = columnMetadata.getDataType();
+    Comparable minValue = columnMetadata.getMinValue();
+    Comparable maxValue = columnMetadata.getMaxValue();
+    switch (filterQuery.getOperator()) {
+      case EQUALITY:
+        return !isInRange(dataType, minValue, maxValue, filterQuery.getValue().get(0));
+      case IN:
+        for (String value : new InPredicate(filterQuery.getColumn(), filterQuery.getValue()).getInRange()) {
+          if (isInRange(dataType, minValue, maxValue, value)) {
+            return false;
+          }
+        }
+        return true;
+      case RANGE:
+        RangePredicate rangePredicate = new RangePredicate(filterQuery.getColumn(), filterQuery.getValue());
+        String lowerBoundary = rangePredicate.getLowerBoundary();
+        if (!lowerBoundary.equals("*")) {
+          int result = compare(dataType, lowerBoundary, maxValue);
+          if (result > 0 || (result == 0 && !rangePredicate.includeLowerBoundary())) {
+            return true;
+          }
+        }
+        String upperBoundary = rangePredicate.getUpperBoundary();
+        if (!upperBoundary.equals("*")) {
+          int result = compare(dataType, upperBoundary, minValue);
+          if (result < 0 || (result == 0 && !rangePredicate.includeUpperBoundary())) {
+            return true;
+          }
+        }
+        return false;
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isInRange(DataType dataType, Comparable minValue, Comparable maxValue, String value) {
+    return compare(dataType, value, minValue) >= 0 && compare(dataType, value, maxValue) <= 0;
+  }
+
+  /**
+   * Compares a value from the query with a min/max value of the column.
+   * <p>Integral values are compared exactly, so that query values with a fraction are handled properly. Floating point
+   * values are compared after parsing the query value the same way as the dictionary does.
+   */
+  private static int compare(DataType dataType, String value, Comparable columnValue) {
+    switch (dataType) {
+      case INT:
+      case LONG:
+        return new BigDecimal(value).compareTo(BigDecimal.valueOf(((Number) columnValue).longValue()));
+      case FLOAT:
+        return Float.compare(Float.parseFloat(value), (Float) columnValue);
+      case DOUBLE:
+        return Double.compare(Double.parseDouble(value), (Double) columnValue);
+      default:
+        throw new IllegalStateException("Unsupported data type: " + dataType + " for min/max value");
+    }
+  }
+
+  @Override
+  public void init(Configuration config) {
+
+  }
+
+  @Override
+  public String toString() {
+    return "ColumnValueSegmentPruner";
+  }
+}
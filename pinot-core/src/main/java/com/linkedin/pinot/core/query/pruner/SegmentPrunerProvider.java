@@ -35,6 +35,8 @@ public class SegmentPrunerProvider {
     keyToFunction.put("timesegmentpruner", TimeSegmentPruner.class);
     keyToFunction.put("dataschemasegmentpruner", DataSchemaSegmentPruner.class);
     keyToFunction.put("validsegmentpruner", ValidSegmentPruner.class);
+    keyToFunction.put("columnvaluesegmentpruner", ColumnValueSegmentPruner.class);
+    keyToFunction.put("bloomfiltersegmentpruner", BloomFilterSegmentPruner.class);
   }
 
   public static SegmentPruner getSegmentPruner(String prunerClassName, Configuration segmentPrunerConfig) {
@@ -0,0 +1,466 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.reduce;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.exception.QueryException;
+import com.linkedin.pinot.common.metrics.BrokerMeter;
+import com.linkedin.pinot.common.metrics.BrokerMetrics;
+import com.linkedin.pinot.common.query.IncrementalReducer;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.request.GroupBy;
+import com.linkedin.pinot.common.request.Selection;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.common.response.broker.AggregationResult;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.common.response.broker.GroupByResult;
+import com.linkedin.pinot.common.response.broker.QueryProcessingException;
+import com.linkedin.pinot.common.response.broker.SelectionResults;
+import com.linkedin.pinot.common.utils.DataSchema;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.datatable.DataTableImplV3;
+import com.linkedin.pinot.core.common.datatable.ObjectCustomSerDe;
+import com.linkedin.pinot.core.operator.aggregation.function.AggregationFunction;
+import com.linkedin.pinot.core.operator.aggregation.function.AggregationFunctionUtils;
+import com.linkedin.pinot.core.operator.aggregation.groupby.AggregationGroupByTrimmingService;
+import com.linkedin.pinot.core.query.selection.SelectionOperatorService;
+import com.linkedin.pinot.core.query.selection.SelectionOperatorUtils;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>BrokerIncrementalReducer</code> class merges data tables gathered from multiple servers one at a time into
+ * {@link BrokerResponseNative}.
+ * <p>Aggregation and group-by results are merged into the running intermediate results as soon as each data table is
+ * merged. Selection rows are merged as each data table arrives, keeping at most offset + size rows (selection
+ * order-by) or size rows (selection only); data tables whose data schema conflicts with the merged data schema are
+ * dropped, so no data table is kept after it is merged.
+ */
+@NotThreadSafe
+public class BrokerIncrementalReducer implements IncrementalReducer<BrokerResponseNative> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BrokerIncrementalReducer.class);
+
+  private final BrokerRequest _brokerRequest;
+  private final BrokerMetrics _brokerMetrics;
+  private final BrokerResponseNative _brokerResponseNative = new BrokerResponseNative();
+  private final AggregationFunction[] _aggregationFunctions;
+
+  private int _numDataTables = 0;
+  private int _numDataTablesWithRows = 0;
+  private long _numDocsScanned = 0L;
+  private long _numEntriesScannedInFilter = 0L;
+  private final Map<String, Long> _numEntriesScannedInFilterPerColumn = new HashMap<>();
+  private long _numEntriesScannedPostFilter = 0L;
+  private long _numTotalRawDocs = 0L;
+
+  // Cache a data schema from data tables (try to cache one with data rows associated with it).
+  private DataSchema _cachedDataSchema;
+
+  // Merged data schema, selection rows and servers dropped due to data schema conflicts for selection query.
+  private DataSchema _selectionDataSchema;
+  private SelectionOperatorService _selectionService;
+  private List<Serializable[]> _selectionRows;
+  private List<String> _droppedServers;
+
+  // Merged intermediate results for aggregation only query.
+  private Object[] _intermediateResults;
+
+  // Column names and merged intermediate result maps for aggregation group-by query.
+  private String[] _columnNames;
+  private Map<String, Object>[] _intermediateResultMaps;
+
+  @SuppressWarnings("unchecked")
+  public BrokerIncrementalReducer(@Nonnull BrokerRequest brokerRequest, @Nullable BrokerMetrics brokerMetrics) {
+    _brokerRequest = brokerRequest;
+    _brokerMetrics = brokerMetrics;
+    if (brokerRequest.isSetSelections()) {
+      _aggregationFunctions = null;
+      _droppedServers = new ArrayList<>();
+    } else {
+      _aggregationFunctions = AggregationFunctionUtils.getAggregationFunctions(brokerRequest.getAggregationsInfo());
+      int numAggregationFunctions = _aggregationFunctions.length;
+      if (!brokerRequest.isSetGroupBy()) {
+        _intermediateResults = new Object[numAggregationFunctions];
+      } else {
+        _columnNames = new String[numAggregationFunctions];
+        _intermediateResultMaps = new Map[numAggregationFunctions];
+      }
+    }
+  }
+
+  @Override
+  public void merge(@Nonnull ServerInstance serverInstance, @Nonnull DataTable dataTable) {
+    _numDataTables++;
+
+    // Process server response metadata.
+    Map<String, String> metadata = dataTable.getMetadata();
+
+    // Reduce on trace info.
+    if (_brokerRequest.isEnableTrace()) {
+      _brokerResponseNative.getTraceInfo()
+          .put(serverInstance.getHostname(), metadata.get(DataTable.TRACE_INFO_METADATA_KEY));
+    }
+
+    // Reduce on exceptions.
+    List<QueryProcessingException> processingExceptions = _brokerResponseNative.getProcessingExceptions();
+    for (String key : metadata.keySet()) {
+      if (key.startsWith(DataTable.EXCEPTION_METADATA_KEY)) {
+        processingExceptions.add(new QueryProcessingException(Integer.parseInt(key.substring(9)), metadata.get(key)));
+      }
+    }
+
+    // Reduce on execution statistics.
+    String numDocsScannedString = metadata.get(DataTable.NUM_DOCS_SCANNED_METADATA_KEY);
+    if (numDocsScannedString != null) {
+      _numDocsScanned += Long.parseLong(numDocsScannedString);
+    }
+    String numEntriesScannedInFilterString = metadata.get(DataTable.NUM_ENTRIES_SCANNED_IN_FILTER_METADATA_KEY);
+    if (numEntriesScannedInFilterString != null) {
+      _numEntriesScannedInFilter += Long.parseLong(numEntriesScannedInFilterString);
+    }
+    String numEntriesScannedInFilterPerColumnString =
+        metadata.get(DataTable.NUM_ENTRIES_SCANNED_IN_FILTER_PER_COLUMN_METADATA_KEY);
+    if (numEntriesScannedInFilterPerColumnString != null) {
+      mergeNumEntriesScannedInFilterPerColumn(serverInstance, numEntriesScannedInFilterPerColumnString);
+    }
+    String numEntriesScannedPostFilterString = metadata.get(DataTable.NUM_ENTRIES_SCANNED_POST_FILTER_METADATA_KEY);
+    if (numEntriesScannedPostFilterString != null) {
+      _numEntriesScannedPostFilter += Long.parseLong(numEntriesScannedPostFilterString);
+    }
+    String numTotalRawDocsString = metadata.get(DataTable.TOTAL_DOCS_METADATA_KEY);
+    if (numTotalRawDocsString != null) {
+      _numTotalRawDocs += Long.parseLong(numTotalRawDocsString);
+    }
+
+    // After processing the metadata, skip data tables without data rows inside.
+    DataSchema dataSchema = dataTable.getDataSchema();
+    if (dataSchema == null) {
+      return;
+    }
+    // Try to cache a data table with data rows inside, or cache one with data schema inside.
+    if (dataTable.getNumberOfRows() == 0) {
+      if (_cachedDataSchema == null) {
+        _cachedDataSchema = dataSchema;
+      }
+      return;
+    }
+    _cachedDataSchema = dataSchema;
+    _numDataTablesWithRows++;
+
+    // Merge server responses data.
+    if (_droppedServers != null) {
+      mergeSelectionResults(serverInstance, dataTable, dataSchema);
+    } else if (_intermediateResults != null) {
+      mergeAggregationResults(dataTable, dataSchema);
+    } else {
+      mergeGroupByResults(dataTable);
+    }
+  }
+
+  @Nonnull
+  @Override
+  public BrokerResponseNative finish() {
+    if (_numDataTables == 0) {
+      // Empty response.
+      return BrokerResponseNative.empty();
+    }
+
+    // Set execution statistics.
+    _brokerResponseNative.setNumDocsScanned(_numDocsScanned);
+    _brokerResponseNative.setNumEntriesScannedInFilter(_numEntriesScannedInFilter);
+    _brokerResponseNative.setNumEntriesScannedInFilterPerColumn(_numEntriesScannedInFilterPerColumn);
+    _brokerResponseNative.setNumEntriesScannedPostFilter(_numEntriesScannedPostFilter);
+    _brokerResponseNative.setTotalDocs(_numTotalRawDocs);
+
+    // Update broker metrics.
+    String tableName = _brokerRequest.getQuerySource().getTableName();
+    if (_brokerMetrics != null) {
+      _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.DOCUMENTS_SCANNED, _numDocsScanned);
+      _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.ENTRIES_SCANNED_IN_FILTER,
+          _numEntriesScannedInFilter);
+      _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.ENTRIES_SCANNED_POST_FILTER,
+          _numEntriesScannedPostFilter);
+    }
+
+    if (_numDataTablesWithRows == 0) {
+      // For no data table with data rows, construct empty result using the cached data schema.
+
+      // This will only happen to selection query.
+      if (_cachedDataSchema != null) {
+        List<String> selectionColumns =
+            SelectionOperatorUtils.getSelectionColumns(_brokerRequest.getSelections().getSelectionColumns(),
+                _cachedDataSchema);
+        _brokerResponseNative.setSelectionResults(
+            new SelectionResults(selectionColumns, new ArrayList<Serializable[]>(0)));
+      }
+    } else {
+      // Set query results into the broker response.
+      if (_droppedServers != null) {
+        // Selection query.
+        if (!_droppedServers.isEmpty()) {
+          String errorMessage =
+              QueryException.MERGE_RESPONSE_ERROR.getMessage() + ": responses for table: " + tableName
+                  + " from servers: " + _droppedServers + " got dropped due to data schema inconsistency.";
+          LOGGER.error(errorMessage);
+          if (_brokerMetrics != null) {
+            _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.RESPONSE_MERGE_EXCEPTIONS, 1);
+          }
+          _brokerResponseNative.addToExceptions(
+              new QueryProcessingException(QueryException.MERGE_RESPONSE_ERROR_CODE, errorMessage));
+        }
+        setSelectionResults(_brokerRequest.getSelections());
+      } else if (_intermediateResults != null) {
+        // Aggregation only query.
+        setAggregationResults();
+      } else {
+        // Aggregation group-by query.
+        setGroupByResults(_brokerRequest.getGroupBy());
+      }
+    }
+
+    return _brokerResponseNative;
+  }
+
+  /**
+   * Merge the number of entries scanned in filter per column of a server response, serialized as a JSON object from
+   * column name to number of entries scanned, into the merged counts.
+   *
+   * @param serverInstance server instance.
+   * @param numEntriesScannedInFilterPerColumnString serialized number of entries scanned in filter per column.
+   */
+  @SuppressWarnings("unchecked")
+  private void mergeNumEntriesScannedInFilterPerColumn(@Nonnull ServerInstance serverInstance,
+      @Nonnull String numEntriesScannedInFilterPerColumnString) {
+    try {
+      JSONObject jsonObject = new JSONObject(numEntriesScannedInFilterPerColumnString);
+      Iterator<String> columns = jsonObject.keys();
+      while (columns.hasNext()) {
+        String column = columns.next();
+        long numEntriesScanned = jsonObject.getLong(column);
+        Long mergedNumEntriesScanned = _numEntriesScannedInFilterPerColumn.get(column);
+        if (mergedNumEntriesScanned != null) {
+          numEntriesScanned += mergedNumEntriesScanned;
+        }
+        _numEntriesScannedInFilterPerColumn.put(column, numEntriesScanned);
+      }
+    } catch (JSONException e) {
+      LOGGER.warn("Caught exception while parsing number of entries scanned in filter per column: {} from server: {}",
+          numEntriesScannedInFilterPerColumnString, serverInstance, e);
+    }
+  }
+
+  /**
+   * Merge the selection rows of the data table into the merged selection rows.
+   * <p>The first data table with data rows decides the merged data schema, data tables not compatible with it are
+   * dropped, and the merged data schema is upgraded to cover each remaining one.
+   *
+   * @param serverInstance server instance.
+   * @param dataTable data table.
+   * @param dataSchema data schema of the data table.
+   */
+  private void mergeSelectionResults(@Nonnull ServerInstance serverInstance, @Nonnull DataTable dataTable,
+      @Nonnull DataSchema dataSchema) {
+    Selection selection = _brokerRequest.getSelections();
+    int selectionSize = selection.getSize();
+    if (_selectionDataSchema == null) {
+      _selectionDataSchema = dataSchema.clone();
+      if (selection.isSetSelectionSortSequence() && selectionSize != 0) {
+        _selectionService = new SelectionOperatorService(selection, _selectionDataSchema);
+      } else {
+        _selectionRows = new ArrayList<>(selectionSize);
+      }
+    } else if (!_selectionDataSchema.isTypeCompatibleWith(dataSchema)) {
+      _droppedServers.add(serverInstance.toString());
+      return;
+    } else {
+      _selectionDataSchema.upgradeToCover(dataSchema);
+    }
+
+    if (_selectionService != null) {
+      // Selection order-by.
+      _selectionService.reduceWithOrdering(dataTable);
+    } else {
+      // Selection only.
+      SelectionOperatorUtils.reduceWithoutOrdering(_selectionRows, dataTable, selectionSize);
+    }
+  }
+
+  /**
+   * Render the merged selection rows and set them into the broker response.
+   *
+   * @param selection selection information.
+   */
+  private void setSelectionResults(@Nonnull Selection selection) {
+    SelectionResults selectionResults;
+    if (_selectionService != null) {
+      // Selection order-by.
+      selectionResults = _selectionService.renderSelectionResultsWithOrdering();
+    } else {
+      // Selection only.
+      selectionResults = SelectionOperatorUtils.renderSelectionResultsWithoutOrdering(_selectionRows,
+          _selectionDataSchema,
+          SelectionOperatorUtils.getSelectionColumns(selection.getSelectionColumns(), _selectionDataSchema));
+    }
+
+    _brokerResponseNative.setSelectionResults(selectionResults);
+  }
+
+  /**
+   * Merge the aggregation results of the data table into the merged intermediate results.
+   *
+   * @param dataTable data table.
+   * @param dataSchema data schema of the data table.
+   */
+  @SuppressWarnings("unchecked")
+  private void mergeAggregationResults(@Nonnull DataTable dataTable, @Nonnull DataSchema dataSchema) {
+    int numAggregationFunctions = _aggregationFunctions.length;
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      Object intermediateResultToMerge;
+      FieldSpec.DataType columnType = dataSchema.getColumnType(i);
+      switch (columnType) {
+        case LONG:
+          intermediateResultToMerge = dataTable.getLong(0, i);
+          break;
+        case DOUBLE:
+          intermediateResultToMerge = dataTable.getDouble(0, i);
+          break;
+        case OBJECT:
+          intermediateResultToMerge = dataTable.getObject(0, i);
+          break;
+        default:
+          throw new IllegalStateException("Illegal column type in aggregation results: " + columnType);
+      }
+      Object mergedIntermediateResult = _intermediateResults[i];
+      if (mergedIntermediateResult == null) {
+        _intermediateResults[i] = intermediateResultToMerge;
+      } else {
+        _intermediateResults[i] = _aggregationFunctions[i].merge(mergedIntermediateResult, intermediateResultToMerge);
+      }
+    }
+  }
+
+  /**
+   * Extract the final aggregation results and set them into the broker response.
+   */
+  @SuppressWarnings("unchecked")
+  private void setAggregationResults() {
+    int numAggregationFunctions = _aggregationFunctions.length;
+    List<AggregationResult> reducedAggregationResults = new ArrayList<>(numAggregationFunctions);
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      String formattedResult =
+          AggregationFunctionUtils.formatValue(_aggregationFunctions[i].extractFinalResult(_intermediateResults[i]));
+      reducedAggregationResults.add(new AggregationResult(_cachedDataSchema.getColumnName(i), formattedResult));
+    }
+    _brokerResponseNative.setAggregationResults(reducedAggregationResults);
+  }
+
+  /**
+   * Merge the group-by results of the data table into the merged intermediate result maps.
+   *
+   * @param dataTable data table.
+   */
+  private void mergeGroupByResults(@Nonnull DataTable dataTable) {
+    int numAggregationFunctions = _aggregationFunctions.length;
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      if (_columnNames[i] == null) {
+        _columnNames[i] = dataTable.getString(i, 0);
+        _intermediateResultMaps[i] = dataTable.getObject(i, 1);
+      } else {
+        final Map<String, Object> mergedIntermediateResultMap = _intermediateResultMaps[i];
+        final AggregationFunction aggregationFunction = _aggregationFunctions[i];
+        if (dataTable instanceof DataTableImplV3) {
+          // Merge the entries while reading them, without de-serializing the whole map first.
+          ((DataTableImplV3) dataTable).visitHashMapEntries(i, 1, new ObjectCustomSerDe.HashMapEntryVisitor() {
+            @Override
+            public void visit(@Nonnull Object key, @Nonnull Object value) {
+              mergeGroupByResult(mergedIntermediateResultMap, aggregationFunction, (String) key, value);
+            }
+          });
+        } else {
+          Map<String, Object> intermediateResultMapToMerge = dataTable.getObject(i, 1);
+          for (Map.Entry<String, Object> entry : intermediateResultMapToMerge.entrySet()) {
+            mergeGroupByResult(mergedIntermediateResultMap, aggregationFunction, entry.getKey(), entry.getValue());
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Extract the final group-by results, trim them to topN and set them into the broker response.
+   *
+   * @param groupBy group-by information.
+   */
+  @SuppressWarnings("unchecked")
+  private void setGroupByResults(@Nonnull GroupBy groupBy) {
+    int numAggregationFunctions = _aggregationFunctions.length;
+
+    // Extract final result maps from the merged intermediate result maps.
+    Map<String, Comparable>[] finalResultMaps = new Map[numAggregationFunctions];
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      Map<String, Object> intermediateResultMap = _intermediateResultMaps[i];
+      Map<String, Comparable> finalResultMap = new HashMap<>();
+      for (String groupKey : intermediateResultMap.keySet()) {
+        Object intermediateResult = intermediateResultMap.get(groupKey);
+        finalResultMap.put(groupKey, _aggregationFunctions[i].extractFinalResult(intermediateResult));
+      }
+      finalResultMaps[i] = finalResultMap;
+    }
+
+    // Trim the final result maps to topN and set them into the broker response.
+    AggregationGroupByTrimmingService aggregationGroupByTrimmingService =
+        new AggregationGroupByTrimmingService(_aggregationFunctions, (int) groupBy.getTopN());
+    List<GroupByResult>[] groupByResultLists = aggregationGroupByTrimmingService.trimFinalResults(finalResultMaps);
+    List<AggregationResult> aggregationResults = new ArrayList<>(numAggregationFunctions);
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      List<GroupByResult> groupByResultList = groupByResultLists[i];
+      List<String> groupByColumns = groupBy.getExpressions();
+      if (groupByColumns == null) {
+        groupByColumns = groupBy.getColumns();
+      }
+      aggregationResults.add(new AggregationResult(groupByResultList, groupByColumns, _columnNames[i]));
+    }
+    _brokerResponseNative.setAggregationResults(aggregationResults);
+  }
+
+  /**
+   * Helper method to merge an intermediate result of a group into the merged intermediate result map.
+   */
+  @SuppressWarnings("unchecked")
+  private static void mergeGroupByResult(@Nonnull Map<String, Object> mergedIntermediateResultMap,
+      @Nonnull AggregationFunction aggregationFunction, @Nonnull String groupKey,
+      @Nonnull Object intermediateResultToMerge) {
+    Object mergedIntermediateResult = mergedIntermediateResultMap.get(groupKey);
+    if (mergedIntermediateResult != null) {
+      mergedIntermediateResultMap.put(groupKey,
+          aggregationFunction.merge(mergedIntermediateResult, intermediateResultToMerge));
+    } else {
+      mergedIntermediateResultMap.put(groupKey, intermediateResultToMerge);
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.scheduler;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+
+/**
+ * Executor service running at most <code>maxThreads</code> tasks at a time on a shared executor service, the other
+ * tasks are queued in submission order without blocking the caller.
+ * <p>Used to bound the number of worker threads a single query can use from the shared query worker pool. Shutting
+ * down this executor service does not shut down the shared one.
+ */
+public class BoundedExecutorService extends AbstractExecutorService {
+  private final ExecutorService _executorService;
+  private final int _maxThreads;
+
+  // Guarded by this
+  private final Queue<Runnable> _pendingTasks = new ArrayDeque<>();
+  private int _numRunningTasks = 0;
+  private boolean _isShutDown = false;
+
+  public BoundedExecutorService(@Nonnull ExecutorService executorService, int maxThreads) {
+    Preconditions.checkArgument(maxThreads > 0, "Max threads must be positive, got: %s", maxThreads);
+    _executorService = executorService;
+    _maxThreads = maxThreads;
+  }
+
+  @Override
+  public void execute(@Nonnull Runnable command) {
+    synchronized (this) {
+      Preconditions.checkState(!_isShutDown, "Executor service is shut down");
+      if (_numRunningTasks >= _maxThreads) {
+        _pendingTasks.add(command);
+        return;
+      }
+      _numRunningTasks++;
+    }
+    runOnSharedExecutor(command);
+  }
+
+  private void runOnSharedExecutor(final Runnable command) {
+    _executorService.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          command.run();
+        } finally {
+          Runnable nextTask;
+          synchronized (BoundedExecutorService.this) {
+            nextTask = _pendingTasks.poll();
+            if (nextTask == null) {
+              _numRunningTasks--;
+              BoundedExecutorService.this.notifyAll();
+            }
+          }
+          if (nextTask != null) {
+            runOnSharedExecutor(nextTask);
+          }
+        }
+      }
+    });
+  }
+
+  @Override
+  public synchronized void shutdown() {
+    _isShutDown = true;
+  }
+
+  @Nonnull
+  @Override
+  public synchronized List<Runnable> shutdownNow() {
+    _isShutDown = true;
+    List<Runnable> pendingTasks = new ArrayList<>(_pendingTasks);
+    _pendingTasks.clear();
+    return pendingTasks;
+  }
+
+  @Override
+  public synchronized boolean isShutdown() {
+    return _isShutDown;
+  }
+
+  @Override
+  public synchronized boolean isTerminated() {
+    return _isShutDown && _numRunningTasks == 0 && _pendingTasks.isEmpty();
+  }
+
+  @Override
+  public synchronized boolean awaitTermination(long timeout, @Nonnull TimeUnit unit)
+      throws InterruptedException {
+    long endTimeNs = System.nanoTime() + unit.toNanos(timeout);
+    while (!isTerminated()) {
+      long remainingNs = endTimeNs - System.nanoTime();
+      if (remainingNs <= 0) {
+        return false;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remainingNs);
+    }
+    return true;
+  }
+}
@@ -0,0 +1,304 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.scheduler;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.linkedin.pinot.common.exception.QueryException;
+import com.linkedin.pinot.common.metrics.ServerGauge;
+import com.linkedin.pinot.common.metrics.ServerMeter;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.metrics.ServerQueryPhase;
+import com.linkedin.pinot.common.metrics.ServerTimer;
+import com.linkedin.pinot.common.query.QueryExecutor;
+import com.linkedin.pinot.common.query.QueryRequest;
+import com.linkedin.pinot.common.query.context.TimerContext;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nonnull;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Query scheduler applying weighted fair sharing of the query runner threads across groups of queries (per table or
+ * per tenant), instead of running the queries in arrival order.
+ * <ul>
+ *   <li>Queries are queued per group, and the next query to run is picked from the group with the lowest virtual
+ *   time (execution time divided by the group weight), see {@link SchedulerGroup}.</li>
+ *   <li>Each query gets at most a bounded number of threads from the shared query worker pool.</li>
+ *   <li>Queries whose deadline (arrival time plus the table query timeout) has passed when they are picked are
+ *   rejected instead of being executed.</li>
+ *   <li>Per group queue depth, wait time and rejected queries are exposed through {@link ServerMetrics}.</li>
+ * </ul>
+ * Configuration (under the scheduler config prefix):
+ * <ul>
+ *   <li><code>group_by</code>: <code>table</code> (default) or <code>tenant</code>, see
+ *   {@link TenantBasedGroupMapper} for the tenant mapping.</li>
+ *   <li><code>weight.&lt;groupName&gt;</code>: weight of the group, 1.0 by default.</li>
+ *   <li><code>query_worker_threads_per_query</code>: max number of worker threads per query.</li>
+ * </ul>
+ */
+public class FairShareQueryScheduler extends QueryScheduler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FairShareQueryScheduler.class);
+
+  public static final String GROUP_BY_CONFIG_KEY = "group_by";
+  public static final String GROUP_BY_TABLE = "table";
+  public static final String GROUP_BY_TENANT = "tenant";
+  public static final String GROUP_WEIGHT_CONFIG_PREFIX = "weight";
+  public static final String WORKER_THREADS_PER_QUERY_CONFIG_KEY = "query_worker_threads_per_query";
+  public static final double DEFAULT_GROUP_WEIGHT = 1.0;
+
+  private final SchedulerGroupMapper _groupMapper;
+  private final Configuration _groupWeightConfig;
+  private final int _numWorkerThreadsPerQuery;
+  private final Semaphore _runnerPermits;
+
+  private final Lock _lock = new ReentrantLock();
+  private final Condition _queryAdded = _lock.newCondition();
+  // Guarded by _lock
+  private final Map<String, SchedulerGroup> _groups = new HashMap<>();
+  // Virtual time of the last scheduled group, guarded by _lock
+  private double _systemVirtualTimeMs = 0;
+
+  private final Thread _dispatcherThread;
+  private volatile boolean _isRunning = true;
+
+  public FairShareQueryScheduler(@Nonnull Configuration schedulerConfig, @Nonnull QueryExecutor queryExecutor) {
+    super(schedulerConfig, queryExecutor);
+    Preconditions.checkNotNull(queryExecutor);
+
+    String groupBy = schedulerConfig.getString(GROUP_BY_CONFIG_KEY, GROUP_BY_TABLE);
+    switch (groupBy.toLowerCase()) {
+      case GROUP_BY_TABLE:
+        _groupMapper = new TableBasedGroupMapper();
+        break;
+      case GROUP_BY_TENANT:
+        _groupMapper = new TenantBasedGroupMapper(schedulerConfig);
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported scheduler group by: " + groupBy);
+    }
+    _groupWeightConfig = schedulerConfig.subset(GROUP_WEIGHT_CONFIG_PREFIX);
+    int defaultNumWorkerThreadsPerQuery =
+        Math.max(1, (numQueryWorkerThreads + numQueryRunnerThreads - 1) / numQueryRunnerThreads);
+    _numWorkerThreadsPerQuery =
+        schedulerConfig.getInt(WORKER_THREADS_PER_QUERY_CONFIG_KEY, defaultNumWorkerThreadsPerQuery);
+    Preconditions.checkArgument(_numWorkerThreadsPerQuery > 0, "Invalid number of worker threads per query: %s",
+        _numWorkerThreadsPerQuery);
+    _runnerPermits = new Semaphore(numQueryRunnerThreads);
+    LOGGER.info("Fair share query scheduler grouping queries by {}, with {} runner threads, {} worker threads, {} "
+        + "worker threads per query", groupBy, numQueryRunnerThreads, numQueryWorkerThreads, _numWorkerThreadsPerQuery);
+
+    _dispatcherThread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        dispatchQueries();
+      }
+    }, "fair-share-query-scheduler");
+    _dispatcherThread.setDaemon(true);
+    _dispatcherThread.start();
+  }
+
+  @Override
+  public ListenableFuture<DataTable> submit(@Nonnull QueryRequest queryRequest) {
+    TimerContext timerContext = queryRequest.getTimerContext();
+    timerContext.startNewPhaseTimer(ServerQueryPhase.SCHEDULER_WAIT);
+
+    long nowNs = System.nanoTime();
+    long deadlineNs = SchedulerQueryContext.NO_DEADLINE;
+    long timeOutMs = queryExecutor.getResourceTimeOutInMs(queryRequest.getTableName());
+    if (timeOutMs > 0) {
+      long arrivalTimeNs = timerContext.getQueryArrivalTimeNs();
+      if (arrivalTimeNs == 0) {
+        arrivalTimeNs = nowNs;
+      }
+      deadlineNs = arrivalTimeNs + TimeUnit.MILLISECONDS.toNanos(timeOutMs);
+    }
+    SchedulerQueryContext queryContext;
+    String groupName = _groupMapper.getSchedulerGroupName(queryRequest);
+    _lock.lock();
+    try {
+      SchedulerGroup group = _groups.get(groupName);
+      if (group == null) {
+        group = new SchedulerGroup(groupName, _groupWeightConfig.getDouble(groupName, DEFAULT_GROUP_WEIGHT));
+        _groups.put(groupName, group);
+      }
+      queryContext = new SchedulerQueryContext(queryRequest, group, nowNs, deadlineNs);
+      group.addQuery(queryContext, _systemVirtualTimeMs);
+      updateQueueDepth(queryRequest.getServerMetrics(), group);
+      _queryAdded.signal();
+    } finally {
+      _lock.unlock();
+    }
+    return queryContext.getResultFuture();
+  }
+
+  /**
+   * Stops dispatching queries and shuts down the query runners and workers.
+   */
+  public void stop() {
+    _isRunning = false;
+    _dispatcherThread.interrupt();
+    queryRunners.shutdown();
+    queryWorkers.shutdown();
+  }
+
+  private void dispatchQueries() {
+    while (_isRunning) {
+      try {
+        _runnerPermits.acquire();
+        SchedulerQueryContext queryContext = null;
+        while (queryContext == null) {
+          queryContext = takeNextQuery();
+        }
+        runQuery(queryContext);
+      } catch (InterruptedException e) {
+        break;
+      }
+    }
+    LOGGER.info("Fair share query scheduler stopped");
+  }
+
+  /**
+   * Waits for and returns the next query to run, or returns null if the next query has been rejected because its
+   * deadline has passed.
+   */
+  private SchedulerQueryContext takeNextQuery()
+      throws InterruptedException {
+    SchedulerGroup group;
+    SchedulerQueryContext expiredQuery;
+    _lock.lock();
+    try {
+      while ((group = selectGroup()) == null) {
+        _queryAdded.await();
+      }
+      if (!group.peekQuery().isExpired(System.nanoTime())) {
+        _systemVirtualTimeMs = Math.max(_systemVirtualTimeMs, group.getVirtualTimeMs());
+        SchedulerQueryContext queryContext = group.startQuery();
+        updateQueueDepth(queryContext.getQueryRequest().getServerMetrics(), group);
+        return queryContext;
+      }
+      expiredQuery = group.dropQuery();
+      updateQueueDepth(expiredQuery.getQueryRequest().getServerMetrics(), group);
+    } finally {
+      _lock.unlock();
+    }
+    // Complete the future out of the lock, as its listeners serialize and send the response
+    rejectExpiredQuery(expiredQuery);
+    return null;
+  }
+
+  /**
+   * Returns the group with pending queries and the lowest virtual time, or null if there is no pending query.
+   */
+  private SchedulerGroup selectGroup() {
+    SchedulerGroup selectedGroup = null;
+    double selectedVirtualTimeMs = 0;
+    for (SchedulerGroup group : _groups.values()) {
+      if (group.numPendingQueries() == 0) {
+        continue;
+      }
+      double virtualTimeMs = group.getSchedulingVirtualTimeMs();
+      if (selectedGroup == null || virtualTimeMs < selectedVirtualTimeMs || (virtualTimeMs == selectedVirtualTimeMs
+          && group.peekQuery().getEnqueueTimeNs() < selectedGroup.peekQuery().getEnqueueTimeNs())) {
+        selectedGroup = group;
+        selectedVirtualTimeMs = virtualTimeMs;
+      }
+    }
+    return selectedGroup;
+  }
+
+  private void runQuery(final SchedulerQueryContext queryContext) {
+    final QueryRequest queryRequest = queryContext.getQueryRequest();
+    final SchedulerGroup group = queryContext.getSchedulerGroup();
+    ServerMetrics serverMetrics = queryRequest.getServerMetrics();
+    if (serverMetrics != null) {
+      serverMetrics.addTimedTableValue(group.getName(), ServerTimer.SCHEDULER_GROUP_WAIT_TIME,
+          System.nanoTime() - queryContext.getEnqueueTimeNs(), TimeUnit.NANOSECONDS);
+    }
+    queryRequest.setQueryWorkers(
+        MoreExecutors.listeningDecorator(new BoundedExecutorService(queryWorkers, _numWorkerThreadsPerQuery)));
+
+    try {
+      queryRunners.submit(new Runnable() {
+        @Override
+        public void run() {
+          long startTimeNs = System.nanoTime();
+          try {
+            queryContext.getResultFuture().set(queryExecutor.processQuery(queryRequest));
+          } catch (Throwable t) {
+            queryContext.getResultFuture().setException(t);
+          } finally {
+            endQuery(group, System.nanoTime() - startTimeNs);
+          }
+        }
+      });
+    } catch (Exception e) {
+      LOGGER.error("Caught exception while submitting query for table: {}", queryRequest.getTableName(), e);
+      queryContext.getResultFuture().setException(e);
+      endQuery(group, 0L);
+    }
+  }
+
+  private void endQuery(SchedulerGroup group, long executionTimeNs) {
+    _lock.lock();
+    try {
+      group.endQuery(TimeUnit.NANOSECONDS.toMillis(executionTimeNs));
+    } finally {
+      _lock.unlock();
+    }
+    _runnerPermits.release();
+  }
+
+  private void rejectExpiredQuery(SchedulerQueryContext queryContext) {
+    QueryRequest queryRequest = queryContext.getQueryRequest();
+    String groupName = queryContext.getSchedulerGroup().getName();
+    TimerContext.Timer schedulerWaitTimer =
+        queryRequest.getTimerContext().getPhaseTimer(ServerQueryPhase.SCHEDULER_WAIT);
+    if (schedulerWaitTimer != null) {
+      schedulerWaitTimer.stopAndRecord();
+    }
+    ServerMetrics serverMetrics = queryRequest.getServerMetrics();
+    if (serverMetrics != null) {
+      serverMetrics.addMeteredTableValue(groupName, ServerMeter.SCHEDULING_TIMEOUT_EXCEPTIONS, 1L);
+    }
+    LOGGER.warn("Rejecting requestId {} for table {}, deadline passed while waiting in scheduler group {}",
+        queryRequest.getInstanceRequest().getRequestId(), queryRequest.getTableName(), groupName);
+
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.addException(QueryException.QUERY_SCHEDULING_TIMEOUT_ERROR);
+    dataTable.getMetadata()
+        .put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(queryRequest.getInstanceRequest().getRequestId()));
+    queryContext.getResultFuture().set(dataTable);
+  }
+
+  private static void updateQueueDepth(ServerMetrics serverMetrics, SchedulerGroup group) {
+    if (serverMetrics != null) {
+      serverMetrics.setValueOfTableGauge(group.getName(), ServerGauge.SCHEDULER_GROUP_QUEUE_DEPTH,
+          group.numPendingQueries());
+    }
+  }
+}
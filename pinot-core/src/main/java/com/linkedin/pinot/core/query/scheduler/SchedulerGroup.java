@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+
+/**
+ * Scheduling state of a group of queries (table or tenant) for the {@link FairShareQueryScheduler}.
+ * <p>Each group accumulates a virtual time: the execution time of its queries divided by its weight. The scheduler
+ * always runs the next query of the pending group with the lowest virtual time, counting queries still running at
+ * the average execution time of the group, so that groups get thread time proportional to their weight.
+ * <p>Not thread-safe, guarded by the scheduler lock.
+ */
+class SchedulerGroup {
+  // Weight of the latest execution time in the average execution time
+  private static final double EXECUTION_TIME_DECAY = 0.2;
+
+  private final String _name;
+  private final double _weight;
+  private final Queue<SchedulerQueryContext> _pendingQueries = new ArrayDeque<>();
+  private int _numRunningQueries = 0;
+  private double _virtualTimeMs = 0;
+  private double _averageExecutionTimeMs = 0;
+
+  SchedulerGroup(String name, double weight) {
+    _name = name;
+    _weight = weight;
+  }
+
+  String getName() {
+    return _name;
+  }
+
+  /**
+   * Adds a query to the group. An idle group starts from the given system virtual time, so that it cannot bank the
+   * share it did not use while idle.
+   */
+  void addQuery(SchedulerQueryContext queryContext, double systemVirtualTimeMs) {
+    if (isIdle()) {
+      _virtualTimeMs = Math.max(_virtualTimeMs, systemVirtualTimeMs);
+    }
+    _pendingQueries.add(queryContext);
+  }
+
+  SchedulerQueryContext peekQuery() {
+    return _pendingQueries.peek();
+  }
+
+  /**
+   * Removes the next pending query from the group, and accounts it as running.
+   */
+  SchedulerQueryContext startQuery() {
+    _numRunningQueries++;
+    return _pendingQueries.poll();
+  }
+
+  /**
+   * Removes the next pending query from the group without running it.
+   */
+  SchedulerQueryContext dropQuery() {
+    return _pendingQueries.poll();
+  }
+
+  void endQuery(long executionTimeMs) {
+    _numRunningQueries--;
+    _virtualTimeMs += executionTimeMs / _weight;
+    if (_averageExecutionTimeMs == 0) {
+      _averageExecutionTimeMs = executionTimeMs;
+    } else {
+      _averageExecutionTimeMs =
+          EXECUTION_TIME_DECAY * executionTimeMs + (1 - EXECUTION_TIME_DECAY) * _averageExecutionTimeMs;
+    }
+  }
+
+  /**
+   * Returns the virtual time of the group, including the expected cost of its running queries.
+   */
+  double getSchedulingVirtualTimeMs() {
+    return _virtualTimeMs + _numRunningQueries * _averageExecutionTimeMs / _weight;
+  }
+
+  double getVirtualTimeMs() {
+    return _virtualTimeMs;
+  }
+
+  int numPendingQueries() {
+    return _pendingQueries.size();
+  }
+
+  int numRunningQueries() {
+    return _numRunningQueries;
+  }
+
+  boolean isIdle() {
+    return _pendingQueries.isEmpty() && _numRunningQueries == 0;
+  }
+}
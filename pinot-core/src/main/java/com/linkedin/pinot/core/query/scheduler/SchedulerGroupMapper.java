@@ -0,0 +1,32 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.scheduler;
+
+import com.linkedin.pinot.common.query.QueryRequest;
+import javax.annotation.Nonnull;
+
+
+/**
+ * Maps queries to the scheduler group they are fair shared in.
+ */
+public interface SchedulerGroupMapper {
+
+  /**
+   * Returns the name of the scheduler group for the given query.
+   */
+  @Nonnull
+  String getSchedulerGroupName(@Nonnull QueryRequest queryRequest);
+}
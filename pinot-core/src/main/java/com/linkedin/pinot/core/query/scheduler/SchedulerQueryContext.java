@@ -0,0 +1,64 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.scheduler;
+
+import com.google.common.util.concurrent.SettableFuture;
+import com.linkedin.pinot.common.query.QueryRequest;
+import com.linkedin.pinot.common.utils.DataTable;
+
+
+/**
+ * Query waiting in a {@link SchedulerGroup}, with the future completed once the query is processed or rejected.
+ */
+class SchedulerQueryContext {
+  static final long NO_DEADLINE = Long.MAX_VALUE;
+
+  private final QueryRequest _queryRequest;
+  private final SchedulerGroup _schedulerGroup;
+  private final SettableFuture<DataTable> _resultFuture = SettableFuture.create();
+  private final long _enqueueTimeNs;
+  private final long _deadlineNs;
+
+  /**
+   * @param deadlineNs deadline as {@link System#nanoTime()}, or {@link #NO_DEADLINE}
+   */
+  SchedulerQueryContext(QueryRequest queryRequest, SchedulerGroup schedulerGroup, long enqueueTimeNs, long deadlineNs) {
+    _queryRequest = queryRequest;
+    _schedulerGroup = schedulerGroup;
+    _enqueueTimeNs = enqueueTimeNs;
+    _deadlineNs = deadlineNs;
+  }
+
+  QueryRequest getQueryRequest() {
+    return _queryRequest;
+  }
+
+  SchedulerGroup getSchedulerGroup() {
+    return _schedulerGroup;
+  }
+
+  SettableFuture<DataTable> getResultFuture() {
+    return _resultFuture;
+  }
+
+  long getEnqueueTimeNs() {
+    return _enqueueTimeNs;
+  }
+
+  boolean isExpired(long nowNs) {
+    return _deadlineNs != NO_DEADLINE && nowNs - _deadlineNs >= 0;
+  }
+}
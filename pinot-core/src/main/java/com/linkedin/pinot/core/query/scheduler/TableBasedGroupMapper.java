@@ -0,0 +1,34 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.scheduler;
+
+import com.linkedin.pinot.common.config.TableNameBuilder;
+import com.linkedin.pinot.common.query.QueryRequest;
+import javax.annotation.Nonnull;
+
+
+/**
+ * Scheduler group mapper with one group per table. The offline and realtime parts of a hybrid table share the same
+ * group.
+ */
+public class TableBasedGroupMapper implements SchedulerGroupMapper {
+
+  @Nonnull
+  @Override
+  public String getSchedulerGroupName(@Nonnull QueryRequest queryRequest) {
+    return TableNameBuilder.extractRawTableName(queryRequest.getTableName());
+  }
+}
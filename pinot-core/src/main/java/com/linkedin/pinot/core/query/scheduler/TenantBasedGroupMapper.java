@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.scheduler;
+
+import com.linkedin.pinot.common.config.TableNameBuilder;
+import com.linkedin.pinot.common.query.QueryRequest;
+import com.linkedin.pinot.common.utils.ControllerTenantNameBuilder;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.apache.commons.configuration.Configuration;
+
+
+/**
+ * Scheduler group mapper with one group per tenant.
+ * <p>Servers do not know the tenant of the queried tables, so the mapping comes from the scheduler configuration as
+ * <code>tenant.&lt;tenantName&gt;=&lt;rawTableName1&gt;,&lt;rawTableName2&gt;,...</code>. Tables that are not listed
+ * belong to the default tenant.
+ */
+public class TenantBasedGroupMapper implements SchedulerGroupMapper {
+  public static final String TENANT_CONFIG_PREFIX = "tenant";
+
+  private final Map<String, String> _tableToTenantMap = new HashMap<>();
+
+  public TenantBasedGroupMapper(@Nonnull Configuration schedulerConfig) {
+    Configuration tenantConfig = schedulerConfig.subset(TENANT_CONFIG_PREFIX);
+    Iterator<String> tenantNames = tenantConfig.getKeys();
+    while (tenantNames.hasNext()) {
+      String tenantName = tenantNames.next();
+      for (String tableName : tenantConfig.getStringArray(tenantName)) {
+        _tableToTenantMap.put(tableName.trim(), tenantName);
+      }
+    }
+  }
+
+  @Nonnull
+  @Override
+  public String getSchedulerGroupName(@Nonnull QueryRequest queryRequest) {
+    String tenantName = _tableToTenantMap.get(TableNameBuilder.extractRawTableName(queryRequest.getTableName()));
+    if (tenantName == null) {
+      return ControllerTenantNameBuilder.DEFAULT_TENANT_NAME;
+    }
+    return tenantName;
+  }
+}
@@ -17,7 +17,6 @@ package com.linkedin.pinot.core.query.selection;
 
 import com.linkedin.pinot.common.request.Selection;
 import com.linkedin.pinot.common.request.SelectionSort;
-import com.linkedin.pinot.common.response.ServerInstance;
 import com.linkedin.pinot.common.response.broker.SelectionResults;
 import com.linkedin.pinot.common.utils.DataSchema;
 import com.linkedin.pinot.common.utils.DataTable;
@@ -290,18 +289,16 @@ public class SelectionOperatorService {
   }
 
   /**
-   * Reduce a collection of {@link DataTable}s to selection rows for selection queries with <code>ORDER BY</code>.
-   * (Broker side)
+   * Reduce a {@link DataTable} into the selection rows for selection queries with <code>ORDER BY</code>, keeping at
+   * most offset + size rows. (Broker side)
    *
-   * @param selectionResults {@link Map} from {@link ServerInstance} to {@link DataTable}.
+   * @param dataTable {@link DataTable} from one server.
    */
-  public void reduceWithOrdering(@Nonnull Map<ServerInstance, DataTable> selectionResults) {
-    for (DataTable dataTable : selectionResults.values()) {
-      int numRows = dataTable.getNumberOfRows();
-      for (int rowId = 0; rowId < numRows; rowId++) {
-        Serializable[] row = SelectionOperatorUtils.extractRowFromDataTable(dataTable, rowId);
-        SelectionOperatorUtils.addToPriorityQueue(row, _rows, _maxNumRows);
-      }
+  public void reduceWithOrdering(@Nonnull DataTable dataTable) {
+    int numRows = dataTable.getNumberOfRows();
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      Serializable[] row = SelectionOperatorUtils.extractRowFromDataTable(dataTable, rowId);
+      SelectionOperatorUtils.addToPriorityQueue(row, _rows, _maxNumRows);
     }
   }
 
@@ -18,12 +18,12 @@ package com.linkedin.pinot.core.query.selection;
 import com.linkedin.pinot.common.data.FieldSpec.DataType;
 import com.linkedin.pinot.common.request.Selection;
 import com.linkedin.pinot.common.request.SelectionSort;
-import com.linkedin.pinot.common.response.ServerInstance;
 import com.linkedin.pinot.common.response.broker.SelectionResults;
 import com.linkedin.pinot.common.utils.DataSchema;
 import com.linkedin.pinot.common.utils.DataTable;
 import com.linkedin.pinot.core.common.DataSourceMetadata;
 import com.linkedin.pinot.core.common.datatable.DataTableBuilder;
+import com.linkedin.pinot.core.common.datatable.DataTableFactory;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import java.io.Serializable;
 import java.text.DecimalFormat;
@@ -229,9 +229,20 @@ public class SelectionOperatorUtils {
   @Nonnull
   public static DataTable getDataTableFromRows(@Nonnull Collection<Serializable[]> rows, @Nonnull DataSchema dataSchema)
       throws Exception {
+    return getDataTableFromRows(rows, dataSchema, DataTableFactory.VERSION_2);
+  }
+
+  /**
+   * Build a {@link DataTable} of the given version from a {@link Collection} of selection rows with {@link DataSchema}.
+   * (Server side)
+   */
+  @Nonnull
+  public static DataTable getDataTableFromRows(@Nonnull Collection<Serializable[]> rows, @Nonnull DataSchema dataSchema,
+      int dataTableVersion)
+      throws Exception {
     int numColumns = dataSchema.size();
 
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, dataTableVersion);
     for (Serializable[] row : rows) {
       dataTableBuilder.startRow();
       for (int i = 0; i < numColumns; i++) {
@@ -381,28 +392,19 @@ public class SelectionOperatorUtils {
   }
 
   /**
-   * Reduce a collection of {@link DataTable}s to selection rows for selection queries without <code>ORDER BY</code>.
-   * (Broker side)
+   * Reduce a {@link DataTable} into the selection rows for selection queries without <code>ORDER BY</code>, keeping at
+   * most selection size rows. (Broker side)
    *
-   * @param selectionResults {@link Map} from {@link ServerInstance} to {@link DataTable}.
+   * @param rows reduced selection rows.
+   * @param dataTable {@link DataTable} from one server.
    * @param selectionSize size of the selection.
-   * @return reduced results.
    */
-  @Nonnull
-  public static List<Serializable[]> reduceWithoutOrdering(@Nonnull Map<ServerInstance, DataTable> selectionResults,
+  public static void reduceWithoutOrdering(@Nonnull List<Serializable[]> rows, @Nonnull DataTable dataTable,
       int selectionSize) {
-    List<Serializable[]> rows = new ArrayList<>(selectionSize);
-    for (DataTable dataTable : selectionResults.values()) {
-      int numRows = dataTable.getNumberOfRows();
-      for (int rowId = 0; rowId < numRows; rowId++) {
-        if (rows.size() < selectionSize) {
-          rows.add(extractRowFromDataTable(dataTable, rowId));
-        } else {
-          return rows;
-        }
-      }
+    int numRows = Math.min(dataTable.getNumberOfRows(), selectionSize - rows.size());
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      rows.add(extractRowFromDataTable(dataTable, rowId));
     }
-    return rows;
   }
 
   /**
@@ -21,6 +21,7 @@ import org.joda.time.Interval;
 
 import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.RowBatch;
 import com.linkedin.pinot.core.data.readers.RecordReader;
 
 
@@ -35,6 +36,15 @@ public interface RealtimeSegment extends MutableIndexSegment {
    */
   public void init(Schema dataSchema);
 
+  /**
+   * Indexes all the rows of the given batch, which must fit in the segment. The dictionary and indexes of each column
+   * are resolved once for the batch, and the new documents become searchable together.
+   *
+   * @param rowBatch Batch of rows with the columns of the schema of the segment
+   * @return Whether the segment can take more rows
+   */
+  public boolean index(RowBatch rowBatch);
+
   /**
    * returns a RecordReader implementation
    * which can be used to create an offline segment.
@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.realtime.converter;
+
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.core.io.reader.DataFileReader;
+import com.linkedin.pinot.core.realtime.impl.RealtimeSegmentImpl;
+import com.linkedin.pinot.core.realtime.impl.dictionary.MutableDictionaryReader;
+import com.linkedin.pinot.core.segment.creator.impl.BaseMutableColumnarSegmentSource;
+import javax.annotation.Nullable;
+
+
+/**
+ * Columnar source of the segment converted from a realtime segment, which reuses the dictionaries and the forward
+ * indexes of the realtime segment instead of reading its rows.
+ * <p>The columns of the schema must have the same names and data types as in the realtime segment.
+ */
+public class RealtimeSegmentColumnarSource extends BaseMutableColumnarSegmentSource {
+  private final RealtimeSegmentImpl _realtimeSegment;
+  private final Schema _schema;
+  private final int _numDocs;
+
+  public RealtimeSegmentColumnarSource(RealtimeSegmentImpl realtimeSegment, Schema schema,
+      @Nullable String sortedColumn) {
+    _realtimeSegment = realtimeSegment;
+    _schema = schema;
+    _numDocs = realtimeSegment.getRawDocumentCount();
+    if (sortedColumn != null) {
+      sortDocs(sortedColumn);
+    }
+  }
+
+  @Override
+  public Schema getSchema() {
+    return _schema;
+  }
+
+  @Override
+  public int getNumDocs() {
+    return _numDocs;
+  }
+
+  @Override
+  protected MutableDictionaryReader getDictionary(String column) {
+    return _realtimeSegment.getDictionary(column);
+  }
+
+  @Override
+  protected DataFileReader getForwardIndex(String column) {
+    return _realtimeSegment.getForwardIndex(column);
+  }
+
+  @Override
+  protected int getMaxNumberOfMultiValues(String column) {
+    return _realtimeSegment.getMaxNumberOfMultiValues(column);
+  }
+}
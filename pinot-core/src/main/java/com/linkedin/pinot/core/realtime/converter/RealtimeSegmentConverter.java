@@ -38,6 +38,9 @@ public class RealtimeSegmentConverter {
   private String segmentName;
   private String sortedColumn;
   private List<String> invertedIndexColumns;
+  // Whether the time column keeps its name and data type in the converted segment, see buildByColumns()
+  private boolean sameTimeColumn;
+  private boolean columnarConversionEnabled = true;
 
   public RealtimeSegmentConverter(RealtimeSegmentImpl realtimeSegment, String outputPath, Schema schema,
       String tableName, String segmentName, String sortedColumn, List<String> invertedIndexColumns) {
@@ -49,6 +52,8 @@ public class RealtimeSegmentConverter {
     // incoming.setDataType(DataType.LONG);
 
     TimeFieldSpec newTimeSpec = new TimeFieldSpec(incoming);
+    TimeGranularitySpec outgoing = original.getOutgoingGranularitySpec();
+    sameTimeColumn = incoming.getName().equals(outgoing.getName()) && incoming.getDataType() == outgoing.getDataType();
 
     Schema newSchema = new Schema();
     for (String dimension : schema.getDimensionNames()) {
@@ -76,15 +81,15 @@ public class RealtimeSegmentConverter {
     this(realtimeSegment, outputPath, schema, tableName, segmentName, sortedColumn, new ArrayList<String>());
   }
 
-  public void build(SegmentVersion segmentVersion) throws Exception {
-    // lets create a record reader
-    RecordReader reader;
+  /**
+   * Enables or disables the conversion by columns (enabled by default), which otherwise falls back to reading the rows
+   * of the realtime segment.
+   */
+  public void setColumnarConversionEnabled(boolean columnarConversionEnabled) {
+    this.columnarConversionEnabled = columnarConversionEnabled;
+  }
 
-    if (sortedColumn == null) {
-      reader = new RealtimeSegmentRecordReader(realtimeSegmentImpl, dataSchema);
-    } else {
-      reader = new RealtimeSegmentRecordReader(realtimeSegmentImpl, dataSchema, sortedColumn);
-    }
+  public void build(SegmentVersion segmentVersion) throws Exception {
     SegmentGeneratorConfig genConfig = new SegmentGeneratorConfig(dataSchema);
     if (invertedIndexColumns != null && !invertedIndexColumns.isEmpty()) {
       for (String column : invertedIndexColumns) {
@@ -98,7 +103,32 @@ public class RealtimeSegmentConverter {
     genConfig.setOutDir(outputPath);
     genConfig.setSegmentName(segmentName);
     final SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
-    driver.init(genConfig, reader);
+    if (buildByColumns()) {
+      driver.init(genConfig, new RealtimeSegmentColumnarSource(realtimeSegmentImpl, dataSchema, sortedColumn),
+          Runtime.getRuntime().availableProcessors());
+    } else {
+      // lets create a record reader
+      RecordReader reader;
+
+      if (sortedColumn == null) {
+        reader = new RealtimeSegmentRecordReader(realtimeSegmentImpl, dataSchema);
+      } else {
+        reader = new RealtimeSegmentRecordReader(realtimeSegmentImpl, dataSchema, sortedColumn);
+      }
+      driver.init(genConfig, reader);
+    }
     driver.build();
   }
+
+  /**
+   * Returns whether the segment can be built from the dictionaries and forward indexes of the realtime segment,
+   * which requires the columns to keep their names and data types, and a single-value sorted column if any.
+   */
+  private boolean buildByColumns() {
+    if (!columnarConversionEnabled || !sameTimeColumn || realtimeSegmentImpl.getRawDocumentCount() == 0) {
+      return false;
+    }
+    return sortedColumn == null || (dataSchema.hasColumn(sortedColumn) && dataSchema.getFieldSpecFor(sortedColumn)
+        .isSingleValueField());
+  }
 }
@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.core.realtime.impl;
 
+import com.google.common.base.Preconditions;
 import com.linkedin.pinot.common.metrics.ServerMeter;
 import com.linkedin.pinot.common.metrics.ServerMetrics;
 import java.io.IOException;
@@ -42,26 +43,27 @@ import com.linkedin.pinot.common.utils.time.TimeConverterProvider;
 import com.linkedin.pinot.core.common.DataSource;
 import com.linkedin.pinot.core.common.Predicate;
 import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.RowBatch;
 import com.linkedin.pinot.core.data.readers.RecordReader;
 import com.linkedin.pinot.core.indexsegment.IndexType;
 import com.linkedin.pinot.core.io.reader.DataFileReader;
+import com.linkedin.pinot.core.io.readerwriter.RealtimeIndexOffHeapMemoryManager;
 import com.linkedin.pinot.core.io.readerwriter.impl.FixedByteSingleColumnMultiValueReaderWriter;
 import com.linkedin.pinot.core.io.readerwriter.impl.FixedByteSingleColumnSingleValueReaderWriter;
 import com.linkedin.pinot.core.realtime.RealtimeSegment;
 import com.linkedin.pinot.core.realtime.impl.datasource.RealtimeColumnDataSource;
 import com.linkedin.pinot.core.realtime.impl.dictionary.MutableDictionaryReader;
 import com.linkedin.pinot.core.realtime.impl.dictionary.RealtimeDictionaryProvider;
-import com.linkedin.pinot.core.realtime.impl.invertedIndex.DimensionInvertertedIndex;
-import com.linkedin.pinot.core.realtime.impl.invertedIndex.MetricInvertedIndex;
 import com.linkedin.pinot.core.realtime.impl.invertedIndex.RealtimeInvertedIndex;
-import com.linkedin.pinot.core.realtime.impl.invertedIndex.TimeInvertedIndex;
-import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import com.linkedin.pinot.core.realtime.impl.invertedIndex.RealtimeInvertedIndexImpl;
 import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
 import com.linkedin.pinot.core.startree.StarTree;
 
 public class RealtimeSegmentImpl implements RealtimeSegment {
   private final Logger LOGGER;
   public static final int[] EMPTY_DICTIONARY_IDS_ARRAY = new int[0];
+  // Forward indexes grow by chunks of this number of rows (at most), instead of being pre-allocated for the capacity
+  private static final int MAX_NUM_ROWS_PER_CHUNK = 64 * 1024;
 
   private SegmentMetadataImpl _segmentMetadata;
   private final Schema dataSchema;
@@ -79,7 +81,8 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
 
   private Map<String, Integer> maxNumberOfMultivaluesMap;
 
-  private int docIdSearchableOffset = -1;
+  // Written after all the indexes of the document are updated, so that queries reading it see a consistent segment
+  private volatile int docIdSearchableOffset = -1;
   private int numDocsIndexed = 0;
   private int numSuccessIndexed = 0;
 
@@ -88,6 +91,7 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
   private long maxTimeVal = Long.MIN_VALUE;
 
   private final int capacity;
+  private final RealtimeIndexOffHeapMemoryManager memoryManager;
 
   private final Map<String, DataFileReader> columnIndexReaderWriterMap;
 
@@ -96,6 +100,17 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
 
   public RealtimeSegmentImpl(Schema schema, int capacity, String tableName, String segmentName, String streamName,
       ServerMetrics serverMetrics, List<String> invertedIndexColumns) throws IOException {
+    this(schema, capacity, tableName, segmentName, streamName, serverMetrics, invertedIndexColumns,
+        new RealtimeIndexOffHeapMemoryManager(tableName, serverMetrics));
+  }
+
+  /**
+   * Allocates the off-heap memory of the indexes from the given memory manager, which is closed when the segment is
+   * destroyed.
+   */
+  public RealtimeSegmentImpl(Schema schema, int capacity, String tableName, String segmentName, String streamName,
+      ServerMetrics serverMetrics, List<String> invertedIndexColumns, RealtimeIndexOffHeapMemoryManager memoryManager)
+      throws IOException {
     // initial variable setup
     this.segmentName = segmentName;
     this.serverMetrics = serverMetrics;
@@ -105,20 +120,26 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
     maxNumberOfMultivaluesMap = new HashMap<String, Integer>();
     outgoingTimeColumnName = dataSchema.getTimeFieldSpec().getOutgoingTimeColumnName();
     this.capacity = capacity;
+    this.memoryManager = memoryManager;
+    int numRowsPerChunk = Math.min(capacity, MAX_NUM_ROWS_PER_CHUNK);
+    numRowsPerChunk = numRowsPerChunk > 1 ? Integer.highestOneBit(numRowsPerChunk - 1) << 1 : 1;
 
     for (FieldSpec col : dataSchema.getAllFieldSpecs()) {
       maxNumberOfMultivaluesMap.put(col.getName(), 0);
     }
     // dictionary assignment for dimensions and time column
     for (String column : dataSchema.getDimensionNames()) {
-      dictionaryMap.put(column, RealtimeDictionaryProvider.getDictionaryFor(dataSchema.getFieldSpecFor(column)));
+      dictionaryMap.put(column, RealtimeDictionaryProvider.getDictionaryFor(dataSchema.getFieldSpecFor(column),
+          memoryManager));
     }
 
     dictionaryMap.put(outgoingTimeColumnName,
-        RealtimeDictionaryProvider.getDictionaryFor(dataSchema.getFieldSpecFor(outgoingTimeColumnName)));
+        RealtimeDictionaryProvider.getDictionaryFor(dataSchema.getFieldSpecFor(outgoingTimeColumnName),
+            memoryManager));
 
     for (String metric : dataSchema.getMetricNames()) {
-      dictionaryMap.put(metric, RealtimeDictionaryProvider.getDictionaryFor(dataSchema.getFieldSpecFor(metric)));
+      dictionaryMap.put(metric, RealtimeDictionaryProvider.getDictionaryFor(dataSchema.getFieldSpecFor(metric),
+          memoryManager));
     }
 
     // docId generator and time granularity converter
@@ -133,30 +154,31 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
 
     for (String dimension : schema.getDimensionNames()) {
       if (invertedIndexColumns.contains(dimension)) {
-        invertedIndexMap.put(dimension, new DimensionInvertertedIndex(dimension));
+        invertedIndexMap.put(dimension, new RealtimeInvertedIndexImpl(dimension));
       }
       if (schema.getFieldSpecFor(dimension).isSingleValueField()) {
-        columnIndexReaderWriterMap.put(dimension, new FixedByteSingleColumnSingleValueReaderWriter(capacity,
-            V1Constants.Dict.INT_DICTIONARY_COL_SIZE));
+        columnIndexReaderWriterMap.put(dimension, new FixedByteSingleColumnSingleValueReaderWriter(numRowsPerChunk,
+            Integer.SIZE / 8, memoryManager, dimension + ".forwardIndex"));
       } else {
-        columnIndexReaderWriterMap.put(dimension, new FixedByteSingleColumnMultiValueReaderWriter(capacity,
-            Integer.SIZE / 8, FixedByteSingleColumnMultiValueReaderWriter.DEFAULT_MAX_NUMBER_OF_MULTIVALUES));
+        columnIndexReaderWriterMap.put(dimension, new FixedByteSingleColumnMultiValueReaderWriter(numRowsPerChunk,
+            Integer.SIZE / 8, FixedByteSingleColumnMultiValueReaderWriter.DEFAULT_MAX_NUMBER_OF_MULTIVALUES,
+            memoryManager, dimension + ".forwardIndex"));
       }
     }
 
     for (String metric : schema.getMetricNames()) {
       if (invertedIndexColumns.contains(metric)) {
-        invertedIndexMap.put(metric, new MetricInvertedIndex(metric));
+        invertedIndexMap.put(metric, new RealtimeInvertedIndexImpl(metric));
       }
-      columnIndexReaderWriterMap.put(metric, new FixedByteSingleColumnSingleValueReaderWriter(capacity,
-          V1Constants.Dict.INT_DICTIONARY_COL_SIZE));
+      columnIndexReaderWriterMap.put(metric, new FixedByteSingleColumnSingleValueReaderWriter(numRowsPerChunk,
+          Integer.SIZE / 8, memoryManager, metric + ".forwardIndex"));
     }
 
     if (invertedIndexColumns.contains(outgoingTimeColumnName)) {
-      invertedIndexMap.put(outgoingTimeColumnName, new TimeInvertedIndex(outgoingTimeColumnName));
+      invertedIndexMap.put(outgoingTimeColumnName, new RealtimeInvertedIndexImpl(outgoingTimeColumnName));
     }
-    columnIndexReaderWriterMap.put(outgoingTimeColumnName, new FixedByteSingleColumnSingleValueReaderWriter(capacity,
-        V1Constants.Dict.INT_DICTIONARY_COL_SIZE));
+    columnIndexReaderWriterMap.put(outgoingTimeColumnName, new FixedByteSingleColumnSingleValueReaderWriter(
+        numRowsPerChunk, Integer.SIZE / 8, memoryManager, outgoingTimeColumnName + ".forwardIndex"));
 
     tableAndStreamName = tableName + "-" + streamName;
   }
@@ -258,17 +280,17 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
     minTimeVal = Math.min(minTimeVal, timeValue);
     maxTimeVal = Math.max(maxTimeVal, timeValue);
 
-    // also lets collect all dicIds to update inverted index later
-    Map<String, Object> rawRowToDicIdMap = new HashMap<String, Object>();
-
-    // lets update forward index now
+    // lets update forward index and inverted index now
     int docId = docIdGenerator.incrementAndGet();
 
     for (String dimension : dataSchema.getDimensionNames()) {
+      RealtimeInvertedIndex invertedIndex = invertedIndexMap.get(dimension);
       if (dataSchema.getFieldSpecFor(dimension).isSingleValueField()) {
         int dicId = dictionaryMap.get(dimension).indexOf(row.getValue(dimension));
         ((FixedByteSingleColumnSingleValueReaderWriter) columnIndexReaderWriterMap.get(dimension)).setInt(docId, dicId);
-        rawRowToDicIdMap.put(dimension, dicId);
+        if (invertedIndex != null) {
+          invertedIndex.add(dicId, docId);
+        }
       } else {
         Object[] mValues = (Object[]) row.getValue(dimension);
         int[] dicIds;
@@ -284,7 +306,11 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
 
         ((FixedByteSingleColumnMultiValueReaderWriter) columnIndexReaderWriterMap.get(dimension)).setIntArray(docId,
             dicIds);
-        rawRowToDicIdMap.put(dimension, dicIds);
+        if (invertedIndex != null) {
+          for (int dicId : dicIds) {
+            invertedIndex.add(dicId, docId);
+          }
+        }
       }
     }
 
@@ -293,47 +319,157 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
           (FixedByteSingleColumnSingleValueReaderWriter) columnIndexReaderWriterMap.get(metric);
       int dicId = dictionaryMap.get(metric).indexOf(row.getValue(metric));
       readerWriter.setInt(docId, dicId);
-      rawRowToDicIdMap.put(metric, dicId);
+      RealtimeInvertedIndex invertedIndex = invertedIndexMap.get(metric);
+      if (invertedIndex != null) {
+        invertedIndex.add(dicId, docId);
+      }
     }
 
     int timeDicId = dictionaryMap.get(outgoingTimeColumnName).indexOf(timeValueObj);
 
     ((FixedByteSingleColumnSingleValueReaderWriter) columnIndexReaderWriterMap.get(outgoingTimeColumnName)).setInt(
         docId, timeDicId);
-    rawRowToDicIdMap.put(outgoingTimeColumnName, timeDicId);
+    RealtimeInvertedIndex timeInvertedIndex = invertedIndexMap.get(outgoingTimeColumnName);
+    if (timeInvertedIndex != null) {
+      timeInvertedIndex.add(timeDicId, docId);
+    }
 
-    // lets update the inverted index now
-    // metrics
-    for (String metric : dataSchema.getMetricNames()) {
-      if (invertedIndexMap.containsKey(metric)) {
-        invertedIndexMap.get(metric).add(rawRowToDicIdMap.get(metric), docId);
+    // make the document searchable only after all the indexes are updated
+    docIdSearchableOffset = docId;
+    numDocsIndexed += 1;
+    numSuccessIndexed += 1;
+
+    return numDocsIndexed < capacity;
+  }
+
+  @Override
+  public boolean index(RowBatch rowBatch) {
+    int numRows = rowBatch.size();
+    Preconditions.checkState(numDocsIndexed + numRows <= capacity,
+        "Cannot index %s rows in segment %s with %s rows out of %s", numRows, segmentName, numDocsIndexed, capacity);
+    if (numRows == 0) {
+      return numDocsIndexed < capacity;
+    }
+
+    // Documents are only published once all the columns are indexed, so columns can be indexed one at a time
+    int startDocId = docIdGenerator.get() + 1;
+    int[] dictIds = new int[numRows];
+    int numColumns = rowBatch.getNumColumns();
+    for (int columnIndex = 0; columnIndex < numColumns; columnIndex++) {
+      FieldSpec fieldSpec = rowBatch.getFieldSpec(columnIndex);
+      String column = fieldSpec.getName();
+      MutableDictionaryReader dictionary = dictionaryMap.get(column);
+      DataFileReader forwardIndex = columnIndexReaderWriterMap.get(column);
+      Preconditions.checkState(dictionary != null && forwardIndex != null, "Column %s is not part of segment %s",
+          column, segmentName);
+      RealtimeInvertedIndex invertedIndex = invertedIndexMap.get(column);
+
+      if (!fieldSpec.isSingleValueField()) {
+        indexMultiValueColumn(column, rowBatch.getObjectValues(columnIndex), numRows, startDocId, dictionary,
+            (FixedByteSingleColumnMultiValueReaderWriter) forwardIndex, invertedIndex);
+        continue;
       }
-    }
 
-    // dimension
-    for (String dimension : dataSchema.getDimensionNames()) {
-      if (invertedIndexMap.containsKey(dimension)) {
-        if (dataSchema.getFieldSpecFor(dimension).isSingleValueField()) {
-          invertedIndexMap.get(dimension).add(rawRowToDicIdMap.get(dimension), docId);
-        } else {
-          int[] dicIds = (int[]) rawRowToDicIdMap.get(dimension);
-          for (int dicId : dicIds) {
-            invertedIndexMap.get(dimension).add(dicId, docId);
-          }
+      FieldSpec.DataType primitiveType = rowBatch.getPrimitiveType(columnIndex);
+      if (primitiveType == null) {
+        dictionary.indexObjectValues(rowBatch.getObjectValues(columnIndex), numRows, dictIds);
+      } else {
+        switch (primitiveType) {
+          case INT:
+            dictionary.indexIntValues(rowBatch.getIntValues(columnIndex), numRows, dictIds);
+            break;
+          case LONG:
+            dictionary.indexLongValues(rowBatch.getLongValues(columnIndex), numRows, dictIds);
+            break;
+          case FLOAT:
+            dictionary.indexFloatValues(rowBatch.getFloatValues(columnIndex), numRows, dictIds);
+            break;
+          case DOUBLE:
+            dictionary.indexDoubleValues(rowBatch.getDoubleValues(columnIndex), numRows, dictIds);
+            break;
+          default:
+            throw new IllegalStateException("Unsupported primitive type: " + primitiveType);
+        }
+      }
+      if (column.equals(outgoingTimeColumnName)) {
+        updateMinMaxTime(rowBatch, columnIndex, numRows);
+      }
+
+      ((FixedByteSingleColumnSingleValueReaderWriter) forwardIndex).setIntValues(startDocId, dictIds, numRows);
+      if (invertedIndex != null) {
+        for (int i = 0; i < numRows; i++) {
+          invertedIndex.add(dictIds[i], startDocId + i);
         }
       }
     }
-    // time
-    if (invertedIndexMap.containsKey(outgoingTimeColumnName)) {
-      invertedIndexMap.get(outgoingTimeColumnName).add(rawRowToDicIdMap.get(outgoingTimeColumnName), docId);
-    }
-    docIdSearchableOffset = docId;
-    numDocsIndexed += 1;
-    numSuccessIndexed += 1;
+
+    // make the documents searchable only after all the indexes are updated
+    int endDocId = docIdGenerator.addAndGet(numRows);
+    docIdSearchableOffset = endDocId;
+    numDocsIndexed += numRows;
+    numSuccessIndexed += numRows;
 
     return numDocsIndexed < capacity;
   }
 
+  private void indexMultiValueColumn(String column, Object[] values, int numRows, int startDocId,
+      MutableDictionaryReader dictionary, FixedByteSingleColumnMultiValueReaderWriter forwardIndex,
+      RealtimeInvertedIndex invertedIndex) {
+    int maxNumberOfMultiValues = maxNumberOfMultivaluesMap.get(column);
+    for (int i = 0; i < numRows; i++) {
+      Object[] mValues = (Object[]) values[i];
+      dictionary.index(mValues);
+      int[] dicIds = new int[mValues.length];
+      for (int j = 0; j < dicIds.length; j++) {
+        dicIds[j] = dictionary.indexOf(mValues[j]);
+      }
+      maxNumberOfMultiValues = Math.max(maxNumberOfMultiValues, mValues.length);
+
+      int docId = startDocId + i;
+      forwardIndex.setIntArray(docId, dicIds);
+      if (invertedIndex != null) {
+        for (int dicId : dicIds) {
+          invertedIndex.add(dicId, docId);
+        }
+      }
+    }
+    maxNumberOfMultivaluesMap.put(column, maxNumberOfMultiValues);
+  }
+
+  private void updateMinMaxTime(RowBatch rowBatch, int columnIndex, int numRows) {
+    FieldSpec.DataType primitiveType = rowBatch.getPrimitiveType(columnIndex);
+    if (primitiveType == FieldSpec.DataType.INT) {
+      int[] values = rowBatch.getIntValues(columnIndex);
+      for (int i = 0; i < numRows; i++) {
+        minTimeVal = Math.min(minTimeVal, values[i]);
+        maxTimeVal = Math.max(maxTimeVal, values[i]);
+      }
+    } else if (primitiveType == FieldSpec.DataType.LONG) {
+      long[] values = rowBatch.getLongValues(columnIndex);
+      for (int i = 0; i < numRows; i++) {
+        minTimeVal = Math.min(minTimeVal, values[i]);
+        maxTimeVal = Math.max(maxTimeVal, values[i]);
+      }
+    } else {
+      for (int i = 0; i < numRows; i++) {
+        long timeValue;
+        switch (primitiveType == null ? FieldSpec.DataType.STRING : primitiveType) {
+          case FLOAT:
+            timeValue = (long) rowBatch.getFloatValues(columnIndex)[i];
+            break;
+          case DOUBLE:
+            timeValue = (long) rowBatch.getDoubleValues(columnIndex)[i];
+            break;
+          default:
+            timeValue = Long.valueOf(rowBatch.getObjectValues(columnIndex)[i].toString());
+            break;
+        }
+        minTimeVal = Math.min(minTimeVal, timeValue);
+        maxTimeVal = Math.max(maxTimeVal, timeValue);
+      }
+    }
+  }
+
   @Override
   public IndexType getIndexType() {
     throw new UnsupportedOperationException("not implemented");
@@ -374,6 +510,26 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
     return ds;
   }
 
+  /**
+   * Returns the dictionary of the given column.
+   */
+  public MutableDictionaryReader getDictionary(String column) {
+    return dictionaryMap.get(column);
+  }
+
+  /**
+   * Returns the forward index of the given column, which stores dictionary ids in a
+   * {@link FixedByteSingleColumnSingleValueReaderWriter} for single-value columns and in a
+   * {@link FixedByteSingleColumnMultiValueReaderWriter} for multi-value columns.
+   */
+  public DataFileReader getForwardIndex(String column) {
+    return columnIndexReaderWriterMap.get(column);
+  }
+
+  public int getMaxNumberOfMultiValues(String column) {
+    return maxNumberOfMultivaluesMap.get(column);
+  }
+
   @Override
   public String[] getColumnNames() {
     return dataSchema.getColumnNames().toArray(new String[0]);
@@ -431,6 +587,13 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
       }
     }
     invertedIndexMap.clear();
+
+    for (MutableDictionaryReader dictionary : dictionaryMap.values()) {
+      dictionary.close();
+    }
+    dictionaryMap.clear();
+
+    memoryManager.close();
     _segmentMetadata.close();
   }
 
@@ -451,7 +614,7 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
         (System.currentTimeMillis() - start));
 
     for (int i = 0; i < rawValues.size(); i++) {
-      intIterators[i] = index.getDocIdSetFor(dictionary.indexOf(rawValues.get(i))).getIntIterator();
+      intIterators[i] = index.getDocIdIterator(dictionary.indexOf(rawValues.get(i)), docIdSearchableOffset);
     }
     return intIterators;
   }
@@ -475,7 +638,7 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
         (System.currentTimeMillis() - start));
 
     for (int i = 0; i < rawValuesArr.length; i++) {
-      intIterators[i] = index.getDocIdSetFor(dictionary.indexOf(rawValuesArr[i])).getIntIterator();
+      intIterators[i] = index.getDocIdIterator(dictionary.indexOf(rawValuesArr[i]), docIdSearchableOffset);
     }
     return intIterators;
   }
@@ -497,7 +660,7 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
         (System.currentTimeMillis() - start));
 
     for (int i = 0; i < rawValues.size(); i++) {
-      intIterators[i] = index.getDocIdSetFor(dictionary.indexOf(rawValues.get(i))).getIntIterator();
+      intIterators[i] = index.getDocIdIterator(dictionary.indexOf(rawValues.get(i)), docIdSearchableOffset);
     }
     return intIterators;
   }
@@ -519,7 +682,7 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
         (System.currentTimeMillis() - start));
 
     for (int i = 0; i < rawValues.size(); i++) {
-      intIterators[i] = index.getDocIdSetFor(dictionary.indexOf(rawValues.get(i))).getIntIterator();
+      intIterators[i] = index.getDocIdIterator(dictionary.indexOf(rawValues.get(i)), docIdSearchableOffset);
     }
     return intIterators;
   }
@@ -541,7 +704,7 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
         (System.currentTimeMillis() - start));
 
     for (int i = 0; i < rawValues.size(); i++) {
-      intIterators[i] = index.getDocIdSetFor(dictionary.indexOf(rawValues.get(i))).getIntIterator();
+      intIterators[i] = index.getDocIdIterator(dictionary.indexOf(rawValues.get(i)), docIdSearchableOffset);
     }
     return intIterators;
   }
@@ -34,7 +34,9 @@ import com.linkedin.pinot.core.operator.blocks.RealtimeMultiValueBlock;
 import com.linkedin.pinot.core.operator.blocks.RealtimeSingleValueBlock;
 import com.linkedin.pinot.core.realtime.impl.dictionary.MutableDictionaryReader;
 import com.linkedin.pinot.core.realtime.impl.invertedIndex.RealtimeInvertedIndex;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
+import com.linkedin.pinot.core.segment.index.readers.RangeIndexReader;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
 
 
@@ -180,8 +182,19 @@ public class RealtimeColumnDataSource extends DataSource {
     };
   }
 
+  /**
+   * Returns null, the inverted index of a consuming segment does not provide bitmaps, see
+   * {@link #getRealtimeInvertedIndex()}.
+   */
   @Override
   public InvertedIndexReader getInvertedIndex() {
+    return null;
+  }
+
+  /**
+   * Returns the inverted index of the column in the consuming segment, or null if the column has no inverted index.
+   */
+  public RealtimeInvertedIndex getRealtimeInvertedIndex() {
     return invertedIndex;
   }
 
@@ -189,4 +202,16 @@ public class RealtimeColumnDataSource extends DataSource {
   public Dictionary getDictionary() {
     return dictionary;
   }
+
+  @Override
+  public BloomFilterReader getBloomFilter() {
+    // Bloom filters are only built for offline segments
+    return null;
+  }
+
+  @Override
+  public RangeIndexReader getRangeIndex() {
+    // Range indexes are only built for offline segments
+    return null;
+  }
 }
@@ -19,9 +19,10 @@ import com.linkedin.pinot.common.data.FieldSpec;
 
 
 public class DoubleMutableDictionary extends MutableDictionaryReader {
+  private final LongDictionaryIdMap _idMap = new LongDictionaryIdMap();
 
-  private Double min = Double.MAX_VALUE;
-  private Double max = Double.MIN_VALUE;
+  private double min = Double.MAX_VALUE;
+  private double max = Double.MIN_VALUE;
 
   public DoubleMutableDictionary(FieldSpec spec) {
     super(spec);
@@ -34,37 +35,32 @@ public class DoubleMutableDictionary extends MutableDictionaryReader {
       return;
     }
 
-    if (rawValue instanceof String) {
-      Double entry = Double.parseDouble((String) rawValue);
-      addToDictionaryBiMap(entry);
-      updateMinMax(entry);
+    if (rawValue instanceof Object[]) {
+      for (Object o : (Object[]) rawValue) {
+        if (o != null) {
+          indexDouble(toDouble(o));
+        }
+      }
       return;
     }
 
-    if (rawValue instanceof Double) {
-      addToDictionaryBiMap(rawValue);
-      updateMinMax((Double) rawValue);
-      return;
-    }
+    indexDouble(toDouble(rawValue));
+  }
 
-    if (rawValue instanceof Object[]) {
-      for (Object o : (Object[]) rawValue) {
-        if (o instanceof String) {
-          final Double doubleValue = Double.parseDouble(o.toString());
-          addToDictionaryBiMap(doubleValue);
-          updateMinMax(doubleValue);
-          continue;
-        }
+  private int indexDouble(double value) {
+    int dictId = _idMap.put(Double.doubleToLongBits(value));
+    updateMinMax(value);
+    return dictId;
+  }
 
-        if (o instanceof Double) {
-          addToDictionaryBiMap(o);
-          updateMinMax((Double) o);
-        }
-      }
+  @Override
+  public void indexDoubleValues(double[] values, int numValues, int[] dictIds) {
+    for (int i = 0; i < numValues; i++) {
+      dictIds[i] = indexDouble(values[i]);
     }
   }
 
-  private void updateMinMax(Double entry) {
+  private void updateMinMax(double entry) {
     if (entry < min) {
       min = entry;
     }
@@ -73,38 +69,48 @@ public class DoubleMutableDictionary extends MutableDictionaryReader {
     }
   }
 
+  private static double toDouble(Object rawValue) {
+    if (rawValue instanceof Number) {
+      return ((Number) rawValue).doubleValue();
+    }
+    return Double.parseDouble(rawValue.toString());
+  }
+
   @Override
   public boolean contains(Object rawValue) {
     if (rawValue == null) {
       return hasNull;
     }
-    if (rawValue instanceof String) {
-      return dictionaryIdBiMap.inverse().containsKey(Double.parseDouble(rawValue.toString()));
-    }
-    return dictionaryIdBiMap.inverse().containsKey(rawValue);
+    return indexOf(rawValue) != NULL_VALUE_INDEX;
   }
 
   @Override
   public int indexOf(Object rawValue) {
-    if (rawValue instanceof String) {
-      return getIndexOfFromBiMap(Double.parseDouble(rawValue.toString()));
+    if (rawValue == null) {
+      return NULL_VALUE_INDEX;
     }
-    return getIndexOfFromBiMap(rawValue);
+    double value = toDouble(rawValue);
+    return _idMap.getId(Double.doubleToLongBits(value));
+  }
+
+  @Override
+  public int length() {
+    return _idMap.size();
   }
 
   @Override
   public Object get(int dictionaryId) {
-    return getRawValueFromBiMap(dictionaryId);
+    return getDouble(dictionaryId);
   }
 
   @Override
   public long getLongValue(int dictionaryId) {
-    return ((Double) getRawValueFromBiMap(dictionaryId)).longValue();
+    return (long) getDouble(dictionaryId);
   }
 
   @Override
   public double getDoubleValue(int dictionaryId) {
-    return (Double) getRawValueFromBiMap(dictionaryId);
+    return getDouble(dictionaryId);
   }
 
   @Override
@@ -119,7 +125,20 @@ public class DoubleMutableDictionary extends MutableDictionaryReader {
 
   @Override
   public String toString(int dictionaryId) {
-    return (getRawValueFromBiMap(dictionaryId)).toString();
+    return Double.toString(getDouble(dictionaryId));
+  }
+
+  @Override
+  public void readDoubleValues(int[] dictionaryIds, int startPos, int limit, double[] outValues, int outStartPos) {
+    int endPos = startPos + limit;
+    for (int iter = startPos; iter < endPos; ++iter) {
+      outValues[outStartPos++] = getDouble(dictionaryIds[iter]);
+    }
+  }
+
+  @Override
+  public String getStringValue(int dictionaryId) {
+    return Double.toString(getDouble(dictionaryId));
   }
 
   @Override
@@ -156,13 +175,8 @@ public class DoubleMutableDictionary extends MutableDictionaryReader {
     return ret;
   }
 
-  @Override
-  public String getStringValue(int dictionaryId) {
-    return ((Double) getRawValueFromBiMap(dictionaryId)).toString();
-  }
-
-  private double getDouble(int dictionaryId) {
-    return (Double) dictionaryIdBiMap.get(dictionaryId);
+  public double getDouble(int dictionaryId) {
+    return Double.longBitsToDouble(_idMap.getValue(dictionaryId));
   }
 
   @Override
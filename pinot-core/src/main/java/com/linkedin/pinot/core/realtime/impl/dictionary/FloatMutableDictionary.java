@@ -19,9 +19,10 @@ import com.linkedin.pinot.common.data.FieldSpec;
 
 
 public class FloatMutableDictionary extends MutableDictionaryReader {
+  private final IntDictionaryIdMap _idMap = new IntDictionaryIdMap();
 
-  private Float min = Float.MAX_VALUE;
-  private Float max = Float.MIN_VALUE;
+  private float min = Float.MAX_VALUE;
+  private float max = Float.MIN_VALUE;
 
   public FloatMutableDictionary(FieldSpec spec) {
     super(spec);
@@ -33,38 +34,33 @@ public class FloatMutableDictionary extends MutableDictionaryReader {
       hasNull = true;
       return;
     }
-    if (rawValue instanceof String) {
-      Float e = Float.parseFloat(rawValue.toString());
-      addToDictionaryBiMap(e);
-      updateMinMax(e);
-      return;
-    }
 
-    if (rawValue instanceof Float) {
-      addToDictionaryBiMap(rawValue);
-      updateMinMax((Float) rawValue);
+    if (rawValue instanceof Object[]) {
+      for (Object o : (Object[]) rawValue) {
+        if (o != null) {
+          indexFloat(toFloat(o));
+        }
+      }
       return;
     }
 
-    if (rawValue instanceof Object[]) {
+    indexFloat(toFloat(rawValue));
+  }
 
-      for (Object o : (Object[]) rawValue) {
-        if (o instanceof String) {
-          final Float floatValue = Float.parseFloat(o.toString());
-          addToDictionaryBiMap(floatValue);
-          updateMinMax(floatValue);
-          continue;
-        }
+  private int indexFloat(float value) {
+    int dictId = _idMap.put(Float.floatToIntBits(value));
+    updateMinMax(value);
+    return dictId;
+  }
 
-        if (o instanceof Float) {
-          addToDictionaryBiMap(o);
-          updateMinMax((Float) o);
-        }
-      }
+  @Override
+  public void indexFloatValues(float[] values, int numValues, int[] dictIds) {
+    for (int i = 0; i < numValues; i++) {
+      dictIds[i] = indexFloat(values[i]);
     }
   }
 
-  private void updateMinMax(Float entry) {
+  private void updateMinMax(float entry) {
     if (entry < min) {
       min = entry;
     }
@@ -73,53 +69,76 @@ public class FloatMutableDictionary extends MutableDictionaryReader {
     }
   }
 
+  private static float toFloat(Object rawValue) {
+    if (rawValue instanceof Number) {
+      return ((Number) rawValue).floatValue();
+    }
+    return Float.parseFloat(rawValue.toString());
+  }
+
   @Override
   public boolean contains(Object rawValue) {
     if (rawValue == null) {
       return hasNull;
     }
-    if (rawValue instanceof String) {
-      return dictionaryIdBiMap.inverse().containsKey(Float.parseFloat(rawValue.toString()));
-    }
-    return dictionaryIdBiMap.inverse().containsKey(rawValue);
+    return indexOf(rawValue) != NULL_VALUE_INDEX;
   }
 
   @Override
   public int indexOf(Object rawValue) {
-    if (rawValue instanceof String) {
-      return getIndexOfFromBiMap(Float.parseFloat(rawValue.toString()));
+    if (rawValue == null) {
+      return NULL_VALUE_INDEX;
     }
-    return getIndexOfFromBiMap(rawValue);
+    float value = toFloat(rawValue);
+    return _idMap.getId(Float.floatToIntBits(value));
+  }
+
+  @Override
+  public int length() {
+    return _idMap.size();
   }
 
   @Override
   public Object get(int dictionaryId) {
-    return getRawValueFromBiMap(dictionaryId);
+    return getFloat(dictionaryId);
   }
 
   @Override
   public long getLongValue(int dictionaryId) {
-    return ((Float) getRawValueFromBiMap(dictionaryId)).longValue();
+    return (long) getFloat(dictionaryId);
   }
 
   @Override
   public double getDoubleValue(int dictionaryId) {
-    return ((Float) getRawValueFromBiMap(dictionaryId)).doubleValue();
+    return (double) getFloat(dictionaryId);
   }
 
   @Override
   public int getIntValue(int dictionaryId) {
-    return ((Float) getRawValueFromBiMap(dictionaryId)).intValue();
+    return (int) getFloat(dictionaryId);
   }
 
   @Override
   public float getFloatValue(int dictionaryId) {
-    return ((Float) getRawValueFromBiMap(dictionaryId));
+    return getFloat(dictionaryId);
   }
 
   @Override
   public String toString(int dictionaryId) {
-    return (getRawValueFromBiMap(dictionaryId)).toString();
+    return Float.toString(getFloat(dictionaryId));
+  }
+
+  @Override
+  public void readFloatValues(int[] dictionaryIds, int startPos, int limit, float[] outValues, int outStartPos) {
+    int endPos = startPos + limit;
+    for (int iter = startPos; iter < endPos; ++iter) {
+      outValues[outStartPos++] = getFloat(dictionaryIds[iter]);
+    }
+  }
+
+  @Override
+  public String getStringValue(int dictionaryId) {
+    return Float.toString(getFloat(dictionaryId));
   }
 
   @Override
@@ -156,13 +175,8 @@ public class FloatMutableDictionary extends MutableDictionaryReader {
     return ret;
   }
 
-  @Override
-  public String getStringValue(int dictionaryId) {
-    return (getRawValueFromBiMap(dictionaryId)).toString();
-  }
-
-  private float getFloat(int dictionaryId) {
-    return (Float) dictionaryIdBiMap.get(dictionaryId);
+  public float getFloat(int dictionaryId) {
+    return Float.intBitsToFloat(_idMap.getValue(dictionaryId));
   }
 
   @Override
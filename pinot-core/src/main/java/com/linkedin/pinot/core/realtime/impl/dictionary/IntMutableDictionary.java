@@ -19,9 +19,10 @@ import com.linkedin.pinot.common.data.FieldSpec;
 
 
 public class IntMutableDictionary extends MutableDictionaryReader {
+  private final IntDictionaryIdMap _idMap = new IntDictionaryIdMap();
 
-  private Integer min = Integer.MAX_VALUE;
-  private Integer max = Integer.MIN_VALUE;
+  private int min = Integer.MAX_VALUE;
+  private int max = Integer.MIN_VALUE;
 
   public IntMutableDictionary(FieldSpec spec) {
     super(spec);
@@ -34,40 +35,32 @@ public class IntMutableDictionary extends MutableDictionaryReader {
       return;
     }
 
-    if (rawValue instanceof String) {
-      Integer entry = Integer.parseInt(rawValue.toString());
-      addToDictionaryBiMap(entry);
-      updateMinMax(entry);
-      return;
-    }
-
-    if (rawValue instanceof Integer) {
-      addToDictionaryBiMap(rawValue);
-      updateMinMax((Integer) rawValue);
+    if (rawValue instanceof Object[]) {
+      for (Object o : (Object[]) rawValue) {
+        if (o != null) {
+          indexInt(toInt(o));
+        }
+      }
       return;
     }
 
-    if (rawValue instanceof Object[]) {
-      Object[] multivalues = (Object[]) rawValue;
-
-      for (int i = 0; i < multivalues.length; i++) {
+    indexInt(toInt(rawValue));
+  }
 
-        if (multivalues[i] instanceof String) {
-          addToDictionaryBiMap(Integer.parseInt(multivalues[i].toString()));
-          updateMinMax(Integer.parseInt(multivalues[i].toString()));
-          continue;
-        }
+  private int indexInt(int value) {
+    int dictId = _idMap.put(value);
+    updateMinMax(value);
+    return dictId;
+  }
 
-        if (multivalues[i] instanceof Integer) {
-          addToDictionaryBiMap(multivalues[i]);
-          updateMinMax((Integer) multivalues[i]);
-          continue;
-        }
-      }
+  @Override
+  public void indexIntValues(int[] values, int numValues, int[] dictIds) {
+    for (int i = 0; i < numValues; i++) {
+      dictIds[i] = indexInt(values[i]);
     }
   }
 
-  private void updateMinMax(Integer entry) {
+  private void updateMinMax(int entry) {
     if (entry < min) {
       min = entry;
     }
@@ -76,38 +69,48 @@ public class IntMutableDictionary extends MutableDictionaryReader {
     }
   }
 
+  private static int toInt(Object rawValue) {
+    if (rawValue instanceof Number) {
+      return ((Number) rawValue).intValue();
+    }
+    return Integer.parseInt(rawValue.toString());
+  }
+
   @Override
   public boolean contains(Object rawValue) {
     if (rawValue == null) {
       return hasNull;
     }
-    if (rawValue instanceof String) {
-      return dictionaryIdBiMap.inverse().containsKey(Integer.parseInt(rawValue.toString()));
-    }
-    return dictionaryIdBiMap.inverse().containsKey(rawValue);
+    return indexOf(rawValue) != NULL_VALUE_INDEX;
   }
 
   @Override
   public int indexOf(Object rawValue) {
-    if (rawValue instanceof String) {
-      return getIndexOfFromBiMap(Integer.parseInt(rawValue.toString()));
+    if (rawValue == null) {
+      return NULL_VALUE_INDEX;
     }
-    return getIndexOfFromBiMap(rawValue);
+    int value = toInt(rawValue);
+    return _idMap.getId(value);
+  }
+
+  @Override
+  public int length() {
+    return _idMap.size();
   }
 
   @Override
   public Object get(int dictionaryId) {
-    return getRawValueFromBiMap(dictionaryId);
+    return getInt(dictionaryId);
   }
 
   @Override
   public long getLongValue(int dictionaryId) {
-    return ((Integer) getRawValueFromBiMap(dictionaryId)).longValue();
+    return (long) getInt(dictionaryId);
   }
 
   @Override
   public double getDoubleValue(int dictionaryId) {
-    return ((Integer) getRawValueFromBiMap(dictionaryId)).doubleValue();
+    return (double) getInt(dictionaryId);
   }
 
   @Override
@@ -122,21 +125,20 @@ public class IntMutableDictionary extends MutableDictionaryReader {
 
   @Override
   public String toString(int dictionaryId) {
-    return ((Integer) getRawValueFromBiMap(dictionaryId)).toString();
+    return Integer.toString(getInt(dictionaryId));
   }
 
   @Override
   public void readIntValues(int[] dictionaryIds, int startPos, int limit, int[] outValues, int outStartPos) {
     int endPos = startPos + limit;
     for (int iter = startPos; iter < endPos; ++iter) {
-      int dictId = dictionaryIds[iter];
-      outValues[outStartPos++] = getInt(dictId);
+      outValues[outStartPos++] = getInt(dictionaryIds[iter]);
     }
   }
 
   @Override
   public String getStringValue(int dictionaryId) {
-    return ((Integer) getRawValueFromBiMap(dictionaryId)).toString();
+    return Integer.toString(getInt(dictionaryId));
   }
 
   @Override
@@ -174,7 +176,7 @@ public class IntMutableDictionary extends MutableDictionaryReader {
   }
 
   public int getInt(int dictionaryId) {
-    return (Integer) dictionaryIdBiMap.get(dictionaryId);
+    return _idMap.getValue(dictionaryId);
   }
 
   @Override
@@ -186,5 +188,4 @@ public class IntMutableDictionary extends MutableDictionaryReader {
   public Object getMaxVal() {
     return max;
   }
-
 }
@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.realtime.impl.dictionary;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import java.util.Arrays;
+
+
+/**
+ * The <code>LongDictionaryIdMap</code> class is an append-only two-way map between primitive long values and dictionary
+ * ids, without any boxing.
+ * <ul>
+ *   <li>Dictionary id to value is stored in an array indexed by dictionary id.</li>
+ *   <li>Value to dictionary id is stored in an open addressing (linear probing) hash table of dictionary ids.</li>
+ * </ul>
+ * <p>Supports one writer thread and multiple reader threads without locking. The writer stores the value before its
+ * entry in the id table, and publishes both by writing the volatile size last. Readers read the size first and ignore
+ * any dictionary id not below it, so they never compare against a value that is not fully inserted.
+ */
+class LongDictionaryIdMap {
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final float LOAD_FACTOR = 0.5f;
+
+  private volatile long[] _values = new long[INITIAL_CAPACITY];
+  private volatile int[] _idTable = newIdTable(HashCommon.arraySize(INITIAL_CAPACITY, LOAD_FACTOR));
+  private volatile int _size = 0;
+  private int _maxFill = HashCommon.maxFill(_idTable.length, LOAD_FACTOR);
+
+  /**
+   * Returns the dictionary id for the given value, or {@link MutableDictionaryReader#NULL_VALUE_INDEX} if the value
+   * does not exist.
+   */
+  int getId(long value) {
+    // Read the size first, the id table and values arrays are then at least as new as the size.
+    int size = _size;
+    int[] idTable = _idTable;
+    long[] values = _values;
+    int mask = idTable.length - 1;
+    int slot = (int) HashCommon.murmurHash3(value) & mask;
+    while (true) {
+      int dictId = idTable[slot];
+      if (dictId == MutableDictionaryReader.NULL_VALUE_INDEX) {
+        return MutableDictionaryReader.NULL_VALUE_INDEX;
+      }
+      if (dictId < size && values[dictId] == value) {
+        return dictId;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * Returns the dictionary id for the given value, adds the value to the map if it does not exist.
+   * <p>Should only be called by the writer thread.
+   */
+  int put(long value) {
+    int[] idTable = _idTable;
+    long[] values = _values;
+    int mask = idTable.length - 1;
+    int slot = (int) HashCommon.murmurHash3(value) & mask;
+    while (true) {
+      int dictId = idTable[slot];
+      if (dictId == MutableDictionaryReader.NULL_VALUE_INDEX) {
+        break;
+      }
+      if (values[dictId] == value) {
+        return dictId;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    // Value does not exist, append it.
+    int dictId = _size;
+    if (dictId == values.length) {
+      values = Arrays.copyOf(values, values.length * 2);
+      _values = values;
+    }
+    // Store the value before the id table entry, and publish both with the volatile size.
+    values[dictId] = value;
+    idTable[slot] = dictId;
+    _size = dictId + 1;
+
+    if (dictId + 1 > _maxFill) {
+      rehash(values, dictId + 1);
+    }
+    return dictId;
+  }
+
+  /**
+   * Returns the value for the given dictionary id.
+   */
+  long getValue(int dictId) {
+    return _values[dictId];
+  }
+
+  /**
+   * Returns the number of values in the map.
+   */
+  int size() {
+    return _size;
+  }
+
+  private void rehash(long[] values, int size) {
+    int[] idTable = newIdTable(_idTable.length * 2);
+    int mask = idTable.length - 1;
+    for (int dictId = 0; dictId < size; dictId++) {
+      int slot = (int) HashCommon.murmurHash3(values[dictId]) & mask;
+      while (idTable[slot] != MutableDictionaryReader.NULL_VALUE_INDEX) {
+        slot = (slot + 1) & mask;
+      }
+      idTable[slot] = dictId;
+    }
+    _maxFill = HashCommon.maxFill(idTable.length, LOAD_FACTOR);
+    _idTable = idTable;
+  }
+
+  private static int[] newIdTable(int capacity) {
+    int[] idTable = new int[capacity];
+    Arrays.fill(idTable, MutableDictionaryReader.NULL_VALUE_INDEX);
+    return idTable;
+  }
+}
@@ -19,9 +19,10 @@ import com.linkedin.pinot.common.data.FieldSpec;
 
 
 public class LongMutableDictionary extends MutableDictionaryReader {
+  private final LongDictionaryIdMap _idMap = new LongDictionaryIdMap();
 
-  private Long min = Long.MAX_VALUE;
-  private Long max = Long.MIN_VALUE;
+  private long min = Long.MAX_VALUE;
+  private long max = Long.MIN_VALUE;
 
   public LongMutableDictionary(FieldSpec spec) {
     super(spec);
@@ -34,37 +35,32 @@ public class LongMutableDictionary extends MutableDictionaryReader {
       return;
     }
 
-    if (rawValue instanceof String) {
-      Long e = Long.parseLong(rawValue.toString());
-      addToDictionaryBiMap(e);
-      updateMinMax(e);
+    if (rawValue instanceof Object[]) {
+      for (Object o : (Object[]) rawValue) {
+        if (o != null) {
+          indexLong(toLong(o));
+        }
+      }
       return;
     }
 
-    if (rawValue instanceof Long) {
-      addToDictionaryBiMap(rawValue);
-      updateMinMax((Long) rawValue);
-      return;
-    }
+    indexLong(toLong(rawValue));
+  }
 
-    if (rawValue instanceof Object[]) {
-      for (Object o : (Object[]) rawValue) {
-        if (o instanceof String) {
-          final Long longValue = Long.parseLong(o.toString());
-          addToDictionaryBiMap(longValue);
-          updateMinMax(longValue);
-          continue;
-        }
+  private int indexLong(long value) {
+    int dictId = _idMap.put(value);
+    updateMinMax(value);
+    return dictId;
+  }
 
-        if (o instanceof Long) {
-          addToDictionaryBiMap(o);
-          updateMinMax((Long) o);
-        }
-      }
+  @Override
+  public void indexLongValues(long[] values, int numValues, int[] dictIds) {
+    for (int i = 0; i < numValues; i++) {
+      dictIds[i] = indexLong(values[i]);
     }
   }
 
-  private void updateMinMax(Long entry) {
+  private void updateMinMax(long entry) {
     if (entry < min) {
       min = entry;
     }
@@ -73,55 +69,77 @@ public class LongMutableDictionary extends MutableDictionaryReader {
     }
   }
 
+  private static long toLong(Object rawValue) {
+    if (rawValue instanceof Number) {
+      return ((Number) rawValue).longValue();
+    }
+    return Long.parseLong(rawValue.toString());
+  }
+
   @Override
   public boolean contains(Object rawValue) {
     if (rawValue == null) {
       return hasNull;
     }
-    if (rawValue instanceof String) {
-      return dictionaryIdBiMap.inverse().containsKey(Long.parseLong((String) rawValue));
-    }
-    return dictionaryIdBiMap.inverse().containsKey(rawValue);
+    return indexOf(rawValue) != NULL_VALUE_INDEX;
   }
 
   @Override
   public int indexOf(Object rawValue) {
-    if (rawValue instanceof String) {
-      return getIndexOfFromBiMap(Long.parseLong(rawValue.toString()));
+    if (rawValue == null) {
+      return NULL_VALUE_INDEX;
     }
-    return getIndexOfFromBiMap(rawValue);
+    long value = toLong(rawValue);
+    return _idMap.getId(value);
+  }
+
+  @Override
+  public int length() {
+    return _idMap.size();
   }
 
   @Override
   public Object get(int dictionaryId) {
-    return getRawValueFromBiMap(dictionaryId);
+    return getLong(dictionaryId);
   }
 
   @Override
   public long getLongValue(int dictionaryId) {
-    return (Long) getRawValueFromBiMap(dictionaryId);
+    return getLong(dictionaryId);
   }
 
   @Override
   public double getDoubleValue(int dictionaryId) {
-    return ((Long) getRawValueFromBiMap(dictionaryId)).doubleValue();
+    return (double) getLong(dictionaryId);
   }
 
   @Override
   public int getIntValue(int dictionaryId) {
-    return ((Long) getRawValueFromBiMap(dictionaryId)).intValue();
+    return (int) getLong(dictionaryId);
   }
 
   @Override
   public float getFloatValue(int dictionaryId) {
-    return ((Long) getRawValueFromBiMap(dictionaryId)).floatValue();
+    return (float) getLong(dictionaryId);
   }
 
   @Override
   public String toString(int dictionaryId) {
-    return ((Long) getRawValueFromBiMap(dictionaryId)).toString();
+    return Long.toString(getLong(dictionaryId));
+  }
+
+  @Override
+  public void readLongValues(int[] dictionaryIds, int startPos, int limit, long[] outValues, int outStartPos) {
+    int endPos = startPos + limit;
+    for (int iter = startPos; iter < endPos; ++iter) {
+      outValues[outStartPos++] = getLong(dictionaryIds[iter]);
+    }
   }
 
+  @Override
+  public String getStringValue(int dictionaryId) {
+    return Long.toString(getLong(dictionaryId));
+  }
 
   @Override
   public boolean inRange(String lower, String upper, int indexOfValueToCompare, boolean includeLower,
@@ -157,13 +175,8 @@ public class LongMutableDictionary extends MutableDictionaryReader {
     return ret;
   }
 
-  @Override
-  public String getStringValue(int dictionaryId) {
-    return getRawValueFromBiMap(dictionaryId).toString();
-  }
-
-  private long getLong(int dictionaryId) {
-    return (Long) dictionaryIdBiMap.get(dictionaryId);
+  public long getLong(int dictionaryId) {
+    return _idMap.getValue(dictionaryId);
   }
 
   @Override
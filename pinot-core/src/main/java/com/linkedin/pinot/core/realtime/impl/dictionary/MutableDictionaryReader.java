@@ -15,34 +15,23 @@
  */
 package com.linkedin.pinot.core.realtime.impl.dictionary;
 
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
 import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.io.Closeable;
 
 
-public abstract class MutableDictionaryReader implements Dictionary {
-  protected BiMap<Integer, Object> dictionaryIdBiMap;
+/**
+ * Base class for the mutable dictionaries of realtime segments.
+ * <p>Dictionary ids are assigned in the order values are indexed. Values are indexed by a single writer thread, while
+ * lookups can happen concurrently from query threads. Implementations store values in primitive arrays and open
+ * addressing hash tables, so that lookups do not box or allocate.
+ */
+public abstract class MutableDictionaryReader implements Dictionary, Closeable {
   protected FieldSpec spec;
   protected boolean hasNull = false;
-  private final AtomicInteger dictionaryIdGenerator;
 
   public MutableDictionaryReader(FieldSpec spec) {
     this.spec = spec;
-    this.dictionaryIdBiMap = HashBiMap.<Integer, Object> create();
-    dictionaryIdGenerator = new AtomicInteger(-1);
-  }
-
-  protected void addToDictionaryBiMap(Object val) {
-    if (!dictionaryIdBiMap.inverse().containsKey(val)) {
-      dictionaryIdBiMap.put(dictionaryIdGenerator.incrementAndGet(), val);
-    }
-  }
-
-  @Override
-  public int length() {
-    return dictionaryIdGenerator.get() + 1;
   }
 
   @Override
@@ -121,18 +110,6 @@ public abstract class MutableDictionaryReader implements Dictionary {
 
   }
 
-  protected Integer getIndexOfFromBiMap(Object val) {
-    Integer ret = dictionaryIdBiMap.inverse().get(val);
-    if (ret == null) {
-      ret = -1;
-    }
-    return ret;
-  }
-
-  protected Object getRawValueFromBiMap(int dictionaryId) {
-    return dictionaryIdBiMap.get(new Integer(dictionaryId));
-  }
-
   public boolean hasNull() {
     return hasNull;
   }
@@ -143,6 +120,51 @@ public abstract class MutableDictionaryReader implements Dictionary {
 
   public abstract void index(Object rawValue);
 
+  /**
+   * Indexes the first <code>numValues</code> values, and writes their dictionary ids into <code>dictIds</code>.
+   * <p>Should only be called by the writer thread. Dictionaries of the same type override these bulk methods to index
+   * the values without boxing them.
+   */
+  public void indexIntValues(int[] values, int numValues, int[] dictIds) {
+    for (int i = 0; i < numValues; i++) {
+      Integer value = values[i];
+      index(value);
+      dictIds[i] = indexOf(value);
+    }
+  }
+
+  public void indexLongValues(long[] values, int numValues, int[] dictIds) {
+    for (int i = 0; i < numValues; i++) {
+      Long value = values[i];
+      index(value);
+      dictIds[i] = indexOf(value);
+    }
+  }
+
+  public void indexFloatValues(float[] values, int numValues, int[] dictIds) {
+    for (int i = 0; i < numValues; i++) {
+      Float value = values[i];
+      index(value);
+      dictIds[i] = indexOf(value);
+    }
+  }
+
+  public void indexDoubleValues(double[] values, int numValues, int[] dictIds) {
+    for (int i = 0; i < numValues; i++) {
+      Double value = values[i];
+      index(value);
+      dictIds[i] = indexOf(value);
+    }
+  }
+
+  public void indexObjectValues(Object[] values, int numValues, int[] dictIds) {
+    for (int i = 0; i < numValues; i++) {
+      Object value = values[i];
+      index(value);
+      dictIds[i] = indexOf(value);
+    }
+  }
+
   @Override
   public abstract int indexOf(Object rawValue);
 
@@ -173,15 +195,26 @@ public abstract class MutableDictionaryReader implements Dictionary {
   @Override
   public abstract String toString(int dictionaryId);
 
+  @Override
+  public abstract int length();
+
+  /**
+   * Releases the resources (e.g. off-heap memory) held by the dictionary.
+   */
+  @Override
+  public void close() {
+  }
+
   public void print() {
     System.out.println("************* printing dictionary for column : " + spec.getName() + " ***************");
-    for (Integer key : dictionaryIdBiMap.keySet()) {
-      System.out.println(key + "," + dictionaryIdBiMap.get(key));
+    int length = length();
+    for (int dictId = 0; dictId < length; dictId++) {
+      System.out.println(dictId + "," + get(dictId));
     }
     System.out.println("************************************");
   }
 
   public boolean isEmpty() {
-    return dictionaryIdBiMap.isEmpty();
+    return length() == 0;
   }
 }
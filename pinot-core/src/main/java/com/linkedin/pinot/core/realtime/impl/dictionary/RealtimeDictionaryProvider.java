@@ -16,6 +16,7 @@
 package com.linkedin.pinot.core.realtime.impl.dictionary;
 
 import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.core.io.readerwriter.RealtimeIndexOffHeapMemoryManager;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
 
 public class RealtimeDictionaryProvider {
@@ -36,4 +37,18 @@ public class RealtimeDictionaryProvider {
     }
     throw new UnsupportedOperationException();
   }
+
+  /**
+   * Returns a dictionary allocating its off-heap memory from the given memory manager.
+   */
+  public static MutableDictionaryReader getDictionaryFor(FieldSpec spec,
+      RealtimeIndexOffHeapMemoryManager memoryManager) {
+    switch (spec.getDataType()) {
+      case BOOLEAN:
+      case STRING:
+        return new StringMutableDictionary(spec, memoryManager);
+      default:
+        return getDictionaryFor(spec);
+    }
+  }
 }
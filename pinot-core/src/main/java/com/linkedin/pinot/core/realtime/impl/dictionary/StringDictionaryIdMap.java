@@ -0,0 +1,354 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.realtime.impl.dictionary;
+
+import com.linkedin.pinot.core.io.readerwriter.RealtimeIndexOffHeapMemoryManager;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import it.unimi.dsi.fastutil.HashCommon;
+import java.io.Closeable;
+import java.util.Arrays;
+
+
+/**
+ * The <code>StringDictionaryIdMap</code> class is an append-only two-way map between string values and dictionary ids,
+ * with the string bytes stored off-heap.
+ * <ul>
+ *   <li>
+ *     String values are UTF-8 encoded (lone surrogates are encoded as 3-byte sequences so that every string round
+ *     trips) and appended into fixed size off-heap chunks. Values larger than the chunk size get their own chunk.
+ *   </li>
+ *   <li>
+ *     Dictionary id to value is stored as an array of (chunk, offset) addresses and lengths indexed by dictionary id.
+ *   </li>
+ *   <li>Value to dictionary id is stored in an open addressing (linear probing) hash table of dictionary ids.</li>
+ * </ul>
+ * <p>Lookups compare the encoded bytes with the string in place, and do not allocate.
+ * <p>Supports one writer thread and multiple reader threads, see {@link IntDictionaryIdMap}. Chunks are never moved or
+ * released until the map is closed. When constructed with a memory manager, chunks are allocated from (and released
+ * by) it.
+ */
+class StringDictionaryIdMap implements Closeable {
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final float LOAD_FACTOR = 0.5f;
+  private static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+  private static final int CHUNK_SHIFT = 32;
+  private static final long OFFSET_MASK = 0xFFFFFFFFL;
+
+  private final int _chunkSize;
+  private final RealtimeIndexOffHeapMemoryManager _memoryManager;
+  private final String _context;
+
+  private volatile PinotDataBuffer[] _chunks = new PinotDataBuffer[16];
+  private int _numChunks = 0;
+  private int _currentChunkOffset = 0;
+
+  // Per dictionary id: address (chunk id in high 32 bits, offset in low 32 bits), number of bytes and hash code.
+  private volatile long[] _addresses = new long[INITIAL_CAPACITY];
+  private volatile int[] _lengths = new int[INITIAL_CAPACITY];
+  private volatile int[] _hashCodes = new int[INITIAL_CAPACITY];
+
+  private volatile int[] _idTable = newIdTable(HashCommon.arraySize(INITIAL_CAPACITY, LOAD_FACTOR));
+  private volatile int _size = 0;
+  private int _maxFill = HashCommon.maxFill(_idTable.length, LOAD_FACTOR);
+
+  StringDictionaryIdMap() {
+    this(DEFAULT_CHUNK_SIZE);
+  }
+
+  StringDictionaryIdMap(int chunkSize) {
+    this(chunkSize, null, null);
+  }
+
+  StringDictionaryIdMap(RealtimeIndexOffHeapMemoryManager memoryManager, String context) {
+    this(DEFAULT_CHUNK_SIZE, memoryManager, context);
+  }
+
+  StringDictionaryIdMap(int chunkSize, RealtimeIndexOffHeapMemoryManager memoryManager, String context) {
+    _chunkSize = chunkSize;
+    _memoryManager = memoryManager;
+    _context = context;
+  }
+
+  /**
+   * Returns the dictionary id for the given value, or {@link MutableDictionaryReader#NULL_VALUE_INDEX} if the value
+   * does not exist.
+   */
+  int getId(String value) {
+    // Read the size first, the id table and per dictionary id arrays are then at least as new as the size.
+    int size = _size;
+    int[] idTable = _idTable;
+    int[] hashCodes = _hashCodes;
+    int hashCode = value.hashCode();
+    int mask = idTable.length - 1;
+    int slot = HashCommon.murmurHash3(hashCode) & mask;
+    while (true) {
+      int dictId = idTable[slot];
+      if (dictId == MutableDictionaryReader.NULL_VALUE_INDEX) {
+        return MutableDictionaryReader.NULL_VALUE_INDEX;
+      }
+      if (dictId < size && hashCodes[dictId] == hashCode && valueEquals(dictId, value)) {
+        return dictId;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * Returns the dictionary id for the given value, adds the value to the map if it does not exist.
+   * <p>Should only be called by the writer thread.
+   */
+  int put(String value) {
+    int[] idTable = _idTable;
+    int hashCode = value.hashCode();
+    int mask = idTable.length - 1;
+    int slot = HashCommon.murmurHash3(hashCode) & mask;
+    while (true) {
+      int dictId = idTable[slot];
+      if (dictId == MutableDictionaryReader.NULL_VALUE_INDEX) {
+        break;
+      }
+      if (_hashCodes[dictId] == hashCode && valueEquals(dictId, value)) {
+        return dictId;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    // Value does not exist, append it.
+    int dictId = _size;
+    if (dictId == _hashCodes.length) {
+      int newCapacity = dictId * 2;
+      _addresses = Arrays.copyOf(_addresses, newCapacity);
+      _lengths = Arrays.copyOf(_lengths, newCapacity);
+      _hashCodes = Arrays.copyOf(_hashCodes, newCapacity);
+    }
+    int numBytes = getEncodedLength(value);
+    _addresses[dictId] = appendValue(value, numBytes);
+    _lengths[dictId] = numBytes;
+    _hashCodes[dictId] = hashCode;
+    // Publish the value and its id table entry with the volatile size.
+    idTable[slot] = dictId;
+    _size = dictId + 1;
+
+    if (dictId + 1 > _maxFill) {
+      rehash(dictId + 1);
+    }
+    return dictId;
+  }
+
+  /**
+   * Returns the value for the given dictionary id.
+   */
+  String getValue(int dictId) {
+    long address = _addresses[dictId];
+    int numBytes = _lengths[dictId];
+    PinotDataBuffer chunk = _chunks[(int) (address >>> CHUNK_SHIFT)];
+    int position = (int) (address & OFFSET_MASK);
+    int end = position + numBytes;
+
+    // Number of chars is never larger than number of bytes.
+    char[] chars = new char[numBytes];
+    int numChars = 0;
+    while (position < end) {
+      int b = chunk.getByte(position) & 0xFF;
+      if (b < 0x80) {
+        chars[numChars++] = (char) b;
+        position++;
+      } else if (b < 0xE0) {
+        chars[numChars++] = (char) (((b & 0x1F) << 6) | (chunk.getByte(position + 1) & 0x3F));
+        position += 2;
+      } else if (b < 0xF0) {
+        chars[numChars++] = (char) (((b & 0x0F) << 12) | ((chunk.getByte(position + 1) & 0x3F) << 6) | (
+            chunk.getByte(position + 2) & 0x3F));
+        position += 3;
+      } else {
+        int codePoint = ((b & 0x07) << 18) | ((chunk.getByte(position + 1) & 0x3F) << 12) | (
+            (chunk.getByte(position + 2) & 0x3F) << 6) | (chunk.getByte(position + 3) & 0x3F);
+        chars[numChars++] = Character.highSurrogate(codePoint);
+        chars[numChars++] = Character.lowSurrogate(codePoint);
+        position += 4;
+      }
+    }
+    return new String(chars, 0, numChars);
+  }
+
+  /**
+   * Returns the number of values in the map.
+   */
+  int size() {
+    return _size;
+  }
+
+  /**
+   * Returns the number of off-heap bytes allocated.
+   */
+  long getOffHeapSize() {
+    long size = 0;
+    PinotDataBuffer[] chunks = _chunks;
+    for (int i = 0; i < _numChunks; i++) {
+      size += chunks[i].size();
+    }
+    return size;
+  }
+
+  /**
+   * Frees the off-heap chunks. Readers do not synchronize with this method, so it must only be called once the last
+   * reference to the consuming segment is released, i.e. from the segment data manager destroy.
+   */
+  @Override
+  public void close() {
+    PinotDataBuffer[] chunks = _chunks;
+    for (int i = 0; i < _numChunks; i++) {
+      chunks[i].close();
+      chunks[i] = null;
+    }
+    _numChunks = 0;
+  }
+
+  /**
+   * Compares the encoded value for the given dictionary id with the given string, without decoding it.
+   */
+  private boolean valueEquals(int dictId, String value) {
+    long address = _addresses[dictId];
+    PinotDataBuffer chunk = _chunks[(int) (address >>> CHUNK_SHIFT)];
+    int position = (int) (address & OFFSET_MASK);
+    int end = position + _lengths[dictId];
+    int numChars = value.length();
+    int charIndex = 0;
+    while (position < end) {
+      if (charIndex == numChars) {
+        return false;
+      }
+      int b = chunk.getByte(position) & 0xFF;
+      if (b < 0x80) {
+        if (value.charAt(charIndex++) != b) {
+          return false;
+        }
+        position++;
+      } else if (b < 0xE0) {
+        int c = ((b & 0x1F) << 6) | (chunk.getByte(position + 1) & 0x3F);
+        if (value.charAt(charIndex++) != c) {
+          return false;
+        }
+        position += 2;
+      } else if (b < 0xF0) {
+        int c = ((b & 0x0F) << 12) | ((chunk.getByte(position + 1) & 0x3F) << 6) | (chunk.getByte(position + 2) & 0x3F);
+        if (value.charAt(charIndex++) != c) {
+          return false;
+        }
+        position += 3;
+      } else {
+        if (charIndex + 1 == numChars) {
+          return false;
+        }
+        int codePoint = ((b & 0x07) << 18) | ((chunk.getByte(position + 1) & 0x3F) << 12) | (
+            (chunk.getByte(position + 2) & 0x3F) << 6) | (chunk.getByte(position + 3) & 0x3F);
+        if (value.charAt(charIndex++) != Character.highSurrogate(codePoint)
+            || value.charAt(charIndex++) != Character.lowSurrogate(codePoint)) {
+          return false;
+        }
+        position += 4;
+      }
+    }
+    return charIndex == numChars;
+  }
+
+  /**
+   * Appends the encoded value into the current chunk (allocates a new chunk if necessary), and returns its address.
+   */
+  private long appendValue(String value, int numBytes) {
+    if (_numChunks == 0 || _currentChunkOffset + numBytes > _chunkSize) {
+      PinotDataBuffer[] chunks = _chunks;
+      if (_numChunks == chunks.length) {
+        chunks = Arrays.copyOf(chunks, chunks.length * 2);
+      }
+      int chunkSize = Math.max(_chunkSize, numBytes);
+      if (_memoryManager == null) {
+        chunks[_numChunks] = PinotDataBuffer.allocateDirect(chunkSize);
+      } else {
+        chunks[_numChunks] = _memoryManager.allocate(chunkSize, _context + ".chunk" + _numChunks);
+      }
+      _numChunks++;
+      _chunks = chunks;
+      _currentChunkOffset = 0;
+    }
+
+    int chunkId = _numChunks - 1;
+    PinotDataBuffer chunk = _chunks[chunkId];
+    long address = ((long) chunkId << CHUNK_SHIFT) | _currentChunkOffset;
+    int position = _currentChunkOffset;
+    int numChars = value.length();
+    for (int i = 0; i < numChars; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        chunk.putByte(position++, (byte) c);
+      } else if (c < 0x800) {
+        chunk.putByte(position++, (byte) (0xC0 | (c >> 6)));
+        chunk.putByte(position++, (byte) (0x80 | (c & 0x3F)));
+      } else if (Character.isHighSurrogate(c) && i + 1 < numChars && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+        chunk.putByte(position++, (byte) (0xF0 | (codePoint >> 18)));
+        chunk.putByte(position++, (byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+        chunk.putByte(position++, (byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+        chunk.putByte(position++, (byte) (0x80 | (codePoint & 0x3F)));
+      } else {
+        chunk.putByte(position++, (byte) (0xE0 | (c >> 12)));
+        chunk.putByte(position++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+        chunk.putByte(position++, (byte) (0x80 | (c & 0x3F)));
+      }
+    }
+    _currentChunkOffset += numBytes;
+    return address;
+  }
+
+  private void rehash(int size) {
+    int[] idTable = newIdTable(_idTable.length * 2);
+    int mask = idTable.length - 1;
+    for (int dictId = 0; dictId < size; dictId++) {
+      int slot = HashCommon.murmurHash3(_hashCodes[dictId]) & mask;
+      while (idTable[slot] != MutableDictionaryReader.NULL_VALUE_INDEX) {
+        slot = (slot + 1) & mask;
+      }
+      idTable[slot] = dictId;
+    }
+    _maxFill = HashCommon.maxFill(idTable.length, LOAD_FACTOR);
+    _idTable = idTable;
+  }
+
+  private static int getEncodedLength(String value) {
+    int numChars = value.length();
+    int numBytes = 0;
+    for (int i = 0; i < numChars; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        numBytes++;
+      } else if (c < 0x800) {
+        numBytes += 2;
+      } else if (Character.isHighSurrogate(c) && i + 1 < numChars && Character.isLowSurrogate(value.charAt(i + 1))) {
+        numBytes += 4;
+        i++;
+      } else {
+        numBytes += 3;
+      }
+    }
+    return numBytes;
+  }
+
+  private static int[] newIdTable(int capacity) {
+    int[] idTable = new int[capacity];
+    Arrays.fill(idTable, MutableDictionaryReader.NULL_VALUE_INDEX);
+    return idTable;
+  }
+}
@@ -16,29 +16,54 @@
 package com.linkedin.pinot.core.realtime.impl.dictionary;
 
 import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.core.io.readerwriter.RealtimeIndexOffHeapMemoryManager;
 
 
 public class StringMutableDictionary extends MutableDictionaryReader {
+  private final StringDictionaryIdMap _idMap;
 
   private String min = null;
   private String max = null;
 
   public StringMutableDictionary(FieldSpec spec) {
     super(spec);
+    _idMap = new StringDictionaryIdMap();
+  }
+
+  /**
+   * Allocates the off-heap memory of the values from the given memory manager.
+   */
+  public StringMutableDictionary(FieldSpec spec, RealtimeIndexOffHeapMemoryManager memoryManager) {
+    super(spec);
+    _idMap = new StringDictionaryIdMap(memoryManager, spec.getName() + ".dictionary");
   }
 
   @Override
   public void index(Object rawValue) {
     if (rawValue instanceof Object[]) {
       for (Object o : (Object[]) rawValue) {
-        addToDictionaryBiMap(o.toString());
-        updateMinMax(o.toString());
+        indexString(o.toString());
       }
       return;
     }
 
-    addToDictionaryBiMap(rawValue.toString());
-    updateMinMax(rawValue.toString());
+    indexString(rawValue.toString());
+  }
+
+  private int indexString(String value) {
+    int dictId = _idMap.put(value);
+    // Only new values can change min/max.
+    if (dictId == _idMap.size() - 1) {
+      updateMinMax(value);
+    }
+    return dictId;
+  }
+
+  @Override
+  public void indexObjectValues(Object[] values, int numValues, int[] dictIds) {
+    for (int i = 0; i < numValues; i++) {
+      dictIds[i] = indexString(values[i].toString());
+    }
   }
 
   private void updateMinMax(String entry) {
@@ -62,17 +87,22 @@ public class StringMutableDictionary extends MutableDictionaryReader {
     if (rawValue == null) {
       return hasNull;
     }
-    return dictionaryIdBiMap.inverse().containsKey(rawValue.toString());
+    return indexOf(rawValue) != NULL_VALUE_INDEX;
   }
 
   @Override
   public int indexOf(Object rawValue) {
-    return getIndexOfFromBiMap(rawValue.toString());
+    return _idMap.getId(rawValue.toString());
+  }
+
+  @Override
+  public int length() {
+    return _idMap.size();
   }
 
   @Override
   public Object get(int dictionaryId) {
-    return getRawValueFromBiMap(dictionaryId);
+    return getString(dictionaryId);
   }
 
   @Override
@@ -97,12 +127,12 @@ public class StringMutableDictionary extends MutableDictionaryReader {
 
   @Override
   public String toString(int dictionaryId) {
-    return (String) getRawValueFromBiMap(dictionaryId);
+    return getString(dictionaryId);
   }
 
   @Override
   public String getStringValue(int dictionaryId) {
-    return (String) getRawValueFromBiMap(dictionaryId);
+    return getString(dictionaryId);
   }
 
   @Override
@@ -136,7 +166,7 @@ public class StringMutableDictionary extends MutableDictionaryReader {
   }
 
   private String getString(int dictionaryId) {
-    return dictionaryIdBiMap.get(dictionaryId).toString();
+    return _idMap.getValue(dictionaryId);
   }
 
   @Override
@@ -149,4 +179,9 @@ public class StringMutableDictionary extends MutableDictionaryReader {
     return max;
   }
 
+  @Override
+  public void close() {
+    _idMap.close();
+  }
+
 }
@@ -15,14 +15,31 @@
  */
 package com.linkedin.pinot.core.realtime.impl.invertedIndex;
 
-import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import java.io.Closeable;
+import org.roaringbitmap.IntIterator;
 
-import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
 
+/**
+ * Inverted index for a consuming segment, mapping dictionary ids to the document ids containing them.
+ * <p>Documents are added by a single writer thread while queries read concurrently through
+ * {@link #getDocIdIterator(int, int)}, which only returns the documents up to the searchable document id of the query
+ * and never copies the index.
+ * <p>It is not an {@link com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader}, as a consuming segment
+ * cannot hand out bitmaps without copying them for each query.
+ */
+public interface RealtimeInvertedIndex extends Closeable {
 
-public interface RealtimeInvertedIndex extends InvertedIndexReader {
-  public void add(Object dictId, int docId);
-
-  public MutableRoaringBitmap getDocIdSetFor(Object dicId);
+  /**
+   * Adds the given document id to the document ids of the given dictionary id.
+   * <p>Document ids must be added in increasing order, and only from the writer thread.
+   */
+  void add(int dictId, int docId);
 
+  /**
+   * Returns an iterator over the document ids of the given dictionary id, in increasing order, up to the given
+   * document id (inclusive).
+   * <p>The document ids up to <code>maxDocId</code> must have been indexed, and published to the calling thread,
+   * before this method is called.
+   */
+  IntIterator getDocIdIterator(int dictId, int maxDocId);
 }
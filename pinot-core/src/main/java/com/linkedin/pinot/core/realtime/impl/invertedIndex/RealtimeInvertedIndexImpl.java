@@ -0,0 +1,240 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.realtime.impl.invertedIndex;
+
+import java.io.IOException;
+import java.util.Arrays;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * The <code>RealtimeInvertedIndexImpl</code> class stores the document ids in an array indexed by dictionary id, so
+ * that indexing a document does not box the dictionary id or go through a hash map.
+ * <ul>
+ *   <li>
+ *     The array is grown by copy and published through a volatile field, and a slot is never modified once set.
+ *   </li>
+ *   <li>
+ *     The document ids of a dictionary id are append only: the ids of the current chunk of
+ *     {@link #DOC_IDS_PER_CHUNK} documents are appended to an array, and once the writer moves to the next chunk they
+ *     are sealed into a bitmap that is never modified again. Queries iterate the sealed bitmaps and the array in place,
+ *     bounded by their searchable document id, so the index is never copied for a query.
+ *   </li>
+ * </ul>
+ */
+public class RealtimeInvertedIndexImpl implements RealtimeInvertedIndex {
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final int CHUNK_SHIFT = 16;
+  // One bitmap container per sealed chunk
+  static final int DOC_IDS_PER_CHUNK = 1 << CHUNK_SHIFT;
+  private static final int INITIAL_CHUNK_CAPACITY = 8;
+  private static final ImmutableRoaringBitmap[] NO_SEALED_CHUNK = new ImmutableRoaringBitmap[0];
+  private static final IntIterator EMPTY_ITERATOR = new MutableRoaringBitmap().getIntIterator();
+
+  private final String _columnName;
+  private volatile DocIds[] _docIds = new DocIds[INITIAL_CAPACITY];
+
+  public RealtimeInvertedIndexImpl(String columnName) {
+    _columnName = columnName;
+  }
+
+  @Override
+  public void add(int dictId, int docId) {
+    DocIds[] docIds = _docIds;
+    if (dictId >= docIds.length) {
+      docIds = Arrays.copyOf(docIds, Math.max(docIds.length * 2, dictId + 1));
+      _docIds = docIds;
+    }
+    DocIds docIdsForDictId = docIds[dictId];
+    if (docIdsForDictId == null) {
+      docIdsForDictId = new DocIds();
+      docIds[dictId] = docIdsForDictId;
+    }
+    docIdsForDictId.add(docId);
+  }
+
+  @Override
+  public IntIterator getDocIdIterator(int dictId, int maxDocId) {
+    DocIds[] docIds = _docIds;
+    if (dictId < 0 || dictId >= docIds.length) {
+      return EMPTY_ITERATOR;
+    }
+    DocIds docIdsForDictId = docIds[dictId];
+    if (docIdsForDictId == null) {
+      return EMPTY_ITERATOR;
+    }
+    return docIdsForDictId.iterator(maxDocId);
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    _docIds = new DocIds[0];
+  }
+
+  /**
+   * Document ids of a dictionary id, written by the writer thread and read in place by the query threads.
+   */
+  private static class DocIds {
+    private volatile Chunk _currentChunk;
+
+    void add(int docId) {
+      int chunkId = docId >>> CHUNK_SHIFT;
+      Chunk currentChunk = _currentChunk;
+      if (currentChunk == null) {
+        currentChunk = new Chunk(chunkId, NO_SEALED_CHUNK);
+        _currentChunk = currentChunk;
+      } else if (currentChunk._chunkId != chunkId) {
+        currentChunk = new Chunk(chunkId, currentChunk.seal());
+        _currentChunk = currentChunk;
+      }
+      currentChunk.add(docId);
+    }
+
+    IntIterator iterator(int maxDocId) {
+      Chunk currentChunk = _currentChunk;
+      if (currentChunk == null) {
+        return EMPTY_ITERATOR;
+      }
+      // Read the size before the array, so that all the document ids within the size are visible
+      int size = currentChunk._size;
+      return new DocIdIterator(currentChunk._sealedChunks, currentChunk._docIds, size, maxDocId);
+    }
+  }
+
+  /**
+   * Document ids of the current chunk, along with the bitmaps of the chunks sealed before it.
+   */
+  private static class Chunk {
+    private final int _chunkId;
+    private final ImmutableRoaringBitmap[] _sealedChunks;
+    private volatile int[] _docIds = new int[INITIAL_CHUNK_CAPACITY];
+    private volatile int _size;
+
+    Chunk(int chunkId, ImmutableRoaringBitmap[] sealedChunks) {
+      _chunkId = chunkId;
+      _sealedChunks = sealedChunks;
+    }
+
+    void add(int docId) {
+      int[] docIds = _docIds;
+      int size = _size;
+      // Multi-value columns can index the same value twice for a document
+      if (size > 0 && docIds[size - 1] == docId) {
+        return;
+      }
+      if (size == docIds.length) {
+        docIds = Arrays.copyOf(docIds, size * 2);
+        _docIds = docIds;
+      }
+      docIds[size] = docId;
+      _size = size + 1;
+    }
+
+    /**
+     * Returns the sealed chunks followed by the bitmap of this chunk.
+     */
+    ImmutableRoaringBitmap[] seal() {
+      MutableRoaringBitmap bitmap = new MutableRoaringBitmap();
+      int[] docIds = _docIds;
+      int size = _size;
+      for (int i = 0; i < size; i++) {
+        bitmap.add(docIds[i]);
+      }
+      ImmutableRoaringBitmap[] sealedChunks = Arrays.copyOf(_sealedChunks, _sealedChunks.length + 1);
+      sealedChunks[_sealedChunks.length] = bitmap;
+      return sealedChunks;
+    }
+  }
+
+  /**
+   * Iterates the sealed chunks then the document ids of the current chunk, up to the max document id.
+   */
+  private static class DocIdIterator implements IntIterator {
+    private final ImmutableRoaringBitmap[] _sealedChunks;
+    private final int[] _docIds;
+    private final int _size;
+    private final int _maxDocId;
+
+    private int _sealedChunkIndex;
+    private IntIterator _sealedChunkIterator;
+    private int _index;
+    private int _nextDocId;
+
+    DocIdIterator(ImmutableRoaringBitmap[] sealedChunks, int[] docIds, int size, int maxDocId) {
+      _sealedChunks = sealedChunks;
+      _docIds = docIds;
+      _size = size;
+      _maxDocId = maxDocId;
+      if (sealedChunks.length > 0) {
+        _sealedChunkIterator = sealedChunks[0].getIntIterator();
+      }
+      _nextDocId = fetchNextDocId();
+    }
+
+    private DocIdIterator(DocIdIterator other) {
+      _sealedChunks = other._sealedChunks;
+      _docIds = other._docIds;
+      _size = other._size;
+      _maxDocId = other._maxDocId;
+      _sealedChunkIndex = other._sealedChunkIndex;
+      if (other._sealedChunkIterator != null) {
+        _sealedChunkIterator = other._sealedChunkIterator.clone();
+      }
+      _index = other._index;
+      _nextDocId = other._nextDocId;
+    }
+
+    /**
+     * Returns the next document id, or -1 if there is no document id left up to the max document id.
+     */
+    private int fetchNextDocId() {
+      int nextDocId = -1;
+      while (_sealedChunkIterator != null) {
+        if (_sealedChunkIterator.hasNext()) {
+          nextDocId = _sealedChunkIterator.next();
+          break;
+        }
+        _sealedChunkIndex++;
+        _sealedChunkIterator =
+            _sealedChunkIndex < _sealedChunks.length ? _sealedChunks[_sealedChunkIndex].getIntIterator() : null;
+      }
+      if (nextDocId == -1 && _index < _size) {
+        nextDocId = _docIds[_index++];
+      }
+      return nextDocId <= _maxDocId ? nextDocId : -1;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return _nextDocId != -1;
+    }
+
+    @Override
+    public int next() {
+      int docId = _nextDocId;
+      _nextDocId = fetchNextDocId();
+      return docId;
+    }
+
+    @Override
+    public IntIterator clone() {
+      return new DocIdIterator(this);
+    }
+  }
+}
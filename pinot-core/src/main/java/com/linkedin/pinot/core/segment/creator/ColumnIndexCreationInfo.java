@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.core.segment.creator;
 
+import com.linkedin.pinot.common.metadata.segment.ColumnPartitionMetadata;
 import org.apache.commons.lang3.ArrayUtils;
 
 
@@ -32,6 +33,7 @@ public class ColumnIndexCreationInfo {
   private final int legnthOfLongestEntry;
   private final boolean isAutoGenerated;
   private final Object defaultNullValue;
+  private ColumnPartitionMetadata partitionMetadata;
 
   public ColumnIndexCreationInfo(boolean createDictionary, Object min, Object max, Object sortedUniqueElementsArray,
       ForwardIndexType forwardIndexType, InvertedIndexType invertedIndexType, boolean isSorted, boolean hasNulls,
@@ -111,4 +113,15 @@ public class ColumnIndexCreationInfo {
   public int getLegnthOfLongestEntry() {
     return legnthOfLongestEntry;
   }
+
+  /**
+   * Returns the partitions contained in the segment for a partitioned column, or null otherwise.
+   */
+  public ColumnPartitionMetadata getPartitionMetadata() {
+    return partitionMetadata;
+  }
+
+  public void setPartitionMetadata(ColumnPartitionMetadata partitionMetadata) {
+    this.partitionMetadata = partitionMetadata;
+  }
 }
@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.creator;
+
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentColumnarIndexCreator;
+
+
+/**
+ * Source of a segment whose columns are already dictionary-encoded (e.g. a consuming realtime segment), from which the
+ * segment can be created column by column instead of row by row.
+ * <p>Methods are called concurrently for different columns.
+ */
+public interface ColumnarSegmentSource {
+
+  /**
+   * Returns the schema of the segment to create.
+   */
+  Schema getSchema();
+
+  /**
+   * Returns the number of documents of the segment to create.
+   */
+  int getNumDocs();
+
+  /**
+   * Returns the statistics and the sorted unique values of the given column.
+   */
+  ColumnIndexCreationInfo getColumnIndexCreationInfo(String column) throws Exception;
+
+  /**
+   * Indexes all the documents of the given column with the given (initialized) index creator.
+   */
+  void indexColumn(String column, SegmentColumnarIndexCreator indexCreator) throws Exception;
+}
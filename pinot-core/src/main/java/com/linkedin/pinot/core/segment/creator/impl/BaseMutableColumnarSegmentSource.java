@@ -0,0 +1,289 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.creator.impl;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.core.io.reader.DataFileReader;
+import com.linkedin.pinot.core.io.readerwriter.impl.FixedByteSingleColumnMultiValueReaderWriter;
+import com.linkedin.pinot.core.io.readerwriter.impl.FixedByteSingleColumnSingleValueReaderWriter;
+import com.linkedin.pinot.core.realtime.impl.dictionary.MutableDictionaryReader;
+import com.linkedin.pinot.core.segment.creator.ColumnIndexCreationInfo;
+import com.linkedin.pinot.core.segment.creator.ColumnarSegmentSource;
+import com.linkedin.pinot.core.segment.creator.ForwardIndexType;
+import com.linkedin.pinot.core.segment.creator.InvertedIndexType;
+import java.lang.reflect.Array;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+
+/**
+ * Base class of the columnar sources whose columns are encoded with mutable dictionaries (as in realtime segments),
+ * and stored as dictionary ids in a {@link FixedByteSingleColumnSingleValueReaderWriter} for single-value columns
+ * and in a {@link FixedByteSingleColumnMultiValueReaderWriter} for multi-value columns.
+ * <p>The values of each mutable dictionary are sorted once to get the statistics and the dictionary of the column in
+ * the created segment, and the dictionary ids of the documents are read from the forward index (in the order of the
+ * sorted column if any) to index the column.
+ * <p>The columns of the schema must have the same data types in the source.
+ */
+public abstract class BaseMutableColumnarSegmentSource implements ColumnarSegmentSource {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  // Source document id of each document of the created segment, null if documents keep their source order
+  private int[] _sortedDocIds;
+
+  protected abstract MutableDictionaryReader getDictionary(String column);
+
+  protected abstract DataFileReader getForwardIndex(String column);
+
+  protected abstract int getMaxNumberOfMultiValues(String column);
+
+  @Override
+  public ColumnIndexCreationInfo getColumnIndexCreationInfo(String column) {
+    int numDocs = getNumDocs();
+    FieldSpec fieldSpec = getSchema().getFieldSpecFor(column);
+    MutableDictionaryReader dictionary = getDictionary(column);
+    int cardinality = dictionary.length();
+    int[] ranks = new int[cardinality];
+    Object sortedValues = sortValues(dictionary, fieldSpec.getDataType(), ranks);
+
+    // Single pass over the forward index to find the values actually used by the documents
+    boolean[] usedRanks = new boolean[cardinality];
+    boolean isSorted;
+    int totalNumberOfEntries;
+    int maxNumberOfMultiValues = 0;
+    if (fieldSpec.isSingleValueField()) {
+      FixedByteSingleColumnSingleValueReaderWriter forwardIndex =
+          (FixedByteSingleColumnSingleValueReaderWriter) getForwardIndex(column);
+      isSorted = true;
+      int previousRank = 0;
+      for (int i = 0; i < numDocs; i++) {
+        int rank = ranks[forwardIndex.getInt(getSourceDocId(i))];
+        usedRanks[rank] = true;
+        if (rank < previousRank) {
+          isSorted = false;
+        }
+        previousRank = rank;
+      }
+      totalNumberOfEntries = numDocs;
+    } else {
+      FixedByteSingleColumnMultiValueReaderWriter forwardIndex =
+          (FixedByteSingleColumnMultiValueReaderWriter) getForwardIndex(column);
+      isSorted = false;
+      totalNumberOfEntries = 0;
+      int[] dictIdBuffer = new int[getMaxNumberOfMultiValues(column)];
+      for (int i = 0; i < numDocs; i++) {
+        int numValues = forwardIndex.getIntArray(i, dictIdBuffer);
+        for (int j = 0; j < numValues; j++) {
+          usedRanks[ranks[dictIdBuffer[j]]] = true;
+        }
+        totalNumberOfEntries += numValues;
+        maxNumberOfMultiValues = Math.max(maxNumberOfMultiValues, numValues);
+      }
+    }
+    sortedValues = removeUnusedValues(sortedValues, usedRanks);
+
+    int numValues = Array.getLength(sortedValues);
+    int lengthOfLargestElement = -1;
+    if (sortedValues instanceof String[]) {
+      lengthOfLargestElement = 0;
+      for (String value : (String[]) sortedValues) {
+        lengthOfLargestElement = Math.max(lengthOfLargestElement, value.getBytes(UTF_8).length);
+      }
+    }
+    return new ColumnIndexCreationInfo(true/*createDictionary*/, Array.get(sortedValues, 0),
+        Array.get(sortedValues, numValues - 1), sortedValues, ForwardIndexType.FIXED_BIT_COMPRESSED,
+        InvertedIndexType.ROARING_BITMAPS, isSorted, false/*hasNulls*/, totalNumberOfEntries, maxNumberOfMultiValues,
+        lengthOfLargestElement, false/*isAutoGenerated*/, fieldSpec.getDefaultNullValue());
+  }
+
+  @Override
+  public void indexColumn(String column, SegmentColumnarIndexCreator indexCreator) {
+    int numDocs = getNumDocs();
+    MutableDictionaryReader dictionary = getDictionary(column);
+    int cardinality = dictionary.length();
+    boolean[] usedDictIds = new boolean[cardinality];
+
+    if (getSchema().getFieldSpecFor(column).isSingleValueField()) {
+      FixedByteSingleColumnSingleValueReaderWriter forwardIndex =
+          (FixedByteSingleColumnSingleValueReaderWriter) getForwardIndex(column);
+      int[] dictIds = new int[numDocs];
+      for (int i = 0; i < numDocs; i++) {
+        int dictId = forwardIndex.getInt(getSourceDocId(i));
+        dictIds[i] = dictId;
+        usedDictIds[dictId] = true;
+      }
+      indexCreator.indexColumn(column, getDictionaryValues(dictionary, usedDictIds), dictIds);
+    } else {
+      FixedByteSingleColumnMultiValueReaderWriter forwardIndex =
+          (FixedByteSingleColumnMultiValueReaderWriter) getForwardIndex(column);
+      int[] dictIdBuffer = new int[getMaxNumberOfMultiValues(column)];
+      int[][] dictIds = new int[numDocs][];
+      for (int i = 0; i < numDocs; i++) {
+        int numValues = forwardIndex.getIntArray(getSourceDocId(i), dictIdBuffer);
+        for (int j = 0; j < numValues; j++) {
+          usedDictIds[dictIdBuffer[j]] = true;
+        }
+        dictIds[i] = Arrays.copyOf(dictIdBuffer, numValues);
+      }
+      indexCreator.indexColumn(column, getDictionaryValues(dictionary, usedDictIds), dictIds);
+    }
+  }
+
+  /**
+   * Returns the values of the given dictionary indexed by dictionary id, with null for the unused dictionary ids which
+   * are not in the dictionary of the created segment.
+   */
+  private static Object[] getDictionaryValues(MutableDictionaryReader dictionary, boolean[] usedDictIds) {
+    int cardinality = usedDictIds.length;
+    Object[] dictionaryValues = new Object[cardinality];
+    for (int i = 0; i < cardinality; i++) {
+      if (usedDictIds[i]) {
+        dictionaryValues[i] = dictionary.get(i);
+      }
+    }
+    return dictionaryValues;
+  }
+
+  private int getSourceDocId(int docId) {
+    return _sortedDocIds != null ? _sortedDocIds[docId] : docId;
+  }
+
+  /**
+   * Orders the documents on the values of the given single-value column, with a counting sort on the rank of the
+   * values which keeps the documents with the same value in their source order.
+   */
+  protected void sortDocs(String column) {
+    int numDocs = getNumDocs();
+    FieldSpec fieldSpec = getSchema().getFieldSpecFor(column);
+    MutableDictionaryReader dictionary = getDictionary(column);
+    int cardinality = dictionary.length();
+    int[] ranks = new int[cardinality];
+    sortValues(dictionary, fieldSpec.getDataType(), ranks);
+
+    FixedByteSingleColumnSingleValueReaderWriter forwardIndex =
+        (FixedByteSingleColumnSingleValueReaderWriter) getForwardIndex(column);
+    // After the prefix sum, offsets[rank] is the position of the next document with the value of the given rank
+    int[] offsets = new int[cardinality + 1];
+    for (int docId = 0; docId < numDocs; docId++) {
+      offsets[ranks[forwardIndex.getInt(docId)] + 1]++;
+    }
+    for (int i = 1; i <= cardinality; i++) {
+      offsets[i] += offsets[i - 1];
+    }
+    int[] sortedDocIds = new int[numDocs];
+    for (int docId = 0; docId < numDocs; docId++) {
+      sortedDocIds[offsets[ranks[forwardIndex.getInt(docId)]]++] = docId;
+    }
+    _sortedDocIds = sortedDocIds;
+  }
+
+  /**
+   * Returns the sorted values of the given dictionary, in a primitive array for numeric types and in a String array
+   * otherwise, and fills the rank of each dictionary id in the sorted values.
+   */
+  private static Object sortValues(MutableDictionaryReader dictionary, FieldSpec.DataType dataType, int[] ranks) {
+    int cardinality = dictionary.length();
+    switch (dataType) {
+      case INT: {
+        int[] values = new int[cardinality];
+        for (int i = 0; i < cardinality; i++) {
+          values[i] = dictionary.getIntValue(i);
+        }
+        int[] sortedValues = values.clone();
+        Arrays.sort(sortedValues);
+        for (int i = 0; i < cardinality; i++) {
+          ranks[i] = Arrays.binarySearch(sortedValues, values[i]);
+        }
+        return sortedValues;
+      }
+      case LONG: {
+        long[] values = new long[cardinality];
+        for (int i = 0; i < cardinality; i++) {
+          values[i] = dictionary.getLongValue(i);
+        }
+        long[] sortedValues = values.clone();
+        Arrays.sort(sortedValues);
+        for (int i = 0; i < cardinality; i++) {
+          ranks[i] = Arrays.binarySearch(sortedValues, values[i]);
+        }
+        return sortedValues;
+      }
+      case FLOAT: {
+        float[] values = new float[cardinality];
+        for (int i = 0; i < cardinality; i++) {
+          values[i] = dictionary.getFloatValue(i);
+        }
+        float[] sortedValues = values.clone();
+        Arrays.sort(sortedValues);
+        for (int i = 0; i < cardinality; i++) {
+          ranks[i] = Arrays.binarySearch(sortedValues, values[i]);
+        }
+        return sortedValues;
+      }
+      case DOUBLE: {
+        double[] values = new double[cardinality];
+        for (int i = 0; i < cardinality; i++) {
+          values[i] = dictionary.getDoubleValue(i);
+        }
+        double[] sortedValues = values.clone();
+        Arrays.sort(sortedValues);
+        for (int i = 0; i < cardinality; i++) {
+          ranks[i] = Arrays.binarySearch(sortedValues, values[i]);
+        }
+        return sortedValues;
+      }
+      case STRING:
+      case BOOLEAN: {
+        String[] values = new String[cardinality];
+        for (int i = 0; i < cardinality; i++) {
+          values[i] = dictionary.get(i).toString();
+        }
+        String[] sortedValues = values.clone();
+        Arrays.sort(sortedValues);
+        for (int i = 0; i < cardinality; i++) {
+          ranks[i] = Arrays.binarySearch(sortedValues, values[i]);
+        }
+        return sortedValues;
+      }
+      default:
+        throw new UnsupportedOperationException("Unsupported data type: " + dataType);
+    }
+  }
+
+  /**
+   * Returns the given sorted values without the ones not used by any document, which only happens if a value was
+   * added to the mutable dictionary without its document being indexed.
+   */
+  private static Object removeUnusedValues(Object sortedValues, boolean[] usedRanks) {
+    int numUsedValues = 0;
+    for (boolean used : usedRanks) {
+      if (used) {
+        numUsedValues++;
+      }
+    }
+    if (numUsedValues == usedRanks.length) {
+      return sortedValues;
+    }
+    Object usedValues = Array.newInstance(sortedValues.getClass().getComponentType(), numUsedValues);
+    int index = 0;
+    for (int i = 0; i < usedRanks.length; i++) {
+      if (usedRanks[i]) {
+        Array.set(usedValues, index++, Array.get(sortedValues, i));
+      }
+    }
+    return usedValues;
+  }
+}
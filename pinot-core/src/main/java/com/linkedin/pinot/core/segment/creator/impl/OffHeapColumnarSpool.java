@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.creator.impl;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.io.reader.DataFileReader;
+import com.linkedin.pinot.core.io.readerwriter.RealtimeIndexOffHeapMemoryManager;
+import com.linkedin.pinot.core.io.readerwriter.impl.FixedByteSingleColumnMultiValueReaderWriter;
+import com.linkedin.pinot.core.io.readerwriter.impl.FixedByteSingleColumnSingleValueReaderWriter;
+import com.linkedin.pinot.core.realtime.impl.dictionary.MutableDictionaryReader;
+import com.linkedin.pinot.core.realtime.impl.dictionary.RealtimeDictionaryProvider;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Columnar source spooling the rows read from the input of a segment into off-heap dictionary-encoded columns, so that
+ * the input is read only once before the segment is created column by column.
+ * <p>Columns are stored like in consuming realtime segments, with mutable dictionaries and forward indexes allocated
+ * off-heap in chunks, which are all released when the spool is closed.
+ */
+public class OffHeapColumnarSpool extends BaseMutableColumnarSegmentSource implements Closeable {
+  private static final int NUM_ROWS_PER_CHUNK = 64 * 1024;
+
+  private final Schema _schema;
+  private final RealtimeIndexOffHeapMemoryManager _memoryManager;
+  private final FieldSpec[] _fieldSpecs;
+  private final MutableDictionaryReader[] _dictionaries;
+  private final DataFileReader[] _forwardIndexes;
+  private final int[] _maxNumberOfMultiValues;
+  private final Map<String, Integer> _columnIndexMap = new HashMap<>();
+  private int _numDocs = 0;
+
+  public OffHeapColumnarSpool(Schema schema, String tableName) {
+    _schema = schema;
+    _memoryManager = new RealtimeIndexOffHeapMemoryManager(tableName, null);
+    _fieldSpecs = schema.getAllFieldSpecs().toArray(new FieldSpec[schema.size()]);
+    int numColumns = _fieldSpecs.length;
+    _dictionaries = new MutableDictionaryReader[numColumns];
+    _forwardIndexes = new DataFileReader[numColumns];
+    _maxNumberOfMultiValues = new int[numColumns];
+    for (int i = 0; i < numColumns; i++) {
+      FieldSpec fieldSpec = _fieldSpecs[i];
+      String column = fieldSpec.getName();
+      _columnIndexMap.put(column, i);
+      _dictionaries[i] = RealtimeDictionaryProvider.getDictionaryFor(fieldSpec, _memoryManager);
+      if (fieldSpec.isSingleValueField()) {
+        _forwardIndexes[i] = new FixedByteSingleColumnSingleValueReaderWriter(NUM_ROWS_PER_CHUNK, Integer.SIZE / 8,
+            _memoryManager, column + ".forwardIndex");
+      } else {
+        _forwardIndexes[i] = new FixedByteSingleColumnMultiValueReaderWriter(NUM_ROWS_PER_CHUNK, Integer.SIZE / 8,
+            FixedByteSingleColumnMultiValueReaderWriter.DEFAULT_MAX_NUMBER_OF_MULTIVALUES, _memoryManager,
+            column + ".forwardIndex");
+      }
+    }
+  }
+
+  /**
+   * Appends a row, which must have a non-null value for every column of the schema (e.g. once transformed by a
+   * {@link com.linkedin.pinot.core.data.extractors.PlainFieldExtractor}).
+   */
+  public void addRow(GenericRow row) {
+    int docId = _numDocs;
+    int numColumns = _fieldSpecs.length;
+    for (int i = 0; i < numColumns; i++) {
+      FieldSpec fieldSpec = _fieldSpecs[i];
+      Object value = row.getValue(fieldSpec.getName());
+      MutableDictionaryReader dictionary = _dictionaries[i];
+      if (fieldSpec.isSingleValueField()) {
+        dictionary.index(value);
+        ((FixedByteSingleColumnSingleValueReaderWriter) _forwardIndexes[i]).setInt(docId, dictionary.indexOf(value));
+      } else {
+        Object[] values = (Object[]) value;
+        int numValues = values.length;
+        int[] dictIds = new int[numValues];
+        dictionary.indexObjectValues(values, numValues, dictIds);
+        ((FixedByteSingleColumnMultiValueReaderWriter) _forwardIndexes[i]).setIntArray(docId, dictIds);
+        _maxNumberOfMultiValues[i] = Math.max(_maxNumberOfMultiValues[i], numValues);
+      }
+    }
+    _numDocs++;
+  }
+
+  @Override
+  public Schema getSchema() {
+    return _schema;
+  }
+
+  @Override
+  public int getNumDocs() {
+    return _numDocs;
+  }
+
+  @Override
+  protected MutableDictionaryReader getDictionary(String column) {
+    return _dictionaries[_columnIndexMap.get(column)];
+  }
+
+  @Override
+  protected DataFileReader getForwardIndex(String column) {
+    return _forwardIndexes[_columnIndexMap.get(column)];
+  }
+
+  @Override
+  protected int getMaxNumberOfMultiValues(String column) {
+    return _maxNumberOfMultiValues[_columnIndexMap.get(column)];
+  }
+
+  /**
+   * Releases the off-heap memory of the spool.
+   */
+  @Override
+  public void close() {
+    for (MutableDictionaryReader dictionary : _dictionaries) {
+      dictionary.close();
+    }
+    _memoryManager.close();
+  }
+}
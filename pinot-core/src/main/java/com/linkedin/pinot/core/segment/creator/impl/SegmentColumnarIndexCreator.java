@@ -15,7 +15,9 @@
  */
 package com.linkedin.pinot.core.segment.creator.impl;
 
+import com.google.common.base.Preconditions;
 import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.metadata.segment.ColumnPartitionMetadata;
 import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.common.data.StarTreeIndexSpec;
 import com.linkedin.pinot.core.data.GenericRow;
@@ -28,17 +30,26 @@ import com.linkedin.pinot.core.segment.creator.SegmentCreator;
 import com.linkedin.pinot.core.segment.creator.SegmentIndexCreationInfo;
 import com.linkedin.pinot.core.segment.creator.SingleValueForwardIndexCreator;
 import com.linkedin.pinot.core.segment.creator.SingleValueRawIndexCreator;
+import com.linkedin.pinot.core.segment.creator.impl.bloom.BloomFilterCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.MultiValueUnsortedForwardIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueFixedByteRawIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueSortedForwardIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueUnsortedForwardIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueVarByteRawIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.inv.OffHeapBitmapInvertedIndexCreator;
+import com.linkedin.pinot.core.segment.creator.impl.inv.RangeIndexCreator;
 import com.linkedin.pinot.core.startree.hll.HllConfig;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.commons.lang.StringEscapeUtils;
@@ -66,6 +77,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private Map<String, ForwardIndexCreator> forwardIndexCreatorMap;
   private Map<String, ForwardIndexCreator> rawIndexCreatorMap;
   private Map<String, InvertedIndexCreator> invertedIndexCreatorMap;
+  private Map<String, InvertedIndexCreator> rangeIndexCreatorMap;
   private String segmentName;
 
   private Schema schema;
@@ -84,6 +96,16 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   @Override
   public void init(SegmentGeneratorConfig segmentCreationSpec, SegmentIndexCreationInfo segmentIndexCreationInfo,
       Map<String, ColumnIndexCreationInfo> indexCreationInfoMap, Schema schema, File outDir) throws Exception {
+    init(segmentCreationSpec, segmentIndexCreationInfo, indexCreationInfoMap, schema, outDir, null);
+  }
+
+  /**
+   * Initializes the segment creation, building the dictionaries of the columns in parallel on the given executor
+   * service if any.
+   */
+  public void init(SegmentGeneratorConfig segmentCreationSpec, SegmentIndexCreationInfo segmentIndexCreationInfo,
+      Map<String, ColumnIndexCreationInfo> indexCreationInfoMap, Schema schema, File outDir,
+      @Nullable ExecutorService executorService) throws Exception {
     docIdCounter = 0;
     config = segmentCreationSpec;
     this.indexCreationInfoMap = indexCreationInfoMap;
@@ -91,6 +113,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     forwardIndexCreatorMap = new HashMap<String, ForwardIndexCreator>();
     this.indexCreationInfoMap = indexCreationInfoMap;
     invertedIndexCreatorMap = new HashMap<String, InvertedIndexCreator>();
+    rangeIndexCreatorMap = new HashMap<String, InvertedIndexCreator>();
     file = outDir;
 
     // Check that the output directory does not exist
@@ -123,16 +146,12 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       }
     }
 
-    // For each column, build its dictionary and initialize a forwards and an inverted index
+    buildDictionaries(executorService);
+
+    // For each column, initialize a forwards and an inverted index
     for (final String column : indexCreationInfoMap.keySet()) {
       ColumnIndexCreationInfo indexCreationInfo = indexCreationInfoMap.get(column);
-      boolean[] isSorted = new boolean[1];
-      isSorted[0] = indexCreationInfo.isSorted();
-      SegmentDictionaryCreator dictionaryCreator = dictionaryCreatorMap.get(column);
-
-      if (dictionaryCreator != null) {
-        dictionaryCreator.build(isSorted);
-        indexCreationInfo.setSorted(isSorted[0]);
+      if (dictionaryCreatorMap.containsKey(column)) {
         dictionaryCache.put(column, new HashMap<Object, Object>());
       }
       int uniqueValueCount = indexCreationInfo.getDistinctValueCount();
@@ -145,6 +164,8 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
         if (buildRawIndex) {
           forwardIndexCreatorMap.put(column,
               getRawIndexCreatorForColumn(file, column, fieldSpec.getDataType(), totalDocs, maxLength));
+          // Sorted columns are read through their dictionary, so raw columns are always loaded as unsorted
+          indexCreationInfo.setSorted(false);
         } else {
           if (indexCreationInfo.isSorted()) {
             forwardIndexCreatorMap.put(column,
@@ -165,6 +186,19 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       }
     }
 
+    for (String column : config.getBloomFilterCreationColumns()) {
+      if (!schema.hasColumn(column)) {
+        LOGGER.warn("Skipping bloom filter on column:{} since its missing in schema", column);
+        continue;
+      }
+      // The bloom filter only contains the distinct values, so it is built from the column statistics
+      ColumnIndexCreationInfo indexCreationInfo = indexCreationInfoMap.get(column);
+      BloomFilterCreator bloomFilterCreator =
+          new BloomFilterCreator(file, column, indexCreationInfo.getDistinctValueCount());
+      bloomFilterCreator.addAll(indexCreationInfo.getSortedUniqueElementsArray());
+      bloomFilterCreator.seal();
+    }
+
     for (String column : config.getInvertedIndexCreationColumns()) {
       if (!schema.hasColumn(column)) {
         LOGGER.warn("Skipping enabling index on column:{} since its missing in schema", column);
@@ -176,6 +210,55 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
           uniqueValueCount, totalDocs, indexCreationInfo.getTotalNumberOfEntries(), schema.getFieldSpecFor(column));
       invertedIndexCreatorMap.put(column, invertedIndexCreator);
     }
+
+    for (String column : config.getRangeIndexCreationColumns()) {
+      if (!schema.hasColumn(column)) {
+        LOGGER.warn("Skipping range index on column:{} since its missing in schema", column);
+        continue;
+      }
+      // Range index buckets the dictionary ids, and sorted columns already answer range predicates with doc ranges
+      ColumnIndexCreationInfo indexCreationInfo = indexCreationInfoMap.get(column);
+      if (!dictionaryCreatorMap.containsKey(column) || indexCreationInfo.isSorted()) {
+        LOGGER.warn("Skipping range index on column:{} since it is sorted or has no dictionary", column);
+        continue;
+      }
+      rangeIndexCreatorMap.put(column, new RangeIndexCreator(file, indexCreationInfo.getDistinctValueCount(),
+          schema.getFieldSpecFor(column)));
+    }
+  }
+
+  /**
+   * Builds the dictionaries of all the columns, and records whether the columns are still sorted once their values
+   * are padded in the dictionary.
+   */
+  private void buildDictionaries(@Nullable ExecutorService executorService) throws Exception {
+    if (executorService == null) {
+      for (Map.Entry<String, SegmentDictionaryCreator> entry : dictionaryCreatorMap.entrySet()) {
+        buildDictionary(entry.getKey(), entry.getValue());
+      }
+      return;
+    }
+    List<Future<Void>> futures = new ArrayList<>(dictionaryCreatorMap.size());
+    for (final Map.Entry<String, SegmentDictionaryCreator> entry : dictionaryCreatorMap.entrySet()) {
+      futures.add(executorService.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          buildDictionary(entry.getKey(), entry.getValue());
+          return null;
+        }
+      }));
+    }
+    for (Future<Void> future : futures) {
+      future.get();
+    }
+  }
+
+  private void buildDictionary(String column, SegmentDictionaryCreator dictionaryCreator) throws Exception {
+    ColumnIndexCreationInfo indexCreationInfo = indexCreationInfoMap.get(column);
+    boolean[] isSorted = new boolean[1];
+    isSorted[0] = indexCreationInfo.isSorted();
+    dictionaryCreator.build(isSorted);
+    indexCreationInfo.setSorted(isSorted[0]);
   }
 
   /**
@@ -225,6 +308,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
             if (invertedIndexCreatorMap.containsKey(column)) {
               invertedIndexCreatorMap.get(column).add(docIdCounter, dictionaryIndex);
             }
+            if (rangeIndexCreatorMap.containsKey(column)) {
+              rangeIndexCreatorMap.get(column).add(docIdCounter, dictionaryIndex);
+            }
           } else {
             ((SingleValueRawIndexCreator) forwardIndexCreatorMap.get(column)).index(docIdCounter, columnValueToIndex);
           }
@@ -236,6 +322,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
           if (invertedIndexCreatorMap.containsKey(column)) {
             invertedIndexCreatorMap.get(column).add(docIdCounter, dictionaryIndex);
           }
+          if (rangeIndexCreatorMap.containsKey(column)) {
+            rangeIndexCreatorMap.get(column).add(docIdCounter, dictionaryIndex);
+          }
         }
       } catch (Exception e) {
         throw new RuntimeException("Exception while indexing column:"+ column, e);
@@ -244,6 +333,83 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     docIdCounter++;
   }
 
+  /**
+   * Indexes all the documents of a single-value dictionary-encoded column at once, instead of row by row.
+   * <p>The documents are given as ids into a source dictionary (e.g. the dictionary of a realtime segment) with the
+   * given values, which are mapped to the ids of the segment dictionary once per value. Different columns can be
+   * indexed concurrently, but a column must not be indexed by rows as well.
+   *
+   * @param column Column to index
+   * @param dictionaryValues Values of the source dictionary, indexed by source dictionary id, null for the ids not
+   *                         used by any document
+   * @param dictIds Source dictionary id of each document, in document order
+   */
+  public void indexColumn(String column, Object[] dictionaryValues, int[] dictIds) {
+    SingleValueForwardIndexCreator forwardIndexCreator =
+        (SingleValueForwardIndexCreator) forwardIndexCreatorMap.get(column);
+    InvertedIndexCreator invertedIndexCreator = invertedIndexCreatorMap.get(column);
+    InvertedIndexCreator rangeIndexCreator = rangeIndexCreatorMap.get(column);
+    int[] dictIdMapping = getDictIdMapping(column, dictionaryValues);
+    int numDocs = dictIds.length;
+    for (int docId = 0; docId < numDocs; docId++) {
+      int dictId = dictIdMapping[dictIds[docId]];
+      forwardIndexCreator.index(docId, dictId);
+      if (invertedIndexCreator != null) {
+        invertedIndexCreator.add(docId, dictId);
+      }
+      if (rangeIndexCreator != null) {
+        rangeIndexCreator.add(docId, dictId);
+      }
+    }
+  }
+
+  /**
+   * Multi-value version of {@link #indexColumn(String, Object[], int[])}.
+   *
+   * @param column Column to index
+   * @param dictionaryValues Values of the source dictionary, indexed by source dictionary id, null for the ids not
+   *                         used by any document
+   * @param dictIds Source dictionary ids of each document, in document order
+   */
+  public void indexColumn(String column, Object[] dictionaryValues, int[][] dictIds) {
+    MultiValueForwardIndexCreator forwardIndexCreator =
+        (MultiValueForwardIndexCreator) forwardIndexCreatorMap.get(column);
+    InvertedIndexCreator invertedIndexCreator = invertedIndexCreatorMap.get(column);
+    InvertedIndexCreator rangeIndexCreator = rangeIndexCreatorMap.get(column);
+    int[] dictIdMapping = getDictIdMapping(column, dictionaryValues);
+    int numDocs = dictIds.length;
+    for (int docId = 0; docId < numDocs; docId++) {
+      int[] docDictIds = dictIds[docId];
+      int numValues = docDictIds.length;
+      int[] mappedDictIds = new int[numValues];
+      for (int i = 0; i < numValues; i++) {
+        mappedDictIds[i] = dictIdMapping[docDictIds[i]];
+      }
+      forwardIndexCreator.index(docId, mappedDictIds);
+      if (invertedIndexCreator != null) {
+        invertedIndexCreator.add(docId, mappedDictIds);
+      }
+      if (rangeIndexCreator != null) {
+        rangeIndexCreator.add(docId, mappedDictIds);
+      }
+    }
+  }
+
+  /**
+   * Returns the id in the segment dictionary of each value of a source dictionary, -1 for null values.
+   */
+  private int[] getDictIdMapping(String column, Object[] dictionaryValues) {
+    SegmentDictionaryCreator dictionaryCreator = dictionaryCreatorMap.get(column);
+    Preconditions.checkState(dictionaryCreator != null, "No dictionary for column: %s", column);
+    int cardinality = dictionaryValues.length;
+    int[] dictIdMapping = new int[cardinality];
+    for (int i = 0; i < cardinality; i++) {
+      Object value = dictionaryValues[i];
+      dictIdMapping[i] = value != null ? dictionaryCreator.indexOfSV(value) : -1;
+    }
+    return dictIdMapping;
+  }
+
   @Override
   public void setSegmentName(String segmentName) {
     this.segmentName = segmentName;
@@ -263,6 +429,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     for (final String invertedColumn : invertedIndexCreatorMap.keySet()) {
       invertedIndexCreatorMap.get(invertedColumn).seal();
     }
+    for (InvertedIndexCreator rangeIndexCreator : rangeIndexCreatorMap.values()) {
+      rangeIndexCreator.seal();
+    }
     writeMetadata();
   }
 
@@ -397,6 +566,24 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     }
     properties.setProperty(V1Constants.MetadataKeys.Column.getKeyFor(column, DEFAULT_NULL_VALUE),
         String.valueOf(defaultNullValue));
+
+    // Min/max values of numeric columns, used to prune the segments not matching the query filter
+    Object minValue = columnIndexCreationInfo.getMin();
+    Object maxValue = columnIndexCreationInfo.getMax();
+    if (fieldSpec.getDataType().isNumber() && minValue != null && maxValue != null) {
+      properties.setProperty(getKeyFor(column, MIN_VALUE), String.valueOf(minValue));
+      properties.setProperty(getKeyFor(column, MAX_VALUE), String.valueOf(maxValue));
+    }
+
+    // Partitions contained in the segment for partitioned columns, used to prune the segments at the broker
+    ColumnPartitionMetadata partitionMetadata = columnIndexCreationInfo.getPartitionMetadata();
+    if (partitionMetadata != null) {
+      List<Integer> partitions = new ArrayList<>(partitionMetadata.getPartitions());
+      Collections.sort(partitions);
+      properties.setProperty(getKeyFor(column, PARTITION_FUNCTION), partitionMetadata.getFunctionName());
+      properties.setProperty(getKeyFor(column, NUM_PARTITIONS), String.valueOf(partitionMetadata.getNumPartitions()));
+      properties.setProperty(getKeyFor(column, PARTITION_VALUES), partitions);
+    }
   }
 
   public static void removeColumnMetadataInfo(PropertiesConfiguration properties, String column) {
@@ -417,6 +604,11 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     properties.clearProperty(getKeyFor(column, TOTAL_NUMBER_OF_ENTRIES));
     properties.clearProperty(getKeyFor(column, IS_AUTO_GENERATED));
     properties.clearProperty(getKeyFor(column, DEFAULT_NULL_VALUE));
+    properties.clearProperty(getKeyFor(column, MIN_VALUE));
+    properties.clearProperty(getKeyFor(column, MAX_VALUE));
+    properties.clearProperty(getKeyFor(column, PARTITION_FUNCTION));
+    properties.clearProperty(getKeyFor(column, NUM_PARTITIONS));
+    properties.clearProperty(getKeyFor(column, PARTITION_VALUES));
   }
 
   /**
@@ -19,23 +19,37 @@ import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.mutable.MutableLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.HashBiMap;
+import com.linkedin.pinot.common.config.ColumnPartitionConfig;
+import com.linkedin.pinot.common.config.SegmentPartitionConfig;
 import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.common.data.MetricFieldSpec;
 import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.common.data.StarTreeIndexSpec;
+import com.linkedin.pinot.common.metadata.segment.ColumnPartitionMetadata;
+import com.linkedin.pinot.common.partition.PartitionFunction;
+import com.linkedin.pinot.common.partition.PartitionFunctionFactory;
 import com.linkedin.pinot.common.utils.SegmentNameBuilder;
 import com.linkedin.pinot.core.data.GenericRow;
 import com.linkedin.pinot.core.data.extractors.FieldExtractorFactory;
@@ -46,6 +60,7 @@ import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
 import com.linkedin.pinot.core.segment.creator.AbstractColumnStatisticsCollector;
 import com.linkedin.pinot.core.segment.creator.ColumnIndexCreationInfo;
 import com.linkedin.pinot.core.segment.creator.ColumnStatistics;
+import com.linkedin.pinot.core.segment.creator.ColumnarSegmentSource;
 import com.linkedin.pinot.core.segment.creator.ForwardIndexType;
 import com.linkedin.pinot.core.segment.creator.InvertedIndexType;
 import com.linkedin.pinot.core.segment.creator.SegmentCreator;
@@ -94,6 +109,12 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
   // This will be false if HLL column is provided to us
   boolean createHllIndex = false;
 
+  // Source of the segment when it is created by columns instead of rows, null otherwise
+  ColumnarSegmentSource columnarSource;
+  int numColumnarIndexingThreads;
+  // Whether the input is read once and spooled off-heap, to create the segment by columns
+  boolean singlePass = false;
+
   private File starTreeTempDir;
 
   @Override
@@ -127,9 +148,14 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
 
     extractor = (PlainFieldExtractor) FieldExtractorFactory.getPlainFieldExtractor(dataSchema);
 
-    // Initialize stats collection
-    statsCollector = new SegmentPreIndexStatsCollectorImpl(recordReader.getSchema());
-    statsCollector.init();
+    // Segments with star tree or raw indexes cannot be created by columns
+    singlePass =
+        config.getNumIndexingThreads() > 0 && !createStarTree && config.getRawIndexCreationColumns().isEmpty();
+    if (!singlePass) {
+      // Initialize stats collection
+      statsCollector = new SegmentPreIndexStatsCollectorImpl(recordReader.getSchema());
+      statsCollector.init();
+    }
 
     // Initialize index creation
     segmentIndexCreationInfo = new SegmentIndexCreationInfo();
@@ -138,6 +164,32 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     // Check if has star tree
     indexCreator = new SegmentColumnarIndexCreator();
 
+    initTempDirs();
+  }
+
+  /**
+   * Initializes the creation of a segment from a source of dictionary-encoded columns. The segment is built column by
+   * column on the given number of threads, without materializing rows. Star trees and raw indexes are not supported.
+   */
+  public void init(SegmentGeneratorConfig config, ColumnarSegmentSource source, int numThreads) throws Exception {
+    Preconditions.checkArgument(!config.isEnableStarTreeIndex(),
+        "Star tree index is not supported when creating a segment by columns");
+    Preconditions.checkArgument(config.getRawIndexCreationColumns().isEmpty(),
+        "Raw indexes are not supported when creating a segment by columns");
+    this.config = config;
+    columnarSource = source;
+    numColumnarIndexingThreads = numThreads;
+    dataSchema = source.getSchema();
+
+    // Initialize index creation
+    segmentIndexCreationInfo = new SegmentIndexCreationInfo();
+    indexCreationInfoMap = new HashMap<String, ColumnIndexCreationInfo>();
+    indexCreator = new SegmentColumnarIndexCreator();
+
+    initTempDirs();
+  }
+
+  private void initTempDirs() {
     // Ensure that the output directory exists
     final File indexDir = new File(config.getOutDir());
     if (!indexDir.exists()) {
@@ -183,7 +235,11 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
 
   @Override
   public void build() throws Exception {
-    if (createStarTree) {
+    if (columnarSource != null) {
+      buildColumnar();
+    } else if (singlePass) {
+      buildSinglePass();
+    } else if (createStarTree) {
       buildStarTree();
     } else {
       buildRaw();
@@ -386,6 +442,49 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     }
     recordReader.close();
     LOGGER.info("Finished records indexing in IndexCreator!");
+    logExtractorStats();
+
+    handlePostCreation();
+  }
+
+  /**
+   * Reads the input once, spooling the rows into off-heap dictionary-encoded columns, then creates the segment by
+   * columns in parallel.
+   */
+  private void buildSinglePass() throws Exception {
+    OffHeapColumnarSpool spool = new OffHeapColumnarSpool(dataSchema, config.getTableName());
+    try {
+      GenericRow readRow = new GenericRow();
+      GenericRow transformedRow = new GenericRow();
+      while (recordReader.hasNext()) {
+        long start = System.currentTimeMillis();
+        transformedRow = readNextRowSanitized(readRow, transformedRow);
+        long stop = System.currentTimeMillis();
+        spool.addRow(transformedRow);
+        long stop1 = System.currentTimeMillis();
+        totalRecordReadTime += (stop - start);
+        totalIndexTime += (stop1 - stop);
+      }
+      if (spool.getNumDocs() == 0) {
+        // Columns have no statistics without values, so empty segments are created by rows
+        statsCollector = new SegmentPreIndexStatsCollectorImpl(recordReader.getSchema());
+        statsCollector.init();
+        buildRaw();
+        return;
+      }
+      recordReader.close();
+      LOGGER.info("Spooled {} documents", spool.getNumDocs());
+      logExtractorStats();
+
+      columnarSource = spool;
+      numColumnarIndexingThreads = config.getNumIndexingThreads();
+      buildColumnar();
+    } finally {
+      spool.close();
+    }
+  }
+
+  private void logExtractorStats() {
     int numErrors, numConversions, numNulls, numNullCols;
     if ((numErrors = extractor.getTotalErrors()) > 0) {
       LOGGER.warn("Index creator for schema {} had {} rows with errors", dataSchema.getSchemaName(), numErrors);
@@ -406,10 +505,90 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     if ((numNullCols = extractor.getTotalNullCols()) > 0) {
       LOGGER.info("Index creator for schema {} had {}  null columns", dataSchema.getSchemaName(), numNullCols);
     }
+  }
+
+  /**
+   * Builds the segment from the columnar source: the statistics of all the columns are gathered in parallel, then the
+   * dictionaries of all the columns are built in parallel, and then all the columns are indexed in parallel.
+   */
+  private void buildColumnar() throws Exception {
+    long start = System.currentTimeMillis();
+    totalDocs = columnarSource.getNumDocs();
+    totalRawDocs = totalDocs;
+    List<String> columns = new ArrayList<>(dataSchema.getColumnNames());
+    int numColumns = columns.size();
+    ExecutorService executorService =
+        Executors.newFixedThreadPool(Math.max(1, Math.min(numColumnarIndexingThreads, numColumns)));
+    try {
+      List<Future<ColumnIndexCreationInfo>> statsFutures = new ArrayList<>(numColumns);
+      for (final String column : columns) {
+        statsFutures.add(executorService.submit(new Callable<ColumnIndexCreationInfo>() {
+          @Override
+          public ColumnIndexCreationInfo call() throws Exception {
+            return columnarSource.getColumnIndexCreationInfo(column);
+          }
+        }));
+      }
+      for (int i = 0; i < numColumns; i++) {
+        indexCreationInfoMap.put(columns.get(i), getResult(statsFutures.get(i)));
+      }
+      recordPartitions();
+      segmentIndexCreationInfo.setTotalDocs(totalDocs);
+      segmentIndexCreationInfo.setTotalRawDocs(totalRawDocs);
+      segmentIndexCreationInfo.setTotalAggDocs(totalAggDocs);
+      segmentIndexCreationInfo.setStarTreeEnabled(false);
+      if (extractor != null) {
+        segmentIndexCreationInfo.setTotalConversions(extractor.getTotalConversions());
+        segmentIndexCreationInfo.setTotalErrors(extractor.getTotalErrors());
+        segmentIndexCreationInfo.setTotalNullCols(extractor.getTotalNullCols());
+        segmentIndexCreationInfo.setTotalNulls(extractor.getTotalNulls());
+      }
+      long statsFinishTime = System.currentTimeMillis();
+      totalStatsCollectorTime += statsFinishTime - start;
+      LOGGER.info("Collected stats for {} columns and {} documents", numColumns, totalDocs);
+
+      // Initialize the index creation using the per-column statistics information, and build the dictionaries
+      final SegmentColumnarIndexCreator columnarIndexCreator = (SegmentColumnarIndexCreator) indexCreator;
+      columnarIndexCreator.init(config, segmentIndexCreationInfo, indexCreationInfoMap, dataSchema, tempIndexDir,
+          executorService);
+
+      List<Future<Void>> indexFutures = new ArrayList<>(numColumns);
+      for (final String column : columns) {
+        indexFutures.add(executorService.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            columnarSource.indexColumn(column, columnarIndexCreator);
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> indexFuture : indexFutures) {
+        getResult(indexFuture);
+      }
+      totalIndexTime += System.currentTimeMillis() - statsFinishTime;
+      LOGGER.info("Finished columns indexing in IndexCreator!");
+    } finally {
+      executorService.shutdownNow();
+    }
 
     handlePostCreation();
   }
 
+  /**
+   * Waits for the result of the given future, rethrowing the exception thrown by its task if any.
+   */
+  private static <T> T getResult(Future<T> future) throws Exception {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      throw e;
+    }
+  }
+
   private void handlePostCreation() throws Exception {
     // Build the segment name, if necessary
     final String timeColumn = config.getTimeColumnName();
@@ -418,8 +597,8 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
       segmentName = config.getSegmentName();
     } else {
       if (timeColumn != null && timeColumn.length() > 0) {
-        final Object minTimeValue = statsCollector.getColumnProfileFor(timeColumn).getMinValue();
-        final Object maxTimeValue = statsCollector.getColumnProfileFor(timeColumn).getMaxValue();
+        final Object minTimeValue = indexCreationInfoMap.get(timeColumn).getMin();
+        final Object maxTimeValue = indexCreationInfoMap.get(timeColumn).getMax();
         segmentName = SegmentNameBuilder
             .buildBasic(config.getTableName(), minTimeValue, maxTimeValue, config.getSegmentNamePostfix());
       } else {
@@ -450,7 +629,8 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
 
     // Persist creation metadata to disk
     persistCreationMeta(segmentOutputDir, crc);
-    Map<String, MutableLong> nullCountMap = recordReader.getNullCountMap();
+    // Null counts are recorded in the column statistics, which are not collected when creating a segment by columns
+    Map<String, MutableLong> nullCountMap = statsCollector != null ? recordReader.getNullCountMap() : null;
     if (nullCountMap != null) {
       for (Map.Entry<String, MutableLong> entry : nullCountMap.entrySet()) {
         AbstractColumnStatisticsCollector columnStatisticsCollector =
@@ -465,6 +645,7 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
   }
 
   public ColumnStatistics getColumnStatisticsCollector(final String columnName) throws Exception {
+    Preconditions.checkState(statsCollector != null, "No statistics collector for a segment created by columns");
     return statsCollector.getColumnProfileFor(columnName);
   }
 
@@ -515,6 +696,7 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
           statsCollector.getColumnProfileFor(column).getLengthOfLargestElement(), false/*isAutoGenerated*/,
           dataSchema.getFieldSpecFor(column).getDefaultNullValue()));
     }
+    recordPartitions();
     segmentIndexCreationInfo.setTotalDocs(totalDocs);
     segmentIndexCreationInfo.setTotalRawDocs(totalRawDocs);
     segmentIndexCreationInfo.setTotalAggDocs(totalAggDocs);
@@ -525,6 +707,37 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     segmentIndexCreationInfo.setTotalNulls(extractor.getTotalNulls());
   }
 
+  /**
+   * Records the partitions contained in the segment for the partitioned columns, computed from their unique values.
+   */
+  private void recordPartitions() {
+    SegmentPartitionConfig segmentPartitionConfig = config.getSegmentPartitionConfig();
+    if (segmentPartitionConfig == null) {
+      return;
+    }
+    for (Map.Entry<String, ColumnPartitionConfig> entry : segmentPartitionConfig.getColumnPartitionMap().entrySet()) {
+      String column = entry.getKey();
+      ColumnIndexCreationInfo columnIndexCreationInfo = indexCreationInfoMap.get(column);
+      if (columnIndexCreationInfo == null) {
+        LOGGER.warn("Cannot find partitioned column: {} in schema, skipping it", column);
+        continue;
+      }
+      ColumnPartitionConfig columnPartitionConfig = entry.getValue();
+      PartitionFunction partitionFunction = PartitionFunctionFactory.getPartitionFunction(
+          columnPartitionConfig.getFunctionName(), columnPartitionConfig.getNumPartitions(),
+          dataSchema.getFieldSpecFor(column).getDataType());
+      Object sortedUniqueValues = columnIndexCreationInfo.getSortedUniqueElementsArray();
+      int numValues = Array.getLength(sortedUniqueValues);
+      Set<Integer> partitions = new HashSet<>();
+      for (int i = 0; i < numValues; i++) {
+        partitions.add(partitionFunction.getPartition(Array.get(sortedUniqueValues, i)));
+      }
+      columnIndexCreationInfo.setPartitionMetadata(
+          new ColumnPartitionMetadata(columnPartitionConfig.getFunctionName(), columnPartitionConfig.getNumPartitions(),
+              partitions));
+    }
+  }
+
   @Override
   /**
    * Returns the name of the segment associated with this index creation driver.
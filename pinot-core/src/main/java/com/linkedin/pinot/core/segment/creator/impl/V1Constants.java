@@ -91,6 +91,8 @@ public class V1Constants {
     public static final String BITMAP_INVERTED_INDEX_FILE_EXTENSION = ".bitmap.inv";
     public static final String SORTED_INVERTED_INDEX_FILE_EXTENSION = ".sorted.inv";
     public static final String INTARRAY_INVERTED_INDEX_FILE_EXTENSION = ".intArray.inv";
+    public static final String BLOOM_FILTER_FILE_EXTENSION = ".bloom";
+    public static final String RANGE_INDEX_FILE_EXTENSION = ".range";
   }
 
   public static class MetadataKeys {
@@ -159,6 +161,11 @@ public class V1Constants {
       public static final String DEFAULT_NULL_VALUE = "defaultNullValue";
       public static final String DERIVED_METRIC_TYPE = "derivedMetricType";
       public static final String ORIGIN_COLUMN = "originColumn";
+      public static final String MIN_VALUE = "minValue";
+      public static final String MAX_VALUE = "maxValue";
+      public static final String PARTITION_FUNCTION = "partitionFunction";
+      public static final String NUM_PARTITIONS = "numPartitions";
+      public static final String PARTITION_VALUES = "partitionValues";
 
       private static final String COLUMN_PROPS_KEY_PREFIX = "column.";
       public static String getKeyFor(String column, String key) {
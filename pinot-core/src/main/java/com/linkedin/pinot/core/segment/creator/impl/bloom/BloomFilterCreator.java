@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.creator.impl.bloom;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+
+
+/**
+ * Creator for the bloom filter of a column, which contains the string representation of all the distinct values of
+ * the column. The bloom filter is used to skip the segments and filters which cannot match an equality predicate
+ * without looking up the dictionary.
+ * <p>The bloom filter is serialized with {@link BloomFilter#writeTo(OutputStream)}, and can be read with
+ * <code>BloomFilterReader</code>.
+ */
+public class BloomFilterCreator {
+  public static final double DEFAULT_FALSE_POSITIVE_PROBABILITY = 0.05;
+
+  private final File _bloomFilterFile;
+  private final BloomFilter<CharSequence> _bloomFilter;
+
+  /**
+   * @param indexDir index directory.
+   * @param column column name.
+   * @param cardinality number of distinct values of the column.
+   */
+  public BloomFilterCreator(File indexDir, String column, int cardinality) {
+    _bloomFilterFile = new File(indexDir, column + V1Constants.Indexes.BLOOM_FILTER_FILE_EXTENSION);
+    _bloomFilter = BloomFilter.create(Funnels.stringFunnel(Charsets.UTF_8), Math.max(cardinality, 1),
+        DEFAULT_FALSE_POSITIVE_PROBABILITY);
+  }
+
+  /**
+   * Add a value, the string representation of the value must be the same as the one of the stored data type.
+   */
+  public void add(Object value) {
+    _bloomFilter.put(value.toString());
+  }
+
+  /**
+   * Add all the values of an array, either an array of primitives or an array of objects.
+   */
+  public void addAll(Object values) {
+    int length = Array.getLength(values);
+    for (int i = 0; i < length; i++) {
+      add(Array.get(values, i));
+    }
+  }
+
+  public void seal()
+      throws IOException {
+    try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(_bloomFilterFile))) {
+      _bloomFilter.writeTo(outputStream);
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.creator.impl.inv;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.core.segment.creator.InvertedIndexCreator;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Creator for the range index of a dictionary encoded column.
+ * <p>The sorted dictionary ids are split into buckets of consecutive ids (i.e. consecutive value ranges), and the
+ * index stores one bitmap of the docs per bucket. A range predicate is then answered by the union of the bitmaps of
+ * the buckets it fully covers, plus the docs of the (at most two) boundary buckets that match after checking their
+ * dictionary ids in the forward index.
+ * <p>File format (all ints are big endian):
+ * <ul>
+ *   <li>Number of buckets</li>
+ *   <li>(number of buckets + 1) bucket start dictionary ids, the last one being the cardinality</li>
+ *   <li>(number of buckets + 1) bitmap offsets from the start of the file, the last one being the file size</li>
+ *   <li>Serialized bitmaps</li>
+ * </ul>
+ */
+public class RangeIndexCreator implements InvertedIndexCreator {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RangeIndexCreator.class);
+
+  public static final int DEFAULT_NUM_BUCKETS = 128;
+
+  private final File _rangeIndexFile;
+  private final FieldSpec _spec;
+  private final int _cardinality;
+  private final int _numBuckets;
+  private final MutableRoaringBitmap[] _bitmaps;
+  private final long _start;
+
+  public RangeIndexCreator(File indexDir, int cardinality, FieldSpec spec) {
+    this(indexDir, cardinality, DEFAULT_NUM_BUCKETS, spec);
+  }
+
+  public RangeIndexCreator(File indexDir, int cardinality, int numBuckets, FieldSpec spec) {
+    _rangeIndexFile = new File(indexDir, spec.getName() + V1Constants.Indexes.RANGE_INDEX_FILE_EXTENSION);
+    _spec = spec;
+    _cardinality = cardinality;
+    _numBuckets = Math.max(Math.min(cardinality, numBuckets), 1);
+    _bitmaps = new MutableRoaringBitmap[_numBuckets];
+    for (int i = 0; i < _numBuckets; i++) {
+      _bitmaps[i] = new MutableRoaringBitmap();
+    }
+    _start = System.currentTimeMillis();
+  }
+
+  private int getBucketId(int dictionaryId) {
+    return (int) ((long) dictionaryId * _numBuckets / _cardinality);
+  }
+
+  private int getBucketStartDictionaryId(int bucketId) {
+    // Smallest dictionary id d such that d * numBuckets / cardinality >= bucketId
+    return (int) (((long) bucketId * _cardinality + _numBuckets - 1) / _numBuckets);
+  }
+
+  @Override
+  public void add(int docId, int dictionaryId) {
+    _bitmaps[getBucketId(dictionaryId)].add(docId);
+  }
+
+  @Override
+  public void add(int docId, int[] dictionaryIds) {
+    add(docId, dictionaryIds, dictionaryIds.length);
+  }
+
+  @Override
+  public void add(int docId, int[] dictionaryIds, int length) {
+    for (int i = 0; i < length; i++) {
+      _bitmaps[getBucketId(dictionaryIds[i])].add(docId);
+    }
+  }
+
+  @Override
+  public long totalTimeTakeSoFar() {
+    return System.currentTimeMillis() - _start;
+  }
+
+  @Override
+  public void seal()
+      throws IOException {
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(_rangeIndexFile)))) {
+      out.writeInt(_numBuckets);
+      for (int i = 0; i < _numBuckets; i++) {
+        out.writeInt(getBucketStartDictionaryId(i));
+      }
+      out.writeInt(_cardinality);
+
+      int offset = 4 * (1 + 2 * (_numBuckets + 1));
+      out.writeInt(offset);
+      for (MutableRoaringBitmap bitmap : _bitmaps) {
+        bitmap.runOptimize();
+        offset += bitmap.serializedSizeInBytes();
+        out.writeInt(offset);
+      }
+      for (MutableRoaringBitmap bitmap : _bitmaps) {
+        bitmap.serialize(out);
+      }
+    }
+    LOGGER.debug("Persisted range index for column: {} with {} buckets in {}", _spec.getName(), _numBuckets,
+        _rangeIndexFile.getAbsolutePath());
+  }
+}
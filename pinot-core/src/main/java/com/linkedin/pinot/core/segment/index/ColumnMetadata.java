@@ -22,9 +22,13 @@ import com.linkedin.pinot.common.data.FieldSpec.FieldType;
 import com.linkedin.pinot.common.data.MetricFieldSpec;
 import com.linkedin.pinot.common.data.MetricFieldSpec.DerivedMetricType;
 import com.linkedin.pinot.common.data.TimeFieldSpec;
+import com.linkedin.pinot.common.metadata.segment.ColumnPartitionMetadata;
 import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
 import com.linkedin.pinot.core.startree.hll.HllUtil;
 import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.commons.lang.StringEscapeUtils;
@@ -66,6 +70,9 @@ public class ColumnMetadata {
   private final DerivedMetricType derivedMetricType;
   private final int fieldSize;
   private final String originColumnName;
+  private final Comparable minValue;
+  private final Comparable maxValue;
+  private final ColumnPartitionMetadata partitionMetadata;
 
   public static ColumnMetadata fromPropertiesConfiguration(String column, PropertiesConfiguration config) {
     Builder builder = new Builder();
@@ -97,6 +104,28 @@ public class ColumnMetadata {
     }
     builder.setPaddingCharacter(paddingCharacter);
 
+    // Min/max values are only recorded for numeric columns, and missing in the segments created before
+    String minString = config.getString(getKeyFor(column, MIN_VALUE), null);
+    String maxString = config.getString(getKeyFor(column, MAX_VALUE), null);
+    if (minString != null && maxString != null) {
+      DataType storedType = DataType.valueOf(config.getString(getKeyFor(column, DATA_TYPE)).toUpperCase())
+          .getStoredType();
+      builder.setMinValue(parseValue(storedType, minString));
+      builder.setMaxValue(parseValue(storedType, maxString));
+    }
+
+    // Partitions are only recorded for the partitioned columns
+    String partitionFunction = config.getString(getKeyFor(column, PARTITION_FUNCTION), null);
+    if (partitionFunction != null) {
+      int numPartitions = config.getInt(getKeyFor(column, NUM_PARTITIONS));
+      List partitionValues = config.getList(getKeyFor(column, PARTITION_VALUES));
+      Set<Integer> partitions = new HashSet<>();
+      for (Object partitionValue : partitionValues) {
+        partitions.add(Integer.valueOf(partitionValue.toString()));
+      }
+      builder.setPartitionMetadata(new ColumnPartitionMetadata(partitionFunction, numPartitions, partitions));
+    }
+
     // DERIVED_METRIC_TYPE property is used to check whether this field is derived or not
     // ORIGIN_COLUMN property is used to indicate the origin field of this derived metric
     String typeStr = config.getString(getKeyFor(column, DERIVED_METRIC_TYPE), null);
@@ -125,6 +154,21 @@ public class ColumnMetadata {
     return builder.build();
   }
 
+  private static Comparable parseValue(DataType dataType, String value) {
+    switch (dataType) {
+      case INT:
+        return Integer.valueOf(value);
+      case LONG:
+        return Long.valueOf(value);
+      case FLOAT:
+        return Float.valueOf(value);
+      case DOUBLE:
+        return Double.valueOf(value);
+      default:
+        throw new IllegalArgumentException("Unsupported data type: " + dataType + " for min/max value");
+    }
+  }
+
   public static class Builder {
     private String columnName;
     private int cardinality;
@@ -149,6 +193,9 @@ public class ColumnMetadata {
     private DerivedMetricType derivedMetricType;
     private int fieldSize;
     private String originColumnName;
+    private Comparable minValue;
+    private Comparable maxValue;
+    private ColumnPartitionMetadata partitionMetadata;
 
     public Builder setColumnName(String columnName) {
       this.columnName = columnName;
@@ -265,11 +312,27 @@ public class ColumnMetadata {
       return this;
     }
 
+    public Builder setMinValue(Comparable minValue) {
+      this.minValue = minValue;
+      return this;
+    }
+
+    public Builder setMaxValue(Comparable maxValue) {
+      this.maxValue = maxValue;
+      return this;
+    }
+
+    public Builder setPartitionMetadata(ColumnPartitionMetadata partitionMetadata) {
+      this.partitionMetadata = partitionMetadata;
+      return this;
+    }
+
     public ColumnMetadata build() {
       return new ColumnMetadata(columnName, cardinality, totalDocs, totalRawDocs, totalAggDocs, dataType,
           bitsPerElement, stringColumnMaxLength, fieldType, isSorted, containsNulls, hasDictionary, hasInvertedIndex,
           isSingleValue, maxNumberOfMultiValues, totalNumberOfEntries, isAutoGenerated, defaultNullValueString,
-          timeUnit, paddingCharacter, derivedMetricType, fieldSize, originColumnName);
+          timeUnit, paddingCharacter, derivedMetricType, fieldSize, originColumnName, minValue, maxValue,
+          partitionMetadata);
     }
   }
 
@@ -278,7 +341,7 @@ public class ColumnMetadata {
       boolean hasNulls, boolean hasDictionary, boolean hasInvertedIndex, boolean isSingleValue,
       int maxNumberOfMultiValues, int totalNumberOfEntries, boolean isAutoGenerated, String defaultNullValueString,
       TimeUnit timeUnit, char paddingCharacter, DerivedMetricType derivedMetricType, int fieldSize,
-      String originColumnName) {
+      String originColumnName, Comparable minValue, Comparable maxValue, ColumnPartitionMetadata partitionMetadata) {
     this.columnName = columnName;
     this.cardinality = cardinality;
     this.totalDocs = totalDocs;
@@ -302,6 +365,9 @@ public class ColumnMetadata {
     this.derivedMetricType = derivedMetricType;
     this.fieldSize = fieldSize;
     this.originColumnName = originColumnName;
+    this.minValue = minValue;
+    this.maxValue = maxValue;
+    this.partitionMetadata = partitionMetadata;
 
     switch (fieldType) {
       case DIMENSION:
@@ -410,6 +476,27 @@ public class ColumnMetadata {
     return originColumnName;
   }
 
+  /**
+   * Returns the min value of the column, or null if not recorded in the segment metadata.
+   */
+  public Comparable getMinValue() {
+    return minValue;
+  }
+
+  /**
+   * Returns the max value of the column, or null if not recorded in the segment metadata.
+   */
+  public Comparable getMaxValue() {
+    return maxValue;
+  }
+
+  /**
+   * Returns the partitions contained in the segment, or null if the column is not partitioned.
+   */
+  public ColumnPartitionMetadata getPartitionMetadata() {
+    return partitionMetadata;
+  }
+
   public FieldSpec getFieldSpec() {
     return fieldSpec;
   }
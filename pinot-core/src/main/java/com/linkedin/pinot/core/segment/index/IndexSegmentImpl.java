@@ -25,6 +25,7 @@ import com.linkedin.pinot.core.data.GenericRow;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.indexsegment.IndexType;
 import com.linkedin.pinot.core.io.reader.DataFileReader;
+import com.linkedin.pinot.core.query.cache.FilterBitmapCache;
 import com.linkedin.pinot.core.segment.index.column.ColumnIndexContainer;
 import com.linkedin.pinot.core.segment.index.data.source.ColumnDataSourceImpl;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
@@ -35,6 +36,7 @@ import com.linkedin.pinot.core.startree.StarTreeInterf;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,6 +47,7 @@ public class IndexSegmentImpl implements IndexSegment {
   private final SegmentMetadataImpl segmentMetadata;
   private final Map<String, ColumnIndexContainer> indexContainerMap;
   private final StarTreeInterf starTree;
+  private volatile FilterBitmapCache filterBitmapCache;
 
   public IndexSegmentImpl(SegmentDirectory segmentDirectory, SegmentMetadataImpl segmentMetadata,
       Map<String, ColumnIndexContainer> columnIndexContainerMap, StarTreeInterf starTree) throws Exception {
@@ -67,6 +70,18 @@ public class IndexSegmentImpl implements IndexSegment {
     return indexContainerMap.get(column).getInvertedIndex();
   }
 
+  /**
+   * Returns the cache for the inverted index based filter bitmaps of this segment, or <code>null</code> if disabled.
+   */
+  @Nullable
+  public FilterBitmapCache getFilterBitmapCache() {
+    return filterBitmapCache;
+  }
+
+  public void setFilterBitmapCache(@Nullable FilterBitmapCache filterBitmapCache) {
+    this.filterBitmapCache = filterBitmapCache;
+  }
+
   @Override
   public IndexType getIndexType() {
     return IndexType.COLUMNAR;
@@ -104,6 +119,10 @@ public class IndexSegmentImpl implements IndexSegment {
   @Override
   public void destroy() {
     LOGGER.info("Trying to destroy segment : {}", this.getSegmentName());
+    if (filterBitmapCache != null) {
+      filterBitmapCache.clear();
+      filterBitmapCache = null;
+    }
     for (String column : indexContainerMap.keySet()) {
       ColumnIndexContainer columnIndexContainer = indexContainerMap.get(column);
 
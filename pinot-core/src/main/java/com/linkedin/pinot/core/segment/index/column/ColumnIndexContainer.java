@@ -32,9 +32,11 @@ import com.linkedin.pinot.core.io.reader.impl.v1.VarByteChunkSingleValueReader;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueFixedByteRawIndexCreator;
 import com.linkedin.pinot.core.segment.index.ColumnMetadata;
 import com.linkedin.pinot.core.segment.index.readers.BitmapInvertedIndexReader;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
 import com.linkedin.pinot.core.segment.index.readers.DoubleDictionary;
 import com.linkedin.pinot.core.segment.index.readers.FloatDictionary;
 import com.linkedin.pinot.core.segment.index.readers.ImmutableDictionaryReader;
+import com.linkedin.pinot.core.segment.index.readers.RangeIndexReader;
 import com.linkedin.pinot.core.segment.index.readers.IntDictionary;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
 import com.linkedin.pinot.core.segment.index.readers.LongDictionary;
@@ -49,6 +51,9 @@ import org.slf4j.LoggerFactory;
 public abstract class ColumnIndexContainer {
   private static final Logger LOGGER = LoggerFactory.getLogger(ColumnIndexContainer.class);
 
+  private BloomFilterReader _bloomFilter;
+  private RangeIndexReader _rangeIndex;
+
   public static ColumnIndexContainer init(SegmentDirectory.Reader segmentReader, ColumnMetadata metadata,
       IndexLoadingConfigMetadata indexLoadingConfigMetadata)
       throws IOException {
@@ -66,17 +71,37 @@ public abstract class ColumnIndexContainer {
       dictionary = load(metadata, dictionaryBuffer);
     }
 
+    ColumnIndexContainer indexContainer;
     if (metadata.isSorted() && metadata.isSingleValue()) {
-      return loadSorted(column, segmentReader, metadata, dictionary);
+      indexContainer = loadSorted(column, segmentReader, metadata, dictionary);
       //return loadSorted(column, indexDir, metadata, dictionary, mode);
+    } else if (metadata.isSingleValue()) {
+      indexContainer = loadUnsorted(column, segmentReader, metadata, dictionary, loadInverted);
+      //return loadUnsorted(column, indexDir, metadata, dictionary, mode, loadInverted);
+    } else {
+      //return loadMultiValue(column, indexDir, metadata, dictionary, mode, loadInverted);
+      indexContainer = loadMultiValue(column, segmentReader, metadata, dictionary, loadInverted);
     }
 
-    if (metadata.isSingleValue()) {
-      return loadUnsorted(column, segmentReader, metadata, dictionary, loadInverted);
-      //return loadUnsorted(column, indexDir, metadata, dictionary, mode, loadInverted);
+    // Bloom filter is small and only used to skip segments, so always load it when present
+    if (segmentReader.hasIndexFor(column, ColumnIndexType.BLOOM_FILTER)) {
+      PinotDataBuffer bloomFilterBuffer = segmentReader.getIndexFor(column, ColumnIndexType.BLOOM_FILTER);
+      indexContainer._bloomFilter = new BloomFilterReader(bloomFilterBuffer, metadata.getDataType());
     }
-    //return loadMultiValue(column, indexDir, metadata, dictionary, mode, loadInverted);
-    return loadMultiValue(column, segmentReader, metadata, dictionary, loadInverted);
+
+    // Range index is memory mapped and only read for range predicates, so always load it when present
+    if (dictionary != null && segmentReader.hasIndexFor(column, ColumnIndexType.RANGE_INDEX)) {
+      PinotDataBuffer rangeIndexBuffer = segmentReader.getIndexFor(column, ColumnIndexType.RANGE_INDEX);
+      indexContainer._rangeIndex = new RangeIndexReader(rangeIndexBuffer);
+    }
+    return indexContainer;
+  }
+
+  /**
+   * Loads the dictionary of a column from its dictionary buffer.
+   */
+  public static ImmutableDictionaryReader loadDictionary(ColumnMetadata metadata, PinotDataBuffer dictionaryBuffer) {
+    return load(metadata, dictionaryBuffer);
   }
 
   private static ColumnIndexContainer loadMultiValue(String column, SegmentDirectory.Reader segmentReader,
@@ -192,6 +217,20 @@ public abstract class ColumnIndexContainer {
    */
   public abstract DataFileReader getForwardIndex();
 
+  /**
+   * @return Bloom filter of the column, or null if the column has no bloom filter
+   */
+  public BloomFilterReader getBloomFilter() {
+    return _bloomFilter;
+  }
+
+  /**
+   * @return Range index of the column, or null if the column has no range index
+   */
+  public RangeIndexReader getRangeIndex() {
+    return _rangeIndex;
+  }
+
   /**
    * @return True if index has dictionary, false otherwise
    */
@@ -142,6 +142,8 @@ public class SegmentV1V2ToV3FormatConverter implements SegmentFormatConverter {
         // inverted indexes are intentionally stored at the end of the single file
         for (String column : allColumns) {
           copyExistingInvertedIndex(v2DataReader, v3DataWriter, column);
+          copyExistingBloomFilter(v2DataReader, v3DataWriter, column);
+          copyExistingRangeIndex(v2DataReader, v3DataWriter, column);
         }
         copyStarTree(v2DataReader, v3DataWriter);
         v3DataWriter.saveAndClose();
@@ -184,6 +186,24 @@ public class SegmentV1V2ToV3FormatConverter implements SegmentFormatConverter {
     }
   }
 
+  private void copyExistingBloomFilter(SegmentDirectory.Reader reader,
+      SegmentDirectory.Writer writer,
+      String column)
+      throws IOException {
+    if (reader.hasIndexFor(column, ColumnIndexType.BLOOM_FILTER)) {
+      readCopyBuffers(reader, writer, column, ColumnIndexType.BLOOM_FILTER);
+    }
+  }
+
+  private void copyExistingRangeIndex(SegmentDirectory.Reader reader,
+      SegmentDirectory.Writer writer,
+      String column)
+      throws IOException {
+    if (reader.hasIndexFor(column, ColumnIndexType.RANGE_INDEX)) {
+      readCopyBuffers(reader, writer, column, ColumnIndexType.RANGE_INDEX);
+    }
+  }
+
   private void readCopyBuffers(SegmentDirectory.Reader reader, SegmentDirectory.Writer writer,
       String column, ColumnIndexType indexType)
       throws IOException {
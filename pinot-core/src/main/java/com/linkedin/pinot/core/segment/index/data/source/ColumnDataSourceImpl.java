@@ -31,7 +31,9 @@ import com.linkedin.pinot.core.io.reader.impl.SortedForwardIndexReader;
 import com.linkedin.pinot.core.operator.blocks.MultiValueBlock;
 import com.linkedin.pinot.core.operator.blocks.SortedSingleValueBlock;
 import com.linkedin.pinot.core.operator.blocks.UnSortedSingleValueBlock;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
+import com.linkedin.pinot.core.segment.index.readers.RangeIndexReader;
 import com.linkedin.pinot.core.segment.index.column.ColumnIndexContainer;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
 
@@ -160,4 +162,14 @@ public class ColumnDataSourceImpl extends DataSource {
   public Dictionary getDictionary() {
     return indexContainer.getDictionary();
   }
+
+  @Override
+  public BloomFilterReader getBloomFilter() {
+    return indexContainer.getBloomFilter();
+  }
+
+  @Override
+  public RangeIndexReader getRangeIndex() {
+    return indexContainer.getRangeIndex();
+  }
 }
@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.loader.bloomfilter;
+
+import com.linkedin.pinot.common.metadata.segment.IndexLoadingConfigMetadata;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import com.linkedin.pinot.core.segment.creator.impl.bloom.BloomFilterCreator;
+import com.linkedin.pinot.core.segment.index.ColumnMetadata;
+import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import com.linkedin.pinot.core.segment.index.column.ColumnIndexContainer;
+import com.linkedin.pinot.core.segment.index.loader.LoaderUtils;
+import com.linkedin.pinot.core.segment.index.readers.ImmutableDictionaryReader;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import com.linkedin.pinot.core.segment.store.ColumnIndexType;
+import com.linkedin.pinot.core.segment.store.SegmentDirectory;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+public class BloomFilterHandler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BloomFilterHandler.class);
+
+  private final File indexDir;
+  private final SegmentMetadataImpl segmentMetadata;
+  private final String segmentName;
+  private final SegmentVersion segmentVersion;
+  private final IndexLoadingConfigMetadata indexConfig;
+  private final SegmentDirectory.Writer segmentWriter;
+
+  public BloomFilterHandler(File indexDir, SegmentMetadataImpl segmentMetadata, IndexLoadingConfigMetadata indexConfig,
+      SegmentDirectory.Writer segmentWriter) {
+    this.indexDir = indexDir;
+    this.segmentMetadata = segmentMetadata;
+    segmentName = segmentMetadata.getName();
+    segmentVersion = SegmentVersion.valueOf(segmentMetadata.getVersion());
+    this.indexConfig = indexConfig;
+    this.segmentWriter = segmentWriter;
+  }
+
+  /**
+   * Create column bloom filters according to the index config.
+   *
+   * @throws IOException
+   */
+  public void createBloomFilters()
+      throws IOException {
+    Set<String> bloomFilterColumns = getBloomFilterColumns();
+
+    for (String column : bloomFilterColumns) {
+      createBloomFilterForColumn(segmentMetadata.getColumnMetadataFor(column));
+    }
+  }
+
+  private Set<String> getBloomFilterColumns() {
+    Set<String> bloomFilterColumns = new HashSet<>();
+    if (indexConfig == null) {
+      return bloomFilterColumns;
+    }
+
+    Set<String> bloomFilterColumnsFromConfig = indexConfig.getLoadingBloomFilterColumns();
+    for (String column : bloomFilterColumnsFromConfig) {
+      ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
+      // Bloom filter is built from the dictionary
+      if (columnMetadata != null && columnMetadata.hasDictionary()) {
+        bloomFilterColumns.add(column);
+      }
+    }
+
+    return bloomFilterColumns;
+  }
+
+  private void createBloomFilterForColumn(ColumnMetadata columnMetadata)
+      throws IOException {
+    String column = columnMetadata.getColumnName();
+    File inProgress = new File(indexDir, column + ".bloom.inprogress");
+    File bloomFilterFile = new File(indexDir, column + V1Constants.Indexes.BLOOM_FILTER_FILE_EXTENSION);
+
+    if (!inProgress.exists()) {
+      // Marker file does not exist, which means last run ended normally.
+
+      if (segmentWriter.hasIndexFor(column, ColumnIndexType.BLOOM_FILTER)) {
+        // Skip creating bloom filter if already exists.
+
+        LOGGER.info("Found bloom filter for segment: {}, column: {}", segmentName, column);
+        return;
+      }
+
+      // Create a marker file.
+      FileUtils.touch(inProgress);
+    } else {
+      // Marker file exists, which means last run gets interrupted.
+
+      // Remove bloom filter if exists.
+      // For v1 and v2, it's the actual bloom filter. For v3, it's the temporary bloom filter.
+      FileUtils.deleteQuietly(bloomFilterFile);
+    }
+
+    // Create new bloom filter for the column from the values in the dictionary.
+    LOGGER.info("Creating new bloom filter for segment: {}, column: {}", segmentName, column);
+    int cardinality = columnMetadata.getCardinality();
+    BloomFilterCreator creator = new BloomFilterCreator(indexDir, column, cardinality);
+
+    PinotDataBuffer dictionaryBuffer = segmentWriter.getIndexFor(column, ColumnIndexType.DICTIONARY);
+    ImmutableDictionaryReader dictionary = ColumnIndexContainer.loadDictionary(columnMetadata, dictionaryBuffer);
+    try {
+      for (int i = 0; i < cardinality; i++) {
+        creator.add(dictionary.get(i));
+      }
+    } finally {
+      dictionary.close();
+    }
+
+    creator.seal();
+
+    // For v3, write the generated bloom filter file into the single file and remove it.
+    if (segmentVersion == SegmentVersion.v3) {
+      LoaderUtils.writeIndexToV3Format(segmentWriter, column, bloomFilterFile, ColumnIndexType.BLOOM_FILTER);
+    }
+
+    // Delete the marker file.
+    FileUtils.deleteQuietly(inProgress);
+
+    LOGGER.info("Created bloom filter for segment: {}, column: {}", segmentName, column);
+  }
+}
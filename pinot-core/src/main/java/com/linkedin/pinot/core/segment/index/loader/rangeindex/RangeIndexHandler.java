@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.loader.rangeindex;
+
+import com.linkedin.pinot.common.metadata.segment.IndexLoadingConfigMetadata;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.io.reader.DataFileReader;
+import com.linkedin.pinot.core.io.reader.SingleColumnMultiValueReader;
+import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitMultiValueReader;
+import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitSingleValueReader;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import com.linkedin.pinot.core.segment.creator.impl.inv.RangeIndexCreator;
+import com.linkedin.pinot.core.segment.index.ColumnMetadata;
+import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import com.linkedin.pinot.core.segment.index.loader.LoaderUtils;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import com.linkedin.pinot.core.segment.store.ColumnIndexType;
+import com.linkedin.pinot.core.segment.store.SegmentDirectory;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+public class RangeIndexHandler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RangeIndexHandler.class);
+
+  private final File indexDir;
+  private final SegmentMetadataImpl segmentMetadata;
+  private final String segmentName;
+  private final SegmentVersion segmentVersion;
+  private final IndexLoadingConfigMetadata indexConfig;
+  private final SegmentDirectory.Writer segmentWriter;
+
+  public RangeIndexHandler(File indexDir, SegmentMetadataImpl segmentMetadata, IndexLoadingConfigMetadata indexConfig,
+      SegmentDirectory.Writer segmentWriter) {
+    this.indexDir = indexDir;
+    this.segmentMetadata = segmentMetadata;
+    segmentName = segmentMetadata.getName();
+    segmentVersion = SegmentVersion.valueOf(segmentMetadata.getVersion());
+    this.indexConfig = indexConfig;
+    this.segmentWriter = segmentWriter;
+  }
+
+  /**
+   * Create column range indices according to the index config.
+   *
+   * @throws IOException
+   */
+  public void createRangeIndices()
+      throws IOException {
+    Set<String> rangeIndexColumns = getRangeIndexColumns();
+
+    for (String column : rangeIndexColumns) {
+      createRangeIndexForColumn(segmentMetadata.getColumnMetadataFor(column));
+    }
+  }
+
+  private Set<String> getRangeIndexColumns() {
+    Set<String> rangeIndexColumns = new HashSet<>();
+    if (indexConfig == null) {
+      return rangeIndexColumns;
+    }
+
+    Set<String> rangeIndexColumnsFromConfig = indexConfig.getLoadingRangeIndexColumns();
+    for (String column : rangeIndexColumnsFromConfig) {
+      ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
+      // Range index buckets the dictionary ids, and is not needed for sorted columns
+      if (columnMetadata != null && columnMetadata.hasDictionary() && !columnMetadata.isSorted()) {
+        rangeIndexColumns.add(column);
+      }
+    }
+
+    return rangeIndexColumns;
+  }
+
+  private void createRangeIndexForColumn(ColumnMetadata columnMetadata)
+      throws IOException {
+    String column = columnMetadata.getColumnName();
+    File inProgress = new File(indexDir, column + ".range.inprogress");
+    File rangeIndexFile = new File(indexDir, column + V1Constants.Indexes.RANGE_INDEX_FILE_EXTENSION);
+
+    if (!inProgress.exists()) {
+      // Marker file does not exist, which means last run ended normally.
+
+      if (segmentWriter.hasIndexFor(column, ColumnIndexType.RANGE_INDEX)) {
+        // Skip creating range index if already exists.
+
+        LOGGER.info("Found range index for segment: {}, column: {}", segmentName, column);
+        return;
+      }
+
+      // Create a marker file.
+      FileUtils.touch(inProgress);
+    } else {
+      // Marker file exists, which means last run gets interrupted.
+
+      // Remove range index if exists.
+      // For v1 and v2, it's the actual range index. For v3, it's the temporary range index.
+      FileUtils.deleteQuietly(rangeIndexFile);
+    }
+
+    // Create new range index for the column from the dictionary ids in the forward index.
+    LOGGER.info("Creating new range index for segment: {}, column: {}", segmentName, column);
+    int totalDocs = columnMetadata.getTotalDocs();
+    RangeIndexCreator creator =
+        new RangeIndexCreator(indexDir, columnMetadata.getCardinality(), columnMetadata.getFieldSpec());
+
+    try (DataFileReader fwdIndex = getForwardIndexReader(columnMetadata, segmentWriter)) {
+      if (columnMetadata.isSingleValue()) {
+        // Single-value column.
+
+        FixedBitSingleValueReader svFwdIndex = (FixedBitSingleValueReader) fwdIndex;
+        for (int i = 0; i < totalDocs; i++) {
+          creator.add(i, svFwdIndex.getInt(i));
+        }
+      } else {
+        // Multi-value column.
+
+        SingleColumnMultiValueReader mvFwdIndex = (SingleColumnMultiValueReader) fwdIndex;
+        int[] dictIds = new int[columnMetadata.getMaxNumberOfMultiValues()];
+        for (int i = 0; i < totalDocs; i++) {
+          int len = mvFwdIndex.getIntArray(i, dictIds);
+          creator.add(i, dictIds, len);
+        }
+      }
+    }
+
+    creator.seal();
+
+    // For v3, write the generated range index file into the single file and remove it.
+    if (segmentVersion == SegmentVersion.v3) {
+      LoaderUtils.writeIndexToV3Format(segmentWriter, column, rangeIndexFile, ColumnIndexType.RANGE_INDEX);
+    }
+
+    // Delete the marker file.
+    FileUtils.deleteQuietly(inProgress);
+
+    LOGGER.info("Created range index for segment: {}, column: {}", segmentName, column);
+  }
+
+  private DataFileReader getForwardIndexReader(ColumnMetadata columnMetadata, SegmentDirectory.Writer segmentWriter)
+      throws IOException {
+    PinotDataBuffer buffer = segmentWriter.getIndexFor(columnMetadata.getColumnName(), ColumnIndexType.FORWARD_INDEX);
+    if (columnMetadata.isSingleValue()) {
+      return new FixedBitSingleValueReader(buffer, columnMetadata.getTotalDocs(), columnMetadata.getBitsPerElement(),
+          columnMetadata.hasNulls());
+    } else {
+      return new FixedBitMultiValueReader(buffer, columnMetadata.getTotalDocs(),
+          columnMetadata.getTotalNumberOfEntries(), columnMetadata.getBitsPerElement(), false);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.readers;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.linkedin.pinot.common.data.FieldSpec.DataType;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+
+/**
+ * Reader for the bloom filter of a column created by the <code>BloomFilterCreator</code>.
+ * <p>The bloom filter is small (about 6 bits per distinct value), so it is de-serialized on heap when loading the
+ * segment.
+ */
+public class BloomFilterReader {
+  private final DataType _dataType;
+  private final BloomFilter<CharSequence> _bloomFilter;
+
+  public BloomFilterReader(PinotDataBuffer dataBuffer, DataType dataType)
+      throws IOException {
+    _dataType = dataType;
+    byte[] bytes = new byte[(int) dataBuffer.size()];
+    dataBuffer.copyTo(0, bytes, 0, bytes.length);
+    _bloomFilter = BloomFilter.readFrom(new ByteArrayInputStream(bytes), Funnels.stringFunnel(Charsets.UTF_8));
+  }
+
+  /**
+   * Returns false if the column definitely does not contain the given value from the query, true otherwise.
+   * <p>Numeric values are parsed into the data type of the column first, so that values such as "1.50" and "1.5"
+   * are treated the same way as the dictionary does.
+   */
+  public boolean mightContain(String value) {
+    String bloomFilterValue;
+    try {
+      switch (_dataType) {
+        case INT:
+          bloomFilterValue = Integer.toString(Integer.parseInt(value));
+          break;
+        case LONG:
+          bloomFilterValue = Long.toString(Long.parseLong(value));
+          break;
+        case FLOAT:
+          bloomFilterValue = Float.toString(Float.parseFloat(value));
+          break;
+        case DOUBLE:
+          bloomFilterValue = Double.toString(Double.parseDouble(value));
+          break;
+        default:
+          bloomFilterValue = value;
+          break;
+      }
+    } catch (NumberFormatException e) {
+      // Leave the value to the dictionary
+      return true;
+    }
+    return _bloomFilter.mightContain(bloomFilterValue);
+  }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.readers;
+
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+
+/**
+ * Reader for the range index of a column created by the <code>RangeIndexCreator</code>.
+ * <p>Each bucket covers a range of consecutive dictionary ids, and maps to the bitmap of the docs with at least one
+ * value in that range.
+ * <p>The data buffer is owned by the segment directory, which closes it when the segment is unloaded.
+ */
+public class RangeIndexReader {
+  private static final int INT_SIZE_IN_BYTES = Integer.SIZE / Byte.SIZE;
+
+  private final PinotDataBuffer _buffer;
+  private final int _numBuckets;
+  private final int[] _bucketStartDictIds;
+  private final int _bitmapOffsetsStart;
+
+  public RangeIndexReader(PinotDataBuffer dataBuffer) {
+    _buffer = dataBuffer;
+    _numBuckets = dataBuffer.getInt(0);
+    _bucketStartDictIds = new int[_numBuckets + 1];
+    for (int i = 0; i <= _numBuckets; i++) {
+      _bucketStartDictIds[i] = dataBuffer.getInt((i + 1) * INT_SIZE_IN_BYTES);
+    }
+    _bitmapOffsetsStart = (_numBuckets + 2) * INT_SIZE_IN_BYTES;
+  }
+
+  public int getNumBuckets() {
+    return _numBuckets;
+  }
+
+  /**
+   * Returns the first dictionary id of the bucket, or the cardinality of the column for bucket id numBuckets.
+   */
+  public int getBucketStartDictId(int bucketId) {
+    return _bucketStartDictIds[bucketId];
+  }
+
+  /**
+   * Returns the id of the bucket containing the given dictionary id.
+   */
+  public int getBucketId(int dictId) {
+    int low = 0;
+    int high = _numBuckets - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (_bucketStartDictIds[mid] <= dictId) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns the bitmap of the docs with a value in the given bucket.
+   */
+  public ImmutableRoaringBitmap getDocIds(int bucketId) {
+    int startOffset = _buffer.getInt(_bitmapOffsetsStart + bucketId * INT_SIZE_IN_BYTES);
+    int endOffset = _buffer.getInt(_bitmapOffsetsStart + (bucketId + 1) * INT_SIZE_IN_BYTES);
+    return new ImmutableRoaringBitmap(_buffer.toDirectByteBuffer(startOffset, endOffset - startOffset));
+  }
+}
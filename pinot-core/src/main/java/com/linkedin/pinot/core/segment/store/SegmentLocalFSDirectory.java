@@ -193,6 +193,10 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
         return columnIndexDirectory.getForwardIndexBufferFor(column);
       case INVERTED_INDEX:
         return columnIndexDirectory.getInvertedIndexBufferFor(column);
+      case BLOOM_FILTER:
+        return columnIndexDirectory.getBloomFilterBufferFor(column);
+      case RANGE_INDEX:
+        return columnIndexDirectory.getRangeIndexBufferFor(column);
       default:
         throw new RuntimeException("Unknown index type: " + type.name());
     }
@@ -329,6 +333,10 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
           return columnIndexDirectory.newForwardIndexBuffer(key.name, (int) sizeBytes);
         case INVERTED_INDEX:
           return columnIndexDirectory.newInvertedIndexBuffer(key.name, ((int) sizeBytes));
+        case BLOOM_FILTER:
+          return columnIndexDirectory.newBloomFilterBuffer(key.name, (int) sizeBytes);
+        case RANGE_INDEX:
+          return columnIndexDirectory.newRangeIndexBuffer(key.name, (int) sizeBytes);
         default:
           throw new RuntimeException("Unknown index type: " + indexType.name() +
               " for directory: " + segmentDirectory);
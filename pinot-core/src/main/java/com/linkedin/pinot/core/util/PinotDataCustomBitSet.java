@@ -154,6 +154,46 @@ public final class PinotDataCustomBitSet implements Closeable {
     }
   }
 
+  /**
+   * Reads consecutive values of the given bit length, starting at the given bit index. Bits are accumulated in a
+   * long, refilled 32 bits at a time, so each value is decoded with a shift and a mask instead of going through
+   * {@link #readInt(long, long)}.
+   *
+   * @param startBitIndex bit index of the first value
+   * @param bitLength number of bits of each value, between 1 and 32
+   * @param numValues number of values to read
+   * @param out output array
+   * @param outStartPos position in the output array of the first value
+   */
+  public void readInts(long startBitIndex, int bitLength, int numValues, int[] out, int outStartPos) {
+    long mask = (1L << bitLength) - 1;
+    int bytePosition = (int) (startBitIndex >>> 3);
+    int lastIntPosition = nrBytes - 4;
+    long bitBuffer = 0;
+    int numBitsInBuffer = 0;
+    int startBitOffset = (int) (startBitIndex & 7);
+    if (startBitOffset != 0) {
+      bitBuffer = buf.getByte(bytePosition++) & 0xFF;
+      numBitsInBuffer = 8 - startBitOffset;
+    }
+    int endPos = outStartPos + numValues;
+    for (int i = outStartPos; i < endPos; i++) {
+      // At most 31 bits are left in the buffer here, so refilling 32 bits never overflows it
+      while (numBitsInBuffer < bitLength) {
+        if (bytePosition <= lastIntPosition) {
+          bitBuffer = (bitBuffer << 32) | (buf.getInt(bytePosition) & 0xFFFFFFFFL);
+          bytePosition += 4;
+          numBitsInBuffer += 32;
+        } else {
+          bitBuffer = (bitBuffer << 8) | (buf.getByte(bytePosition++) & 0xFF);
+          numBitsInBuffer += 8;
+        }
+      }
+      numBitsInBuffer -= bitLength;
+      out[i] = (int) ((bitBuffer >>> numBitsInBuffer) & mask);
+    }
+  }
+
   public void writeInt(long startBitIndex, int bitLength, int value) {
     if (bitLength < 16 && startBitIndex + bitLength + 32 < nrBytes * 8L) {
       int bytePosition = (int) (startBitIndex / 8);
@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.util;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+
+/**
+ * The <code>VarIntUtils</code> class provides utility methods to write and read variable length integers.
+ * <p>Values are written 7 bits per byte, least significant group first, with the high bit of each byte set when more
+ * bytes follow. Signed values are zig-zag encoded first so that small negative values also take few bytes.
+ */
+public class VarIntUtils {
+  private VarIntUtils() {
+  }
+
+  public static void writeUnsignedVarInt(DataOutput dataOutput, int value)
+      throws IOException {
+    while ((value & ~0x7F) != 0) {
+      dataOutput.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    dataOutput.writeByte(value);
+  }
+
+  public static void writeUnsignedVarLong(DataOutput dataOutput, long value)
+      throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      dataOutput.writeByte(((int) value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    dataOutput.writeByte((int) value);
+  }
+
+  public static void writeVarLong(DataOutput dataOutput, long value)
+      throws IOException {
+    writeUnsignedVarLong(dataOutput, (value << 1) ^ (value >> 63));
+  }
+
+  public static int readUnsignedVarInt(ByteBuffer byteBuffer) {
+    int value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = byteBuffer.get();
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while (b < 0);
+    return value;
+  }
+
+  public static long readUnsignedVarLong(ByteBuffer byteBuffer) {
+    long value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = byteBuffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while (b < 0);
+    return value;
+  }
+
+  public static long readVarLong(ByteBuffer byteBuffer) {
+    long value = readUnsignedVarLong(byteBuffer);
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
@@ -17,14 +17,17 @@ package com.linkedin.pinot.core.common.datatable;
 
 import com.linkedin.pinot.common.data.FieldSpec.DataType;
 import com.linkedin.pinot.common.exception.QueryException;
+import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.response.ProcessingException;
 import com.linkedin.pinot.common.utils.DataSchema;
 import com.linkedin.pinot.common.utils.DataTable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Random;
 import org.apache.commons.lang.RandomStringUtils;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 
@@ -38,8 +41,13 @@ public class DataTableSerDeTest {
 
   private static final int NUM_ROWS = 100;
 
-  @Test
-  public void testException()
+  @DataProvider(name = "versions")
+  public Object[][] versions() {
+    return new Object[][]{{DataTableFactory.VERSION_2}, {DataTableFactory.VERSION_3}};
+  }
+
+  @Test(dataProvider = "versions")
+  public void testException(int version)
       throws IOException {
     Exception exception = new UnsupportedOperationException("Caught exception.");
     ProcessingException processingException =
@@ -48,7 +56,7 @@ public class DataTableSerDeTest {
 
     DataTable dataTable = new DataTableImplV2();
     dataTable.addException(processingException);
-    DataTable newDataTable = DataTableFactory.getDataTable(dataTable.toBytes());
+    DataTable newDataTable = DataTableFactory.getDataTable(DataTableFactory.toBytes(dataTable, version));
     Assert.assertNull(newDataTable.getDataSchema());
     Assert.assertEquals(newDataTable.getNumberOfRows(), 0);
 
@@ -57,8 +65,18 @@ public class DataTableSerDeTest {
     Assert.assertEquals(actual, expected);
   }
 
-  @Test
-  public void testAllDataTypes()
+  // Data tables are built for the serialized version, data tables built for version 2 are always serialized as is.
+  @DataProvider(name = "builderAndSerializedVersions")
+  public Object[][] builderAndSerializedVersions() {
+    return new Object[][]{
+        {DataTableFactory.VERSION_2, DataTableFactory.VERSION_2},
+        {DataTableFactory.VERSION_2, DataTableFactory.VERSION_3},
+        {DataTableFactory.VERSION_3, DataTableFactory.VERSION_3}
+    };
+  }
+
+  @Test(dataProvider = "builderAndSerializedVersions")
+  public void testAllDataTypes(int builderVersion, int version)
       throws IOException {
     DataType[] columnTypes = DataType.values();
     int numColumns = columnTypes.length;
@@ -68,7 +86,7 @@ public class DataTableSerDeTest {
     }
     DataSchema dataSchema = new DataSchema(columnNames, columnTypes);
 
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, builderVersion);
 
     boolean[] booleans = new boolean[NUM_ROWS];
     byte[] bytes = new byte[NUM_ROWS];
@@ -212,7 +230,15 @@ public class DataTableSerDeTest {
     }
 
     DataTable dataTable = dataTableBuilder.build();
-    DataTable newDataTable = DataTableFactory.getDataTable(dataTable.toBytes());
+    byte[] serializedBytes = DataTableFactory.toBytes(dataTable, version);
+    Assert.assertEquals(ByteBuffer.wrap(serializedBytes).getInt(), Math.min(builderVersion, version));
+
+    // Read the data table in place from a direct byte buffer with a prefix.
+    ByteBuffer byteBuffer = ByteBuffer.allocateDirect(serializedBytes.length + 4);
+    byteBuffer.putInt(0);
+    byteBuffer.put(serializedBytes);
+    byteBuffer.position(4);
+    DataTable newDataTable = DataTableFactory.getDataTable(byteBuffer);
     Assert.assertEquals(newDataTable.getDataSchema(), dataSchema, ERROR_MESSAGE);
     Assert.assertEquals(newDataTable.getNumberOfRows(), NUM_ROWS, ERROR_MESSAGE);
 
@@ -281,4 +307,17 @@ public class DataTableSerDeTest {
       }
     }
   }
+
+  @Test
+  public void testVersionNegotiation() {
+    BrokerRequest brokerRequest = new BrokerRequest();
+    Assert.assertEquals(DataTableFactory.getResponseVersion(brokerRequest), DataTableFactory.VERSION_2);
+    brokerRequest.putToDebugOptions(DataTableFactory.DATA_TABLE_VERSION_KEY, "3");
+    Assert.assertEquals(DataTableFactory.getResponseVersion(brokerRequest), DataTableFactory.VERSION_3);
+    // Brokers supporting newer versions get the highest version supported by the server.
+    brokerRequest.putToDebugOptions(DataTableFactory.DATA_TABLE_VERSION_KEY, "100");
+    Assert.assertEquals(DataTableFactory.getResponseVersion(brokerRequest), DataTableFactory.MAX_SUPPORTED_VERSION);
+    brokerRequest.putToDebugOptions(DataTableFactory.DATA_TABLE_VERSION_KEY, "invalid");
+    Assert.assertEquals(DataTableFactory.getResponseVersion(brokerRequest), DataTableFactory.VERSION_2);
+  }
 }
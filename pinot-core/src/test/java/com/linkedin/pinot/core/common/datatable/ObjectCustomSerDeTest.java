@@ -15,16 +15,21 @@
  */
 package com.linkedin.pinot.core.common.datatable;
 
+import com.clearspring.analytics.stream.cardinality.HyperLogLog;
 import com.linkedin.pinot.core.operator.aggregation.function.customobject.AvgPair;
 import com.linkedin.pinot.core.operator.aggregation.function.customobject.MinMaxRangePair;
+import com.linkedin.pinot.core.operator.aggregation.function.customobject.QuantileDigest;
 import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
+import javax.annotation.Nonnull;
 import org.apache.commons.lang.RandomStringUtils;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 
@@ -38,17 +43,22 @@ public class ObjectCustomSerDeTest {
 
   private static final int NUM_ITERATIONS = 100;
 
+  @DataProvider(name = "encodingVersions")
+  public Object[][] encodingVersions() {
+    return new Object[][]{{ObjectCustomSerDe.ENCODING_VERSION_1}, {ObjectCustomSerDe.ENCODING_VERSION_2}};
+  }
+
   /**
    * Test for ser/de of {@link Long}.
    */
-  @Test
-  public void testLong()
+  @Test(dataProvider = "encodingVersions")
+  public void testLong(int encodingVersion)
       throws IOException {
     for (int i = 0; i < NUM_ITERATIONS; i++) {
       Long expected = RANDOM.nextLong();
 
-      byte[] bytes = ObjectCustomSerDe.serialize(expected);
-      Long actual = ObjectCustomSerDe.deserialize(bytes, ObjectType.Long);
+      byte[] bytes = ObjectCustomSerDe.serialize(expected, encodingVersion);
+      Long actual = ObjectCustomSerDe.deserialize(bytes, ObjectType.Long, encodingVersion);
 
       Assert.assertEquals(actual, expected, ERROR_MESSAGE);
     }
@@ -57,14 +67,14 @@ public class ObjectCustomSerDeTest {
   /**
    * Test for ser/de of {@link Double}.
    */
-  @Test
-  public void testDouble()
+  @Test(dataProvider = "encodingVersions")
+  public void testDouble(int encodingVersion)
       throws IOException {
     for (int i = 0; i < NUM_ITERATIONS; i++) {
       Double expected = RANDOM.nextDouble();
 
-      byte[] bytes = ObjectCustomSerDe.serialize(expected);
-      Double actual = ObjectCustomSerDe.deserialize(bytes, ObjectType.Double);
+      byte[] bytes = ObjectCustomSerDe.serialize(expected, encodingVersion);
+      Double actual = ObjectCustomSerDe.deserialize(bytes, ObjectType.Double, encodingVersion);
 
       Assert.assertEquals(actual, expected, ERROR_MESSAGE);
     }
@@ -73,8 +83,8 @@ public class ObjectCustomSerDeTest {
   /**
    * Test for ser/de of {@link DoubleArrayList}.
    */
-  @Test
-  public void testDoubleArrayList()
+  @Test(dataProvider = "encodingVersions")
+  public void testDoubleArrayList(int encodingVersion)
       throws IOException {
     for (int i = 0; i < NUM_ITERATIONS; i++) {
       int size = RANDOM.nextInt(100);
@@ -83,8 +93,8 @@ public class ObjectCustomSerDeTest {
         expected.add(RANDOM.nextDouble());
       }
 
-      byte[] bytes = ObjectCustomSerDe.serialize(expected);
-      DoubleArrayList actual = ObjectCustomSerDe.deserialize(bytes, ObjectType.DoubleArrayList);
+      byte[] bytes = ObjectCustomSerDe.serialize(expected, encodingVersion);
+      DoubleArrayList actual = ObjectCustomSerDe.deserialize(bytes, ObjectType.DoubleArrayList, encodingVersion);
 
       Assert.assertEquals(actual, expected, ERROR_MESSAGE);
     }
@@ -93,14 +103,14 @@ public class ObjectCustomSerDeTest {
   /**
    * Test for ser/de of {@link AvgPair}.
    */
-  @Test
-  public void testAvgPair()
+  @Test(dataProvider = "encodingVersions")
+  public void testAvgPair(int encodingVersion)
       throws IOException {
     for (int i = 0; i < NUM_ITERATIONS; i++) {
       AvgPair expected = new AvgPair(RANDOM.nextDouble(), RANDOM.nextLong());
 
-      byte[] bytes = ObjectCustomSerDe.serialize(expected);
-      AvgPair actual = ObjectCustomSerDe.deserialize(bytes, ObjectType.AvgPair);
+      byte[] bytes = ObjectCustomSerDe.serialize(expected, encodingVersion);
+      AvgPair actual = ObjectCustomSerDe.deserialize(bytes, ObjectType.AvgPair, encodingVersion);
 
       Assert.assertEquals(actual.getSum(), expected.getSum(), ERROR_MESSAGE);
       Assert.assertEquals(actual.getCount(), expected.getCount(), ERROR_MESSAGE);
@@ -110,14 +120,14 @@ public class ObjectCustomSerDeTest {
   /**
    * Test for ser/de of {@link MinMaxRangePair}.
    */
-  @Test
-  public void testMinMaxRangePair()
+  @Test(dataProvider = "encodingVersions")
+  public void testMinMaxRangePair(int encodingVersion)
       throws IOException {
     for (int i = 0; i < NUM_ITERATIONS; i++) {
       MinMaxRangePair expected = new MinMaxRangePair(RANDOM.nextDouble(), RANDOM.nextDouble());
 
-      byte[] bytes = ObjectCustomSerDe.serialize(expected);
-      MinMaxRangePair actual = ObjectCustomSerDe.deserialize(bytes, ObjectType.MinMaxRangePair);
+      byte[] bytes = ObjectCustomSerDe.serialize(expected, encodingVersion);
+      MinMaxRangePair actual = ObjectCustomSerDe.deserialize(bytes, ObjectType.MinMaxRangePair, encodingVersion);
 
       Assert.assertEquals(actual.getMin(), expected.getMin(), ERROR_MESSAGE);
       Assert.assertEquals(actual.getMax(), expected.getMax(), ERROR_MESSAGE);
@@ -127,8 +137,8 @@ public class ObjectCustomSerDeTest {
   /**
    * Test for ser/de of {@link HashMap} from {@link String} to {@link Double}.
    */
-  @Test
-  public void testStringDoubleHashMap()
+  @Test(dataProvider = "encodingVersions")
+  public void testStringDoubleHashMap(int encodingVersion)
       throws IOException {
     for (int i = 0; i < NUM_ITERATIONS; i++) {
       int size = RANDOM.nextInt(100);
@@ -137,8 +147,8 @@ public class ObjectCustomSerDeTest {
         expected.put(RandomStringUtils.random(RANDOM.nextInt(20)), RANDOM.nextDouble());
       }
 
-      byte[] bytes = ObjectCustomSerDe.serialize(expected);
-      HashMap<String, Double> actual = ObjectCustomSerDe.deserialize(bytes, ObjectType.HashMap);
+      byte[] bytes = ObjectCustomSerDe.serialize(expected, encodingVersion);
+      HashMap<String, Double> actual = ObjectCustomSerDe.deserialize(bytes, ObjectType.HashMap, encodingVersion);
 
       Assert.assertEquals(actual, expected, ERROR_MESSAGE);
     }
@@ -147,8 +157,8 @@ public class ObjectCustomSerDeTest {
   /**
    * Test for ser/de of {@link IntOpenHashSet}.
    */
-  @Test
-  public void testIntOpenHashSet()
+  @Test(dataProvider = "encodingVersions")
+  public void testIntOpenHashSet(int encodingVersion)
       throws IOException {
     for (int i = 0; i < NUM_ITERATIONS; i++) {
       int size = RANDOM.nextInt(100);
@@ -157,11 +167,118 @@ public class ObjectCustomSerDeTest {
         expected.add(RANDOM.nextInt());
       }
 
-      byte[] bytes = ObjectCustomSerDe.serialize(expected);
-      IntOpenHashSet actual = ObjectCustomSerDe.deserialize(bytes, ObjectType.IntOpenHashSet);
+      byte[] bytes = ObjectCustomSerDe.serialize(expected, encodingVersion);
+      IntOpenHashSet actual = ObjectCustomSerDe.deserialize(bytes, ObjectType.IntOpenHashSet, encodingVersion);
 
       // Use Object comparison instead of Collection comparison because order might change.
       Assert.assertEquals((Object) actual, expected, ERROR_MESSAGE);
     }
   }
+
+  /**
+   * Test for ser/de of {@link HyperLogLog}, with both sparse and dense registers.
+   */
+  @Test(dataProvider = "encodingVersions")
+  public void testHyperLogLog(int encodingVersion)
+      throws IOException {
+    for (int i = 0; i < NUM_ITERATIONS; i++) {
+      HyperLogLog expected = new HyperLogLog(12);
+      int numValues = RANDOM.nextInt(10000);
+      for (int j = 0; j < numValues; j++) {
+        expected.offer(RANDOM.nextInt());
+      }
+
+      byte[] bytes = ObjectCustomSerDe.serialize(expected, encodingVersion);
+      HyperLogLog actual = ObjectCustomSerDe.deserialize(bytes, ObjectType.HyperLogLog, encodingVersion);
+
+      Assert.assertEquals(actual.getBytes(), expected.getBytes(), ERROR_MESSAGE);
+    }
+  }
+
+  /**
+   * Test for ser/de of {@link QuantileDigest}.
+   */
+  @Test(dataProvider = "encodingVersions")
+  public void testQuantileDigest(int encodingVersion)
+      throws IOException {
+    for (int i = 0; i < NUM_ITERATIONS; i++) {
+      QuantileDigest expected = new QuantileDigest(0.05);
+      int numValues = RANDOM.nextInt(1000);
+      for (int j = 0; j < numValues; j++) {
+        expected.add(RANDOM.nextInt(100000) - 50000);
+      }
+
+      byte[] bytes = ObjectCustomSerDe.serialize(expected, encodingVersion);
+      QuantileDigest actual = ObjectCustomSerDe.deserialize(bytes, ObjectType.QuantileDigest, encodingVersion);
+
+      Assert.assertEquals(actual.getCount(), expected.getCount(), ERROR_MESSAGE);
+      Assert.assertEquals(actual.getMin(), expected.getMin(), ERROR_MESSAGE);
+      Assert.assertEquals(actual.getMax(), expected.getMax(), ERROR_MESSAGE);
+      for (double quantile = 0.0; quantile <= 1.0; quantile += 0.1) {
+        Assert.assertEquals(actual.getQuantile(quantile), expected.getQuantile(quantile), ERROR_MESSAGE);
+      }
+    }
+  }
+
+  /**
+   * Test for visiting the entries of a serialized {@link HashMap} from {@link String} to {@link IntOpenHashSet}.
+   */
+  @Test(dataProvider = "encodingVersions")
+  public void testVisitHashMapEntries(int encodingVersion)
+      throws IOException {
+    for (int i = 0; i < NUM_ITERATIONS; i++) {
+      int size = RANDOM.nextInt(100);
+      Map<String, IntOpenHashSet> expected = new HashMap<>(size);
+      for (int j = 0; j < size; j++) {
+        IntOpenHashSet value = new IntOpenHashSet();
+        int numValues = RANDOM.nextInt(10);
+        for (int k = 0; k < numValues; k++) {
+          value.add(RANDOM.nextInt());
+        }
+        expected.put(RandomStringUtils.random(RANDOM.nextInt(20)), value);
+      }
+
+      final Map<Object, Object> actual = new HashMap<>();
+      byte[] bytes = ObjectCustomSerDe.serialize(expected, encodingVersion);
+      ObjectCustomSerDe.visitHashMapEntries(ByteBuffer.wrap(bytes), encodingVersion,
+          new ObjectCustomSerDe.HashMapEntryVisitor() {
+            @Override
+            public void visit(@Nonnull Object key, @Nonnull Object value) {
+              actual.put(key, value);
+            }
+          });
+
+      Assert.assertEquals((Object) actual, expected, ERROR_MESSAGE);
+    }
+  }
+
+  /**
+   * Test that the compact encoding is smaller than the original encoding for the objects it encodes differently.
+   */
+  @Test
+  public void testCompactEncodingSize()
+      throws IOException {
+    IntOpenHashSet intOpenHashSet = new IntOpenHashSet();
+    for (int i = 0; i < 1000; i++) {
+      intOpenHashSet.add(RANDOM.nextInt(100000));
+    }
+    HyperLogLog hyperLogLog = new HyperLogLog(12);
+    for (int i = 0; i < 100; i++) {
+      hyperLogLog.offer(RANDOM.nextLong());
+    }
+    QuantileDigest quantileDigest = new QuantileDigest(0.05);
+    for (int i = 0; i < 1000; i++) {
+      quantileDigest.add(RANDOM.nextInt(100000));
+    }
+    HashMap<String, Double> hashMap = new HashMap<>();
+    for (int i = 0; i < 1000; i++) {
+      hashMap.put(Integer.toString(i), RANDOM.nextDouble());
+    }
+
+    for (Object object : new Object[]{intOpenHashSet, hyperLogLog, quantileDigest, hashMap}) {
+      int originalSize = ObjectCustomSerDe.serialize(object, ObjectCustomSerDe.ENCODING_VERSION_1).length;
+      int compactSize = ObjectCustomSerDe.serialize(object, ObjectCustomSerDe.ENCODING_VERSION_2).length;
+      Assert.assertTrue(compactSize < originalSize, ERROR_MESSAGE);
+    }
+  }
 }
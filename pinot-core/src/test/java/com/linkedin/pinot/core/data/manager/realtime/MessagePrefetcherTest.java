@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.data.manager.realtime;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+
+public class MessagePrefetcherTest {
+  private final ExecutorService _fetcherExecutorService = Executors.newCachedThreadPool();
+
+  @AfterClass
+  public void tearDown() {
+    _fetcherExecutorService.shutdownNow();
+  }
+
+  @Test
+  public void testTakePrefetchedMessages()
+      throws Exception {
+    MessagePrefetcher<String> prefetcher = new MessagePrefetcher<>(_fetcherExecutorService);
+    Assert.assertNull(prefetcher.take(0L));
+
+    prefetcher.prefetch(10L, new FixedFetcher("messages from 10"));
+    Assert.assertEquals(prefetcher.take(10L), "messages from 10");
+    // A prefetch is only taken once
+    Assert.assertNull(prefetcher.take(10L));
+  }
+
+  @Test
+  public void testDiscardStalePrefetch()
+      throws Exception {
+    MessagePrefetcher<String> prefetcher = new MessagePrefetcher<>(_fetcherExecutorService);
+    final CountDownLatch fetchStarted = new CountDownLatch(1);
+    final CountDownLatch fetchReleased = new CountDownLatch(1);
+    final AtomicInteger numFetchesDone = new AtomicInteger();
+    prefetcher.prefetch(10L, new Callable<String>() {
+      @Override
+      public String call()
+          throws Exception {
+        fetchStarted.countDown();
+        fetchReleased.await();
+        numFetchesDone.incrementAndGet();
+        return "messages from 10";
+      }
+    });
+    fetchStarted.await();
+
+    // The consumer stopped before offset 10: the prefetch is waited for, so that the consumer is no longer in use,
+    // and dropped
+    Thread releaser = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        fetchReleased.countDown();
+      }
+    });
+    releaser.start();
+    Assert.assertNull(prefetcher.take(5L));
+    Assert.assertEquals(numFetchesDone.get(), 1);
+    Assert.assertNull(prefetcher.take(10L));
+    releaser.join();
+  }
+
+  @Test
+  public void testPrefetchFailure()
+      throws Exception {
+    MessagePrefetcher<String> prefetcher = new MessagePrefetcher<>(_fetcherExecutorService);
+    prefetcher.prefetch(10L, new Callable<String>() {
+      @Override
+      public String call()
+          throws Exception {
+        throw new IllegalStateException("fetch failed");
+      }
+    });
+    try {
+      prefetcher.take(10L);
+      Assert.fail("Exception of the fetch should be thrown");
+    } catch (IllegalStateException e) {
+      Assert.assertEquals(e.getMessage(), "fetch failed");
+    }
+
+    // A failed prefetch is discarded silently when not used
+    prefetcher.prefetch(20L, new Callable<String>() {
+      @Override
+      public String call()
+          throws Exception {
+        throw new IllegalStateException("fetch failed");
+      }
+    });
+    prefetcher.discard();
+    Assert.assertNull(prefetcher.take(20L));
+  }
+
+  private static class FixedFetcher implements Callable<String> {
+    private final String _messages;
+
+    FixedFetcher(String messages) {
+      _messages = messages;
+    }
+
+    @Override
+    public String call() {
+      return _messages;
+    }
+  }
+}
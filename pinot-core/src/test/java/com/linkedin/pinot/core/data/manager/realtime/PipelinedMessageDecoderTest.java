@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.data.manager.realtime;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.RowBatch;
+import com.linkedin.pinot.core.realtime.impl.kafka.KafkaLowLevelStreamProviderConfig;
+import com.linkedin.pinot.core.realtime.impl.kafka.KafkaMessageDecoder;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import kafka.message.Message;
+import kafka.message.MessageAndOffset;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+
+public class PipelinedMessageDecoderTest {
+  private static final int NUM_DECODER_THREADS = 4;
+  private static final int NUM_MESSAGES = 1000;
+  private static final long START_OFFSET = 100L;
+  // Messages with an empty payload cannot be decoded
+  private static final int INVALID_MESSAGE_INTERVAL = 10;
+
+  private final ExecutorService _decoderExecutorService = Executors.newFixedThreadPool(NUM_DECODER_THREADS);
+
+  @AfterClass
+  public void tearDown() {
+    _decoderExecutorService.shutdownNow();
+  }
+
+  @Test
+  public void testDecodeInOffsetOrder()
+      throws Exception {
+    Schema schema =
+        new Schema.SchemaBuilder().setSchemaName("test").addSingleValueDimension("value", FieldSpec.DataType.INT)
+            .build();
+    PipelinedMessageDecoder decoder =
+        new PipelinedMessageDecoder(new IntStreamProviderConfig(), schema, _decoderExecutorService,
+            NUM_DECODER_THREADS, new ServerMetrics(new MetricsRegistry()), "test");
+    List<MessageAndOffset> messages = new ArrayList<>();
+    for (int i = 0; i < NUM_MESSAGES; i++) {
+      byte[] payload = i % INVALID_MESSAGE_INTERVAL == 0 ? new byte[0] : ByteBuffer.allocate(4).putInt(i).array();
+      messages.add(new MessageAndOffset(new Message(payload), START_OFFSET + i));
+    }
+
+    List<Future<PipelinedMessageDecoder.DecodedSlice>> slices = decoder.decode(messages);
+    Assert.assertEquals(slices.size(),
+        (NUM_MESSAGES + PipelinedMessageDecoder.SLICE_SIZE - 1) / PipelinedMessageDecoder.SLICE_SIZE);
+    int messageId = 0;
+    for (Future<PipelinedMessageDecoder.DecodedSlice> future : slices) {
+      PipelinedMessageDecoder.DecodedSlice slice = future.get();
+      int firstMessageId = messageId;
+      for (int i = 0; i < slice.size(); i++) {
+        Assert.assertEquals(slice.getMessage(i).offset(), START_OFFSET + messageId);
+        messageId++;
+      }
+      RowBatch rowBatch = slice.getRowBatch(slice.size());
+      int[] values = rowBatch.getIntValues(0);
+      int rowId = 0;
+      for (int i = firstMessageId; i < messageId; i++) {
+        if (i % INVALID_MESSAGE_INTERVAL != 0) {
+          Assert.assertEquals(values[rowId++], i);
+        }
+      }
+      Assert.assertEquals(rowBatch.size(), rowId);
+    }
+    Assert.assertEquals(messageId, NUM_MESSAGES);
+  }
+
+  @Test
+  public void testRowBatchOfFirstMessages()
+      throws Exception {
+    Schema schema =
+        new Schema.SchemaBuilder().setSchemaName("test").addSingleValueDimension("value", FieldSpec.DataType.INT)
+            .build();
+    PipelinedMessageDecoder decoder =
+        new PipelinedMessageDecoder(new IntStreamProviderConfig(), schema, _decoderExecutorService,
+            NUM_DECODER_THREADS, new ServerMetrics(new MetricsRegistry()), "test");
+    List<MessageAndOffset> messages = new ArrayList<>();
+    for (int i = 0; i < INVALID_MESSAGE_INTERVAL * 2; i++) {
+      byte[] payload = i % INVALID_MESSAGE_INTERVAL == 0 ? new byte[0] : ByteBuffer.allocate(4).putInt(i).array();
+      messages.add(new MessageAndOffset(new Message(payload), START_OFFSET + i));
+    }
+
+    // Only the rows of the first messages are returned, skipping the invalid ones
+    PipelinedMessageDecoder.DecodedSlice slice = decoder.decode(messages).get(0).get();
+    RowBatch rowBatch = slice.getRowBatch(INVALID_MESSAGE_INTERVAL + 3);
+    Assert.assertEquals(rowBatch.size(), INVALID_MESSAGE_INTERVAL + 1);
+    Assert.assertEquals(rowBatch.getIntValues(0)[INVALID_MESSAGE_INTERVAL], INVALID_MESSAGE_INTERVAL + 2);
+  }
+
+  @Test
+  public void testNumMessagesToConsume()
+      throws Exception {
+    Schema schema =
+        new Schema.SchemaBuilder().setSchemaName("test").addSingleValueDimension("value", FieldSpec.DataType.INT)
+            .build();
+    PipelinedMessageDecoder decoder =
+        new PipelinedMessageDecoder(new IntStreamProviderConfig(), schema, _decoderExecutorService,
+            NUM_DECODER_THREADS, new ServerMetrics(new MetricsRegistry()), "test");
+    List<MessageAndOffset> messages = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      messages.add(new MessageAndOffset(new Message(ByteBuffer.allocate(4).putInt(i).array()), START_OFFSET + i));
+    }
+    PipelinedMessageDecoder.DecodedSlice slice = decoder.decode(messages).get(0).get();
+
+    // Initial consumption stops in the middle of the slice when the segment is full
+    Assert.assertEquals(LLRealtimeSegmentDataManager.getNumMessagesToConsume(slice,
+        LLRealtimeSegmentDataManager.State.INITIAL_CONSUMING, 30, Long.MAX_VALUE), 30);
+    Assert.assertEquals(LLRealtimeSegmentDataManager.getNumMessagesToConsume(slice,
+        LLRealtimeSegmentDataManager.State.INITIAL_CONSUMING, 1000, Long.MAX_VALUE), 100);
+
+    // Catching up stops right after the message before the final offset
+    Assert.assertEquals(LLRealtimeSegmentDataManager.getNumMessagesToConsume(slice,
+        LLRealtimeSegmentDataManager.State.CATCHING_UP, 1000, START_OFFSET + 40), 40);
+    Assert.assertEquals(LLRealtimeSegmentDataManager.getNumMessagesToConsume(slice,
+        LLRealtimeSegmentDataManager.State.CONSUMING_TO_ONLINE, 1000, START_OFFSET + 1000), 100);
+  }
+
+  private static class IntStreamProviderConfig extends KafkaLowLevelStreamProviderConfig {
+    @Override
+    public KafkaMessageDecoder getDecoder() {
+      return new IntMessageDecoder();
+    }
+  }
+
+  private static class IntMessageDecoder implements KafkaMessageDecoder {
+    @Override
+    public void init(Map<String, String> props, Schema indexingSchema, String kafkaTopicName) {
+    }
+
+    @Override
+    public GenericRow decode(byte[] payload, GenericRow destination) {
+      return decode(payload, 0, payload.length, destination);
+    }
+
+    @Override
+    public GenericRow decode(byte[] payload, int offset, int length, GenericRow destination) {
+      if (length != 4) {
+        return null;
+      }
+      destination.putField("value", ByteBuffer.wrap(payload, offset, length).getInt());
+      return destination;
+    }
+  }
+}
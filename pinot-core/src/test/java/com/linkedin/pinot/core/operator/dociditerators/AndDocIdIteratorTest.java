@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.dociditerators;
+
+import com.linkedin.pinot.core.common.BlockDocIdIterator;
+import com.linkedin.pinot.core.common.Constants;
+import java.util.ArrayList;
+import java.util.List;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Test for the AND docid iterator.
+ */
+public class AndDocIdIteratorTest {
+  private static final int NUM_DOCS = 1000;
+
+  @Test
+  public void testScanBasedIteratorsOnlyProbeMatchingDocs() {
+    // Multiples of 100 matched by the bitmap, multiples of 2 and 3 matched by the scans
+    MutableRoaringBitmap bitmap = new MutableRoaringBitmap();
+    for (int docId = 0; docId < NUM_DOCS; docId += 100) {
+      bitmap.add(docId);
+    }
+    TestScanDocIdIterator multipleOf2 = new TestScanDocIdIterator(2);
+    TestScanDocIdIterator multipleOf3 = new TestScanDocIdIterator(3);
+    AndDocIdIterator andDocIdIterator = new AndDocIdIterator(
+        new BlockDocIdIterator[]{multipleOf2, new BitmapDocIdIterator(bitmap.getIntIterator()), multipleOf3});
+
+    Assert.assertEquals(collect(andDocIdIterator), getExpectedDocIds(100, 2, 3));
+    // The bitmap drives the iteration, the scans only check the docs it matches
+    Assert.assertEquals(multipleOf2.getNumEntriesScanned(), 10);
+    Assert.assertEquals(multipleOf3.getNumEntriesScanned(), 10);
+  }
+
+  @Test
+  public void testAllScanBasedIterators() {
+    TestScanDocIdIterator multipleOf5 = new TestScanDocIdIterator(5);
+    TestScanDocIdIterator multipleOf2 = new TestScanDocIdIterator(2);
+    TestScanDocIdIterator multipleOf3 = new TestScanDocIdIterator(3);
+    AndDocIdIterator andDocIdIterator =
+        new AndDocIdIterator(new BlockDocIdIterator[]{multipleOf5, multipleOf2, multipleOf3});
+
+    Assert.assertEquals(collect(andDocIdIterator), getExpectedDocIds(5, 2, 3));
+    // The first scan drives the iteration, the other ones only check the docs matched so far
+    Assert.assertEquals(multipleOf5.getNumEntriesScanned(), NUM_DOCS);
+    Assert.assertEquals(multipleOf2.getNumEntriesScanned(), NUM_DOCS / 5);
+    Assert.assertEquals(multipleOf3.getNumEntriesScanned(), NUM_DOCS / 10);
+  }
+
+  private static List<Integer> collect(BlockDocIdIterator docIdIterator) {
+    List<Integer> docIds = new ArrayList<>();
+    int docId;
+    while ((docId = docIdIterator.next()) != Constants.EOF) {
+      docIds.add(docId);
+    }
+    return docIds;
+  }
+
+  private static List<Integer> getExpectedDocIds(int... divisors) {
+    List<Integer> docIds = new ArrayList<>();
+    for (int docId = 0; docId < NUM_DOCS; docId++) {
+      boolean matches = true;
+      for (int divisor : divisors) {
+        matches &= docId % divisor == 0;
+      }
+      if (matches) {
+        docIds.add(docId);
+      }
+    }
+    return docIds;
+  }
+
+  /**
+   * Scan based iterator matching the multiples of a given divisor, counting the docs it evaluates.
+   */
+  private static class TestScanDocIdIterator implements ScanBasedDocIdIterator {
+    private final int _divisor;
+    private int _currentDocId = -1;
+    private int _numEntriesScanned = 0;
+
+    TestScanDocIdIterator(int divisor) {
+      _divisor = divisor;
+    }
+
+    @Override
+    public boolean isMatch(int docId) {
+      _numEntriesScanned++;
+      return docId % _divisor == 0;
+    }
+
+    @Override
+    public MutableRoaringBitmap applyAnd(MutableRoaringBitmap answer) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getNumEntriesScanned() {
+      return _numEntriesScanned;
+    }
+
+    @Override
+    public int next() {
+      return advance(_currentDocId + 1);
+    }
+
+    @Override
+    public int advance(int targetDocId) {
+      if (_currentDocId == Constants.EOF) {
+        return Constants.EOF;
+      }
+      for (int docId = Math.max(targetDocId, _currentDocId + 1); docId < NUM_DOCS; docId++) {
+        _numEntriesScanned++;
+        if (docId % _divisor == 0) {
+          _currentDocId = docId;
+          return docId;
+        }
+      }
+      _currentDocId = Constants.EOF;
+      return Constants.EOF;
+    }
+
+    @Override
+    public int currentDocId() {
+      return _currentDocId;
+    }
+  }
+}
@@ -0,0 +1,410 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.reduce;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.exception.QueryException;
+import com.linkedin.pinot.common.query.IncrementalReducer;
+import com.linkedin.pinot.common.request.AggregationInfo;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.request.GroupBy;
+import com.linkedin.pinot.common.request.QuerySource;
+import com.linkedin.pinot.common.request.Selection;
+import com.linkedin.pinot.common.request.SelectionSort;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.common.response.broker.AggregationResult;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.common.response.broker.GroupByResult;
+import com.linkedin.pinot.common.response.broker.QueryProcessingException;
+import com.linkedin.pinot.common.utils.DataSchema;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.datatable.DataTableBuilder;
+import com.linkedin.pinot.core.common.datatable.DataTableFactory;
+import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
+import com.linkedin.pinot.core.operator.aggregation.function.customobject.AvgPair;
+import com.linkedin.pinot.core.query.selection.SelectionOperatorUtils;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests that merging the server responses one at a time with {@link BrokerIncrementalReducer}, in any order, gives the
+ * same broker response as reducing all of them at once with {@link BrokerReduceService#reduceOnDataTable}.
+ */
+public class BrokerIncrementalReducerTest {
+  private static final BrokerReduceService REDUCE_SERVICE = new BrokerReduceService();
+  private static final int NUM_SERVERS = 4;
+  private static final int NUM_DOCS_SCANNED_PER_SERVER = 100;
+  private static final String[] GROUP_KEYS = new String[]{"a", "b", "c", "d", "e"};
+
+  @Test
+  public void testAggregation()
+      throws Exception {
+    BrokerRequest brokerRequest = getAggregationBrokerRequest();
+    Map<ServerInstance, byte[]> responses = new LinkedHashMap<>();
+    long expectedCount = 0L;
+    double expectedSum = 0.0;
+    double expectedMax = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      long count = 10L * (i + 1);
+      double sum = 1.5 * (i + 1) * (i + 1);
+      double max = (i * 7) % NUM_SERVERS;
+      responses.put(getServerInstance(i), getAggregationDataTable(i, count, sum, max));
+      expectedCount += count;
+      expectedSum += sum;
+      expectedMax = Math.max(expectedMax, max);
+    }
+
+    BrokerResponseNative brokerResponse = checkStreamingMatchesBatch(brokerRequest, responses);
+    List<AggregationResult> aggregationResults = brokerResponse.getAggregationResults();
+    Assert.assertEquals(aggregationResults.size(), 4);
+    Assert.assertEquals(aggregationResults.get(0).getValue(), Long.toString(expectedCount));
+    Assert.assertEquals(aggregationResults.get(1).getValue(), String.format("%1.5f", expectedSum));
+    Assert.assertEquals(aggregationResults.get(2).getValue(), String.format("%1.5f", expectedMax));
+    Assert.assertEquals(aggregationResults.get(3).getValue(), String.format("%1.5f", expectedSum / expectedCount));
+    Assert.assertEquals(brokerResponse.getNumDocsScanned(), NUM_SERVERS * NUM_DOCS_SCANNED_PER_SERVER);
+  }
+
+  @Test
+  public void testGroupBy()
+      throws Exception {
+    BrokerRequest brokerRequest = getAggregationBrokerRequest();
+    brokerRequest.setAggregationsInfo(brokerRequest.getAggregationsInfo().subList(0, 2));
+    GroupBy groupBy = new GroupBy();
+    groupBy.setColumns(Collections.singletonList("dim"));
+    groupBy.setTopN(3);
+    brokerRequest.setGroupBy(groupBy);
+
+    Map<ServerInstance, byte[]> responses = new LinkedHashMap<>();
+    Map<String, Long> expectedCounts = new HashMap<>();
+    Map<String, Double> expectedSums = new HashMap<>();
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      // Each server has a different overlapping subset of the groups
+      HashMap<String, Object> counts = new HashMap<>();
+      HashMap<String, Object> sums = new HashMap<>();
+      for (int j = i; j < i + 3; j++) {
+        String groupKey = GROUP_KEYS[j % GROUP_KEYS.length];
+        long count = j + 1;
+        double sum = (j + 1) * 10.0 + i;
+        counts.put(groupKey, count);
+        sums.put(groupKey, sum);
+        Long expectedCount = expectedCounts.get(groupKey);
+        expectedCounts.put(groupKey, expectedCount == null ? count : expectedCount + count);
+        Double expectedSum = expectedSums.get(groupKey);
+        expectedSums.put(groupKey, expectedSum == null ? sum : expectedSum + sum);
+      }
+      responses.put(getServerInstance(i), getGroupByDataTable(i, counts, sums));
+    }
+
+    BrokerResponseNative brokerResponse = checkStreamingMatchesBatch(brokerRequest, responses);
+    List<AggregationResult> aggregationResults = brokerResponse.getAggregationResults();
+    Assert.assertEquals(aggregationResults.size(), 2);
+    for (GroupByResult groupByResult : aggregationResults.get(0).getGroupByResult()) {
+      String groupKey = groupByResult.getGroup().get(0);
+      Assert.assertEquals(groupByResult.getValue(), expectedCounts.get(groupKey).toString());
+    }
+    for (GroupByResult groupByResult : aggregationResults.get(1).getGroupByResult()) {
+      String groupKey = groupByResult.getGroup().get(0);
+      Assert.assertEquals(groupByResult.getValue(), String.format("%1.5f", expectedSums.get(groupKey)));
+    }
+    Assert.assertEquals(aggregationResults.get(0).getGroupByResult().size(), 3);
+  }
+
+  @Test
+  public void testSelectionOrderBy()
+      throws Exception {
+    BrokerRequest brokerRequest = getSelectionBrokerRequest(5);
+    SelectionSort selectionSort = new SelectionSort();
+    selectionSort.setColumn("met");
+    selectionSort.setIsAsc(false);
+    brokerRequest.getSelections().setSelectionSortSequence(Collections.singletonList(selectionSort));
+
+    Map<ServerInstance, byte[]> responses = new LinkedHashMap<>();
+    List<Long> values = new ArrayList<>();
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      List<Serializable[]> rows = new ArrayList<>();
+      for (int j = 0; j < 5; j++) {
+        // Distinct values interleaved across servers
+        long value = (j * NUM_SERVERS + i) * 3L % 41;
+        rows.add(new Serializable[]{value, "server" + i});
+        values.add(value);
+      }
+      // Order-by columns come first in the data schema of selection order-by data tables
+      responses.put(getServerInstance(i), getSelectionDataTable(i, new String[]{"met", "dim"},
+          new FieldSpec.DataType[]{FieldSpec.DataType.LONG, FieldSpec.DataType.STRING}, rows));
+    }
+
+    BrokerResponseNative brokerResponse = checkStreamingMatchesBatch(brokerRequest, responses);
+    Collections.sort(values, Collections.reverseOrder());
+    List<Serializable[]> rows = brokerResponse.getSelectionResults().getRows();
+    Assert.assertEquals(rows.size(), 5);
+    for (int i = 0; i < 5; i++) {
+      Assert.assertEquals(rows.get(i)[1], values.get(i).toString());
+    }
+  }
+
+  @Test
+  public void testSelectionOnly()
+      throws Exception {
+    // Limit covers all the rows, so that the selected rows do not depend on the merge order
+    BrokerRequest brokerRequest = getSelectionBrokerRequest(100);
+    Map<ServerInstance, byte[]> responses = new LinkedHashMap<>();
+    List<String> expectedRows = new ArrayList<>();
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      List<Serializable[]> rows = new ArrayList<>();
+      for (int j = 0; j < 3; j++) {
+        rows.add(new Serializable[]{"server" + i, (long) j});
+        expectedRows.add(Arrays.toString(new String[]{"server" + i, Integer.toString(j)}));
+      }
+      responses.put(getServerInstance(i), getSelectionDataTable(i, new String[]{"dim", "met"},
+          new FieldSpec.DataType[]{FieldSpec.DataType.STRING, FieldSpec.DataType.LONG}, rows));
+    }
+
+    BrokerResponseNative batchResponse = REDUCE_SERVICE.reduceOnDataTable(brokerRequest, getDataTableMap(responses));
+    Collections.sort(expectedRows);
+    Assert.assertEquals(getSortedRows(batchResponse), expectedRows);
+    for (List<ServerInstance> mergeOrder : getMergeOrders(responses)) {
+      BrokerResponseNative streamingResponse = reduceIncrementally(brokerRequest, responses, mergeOrder);
+      Assert.assertEquals(getSortedRows(streamingResponse), expectedRows);
+      Assert.assertEquals(streamingResponse.getSelectionResults().getColumns(),
+          batchResponse.getSelectionResults().getColumns());
+    }
+  }
+
+  @Test
+  public void testSelectionWithConflictingDataSchema()
+      throws Exception {
+    BrokerRequest brokerRequest = getSelectionBrokerRequest(4);
+    Map<ServerInstance, byte[]> responses = new LinkedHashMap<>();
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      List<Serializable[]> rows = new ArrayList<>();
+      FieldSpec.DataType[] columnTypes;
+      if (i == 1) {
+        // Server 1 returns a numeric "dim" column, which conflicts with the data schema of the first response
+        rows.add(new Serializable[]{(long) i, (long) i});
+        rows.add(new Serializable[]{(long) i, (long) i});
+        columnTypes = new FieldSpec.DataType[]{FieldSpec.DataType.LONG, FieldSpec.DataType.LONG};
+      } else {
+        rows.add(new Serializable[]{"server" + i, (long) i});
+        rows.add(new Serializable[]{"server" + i, (long) i});
+        columnTypes = new FieldSpec.DataType[]{FieldSpec.DataType.STRING, FieldSpec.DataType.LONG};
+      }
+      responses.put(getServerInstance(i), getSelectionDataTable(i, new String[]{"dim", "met"}, columnTypes, rows));
+    }
+
+    BrokerResponseNative brokerResponse =
+        reduceIncrementally(brokerRequest, responses, new ArrayList<>(responses.keySet()));
+    List<QueryProcessingException> processingExceptions = brokerResponse.getProcessingExceptions();
+    Assert.assertEquals(processingExceptions.size(), 1);
+    Assert.assertEquals(processingExceptions.get(0).getErrorCode(), QueryException.MERGE_RESPONSE_ERROR_CODE);
+    Assert.assertTrue(processingExceptions.get(0).getMessage().contains(getServerInstance(1).toString()));
+    // Rows are capped at the selection size, and come from the compatible responses in arrival order
+    Assert.assertEquals(getSortedRows(brokerResponse),
+        Arrays.asList("[server0, 0]", "[server0, 0]", "[server2, 2]", "[server2, 2]"));
+    Assert.assertEquals(brokerResponse.getNumDocsScanned(), NUM_SERVERS * NUM_DOCS_SCANNED_PER_SERVER);
+  }
+
+  @Test
+  public void testPartialResponses()
+      throws Exception {
+    BrokerRequest brokerRequest = getAggregationBrokerRequest();
+    Map<ServerInstance, byte[]> responses = new LinkedHashMap<>();
+    responses.put(getServerInstance(0), getAggregationDataTable(0, 10L, 20.0, 3.0));
+    // Server 1 failed to process the query, server 3 did not respond
+    DataTable exceptionDataTable = new DataTableImplV2();
+    exceptionDataTable.getMetadata()
+        .put(DataTable.NUM_DOCS_SCANNED_METADATA_KEY, Integer.toString(NUM_DOCS_SCANNED_PER_SERVER));
+    exceptionDataTable.addException(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR,
+        new UnsupportedOperationException("Caught exception.")));
+    responses.put(getServerInstance(1), DataTableFactory.toBytes(exceptionDataTable, DataTableFactory.VERSION_3));
+    responses.put(getServerInstance(2), getAggregationDataTable(2, 30L, 40.0, 5.0));
+
+    BrokerResponseNative brokerResponse = checkStreamingMatchesBatch(brokerRequest, responses);
+    Assert.assertEquals(brokerResponse.getProcessingExceptions().size(), 1);
+    Assert.assertEquals(brokerResponse.getProcessingExceptions().get(0).getErrorCode(),
+        QueryException.QUERY_EXECUTION_ERROR_CODE);
+    Assert.assertEquals(brokerResponse.getAggregationResults().get(0).getValue(), "40");
+    Assert.assertEquals(brokerResponse.getAggregationResults().get(2).getValue(), String.format("%1.5f", 5.0));
+    Assert.assertEquals(brokerResponse.getNumDocsScanned(), 3 * NUM_DOCS_SCANNED_PER_SERVER);
+  }
+
+  @Test
+  public void testNoResponse()
+      throws Exception {
+    BrokerRequest brokerRequest = getAggregationBrokerRequest();
+    Map<ServerInstance, byte[]> responses = Collections.emptyMap();
+    BrokerResponseNative brokerResponse = checkStreamingMatchesBatch(brokerRequest, responses);
+    Assert.assertEquals(brokerResponse.toJsonString(), BrokerResponseNative.empty().toJsonString());
+  }
+
+  /**
+   * Reduce the serialized responses with the batch reduce and with the incremental reducer in several merge orders,
+   * check that all the broker responses are the same and return the batch one.
+   */
+  private static BrokerResponseNative checkStreamingMatchesBatch(BrokerRequest brokerRequest,
+      Map<ServerInstance, byte[]> responses)
+      throws Exception {
+    BrokerResponseNative batchResponse = REDUCE_SERVICE.reduceOnDataTable(brokerRequest, getDataTableMap(responses));
+    String expected = batchResponse.toJsonString();
+    for (List<ServerInstance> mergeOrder : getMergeOrders(responses)) {
+      BrokerResponseNative streamingResponse = reduceIncrementally(brokerRequest, responses, mergeOrder);
+      Assert.assertEquals(streamingResponse.toJsonString(), expected, "Merge order: " + mergeOrder);
+    }
+    return batchResponse;
+  }
+
+  private static BrokerResponseNative reduceIncrementally(BrokerRequest brokerRequest,
+      Map<ServerInstance, byte[]> responses, List<ServerInstance> mergeOrder)
+      throws Exception {
+    IncrementalReducer<BrokerResponseNative> reducer = REDUCE_SERVICE.startIncrementalReduce(brokerRequest, null);
+    for (ServerInstance serverInstance : mergeOrder) {
+      reducer.merge(serverInstance, DataTableFactory.getDataTable(responses.get(serverInstance)));
+    }
+    return reducer.finish();
+  }
+
+  private static Map<ServerInstance, DataTable> getDataTableMap(Map<ServerInstance, byte[]> responses)
+      throws Exception {
+    Map<ServerInstance, DataTable> dataTableMap = new HashMap<>();
+    for (Map.Entry<ServerInstance, byte[]> entry : responses.entrySet()) {
+      dataTableMap.put(entry.getKey(), DataTableFactory.getDataTable(entry.getValue()));
+    }
+    return dataTableMap;
+  }
+
+  /**
+   * Returns the arrival order, the reverse order and a rotated order of the servers.
+   */
+  private static List<List<ServerInstance>> getMergeOrders(Map<ServerInstance, byte[]> responses) {
+    List<ServerInstance> arrivalOrder = new ArrayList<>(responses.keySet());
+    List<ServerInstance> reverseOrder = new ArrayList<>(arrivalOrder);
+    Collections.reverse(reverseOrder);
+    List<ServerInstance> rotatedOrder = new ArrayList<>(arrivalOrder);
+    Collections.rotate(rotatedOrder, 1);
+    return Arrays.asList(arrivalOrder, reverseOrder, rotatedOrder);
+  }
+
+  private static List<String> getSortedRows(BrokerResponseNative brokerResponse) {
+    List<String> rows = new ArrayList<>();
+    for (Serializable[] row : brokerResponse.getSelectionResults().getRows()) {
+      rows.add(Arrays.toString(row));
+    }
+    Collections.sort(rows);
+    return rows;
+  }
+
+  private static ServerInstance getServerInstance(int serverId) {
+    return new ServerInstance("server" + serverId, 8098);
+  }
+
+  /**
+   * Servers alternate between data table version 2 and 3, so that both are merged together.
+   */
+  private static int getDataTableVersion(int serverId) {
+    return serverId % 2 == 0 ? DataTableFactory.VERSION_3 : DataTableFactory.VERSION_2;
+  }
+
+  private static BrokerRequest getAggregationBrokerRequest() {
+    BrokerRequest brokerRequest = new BrokerRequest();
+    QuerySource querySource = new QuerySource();
+    querySource.setTableName("testTable");
+    brokerRequest.setQuerySource(querySource);
+    List<AggregationInfo> aggregationsInfo = new ArrayList<>();
+    aggregationsInfo.add(getAggregationInfo("count", "*"));
+    aggregationsInfo.add(getAggregationInfo("sum", "met"));
+    aggregationsInfo.add(getAggregationInfo("max", "met"));
+    aggregationsInfo.add(getAggregationInfo("avg", "met"));
+    brokerRequest.setAggregationsInfo(aggregationsInfo);
+    return brokerRequest;
+  }
+
+  private static AggregationInfo getAggregationInfo(String aggregationType, String column) {
+    AggregationInfo aggregationInfo = new AggregationInfo();
+    aggregationInfo.setAggregationType(aggregationType);
+    aggregationInfo.setAggregationParams(Collections.singletonMap("column", column));
+    return aggregationInfo;
+  }
+
+  private static BrokerRequest getSelectionBrokerRequest(int size) {
+    BrokerRequest brokerRequest = new BrokerRequest();
+    QuerySource querySource = new QuerySource();
+    querySource.setTableName("testTable");
+    brokerRequest.setQuerySource(querySource);
+    Selection selection = new Selection();
+    selection.setSelectionColumns(Arrays.asList("dim", "met"));
+    selection.setSize(size);
+    brokerRequest.setSelections(selection);
+    return brokerRequest;
+  }
+
+  private static byte[] getAggregationDataTable(int serverId, long count, double sum, double max)
+      throws Exception {
+    DataSchema dataSchema = new DataSchema(new String[]{"count_star", "sum_met", "max_met", "avg_met"},
+        new FieldSpec.DataType[]{FieldSpec.DataType.LONG, FieldSpec.DataType.DOUBLE, FieldSpec.DataType.DOUBLE,
+            FieldSpec.DataType.OBJECT});
+    int version = getDataTableVersion(serverId);
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, version);
+    dataTableBuilder.startRow();
+    dataTableBuilder.setColumn(0, count);
+    dataTableBuilder.setColumn(1, sum);
+    dataTableBuilder.setColumn(2, max);
+    dataTableBuilder.setColumn(3, (Object) new AvgPair(sum, count));
+    dataTableBuilder.finishRow();
+    return toBytes(dataTableBuilder.build(), version);
+  }
+
+  private static byte[] getGroupByDataTable(int serverId, HashMap<String, Object> counts,
+      HashMap<String, Object> sums)
+      throws Exception {
+    DataSchema dataSchema = new DataSchema(new String[]{"functionName", "GroupByResultMap"},
+        new FieldSpec.DataType[]{FieldSpec.DataType.STRING, FieldSpec.DataType.OBJECT});
+    int version = getDataTableVersion(serverId);
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, version);
+    dataTableBuilder.startRow();
+    dataTableBuilder.setColumn(0, "count_star");
+    dataTableBuilder.setColumn(1, (Object) counts);
+    dataTableBuilder.finishRow();
+    dataTableBuilder.startRow();
+    dataTableBuilder.setColumn(0, "sum_met");
+    dataTableBuilder.setColumn(1, (Object) sums);
+    dataTableBuilder.finishRow();
+    return toBytes(dataTableBuilder.build(), version);
+  }
+
+  private static byte[] getSelectionDataTable(int serverId, String[] columnNames, FieldSpec.DataType[] columnTypes,
+      List<Serializable[]> rows)
+      throws Exception {
+    DataSchema dataSchema = new DataSchema(columnNames, columnTypes);
+    int version = getDataTableVersion(serverId);
+    return toBytes(SelectionOperatorUtils.getDataTableFromRows(rows, dataSchema, version), version);
+  }
+
+  private static byte[] toBytes(DataTable dataTable, int version)
+      throws Exception {
+    Map<String, String> metadata = dataTable.getMetadata();
+    metadata.put(DataTable.NUM_DOCS_SCANNED_METADATA_KEY, Integer.toString(NUM_DOCS_SCANNED_PER_SERVER));
+    metadata.put(DataTable.TOTAL_DOCS_METADATA_KEY, Integer.toString(2 * NUM_DOCS_SCANNED_PER_SERVER));
+    return DataTableFactory.toBytes(dataTable, version);
+  }
+}
@@ -44,7 +44,7 @@ import com.linkedin.pinot.core.common.predicate.NEqPredicate;
 import com.linkedin.pinot.core.common.predicate.RangePredicate;
 import com.linkedin.pinot.core.data.GenericRow;
 import com.linkedin.pinot.core.data.readers.FileFormat;
-import com.linkedin.pinot.core.operator.filter.BitmapBasedFilterOperator;
+import com.linkedin.pinot.core.operator.filter.RealtimeInvertedIndexBasedFilterOperator;
 import com.linkedin.pinot.core.operator.filter.ScanBasedFilterOperator;
 import com.linkedin.pinot.core.realtime.impl.FileBasedStreamProviderConfig;
 import com.linkedin.pinot.core.realtime.impl.FileBasedStreamProviderImpl;
@@ -129,7 +129,8 @@ public class RealtimeSegmentTest {
   public void testMetricPredicateWithInvIdx() throws Exception {
     DataSource ds1 = segmentWithInvIdx.getDataSource("count");
 
-    BitmapBasedFilterOperator op = new BitmapBasedFilterOperator(ds1, 0, segmentWithInvIdx.getRawDocumentCount() - 1);
+    RealtimeInvertedIndexBasedFilterOperator op =
+        new RealtimeInvertedIndexBasedFilterOperator(ds1, 0, segmentWithInvIdx.getRawDocumentCount() - 1);
     List<String> rhs = new ArrayList<String>();
     rhs.add("890662862");
     Predicate predicate = new EqPredicate("count", rhs);
@@ -183,7 +184,8 @@ public class RealtimeSegmentTest {
   public void testNoMatchFilteringMetricPredicateWithInvIdx() throws Exception {
     DataSource ds1 = segmentWithInvIdx.getDataSource("count");
 
-    BitmapBasedFilterOperator op = new BitmapBasedFilterOperator(ds1, 0, segmentWithInvIdx.getRawDocumentCount() - 1);
+    RealtimeInvertedIndexBasedFilterOperator op =
+        new RealtimeInvertedIndexBasedFilterOperator(ds1, 0, segmentWithInvIdx.getRawDocumentCount() - 1);
     List<String> rhs = new ArrayList<String>();
     rhs.add("890662862");
     Predicate predicate = new NEqPredicate("count", rhs);
@@ -231,7 +233,8 @@ public class RealtimeSegmentTest {
   public void testRangeMatchFilteringMetricPredicateWithInvIdx() throws Exception {
     DataSource ds1 = segmentWithInvIdx.getDataSource("count");
 
-    BitmapBasedFilterOperator op = new BitmapBasedFilterOperator(ds1, 0, segmentWithInvIdx.getRawDocumentCount() - 1);
+    RealtimeInvertedIndexBasedFilterOperator op =
+        new RealtimeInvertedIndexBasedFilterOperator(ds1, 0, segmentWithInvIdx.getRawDocumentCount() - 1);
     List<String> rhs = new ArrayList<String>();
     rhs.add("[0\t\t*)");
     Predicate predicate = new RangePredicate("count", rhs);
@@ -285,7 +288,8 @@ public class RealtimeSegmentTest {
   public void testNoRangeMatchFilteringMetricPredicateWithInvIdx() throws Exception {
     DataSource ds1 = segmentWithInvIdx.getDataSource("count");
 
-    BitmapBasedFilterOperator op = new BitmapBasedFilterOperator(ds1, 0, segmentWithInvIdx.getRawDocumentCount() - 1);
+    RealtimeInvertedIndexBasedFilterOperator op =
+        new RealtimeInvertedIndexBasedFilterOperator(ds1, 0, segmentWithInvIdx.getRawDocumentCount() - 1);
     List<String> rhs = new ArrayList<String>();
     rhs.add("[0\t\t100)");
     Predicate predicate = new RangePredicate("count", rhs);
@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.realtime.converter;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.realtime.impl.RealtimeSegmentImpl;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests that converting a realtime segment by columns creates the same segment as converting it by rows.
+ */
+public class RealtimeSegmentConverterTest {
+  private static final File TEMP_DIR =
+      new File(FileUtils.getTempDirectory(), RealtimeSegmentConverterTest.class.getSimpleName());
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_ROWS = 2000;
+
+  private Schema _schema;
+  private RealtimeSegmentImpl _realtimeSegment;
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    _schema = new Schema.SchemaBuilder().setSchemaName("testSchema")
+        .addSingleValueDimension("stringDimension", FieldSpec.DataType.STRING)
+        .addSingleValueDimension("intDimension", FieldSpec.DataType.INT)
+        .addMultiValueDimension("multiValueDimension", FieldSpec.DataType.INT)
+        .addMetric("longMetric", FieldSpec.DataType.LONG)
+        .addMetric("floatMetric", FieldSpec.DataType.FLOAT)
+        .addMetric("doubleMetric", FieldSpec.DataType.DOUBLE)
+        .addTime("time", TimeUnit.SECONDS, FieldSpec.DataType.LONG)
+        .build();
+    _realtimeSegment = new RealtimeSegmentImpl(_schema, NUM_ROWS, "testTable", SEGMENT_NAME,
+        _schema.getSchemaName(), new ServerMetrics(new MetricsRegistry()),
+        Arrays.asList("stringDimension", "intDimension", "multiValueDimension"));
+
+    Random random = new Random(42);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Map<String, Object> fields = new HashMap<>();
+      // Include strings shorter than others with the same prefix, which are padded in the segment dictionary
+      fields.put("stringDimension", "value" + random.nextInt(30));
+      fields.put("intDimension", random.nextInt(100) - 50);
+      Object[] multiValues = new Object[1 + random.nextInt(4)];
+      for (int j = 0; j < multiValues.length; j++) {
+        multiValues[j] = random.nextInt(20);
+      }
+      fields.put("multiValueDimension", multiValues);
+      fields.put("longMetric", (long) random.nextInt(500));
+      fields.put("floatMetric", random.nextFloat() - 0.5f);
+      fields.put("doubleMetric", (double) random.nextInt(200));
+      fields.put("time", 1000L + i / 10);
+      GenericRow row = new GenericRow();
+      row.init(fields);
+      _realtimeSegment.index(row);
+    }
+    Assert.assertEquals(_realtimeSegment.getRawDocumentCount(), NUM_ROWS);
+  }
+
+  @Test
+  public void testUnsorted() throws Exception {
+    compareConversions(null, Arrays.asList("stringDimension", "multiValueDimension"));
+  }
+
+  // The sorted column has an inverted index in the realtime segment
+  @Test
+  public void testSortedColumn() throws Exception {
+    compareConversions("intDimension", Collections.singletonList("stringDimension"));
+    compareConversions("stringDimension", Arrays.asList("intDimension", "multiValueDimension"));
+  }
+
+  private void compareConversions(String sortedColumn, List<String> invertedIndexColumns) throws Exception {
+    File columnarDir = new File(TEMP_DIR, "columnar");
+    File rowDir = new File(TEMP_DIR, "row");
+    try {
+      RealtimeSegmentConverter columnarConverter = new RealtimeSegmentConverter(_realtimeSegment,
+          columnarDir.getAbsolutePath(), _schema, "testTable", SEGMENT_NAME, sortedColumn, invertedIndexColumns);
+      columnarConverter.build(SegmentVersion.v1);
+      RealtimeSegmentConverter rowConverter = new RealtimeSegmentConverter(_realtimeSegment,
+          rowDir.getAbsolutePath(), _schema, "testTable", SEGMENT_NAME, sortedColumn, invertedIndexColumns);
+      rowConverter.setColumnarConversionEnabled(false);
+      rowConverter.build(SegmentVersion.v1);
+
+      File[] rowFiles = new File(rowDir, SEGMENT_NAME).listFiles();
+      Assert.assertNotNull(rowFiles);
+      Assert.assertEquals(new File(columnarDir, SEGMENT_NAME).list().length, rowFiles.length);
+      for (File rowFile : rowFiles) {
+        String fileName = rowFile.getName();
+        // Creation metadata holds the creation time
+        if (fileName.equals(V1Constants.SEGMENT_CREATION_META)) {
+          continue;
+        }
+        File columnarFile = new File(new File(columnarDir, SEGMENT_NAME), fileName);
+        Assert.assertTrue(FileUtils.contentEquals(columnarFile, rowFile), "Files differ: " + fileName);
+      }
+    } finally {
+      FileUtils.deleteQuietly(columnarDir);
+      FileUtils.deleteQuietly(rowDir);
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+}
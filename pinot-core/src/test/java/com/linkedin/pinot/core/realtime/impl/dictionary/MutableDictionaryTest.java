@@ -0,0 +1,173 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.realtime.impl.dictionary;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class MutableDictionaryTest {
+  private static final String COL_NAME = "column";
+  // Larger than the initial capacity of the dictionary id maps, to cover growth and rehash.
+  private static final int NUM_ENTRIES = 20_000;
+  private static final int CARDINALITY = 5_000;
+  private static final long RANDOM_SEED = System.nanoTime();
+
+  @Test
+  public void testIntDictionary() {
+    MutableDictionaryReader dictionary =
+        RealtimeDictionaryProvider.getDictionaryFor(new DimensionFieldSpec(COL_NAME, FieldSpec.DataType.INT, true));
+    Random random = new Random(RANDOM_SEED);
+    Object[] values = new Object[NUM_ENTRIES];
+    for (int i = 0; i < NUM_ENTRIES; i++) {
+      values[i] = random.nextInt(CARDINALITY) - CARDINALITY / 2;
+    }
+    testDictionary(dictionary, values);
+    Assert.assertEquals(dictionary.indexOf("0"), dictionary.indexOf(0));
+  }
+
+  @Test
+  public void testLongDictionary() {
+    MutableDictionaryReader dictionary =
+        RealtimeDictionaryProvider.getDictionaryFor(new DimensionFieldSpec(COL_NAME, FieldSpec.DataType.LONG, true));
+    Random random = new Random(RANDOM_SEED);
+    Object[] values = new Object[NUM_ENTRIES];
+    for (int i = 0; i < NUM_ENTRIES; i++) {
+      values[i] = (random.nextInt(CARDINALITY) - CARDINALITY / 2) * (long) Integer.MAX_VALUE;
+    }
+    testDictionary(dictionary, values);
+  }
+
+  @Test
+  public void testFloatDictionary() {
+    MutableDictionaryReader dictionary =
+        RealtimeDictionaryProvider.getDictionaryFor(new DimensionFieldSpec(COL_NAME, FieldSpec.DataType.FLOAT, true));
+    Random random = new Random(RANDOM_SEED);
+    Object[] values = new Object[NUM_ENTRIES];
+    for (int i = 0; i < NUM_ENTRIES; i++) {
+      values[i] = (random.nextInt(CARDINALITY) - CARDINALITY / 2) / 7.0f;
+    }
+    testDictionary(dictionary, values);
+  }
+
+  @Test
+  public void testDoubleDictionary() {
+    MutableDictionaryReader dictionary =
+        RealtimeDictionaryProvider.getDictionaryFor(new DimensionFieldSpec(COL_NAME, FieldSpec.DataType.DOUBLE, true));
+    Random random = new Random(RANDOM_SEED);
+    Object[] values = new Object[NUM_ENTRIES];
+    for (int i = 0; i < NUM_ENTRIES; i++) {
+      values[i] = (random.nextInt(CARDINALITY) - CARDINALITY / 2) / 7.0;
+    }
+    testDictionary(dictionary, values);
+  }
+
+  @Test
+  public void testStringDictionary() {
+    MutableDictionaryReader dictionary =
+        RealtimeDictionaryProvider.getDictionaryFor(new DimensionFieldSpec(COL_NAME, FieldSpec.DataType.STRING, true));
+    Random random = new Random(RANDOM_SEED);
+    // Mix of 1, 2, 3 and 4 bytes UTF-8 characters, plus a lone surrogate.
+    String[] suffixes = new String[]{"", "é", "中文", "😀", "\ud800"};
+    Object[] values = new Object[NUM_ENTRIES];
+    for (int i = 0; i < NUM_ENTRIES; i++) {
+      int value = random.nextInt(CARDINALITY);
+      values[i] = "value_" + value + suffixes[value % suffixes.length];
+    }
+    testDictionary(dictionary, values);
+    Assert.assertEquals(dictionary.indexOf("value_"), MutableDictionaryReader.NULL_VALUE_INDEX);
+    dictionary.close();
+  }
+
+  @Test
+  public void testStringDictionaryIdMapWithSmallChunks() {
+    StringDictionaryIdMap idMap = new StringDictionaryIdMap(16);
+    int shortId = idMap.put("short");
+    String longValue = "a value longer than the chunk size";
+    int longId = idMap.put(longValue);
+    Assert.assertEquals(idMap.put("short"), shortId);
+    Assert.assertEquals(idMap.getId(longValue), longId);
+    Assert.assertEquals(idMap.getValue(shortId), "short");
+    Assert.assertEquals(idMap.getValue(longId), longValue);
+    Assert.assertEquals(idMap.getId("missing"), MutableDictionaryReader.NULL_VALUE_INDEX);
+    idMap.close();
+  }
+
+  @Test
+  public void testIntDictionaryIdMapConcurrentLookups()
+      throws Exception {
+    final IntDictionaryIdMap idMap = new IntDictionaryIdMap();
+    final int numValues = NUM_ENTRIES;
+    final AtomicBoolean done = new AtomicBoolean();
+    final AtomicReference<String> error = new AtomicReference<>();
+    Thread reader = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        Random random = new Random(RANDOM_SEED);
+        while (!done.get() && error.get() == null) {
+          // Value 0 is inserted last, any id returned before that must belong to it
+          int value = random.nextInt(2) == 0 ? 0 : random.nextInt(numValues);
+          int dictId = idMap.getId(value);
+          if (dictId != MutableDictionaryReader.NULL_VALUE_INDEX && idMap.getValue(dictId) != value) {
+            error.set("Got dictionary id: " + dictId + " of value: " + idMap.getValue(dictId) + " for value: " + value);
+          }
+        }
+      }
+    });
+    reader.start();
+    for (int value = 1; value < numValues; value++) {
+      idMap.put(value);
+    }
+    int zeroDictId = idMap.put(0);
+    done.set(true);
+    reader.join();
+    Assert.assertNull(error.get(), "Random seed: " + RANDOM_SEED);
+    Assert.assertEquals(idMap.getId(0), zeroDictId);
+    Assert.assertEquals(idMap.size(), numValues);
+  }
+
+  private void testDictionary(MutableDictionaryReader dictionary, Object[] values) {
+    Map<Object, Integer> expectedDictIds = new HashMap<>();
+    for (Object value : values) {
+      dictionary.index(value);
+      int dictId = dictionary.indexOf(value);
+      Integer expectedDictId = expectedDictIds.get(value);
+      if (expectedDictId == null) {
+        Assert.assertEquals(dictId, expectedDictIds.size(), "Random seed: " + RANDOM_SEED);
+        expectedDictIds.put(value, dictId);
+      } else {
+        Assert.assertEquals(dictId, expectedDictId.intValue(), "Random seed: " + RANDOM_SEED);
+      }
+    }
+
+    Assert.assertEquals(dictionary.length(), expectedDictIds.size(), "Random seed: " + RANDOM_SEED);
+    for (Map.Entry<Object, Integer> entry : expectedDictIds.entrySet()) {
+      Object value = entry.getKey();
+      int dictId = entry.getValue();
+      Assert.assertEquals(dictionary.get(dictId), value, "Random seed: " + RANDOM_SEED);
+      Assert.assertEquals(dictionary.getStringValue(dictId), value.toString(), "Random seed: " + RANDOM_SEED);
+      Assert.assertTrue(dictionary.contains(value), "Random seed: " + RANDOM_SEED);
+      Assert.assertEquals(dictionary.indexOf(value.toString()), dictId, "Random seed: " + RANDOM_SEED);
+    }
+  }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.realtime.impl.invertedIndex;
+
+import com.linkedin.pinot.core.common.BlockDocIdIterator;
+import com.linkedin.pinot.core.common.Constants;
+import com.linkedin.pinot.core.operator.docidsets.RealtimeInvertedIndexDocIdSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.roaringbitmap.IntIterator;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class RealtimeInvertedIndexTest {
+  private static final int NUM_DOCS = 100_000;
+  private static final int CARDINALITY = 2_000;
+
+  @Test
+  public void testAddAndIterate() {
+    RealtimeInvertedIndex invertedIndex = new RealtimeInvertedIndexImpl("column");
+    for (int docId = 0; docId < NUM_DOCS; docId++) {
+      invertedIndex.add(docId % CARDINALITY, docId);
+    }
+
+    for (int dictId = 0; dictId < CARDINALITY; dictId++) {
+      IntIterator iterator = invertedIndex.getDocIdIterator(dictId, NUM_DOCS - 1);
+      int expectedDocId = dictId;
+      while (iterator.hasNext()) {
+        Assert.assertEquals(iterator.next(), expectedDocId);
+        expectedDocId += CARDINALITY;
+      }
+      Assert.assertEquals(expectedDocId, dictId + NUM_DOCS);
+    }
+
+    // Iteration is bounded by the max doc id, across sealed chunks and the current chunk
+    int maxDocId = RealtimeInvertedIndexImpl.DOC_IDS_PER_CHUNK + 1;
+    IntIterator iterator = invertedIndex.getDocIdIterator(0, maxDocId);
+    int numDocs = 0;
+    while (iterator.hasNext()) {
+      Assert.assertTrue(iterator.next() <= maxDocId);
+      numDocs++;
+    }
+    Assert.assertEquals(numDocs, maxDocId / CARDINALITY + 1);
+
+    // Iterators are not affected by further additions, and a document indexed twice is returned once
+    iterator = invertedIndex.getDocIdIterator(1, Integer.MAX_VALUE);
+    IntIterator clone = iterator.clone();
+    invertedIndex.add(1, NUM_DOCS);
+    invertedIndex.add(1, NUM_DOCS);
+    Assert.assertEquals(count(iterator), NUM_DOCS / CARDINALITY);
+    Assert.assertEquals(count(clone), NUM_DOCS / CARDINALITY);
+    Assert.assertEquals(count(invertedIndex.getDocIdIterator(1, Integer.MAX_VALUE)), NUM_DOCS / CARDINALITY + 1);
+
+    // Dictionary ids without any document
+    Assert.assertFalse(invertedIndex.getDocIdIterator(CARDINALITY, NUM_DOCS).hasNext());
+    Assert.assertFalse(invertedIndex.getDocIdIterator(Integer.MAX_VALUE, NUM_DOCS).hasNext());
+    Assert.assertFalse(invertedIndex.getDocIdIterator(-1, NUM_DOCS).hasNext());
+  }
+
+  @Test
+  public void testDocIdSet() {
+    RealtimeInvertedIndex invertedIndex = new RealtimeInvertedIndexImpl("column");
+    for (int docId = 0; docId < NUM_DOCS; docId++) {
+      invertedIndex.add(docId % CARDINALITY, docId);
+    }
+    int startDocId = 10;
+    int endDocId = NUM_DOCS / 2;
+
+    // EQ
+    BlockDocIdIterator iterator =
+        new RealtimeInvertedIndexDocIdSet(invertedIndex, new int[]{5}, false, startDocId, endDocId).iterator();
+    int expectedDocId = 5 + CARDINALITY;
+    for (int docId = iterator.next(); docId != Constants.EOF; docId = iterator.next()) {
+      Assert.assertEquals(docId, expectedDocId);
+      expectedDocId += CARDINALITY;
+    }
+    Assert.assertTrue(expectedDocId > endDocId);
+
+    // IN
+    iterator =
+        new RealtimeInvertedIndexDocIdSet(invertedIndex, new int[]{7, 3}, false, startDocId, endDocId).iterator();
+    for (int expected = startDocId; expected <= endDocId; expected++) {
+      int dictId = expected % CARDINALITY;
+      if (dictId == 3 || dictId == 7) {
+        Assert.assertEquals(iterator.next(), expected);
+      }
+    }
+    Assert.assertEquals(iterator.next(), Constants.EOF);
+
+    // NOT IN, with advance
+    iterator = new RealtimeInvertedIndexDocIdSet(invertedIndex, new int[]{3, 4}, true, startDocId, endDocId).iterator();
+    Assert.assertEquals(iterator.advance(CARDINALITY + 3), CARDINALITY + 5);
+    for (int expected = CARDINALITY + 6; expected <= endDocId; expected++) {
+      int dictId = expected % CARDINALITY;
+      if (dictId != 3 && dictId != 4) {
+        Assert.assertEquals(iterator.next(), expected);
+      }
+    }
+    Assert.assertEquals(iterator.next(), Constants.EOF);
+  }
+
+  @Test
+  public void testConcurrentReadWrite()
+      throws Exception {
+    final RealtimeInvertedIndex invertedIndex = new RealtimeInvertedIndexImpl("column");
+    final AtomicInteger searchableDocId = new AtomicInteger(-1);
+    ExecutorService executorService = Executors.newFixedThreadPool(3);
+    try {
+      Future<?> writer = executorService.submit(new Runnable() {
+        @Override
+        public void run() {
+          for (int docId = 0; docId < NUM_DOCS; docId++) {
+            invertedIndex.add(docId % CARDINALITY, docId);
+            searchableDocId.set(docId);
+          }
+        }
+      });
+      Runnable reader = new Runnable() {
+        @Override
+        public void run() {
+          while (searchableDocId.get() < NUM_DOCS - 1) {
+            int maxDocId = searchableDocId.get();
+            if (maxDocId < 0) {
+              continue;
+            }
+            // Every searchable document must be returned in order, and no document beyond it
+            int dictId = maxDocId % CARDINALITY;
+            IntIterator iterator = invertedIndex.getDocIdIterator(dictId, maxDocId);
+            int expectedDocId = dictId;
+            while (iterator.hasNext()) {
+              Assert.assertEquals(iterator.next(), expectedDocId);
+              expectedDocId += CARDINALITY;
+            }
+            Assert.assertTrue(expectedDocId > maxDocId);
+          }
+        }
+      };
+      Future<?> reader1 = executorService.submit(reader);
+      Future<?> reader2 = executorService.submit(reader);
+      writer.get();
+      reader1.get();
+      reader2.get();
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  private static int count(IntIterator iterator) {
+    int count = 0;
+    while (iterator.hasNext()) {
+      iterator.next();
+      count++;
+    }
+    return count;
+  }
+}
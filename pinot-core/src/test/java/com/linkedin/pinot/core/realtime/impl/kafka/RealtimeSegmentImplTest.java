@@ -16,10 +16,19 @@
 package com.linkedin.pinot.core.realtime.impl.kafka;
 
 import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.data.RowBatch;
+import com.linkedin.pinot.core.realtime.impl.datasource.RealtimeColumnDataSource;
+import com.linkedin.pinot.core.realtime.impl.invertedIndex.RealtimeInvertedIndex;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
 import com.yammer.metrics.core.MetricsRegistry;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
+import org.roaringbitmap.IntIterator;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import com.linkedin.pinot.common.data.FieldSpec;
@@ -71,4 +80,124 @@ public class RealtimeSegmentImplTest {
     Assert.assertEquals(notFull, true);
     Assert.assertEquals(realtimeSegment.getRawDocumentCount(), 2);
   }
+
+  @Test
+  public void testIndexRowBatch() throws Exception {
+    Schema schema = new Schema.SchemaBuilder()
+        .setSchemaName("potato")
+        .addSingleValueDimension("stringDimension", FieldSpec.DataType.STRING)
+        .addSingleValueDimension("intDimension", FieldSpec.DataType.INT)
+        .addMultiValueDimension("multiValueDimension", FieldSpec.DataType.INT)
+        .addMetric("longMetric", FieldSpec.DataType.LONG)
+        .addMetric("doubleMetric", FieldSpec.DataType.DOUBLE)
+        .addTime("time", TimeUnit.SECONDS, FieldSpec.DataType.LONG)
+        .build();
+    List<String> invertedIndexColumns = Arrays.asList("stringDimension", "intDimension", "multiValueDimension");
+    int numRows = 1000;
+    RealtimeSegmentImpl rowSegment = new RealtimeSegmentImpl(schema, numRows, "noTable", "rowSegment",
+        schema.getSchemaName(), new ServerMetrics(new MetricsRegistry()), invertedIndexColumns);
+    RealtimeSegmentImpl batchSegment = new RealtimeSegmentImpl(schema, numRows, "noTable", "batchSegment",
+        schema.getSchemaName(), new ServerMetrics(new MetricsRegistry()), invertedIndexColumns);
+
+    // Index the same rows one at a time, and in batches of various sizes
+    Random random = new Random(42);
+    RowBatch rowBatch = new RowBatch(schema, 64);
+    int batchSize = 1;
+    boolean notFull = true;
+    for (int i = 0; i < numRows; i++) {
+      Map<String, Object> genericRowContents = new HashMap<>();
+      genericRowContents.put("stringDimension", "value" + random.nextInt(20));
+      genericRowContents.put("intDimension", random.nextInt(50));
+      Object[] multiValues = new Object[1 + random.nextInt(3)];
+      for (int j = 0; j < multiValues.length; j++) {
+        multiValues[j] = random.nextInt(10);
+      }
+      genericRowContents.put("multiValueDimension", multiValues);
+      genericRowContents.put("longMetric", random.nextLong());
+      genericRowContents.put("doubleMetric", random.nextDouble());
+      genericRowContents.put("time", 1000L + random.nextInt(100));
+      GenericRow row = new GenericRow();
+      row.init(genericRowContents);
+
+      rowSegment.index(row);
+      Assert.assertTrue(rowBatch.addRow(row));
+      if (rowBatch.size() == batchSize || i == numRows - 1) {
+        notFull = batchSegment.index(rowBatch);
+        rowBatch.clear();
+        batchSize = batchSize % 64 + 1;
+      }
+    }
+    Assert.assertFalse(notFull);
+    Assert.assertEquals(batchSegment.getRawDocumentCount(), numRows);
+    Assert.assertEquals(batchSegment.getMinTime(), rowSegment.getMinTime());
+    Assert.assertEquals(batchSegment.getMaxTime(), rowSegment.getMaxTime());
+
+    GenericRow expectedRow = new GenericRow();
+    GenericRow actualRow = new GenericRow();
+    for (int docId = 0; docId < numRows; docId++) {
+      rowSegment.getRawValueRowAt(docId, expectedRow);
+      batchSegment.getRawValueRowAt(docId, actualRow);
+      for (String column : schema.getColumnNames()) {
+        Object expected = expectedRow.getValue(column);
+        Object actual = actualRow.getValue(column);
+        if (expected instanceof Object[]) {
+          Assert.assertEquals((Object[]) actual, (Object[]) expected, column);
+        } else {
+          Assert.assertEquals(actual, expected, column);
+        }
+      }
+    }
+
+    for (String column : invertedIndexColumns) {
+      DataSource expectedDataSource = rowSegment.getDataSource(column);
+      DataSource actualDataSource = batchSegment.getDataSource(column);
+      Dictionary dictionary = expectedDataSource.getDictionary();
+      Assert.assertEquals(actualDataSource.getDictionary().length(), dictionary.length());
+      RealtimeInvertedIndex expectedInvertedIndex =
+          ((RealtimeColumnDataSource) expectedDataSource).getRealtimeInvertedIndex();
+      RealtimeInvertedIndex actualInvertedIndex =
+          ((RealtimeColumnDataSource) actualDataSource).getRealtimeInvertedIndex();
+      for (int dictId = 0; dictId < dictionary.length(); dictId++) {
+        IntIterator expectedDocIds = expectedInvertedIndex.getDocIdIterator(dictId, Integer.MAX_VALUE);
+        IntIterator actualDocIds = actualInvertedIndex.getDocIdIterator(dictId, Integer.MAX_VALUE);
+        while (expectedDocIds.hasNext()) {
+          Assert.assertTrue(actualDocIds.hasNext(), column);
+          Assert.assertEquals(actualDocIds.next(), expectedDocIds.next(), column);
+        }
+        Assert.assertFalse(actualDocIds.hasNext(), column);
+      }
+    }
+  }
+
+  @Test
+  public void testRowBatchDropsRowsWithMissingValues() {
+    Schema schema = new Schema.SchemaBuilder()
+        .setSchemaName("potato")
+        .addSingleValueDimension("dimension", FieldSpec.DataType.STRING)
+        .addMetric("metric", FieldSpec.DataType.LONG)
+        .addTime("time", TimeUnit.SECONDS, FieldSpec.DataType.LONG)
+        .build();
+    RowBatch rowBatch = new RowBatch(schema, 2);
+
+    Map<String, Object> genericRowContents = new HashMap<>();
+    genericRowContents.put("dimension", "potato");
+    genericRowContents.put("metric", null);
+    genericRowContents.put("time", 4567L);
+    GenericRow row = new GenericRow();
+    row.init(genericRowContents);
+    Assert.assertFalse(rowBatch.addRow(row));
+    Assert.assertEquals(rowBatch.size(), 0);
+
+    genericRowContents.put("metric", 1234);
+    Assert.assertTrue(rowBatch.addRow(row));
+    Assert.assertEquals(rowBatch.size(), 1);
+    int metricIndex = -1;
+    for (int i = 0; i < rowBatch.getNumColumns(); i++) {
+      if (rowBatch.getFieldSpec(i).getName().equals("metric")) {
+        metricIndex = i;
+      }
+    }
+    Assert.assertEquals(rowBatch.getPrimitiveType(metricIndex), FieldSpec.DataType.LONG);
+    Assert.assertEquals(rowBatch.getLongValues(metricIndex)[0], 1234L);
+  }
 }
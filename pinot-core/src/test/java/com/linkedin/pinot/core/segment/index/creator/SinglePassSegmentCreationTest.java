@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.creator;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.readers.TestRecordReader;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests that creating a segment in a single pass with columns built in parallel creates the same segment as creating
+ * it row by row.
+ */
+public class SinglePassSegmentCreationTest {
+  private static final File TEMP_DIR =
+      new File(FileUtils.getTempDirectory(), SinglePassSegmentCreationTest.class.getSimpleName());
+  private static final int NUM_ROWS = 5000;
+
+  private Schema _schema;
+  private List<GenericRow> _rows;
+
+  @BeforeClass
+  public void setUp() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    _schema = new Schema.SchemaBuilder().setSchemaName("testSchema")
+        .addSingleValueDimension("stringDimension", FieldSpec.DataType.STRING)
+        .addSingleValueDimension("sortedIntDimension", FieldSpec.DataType.INT)
+        .addMultiValueDimension("multiValueDimension", FieldSpec.DataType.STRING)
+        .addMetric("longMetric", FieldSpec.DataType.LONG)
+        .addMetric("floatMetric", FieldSpec.DataType.FLOAT)
+        .addMetric("doubleMetric", FieldSpec.DataType.DOUBLE)
+        .addTime("time", TimeUnit.DAYS, FieldSpec.DataType.INT)
+        .build();
+
+    Random random = new Random(42);
+    _rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Map<String, Object> fields = new HashMap<>();
+      // Strings of various lengths, which are padded in the dictionary
+      fields.put("stringDimension", "value" + random.nextInt(50));
+      fields.put("sortedIntDimension", i / 7);
+      Object[] multiValues = new Object[1 + random.nextInt(3)];
+      for (int j = 0; j < multiValues.length; j++) {
+        multiValues[j] = "mv" + random.nextInt(20);
+      }
+      fields.put("multiValueDimension", multiValues);
+      fields.put("longMetric", random.nextLong());
+      fields.put("floatMetric", (float) random.nextInt(1000) / 8);
+      fields.put("doubleMetric", random.nextDouble());
+      fields.put("time", 17000 + random.nextInt(30));
+      GenericRow row = new GenericRow();
+      row.init(fields);
+      _rows.add(row);
+    }
+  }
+
+  @Test
+  public void testSinglePassCreation() throws Exception {
+    File rowSegmentDir = createSegment(new File(TEMP_DIR, "row"), 0);
+    File singlePassSegmentDir = createSegment(new File(TEMP_DIR, "singlePass"), 4);
+    Assert.assertEquals(singlePassSegmentDir.getName(), rowSegmentDir.getName());
+
+    File[] rowFiles = rowSegmentDir.listFiles();
+    Assert.assertNotNull(rowFiles);
+    Assert.assertEquals(singlePassSegmentDir.list().length, rowFiles.length);
+    for (File rowFile : rowFiles) {
+      String fileName = rowFile.getName();
+      // Creation metadata holds the creation time
+      if (fileName.equals(V1Constants.SEGMENT_CREATION_META)) {
+        continue;
+      }
+      Assert.assertTrue(FileUtils.contentEquals(new File(singlePassSegmentDir, fileName), rowFile),
+          "Files differ: " + fileName);
+    }
+  }
+
+  private File createSegment(File outDir, int numIndexingThreads) throws Exception {
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(_schema);
+    config.setOutDir(outDir.getAbsolutePath());
+    config.setTableName("testTable");
+    config.setTimeColumnName("time");
+    config.setSegmentTimeUnit(TimeUnit.DAYS);
+    config.setInvertedIndexCreationColumns(Arrays.asList("stringDimension", "multiValueDimension"));
+    config.setRangeIndexCreationColumns(Arrays.asList("longMetric"));
+    config.setNumIndexingThreads(numIndexingThreads);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new TestRecordReader(_rows, _schema));
+    driver.build();
+    return new File(outDir, driver.getSegmentName());
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+}
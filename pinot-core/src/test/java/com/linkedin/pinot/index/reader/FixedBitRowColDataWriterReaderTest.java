@@ -83,4 +83,57 @@ public class FixedBitRowColDataWriterReaderTest {
       file.delete();
     }
   }
+
+  @Test
+  public void testSingleColBulkRead() throws Exception {
+    final int rows = 1000;
+    final int cols = 1;
+    final Random r = new Random();
+    // Doc ids with runs of consecutive rows of different lengths separated by gaps
+    final int[] docIds = new int[rows];
+    int numDocIds = 0;
+    int docId = r.nextInt(10);
+    while (docId < rows) {
+      int runLength = 1 + r.nextInt(50);
+      for (int i = 0; i < runLength && docId < rows; i++) {
+        docIds[numDocIds++] = docId++;
+      }
+      docId += 1 + r.nextInt(10);
+    }
+
+    for (int maxBits = 1; maxBits < 32; maxBits++) {
+      final File file = new File(getClass().getName() + "_bulk_read_" + maxBits + ".dat");
+      file.delete();
+      final int[] columnSizesInBits = new int[] { maxBits };
+      final FixedBitSingleValueMultiColWriter writer =
+          new FixedBitSingleValueMultiColWriter(file, rows, cols, columnSizesInBits, new boolean[] { false });
+      final int[] data = new int[rows];
+      writer.open();
+      for (int i = 0; i < rows; i++) {
+        data[i] = r.nextInt() >>> (32 - maxBits);
+        writer.setInt(i, 0, data[i]);
+      }
+      writer.close();
+
+      PinotDataBuffer heapBuffer =
+          PinotDataBuffer.fromFile(file, ReadMode.heap, FileChannel.MapMode.READ_ONLY, "testing");
+      FixedBitSingleValueMultiColReader reader = new FixedBitSingleValueMultiColReader(heapBuffer, rows, cols,
+          columnSizesInBits, new boolean[] { false });
+
+      int[] values = new int[rows + 1];
+      reader.readValues(docIds, 0, 0, numDocIds, values, 1);
+      for (int i = 0; i < numDocIds; i++) {
+        Assert.assertEquals(values[i + 1], data[docIds[i]], "Failed for maxBits:" + maxBits);
+      }
+      int startRow = r.nextInt(rows / 2);
+      reader.getInt(startRow, rows - startRow, 0, values);
+      for (int i = 0; i < rows - startRow; i++) {
+        Assert.assertEquals(values[i], data[startRow + i], "Failed for maxBits:" + maxBits);
+      }
+
+      reader.close();
+      heapBuffer.close();
+      file.delete();
+    }
+  }
 }
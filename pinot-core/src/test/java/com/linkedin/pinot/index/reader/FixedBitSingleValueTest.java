@@ -25,6 +25,7 @@ import java.util.Arrays;
 import java.util.Random;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 public class FixedBitSingleValueTest {
@@ -58,4 +59,50 @@ public class FixedBitSingleValueTest {
       file.delete();
     }
   }
+
+  @Test
+  public void testV2BulkRead() throws Exception {
+    int ROWS = 1000;
+    Random random = new Random();
+    int[] rowIds = new int[ROWS];
+    int numRowIds = 0;
+    int rowId = random.nextInt(10);
+    while (rowId < ROWS) {
+      int runLength = 1 + random.nextInt(100);
+      for (int i = 0; i < runLength && rowId < ROWS; i++) {
+        rowIds[numRowIds++] = rowId++;
+      }
+      rowId += 1 + random.nextInt(50);
+    }
+
+    for (int numBits = 1; numBits < 32; numBits++) {
+      File file = new File(this.getClass().getName() + "_bulk_" + numBits + ".test");
+      FixedBitSingleValueWriter writer = new FixedBitSingleValueWriter(file, ROWS, numBits);
+      for (int i = 0; i < ROWS; i++) {
+        writer.setInt(i, random.nextInt() >>> (32 - numBits));
+      }
+      writer.close();
+      PinotDataBuffer heapBuffer =
+          PinotDataBuffer.fromFile(file, ReadMode.heap, FileChannel.MapMode.READ_ONLY, "testing");
+      FixedBitSingleValueReader reader = new FixedBitSingleValueReader(heapBuffer, ROWS, numBits);
+      int[] expected = new int[ROWS];
+      for (int i = 0; i < ROWS; i++) {
+        expected[i] = reader.getInt(i);
+      }
+
+      int[] values = new int[ROWS + 1];
+      reader.readValues(rowIds, 0, numRowIds, values, 1);
+      for (int i = 0; i < numRowIds; i++) {
+        Assert.assertEquals(values[i + 1], expected[rowIds[i]], "Failed for numBits:" + numBits);
+      }
+      int startRow = random.nextInt(ROWS / 2);
+      reader.readValues(startRow, ROWS - startRow, values, 0);
+      for (int i = 0; i < ROWS - startRow; i++) {
+        Assert.assertEquals(values[i], expected[startRow + i], "Failed for numBits:" + numBits);
+      }
+      reader.close();
+      heapBuffer.close();
+      file.delete();
+    }
+  }
 }
@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.index.readerwriter;
+
+import com.linkedin.pinot.core.io.readerwriter.RealtimeIndexOffHeapMemoryManager;
+import com.linkedin.pinot.core.io.readerwriter.impl.FixedByteSingleColumnMultiValueReaderWriter;
+import com.linkedin.pinot.core.io.readerwriter.impl.FixedByteSingleColumnSingleValueReaderWriter;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+
+public class RealtimeIndexOffHeapMemoryManagerTest {
+  private static final File MMAP_DIR =
+      new File(FileUtils.getTempDirectory(), RealtimeIndexOffHeapMemoryManagerTest.class.getSimpleName());
+  private static final String TABLE_NAME = "testTable_REALTIME";
+  private static final int NUM_ROWS_PER_CHUNK = 1024;
+
+  @Test
+  public void testDirectMemoryBudget() {
+    long serverDirectMemoryUsed = RealtimeIndexOffHeapMemoryManager.getServerDirectMemoryUsed();
+    RealtimeIndexOffHeapMemoryManager memoryManager =
+        new RealtimeIndexOffHeapMemoryManager(MMAP_DIR, serverDirectMemoryUsed + 1000L, TABLE_NAME, null);
+
+    // Within the budget
+    PinotDataBuffer directBuffer = memoryManager.allocate(1000L, "direct");
+    Assert.assertEquals(memoryManager.getDirectMemoryUsed(), 1000L);
+    Assert.assertEquals(memoryManager.getMmapMemoryUsed(), 0L);
+    Assert.assertEquals(RealtimeIndexOffHeapMemoryManager.getServerDirectMemoryUsed(), serverDirectMemoryUsed + 1000L);
+    Assert.assertFalse(MMAP_DIR.exists());
+
+    // Beyond the budget
+    PinotDataBuffer mmapBuffer = memoryManager.allocate(2000L, "mmap");
+    Assert.assertEquals(memoryManager.getDirectMemoryUsed(), 1000L);
+    Assert.assertEquals(memoryManager.getMmapMemoryUsed(), 2000L);
+    Assert.assertEquals(RealtimeIndexOffHeapMemoryManager.getServerDirectMemoryUsed(), serverDirectMemoryUsed + 1000L);
+    Assert.assertEquals(MMAP_DIR.list().length, 1);
+
+    directBuffer.putInt(996, 1);
+    mmapBuffer.putInt(1996, 2);
+    Assert.assertEquals(directBuffer.getInt(996), 1);
+    Assert.assertEquals(mmapBuffer.getInt(1996), 2);
+    Assert.assertEquals(mmapBuffer.getInt(0), 0);
+
+    memoryManager.close();
+    Assert.assertEquals(memoryManager.getDirectMemoryUsed(), 0L);
+    Assert.assertEquals(memoryManager.getMmapMemoryUsed(), 0L);
+    Assert.assertEquals(RealtimeIndexOffHeapMemoryManager.getServerDirectMemoryUsed(), serverDirectMemoryUsed);
+    Assert.assertFalse(MMAP_DIR.exists());
+  }
+
+  @Test
+  public void testChunkedSingleValueReaderWriter()
+      throws IOException {
+    RealtimeIndexOffHeapMemoryManager memoryManager = new RealtimeIndexOffHeapMemoryManager(TABLE_NAME, null);
+    FixedByteSingleColumnSingleValueReaderWriter readerWriter =
+        new FixedByteSingleColumnSingleValueReaderWriter(NUM_ROWS_PER_CHUNK, Integer.SIZE / 8, memoryManager, "sv");
+    Assert.assertEquals(readerWriter.getAllocatedSize(), 0L);
+
+    int rows = 5 * NUM_ROWS_PER_CHUNK + 10;
+    Random random = new Random();
+    int[] data = new int[rows];
+    for (int i = 0; i < rows; i++) {
+      data[i] = random.nextInt();
+      readerWriter.setInt(i, data[i]);
+    }
+    // Chunks are allocated as rows are written
+    Assert.assertEquals(readerWriter.getAllocatedSize(), 6L * NUM_ROWS_PER_CHUNK * Integer.SIZE / 8);
+    Assert.assertEquals(memoryManager.getDirectMemoryUsed(), readerWriter.getAllocatedSize());
+
+    for (int i = 0; i < rows; i++) {
+      Assert.assertEquals(readerWriter.getInt(i), data[i]);
+    }
+    int[] docIds = new int[rows];
+    for (int i = 0; i < rows; i++) {
+      docIds[i] = random.nextInt(rows);
+    }
+    int[] values = new int[rows];
+    readerWriter.readValues(docIds, 0, rows, values, 0);
+    for (int i = 0; i < rows; i++) {
+      Assert.assertEquals(values[i], data[docIds[i]]);
+    }
+
+    readerWriter.close();
+    memoryManager.close();
+  }
+
+  @Test
+  public void testChunkedMultiValueReaderWriter()
+      throws IOException {
+    RealtimeIndexOffHeapMemoryManager memoryManager = new RealtimeIndexOffHeapMemoryManager(TABLE_NAME, null);
+    int maxNumberOfMultiValuesPerRow = 100;
+    FixedByteSingleColumnMultiValueReaderWriter readerWriter =
+        new FixedByteSingleColumnMultiValueReaderWriter(NUM_ROWS_PER_CHUNK, Integer.SIZE / 8,
+            maxNumberOfMultiValuesPerRow, memoryManager, "mv");
+
+    int rows = 3 * NUM_ROWS_PER_CHUNK + 10;
+    Random random = new Random();
+    int[][] data = new int[rows][];
+    for (int i = 0; i < rows; i++) {
+      data[i] = new int[random.nextInt(maxNumberOfMultiValuesPerRow)];
+      for (int j = 0; j < data[i].length; j++) {
+        data[i][j] = random.nextInt();
+      }
+      readerWriter.setIntArray(i, data[i]);
+    }
+    int[] values = new int[maxNumberOfMultiValuesPerRow];
+    for (int i = 0; i < rows; i++) {
+      int length = readerWriter.getIntArray(i, values);
+      Assert.assertEquals(length, data[i].length);
+      Assert.assertTrue(Arrays.equals(Arrays.copyOf(values, length), data[i]));
+    }
+
+    readerWriter.close();
+    memoryManager.close();
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(MMAP_DIR);
+  }
+}
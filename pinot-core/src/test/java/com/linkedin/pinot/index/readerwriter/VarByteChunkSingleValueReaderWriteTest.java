@@ -91,4 +91,71 @@ public class VarByteChunkSingleValueReaderWriteTest {
     reader.close();
     FileUtils.deleteQuietly(outFile);
   }
+
+  /**
+   * Interleaves reads from two readers with different chunk sizes through the thread local context, which is shared
+   * by the readers, sized to the largest chunk and released when the reader that last used it is closed.
+   *
+   * @throws Exception
+   */
+  @Test
+  public void testThreadLocalContext()
+      throws Exception {
+    Random random = new Random();
+    String[] shortStrings = new String[NUM_STRINGS];
+    String[] longStrings = new String[NUM_STRINGS];
+    for (int i = 0; i < NUM_STRINGS; i++) {
+      shortStrings[i] = RandomStringUtils.randomAlphanumeric(random.nextInt(MAX_STRING_LENGTH));
+      longStrings[i] = RandomStringUtils.randomAlphanumeric(MAX_STRING_LENGTH + random.nextInt(MAX_STRING_LENGTH));
+    }
+    File shortFile = new File(TEST_FILE + ".short");
+    File longFile = new File(TEST_FILE + ".long");
+    VarByteChunkSingleValueReader shortReader = createReader(shortFile, shortStrings);
+    VarByteChunkSingleValueReader longReader = createReader(longFile, longStrings);
+
+    for (int i = 0; i < NUM_STRINGS; i++) {
+      Assert.assertEquals(shortReader.getString(i, shortReader.getThreadLocalContext()), shortStrings[i]);
+      Assert.assertEquals(longReader.getString(i, longReader.getThreadLocalContext()), longStrings[i]);
+    }
+
+    // The context grown for the long strings is reused for the short strings
+    ChunkReaderContext context = longReader.getThreadLocalContext();
+    Assert.assertSame(shortReader.getThreadLocalContext(), context);
+
+    // Closing a reader that did not load the chunk of the context keeps it
+    longReader.close();
+    Assert.assertNotNull(context.getChunkBuffer());
+    Assert.assertEquals(shortReader.getString(0, context), shortStrings[0]);
+
+    // Closing the reader that loaded the chunk releases the buffer, and the next read gets a new context
+    shortReader.close();
+    Assert.assertNull(context.getChunkBuffer());
+    shortReader = createReader(shortFile, shortStrings);
+    ChunkReaderContext newContext = shortReader.getThreadLocalContext();
+    Assert.assertNotSame(newContext, context);
+    Assert.assertEquals(shortReader.getString(NUM_STRINGS - 1, newContext), shortStrings[NUM_STRINGS - 1]);
+    shortReader.close();
+
+    FileUtils.deleteQuietly(shortFile);
+    FileUtils.deleteQuietly(longFile);
+  }
+
+  private VarByteChunkSingleValueReader createReader(File file, String[] values)
+      throws Exception {
+    FileUtils.deleteQuietly(file);
+    int maxStringLengthInBytes = 0;
+    for (String value : values) {
+      maxStringLengthInBytes = Math.max(maxStringLengthInBytes, value.getBytes(UTF_8).length);
+    }
+    VarByteChunkSingleValueWriter writer =
+        new VarByteChunkSingleValueWriter(file, ChunkCompressorFactory.getCompressor("snappy"), values.length,
+            NUM_DOCS_PER_CHUNK, maxStringLengthInBytes);
+    for (int i = 0; i < values.length; i++) {
+      writer.setString(i, values[i]);
+    }
+    writer.close();
+    PinotDataBuffer pinotDataBuffer =
+        PinotDataBuffer.fromFile(file, ReadMode.mmap, FileChannel.MapMode.READ_ONLY, getClass().getName());
+    return new VarByteChunkSingleValueReader(pinotDataBuffer, ChunkCompressorFactory.getDecompressor("snappy"));
+  }
 }
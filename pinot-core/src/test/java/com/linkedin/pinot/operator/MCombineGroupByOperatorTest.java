@@ -0,0 +1,231 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.operator;
+
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.Block;
+import com.linkedin.pinot.core.common.BlockId;
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.operator.BaseOperator;
+import com.linkedin.pinot.core.operator.ExecutionStatistics;
+import com.linkedin.pinot.core.operator.MCombineGroupByOperator;
+import com.linkedin.pinot.core.operator.aggregation.AggregationFunctionContext;
+import com.linkedin.pinot.core.operator.aggregation.function.AggregationFunction;
+import com.linkedin.pinot.core.operator.aggregation.function.AggregationFunctionUtils;
+import com.linkedin.pinot.core.operator.aggregation.groupby.AggregationGroupByResult;
+import com.linkedin.pinot.core.operator.aggregation.groupby.DoubleGroupByResultHolder;
+import com.linkedin.pinot.core.operator.aggregation.groupby.GroupByResultHolder;
+import com.linkedin.pinot.core.operator.aggregation.groupby.GroupKeyGenerator;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.operator.blocks.TransformBlock;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit test for {@link MCombineGroupByOperator}, covering both the striped-lock and the partitioned combine.
+ */
+public class MCombineGroupByOperatorTest {
+  private static final long RANDOM_SEED = System.nanoTime();
+  private static final String QUERY = "SELECT SUM(metric) FROM myTable GROUP BY dimension TOP 100";
+  private static final int NUM_SEGMENTS = 8;
+  private static final int NUM_GROUPS_PER_SEGMENT = 500;
+  private static final int CARDINALITY = 1000;
+  private static final long TIME_OUT_MS = 10_000L;
+  private static final double DELTA = 1e-5;
+
+  private final ExecutorService _executorService = Executors.newFixedThreadPool(4);
+  private BrokerRequest _brokerRequest;
+  private List<IntermediateResultsBlock> _segmentResults;
+  private Map<String, Double> _expectedResults;
+
+  @BeforeClass
+  public void setUp() {
+    _brokerRequest = new Pql2Compiler().compileToBrokerRequest(QUERY);
+    AggregationFunctionContext[] aggregationFunctionContexts =
+        AggregationFunctionUtils.getAggregationFunctionContexts(_brokerRequest.getAggregationsInfo(), null);
+    AggregationFunction[] aggregationFunctions =
+        new AggregationFunction[]{aggregationFunctionContexts[0].getAggregationFunction()};
+
+    Random random = new Random(RANDOM_SEED);
+    _segmentResults = new ArrayList<>(NUM_SEGMENTS);
+    _expectedResults = new HashMap<>();
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      int offset = random.nextInt(CARDINALITY);
+      String[] groupKeys = new String[NUM_GROUPS_PER_SEGMENT];
+      DoubleGroupByResultHolder resultHolder =
+          new DoubleGroupByResultHolder(NUM_GROUPS_PER_SEGMENT, NUM_GROUPS_PER_SEGMENT, NUM_GROUPS_PER_SEGMENT, 0.0);
+      for (int j = 0; j < NUM_GROUPS_PER_SEGMENT; j++) {
+        String groupKey = Integer.toString((offset + j) % CARDINALITY);
+        double value = random.nextInt(100);
+        groupKeys[j] = groupKey;
+        resultHolder.setValueForKey(j, value);
+        Double expectedValue = _expectedResults.get(groupKey);
+        _expectedResults.put(groupKey, expectedValue == null ? value : expectedValue + value);
+      }
+      AggregationGroupByResult aggregationGroupByResult =
+          new AggregationGroupByResult(new ArrayGroupKeyGenerator(groupKeys), aggregationFunctions,
+              new GroupByResultHolder[]{resultHolder});
+      _segmentResults.add(new IntermediateResultsBlock(aggregationFunctionContexts, aggregationGroupByResult));
+    }
+  }
+
+  @Test
+  public void testStripedLockCombine()
+      throws Exception {
+    testCombine(0);
+  }
+
+  @Test
+  public void testPartitionedCombine()
+      throws Exception {
+    testCombine(1);
+    testCombine(4);
+    testCombine(17);
+  }
+
+  private void testCombine(int numPartitions)
+      throws Exception {
+    List<Operator> operators = new ArrayList<>(NUM_SEGMENTS);
+    for (IntermediateResultsBlock segmentResult : _segmentResults) {
+      operators.add(new ResultsBlockOperator(segmentResult));
+    }
+    MCombineGroupByOperator combineOperator =
+        new MCombineGroupByOperator(operators, _executorService, TIME_OUT_MS, _brokerRequest, numPartitions);
+    DataTable dataTable = ((IntermediateResultsBlock) combineOperator.nextBlock()).getDataTable();
+
+    Assert.assertEquals(dataTable.getNumberOfRows(), 1, "Random seed: " + RANDOM_SEED);
+    Map<String, Object> actualResults = dataTable.getObject(0, 1);
+    Assert.assertEquals(actualResults.size(), _expectedResults.size(), "Random seed: " + RANDOM_SEED);
+    for (Map.Entry<String, Double> entry : _expectedResults.entrySet()) {
+      Assert.assertEquals((Double) actualResults.get(entry.getKey()), entry.getValue(), DELTA,
+          "Random seed: " + RANDOM_SEED);
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+
+  /**
+   * Operator returning a pre-computed results block.
+   */
+  private static class ResultsBlockOperator extends BaseOperator {
+    private final IntermediateResultsBlock _resultsBlock;
+
+    ResultsBlockOperator(IntermediateResultsBlock resultsBlock) {
+      _resultsBlock = resultsBlock;
+    }
+
+    @Override
+    public Block getNextBlock() {
+      return _resultsBlock;
+    }
+
+    @Override
+    public Block getNextBlock(BlockId blockId) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean open() {
+      return true;
+    }
+
+    @Override
+    public boolean close() {
+      return true;
+    }
+
+    @Override
+    public ExecutionStatistics getExecutionStatistics() {
+      return new ExecutionStatistics();
+    }
+  }
+
+  /**
+   * Group key generator iterating over an array of group keys, where the group id is the array index.
+   */
+  private static class ArrayGroupKeyGenerator implements GroupKeyGenerator {
+    private final String[] _groupKeys;
+
+    ArrayGroupKeyGenerator(String[] groupKeys) {
+      _groupKeys = groupKeys;
+    }
+
+    @Override
+    public int getGlobalGroupKeyUpperBound() {
+      return _groupKeys.length;
+    }
+
+    @Override
+    public void generateKeysForBlock(TransformBlock transformBlock, int[] docIdToGroupKey) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void generateKeysForBlock(TransformBlock transformBlock, int[][] docIdToGroupKeys) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getCurrentGroupKeyUpperBound() {
+      return _groupKeys.length;
+    }
+
+    @Override
+    public Iterator<GroupKey> getUniqueGroupKeys() {
+      return new Iterator<GroupKey>() {
+        private int _index = 0;
+
+        @Override
+        public boolean hasNext() {
+          return _index < _groupKeys.length;
+        }
+
+        @Override
+        public GroupKey next() {
+          GroupKey groupKey = new GroupKey(_index, _groupKeys[_index]);
+          _index++;
+          return groupKey;
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+
+    @Override
+    public void purgeKeys(int[] keysToPurge) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
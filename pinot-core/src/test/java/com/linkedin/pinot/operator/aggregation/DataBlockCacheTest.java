@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.operator.aggregation;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.common.DataFetcher;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.operator.BaseOperator;
+import com.linkedin.pinot.core.operator.aggregation.DataBlockCache;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.linkedin.pinot.core.segment.index.loader.Loaders;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import com.linkedin.pinot.util.TestDataRecordReader;
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class DataBlockCacheTest {
+  private static final String SEGMENT_NAME = "DataBlockCacheTestSegment";
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), SEGMENT_NAME);
+  private static final int NUM_ROWS = 1000;
+  private static final int MAX_NUM_MULTI_VALUES = 10;
+  private static final String SINGLE_VALUE_COLUMN = "s1";
+  private static final String MULTI_VALUE_COLUMN = "m1";
+
+  private final long _randomSeed = System.currentTimeMillis();
+  private final String _errorMessage = "Random seed is: " + _randomSeed;
+  private final GenericRow[] _rows = new GenericRow[NUM_ROWS];
+  private IndexSegment _indexSegment;
+  private DataBlockCache _dataBlockCache;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    Random random = new Random(_randomSeed);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Map<String, Object> map = new HashMap<>();
+      map.put(SINGLE_VALUE_COLUMN, random.nextInt(100));
+      Integer[] values = new Integer[1 + random.nextInt(MAX_NUM_MULTI_VALUES)];
+      for (int j = 0; j < values.length; j++) {
+        values[j] = random.nextInt(100);
+      }
+      map.put(MULTI_VALUE_COLUMN, values);
+      GenericRow genericRow = new GenericRow();
+      genericRow.init(map);
+      _rows[i] = genericRow;
+    }
+
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(SINGLE_VALUE_COLUMN, FieldSpec.DataType.INT, true));
+    schema.addField(new DimensionFieldSpec(MULTI_VALUE_COLUMN, FieldSpec.DataType.INT, false));
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    FileUtils.deleteQuietly(INDEX_DIR);
+    config.setOutDir(INDEX_DIR.getAbsolutePath());
+    config.setSegmentName(SEGMENT_NAME);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new TestDataRecordReader(schema, _rows));
+    driver.build();
+    _indexSegment = Loaders.IndexSegment.load(new File(INDEX_DIR, SEGMENT_NAME), ReadMode.heap);
+
+    Map<String, BaseOperator> dataSourceMap = new HashMap<>();
+    for (String column : _indexSegment.getColumnNames()) {
+      dataSourceMap.put(column, _indexSegment.getDataSource(column));
+    }
+    _dataBlockCache = new DataBlockCache(new DataFetcher(dataSourceMap));
+  }
+
+  @Test
+  public void testSingleValueColumn() {
+    int slot = _dataBlockCache.getColumnSlot(SINGLE_VALUE_COLUMN);
+    int[] docIds = {1, 5, 20, 300, 999};
+
+    // Values must be re-fetched for each new block, even if the buffer is reused
+    for (int startPos = 0; startPos < docIds.length; startPos += 2) {
+      int length = Math.min(2, docIds.length - startPos);
+      _dataBlockCache.initNewBlock(docIds, startPos, length);
+      int[] intValues = _dataBlockCache.getIntValueArrayForColumn(slot);
+      for (int i = 0; i < length; i++) {
+        Assert.assertEquals(intValues[i], _rows[docIds[startPos + i]].getValue(SINGLE_VALUE_COLUMN), _errorMessage);
+      }
+      Assert.assertSame(_dataBlockCache.getIntValueArrayForColumn(SINGLE_VALUE_COLUMN), intValues);
+    }
+  }
+
+  @Test
+  public void testMultiValueColumn() {
+    int slot = _dataBlockCache.getColumnSlot(MULTI_VALUE_COLUMN);
+    Dictionary dictionary = _dataBlockCache.getDataFetcher().getDictionaryForColumn(MULTI_VALUE_COLUMN);
+    int[] docIds = new int[NUM_ROWS];
+    for (int i = 0; i < NUM_ROWS; i++) {
+      docIds[i] = i;
+    }
+
+    for (int startPos = 0; startPos < NUM_ROWS; startPos += 300) {
+      int length = Math.min(300, NUM_ROWS - startPos);
+      _dataBlockCache.initNewBlock(docIds, startPos, length);
+      int[] dictIds = _dataBlockCache.getMultiValueDictIdsForColumn(slot);
+      int[] offsets = _dataBlockCache.getMultiValueOffsetsForColumn(slot);
+      int[] numEntries = _dataBlockCache.getNumberOfEntriesArrayForColumn(slot);
+      for (int i = 0; i < length; i++) {
+        Object[] expected = ((Object[]) _rows[startPos + i].getValue(MULTI_VALUE_COLUMN)).clone();
+        Assert.assertEquals(numEntries[i], expected.length, _errorMessage);
+        Assert.assertEquals(offsets[i + 1] - offsets[i], expected.length, _errorMessage);
+        // Multi-values are stored sorted within each doc
+        Object[] actual = new Object[expected.length];
+        for (int j = 0; j < expected.length; j++) {
+          actual[j] = dictionary.get(dictIds[offsets[i] + j]);
+        }
+        Arrays.sort(expected);
+        Arrays.sort(actual);
+        Assert.assertEquals(actual, expected, _errorMessage);
+      }
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testInvalidColumn() {
+    _dataBlockCache.getColumnSlot("invalid");
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
@@ -80,10 +80,21 @@ public abstract class BaseQueriesTest {
    * @return broker response.
    */
   protected BrokerResponseNative getBrokerResponseForQuery(String query) {
+    return getBrokerResponseForQuery(query, PLAN_MAKER);
+  }
+
+  /**
+   * Run query on multiple index segments with the given plan maker.
+   *
+   * @param query PQL query.
+   * @param planMaker plan maker.
+   * @return broker response.
+   */
+  protected BrokerResponseNative getBrokerResponseForQuery(String query, PlanMaker planMaker) {
     BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest(query);
 
     // Server side.
-    Plan plan = PLAN_MAKER.makeInterSegmentPlan(getSegmentDataManagers(), brokerRequest, EXECUTOR_SERVICE, 10_000);
+    Plan plan = planMaker.makeInterSegmentPlan(getSegmentDataManagers(), brokerRequest, EXECUTOR_SERVICE, 10_000);
     plan.execute();
     DataTable instanceResponse = plan.getInstanceResponse();
 
@@ -15,7 +15,6 @@
  */
 package com.linkedin.pinot.queries;
 
-import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.common.segment.ReadMode;
 import com.linkedin.pinot.core.data.manager.offline.OfflineSegmentDataManager;
@@ -23,15 +22,10 @@ import com.linkedin.pinot.core.data.manager.offline.SegmentDataManager;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.indexsegment.columnar.ColumnarSegmentLoader;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
-import com.linkedin.pinot.core.segment.creator.SegmentIndexCreationDriver;
-import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
 import java.io.File;
-import java.net.URL;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 import org.apache.commons.io.FileUtils;
-import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterTest;
 import org.testng.annotations.BeforeClass;
@@ -58,8 +52,6 @@ import org.testng.annotations.BeforeTest;
  * </ul>
  */
 public abstract class BaseSingleValueQueriesTest extends BaseQueriesTest {
-  private static final String AVRO_DATA = "data/test_data-sv.avro";
-  private static final String SEGMENT_NAME = "testTable_126164076_167572854_";
   private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "SingleValueQueriesTest");
 
   // Hard-coded query filter.
@@ -79,44 +71,25 @@ public abstract class BaseSingleValueQueriesTest extends BaseQueriesTest {
       throws Exception {
     FileUtils.deleteQuietly(INDEX_DIR);
 
-    // Get resource file path.
-    URL resource = getClass().getClassLoader().getResource(AVRO_DATA);
-    Assert.assertNotNull(resource);
-    String filePath = resource.getFile();
-
     // Build the segment schema.
-    Schema schema = new Schema.SchemaBuilder().setSchemaName("testTable")
-        .addMetric("column1", FieldSpec.DataType.INT)
-        .addMetric("column3", FieldSpec.DataType.INT)
-        .addSingleValueDimension("column5", FieldSpec.DataType.STRING)
-        .addSingleValueDimension("column6", FieldSpec.DataType.INT)
-        .addSingleValueDimension("column7", FieldSpec.DataType.INT)
-        .addSingleValueDimension("column9", FieldSpec.DataType.INT)
-        .addSingleValueDimension("column11", FieldSpec.DataType.STRING)
-        .addSingleValueDimension("column12", FieldSpec.DataType.STRING)
-        .addMetric("column17", FieldSpec.DataType.INT)
-        .addMetric("column18", FieldSpec.DataType.INT)
-        .addTime("daysSinceEpoch", TimeUnit.DAYS, FieldSpec.DataType.INT)
-        .build();
+    Schema schema = SingleValueSegmentTestUtils.getSchema("column1", "column3", "column5", "column6", "column7",
+        "column9", "column11", "column12", "column17", "column18");
 
     // Create the segment generator config.
-    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(schema);
-    segmentGeneratorConfig.setInputFilePath(filePath);
-    segmentGeneratorConfig.setTableName("testTable");
-    segmentGeneratorConfig.setOutDir(INDEX_DIR.getAbsolutePath());
+    SegmentGeneratorConfig segmentGeneratorConfig =
+        SingleValueSegmentTestUtils.getSegmentGeneratorConfig(schema, INDEX_DIR);
     segmentGeneratorConfig.setInvertedIndexCreationColumns(
         Arrays.asList("column6", "column7", "column11", "column17", "column18"));
 
     // Build the index segment.
-    SegmentIndexCreationDriver driver = new SegmentIndexCreationDriverImpl();
-    driver.init(segmentGeneratorConfig);
-    driver.build();
+    SingleValueSegmentTestUtils.buildSegment(segmentGeneratorConfig);
   }
 
   @BeforeClass
   public void loadSegment()
       throws Exception {
-    _indexSegment = ColumnarSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME), ReadMode.heap);
+    _indexSegment =
+        ColumnarSegmentLoader.load(new File(INDEX_DIR, SingleValueSegmentTestUtils.SEGMENT_NAME), ReadMode.heap);
     _segmentDataManagers = Arrays.<SegmentDataManager>asList(new OfflineSegmentDataManager(_indexSegment),
         new OfflineSegmentDataManager(_indexSegment));
   }
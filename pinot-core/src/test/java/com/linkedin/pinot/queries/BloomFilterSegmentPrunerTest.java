@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.queries;
+
+import com.linkedin.pinot.common.metadata.segment.IndexLoadingConfigMetadata;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.operator.filter.EmptyFilterOperator;
+import com.linkedin.pinot.core.plan.FilterPlanNode;
+import com.linkedin.pinot.core.query.pruner.BloomFilterSegmentPruner;
+import com.linkedin.pinot.core.query.pruner.SegmentPruner;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.io.File;
+import java.util.Collections;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for the bloom filter index: column9 gets its bloom filter when creating the segment, column6 when loading the
+ * segment into v3 format, and column7 has no bloom filter.
+ */
+public class BloomFilterSegmentPrunerTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "BloomFilterSegmentPrunerTest");
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final String QUERY = "SELECT COUNT(*) FROM testTable WHERE ";
+  private static final int NUM_VALUES_TO_CHECK = 100;
+
+  private final SegmentPruner _segmentPruner = new BloomFilterSegmentPruner();
+  private IndexSegment _indexSegment;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    SegmentGeneratorConfig segmentGeneratorConfig = SingleValueSegmentTestUtils.getSegmentGeneratorConfig(
+        SingleValueSegmentTestUtils.getSchema("column6", "column7", "column9"), INDEX_DIR);
+    segmentGeneratorConfig.setBloomFilterCreationColumns(Collections.singletonList("column9"));
+    Configuration tableConfig = new PropertiesConfiguration();
+    tableConfig.addProperty(IndexLoadingConfigMetadata.KEY_OF_SEGMENT_FORMAT_VERSION, "v3");
+    tableConfig.addProperty(IndexLoadingConfigMetadata.KEY_OF_LOADING_BLOOM_FILTER, "column6");
+    _indexSegment = SingleValueSegmentTestUtils.buildAndLoadSegment(segmentGeneratorConfig, ReadMode.mmap,
+        new IndexLoadingConfigMetadata(tableConfig));
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+
+  @Test
+  public void testBloomFilter() {
+    Assert.assertNotNull(_indexSegment.getDataSource("column6").getBloomFilter());
+    Assert.assertNull(_indexSegment.getDataSource("column7").getBloomFilter());
+    Assert.assertNotNull(_indexSegment.getDataSource("column9").getBloomFilter());
+  }
+
+  @Test
+  public void testPruneSegment() {
+    for (String column : new String[]{"column6", "column9"}) {
+      Dictionary dictionary = _indexSegment.getDataSource(column).getDictionary();
+
+      // Never prune values in the segment
+      for (int i = 0; i < dictionary.length(); i++) {
+        Assert.assertFalse(prune(column + " = " + dictionary.get(i)));
+      }
+
+      // Prune most values not in the segment, and never prune them with an existing value in an IN or OR predicate
+      Object existingValue = dictionary.get(0);
+      int numPruned = 0;
+      for (int value = 0; value < NUM_VALUES_TO_CHECK; value++) {
+        if (dictionary.indexOf(value) < 0 && prune(column + " = " + value)) {
+          numPruned++;
+          Assert.assertTrue(prune(column + " IN (" + value + ", " + value + ")"));
+          Assert.assertTrue(prune(column + " = " + value + " AND column7 = 1"));
+          Assert.assertFalse(prune(column + " IN (" + value + ", " + existingValue + ")"));
+          Assert.assertFalse(prune(column + " = " + value + " OR column7 = 1"));
+        }
+      }
+      Assert.assertTrue(numPruned > NUM_VALUES_TO_CHECK / 2);
+    }
+
+    // Columns without bloom filter and predicates not supported
+    Assert.assertFalse(prune("column7 = -1"));
+    Assert.assertFalse(prune("column9 <> -1"));
+    Assert.assertFalse(prune("column9 < -1"));
+  }
+
+  @Test
+  public void testFilterPlanNode() {
+    DataSource dataSource = _indexSegment.getDataSource("column9");
+    int missingValue = 0;
+    while (dataSource.getDictionary().indexOf(missingValue) >= 0 || dataSource.getBloomFilter()
+        .mightContain(Integer.toString(missingValue))) {
+      missingValue++;
+    }
+    Object existingValue = dataSource.getDictionary().get(0);
+
+    Assert.assertTrue(getFilterOperator("column9 = " + missingValue) instanceof EmptyFilterOperator);
+    Assert.assertTrue(
+        getFilterOperator("column9 = " + missingValue + " AND column7 > 1") instanceof EmptyFilterOperator);
+    Assert.assertFalse(
+        getFilterOperator("column9 = " + missingValue + " OR column7 > 1") instanceof EmptyFilterOperator);
+    Assert.assertFalse(getFilterOperator("column9 = " + existingValue) instanceof EmptyFilterOperator);
+  }
+
+  private boolean prune(String filter) {
+    return _segmentPruner.prune(_indexSegment, COMPILER.compileToBrokerRequest(QUERY + filter));
+  }
+
+  private Object getFilterOperator(String filter) {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest(QUERY + filter);
+    return new FilterPlanNode(_indexSegment, brokerRequest).run();
+  }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.queries;
+
+import com.linkedin.pinot.core.query.pruner.ColumnValueSegmentPruner;
+import com.linkedin.pinot.core.query.pruner.SegmentPruner;
+import com.linkedin.pinot.core.segment.index.ColumnMetadata;
+import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for the {@link ColumnValueSegmentPruner} on the single-value index segment, where daysSinceEpoch has values
+ * 126164076 and 167572854.
+ */
+public class ColumnValueSegmentPrunerTest extends BaseSingleValueQueriesTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final String QUERY = "SELECT COUNT(*) FROM testTable WHERE ";
+
+  private final SegmentPruner _segmentPruner = new ColumnValueSegmentPruner();
+
+  @Test
+  public void testColumnMetadata() {
+    SegmentMetadataImpl segmentMetadata = (SegmentMetadataImpl) getIndexSegment().getSegmentMetadata();
+    ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor("daysSinceEpoch");
+    Assert.assertEquals(columnMetadata.getMinValue(), 126164076);
+    Assert.assertEquals(columnMetadata.getMaxValue(), 167572854);
+
+    // No min/max value for STRING columns
+    columnMetadata = segmentMetadata.getColumnMetadataFor("column5");
+    Assert.assertNull(columnMetadata.getMinValue());
+    Assert.assertNull(columnMetadata.getMaxValue());
+  }
+
+  @Test
+  public void testEqualityAndIn() {
+    Assert.assertFalse(prune("daysSinceEpoch = 126164076"));
+    Assert.assertTrue(prune("daysSinceEpoch = 100"));
+    Assert.assertTrue(prune("daysSinceEpoch = 200000000"));
+    Assert.assertFalse(prune("daysSinceEpoch = 150000000"));
+    Assert.assertTrue(prune("daysSinceEpoch IN (1, 2)"));
+    Assert.assertFalse(prune("daysSinceEpoch IN (1, 167572854)"));
+  }
+
+  @Test
+  public void testRange() {
+    Assert.assertTrue(prune("daysSinceEpoch > 167572854"));
+    Assert.assertFalse(prune("daysSinceEpoch >= 167572854"));
+    Assert.assertTrue(prune("daysSinceEpoch < 126164076"));
+    Assert.assertFalse(prune("daysSinceEpoch <= 126164076"));
+    Assert.assertFalse(prune("daysSinceEpoch < 126164076.5"));
+    Assert.assertTrue(prune("daysSinceEpoch BETWEEN 0 AND 100"));
+    Assert.assertFalse(prune("daysSinceEpoch BETWEEN 0 AND 130000000"));
+  }
+
+  @Test
+  public void testNestedFilter() {
+    Assert.assertTrue(prune("daysSinceEpoch = 1 AND column5 = 'gFuH'"));
+    Assert.assertFalse(prune("daysSinceEpoch = 126164076 AND column5 = 'gFuH'"));
+    Assert.assertTrue(prune("daysSinceEpoch = 1 OR daysSinceEpoch > 200000000"));
+    Assert.assertFalse(prune("daysSinceEpoch = 1 OR column1 > 100"));
+  }
+
+  @Test
+  public void testNotPrunable() {
+    // Columns without min/max value, predicates not supported, or values not comparable
+    Assert.assertFalse(prune("column5 = 'foo'"));
+    Assert.assertFalse(prune("daysSinceEpoch <> 126164076"));
+    Assert.assertFalse(prune("daysSinceEpoch NOT IN (126164076, 167572854)"));
+    Assert.assertFalse(prune("daysSinceEpoch = 'foo'"));
+  }
+
+  private boolean prune(String filter) {
+    return _segmentPruner.prune(getIndexSegment(), COMPILER.compileToBrokerRequest(QUERY + filter));
+  }
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.queries;
+
+import com.linkedin.pinot.common.metadata.segment.IndexLoadingConfigMetadata;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.common.BlockDocIdIterator;
+import com.linkedin.pinot.core.common.Constants;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.plan.FilterPlanNode;
+import com.linkedin.pinot.core.query.cache.FilterBitmapCache;
+import com.linkedin.pinot.core.segment.index.IndexSegmentImpl;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.io.File;
+import java.util.Arrays;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for the filter bitmap cache: inverted index based filters on column7 and column11 are compared with and without
+ * the cache attached to the segment.
+ */
+public class FilterBitmapCacheTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "FilterBitmapCacheTest");
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final String QUERY = "SELECT COUNT(*) FROM testTable WHERE ";
+
+  private final ServerMetrics _serverMetrics = new ServerMetrics(new MetricsRegistry());
+  private IndexSegmentImpl _indexSegment;
+  private String _inFilter;
+  private String _reorderedInFilter;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    SegmentGeneratorConfig segmentGeneratorConfig = SingleValueSegmentTestUtils.getSegmentGeneratorConfig(
+        SingleValueSegmentTestUtils.getSchema("column1", "column7", "column11"), INDEX_DIR);
+    segmentGeneratorConfig.setInvertedIndexCreationColumns(Arrays.asList("column7", "column11"));
+    Configuration tableConfig = new PropertiesConfiguration();
+    tableConfig.addProperty(IndexLoadingConfigMetadata.KEY_OF_LOADING_INVERTED_INDEX, "column7,column11");
+    _indexSegment = (IndexSegmentImpl) SingleValueSegmentTestUtils.buildAndLoadSegment(segmentGeneratorConfig,
+        ReadMode.heap, new IndexLoadingConfigMetadata(tableConfig));
+
+    Dictionary dictionary = _indexSegment.getDataSource("column7").getDictionary();
+    _inFilter = "column7 IN (" + dictionary.get(0) + ", " + dictionary.get(3) + ", " + dictionary.get(5) + ")";
+    _reorderedInFilter =
+        "column7 IN (" + dictionary.get(5) + ", " + dictionary.get(0) + ", " + dictionary.get(3) + ")";
+  }
+
+  @AfterMethod
+  public void removeCache() {
+    _indexSegment.setFilterBitmapCache(null);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+
+  @Test
+  public void testCachedBitmaps() {
+    String filter = _inFilter + " OR column11 NOT IN ('t', 'P')";
+    int expectedNumMatchingDocs = getNumMatchingDocs(filter);
+    Assert.assertTrue(expectedNumMatchingDocs > 0);
+
+    FilterBitmapCache filterBitmapCache = setFilterBitmapCache(Long.MAX_VALUE);
+    Assert.assertEquals(getNumMatchingDocs(filter), expectedNumMatchingDocs);
+    // One union for the IN predicate and one for the NOT IN predicate
+    Assert.assertEquals(filterBitmapCache.size(), 2);
+    long sizeInBytes = filterBitmapCache.getSizeInBytes();
+    Assert.assertTrue(sizeInBytes > 0L);
+
+    // The same predicates with the values in a different order are served from the cache
+    Assert.assertEquals(getNumMatchingDocs(_reorderedInFilter + " OR column11 NOT IN ('P', 't')"),
+        expectedNumMatchingDocs);
+    Assert.assertEquals(filterBitmapCache.size(), 2);
+    Assert.assertEquals(filterBitmapCache.getSizeInBytes(), sizeInBytes);
+
+    // Predicates matching a single dictionary id are not cached
+    getNumMatchingDocs("column11 = 'P'");
+    Assert.assertEquals(filterBitmapCache.size(), 2);
+
+    // Dropped when the segment is destroyed
+    filterBitmapCache.clear();
+    Assert.assertEquals(filterBitmapCache.size(), 0);
+    Assert.assertEquals(filterBitmapCache.getSizeInBytes(), 0L);
+  }
+
+  @Test
+  public void testEviction() {
+    FilterBitmapCache filterBitmapCache = setFilterBitmapCache(Long.MAX_VALUE);
+    int inFilterNumMatchingDocs = getNumMatchingDocs(_inFilter);
+    long sizeInBytes = filterBitmapCache.getSizeInBytes();
+
+    // Only one union fits into the cache, the least recently used one is evicted
+    filterBitmapCache = setFilterBitmapCache(sizeInBytes);
+    getNumMatchingDocs(_inFilter);
+    Assert.assertEquals(filterBitmapCache.size(), 1);
+    int notInFilterNumMatchingDocs = getNumMatchingDocs("column11 NOT IN ('t', 'P')");
+    Assert.assertEquals(filterBitmapCache.size(), 1);
+    Assert.assertTrue(filterBitmapCache.getSizeInBytes() <= sizeInBytes);
+    Assert.assertEquals(getNumMatchingDocs("column11 NOT IN ('P', 't')"), notInFilterNumMatchingDocs);
+    Assert.assertEquals(getNumMatchingDocs(_reorderedInFilter), inFilterNumMatchingDocs);
+    Assert.assertEquals(filterBitmapCache.size(), 1);
+  }
+
+  private FilterBitmapCache setFilterBitmapCache(long maxSizeInBytes) {
+    FilterBitmapCache filterBitmapCache = new FilterBitmapCache(maxSizeInBytes, "testTable_OFFLINE", _serverMetrics);
+    _indexSegment.setFilterBitmapCache(filterBitmapCache);
+    return filterBitmapCache;
+  }
+
+  private int getNumMatchingDocs(String filter) {
+    FilterPlanNode filterPlanNode = new FilterPlanNode(_indexSegment, COMPILER.compileToBrokerRequest(QUERY + filter));
+    BlockDocIdIterator iterator = filterPlanNode.run().nextBlock().getBlockDocIdSet().iterator();
+    int numMatchingDocs = 0;
+    while (iterator.next() != Constants.EOF) {
+      numMatchingDocs++;
+    }
+    return numMatchingDocs;
+  }
+}
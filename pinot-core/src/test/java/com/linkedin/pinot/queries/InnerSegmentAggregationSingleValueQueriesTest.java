@@ -65,7 +65,7 @@ public class InnerSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
     resultsBlock = (IntermediateResultsBlock) aggregationOperator.nextBlock();
     executionStatistics = aggregationOperator.getExecutionStatistics();
     Assert.assertEquals(executionStatistics.getNumDocsScanned(), 6129L);
-    Assert.assertEquals(executionStatistics.getNumEntriesScannedInFilter(), 84134L);
+    Assert.assertEquals(executionStatistics.getNumEntriesScannedInFilter(), 71798L);
     Assert.assertEquals(executionStatistics.getNumEntriesScannedPostFilter(), 24516L);
     Assert.assertEquals(executionStatistics.getNumTotalRawDocs(), 30000L);
     aggregationResult = resultsBlock.getAggregationResult();
@@ -108,7 +108,7 @@ public class InnerSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
     resultsBlock = (IntermediateResultsBlock) aggregationGroupByOperator.nextBlock();
     executionStatistics = aggregationGroupByOperator.getExecutionStatistics();
     Assert.assertEquals(executionStatistics.getNumDocsScanned(), 6129L);
-    Assert.assertEquals(executionStatistics.getNumEntriesScannedInFilter(), 84134L);
+    Assert.assertEquals(executionStatistics.getNumEntriesScannedInFilter(), 71798L);
     Assert.assertEquals(executionStatistics.getNumEntriesScannedPostFilter(), 30645L);
     Assert.assertEquals(executionStatistics.getNumTotalRawDocs(), 30000L);
     aggregationGroupByResult = resultsBlock.getAggregationGroupByResult();
@@ -153,7 +153,7 @@ public class InnerSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
     resultsBlock = (IntermediateResultsBlock) aggregationGroupByOperator.nextBlock();
     executionStatistics = aggregationGroupByOperator.getExecutionStatistics();
     Assert.assertEquals(executionStatistics.getNumDocsScanned(), 6129L);
-    Assert.assertEquals(executionStatistics.getNumEntriesScannedInFilter(), 84134L);
+    Assert.assertEquals(executionStatistics.getNumEntriesScannedInFilter(), 71798L);
     Assert.assertEquals(executionStatistics.getNumEntriesScannedPostFilter(), 42903L);
     Assert.assertEquals(executionStatistics.getNumTotalRawDocs(), 30000L);
     aggregationGroupByResult = resultsBlock.getAggregationGroupByResult();
@@ -200,7 +200,7 @@ public class InnerSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
     resultsBlock = (IntermediateResultsBlock) aggregationGroupByOperator.nextBlock();
     executionStatistics = aggregationGroupByOperator.getExecutionStatistics();
     Assert.assertEquals(executionStatistics.getNumDocsScanned(), 6129L);
-    Assert.assertEquals(executionStatistics.getNumEntriesScannedInFilter(), 84134L);
+    Assert.assertEquals(executionStatistics.getNumEntriesScannedInFilter(), 71798L);
     Assert.assertEquals(executionStatistics.getNumEntriesScannedPostFilter(), 55161L);
     Assert.assertEquals(executionStatistics.getNumTotalRawDocs(), 30000L);
     aggregationGroupByResult = resultsBlock.getAggregationGroupByResult();
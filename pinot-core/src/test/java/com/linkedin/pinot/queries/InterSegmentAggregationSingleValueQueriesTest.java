@@ -16,6 +16,8 @@
 package com.linkedin.pinot.queries;
 
 import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import java.util.Map;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 
@@ -30,13 +32,31 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
     QueriesTestUtils.verifyAggregationResult(brokerResponse, 120000L, 0L, 0L, 120000L, new String[]{"120000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 0L, 120000L, new String[]{"24516"});
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 0L, 120000L, new String[]{"24516"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
     QueriesTestUtils.verifyAggregationResult(brokerResponse, 120000L, 0L, 120000L, 120000L, new String[]{"64420"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 24516L, 120000L, new String[]{"17080"});
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 24516L, 120000L, new String[]{"17080"});
+  }
+
+  @Test
+  public void testNumEntriesScannedInFilterPerColumn() {
+    String query = "SELECT COUNT(*) FROM testTable";
+
+    BrokerResponseNative brokerResponse = getBrokerResponseForQuery(query);
+    Assert.assertTrue(brokerResponse.getNumEntriesScannedInFilterPerColumn().isEmpty());
+
+    // The per column counts of the scan based filters add up to the total number of entries scanned in filter
+    brokerResponse = getBrokerResponseForQueryWithFilter(query);
+    Map<String, Long> numEntriesScannedInFilterPerColumn = brokerResponse.getNumEntriesScannedInFilterPerColumn();
+    Assert.assertEquals(numEntriesScannedInFilterPerColumn.size(), 4);
+    Assert.assertEquals(numEntriesScannedInFilterPerColumn.get("column1").longValue(), 44524L);
+    Assert.assertEquals(numEntriesScannedInFilterPerColumn.get("column3").longValue(), 98876L);
+    Assert.assertEquals(numEntriesScannedInFilterPerColumn.get("column6").longValue(), 59512L);
+    Assert.assertEquals(numEntriesScannedInFilterPerColumn.get("column11").longValue(), 84280L);
+    Assert.assertEquals(brokerResponse.getNumEntriesScannedInFilter(), 287192L);
   }
 
   @Test
@@ -48,7 +68,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146952047.00000", "2147419555.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"2146952047.00000", "999813884.00000"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -56,7 +76,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146952047.00000", "2147419555.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2146952047.00000", "999813884.00000"});
   }
 
@@ -69,7 +89,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"240528.00000", "17891.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"101116473.00000", "20396372.00000"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -77,7 +97,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"240528.00000", "17891.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"101116473.00000", "20396372.00000"});
   }
 
@@ -90,7 +110,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"129268741751388.00000", "129156636756600.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"27503790384288.00000", "12429178874916.00000"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -98,7 +118,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"69526727335224.00000", "69225631719808.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"19058003631876.00000", "8606725456500.00000"});
   }
 
@@ -111,7 +131,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"1077239514.59490", "1076305306.30500"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1121871038.68037", "506982332.96280"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -119,7 +139,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2142595699.00000", "2141451242.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699.00000", "999309554.00000"});
   }
 
@@ -132,7 +152,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146711519.00000", "2147401664.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"2045835574.00000", "979417512.00000"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -140,7 +160,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146711519.00000", "2146612605.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2044094181.00000", "979417512.00000"});
   }
 
@@ -153,7 +173,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"6582", "21910"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1872", "4556"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -161,7 +181,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"3495", "11961"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"1272", "3289"});
   }
 
@@ -174,7 +194,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"5977", "23825"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1886", "4492"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -182,7 +202,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"3592", "11889"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"1324", "3197"});
   }
 
@@ -195,7 +215,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"1107310944.00000", "1080136306.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1139674505.00000", "505053732.00000"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -203,7 +223,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843.00000", "2141451242.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699.00000", "999309554.00000"});
   }
 
@@ -216,7 +236,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"1943040511.00000", "1936611145.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1936730975.00000", "899534534.00000"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -224,7 +244,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843.00000", "2147278341.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699.00000", "999309554.00000"});
   }
 
@@ -237,7 +257,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2071559385.00000", "2042409652.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"2096857943.00000", "947763150.00000"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -245,7 +265,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843.00000", "2147419555.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699.00000", "999309554.00000"});
   }
 
@@ -258,7 +278,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2139354437.00000", "2125299552.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"2146232405.00000", "990669195.00000"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -266,7 +286,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843.00000", "2147419555.00000"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2146232405.00000", "999309554.00000"});
   }
 
@@ -279,7 +299,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"1107310944", "1082130431"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1139674505", "509607935"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -287,7 +307,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843", "2141451242"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699", "999309554"});
   }
 
@@ -300,7 +320,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"1946157055", "1946157055"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1939865599", "902299647"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -308,7 +328,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843", "2147278341"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699", "999309554"});
   }
 
@@ -321,7 +341,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2080374783", "2051014655"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"2109734911", "950009855"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -329,7 +349,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843", "2147419555"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699", "999309554"});
   }
 
@@ -342,7 +362,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2143289343", "2143289343"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"2146232405", "991952895"});
 
     brokerResponse = getBrokerResponseForQuery(query + GROUP_BY);
@@ -350,7 +370,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843", "2147419555"});
 
     brokerResponse = getBrokerResponseForQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.verifyAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2146232405", "999309554"});
   }
 }
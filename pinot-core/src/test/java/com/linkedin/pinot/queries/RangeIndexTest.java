@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.queries;
+
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.metadata.segment.IndexLoadingConfigMetadata;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.common.BlockDocIdIterator;
+import com.linkedin.pinot.core.common.Constants;
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.operator.filter.RangeIndexBasedFilterOperator;
+import com.linkedin.pinot.core.operator.filter.ScanBasedFilterOperator;
+import com.linkedin.pinot.core.plan.FilterPlanNode;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.io.File;
+import java.util.Collections;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for the range index: column1 gets its range index when creating the segment, column3 when loading the segment
+ * into v3 format. Range filters are compared against the same segment without range index.
+ */
+public class RangeIndexTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "RangeIndexTest");
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final String QUERY = "SELECT COUNT(*) FROM testTable WHERE ";
+  private static final int NUM_VALUES_TO_CHECK = 20;
+
+  private IndexSegment _segmentWithRangeIndex;
+  private IndexSegment _segmentWithoutRangeIndex;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    Schema schema = SingleValueSegmentTestUtils.getSchema("column1", "column3", "column7");
+    SegmentGeneratorConfig segmentGeneratorConfig =
+        SingleValueSegmentTestUtils.getSegmentGeneratorConfig(schema, new File(INDEX_DIR, "withRangeIndex"));
+    segmentGeneratorConfig.setRangeIndexCreationColumns(Collections.singletonList("column1"));
+    Configuration tableConfig = new PropertiesConfiguration();
+    tableConfig.addProperty(IndexLoadingConfigMetadata.KEY_OF_SEGMENT_FORMAT_VERSION, "v3");
+    tableConfig.addProperty(IndexLoadingConfigMetadata.KEY_OF_LOADING_RANGE_INDEX, "column3");
+    _segmentWithRangeIndex = SingleValueSegmentTestUtils.buildAndLoadSegment(segmentGeneratorConfig, ReadMode.mmap,
+        new IndexLoadingConfigMetadata(tableConfig));
+
+    segmentGeneratorConfig =
+        SingleValueSegmentTestUtils.getSegmentGeneratorConfig(schema, new File(INDEX_DIR, "withoutRangeIndex"));
+    _segmentWithoutRangeIndex =
+        SingleValueSegmentTestUtils.buildAndLoadSegment(segmentGeneratorConfig, ReadMode.mmap, null);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _segmentWithRangeIndex.destroy();
+    _segmentWithoutRangeIndex.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+
+  @Test
+  public void testRangeIndex() {
+    Assert.assertNotNull(_segmentWithRangeIndex.getDataSource("column1").getRangeIndex());
+    Assert.assertNotNull(_segmentWithRangeIndex.getDataSource("column3").getRangeIndex());
+    Assert.assertNull(_segmentWithRangeIndex.getDataSource("column7").getRangeIndex());
+    Assert.assertNull(_segmentWithoutRangeIndex.getDataSource("column1").getRangeIndex());
+
+    Assert.assertTrue(
+        getFilterOperator(_segmentWithRangeIndex, "column1 > 1") instanceof RangeIndexBasedFilterOperator);
+    Assert.assertTrue(getFilterOperator(_segmentWithRangeIndex, "column7 > 1") instanceof ScanBasedFilterOperator);
+    Assert.assertTrue(getFilterOperator(_segmentWithoutRangeIndex, "column1 > 1") instanceof ScanBasedFilterOperator);
+  }
+
+  @Test
+  public void testRangeFilters() {
+    for (String column : new String[]{"column1", "column3"}) {
+      Dictionary dictionary = _segmentWithRangeIndex.getDataSource(column).getDictionary();
+      int cardinality = dictionary.length();
+      for (int i = 0; i < NUM_VALUES_TO_CHECK; i++) {
+        int index = (int) ((long) i * (cardinality - 1) / (NUM_VALUES_TO_CHECK - 1));
+        Object value = dictionary.get(index);
+        Object otherValue = dictionary.get((index + cardinality / 3) % cardinality);
+        checkFilter(column + " > " + value);
+        checkFilter(column + " >= " + value);
+        checkFilter(column + " < " + value);
+        checkFilter(column + " <= " + value);
+        checkFilter(column + " BETWEEN " + value + " AND " + otherValue);
+        checkFilter(column + " BETWEEN " + otherValue + " AND " + value);
+        checkFilter(column + " > " + value + " AND column7 > 500");
+        checkFilter(column + " < " + value + " OR column7 > 500");
+      }
+      // Values not in the dictionary
+      checkFilter(column + " > -1");
+      checkFilter(column + " < -1");
+      checkFilter(column + " BETWEEN " + dictionary.get(0) + " AND " + Integer.MAX_VALUE);
+    }
+  }
+
+  private void checkFilter(String filter) {
+    Assert.assertEquals(getNumMatchingDocs(_segmentWithRangeIndex, filter),
+        getNumMatchingDocs(_segmentWithoutRangeIndex, filter), filter);
+  }
+
+  private static int getNumMatchingDocs(IndexSegment indexSegment, String filter) {
+    BlockDocIdIterator iterator = getFilterOperator(indexSegment, filter).nextBlock().getBlockDocIdSet().iterator();
+    int numMatchingDocs = 0;
+    while (iterator.next() != Constants.EOF) {
+      numMatchingDocs++;
+    }
+    return numMatchingDocs;
+  }
+
+  private static Operator getFilterOperator(IndexSegment indexSegment, String filter) {
+    return new FilterPlanNode(indexSegment, COMPILER.compileToBrokerRequest(QUERY + filter)).run();
+  }
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.queries;
+
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.data.manager.offline.OfflineSegmentDataManager;
+import com.linkedin.pinot.core.data.manager.offline.SegmentDataManager;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for queries on raw (no-dictionary) columns: column1, column3 (INT) and column12 (STRING) are stored without
+ * dictionary in one segment, and the results of filters, aggregations, group-by and selection queries are compared
+ * against the same segment with dictionaries.
+ */
+public class RawIndexQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "RawIndexQueriesTest");
+  private static final List<String> RAW_COLUMNS = Arrays.asList("column1", "column3", "column12");
+  private static final String[] RESULT_KEYS = {"aggregationResults", "selectionResults", "numDocsScanned"};
+
+  private IndexSegment _rawIndexSegment;
+  private IndexSegment _dictionaryIndexSegment;
+  private IndexSegment _indexSegment;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    Schema schema = SingleValueSegmentTestUtils.getSchema("column1", "column3", "column7", "column12");
+    SegmentGeneratorConfig segmentGeneratorConfig =
+        SingleValueSegmentTestUtils.getSegmentGeneratorConfig(schema, new File(INDEX_DIR, "raw"));
+    segmentGeneratorConfig.setRawIndexCreationColumns(RAW_COLUMNS);
+    _rawIndexSegment = SingleValueSegmentTestUtils.buildAndLoadSegment(segmentGeneratorConfig, ReadMode.mmap, null);
+
+    segmentGeneratorConfig =
+        SingleValueSegmentTestUtils.getSegmentGeneratorConfig(schema, new File(INDEX_DIR, "dictionary"));
+    _dictionaryIndexSegment =
+        SingleValueSegmentTestUtils.buildAndLoadSegment(segmentGeneratorConfig, ReadMode.mmap, null);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _rawIndexSegment.destroy();
+    _dictionaryIndexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<SegmentDataManager> getSegmentDataManagers() {
+    return Collections.<SegmentDataManager>singletonList(new OfflineSegmentDataManager(_indexSegment));
+  }
+
+  @Test
+  public void testRawIndex() {
+    for (String column : RAW_COLUMNS) {
+      Assert.assertNull(_rawIndexSegment.getDataSource(column).getDictionary());
+      Assert.assertNotNull(_dictionaryIndexSegment.getDataSource(column).getDictionary());
+    }
+  }
+
+  @Test
+  public void testFilters()
+      throws Exception {
+    String query = "SELECT COUNT(*) FROM testTable WHERE ";
+    Dictionary dictionary = _dictionaryIndexSegment.getDataSource("column1").getDictionary();
+    Object value = dictionary.get(dictionary.length() / 2);
+    Object otherValue = dictionary.get(dictionary.length() / 3);
+    checkQuery(query + "column1 = " + value);
+    checkQuery(query + "column1 <> " + value);
+    checkQuery(query + "column1 IN (" + value + ", " + otherValue + ", -1)");
+    checkQuery(query + "column1 NOT IN (" + value + ", " + otherValue + ")");
+    checkQuery(query + "column1 > " + value);
+    checkQuery(query + "column1 <= " + value);
+    checkQuery(query + "column1 BETWEEN " + otherValue + " AND " + value);
+    checkQuery(query + "column3 < " + value + " AND column1 >= " + otherValue);
+    checkQuery(query + "column1 > " + value + " OR column7 > 500");
+
+    dictionary = _dictionaryIndexSegment.getDataSource("column12").getDictionary();
+    value = dictionary.get(1);
+    otherValue = dictionary.get(3);
+    checkQuery(query + "column12 = '" + value + "'");
+    checkQuery(query + "column12 NOT IN ('" + value + "', '" + otherValue + "')");
+    checkQuery(query + "column12 BETWEEN '" + value + "' AND '" + otherValue + "'");
+    checkQuery(query + "column12 > '" + value + "' AND column7 < 500");
+  }
+
+  @Test
+  public void testAggregations()
+      throws Exception {
+    checkQuery("SELECT SUM(column1), MAX(column3), MIN(column1), AVG(column3) FROM testTable");
+    checkQuery("SELECT SUM(column3), COUNT(*) FROM testTable WHERE column1 > 100000000 AND column12 <> 'P'");
+  }
+
+  @Test
+  public void testGroupBy()
+      throws Exception {
+    checkQuery("SELECT SUM(column3) FROM testTable GROUP BY column12 TOP 10");
+    checkQuery("SELECT MAX(column3) FROM testTable WHERE column7 > 500 GROUP BY column1, column12 TOP 10");
+    checkQuery("SELECT SUM(column1) FROM testTable GROUP BY column7 TOP 10");
+  }
+
+  @Test
+  public void testSelection()
+      throws Exception {
+    checkQuery("SELECT column1, column3, column12 FROM testTable WHERE column7 > 500 LIMIT 10");
+    checkQuery("SELECT column3, column12 FROM testTable WHERE column1 < 500000000 ORDER BY column3 LIMIT 10");
+  }
+
+  private void checkQuery(String query)
+      throws Exception {
+    JSONObject rawResponse = getResponse(_rawIndexSegment, query);
+    JSONObject dictionaryResponse = getResponse(_dictionaryIndexSegment, query);
+    Assert.assertEquals(rawResponse.getJSONArray("exceptions").length(), 0, query);
+    for (String key : RESULT_KEYS) {
+      Assert.assertEquals(String.valueOf(rawResponse.opt(key)), String.valueOf(dictionaryResponse.opt(key)), query);
+    }
+  }
+
+  private JSONObject getResponse(IndexSegment indexSegment, String query)
+      throws Exception {
+    _indexSegment = indexSegment;
+    BrokerResponseNative brokerResponse = getBrokerResponseForQuery(query);
+    return brokerResponse.toJson();
+  }
+}
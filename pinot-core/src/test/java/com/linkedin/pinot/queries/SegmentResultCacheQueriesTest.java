@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.queries;
+
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import com.linkedin.pinot.core.plan.maker.PlanMaker;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
+import com.linkedin.pinot.core.query.config.QueryExecutorConfig;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class SegmentResultCacheQueriesTest extends BaseSingleValueQueriesTest {
+  private static final String AGGREGATION_QUERY =
+      "SELECT COUNT(*), SUM(column1), DISTINCTCOUNT(column6) FROM testTable";
+  private static final String GROUP_BY = " group by column9, column11";
+
+  private final PlanMaker _planMaker = new InstancePlanMakerImplV2();
+  private final ServerMetrics _serverMetrics = new ServerMetrics(new MetricsRegistry());
+
+  @Test
+  public void testAggregationOnly()
+      throws Exception {
+    testCachedResults(getFilter());
+  }
+
+  @Test
+  public void testAggregationGroupBy()
+      throws Exception {
+    testCachedResults(getFilter() + GROUP_BY);
+  }
+
+  @Test
+  public void testEviction()
+      throws Exception {
+    SegmentResultCache segmentResultCache = new SegmentResultCache(Long.MAX_VALUE, false, _serverMetrics);
+    PlanMaker planMaker = getCachingPlanMaker(segmentResultCache);
+    getBrokerResponseForQuery(AGGREGATION_QUERY + GROUP_BY, planMaker);
+    long groupBySizeInBytes = segmentResultCache.getSizeInBytes();
+
+    // Only one group-by result fits into the cache.
+    segmentResultCache = new SegmentResultCache(groupBySizeInBytes, true, _serverMetrics);
+    planMaker = getCachingPlanMaker(segmentResultCache);
+    getBrokerResponseForQuery(AGGREGATION_QUERY + GROUP_BY, planMaker);
+    Assert.assertEquals(segmentResultCache.size(), 1);
+    getBrokerResponseForQuery(AGGREGATION_QUERY + " group by column12", planMaker);
+    Assert.assertEquals(segmentResultCache.size(), 1);
+    Assert.assertTrue(segmentResultCache.getSizeInBytes() <= groupBySizeInBytes);
+    BrokerResponseNative brokerResponse = getBrokerResponseForQuery(AGGREGATION_QUERY + GROUP_BY, planMaker);
+    Assert.assertEquals(brokerResponse.getNumDocsScanned(), 120000L);
+  }
+
+  @Test
+  public void testInvalidateSegment()
+      throws Exception {
+    SegmentResultCache segmentResultCache = new SegmentResultCache(Long.MAX_VALUE, false, _serverMetrics);
+    PlanMaker planMaker = getCachingPlanMaker(segmentResultCache);
+    getBrokerResponseForQuery(AGGREGATION_QUERY, planMaker);
+    getBrokerResponseForQuery(AGGREGATION_QUERY + GROUP_BY, planMaker);
+    Assert.assertEquals(segmentResultCache.size(), 2);
+
+    String segmentName = getIndexSegment().getSegmentName();
+    segmentResultCache.invalidateSegment("otherTable", segmentName);
+    Assert.assertEquals(segmentResultCache.size(), 2);
+    segmentResultCache.invalidateSegment("testTable", segmentName);
+    Assert.assertEquals(segmentResultCache.size(), 0);
+    Assert.assertEquals(segmentResultCache.getSizeInBytes(), 0L);
+  }
+
+  private void testCachedResults(String filterAndGroupBy)
+      throws Exception {
+    String query = AGGREGATION_QUERY + filterAndGroupBy;
+    String expectedResults = getBrokerResponseForQuery(query, _planMaker).toJson().get("aggregationResults").toString();
+
+    SegmentResultCache segmentResultCache = new SegmentResultCache(Long.MAX_VALUE, true, _serverMetrics);
+    PlanMaker planMaker = getCachingPlanMaker(segmentResultCache);
+    BrokerResponseNative brokerResponse = getBrokerResponseForQuery(query, planMaker);
+    Assert.assertTrue(brokerResponse.getNumDocsScanned() > 0L);
+    Assert.assertEquals(brokerResponse.toJson().get("aggregationResults").toString(), expectedResults);
+    // The 2 segment data managers share the same index segment.
+    Assert.assertEquals(segmentResultCache.size(), 1);
+
+    // The same query in a different format is served from the cache without scanning the segments.
+    brokerResponse = getBrokerResponseForQuery(query.replace(" AND ", "  AND  "), planMaker);
+    Assert.assertEquals(brokerResponse.getNumDocsScanned(), 0L);
+    Assert.assertEquals(brokerResponse.getTotalDocs(), 120000L);
+    Assert.assertEquals(brokerResponse.toJson().get("aggregationResults").toString(), expectedResults);
+    Assert.assertEquals(segmentResultCache.size(), 1);
+  }
+
+  private static PlanMaker getCachingPlanMaker(SegmentResultCache segmentResultCache)
+      throws Exception {
+    return new InstancePlanMakerImplV2(new QueryExecutorConfig(new PropertiesConfiguration()), segmentResultCache);
+  }
+}
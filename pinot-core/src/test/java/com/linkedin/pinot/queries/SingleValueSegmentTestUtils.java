@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.queries;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.metadata.segment.IndexLoadingConfigMetadata;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.segment.creator.SegmentIndexCreationDriver;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.linkedin.pinot.core.segment.index.loader.Loaders;
+import java.io.File;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.testng.Assert;
+
+
+/**
+ * Builds index segments from the single-value Avro test data, see {@link BaseSingleValueQueriesTest} for the columns.
+ * Tests pick the columns and configure the indexes on the {@link SegmentGeneratorConfig}.
+ */
+public class SingleValueSegmentTestUtils {
+  public static final String TABLE_NAME = "testTable";
+  public static final String SEGMENT_NAME = "testTable_126164076_167572854_";
+  public static final String TIME_COLUMN = "daysSinceEpoch";
+
+  private static final String AVRO_DATA = "data/test_data-sv.avro";
+
+  private SingleValueSegmentTestUtils() {
+  }
+
+  /**
+   * Returns the schema with the given columns of the test data, plus the time column.
+   */
+  public static Schema getSchema(String... columns) {
+    Schema.SchemaBuilder schemaBuilder = new Schema.SchemaBuilder().setSchemaName(TABLE_NAME);
+    for (String column : columns) {
+      switch (column) {
+        case "column1":
+        case "column3":
+        case "column17":
+        case "column18":
+          schemaBuilder.addMetric(column, FieldSpec.DataType.INT);
+          break;
+        case "column6":
+        case "column7":
+        case "column9":
+          schemaBuilder.addSingleValueDimension(column, FieldSpec.DataType.INT);
+          break;
+        case "column5":
+        case "column11":
+        case "column12":
+          schemaBuilder.addSingleValueDimension(column, FieldSpec.DataType.STRING);
+          break;
+        default:
+          throw new IllegalArgumentException("Unsupported column: " + column);
+      }
+    }
+    return schemaBuilder.addTime(TIME_COLUMN, TimeUnit.DAYS, FieldSpec.DataType.INT).build();
+  }
+
+  /**
+   * Returns the config to build a segment of the test data with the given schema into the given directory.
+   */
+  public static SegmentGeneratorConfig getSegmentGeneratorConfig(Schema schema, File outDir) {
+    URL resource = SingleValueSegmentTestUtils.class.getClassLoader().getResource(AVRO_DATA);
+    Assert.assertNotNull(resource);
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(schema);
+    segmentGeneratorConfig.setInputFilePath(resource.getFile());
+    segmentGeneratorConfig.setTableName(TABLE_NAME);
+    segmentGeneratorConfig.setOutDir(outDir.getAbsolutePath());
+    return segmentGeneratorConfig;
+  }
+
+  /**
+   * Builds the segment, and returns the directory of the segment.
+   */
+  public static File buildSegment(SegmentGeneratorConfig segmentGeneratorConfig)
+      throws Exception {
+    SegmentIndexCreationDriver driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig);
+    driver.build();
+    return new File(segmentGeneratorConfig.getOutDir(), SEGMENT_NAME);
+  }
+
+  /**
+   * Builds the segment and loads it, with the indexes added at loading time configured in the loading config if any.
+   */
+  public static IndexSegment buildAndLoadSegment(SegmentGeneratorConfig segmentGeneratorConfig, ReadMode readMode,
+      @Nullable IndexLoadingConfigMetadata indexLoadingConfigMetadata)
+      throws Exception {
+    return Loaders.IndexSegment.load(buildSegment(segmentGeneratorConfig), readMode, indexLoadingConfigMetadata);
+  }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.query.executor;
+
+import com.linkedin.pinot.core.query.executor.TaskTrackingExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+
+public class TaskTrackingExecutorServiceTest {
+  private final ExecutorService _executorService = Executors.newFixedThreadPool(2);
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdownNow();
+  }
+
+  @Test
+  public void testRunWhenTasksDone()
+      throws Exception {
+    TaskTrackingExecutorService taskTrackingExecutorService = new TaskTrackingExecutorService(_executorService);
+    final CountDownLatch taskLatch = new CountDownLatch(1);
+    Future<?> future = taskTrackingExecutorService.submit(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          taskLatch.await();
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    });
+
+    // The query times out while its task is still running
+    try {
+      future.get(10, TimeUnit.MILLISECONDS);
+      Assert.fail();
+    } catch (TimeoutException e) {
+      // Expected
+    }
+    final AtomicInteger numReleases = new AtomicInteger();
+    final CountDownLatch releaseLatch = new CountDownLatch(1);
+    taskTrackingExecutorService.runWhenTasksDone(new Runnable() {
+      @Override
+      public void run() {
+        numReleases.incrementAndGet();
+        releaseLatch.countDown();
+      }
+    });
+    Assert.assertEquals(numReleases.get(), 0);
+    Assert.assertEquals(taskTrackingExecutorService.getNumPendingTasks(), 1);
+
+    // No task can be submitted after the query ended
+    try {
+      taskTrackingExecutorService.execute(new Runnable() {
+        @Override
+        public void run() {
+        }
+      });
+      Assert.fail();
+    } catch (RejectedExecutionException e) {
+      // Expected
+    }
+
+    // Action runs once the task ends
+    taskLatch.countDown();
+    Assert.assertTrue(releaseLatch.await(10, TimeUnit.SECONDS));
+    Assert.assertTrue(taskTrackingExecutorService.awaitTermination(10, TimeUnit.SECONDS));
+    Assert.assertEquals(numReleases.get(), 1);
+  }
+
+  @Test
+  public void testRunWhenNoTask() {
+    TaskTrackingExecutorService taskTrackingExecutorService = new TaskTrackingExecutorService(_executorService);
+    final AtomicInteger numReleases = new AtomicInteger();
+    taskTrackingExecutorService.runWhenTasksDone(new Runnable() {
+      @Override
+      public void run() {
+        numReleases.incrementAndGet();
+      }
+    });
+    Assert.assertEquals(numReleases.get(), 1);
+    Assert.assertTrue(taskTrackingExecutorService.isTerminated());
+  }
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.query.scheduler;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.linkedin.pinot.common.data.DataManager;
+import com.linkedin.pinot.common.exception.QueryException;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.query.QueryExecutor;
+import com.linkedin.pinot.common.query.QueryRequest;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.request.InstanceRequest;
+import com.linkedin.pinot.common.request.QuerySource;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
+import com.linkedin.pinot.core.query.scheduler.BoundedExecutorService;
+import com.linkedin.pinot.core.query.scheduler.FairShareQueryScheduler;
+import com.linkedin.pinot.core.query.scheduler.QueryScheduler;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class FairShareQuerySchedulerTest {
+  private static final long TIMEOUT_MS = 10_000L;
+
+  private final ServerMetrics _serverMetrics = new ServerMetrics(new MetricsRegistry());
+
+  @Test
+  public void testFairShareAcrossTables()
+      throws Exception {
+    TestQueryExecutor queryExecutor = new TestQueryExecutor(TIMEOUT_MS);
+    Configuration schedulerConfig = new PropertiesConfiguration();
+    schedulerConfig.setProperty(QueryScheduler.QUERY_RUNNER_CONFIG_KEY, 1);
+    FairShareQueryScheduler scheduler = new FairShareQueryScheduler(schedulerConfig, queryExecutor);
+    try {
+      // The first query of table A occupies the only runner thread, while more queries of A and then one of B queue up
+      List<ListenableFuture<DataTable>> futures = new ArrayList<>();
+      futures.add(scheduler.submit(createQueryRequest("tableA_OFFLINE", 0)));
+      queryExecutor._firstQueryStarted.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+      for (int i = 1; i <= 5; i++) {
+        futures.add(scheduler.submit(createQueryRequest("tableA_OFFLINE", i)));
+      }
+      futures.add(scheduler.submit(createQueryRequest("tableB_REALTIME", 6)));
+      Thread.sleep(50L);
+      queryExecutor._releaseFirstQuery.countDown();
+      for (ListenableFuture<DataTable> future : futures) {
+        future.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+      }
+
+      // Table B already waited for table A to use the runner, so it runs before the other queries of table A
+      Assert.assertEquals(queryExecutor._processedRequestIds.get(0).longValue(), 0L);
+      Assert.assertEquals(queryExecutor._processedRequestIds.get(1).longValue(), 6L);
+      Assert.assertEquals(queryExecutor._processedRequestIds.size(), 7);
+    } finally {
+      scheduler.stop();
+    }
+  }
+
+  @Test
+  public void testRejectQueryPastDeadline()
+      throws Exception {
+    TestQueryExecutor queryExecutor = new TestQueryExecutor(100L);
+    queryExecutor._releaseFirstQuery.countDown();
+    FairShareQueryScheduler scheduler = new FairShareQueryScheduler(new PropertiesConfiguration(), queryExecutor);
+    try {
+      QueryRequest queryRequest = createQueryRequest("myTable_OFFLINE", 1);
+      queryRequest.getTimerContext().setQueryArrivalTimeNs(System.nanoTime() - TimeUnit.SECONDS.toNanos(1));
+      DataTable dataTable = scheduler.submit(queryRequest).get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+      Assert.assertTrue(dataTable.getMetadata()
+          .containsKey(DataTable.EXCEPTION_METADATA_KEY + QueryException.QUERY_SCHEDULING_TIMEOUT_ERROR_CODE));
+      Assert.assertTrue(queryExecutor._processedRequestIds.isEmpty());
+
+      queryRequest = createQueryRequest("myTable_OFFLINE", 2);
+      queryRequest.getTimerContext().setQueryArrivalTimeNs(System.nanoTime());
+      dataTable = scheduler.submit(queryRequest).get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+      Assert.assertTrue(dataTable.getMetadata().isEmpty());
+      Assert.assertEquals(queryExecutor._processedRequestIds, Collections.singletonList(2L));
+    } finally {
+      scheduler.stop();
+    }
+  }
+
+  @Test
+  public void testBoundedExecutorService()
+      throws Exception {
+    ExecutorService sharedExecutorService = Executors.newFixedThreadPool(8);
+    try {
+      final int maxThreads = 3;
+      final int numTasks = 50;
+      BoundedExecutorService executorService = new BoundedExecutorService(sharedExecutorService, maxThreads);
+      final AtomicInteger numRunningTasks = new AtomicInteger();
+      final AtomicInteger maxNumRunningTasks = new AtomicInteger();
+      final CountDownLatch completedTasks = new CountDownLatch(numTasks);
+      for (int i = 0; i < numTasks; i++) {
+        executorService.execute(new Runnable() {
+          @Override
+          public void run() {
+            int running = numRunningTasks.incrementAndGet();
+            synchronized (maxNumRunningTasks) {
+              maxNumRunningTasks.set(Math.max(maxNumRunningTasks.get(), running));
+            }
+            try {
+              Thread.sleep(2L);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            numRunningTasks.decrementAndGet();
+            completedTasks.countDown();
+          }
+        });
+      }
+      Assert.assertTrue(completedTasks.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+      Assert.assertTrue(maxNumRunningTasks.get() <= maxThreads);
+      executorService.shutdown();
+      Assert.assertTrue(executorService.awaitTermination(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+    } finally {
+      sharedExecutorService.shutdown();
+    }
+  }
+
+  private QueryRequest createQueryRequest(String tableName, long requestId) {
+    BrokerRequest brokerRequest = new BrokerRequest();
+    QuerySource querySource = new QuerySource();
+    querySource.setTableName(tableName);
+    brokerRequest.setQuerySource(querySource);
+    InstanceRequest instanceRequest = new InstanceRequest(requestId, brokerRequest);
+    return new QueryRequest(instanceRequest, _serverMetrics);
+  }
+
+  /**
+   * Query executor recording the order of the processed requests, blocking the first one until released.
+   */
+  private static class TestQueryExecutor implements QueryExecutor {
+    private final long _timeOutMs;
+    private final CountDownLatch _firstQueryStarted = new CountDownLatch(1);
+    private final CountDownLatch _releaseFirstQuery = new CountDownLatch(1);
+    private final List<Long> _processedRequestIds = Collections.synchronizedList(new ArrayList<Long>());
+
+    TestQueryExecutor(long timeOutMs) {
+      _timeOutMs = timeOutMs;
+    }
+
+    @Override
+    public void init(Configuration queryExecutorConfig, DataManager dataManager, ServerMetrics serverMetrics) {
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public DataTable processQuery(QueryRequest queryRequest) {
+      _firstQueryStarted.countDown();
+      try {
+        _releaseFirstQuery.await();
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      _processedRequestIds.add(queryRequest.getInstanceRequest().getRequestId());
+      return new DataTableImplV2();
+    }
+
+    @Override
+    public void shutDown() {
+    }
+
+    @Override
+    public boolean isStarted() {
+      return true;
+    }
+
+    @Override
+    public void updateResourceTimeOutInMs(String resource, long timeOutMs) {
+    }
+
+    @Override
+    public long getResourceTimeOutInMs(String resource) {
+      return _timeOutMs;
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.segments.v1.creator;
+
+import com.linkedin.pinot.common.config.ColumnPartitionConfig;
+import com.linkedin.pinot.common.config.SegmentPartitionConfig;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.metadata.segment.ColumnPartitionMetadata;
+import com.linkedin.pinot.common.partition.ModuloPartitionFunction;
+import com.linkedin.pinot.common.partition.PartitionFunction;
+import com.linkedin.pinot.common.partition.PartitionFunctionFactory;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.data.readers.FileFormat;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.segment.creator.SegmentIndexCreationDriver;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import com.linkedin.pinot.core.segment.index.loader.Loaders;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import java.io.File;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests that the segment creation records the partitions of the partitioned columns in the segment metadata.
+ */
+public class SegmentPartitionTest {
+  private static final String AVRO_DATA = "data/test_data-sv.avro";
+  private static final String SEGMENT_NAME = "testTable_126164076_167572854_";
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "SegmentPartitionTest");
+  private static final String PARTITIONED_COLUMN = "column7";
+  private static final int NUM_PARTITIONS = 8;
+  // Value of the "segment.partition.config" property of the Hadoop segment creation job
+  private static final String SEGMENT_PARTITION_CONFIG =
+      "{\"columnPartitionMap\": {\"" + PARTITIONED_COLUMN + "\": {\"functionName\": \"" + ModuloPartitionFunction.NAME
+          + "\", \"numPartitions\": " + NUM_PARTITIONS + "}}}";
+
+  private IndexSegment _indexSegment;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    URL resource = getClass().getClassLoader().getResource(AVRO_DATA);
+    Assert.assertNotNull(resource);
+    Schema schema = new Schema.SchemaBuilder().setSchemaName("testTable")
+        .addSingleValueDimension("column6", FieldSpec.DataType.INT)
+        .addSingleValueDimension(PARTITIONED_COLUMN, FieldSpec.DataType.INT)
+        .addTime("daysSinceEpoch", TimeUnit.DAYS, FieldSpec.DataType.INT)
+        .build();
+    // Configure the segment the way the Hadoop segment creation job does
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(schema);
+    segmentGeneratorConfig.setTableName("testTable");
+    segmentGeneratorConfig.setInputFilePath(resource.getFile());
+    segmentGeneratorConfig.setFormat(FileFormat.AVRO);
+    segmentGeneratorConfig.setOutDir(INDEX_DIR.getAbsolutePath());
+    segmentGeneratorConfig.setNumIndexingThreads(0);
+    segmentGeneratorConfig.setSegmentPartitionConfig(SegmentPartitionConfig.fromJsonString(SEGMENT_PARTITION_CONFIG));
+    SegmentIndexCreationDriver driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig);
+    driver.build();
+
+    _indexSegment = Loaders.IndexSegment.load(new File(INDEX_DIR, SEGMENT_NAME), ReadMode.heap);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+
+  @Test
+  public void testSegmentPartitionConfigJson()
+      throws Exception {
+    SegmentPartitionConfig segmentPartitionConfig = SegmentPartitionConfig.fromJsonString(SEGMENT_PARTITION_CONFIG);
+    Assert.assertEquals(segmentPartitionConfig.getColumnPartitionMap().keySet(),
+        Collections.singleton(PARTITIONED_COLUMN));
+    ColumnPartitionConfig columnPartitionConfig =
+        segmentPartitionConfig.getColumnPartitionMap().get(PARTITIONED_COLUMN);
+    Assert.assertEquals(columnPartitionConfig.getFunctionName(), ModuloPartitionFunction.NAME);
+    Assert.assertEquals(columnPartitionConfig.getNumPartitions(), NUM_PARTITIONS);
+
+    // The JSON form round trips
+    Assert.assertEquals(SegmentPartitionConfig.fromJsonString(segmentPartitionConfig.toJsonString()).toString(),
+        segmentPartitionConfig.toString());
+  }
+
+  @Test
+  public void testPartitionMetadata() {
+    SegmentMetadataImpl segmentMetadata = (SegmentMetadataImpl) _indexSegment.getSegmentMetadata();
+    Assert.assertNull(segmentMetadata.getColumnMetadataFor("column6").getPartitionMetadata());
+
+    ColumnPartitionMetadata partitionMetadata =
+        segmentMetadata.getColumnMetadataFor(PARTITIONED_COLUMN).getPartitionMetadata();
+    Assert.assertNotNull(partitionMetadata);
+    Assert.assertEquals(partitionMetadata.getFunctionName(), ModuloPartitionFunction.NAME);
+    Assert.assertEquals(partitionMetadata.getNumPartitions(), NUM_PARTITIONS);
+
+    // Partitions must be the ones of the values in the segment
+    PartitionFunction partitionFunction =
+        PartitionFunctionFactory.getPartitionFunction(ModuloPartitionFunction.NAME, NUM_PARTITIONS);
+    Dictionary dictionary = _indexSegment.getDataSource(PARTITIONED_COLUMN).getDictionary();
+    Set<Integer> expectedPartitions = new HashSet<>();
+    for (int i = 0; i < dictionary.length(); i++) {
+      expectedPartitions.add(partitionFunction.getPartition(dictionary.get(i)));
+    }
+    Assert.assertEquals(partitionMetadata.getPartitions(), expectedPartitions);
+  }
+}
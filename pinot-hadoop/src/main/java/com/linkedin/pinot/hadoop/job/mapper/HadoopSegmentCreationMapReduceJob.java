@@ -30,6 +30,7 @@ import org.codehaus.jackson.map.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.linkedin.pinot.common.config.SegmentPartitionConfig;
 import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.common.utils.TarGzCompressionUtils;
 import com.linkedin.pinot.core.data.readers.CSVRecordReaderConfig;
@@ -49,6 +50,8 @@ public class HadoopSegmentCreationMapReduceJob {
     private String _outputPath;
     private String _tableName;
     private String _postfix;
+    private int _numIndexingThreads;
+    private SegmentPartitionConfig _segmentPartitionConfig;
 
     private Path _currentHdfsWorkDir;
     private String _currentDiskWorkDir;
@@ -84,6 +87,14 @@ public class HadoopSegmentCreationMapReduceJob {
       _outputPath = _properties.get("path.to.output");
       _tableName = _properties.get("segment.table.name");
       _postfix = _properties.get("segment.name.postfix", null);
+      // Positive to read the input once and build the columns of the segment in parallel
+      _numIndexingThreads = _properties.getInt("segment.num.indexing.threads", 0);
+      // Partition function and number of partitions of the partitioned columns, in the JSON form of the table config
+      String segmentPartitionConfig = _properties.get("segment.partition.config", null);
+      if (segmentPartitionConfig != null) {
+        _segmentPartitionConfig = SegmentPartitionConfig.fromJsonString(segmentPartitionConfig);
+        LOGGER.info("Segment partition config : {}", _segmentPartitionConfig);
+      }
       if (_outputPath == null || _tableName == null) {
         throw new RuntimeException(
             "Missing configs: " +
@@ -169,6 +180,8 @@ public class HadoopSegmentCreationMapReduceJob {
       segmentGeneratorConfig.setReaderConfig(getReaderConfig(fileFormat));
 
       segmentGeneratorConfig.setOutDir(_localDiskSegmentDirectory);
+      segmentGeneratorConfig.setNumIndexingThreads(_numIndexingThreads);
+      segmentGeneratorConfig.setSegmentPartitionConfig(_segmentPartitionConfig);
 
       // Add the current java package version to the segment metadata
       // properties file.
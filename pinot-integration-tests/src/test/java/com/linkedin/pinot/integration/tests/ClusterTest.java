@@ -248,6 +248,16 @@ public abstract class ClusterTest extends ControllerTest {
       String brokerTenant, File avroFile, int realtimeSegmentFlushSize, String sortedColumn,
       List<String> invertedIndexColumns, String loadMode)
           throws Exception {
+    addLLCRealtimeTable(tableName, timeColumnName, timeColumnType, retentionDays, retentionTimeUnit, kafkaBrokerList,
+        kafkaTopic, schemaName, serverTenant, brokerTenant, avroFile, realtimeSegmentFlushSize, sortedColumn,
+        invertedIndexColumns, loadMode, Collections.<String, String>emptyMap());
+  }
+
+  protected void addLLCRealtimeTable(String tableName, String timeColumnName, String timeColumnType, int retentionDays,
+      String retentionTimeUnit, String kafkaBrokerList, String kafkaTopic, String schemaName, String serverTenant,
+      String brokerTenant, File avroFile, int realtimeSegmentFlushSize, String sortedColumn,
+      List<String> invertedIndexColumns, String loadMode, Map<String, String> extraStreamConfigs)
+          throws Exception {
     JSONObject metadata = new JSONObject();
     metadata.put("streamType", "kafka");
     metadata.put(DataSource.STREAM_PREFIX + "." + Kafka.CONSUMER_TYPE, Kafka.ConsumerType.simple.toString());
@@ -258,6 +268,9 @@ public abstract class ClusterTest extends ControllerTest {
     metadata.put(DataSource.Realtime.REALTIME_SEGMENT_FLUSH_SIZE, Integer.toString(realtimeSegmentFlushSize));
     metadata.put(DataSource.STREAM_PREFIX + "." + Kafka.KAFKA_CONSUMER_PROPS_PREFIX + "." + Kafka.AUTO_OFFSET_RESET,
         "smallest");
+    for (Map.Entry<String, String> entry : extraStreamConfigs.entrySet()) {
+      metadata.put(entry.getKey(), entry.getValue());
+    }
 
     AvroFileSchemaKafkaAvroMessageDecoder.avroFile = avroFile;
     JSONObject request = ControllerRequestBuilder.buildCreateRealtimeTableJSON(tableName, serverTenant, brokerTenant,
@@ -0,0 +1,244 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.perf;
+
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.core.common.Block;
+import com.linkedin.pinot.core.common.BlockId;
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.operator.BaseOperator;
+import com.linkedin.pinot.core.operator.ExecutionStatistics;
+import com.linkedin.pinot.core.operator.MCombineGroupByOperator;
+import com.linkedin.pinot.core.operator.aggregation.AggregationFunctionContext;
+import com.linkedin.pinot.core.operator.aggregation.function.AggregationFunction;
+import com.linkedin.pinot.core.operator.aggregation.function.AggregationFunctionUtils;
+import com.linkedin.pinot.core.operator.aggregation.groupby.AggregationGroupByResult;
+import com.linkedin.pinot.core.operator.aggregation.groupby.DoubleGroupByResultHolder;
+import com.linkedin.pinot.core.operator.aggregation.groupby.GroupByResultHolder;
+import com.linkedin.pinot.core.operator.aggregation.groupby.GroupKeyGenerator;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.operator.blocks.TransformBlock;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark for the combine phase of aggregation group-by queries, comparing the striped-lock merge
+ * (numPartitions = 0) against the partitioned merge.
+ * <p>Segment results are generated up front, so that only the combine is measured.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-server", "-Xmx8G"})
+public class BenchmarkCombineGroupBy {
+  private static final String QUERY = "SELECT SUM(metric) FROM myTable GROUP BY dimension TOP 100";
+  private static final long TIME_OUT_MS = 60_000L;
+
+  /** Number of group key partitions, 0 for the striped-lock merge. */
+  @Param({"0", "8", "32", "64"})
+  public int numPartitions;
+
+  @Param({"32"})
+  public int numThreads;
+
+  @Param({"64"})
+  public int numSegments;
+
+  @Param({"100000"})
+  public int numGroupsPerSegment;
+
+  /** Total number of distinct group keys across all segments. */
+  @Param({"500000"})
+  public int cardinality;
+
+  private BrokerRequest _brokerRequest;
+  private ExecutorService _executorService;
+  private List<IntermediateResultsBlock> _segmentResults;
+
+  @Setup
+  public void setUp() {
+    _brokerRequest = new Pql2Compiler().compileToBrokerRequest(QUERY);
+    _executorService = Executors.newFixedThreadPool(numThreads);
+
+    AggregationFunctionContext[] aggregationFunctionContexts =
+        AggregationFunctionUtils.getAggregationFunctionContexts(_brokerRequest.getAggregationsInfo(), null);
+    AggregationFunction[] aggregationFunctions = new AggregationFunction[]{
+        aggregationFunctionContexts[0].getAggregationFunction()
+    };
+
+    Random random = new Random();
+    _segmentResults = new ArrayList<>(numSegments);
+    for (int i = 0; i < numSegments; i++) {
+      // Each segment holds a contiguous (wrapped) range of group keys starting from a random offset.
+      int offset = random.nextInt(cardinality);
+      String[] groupKeys = new String[numGroupsPerSegment];
+      DoubleGroupByResultHolder resultHolder =
+          new DoubleGroupByResultHolder(numGroupsPerSegment, numGroupsPerSegment, numGroupsPerSegment, 0.0);
+      for (int j = 0; j < numGroupsPerSegment; j++) {
+        groupKeys[j] = "dimension_" + (offset + j) % cardinality;
+        resultHolder.setValueForKey(j, random.nextDouble());
+      }
+      AggregationGroupByResult aggregationGroupByResult =
+          new AggregationGroupByResult(new ArrayGroupKeyGenerator(groupKeys), aggregationFunctions,
+              new GroupByResultHolder[]{resultHolder});
+      _segmentResults.add(new IntermediateResultsBlock(aggregationFunctionContexts, aggregationGroupByResult));
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public IntermediateResultsBlock combineGroupBy() {
+    List<Operator> operators = new ArrayList<>(numSegments);
+    for (IntermediateResultsBlock segmentResult : _segmentResults) {
+      operators.add(new ResultsBlockOperator(segmentResult));
+    }
+    MCombineGroupByOperator combineOperator =
+        new MCombineGroupByOperator(operators, _executorService, TIME_OUT_MS, _brokerRequest, numPartitions);
+    return (IntermediateResultsBlock) combineOperator.nextBlock();
+  }
+
+  /**
+   * Operator returning a pre-computed results block.
+   */
+  private static class ResultsBlockOperator extends BaseOperator {
+    private final IntermediateResultsBlock _resultsBlock;
+
+    ResultsBlockOperator(IntermediateResultsBlock resultsBlock) {
+      _resultsBlock = resultsBlock;
+    }
+
+    @Override
+    public Block getNextBlock() {
+      return _resultsBlock;
+    }
+
+    @Override
+    public Block getNextBlock(BlockId blockId) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean open() {
+      return true;
+    }
+
+    @Override
+    public boolean close() {
+      return true;
+    }
+
+    @Override
+    public ExecutionStatistics getExecutionStatistics() {
+      return new ExecutionStatistics();
+    }
+  }
+
+  /**
+   * Group key generator iterating over a pre-generated array of group keys, where the group id is the array index.
+   */
+  private static class ArrayGroupKeyGenerator implements GroupKeyGenerator {
+    private final String[] _groupKeys;
+
+    ArrayGroupKeyGenerator(String[] groupKeys) {
+      _groupKeys = groupKeys;
+    }
+
+    @Override
+    public int getGlobalGroupKeyUpperBound() {
+      return _groupKeys.length;
+    }
+
+    @Override
+    public void generateKeysForBlock(TransformBlock transformBlock, int[] docIdToGroupKey) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void generateKeysForBlock(TransformBlock transformBlock, int[][] docIdToGroupKeys) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getCurrentGroupKeyUpperBound() {
+      return _groupKeys.length;
+    }
+
+    @Override
+    public Iterator<GroupKey> getUniqueGroupKeys() {
+      return new Iterator<GroupKey>() {
+        private int _index = 0;
+
+        @Override
+        public boolean hasNext() {
+          return _index < _groupKeys.length;
+        }
+
+        @Override
+        public GroupKey next() {
+          GroupKey groupKey = new GroupKey(_index, _groupKeys[_index]);
+          _index++;
+          return groupKey;
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+
+    @Override
+    public void purgeKeys(int[] keysToPurge) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkCombineGroupBy.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(10))
+        .warmupIterations(3)
+        .measurementTime(TimeValue.seconds(10))
+        .measurementIterations(5);
+
+    new Runner(opt.build()).run();
+  }
+}
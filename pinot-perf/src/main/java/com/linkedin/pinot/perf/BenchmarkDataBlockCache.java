@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.perf;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.common.BlockValSet;
+import com.linkedin.pinot.core.common.DataFetcher;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.readers.TestRecordReader;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.operator.BaseOperator;
+import com.linkedin.pinot.core.operator.aggregation.DataBlockCache;
+import com.linkedin.pinot.core.operator.docvalsets.ProjectionBlockValSet;
+import com.linkedin.pinot.core.plan.DocIdSetPlanNode;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.linkedin.pinot.core.segment.index.loader.Loaders;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark for the per-block overhead of the {@link DataBlockCache} on aggregation queries over many columns: every
+ * block of the segment is fetched the way the aggregation operators do, with the dictionary ids and double values
+ * of each single-value column, and the number of entries of each multi-value column read twice per block.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-server", "-Xmx8G"})
+public class BenchmarkDataBlockCache {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "BenchmarkDataBlockCache");
+  private static final String SEGMENT_NAME = "benchmarkSegment";
+  private static final int NUM_DOCS = 500_000;
+  private static final int NUM_MULTI_VALUE_COLUMNS = 2;
+  private static final int MAX_NUM_MULTI_VALUES = 5;
+  private static final int CARDINALITY = 1000;
+
+  @Param({"10", "50", "100"})
+  public int numColumns;
+
+  private IndexSegment _indexSegment;
+  private DataBlockCache _dataBlockCache;
+  private BlockValSet[] _singleValueBlockValSets;
+  private BlockValSet[] _multiValueBlockValSets;
+  private int[] _docIds;
+
+  @Setup
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    Schema schema = new Schema();
+    for (int i = 0; i < numColumns; i++) {
+      schema.addField(new DimensionFieldSpec("sv" + i, FieldSpec.DataType.INT, true));
+    }
+    for (int i = 0; i < NUM_MULTI_VALUE_COLUMNS; i++) {
+      schema.addField(new DimensionFieldSpec("mv" + i, FieldSpec.DataType.INT, false));
+    }
+
+    Random random = new Random(0);
+    List<GenericRow> rows = new ArrayList<>(NUM_DOCS);
+    for (int docId = 0; docId < NUM_DOCS; docId++) {
+      Map<String, Object> map = new HashMap<>();
+      for (int i = 0; i < numColumns; i++) {
+        map.put("sv" + i, random.nextInt(CARDINALITY));
+      }
+      for (int i = 0; i < NUM_MULTI_VALUE_COLUMNS; i++) {
+        Integer[] values = new Integer[1 + random.nextInt(MAX_NUM_MULTI_VALUES)];
+        for (int j = 0; j < values.length; j++) {
+          values[j] = random.nextInt(CARDINALITY);
+        }
+        map.put("mv" + i, values);
+      }
+      GenericRow row = new GenericRow();
+      row.init(map);
+      rows.add(row);
+    }
+
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    config.setOutDir(INDEX_DIR.getAbsolutePath());
+    config.setSegmentName(SEGMENT_NAME);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new TestRecordReader(rows, schema));
+    driver.build();
+    _indexSegment = Loaders.IndexSegment.load(new File(INDEX_DIR, SEGMENT_NAME), ReadMode.heap);
+
+    Map<String, BaseOperator> dataSourceMap = new HashMap<>();
+    for (String column : _indexSegment.getColumnNames()) {
+      dataSourceMap.put(column, _indexSegment.getDataSource(column));
+    }
+    _dataBlockCache = new DataBlockCache(new DataFetcher(dataSourceMap));
+    _singleValueBlockValSets = new BlockValSet[numColumns];
+    for (int i = 0; i < numColumns; i++) {
+      _singleValueBlockValSets[i] = new ProjectionBlockValSet(_dataBlockCache, "sv" + i);
+    }
+    _multiValueBlockValSets = new BlockValSet[NUM_MULTI_VALUE_COLUMNS];
+    for (int i = 0; i < NUM_MULTI_VALUE_COLUMNS; i++) {
+      _multiValueBlockValSets[i] = new ProjectionBlockValSet(_dataBlockCache, "mv" + i);
+    }
+
+    _docIds = new int[NUM_DOCS];
+    for (int i = 0; i < NUM_DOCS; i++) {
+      _docIds[i] = i;
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public long fetchAllBlocks() {
+    long checksum = 0;
+    for (int startPos = 0; startPos < NUM_DOCS; startPos += DocIdSetPlanNode.MAX_DOC_PER_CALL) {
+      int length = Math.min(DocIdSetPlanNode.MAX_DOC_PER_CALL, NUM_DOCS - startPos);
+      _dataBlockCache.initNewBlock(_docIds, startPos, length);
+      for (BlockValSet blockValSet : _singleValueBlockValSets) {
+        checksum += blockValSet.getDictionaryIds()[length - 1];
+        checksum += (long) blockValSet.getDoubleValuesSV()[length - 1];
+        // Cache hit
+        checksum += blockValSet.getDictionaryIds()[0];
+      }
+      for (BlockValSet blockValSet : _multiValueBlockValSets) {
+        checksum += blockValSet.getNumberOfMVEntriesArray()[length - 1];
+        // Cache hit
+        checksum += blockValSet.getNumberOfMVEntriesArray()[0];
+      }
+    }
+    return checksum;
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkDataBlockCache.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(10))
+        .warmupIterations(3)
+        .measurementTime(TimeValue.seconds(10))
+        .measurementIterations(5);
+    new Runner(opt.build()).run();
+  }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.perf;
+
+import com.clearspring.analytics.stream.cardinality.HyperLogLog;
+import com.linkedin.pinot.core.common.datatable.ObjectCustomSerDe;
+import com.linkedin.pinot.core.common.datatable.ObjectType;
+import com.linkedin.pinot.core.operator.aggregation.function.customobject.QuantileDigest;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark for the ser/de of aggregation intermediate results with the original (1) and the compact (2) encoding of
+ * {@link ObjectCustomSerDe}.
+ * <p>The serialized size of each object is printed during setup.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-server", "-Xmx4G"})
+public class BenchmarkObjectSerDe {
+  @Param({"IntOpenHashSet", "HyperLogLog", "QuantileDigest", "HashMap"})
+  public String objectType;
+
+  @Param({"1", "2"})
+  public int encodingVersion;
+
+  /** Number of values in the set, digest and hyper log log, or number of entries in the map. */
+  @Param({"100", "10000"})
+  public int numValues;
+
+  private Object _object;
+  private ObjectType _objectType;
+  private byte[] _bytes;
+
+  @Setup
+  public void setUp()
+      throws IOException {
+    Random random = new Random(0);
+    _objectType = ObjectType.valueOf(objectType);
+    switch (_objectType) {
+      case IntOpenHashSet:
+        IntOpenHashSet intOpenHashSet = new IntOpenHashSet(numValues);
+        for (int i = 0; i < numValues; i++) {
+          intOpenHashSet.add(random.nextInt(numValues * 10));
+        }
+        _object = intOpenHashSet;
+        break;
+      case HyperLogLog:
+        HyperLogLog hyperLogLog = new HyperLogLog(12);
+        for (int i = 0; i < numValues; i++) {
+          hyperLogLog.offer(random.nextLong());
+        }
+        _object = hyperLogLog;
+        break;
+      case QuantileDigest:
+        QuantileDigest quantileDigest = new QuantileDigest(0.05);
+        for (int i = 0; i < numValues; i++) {
+          quantileDigest.add(random.nextInt(1000000));
+        }
+        _object = quantileDigest;
+        break;
+      case HashMap:
+        HashMap<String, Double> hashMap = new HashMap<>(numValues);
+        for (int i = 0; i < numValues; i++) {
+          hashMap.put("group_" + i, random.nextDouble());
+        }
+        _object = hashMap;
+        break;
+      default:
+        throw new IllegalStateException("Unsupported object type: " + objectType);
+    }
+    _bytes = ObjectCustomSerDe.serialize(_object, encodingVersion);
+    System.out.println(
+        "Serialized size of " + objectType + " with encoding version " + encodingVersion + ": " + _bytes.length);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public byte[] serialize()
+      throws IOException {
+    return ObjectCustomSerDe.serialize(_object, encodingVersion);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Object deserialize()
+      throws IOException {
+    return ObjectCustomSerDe.deserialize(_bytes, _objectType, encodingVersion);
+  }
+
+  /**
+   * Visits the entries of the serialized map the way the broker merges group-by results, without building the map.
+   * Not applicable to the other object types.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int visit()
+      throws IOException {
+    if (_objectType != ObjectType.HashMap) {
+      return 0;
+    }
+    final int[] numEntries = new int[1];
+    ObjectCustomSerDe.visitHashMapEntries(ByteBuffer.wrap(_bytes), encodingVersion,
+        new ObjectCustomSerDe.HashMapEntryVisitor() {
+          @Override
+          public void visit(@Nonnull Object key, @Nonnull Object value) {
+            numEntries[0]++;
+          }
+        });
+    return numEntries[0];
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkObjectSerDe.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(5))
+        .warmupIterations(3)
+        .measurementTime(TimeValue.seconds(5))
+        .measurementIterations(5);
+
+    new Runner(opt.build()).run();
+  }
+}
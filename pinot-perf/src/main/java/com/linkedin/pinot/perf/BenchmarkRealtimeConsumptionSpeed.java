@@ -16,6 +16,9 @@
 package com.linkedin.pinot.perf;
 
 import com.google.common.util.concurrent.Uninterruptibles;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.utils.CommonConstants.Helix.DataSource;
+import com.linkedin.pinot.common.utils.CommonConstants.Helix.DataSource.Realtime.Kafka;
 import com.linkedin.pinot.common.utils.KafkaStarterUtils;
 import com.linkedin.pinot.common.utils.TarGzCompressionUtils;
 import com.linkedin.pinot.integration.tests.OfflineClusterIntegrationTest;
@@ -23,6 +26,7 @@ import com.linkedin.pinot.integration.tests.RealtimeClusterIntegrationTest;
 import com.linkedin.pinot.util.TestUtils;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
@@ -34,6 +38,8 @@ import org.json.JSONObject;
 /**
  * Benchmark that writes a configurable amount of rows in Kafka and checks how much time it takes to consume all of
  * them.
+ * <p>Usage: BenchmarkRealtimeConsumptionSpeed [llc [decoderThreads]], the low level consumer decoding the messages on
+ * the consuming thread unless a number of decoder threads is given.
  */
 public class BenchmarkRealtimeConsumptionSpeed extends RealtimeClusterIntegrationTest {
   private static final int ROW_COUNT = 100_000;
@@ -44,9 +50,19 @@ public class BenchmarkRealtimeConsumptionSpeed extends RealtimeClusterIntegratio
   private static final int SEGMENT_COUNT = 1;
   private static final Random RANDOM = new Random(123456L);
 
+  private final boolean _useLlc;
+  private final int _llcDecoderThreads;
+
+  public BenchmarkRealtimeConsumptionSpeed(boolean useLlc, int llcDecoderThreads) {
+    _useLlc = useLlc;
+    _llcDecoderThreads = llcDecoderThreads;
+  }
+
   public static void main(String[] args) {
+    boolean useLlc = args.length > 0 && "llc".equalsIgnoreCase(args[0]);
+    int llcDecoderThreads = args.length > 1 ? Integer.parseInt(args[1]) : 0;
     try {
-      new BenchmarkRealtimeConsumptionSpeed().runBenchmark();
+      new BenchmarkRealtimeConsumptionSpeed(useLlc, llcDecoderThreads).runBenchmark();
     } catch (Exception e) {
       System.exit(-1);
     }
@@ -127,7 +143,23 @@ public class BenchmarkRealtimeConsumptionSpeed extends RealtimeClusterIntegratio
 
     long endTime = System.currentTimeMillis();
 
-    System.out.println("Consumed " + ROW_COUNT + " rows in " + (endTime - startTime) / 1000.0 + " seconds");
+    System.out.println("Consumed " + ROW_COUNT + " rows in " + (endTime - startTime) / 1000.0 + " seconds ("
+        + ROW_COUNT * 1000L / Math.max(endTime - startTime, 1L) + " rows/sec)");
+  }
+
+  @Override
+  protected void setUpTable(String tableName, String timeColumnName, String timeColumnType, String kafkaZkUrl,
+      String kafkaTopic, File schemaFile, File avroFile) throws Exception {
+    if (!_useLlc) {
+      super.setUpTable(tableName, timeColumnName, timeColumnType, kafkaZkUrl, kafkaTopic, schemaFile, avroFile);
+      return;
+    }
+    Schema schema = Schema.fromFile(schemaFile);
+    addSchema(schemaFile, schema.getSchemaName());
+    addLLCRealtimeTable(tableName, timeColumnName, timeColumnType, -1, "", KafkaStarterUtils.DEFAULT_KAFKA_BROKER,
+        kafkaTopic, schema.getSchemaName(), null, null, avroFile, ROW_COUNT_FOR_SEGMENT_FLUSH, "Carrier",
+        Collections.<String>emptyList(), "mmap", Collections.singletonMap(
+            DataSource.STREAM_PREFIX + "." + Kafka.LLC_DECODER_THREADS, Integer.toString(_llcDecoderThreads)));
   }
 
   @Override
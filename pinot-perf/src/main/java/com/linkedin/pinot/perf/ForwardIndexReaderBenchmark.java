@@ -21,6 +21,7 @@ import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
 import com.linkedin.pinot.core.io.reader.BaseSingleColumnMultiValueReader;
 import com.linkedin.pinot.core.io.reader.BaseSingleColumnSingleValueReader;
 import com.linkedin.pinot.core.io.reader.impl.v1.MultiValueReaderContext;
+import com.linkedin.pinot.core.plan.DocIdSetPlanNode;
 import com.linkedin.pinot.core.segment.index.ColumnMetadata;
 import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
 import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
@@ -64,6 +65,10 @@ public class ForwardIndexReaderBenchmark {
     System.out.println(" v1 sequential read stats for " + file.getName());
     System.out.println(
         stats.toString().replaceAll("\n", ", ") + " raw:" + Arrays.toString(stats.getValues()));
+
+    // bulk read of blocks of doc ids, consecutive (e.g. after a sorted index filter) then every other doc
+    bulkReadBenchMark("v1", reader, file, numDocs, 1);
+    bulkReadBenchMark("v1", reader, file, numDocs, 2);
     reader.close();
     heapBuffer.close();
   }
@@ -146,11 +151,43 @@ public class ForwardIndexReaderBenchmark {
       System.out.println("v2 sequential batch read stats for " + file.getName());
       System.out.println(
           stats.toString().replaceAll("\n", ", ") + " raw:" + Arrays.toString(stats.getValues()));
+
+      bulkReadBenchMark("v2", reader, file, numDocs, 1);
+      bulkReadBenchMark("v2", reader, file, numDocs, 2);
     }
     reader.close();
 
   }
 
+  /**
+   * Reads the whole forward index through {@link BaseSingleColumnSingleValueReader#readValues}, in blocks of doc
+   * ids of the size used by the query engine, the doc ids being spaced by the given step.
+   */
+  private static void bulkReadBenchMark(String version, BaseSingleColumnSingleValueReader reader, File file,
+      int numDocs, int docIdStep) {
+    int blockSize = DocIdSetPlanNode.MAX_DOC_PER_CALL;
+    int[] docIds = new int[blockSize];
+    int[] output = new int[blockSize];
+    DescriptiveStatistics stats = new DescriptiveStatistics();
+    for (int run = 0; run < MAX_RUNS; run++) {
+      long start = System.currentTimeMillis();
+      int docId = 0;
+      while (docId < numDocs) {
+        int length = 0;
+        while (length < blockSize && docId < numDocs) {
+          docIds[length++] = docId;
+          docId += docIdStep;
+        }
+        reader.readValues(docIds, 0, length, output, 0);
+      }
+      long end = System.currentTimeMillis();
+      stats.addValue(end - start);
+    }
+    System.out.println(version + " bulk read with doc id step " + docIdStep + " stats for " + file.getName());
+    System.out.println(
+        stats.toString().replaceAll("\n", ", ") + " raw:" + Arrays.toString(stats.getValues()));
+  }
+
   public static void multiValuedReadBenchMarkV1(File file, int numDocs, int totalNumValues,
       int maxEntriesPerDoc, int columnSizeInBits) throws Exception {
     System.out.println("******************************************************************");
@@ -295,9 +332,6 @@ public class ForwardIndexReaderBenchmark {
       }
 
       ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
-      if (columnMetadata.isSingleValue()) {
-        continue;
-      }
       if (!columnMetadata.isSingleValue()) {
 
         String fwdIndexFileName = segmentMetadata.getForwardIndexFileName(column, segmentVersion);
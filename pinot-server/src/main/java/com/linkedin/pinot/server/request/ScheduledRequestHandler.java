@@ -26,6 +26,7 @@ import com.linkedin.pinot.common.query.QueryRequest;
 import com.linkedin.pinot.common.query.context.TimerContext;
 import com.linkedin.pinot.common.request.InstanceRequest;
 import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.datatable.DataTableFactory;
 import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
 import com.linkedin.pinot.core.query.scheduler.QueryScheduler;
 import com.linkedin.pinot.serde.SerDe;
@@ -75,6 +76,7 @@ public class ScheduledRequestHandler implements NettyServer.RequestHandler {
     }
     final QueryRequest queryRequest = new QueryRequest(instanceRequest, serverMetrics);
     final TimerContext timerContext = queryRequest.getTimerContext();
+    timerContext.setQueryArrivalTimeNs(queryStartTime);
     TimerContext.Timer deserializationTimer =
         timerContext.startNewPhaseTimerAtNs(ServerQueryPhase.REQUEST_DESERIALIZATION, queryStartTime);
     deserializationTimer.stopAndRecord();
@@ -125,7 +127,10 @@ public class ScheduledRequestHandler implements NettyServer.RequestHandler {
         LOGGER.warn("Instance response is null for requestId: {}, brokerId: {}", requestId, brokerId);
         responseByte = new byte[0];
       } else {
-        responseByte = instanceResponse.toBytes();
+        // Respond with the data table version negotiated with the broker.
+        int dataTableVersion = instanceRequest != null ? DataTableFactory.getResponseVersion(instanceRequest.getQuery())
+            : DataTableFactory.VERSION_2;
+        responseByte = DataTableFactory.toBytes(instanceResponse, dataTableVersion);
       }
     } catch (Exception e) {
       metrics.addMeteredGlobalValue(ServerMeter.RESPONSE_SERIALIZATION_EXCEPTIONS, 1);
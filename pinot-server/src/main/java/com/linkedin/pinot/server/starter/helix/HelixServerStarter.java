@@ -48,6 +48,8 @@ import com.linkedin.pinot.common.utils.NetUtil;
 import com.linkedin.pinot.common.utils.ServiceStatus;
 import com.linkedin.pinot.common.utils.ZkUtils;
 import com.linkedin.pinot.core.indexsegment.columnar.ColumnarSegmentMetadataLoader;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
+import com.linkedin.pinot.core.query.executor.ServerQueryExecutorV1Impl;
 import com.linkedin.pinot.server.conf.ServerConf;
 import com.linkedin.pinot.server.realtime.ControllerLeaderLocator;
 import com.linkedin.pinot.server.starter.ServerInstance;
@@ -107,10 +109,16 @@ public class HelixServerStarter {
     SegmentFetcherAndLoader fetcherAndLoader = new SegmentFetcherAndLoader(_serverInstance.getInstanceDataManager(),
         new ColumnarSegmentMetadataLoader(), zkPropertyStore, pinotHelixProperties, _instanceId);
 
+    // Segment result cache to evict unloaded and refreshed segments from
+    SegmentResultCache segmentResultCache = null;
+    if (_serverInstance.getQueryExecutor() instanceof ServerQueryExecutorV1Impl) {
+      segmentResultCache = ((ServerQueryExecutorV1Impl) _serverInstance.getQueryExecutor()).getSegmentResultCache();
+    }
+
     // Register state model factory
     final StateModelFactory<?> stateModelFactory =
         new SegmentOnlineOfflineStateModelFactory(helixClusterName, _instanceId,
-            _serverInstance.getInstanceDataManager(),  zkPropertyStore, fetcherAndLoader);
+            _serverInstance.getInstanceDataManager(),  zkPropertyStore, fetcherAndLoader, segmentResultCache);
     stateMachineEngine.registerStateModelFactory(SegmentOnlineOfflineStateModelFactory.getStateModelName(),
         stateModelFactory);
     _helixAdmin = _helixManager.getClusterManagmentTool();
@@ -123,7 +131,8 @@ public class HelixServerStarter {
     updateInstanceConfigInHelix(adminApiPort, false/*shutDownStatus*/);
 
     // Register message handler factory
-    SegmentMessageHandlerFactory messageHandlerFactory = new SegmentMessageHandlerFactory(fetcherAndLoader);
+    SegmentMessageHandlerFactory messageHandlerFactory =
+        new SegmentMessageHandlerFactory(fetcherAndLoader, segmentResultCache);
     _helixManager.getMessagingService().registerMessageHandlerFactory(Message.MessageType.USER_DEFINE_MSG.toString(),
         messageHandlerFactory);
 
@@ -15,8 +15,10 @@
  */
 package com.linkedin.pinot.server.starter.helix;
 
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nullable;
 import org.apache.helix.NotificationContext;
 import org.apache.helix.messaging.handling.HelixTaskResult;
 import org.apache.helix.messaging.handling.MessageHandler;
@@ -32,9 +34,21 @@ public class SegmentMessageHandlerFactory implements MessageHandlerFactory {
   // To serialize the segment refresh calls.
   private final Lock _refreshLock = new ReentrantLock();
   private final SegmentFetcherAndLoader _fetcherAndLoader;
+  private final SegmentResultCache _segmentResultCache;
 
   public SegmentMessageHandlerFactory(SegmentFetcherAndLoader fetcherAndLoader) {
+    this(fetcherAndLoader, null);
+  }
+
+  /**
+   * @param fetcherAndLoader segment fetcher and loader.
+   * @param segmentResultCache cache for the per segment query results to evict refreshed segments from, null if
+   *                           disabled.
+   */
+  public SegmentMessageHandlerFactory(SegmentFetcherAndLoader fetcherAndLoader,
+      @Nullable SegmentResultCache segmentResultCache) {
     _fetcherAndLoader = fetcherAndLoader;
+    _segmentResultCache = segmentResultCache;
   }
 
   // Called each time a message is received.
@@ -88,6 +102,10 @@ public class SegmentMessageHandlerFactory implements MessageHandlerFactory {
         // The addOrReplaceOfflineSegment() call can retry multiple times with back-off for loading the same segment.
         // If it does, future segment loads will be stalled on the one segment that we cannot load.
         _fetcherAndLoader.addOrReplaceOfflineSegment(_tableName, _segmentName, /*retryOnFailure=*/false);
+        // Results cached for the replaced segment cannot be served any more.
+        if (_segmentResultCache != null) {
+          _segmentResultCache.invalidateSegment(_tableName, _segmentName);
+        }
         result.setSuccess(true);
       } finally {
         _refreshLock.unlock();
@@ -43,6 +43,8 @@ import com.linkedin.pinot.core.data.manager.offline.InstanceDataManager;
 import com.linkedin.pinot.core.data.manager.offline.SegmentDataManager;
 import com.linkedin.pinot.core.data.manager.offline.TableDataManager;
 import com.linkedin.pinot.core.data.manager.realtime.LLRealtimeSegmentDataManager;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
+import javax.annotation.Nullable;
 
 /**
  * Data Server layer state model to take over how to operate on:
@@ -57,11 +59,19 @@ public class SegmentOnlineOfflineStateModelFactory extends StateModelFactory<Sta
   private static String HELIX_CLUSTER_NAME;
   private ZkHelixPropertyStore<ZNRecord> propertyStore;
   private final SegmentFetcherAndLoader _fetcherAndLoader;
+  private final SegmentResultCache _segmentResultCache;
 
   public SegmentOnlineOfflineStateModelFactory(String helixClusterName, String instanceId,
       DataManager instanceDataManager, ZkHelixPropertyStore<ZNRecord> propertyStore,
       SegmentFetcherAndLoader fetcherAndLoader) {
+    this(helixClusterName, instanceId, instanceDataManager, propertyStore, fetcherAndLoader, null);
+  }
+
+  public SegmentOnlineOfflineStateModelFactory(String helixClusterName, String instanceId,
+      DataManager instanceDataManager, ZkHelixPropertyStore<ZNRecord> propertyStore,
+      SegmentFetcherAndLoader fetcherAndLoader, @Nullable SegmentResultCache segmentResultCache) {
     _fetcherAndLoader = fetcherAndLoader;
+    _segmentResultCache = segmentResultCache;
     this.propertyStore = propertyStore;
     HELIX_CLUSTER_NAME = helixClusterName;
     INSTANCE_ID = instanceId;
@@ -142,6 +152,9 @@ public class SegmentOnlineOfflineStateModelFactory extends StateModelFactory<Sta
       final String segmentId = message.getPartitionName();
       try {
         INSTANCE_DATA_MANAGER.removeSegment(segmentId);
+        if (_segmentResultCache != null) {
+          _segmentResultCache.invalidateSegment(message.getResourceName(), segmentId);
+        }
       } catch (final Exception e) {
         LOGGER.error("Cannot unload the segment : " + segmentId + "!\n" + e.getMessage(), e);
         Utils.rethrowException(e);
@@ -216,6 +229,9 @@ public class SegmentOnlineOfflineStateModelFactory extends StateModelFactory<Sta
       final String segmentId = message.getPartitionName();
       try {
         INSTANCE_DATA_MANAGER.removeSegment(segmentId);
+        if (_segmentResultCache != null) {
+          _segmentResultCache.invalidateSegment(message.getResourceName(), segmentId);
+        }
       } catch (final Exception e) {
         LOGGER.error("Cannot unload the segment : " + segmentId + "!\n" + e.getMessage(), e);
         Utils.rethrowException(e);
@@ -0,0 +1,196 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.routing;
+
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.request.FilterQuery;
+import com.linkedin.pinot.common.request.FilterQueryMap;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.transport.common.SegmentId;
+import com.linkedin.pinot.transport.common.SegmentIdSet;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+
+/**
+ * Prunes the segments of a routing table entry which cannot match the filter of a query, based on the segment routing
+ * metadata cached by the broker, so that the broker does not send the query to servers whose segments are all pruned.
+ * <p>Segments are pruned when the EQ, IN or RANGE predicates on the time column cannot match the time range of the
+ * segment, or when the EQ or IN predicates on a partitioned column only match values of partitions not contained in
+ * the segment. Segments without routing metadata are never pruned.
+ */
+public class BrokerSegmentPruner {
+  private static final String RANGE_DELIMITER = "\t\t";
+  private static final String UNBOUNDED = "*";
+
+  private BrokerSegmentPruner() {
+  }
+
+  /**
+   * Returns the routing table entry with the segments which cannot match the filter of the query removed, and the
+   * servers without any segment left removed.
+   * <p>If all the segments are pruned, one segment is kept so that the servers still return a result with the proper
+   * data schema, which the broker cannot build on its own.
+   *
+   * @param routing Server to segments map, not modified
+   * @param brokerRequest Broker request of the query
+   * @param tableRoutingMetadata Routing metadata of the table
+   * @return Pruned server to segments map
+   */
+  public static Map<ServerInstance, SegmentIdSet> prune(Map<ServerInstance, SegmentIdSet> routing,
+      BrokerRequest brokerRequest, TableRoutingMetadata tableRoutingMetadata) {
+    FilterQuery filterQuery = brokerRequest.getFilterQuery();
+    String timeColumn = tableRoutingMetadata.getTimeColumn();
+    if (filterQuery == null || routing.isEmpty()) {
+      return routing;
+    }
+
+    Map<ServerInstance, SegmentIdSet> prunedRouting = new HashMap<>();
+    boolean pruned = false;
+    for (Map.Entry<ServerInstance, SegmentIdSet> entry : routing.entrySet()) {
+      SegmentIdSet segmentIdSet = new SegmentIdSet();
+      for (SegmentId segmentId : entry.getValue().getSegments()) {
+        SegmentRoutingMetadata segmentRoutingMetadata =
+            tableRoutingMetadata.getSegmentRoutingMetadata(segmentId.getSegmentId());
+        if (segmentRoutingMetadata != null && pruneSegment(filterQuery, brokerRequest.getFilterSubQueryMap(),
+            timeColumn, segmentRoutingMetadata)) {
+          pruned = true;
+        } else {
+          segmentIdSet.addSegment(segmentId);
+        }
+      }
+      if (!segmentIdSet.getSegments().isEmpty()) {
+        prunedRouting.put(entry.getKey(), segmentIdSet);
+      }
+    }
+    if (!pruned) {
+      return routing;
+    }
+
+    if (prunedRouting.isEmpty()) {
+      Map.Entry<ServerInstance, SegmentIdSet> entry = routing.entrySet().iterator().next();
+      SegmentIdSet segmentIdSet = new SegmentIdSet();
+      segmentIdSet.addSegment(entry.getValue().getOneSegment());
+      prunedRouting.put(entry.getKey(), segmentIdSet);
+    }
+    return prunedRouting;
+  }
+
+  /**
+   * Returns true if no document of the segment can match the filter query.
+   */
+  static boolean pruneSegment(FilterQuery filterQuery, FilterQueryMap filterQueryMap, @Nullable String timeColumn,
+      SegmentRoutingMetadata segmentRoutingMetadata) {
+    List<Integer> nestedFilterQueryIds = filterQuery.getNestedFilterQueryIds();
+    switch (filterQuery.getOperator()) {
+      case AND:
+        for (Integer queryId : nestedFilterQueryIds) {
+          if (pruneSegment(filterQueryMap.getFilterQueryMap().get(queryId), filterQueryMap, timeColumn,
+              segmentRoutingMetadata)) {
+            return true;
+          }
+        }
+        return false;
+      case OR:
+        for (Integer queryId : nestedFilterQueryIds) {
+          if (!pruneSegment(filterQueryMap.getFilterQueryMap().get(queryId), filterQueryMap, timeColumn,
+              segmentRoutingMetadata)) {
+            return false;
+          }
+        }
+        return true;
+      case EQUALITY:
+      case IN:
+      case RANGE:
+        String column = filterQuery.getColumn();
+        try {
+          if (column.equals(timeColumn)) {
+            return segmentRoutingMetadata.hasTimeRange() && pruneTimeRange(filterQuery,
+                BigDecimal.valueOf(segmentRoutingMetadata.getStartTime()),
+                BigDecimal.valueOf(segmentRoutingMetadata.getEndTime()));
+          }
+          SegmentRoutingMetadata.ColumnPartitions columnPartitions = segmentRoutingMetadata.getColumnPartitions(column);
+          return columnPartitions != null && prunePartitions(filterQuery, columnPartitions);
+        } catch (NumberFormatException e) {
+          // Leave the query to the servers if the values cannot be compared with the time range or partitioned
+          return false;
+        }
+      default:
+        return false;
+    }
+  }
+
+  private static boolean pruneTimeRange(FilterQuery filterQuery, BigDecimal startTime, BigDecimal endTime) {
+    String value = filterQuery.getValue().get(0);
+    switch (filterQuery.getOperator()) {
+      case EQUALITY:
+        return !isInRange(new BigDecimal(value), startTime, endTime);
+      case IN:
+        for (String inValue : value.split(RANGE_DELIMITER)) {
+          if (isInRange(new BigDecimal(inValue), startTime, endTime)) {
+            return false;
+          }
+        }
+        return true;
+      case RANGE:
+        // Range is in the format of "[lower\t\tupper]", with "(" and ")" for exclusive boundaries and "*" for unbounded
+        String range = value.trim();
+        String[] boundaries = range.split(RANGE_DELIMITER);
+        String lowerBoundary = boundaries[0].substring(1);
+        String upperBoundary = boundaries[1].substring(0, boundaries[1].length() - 1);
+        if (!lowerBoundary.equals(UNBOUNDED)) {
+          int result = new BigDecimal(lowerBoundary).compareTo(endTime);
+          if (result > 0 || (result == 0 && range.startsWith("("))) {
+            return true;
+          }
+        }
+        if (!upperBoundary.equals(UNBOUNDED)) {
+          int result = new BigDecimal(upperBoundary).compareTo(startTime);
+          if (result < 0 || (result == 0 && range.endsWith(")"))) {
+            return true;
+          }
+        }
+        return false;
+      default:
+        return false;
+    }
+  }
+
+  private static boolean prunePartitions(FilterQuery filterQuery,
+      SegmentRoutingMetadata.ColumnPartitions columnPartitions) {
+    String value = filterQuery.getValue().get(0);
+    switch (filterQuery.getOperator()) {
+      case EQUALITY:
+        return !columnPartitions.mightContain(value);
+      case IN:
+        for (String inValue : value.split(RANGE_DELIMITER)) {
+          if (columnPartitions.mightContain(inValue)) {
+            return false;
+          }
+        }
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isInRange(BigDecimal value, BigDecimal startTime, BigDecimal endTime) {
+    return value.compareTo(startTime) >= 0 && value.compareTo(endTime) <= 0;
+  }
+}
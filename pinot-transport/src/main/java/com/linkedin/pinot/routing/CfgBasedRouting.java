@@ -15,9 +15,12 @@
  */
 package com.linkedin.pinot.routing;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.transport.common.SegmentId;
 import com.linkedin.pinot.transport.common.SegmentIdSet;
 import com.linkedin.pinot.transport.config.PerTableRoutingConfig;
 import com.linkedin.pinot.transport.config.RoutingTableConfig;
@@ -50,6 +53,12 @@ public class CfgBasedRouting implements RoutingTable {
     return cfg.buildRequestRoutingMap();
   }
 
+  @Override
+  public Map<SegmentId, List<ServerInstance>> findReplicas(String tableName, SegmentIdSet segmentIdSet) {
+    // The configured routing does not know about other replicas
+    return Collections.emptyMap();
+  }
+
   @Override
   public boolean routingTableExists(String tableName) {
     Map<ServerInstance, SegmentIdSet> routingTableEntry = findServers(new RoutingTableLookupRequest(tableName, null));
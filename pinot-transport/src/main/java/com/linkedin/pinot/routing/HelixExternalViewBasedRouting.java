@@ -16,20 +16,26 @@
 
 package com.linkedin.pinot.routing;
 
+import com.google.common.base.Splitter;
 import com.google.common.collect.Sets;
 import com.linkedin.pinot.common.utils.EqualityUtils;
 import com.linkedin.pinot.common.utils.helix.HelixHelper;
 import com.linkedin.pinot.routing.builder.LargeClusterRoutingTableBuilder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.I0Itec.zkclient.IZkDataListener;
 import org.apache.commons.configuration.Configuration;
 import org.apache.helix.AccessOption;
 import org.apache.helix.HelixDataAccessor;
@@ -44,17 +50,27 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.linkedin.pinot.common.config.AbstractTableConfig;
+import com.linkedin.pinot.common.config.SegmentPartitionConfig;
 import com.linkedin.pinot.common.config.TableNameBuilder;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.data.TimeFieldSpec;
+import com.linkedin.pinot.common.metadata.ZKMetadataProvider;
+import com.linkedin.pinot.common.metadata.segment.SegmentZKMetadata;
 import com.linkedin.pinot.common.metrics.BrokerMeter;
 import com.linkedin.pinot.common.metrics.BrokerMetrics;
 import com.linkedin.pinot.common.metrics.BrokerTimer;
+import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.response.ServerInstance;
 import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.common.utils.NetUtil;
+import com.linkedin.pinot.common.utils.SchemaUtils;
+import com.linkedin.pinot.common.utils.helix.PinotHelixPropertyStoreZnRecordProvider;
 import com.linkedin.pinot.routing.builder.BalancedRandomRoutingTableBuilder;
 import com.linkedin.pinot.routing.builder.KafkaHighLevelConsumerBasedRoutingTableBuilder;
 import com.linkedin.pinot.routing.builder.KafkaLowLevelConsumerRoutingTableBuilder;
 import com.linkedin.pinot.routing.builder.RoutingTableBuilder;
+import com.linkedin.pinot.transport.common.SegmentId;
 import com.linkedin.pinot.transport.common.SegmentIdSet;
 
 
@@ -93,14 +109,26 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
   private final Map<String, InstanceConfig> _lastKnownInstanceConfigs = new ConcurrentHashMap<>();
   private final Map<String, Set<String>> _tablesForInstance = new ConcurrentHashMap<>();
 
+  // Segment metadata used to prune the segments before routing the queries, only for tables with a time column
+  private final Map<String, TableRoutingMetadata> _tableRoutingMetadataMap = new ConcurrentHashMap<>();
+
+  // Segments whose ZK metadata is watched with their last known CRC (-1 if unknown), so that segments refreshed with
+  // the same name (which does not change the external view) are picked up. Guarded by itself.
+  private final Map<String, Map<String, Long>> _watchedSegmentsMap = new HashMap<>();
+  private final SegmentZKMetadataChangeListener _segmentZKMetadataChangeListener =
+      new SegmentZKMetadataChangeListener();
+
   private final Random _random = new Random(System.currentTimeMillis());
   private final HelixExternalViewBasedTimeBoundaryService _timeBoundaryService;
   private final RoutingTableSelector _routingTableSelector;
   private final HelixManager _helixManager;
+  private final ZkHelixPropertyStore<ZNRecord> _propertyStore;
   private static final int INVALID_EXTERNAL_VIEW_VERSION = Integer.MIN_VALUE;
 
   private BrokerMetrics _brokerMetrics;
 
+  private final List<RoutingTableChangeListener> _routingTableChangeListeners = new CopyOnWriteArrayList<>();
+
   /**
    * Changes the small cluster routing builder, only used by tests.
    */
@@ -123,6 +151,7 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
 
     _routingTableSelector = routingTableSelector;
     _helixManager = helixManager;
+    _propertyStore = propertyStore;
   }
 
   @Override
@@ -178,7 +207,32 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
     if (serverToSegmentSetMaps == null || serverToSegmentSetMaps.isEmpty()) {
       return Collections.emptyMap();
     }
-    return serverToSegmentSetMaps.get(_random.nextInt(serverToSegmentSetMaps.size())).getRouting();
+    Map<ServerInstance, SegmentIdSet> routing =
+        serverToSegmentSetMaps.get(_random.nextInt(serverToSegmentSetMaps.size())).getRouting();
+
+    // Prune the segments which cannot match the query, so that the servers without any segment left are not queried
+    BrokerRequest brokerRequest = request.getBrokerRequest();
+    TableRoutingMetadata tableRoutingMetadata = _tableRoutingMetadataMap.get(tableName);
+    if (brokerRequest == null || tableRoutingMetadata == null) {
+      return routing;
+    }
+    Map<ServerInstance, SegmentIdSet> prunedRouting =
+        BrokerSegmentPruner.prune(routing, brokerRequest, tableRoutingMetadata);
+    if (prunedRouting != routing && _brokerMetrics != null) {
+      _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.SEGMENTS_PRUNED_BY_BROKER,
+          getNumSegments(routing) - getNumSegments(prunedRouting));
+      _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.SERVERS_PRUNED_BY_BROKER,
+          routing.size() - prunedRouting.size());
+    }
+    return prunedRouting;
+  }
+
+  private static int getNumSegments(Map<ServerInstance, SegmentIdSet> routing) {
+    int numSegments = 0;
+    for (SegmentIdSet segmentIdSet : routing.values()) {
+      numSegments += segmentIdSet.getSegments().size();
+    }
+    return numSegments;
   }
 
   @Override
@@ -187,6 +241,42 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
         _llcBrokerRoutingTable.containsKey(tableName) && !_llcBrokerRoutingTable.get(tableName).isEmpty());
   }
 
+  @Override
+  public Map<SegmentId, List<ServerInstance>> findReplicas(String tableName, SegmentIdSet segmentIdSet) {
+    // Collect the servers each segment is routed to across all the routing tables built for the table
+    Map<SegmentId, Set<ServerInstance>> segmentToServersMap = new HashMap<>();
+    List<List<ServerToSegmentSetMap>> routingTables =
+        Arrays.asList(_brokerRoutingTable.get(tableName), _llcBrokerRoutingTable.get(tableName));
+    for (List<ServerToSegmentSetMap> serverToSegmentSetMaps : routingTables) {
+      if (serverToSegmentSetMaps == null) {
+        continue;
+      }
+      for (ServerToSegmentSetMap serverToSegmentSetMap : serverToSegmentSetMaps) {
+        for (Map.Entry<ServerInstance, SegmentIdSet> entry : serverToSegmentSetMap.getRouting().entrySet()) {
+          Set<SegmentId> routedSegments = entry.getValue().getSegments();
+          for (SegmentId segmentId : segmentIdSet.getSegments()) {
+            if (routedSegments.contains(segmentId)) {
+              Set<ServerInstance> servers = segmentToServersMap.get(segmentId);
+              if (servers == null) {
+                servers = new HashSet<>();
+                segmentToServersMap.put(segmentId, servers);
+              }
+              servers.add(entry.getKey());
+            }
+          }
+        }
+      }
+    }
+
+    Map<SegmentId, List<ServerInstance>> replicas = new HashMap<>(segmentToServersMap.size());
+    for (Map.Entry<SegmentId, Set<ServerInstance>> entry : segmentToServersMap.entrySet()) {
+      List<ServerInstance> servers = new ArrayList<>(entry.getValue());
+      Collections.sort(servers);
+      replicas.put(entry.getKey(), servers);
+    }
+    return replicas;
+  }
+
   private List<ServerToSegmentSetMap> routeToLLC(String tableName) {
     if (_brokerMetrics != null) {
       _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.LLC_QUERY_COUNT, 1);
@@ -205,6 +295,23 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
     _brokerMetrics = brokerMetrics;
   }
 
+  /**
+   * Registers a listener to be notified whenever the routing table of a table is rebuilt or removed.
+   */
+  public void addRoutingTableChangeListener(RoutingTableChangeListener routingTableChangeListener) {
+    _routingTableChangeListeners.add(routingTableChangeListener);
+  }
+
+  private void notifyRoutingTableChange(String tableName) {
+    for (RoutingTableChangeListener routingTableChangeListener : _routingTableChangeListeners) {
+      try {
+        routingTableChangeListener.onRoutingTableChange(tableName);
+      } catch (Exception e) {
+        LOGGER.error("Caught exception while notifying routing table change for table {}", tableName, e);
+      }
+    }
+  }
+
   @Override
   public void start() {
     LOGGER.info("Starting HelixExternalViewBasedRouting!");
@@ -370,6 +477,17 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
         }
       }
 
+      // Cache the segment metadata used to prune the segments before routing the queries
+      try {
+        updateSegmentZKMetadataWatches(tableName, externalView.getPartitionSet());
+        updateTableRoutingMetadata(tableName, tableType, externalView.getPartitionSet(),
+            Collections.<String>emptySet());
+      } catch (Exception e) {
+        LOGGER.error("Failed to update the segment routing metadata for table {}, segments won't be pruned", tableName,
+            e);
+        _tableRoutingMetadataMap.remove(tableName);
+      }
+
       // Save the instance configs used so that we can avoid unnecessary routing table updates later
       _lastKnownInstanceConfigsForTable.put(tableName, relevantInstanceConfigs);
       for (InstanceConfig instanceConfig : relevantInstanceConfigs.values()) {
@@ -437,6 +555,9 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
 
       if (tableForTimeBoundaryUpdate != null) {
         updateTimeBoundary(tableForTimeBoundaryUpdate, externalViewForTimeBoundaryUpdate);
+        if (!tableForTimeBoundaryUpdate.equals(tableName)) {
+          notifyRoutingTableChange(tableForTimeBoundaryUpdate);
+        }
       } else {
         LOGGER.info("No need to update time boundary for table {}", tableName);
       }
@@ -444,6 +565,8 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
       LOGGER.error("Failed to update the TimeBoundaryService", e);
     }
 
+    notifyRoutingTableChange(tableName);
+
     long updateTime = System.currentTimeMillis() - startTimeMillis;
 
     if (_brokerMetrics != null) {
@@ -453,6 +576,276 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
     LOGGER.info("Routing table update for table {} completed in {} ms", tableName, updateTime);
   }
 
+  /**
+   * Updates the segment routing metadata of a table from the segment ZK metadata. Only the metadata of the new
+   * segments, the changed segments and the segments without time range (e.g. consuming segments) are read from ZK,
+   * the other ones are reused from the previous routing metadata of the table.
+   *
+   * @param tableName Table name with type suffix
+   * @param tableType Table type
+   * @param segmentNames Segments currently routed
+   * @param changedSegmentNames Segments whose ZK metadata changed since the previous update
+   */
+  private synchronized void updateTableRoutingMetadata(String tableName, CommonConstants.Helix.TableType tableType,
+      Set<String> segmentNames, Set<String> changedSegmentNames) {
+    if (_propertyStore == null) {
+      return;
+    }
+
+    AbstractTableConfig tableConfig;
+    if (tableType == CommonConstants.Helix.TableType.REALTIME) {
+      tableConfig = ZKMetadataProvider.getRealtimeTableConfig(_propertyStore, tableName);
+    } else {
+      tableConfig = ZKMetadataProvider.getOfflineTableConfig(_propertyStore, tableName);
+    }
+    String timeColumn = null;
+    TimeUnit timeColumnUnit = null;
+    Schema schema = null;
+    if (tableConfig != null && tableConfig.getValidationConfig() != null) {
+      schema = getSchema(tableConfig);
+      timeColumn = tableConfig.getValidationConfig().getTimeColumnName();
+      if (timeColumn != null && !timeColumn.isEmpty()) {
+        timeColumnUnit = getTimeColumnUnit(schema, tableConfig, timeColumn);
+      }
+      if (timeColumnUnit == null) {
+        // The segment time ranges cannot be compared with the values of the time column without its time unit
+        timeColumn = null;
+      }
+    }
+    SegmentPartitionConfig segmentPartitionConfig = null;
+    if (tableConfig != null && tableConfig.getIndexingConfig() != null) {
+      segmentPartitionConfig = tableConfig.getIndexingConfig().getSegmentPartitionConfig();
+      if (segmentPartitionConfig != null && (segmentPartitionConfig.getColumnPartitionMap() == null
+          || segmentPartitionConfig.getColumnPartitionMap().isEmpty())) {
+        segmentPartitionConfig = null;
+      }
+    }
+    if (timeColumn == null && segmentPartitionConfig == null) {
+      _tableRoutingMetadataMap.remove(tableName);
+      return;
+    }
+    int numKafkaPartitions = -1;
+    if (segmentPartitionConfig != null && tableType == CommonConstants.Helix.TableType.REALTIME) {
+      numKafkaPartitions = getNumKafkaPartitions(tableName);
+    }
+
+    Map<String, SegmentRoutingMetadata> segmentRoutingMetadataMap = new HashMap<>();
+    TableRoutingMetadata previousTableRoutingMetadata = _tableRoutingMetadataMap.get(tableName);
+    if (previousTableRoutingMetadata != null && (previousTableRoutingMetadata.getTimeColumnUnit() != timeColumnUnit
+        || previousTableRoutingMetadata.getNumKafkaPartitions() != numKafkaPartitions)) {
+      // The cached time ranges are in the previous time unit of the time column, and the cached partitions of the LLC
+      // segments are for the previous Kafka partitions
+      previousTableRoutingMetadata = null;
+    }
+    if (previousTableRoutingMetadata == null) {
+      // Bulk reading all segment ZK metadata at once is more efficient than reading one at a time
+      List<? extends SegmentZKMetadata> segmentZKMetadataList;
+      if (tableType == CommonConstants.Helix.TableType.REALTIME) {
+        segmentZKMetadataList = ZKMetadataProvider.getRealtimeSegmentZKMetadataListForTable(_propertyStore, tableName);
+      } else {
+        segmentZKMetadataList = ZKMetadataProvider.getOfflineSegmentZKMetadataListForTable(_propertyStore, tableName);
+      }
+      for (SegmentZKMetadata segmentZKMetadata : segmentZKMetadataList) {
+        if (segmentNames.contains(segmentZKMetadata.getSegmentName())) {
+          segmentRoutingMetadataMap.put(segmentZKMetadata.getSegmentName(),
+              SegmentRoutingMetadata.fromSegmentZKMetadata(segmentZKMetadata, timeColumnUnit, segmentPartitionConfig,
+                  schema, numKafkaPartitions));
+        }
+      }
+    } else {
+      for (String segmentName : segmentNames) {
+        SegmentRoutingMetadata segmentRoutingMetadata =
+            previousTableRoutingMetadata.getSegmentRoutingMetadata(segmentName);
+        if (segmentRoutingMetadata == null || !segmentRoutingMetadata.hasTimeRange() || changedSegmentNames.contains(
+            segmentName)) {
+          SegmentZKMetadata segmentZKMetadata;
+          if (tableType == CommonConstants.Helix.TableType.REALTIME) {
+            segmentZKMetadata = ZKMetadataProvider.getRealtimeSegmentZKMetadata(_propertyStore, tableName, segmentName);
+          } else {
+            segmentZKMetadata = ZKMetadataProvider.getOfflineSegmentZKMetadata(_propertyStore, tableName, segmentName);
+          }
+          if (segmentZKMetadata == null) {
+            continue;
+          }
+          segmentRoutingMetadata = SegmentRoutingMetadata.fromSegmentZKMetadata(segmentZKMetadata, timeColumnUnit,
+              segmentPartitionConfig, schema, numKafkaPartitions);
+        }
+        segmentRoutingMetadataMap.put(segmentName, segmentRoutingMetadata);
+      }
+    }
+    _tableRoutingMetadataMap.put(tableName,
+        new TableRoutingMetadata(timeColumn, timeColumnUnit, numKafkaPartitions, segmentRoutingMetadataMap));
+  }
+
+  /**
+   * Watches the ZK metadata of the given segments of a table, and stops watching the segments no longer routed.
+   */
+  private void updateSegmentZKMetadataWatches(String tableName, Set<String> segmentNames) {
+    synchronized (_watchedSegmentsMap) {
+      Map<String, Long> watchedSegments = _watchedSegmentsMap.get(tableName);
+      if (watchedSegments == null) {
+        watchedSegments = new HashMap<>();
+        _watchedSegmentsMap.put(tableName, watchedSegments);
+      }
+      Iterator<String> iterator = watchedSegments.keySet().iterator();
+      while (iterator.hasNext()) {
+        String segmentName = iterator.next();
+        if (!segmentNames.contains(segmentName)) {
+          unsubscribeSegmentZKMetadata(tableName, segmentName);
+          iterator.remove();
+        }
+      }
+      for (String segmentName : segmentNames) {
+        if (!watchedSegments.containsKey(segmentName)) {
+          watchedSegments.put(segmentName, -1L);
+          if (_propertyStore != null) {
+            _propertyStore.subscribeDataChanges(
+                ZKMetadataProvider.constructPropertyStorePathForSegment(tableName, segmentName),
+                _segmentZKMetadataChangeListener);
+          }
+        }
+      }
+    }
+  }
+
+  private void removeSegmentZKMetadataWatches(String tableName) {
+    synchronized (_watchedSegmentsMap) {
+      Map<String, Long> watchedSegments = _watchedSegmentsMap.remove(tableName);
+      if (watchedSegments != null) {
+        for (String segmentName : watchedSegments.keySet()) {
+          unsubscribeSegmentZKMetadata(tableName, segmentName);
+        }
+      }
+    }
+  }
+
+  private void unsubscribeSegmentZKMetadata(String tableName, String segmentName) {
+    if (_propertyStore != null) {
+      _propertyStore.unsubscribeDataChanges(
+          ZKMetadataProvider.constructPropertyStorePathForSegment(tableName, segmentName),
+          _segmentZKMetadataChangeListener);
+    }
+  }
+
+  /**
+   * Handles the ZK metadata change of a watched segment, e.g. a segment refreshed with the same name which has new
+   * data, a new time range or new partitions without any external view change.
+   * <p>The routing metadata of the segment is re-read, and the routing table change listeners (e.g. the broker result
+   * cache) are notified when the CRC of the segment changed.
+   *
+   * @param tableName Table name with type suffix
+   * @param segmentName Segment name
+   * @param crc New CRC of the segment, or -1 if unknown
+   */
+  void processSegmentZKMetadataChange(String tableName, String segmentName, long crc) {
+    boolean crcChanged;
+    synchronized (_watchedSegmentsMap) {
+      Map<String, Long> watchedSegments = _watchedSegmentsMap.get(tableName);
+      if (watchedSegments == null || !watchedSegments.containsKey(segmentName)) {
+        return;
+      }
+      Long previousCrc = watchedSegments.put(segmentName, crc);
+      crcChanged = crc == -1 || previousCrc != crc;
+    }
+
+    TableRoutingMetadata tableRoutingMetadata = _tableRoutingMetadataMap.get(tableName);
+    if (tableRoutingMetadata != null && tableRoutingMetadata.getSegmentRoutingMetadata(segmentName) != null) {
+      LOGGER.info("Updating the routing metadata of segment {} of table {} after ZK metadata change", segmentName,
+          tableName);
+      try {
+        updateTableRoutingMetadata(tableName, TableNameBuilder.getTableTypeFromTableName(tableName),
+            tableRoutingMetadata.getSegmentRoutingMetadataMap().keySet(), Collections.singleton(segmentName));
+      } catch (Exception e) {
+        LOGGER.error("Failed to update the segment routing metadata for table {}, segments won't be pruned",
+            tableName, e);
+        _tableRoutingMetadataMap.remove(tableName);
+      }
+    }
+
+    if (crcChanged) {
+      LOGGER.info("CRC of segment {} of table {} changed to {}", segmentName, tableName, crc);
+      notifyRoutingTableChange(tableName);
+    }
+  }
+
+  /**
+   * Listener of the segment ZK metadata, the path of which ends with the table name and the segment name.
+   */
+  private class SegmentZKMetadataChangeListener implements IZkDataListener {
+    @Override
+    public void handleDataChange(String dataPath, Object data) {
+      List<String> zkPathParts = Splitter.on('/').splitToList(dataPath);
+      int numParts = zkPathParts.size();
+      if (numParts >= 2) {
+        long crc = -1;
+        if (data instanceof ZNRecord) {
+          crc = ((ZNRecord) data).getLongField(CommonConstants.Segment.CRC, -1);
+        }
+        processSegmentZKMetadataChange(zkPathParts.get(numParts - 2), zkPathParts.get(numParts - 1), crc);
+      }
+    }
+
+    @Override
+    public void handleDataDeleted(String dataPath) {
+      // Deleted segments are removed from the routing when they are dropped from the external view
+    }
+  }
+
+  /**
+   * Returns the number of partitions of the Kafka topic consumed by the LLC segments of the realtime table, or -1 if
+   * the table has no Kafka partition assignment.
+   */
+  private int getNumKafkaPartitions(String realtimeTableName) {
+    ZNRecord partitionAssignment =
+        _propertyStore.get(ZKMetadataProvider.constructPropertyStorePathForKafkaPartitions(realtimeTableName), null,
+            AccessOption.PERSISTENT);
+    if (partitionAssignment == null) {
+      return -1;
+    }
+    return partitionAssignment.getListFields().size();
+  }
+
+  /**
+   * Returns the schema of the table, or null if it cannot be read.
+   */
+  @Nullable
+  private Schema getSchema(AbstractTableConfig tableConfig) {
+    String schemaName = tableConfig.getValidationConfig().getSchemaName();
+    if (schemaName == null || schemaName.isEmpty()) {
+      schemaName = TableNameBuilder.extractRawTableName(tableConfig.getTableName());
+    }
+    ZNRecord schemaRecord = PinotHelixPropertyStoreZnRecordProvider.forSchema(_propertyStore).get(schemaName);
+    if (schemaRecord == null) {
+      LOGGER.warn("Failed to find schema {} for table {}", schemaName, tableConfig.getTableName());
+      return null;
+    }
+    try {
+      return SchemaUtils.fromZNRecord(schemaRecord);
+    } catch (Exception e) {
+      LOGGER.warn("Failed to read schema {} for table {}", schemaName, tableConfig.getTableName(), e);
+      return null;
+    }
+  }
+
+  /**
+   * Returns the time unit of the time column from the schema of the table, or null if the schema cannot be read or
+   * does not match the time column of the table config.
+   */
+  @Nullable
+  private TimeUnit getTimeColumnUnit(@Nullable Schema schema, AbstractTableConfig tableConfig, String timeColumn) {
+    if (schema == null) {
+      LOGGER.warn("No schema for table {}, segments won't be pruned on time", tableConfig.getTableName());
+      return null;
+    }
+    TimeFieldSpec timeFieldSpec = schema.getTimeFieldSpec();
+    if (timeFieldSpec == null || !timeColumn.equals(timeFieldSpec.getOutgoingTimeColumnName())) {
+      LOGGER.warn("Time column {} of table {} does not match schema {}, segments won't be pruned on time", timeColumn,
+          tableConfig.getTableName(), schema.getSchemaName());
+      return null;
+    }
+    return timeFieldSpec.getOutgoingGranularitySpec().getTimeType();
+  }
+
   private boolean isLargeCluster(ExternalView externalView) {
     // Check if the number of replicas is sufficient to treat it as a large cluster
     final String helixReplicaCount = externalView.getRecord().getSimpleField("REPLICAS");
@@ -516,6 +909,9 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
     _lastKnownExternalViewVersionMap.remove(tableName);
     _lastKnownInstanceConfigsForTable.remove(tableName);
     _timeBoundaryService.remove(tableName);
+    _tableRoutingMetadataMap.remove(tableName);
+    removeSegmentZKMetadataWatches(tableName);
+    notifyRoutingTableChange(tableName);
 
     // Remove table from all instances
     synchronized (_tablesForInstance) {
@@ -15,9 +15,11 @@
  */
 package com.linkedin.pinot.routing;
 
+import java.util.List;
 import java.util.Map;
 
 import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.transport.common.SegmentId;
 import com.linkedin.pinot.transport.common.SegmentIdSet;
 
 
@@ -31,6 +33,16 @@ public interface RoutingTable {
    */
   Map<ServerInstance, SegmentIdSet> findServers(RoutingTableLookupRequest request);
 
+  /**
+   * Return the servers the routing table can route each of the given segments to, used to pick another replica when
+   * the server a segment got routed to is slow to respond. Segments without any known server are not in the map.
+   *
+   * @param tableName The table name of the segments
+   * @param segmentIdSet The segments to find the servers for
+   * @return Segment to servers map, with the servers of each segment sorted.
+   */
+  Map<SegmentId, List<ServerInstance>> findReplicas(String tableName, SegmentIdSet segmentIdSet);
+
   /**
    * Returns whether or not a routing table exists and is not empty for a given table.
    *
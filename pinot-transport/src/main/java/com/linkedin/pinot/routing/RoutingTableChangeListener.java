@@ -0,0 +1,29 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.routing;
+
+/**
+ * Listener notified when the routing of a table changes, e.g. segments added, removed or moved between servers,
+ * segments refreshed with the same name (new CRC in the segment ZK metadata), or the table removed from the broker.
+ */
+public interface RoutingTableChangeListener {
+  /**
+   * Invoked after the routing table (and time boundary) of the given table has been updated or removed.
+   *
+   * @param tableName table name with type suffix (e.g. myTable_OFFLINE)
+   */
+  void onRoutingTableChange(String tableName);
+}
@@ -15,7 +15,9 @@
  */
 package com.linkedin.pinot.routing;
 
+import com.linkedin.pinot.common.request.BrokerRequest;
 import java.util.List;
+import javax.annotation.Nullable;
 
 
 /**
@@ -29,6 +31,8 @@ public class RoutingTableLookupRequest {
 
   private final List<String> routingOptions;
 
+  private final BrokerRequest brokerRequest;
+
   public String getTableName() {
     return tableName;
   }
@@ -37,9 +41,24 @@ public class RoutingTableLookupRequest {
     return routingOptions;
   }
 
+  /**
+   * Returns the broker request to route, used to prune the segments which cannot match the query, or null if the
+   * segments should not be pruned.
+   */
+  @Nullable
+  public BrokerRequest getBrokerRequest() {
+    return brokerRequest;
+  }
+
   public RoutingTableLookupRequest(String tableName, List<String> routingOptions) {
+    this(tableName, routingOptions, null);
+  }
+
+  public RoutingTableLookupRequest(String tableName, List<String> routingOptions,
+      @Nullable BrokerRequest brokerRequest) {
     super();
     this.tableName = tableName;
     this.routingOptions = routingOptions;
+    this.brokerRequest = brokerRequest;
   }
 }
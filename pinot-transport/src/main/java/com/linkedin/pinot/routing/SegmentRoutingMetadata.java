@@ -0,0 +1,238 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.routing;
+
+import com.linkedin.pinot.common.config.ColumnPartitionConfig;
+import com.linkedin.pinot.common.config.SegmentPartitionConfig;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.metadata.segment.ColumnPartitionMetadata;
+import com.linkedin.pinot.common.metadata.segment.SegmentPartitionMetadata;
+import com.linkedin.pinot.common.metadata.segment.SegmentZKMetadata;
+import com.linkedin.pinot.common.partition.MurmurPartitionFunction;
+import com.linkedin.pinot.common.partition.PartitionFunction;
+import com.linkedin.pinot.common.partition.PartitionFunctionFactory;
+import com.linkedin.pinot.common.utils.LLCSegmentName;
+import com.linkedin.pinot.common.utils.SegmentName;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Metadata of a segment cached by the broker to prune the segment before routing a query to the servers, read from
+ * the segment ZK metadata.
+ * <p>The start and end time are the raw values of the time column. The segment ZK metadata records them in its own
+ * time unit (e.g. milliseconds for committed LLC segments), so they are converted into the time unit of the time
+ * column when the routing metadata is built, and left unknown when the time units cannot be reconciled.
+ * <p>The partitions of the partitioned columns are read from the segment ZK metadata, or for LLC segments which do
+ * not record them, derived from the Kafka partition of the segment. The Kafka partition is only used when the column
+ * is partitioned the same way as the Kafka topic, i.e. with the murmur function of the default Kafka partitioner and
+ * as many partitions as the topic.
+ */
+public class SegmentRoutingMetadata {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentRoutingMetadata.class);
+
+  private final long _startTime;
+  private final long _endTime;
+  private final Map<String, ColumnPartitions> _columnPartitionsMap;
+
+  public SegmentRoutingMetadata(long startTime, long endTime) {
+    this(startTime, endTime, Collections.<String, ColumnPartitions>emptyMap());
+  }
+
+  public SegmentRoutingMetadata(long startTime, long endTime, Map<String, ColumnPartitions> columnPartitionsMap) {
+    _startTime = startTime;
+    _endTime = endTime;
+    _columnPartitionsMap = columnPartitionsMap;
+  }
+
+  public static SegmentRoutingMetadata fromSegmentZKMetadata(SegmentZKMetadata segmentZKMetadata) {
+    return fromSegmentZKMetadata(segmentZKMetadata, null, null, null, -1);
+  }
+
+  public static SegmentRoutingMetadata fromSegmentZKMetadata(SegmentZKMetadata segmentZKMetadata,
+      @Nullable TimeUnit timeColumnUnit, @Nullable SegmentPartitionConfig segmentPartitionConfig) {
+    return fromSegmentZKMetadata(segmentZKMetadata, timeColumnUnit, segmentPartitionConfig, null, -1);
+  }
+
+  /**
+   * Builds the routing metadata of a segment.
+   *
+   * @param segmentZKMetadata Segment ZK metadata
+   * @param timeColumnUnit Time unit of the time column, or null if the table has no usable time column
+   * @param segmentPartitionConfig Partition config of the table, or null if the table is not partitioned
+   * @param schema Schema of the table giving the data types of the partitioned columns, or null if unknown
+   * @param numKafkaPartitions Number of partitions of the Kafka topic of the table, or -1 if unknown
+   * @return Segment routing metadata
+   */
+  public static SegmentRoutingMetadata fromSegmentZKMetadata(SegmentZKMetadata segmentZKMetadata,
+      @Nullable TimeUnit timeColumnUnit, @Nullable SegmentPartitionConfig segmentPartitionConfig,
+      @Nullable Schema schema, int numKafkaPartitions) {
+    Map<String, ColumnPartitions> columnPartitionsMap = new HashMap<>();
+    SegmentPartitionMetadata segmentPartitionMetadata = segmentZKMetadata.getPartitionMetadata();
+    if (segmentPartitionMetadata != null) {
+      for (Map.Entry<String, ColumnPartitionMetadata> entry : segmentPartitionMetadata.getColumnPartitionMap()
+          .entrySet()) {
+        ColumnPartitionMetadata columnPartitionMetadata = entry.getValue();
+        PartitionFunction partitionFunction = getPartitionFunction(columnPartitionMetadata.getFunctionName(),
+            columnPartitionMetadata.getNumPartitions(), getDataType(schema, entry.getKey()));
+        if (partitionFunction != null) {
+          columnPartitionsMap.put(entry.getKey(),
+              new ColumnPartitions(partitionFunction, columnPartitionMetadata.getPartitions()));
+        }
+      }
+    }
+
+    // LLC segments only contain the messages of one Kafka partition
+    String segmentName = segmentZKMetadata.getSegmentName();
+    if (segmentPartitionConfig != null && numKafkaPartitions > 0 && segmentName != null
+        && SegmentName.isLowLevelConsumerSegmentName(segmentName)) {
+      Set<Integer> kafkaPartition = Collections.singleton(new LLCSegmentName(segmentName).getPartitionId());
+      for (Map.Entry<String, ColumnPartitionConfig> entry : segmentPartitionConfig.getColumnPartitionMap()
+          .entrySet()) {
+        ColumnPartitionConfig columnPartitionConfig = entry.getValue();
+        if (!columnPartitionsMap.containsKey(entry.getKey()) && isKafkaPartitioning(columnPartitionConfig,
+            numKafkaPartitions)) {
+          PartitionFunction partitionFunction = getPartitionFunction(columnPartitionConfig.getFunctionName(),
+              columnPartitionConfig.getNumPartitions(), getDataType(schema, entry.getKey()));
+          if (partitionFunction != null) {
+            columnPartitionsMap.put(entry.getKey(), new ColumnPartitions(partitionFunction, kafkaPartition));
+          }
+        }
+      }
+    }
+
+    long startTime = -1;
+    long endTime = -1;
+    TimeUnit segmentTimeUnit = segmentZKMetadata.getTimeUnit();
+    if (timeColumnUnit != null && segmentTimeUnit != null) {
+      startTime = convertStartTime(segmentZKMetadata.getStartTime(), segmentTimeUnit, timeColumnUnit);
+      endTime = convertEndTime(segmentZKMetadata.getEndTime(), segmentTimeUnit, timeColumnUnit);
+    }
+    return new SegmentRoutingMetadata(startTime, endTime, columnPartitionsMap);
+  }
+
+  /**
+   * Converts the start time of a segment into the time unit of the time column, keeping -1 for unknown time.
+   * <p>The segment ZK metadata records the raw values of the time column scaled by its time unit only (the time unit
+   * size is not applied when the segment metadata is created), so converting back into the time unit of the time
+   * column gives the raw values without applying the time unit size.
+   */
+  static long convertStartTime(long startTime, TimeUnit segmentTimeUnit, TimeUnit timeColumnUnit) {
+    if (startTime < 0) {
+      return -1;
+    }
+    return timeColumnUnit.convert(startTime, segmentTimeUnit);
+  }
+
+  /**
+   * Converts the end time of a segment into the time unit of the time column, keeping -1 for unknown time.
+   * <p>When the segment time unit is coarser than the one of the time column, the end time covers the whole segment
+   * time unit, e.g. end day 10 converts to hour 263.
+   */
+  static long convertEndTime(long endTime, TimeUnit segmentTimeUnit, TimeUnit timeColumnUnit) {
+    if (endTime < 0) {
+      return -1;
+    }
+    if (segmentTimeUnit.compareTo(timeColumnUnit) > 0) {
+      return timeColumnUnit.convert(endTime + 1, segmentTimeUnit) - 1;
+    }
+    return timeColumnUnit.convert(endTime, segmentTimeUnit);
+  }
+
+  /**
+   * Returns whether the column partitions are the Kafka partitions, i.e. whether the column is partitioned with the
+   * murmur function of the default Kafka partitioner into as many partitions as the Kafka topic.
+   */
+  private static boolean isKafkaPartitioning(ColumnPartitionConfig columnPartitionConfig, int numKafkaPartitions) {
+    if (MurmurPartitionFunction.NAME.equalsIgnoreCase(columnPartitionConfig.getFunctionName())
+        && columnPartitionConfig.getNumPartitions() == numKafkaPartitions) {
+      return true;
+    }
+    LOGGER.debug("Partition function: {} with {} partitions does not match the {} Kafka partitions",
+        columnPartitionConfig.getFunctionName(), columnPartitionConfig.getNumPartitions(), numKafkaPartitions);
+    return false;
+  }
+
+  @Nullable
+  private static FieldSpec.DataType getDataType(@Nullable Schema schema, String column) {
+    if (schema == null) {
+      return null;
+    }
+    FieldSpec fieldSpec = schema.getFieldSpecFor(column);
+    return fieldSpec != null ? fieldSpec.getDataType() : null;
+  }
+
+  @Nullable
+  private static PartitionFunction getPartitionFunction(String functionName, int numPartitions,
+      @Nullable FieldSpec.DataType dataType) {
+    try {
+      return PartitionFunctionFactory.getPartitionFunction(functionName, numPartitions, dataType);
+    } catch (IllegalArgumentException e) {
+      LOGGER.warn("Ignoring invalid partition function: {} with {} partitions", functionName, numPartitions, e);
+      return null;
+    }
+  }
+
+  public long getStartTime() {
+    return _startTime;
+  }
+
+  public long getEndTime() {
+    return _endTime;
+  }
+
+  /**
+   * Returns whether the time range of the segment is known, which is not the case for consuming segments.
+   */
+  public boolean hasTimeRange() {
+    return _startTime >= 0 && _endTime >= 0 && _startTime <= _endTime;
+  }
+
+  /**
+   * Returns the partitions of the given column contained in the segment, or null if they are unknown.
+   */
+  @Nullable
+  public ColumnPartitions getColumnPartitions(String column) {
+    return _columnPartitionsMap.get(column);
+  }
+
+  /**
+   * Partitions of a column contained in a segment, with the partition function used to compute them.
+   */
+  public static class ColumnPartitions {
+    private final PartitionFunction _partitionFunction;
+    private final Set<Integer> _partitions;
+
+    public ColumnPartitions(PartitionFunction partitionFunction, Set<Integer> partitions) {
+      _partitionFunction = partitionFunction;
+      _partitions = partitions;
+    }
+
+    /**
+     * Returns whether the segment may contain the given value, i.e. whether it contains the partition of the value.
+     */
+    public boolean mightContain(String value) {
+      return _partitions.contains(_partitionFunction.getPartition(value));
+    }
+  }
+}
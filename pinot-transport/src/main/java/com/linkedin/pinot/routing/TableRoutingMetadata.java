@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.routing;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+
+/**
+ * Immutable snapshot of the segment routing metadata of a table, rebuilt whenever the routing table of the table is
+ * rebuilt.
+ */
+public class TableRoutingMetadata {
+  private final String _timeColumn;
+  private final TimeUnit _timeColumnUnit;
+  private final int _numKafkaPartitions;
+  private final Map<String, SegmentRoutingMetadata> _segmentRoutingMetadataMap;
+
+  public TableRoutingMetadata(@Nullable String timeColumn, @Nullable TimeUnit timeColumnUnit,
+      Map<String, SegmentRoutingMetadata> segmentRoutingMetadataMap) {
+    this(timeColumn, timeColumnUnit, -1, segmentRoutingMetadataMap);
+  }
+
+  public TableRoutingMetadata(@Nullable String timeColumn, @Nullable TimeUnit timeColumnUnit, int numKafkaPartitions,
+      Map<String, SegmentRoutingMetadata> segmentRoutingMetadataMap) {
+    _timeColumn = timeColumn;
+    _timeColumnUnit = timeColumnUnit;
+    _numKafkaPartitions = numKafkaPartitions;
+    _segmentRoutingMetadataMap = Collections.unmodifiableMap(segmentRoutingMetadataMap);
+  }
+
+  /**
+   * Returns the time column of the table, or null if the table has no time column.
+   */
+  @Nullable
+  public String getTimeColumn() {
+    return _timeColumn;
+  }
+
+  /**
+   * Returns the time unit of the time column the segment time ranges are converted into, or null if the table has no
+   * time column.
+   */
+  @Nullable
+  public TimeUnit getTimeColumnUnit() {
+    return _timeColumnUnit;
+  }
+
+  /**
+   * Returns the number of Kafka partitions the partitions of the LLC segments are derived from, or -1 if unknown.
+   */
+  public int getNumKafkaPartitions() {
+    return _numKafkaPartitions;
+  }
+
+  /**
+   * Returns the routing metadata of a segment, or null if it is unknown.
+   */
+  @Nullable
+  public SegmentRoutingMetadata getSegmentRoutingMetadata(String segmentName) {
+    return _segmentRoutingMetadataMap.get(segmentName);
+  }
+
+  public Map<String, SegmentRoutingMetadata> getSegmentRoutingMetadataMap() {
+    return _segmentRoutingMetadataMap;
+  }
+}
@@ -56,6 +56,13 @@ public class CompositeFuture<K, V> extends AbstractCompositeListenableFuture<K,
     AND,
   };
 
+  /**
+   * Listener notified of each underlying future's response as soon as it completes successfully.
+   */
+  public interface ResponseListener<K, V> {
+    void onResponse(K key, V response);
+  }
+
   private final Collection<KeyedFuture<K, V>> _futures;
 
   // Composite Response
@@ -71,6 +78,9 @@ public class CompositeFuture<K, V> extends AbstractCompositeListenableFuture<K,
   // Descriptive name of the future
   private final String _name;
 
+  // Listener to hand the responses to instead of keeping them in the composite response, guarded by this
+  private ResponseListener<K, V> _responseListener;
+
   public CompositeFuture(String name, GatherModeOnError mode) {
     _name = name;
     _futures = new ArrayList<KeyedFuture<K, V>>();
@@ -182,13 +192,39 @@ public class CompositeFuture<K, V> extends AbstractCompositeListenableFuture<K,
   public Map<String, Long> getResponseTimes() {
     return Collections.unmodifiableMap(_responseTimeMap);
   }
+
+  /**
+   * Hand the responses of the underlying futures to the listener as soon as each of them completes, instead of keeping
+   * them in the map returned by {@link #get()}. Responses received before the listener is set are handed to it right
+   * away.
+   * <p>Together with {@link #addListener(Runnable, java.util.concurrent.Executor)} to be notified of the completion,
+   * this allows processing the responses while the other underlying futures are still pending.
+   */
+  public void setResponseListener(ResponseListener<K, V> responseListener) {
+    synchronized (this) {
+      _responseListener = responseListener;
+      for (Map.Entry<K, V> entry : _delayedResponseMap.entrySet()) {
+        responseListener.onResponse(entry.getKey(), entry.getValue());
+      }
+      _delayedResponseMap.clear();
+    }
+  }
+
   @Override
   protected boolean processFutureResult(String name, Map<K, V> response, Map<K, Throwable> error, long durationMillis) {
     // Get the response time and create another map that can be invoked to get the end time when responses were received for each server.
     boolean ret = false;
     if (null != response) {
       LOGGER.debug("Response from {} is {}", name, response);
-      _delayedResponseMap.putAll(response);
+      synchronized (this) {
+        if (_responseListener != null) {
+          for (Map.Entry<K, V> entry : response.entrySet()) {
+            _responseListener.onResponse(entry.getKey(), entry.getValue());
+          }
+        } else {
+          _delayedResponseMap.putAll(response);
+        }
+      }
     } else if (null != error) {
       LOGGER.debug("Error from {} is : {}", name, error);
       _errorMap.putAll(error);
@@ -0,0 +1,222 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.routing;
+
+import com.linkedin.pinot.common.config.ColumnPartitionConfig;
+import com.linkedin.pinot.common.config.SegmentPartitionConfig;
+import com.linkedin.pinot.common.metadata.segment.ColumnPartitionMetadata;
+import com.linkedin.pinot.common.metadata.segment.LLCRealtimeSegmentZKMetadata;
+import com.linkedin.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
+import com.linkedin.pinot.common.metadata.segment.SegmentPartitionMetadata;
+import com.linkedin.pinot.common.partition.ModuloPartitionFunction;
+import com.linkedin.pinot.common.partition.MurmurPartitionFunction;
+import com.linkedin.pinot.common.partition.PartitionFunction;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.common.utils.LLCSegmentName;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import com.linkedin.pinot.transport.common.SegmentId;
+import com.linkedin.pinot.transport.common.SegmentIdSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class BrokerSegmentPrunerTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final String QUERY = "SELECT COUNT(*) FROM myTable WHERE ";
+  private static final ServerInstance SERVER_1 = new ServerInstance("localhost", 1234);
+  private static final ServerInstance SERVER_2 = new ServerInstance("localhost", 1235);
+
+  // Segment 0 covers days [100, 109], segment 1 days [110, 119], segment 2 has no time range (consuming segment)
+  private final TableRoutingMetadata _tableRoutingMetadata;
+  private final Map<ServerInstance, SegmentIdSet> _routing = new HashMap<>();
+
+  public BrokerSegmentPrunerTest() {
+    Map<String, SegmentRoutingMetadata> segmentRoutingMetadataMap = new HashMap<>();
+    segmentRoutingMetadataMap.put("segment0", new SegmentRoutingMetadata(100, 109));
+    segmentRoutingMetadataMap.put("segment1", new SegmentRoutingMetadata(110, 119));
+    segmentRoutingMetadataMap.put("segment2", new SegmentRoutingMetadata(-1, -1));
+    _tableRoutingMetadata = new TableRoutingMetadata("daysSinceEpoch", TimeUnit.DAYS, segmentRoutingMetadataMap);
+
+    SegmentIdSet segmentIdSet1 = new SegmentIdSet();
+    segmentIdSet1.addSegment(new SegmentId("segment0"));
+    _routing.put(SERVER_1, segmentIdSet1);
+    SegmentIdSet segmentIdSet2 = new SegmentIdSet();
+    segmentIdSet2.addSegment(new SegmentId("segment1"));
+    segmentIdSet2.addSegment(new SegmentId("segment2"));
+    segmentIdSet2.addSegment(new SegmentId("segmentWithoutMetadata"));
+    _routing.put(SERVER_2, segmentIdSet2);
+  }
+
+  @Test
+  public void testPruneServer() {
+    // Query for segment 0 only does not need to go to server 2 other than for segments without time range
+    Map<ServerInstance, SegmentIdSet> prunedRouting = prune("daysSinceEpoch = 105");
+    Assert.assertEquals(prunedRouting.size(), 2);
+    Assert.assertEquals(prunedRouting.get(SERVER_2).getSegments().size(), 2);
+    Assert.assertFalse(prunedRouting.get(SERVER_2).getSegments().contains(new SegmentId("segment1")));
+
+    // Query for segment 1 does not go to server 1
+    prunedRouting = prune("daysSinceEpoch BETWEEN 110 AND 115");
+    Assert.assertEquals(prunedRouting.size(), 1);
+    Assert.assertEquals(prunedRouting.get(SERVER_2).getSegments().size(), 3);
+
+    // Not pruned
+    Assert.assertSame(prune("daysSinceEpoch >= 109"), _routing);
+    Assert.assertSame(prune("column = 1"), _routing);
+  }
+
+  @Test
+  public void testPruneSegment() {
+    SegmentRoutingMetadata segmentRoutingMetadata = _tableRoutingMetadata.getSegmentRoutingMetadata("segment0");
+    Assert.assertFalse(pruneSegment("daysSinceEpoch = 100", segmentRoutingMetadata));
+    Assert.assertTrue(pruneSegment("daysSinceEpoch = 110", segmentRoutingMetadata));
+    Assert.assertTrue(pruneSegment("daysSinceEpoch IN (1, 2)", segmentRoutingMetadata));
+    Assert.assertFalse(pruneSegment("daysSinceEpoch IN (1, 109)", segmentRoutingMetadata));
+    Assert.assertTrue(pruneSegment("daysSinceEpoch > 109", segmentRoutingMetadata));
+    Assert.assertFalse(pruneSegment("daysSinceEpoch >= 109", segmentRoutingMetadata));
+    Assert.assertTrue(pruneSegment("daysSinceEpoch < 100", segmentRoutingMetadata));
+    Assert.assertFalse(pruneSegment("daysSinceEpoch < 100.5", segmentRoutingMetadata));
+    Assert.assertTrue(pruneSegment("daysSinceEpoch = 1 AND column = 1", segmentRoutingMetadata));
+    Assert.assertFalse(pruneSegment("daysSinceEpoch = 1 OR column = 1", segmentRoutingMetadata));
+    Assert.assertTrue(pruneSegment("daysSinceEpoch = 1 OR daysSinceEpoch > 200", segmentRoutingMetadata));
+    Assert.assertFalse(pruneSegment("daysSinceEpoch <> 1", segmentRoutingMetadata));
+    Assert.assertFalse(pruneSegment("daysSinceEpoch = 'foo'", segmentRoutingMetadata));
+
+    // Segment without time range is never pruned
+    segmentRoutingMetadata = _tableRoutingMetadata.getSegmentRoutingMetadata("segment2");
+    Assert.assertFalse(pruneSegment("daysSinceEpoch = 1", segmentRoutingMetadata));
+  }
+
+  @Test
+  public void testKeepOneSegment() {
+    Map<String, SegmentRoutingMetadata> segmentRoutingMetadataMap = new HashMap<>();
+    segmentRoutingMetadataMap.put("segment0", new SegmentRoutingMetadata(100, 109));
+    TableRoutingMetadata tableRoutingMetadata =
+        new TableRoutingMetadata("daysSinceEpoch", TimeUnit.DAYS, segmentRoutingMetadataMap);
+    Map<ServerInstance, SegmentIdSet> routing = new HashMap<>();
+    routing.put(SERVER_1, _routing.get(SERVER_1));
+
+    Map<ServerInstance, SegmentIdSet> prunedRouting =
+        BrokerSegmentPruner.prune(routing, COMPILER.compileToBrokerRequest(QUERY + "daysSinceEpoch = 1"),
+            tableRoutingMetadata);
+    Assert.assertEquals(prunedRouting, routing);
+  }
+
+  @Test
+  public void testSegmentTimeUnit() {
+    // Committed LLC segment with the time range recorded in milliseconds, covering days [100, 109]
+    LLCRealtimeSegmentZKMetadata llcSegmentZKMetadata = new LLCRealtimeSegmentZKMetadata();
+    llcSegmentZKMetadata.setSegmentName(new LLCSegmentName("myTable", 0, 0, 0L).getSegmentName());
+    llcSegmentZKMetadata.setStartTime(TimeUnit.DAYS.toMillis(100));
+    llcSegmentZKMetadata.setEndTime(TimeUnit.DAYS.toMillis(109));
+    llcSegmentZKMetadata.setTimeUnit(TimeUnit.MILLISECONDS);
+    SegmentRoutingMetadata segmentRoutingMetadata =
+        SegmentRoutingMetadata.fromSegmentZKMetadata(llcSegmentZKMetadata, TimeUnit.DAYS, null);
+    Assert.assertEquals(segmentRoutingMetadata.getStartTime(), 100);
+    Assert.assertEquals(segmentRoutingMetadata.getEndTime(), 109);
+    Assert.assertFalse(pruneSegment("daysSinceEpoch = 100", segmentRoutingMetadata));
+    Assert.assertFalse(pruneSegment("daysSinceEpoch = 109", segmentRoutingMetadata));
+    Assert.assertTrue(pruneSegment("daysSinceEpoch = 110", segmentRoutingMetadata));
+    Assert.assertTrue(pruneSegment("daysSinceEpoch < 100", segmentRoutingMetadata));
+
+    // Segment time unit coarser than the time column, the end time covers the whole last day
+    OfflineSegmentZKMetadata offlineSegmentZKMetadata = new OfflineSegmentZKMetadata();
+    offlineSegmentZKMetadata.setStartTime(100);
+    offlineSegmentZKMetadata.setEndTime(109);
+    offlineSegmentZKMetadata.setTimeUnit(TimeUnit.DAYS);
+    segmentRoutingMetadata =
+        SegmentRoutingMetadata.fromSegmentZKMetadata(offlineSegmentZKMetadata, TimeUnit.HOURS, null);
+    Assert.assertEquals(segmentRoutingMetadata.getStartTime(), 2400);
+    Assert.assertEquals(segmentRoutingMetadata.getEndTime(), 2639);
+
+    // Time ranges without time unit cannot be reconciled with the time column and are never pruned
+    llcSegmentZKMetadata.setTimeUnit(null);
+    segmentRoutingMetadata = SegmentRoutingMetadata.fromSegmentZKMetadata(llcSegmentZKMetadata, TimeUnit.DAYS, null);
+    Assert.assertFalse(segmentRoutingMetadata.hasTimeRange());
+    Assert.assertFalse(pruneSegment("daysSinceEpoch = 1", segmentRoutingMetadata));
+    segmentRoutingMetadata = SegmentRoutingMetadata.fromSegmentZKMetadata(offlineSegmentZKMetadata, null, null);
+    Assert.assertFalse(segmentRoutingMetadata.hasTimeRange());
+  }
+
+  @Test
+  public void testPrunePartition() {
+    SegmentPartitionConfig segmentPartitionConfig = new SegmentPartitionConfig(
+        Collections.singletonMap("memberId", new ColumnPartitionConfig(ModuloPartitionFunction.NAME, 4)));
+
+    // Offline segment with partitions 1 and 2 recorded in the ZK metadata
+    OfflineSegmentZKMetadata offlineSegmentZKMetadata = new OfflineSegmentZKMetadata();
+    offlineSegmentZKMetadata.setSegmentName("offlineSegment");
+    offlineSegmentZKMetadata.setPartitionMetadata(new SegmentPartitionMetadata(Collections.singletonMap("memberId",
+        new ColumnPartitionMetadata(ModuloPartitionFunction.NAME, 4, new HashSet<>(Arrays.asList(1, 2))))));
+    SegmentRoutingMetadata segmentRoutingMetadata =
+        SegmentRoutingMetadata.fromSegmentZKMetadata(offlineSegmentZKMetadata, null, segmentPartitionConfig);
+    Assert.assertFalse(pruneSegment("memberId = 5", segmentRoutingMetadata));
+    Assert.assertFalse(pruneSegment("memberId = 6", segmentRoutingMetadata));
+    Assert.assertTrue(pruneSegment("memberId = 7", segmentRoutingMetadata));
+    Assert.assertTrue(pruneSegment("memberId IN (3, 4, 8)", segmentRoutingMetadata));
+    Assert.assertFalse(pruneSegment("memberId IN (3, 4, 9)", segmentRoutingMetadata));
+    Assert.assertTrue(pruneSegment("memberId = 4 AND column = 1", segmentRoutingMetadata));
+    Assert.assertFalse(pruneSegment("memberId = 4 OR column = 1", segmentRoutingMetadata));
+    Assert.assertFalse(pruneSegment("memberId > 4", segmentRoutingMetadata));
+    Assert.assertFalse(pruneSegment("memberId = 'foo'", segmentRoutingMetadata));
+    Assert.assertFalse(pruneSegment("column = 4", segmentRoutingMetadata));
+
+    // LLC segment of Kafka partition 3 without partition metadata, from a topic with 4 partitions
+    LLCRealtimeSegmentZKMetadata llcSegmentZKMetadata = new LLCRealtimeSegmentZKMetadata();
+    llcSegmentZKMetadata.setSegmentName(new LLCSegmentName("myTable", 3, 0, 0L).getSegmentName());
+    SegmentPartitionConfig kafkaPartitionConfig = new SegmentPartitionConfig(
+        Collections.singletonMap("memberId", new ColumnPartitionConfig(MurmurPartitionFunction.NAME, 4)));
+    segmentRoutingMetadata =
+        SegmentRoutingMetadata.fromSegmentZKMetadata(llcSegmentZKMetadata, null, kafkaPartitionConfig, null, 4);
+    PartitionFunction kafkaPartitionFunction = new MurmurPartitionFunction(4);
+    for (int memberId = 0; memberId < 20; memberId++) {
+      Assert.assertEquals(pruneSegment("memberId = " + memberId, segmentRoutingMetadata),
+          kafkaPartitionFunction.getPartition(memberId) != 3);
+    }
+
+    // Kafka partition is not used when the column is not partitioned the same way as the topic
+    segmentRoutingMetadata =
+        SegmentRoutingMetadata.fromSegmentZKMetadata(llcSegmentZKMetadata, null, segmentPartitionConfig, null, 4);
+    Assert.assertFalse(pruneSegment("memberId = 6", segmentRoutingMetadata));
+    segmentRoutingMetadata =
+        SegmentRoutingMetadata.fromSegmentZKMetadata(llcSegmentZKMetadata, null, kafkaPartitionConfig, null, 8);
+    Assert.assertFalse(pruneSegment("memberId = 6", segmentRoutingMetadata));
+    segmentRoutingMetadata =
+        SegmentRoutingMetadata.fromSegmentZKMetadata(llcSegmentZKMetadata, null, kafkaPartitionConfig);
+    Assert.assertFalse(pruneSegment("memberId = 6", segmentRoutingMetadata));
+
+    // Segments of tables without partition config are not pruned on Kafka partition
+    segmentRoutingMetadata = SegmentRoutingMetadata.fromSegmentZKMetadata(llcSegmentZKMetadata);
+    Assert.assertFalse(pruneSegment("memberId = 6", segmentRoutingMetadata));
+  }
+
+  private Map<ServerInstance, SegmentIdSet> prune(String filter) {
+    return BrokerSegmentPruner.prune(_routing, COMPILER.compileToBrokerRequest(QUERY + filter), _tableRoutingMetadata);
+  }
+
+  private boolean pruneSegment(String filter, SegmentRoutingMetadata segmentRoutingMetadata) {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest(QUERY + filter);
+    return BrokerSegmentPruner.pruneSegment(brokerRequest.getFilterQuery(), brokerRequest.getFilterSubQueryMap(),
+        "daysSinceEpoch", segmentRoutingMetadata);
+  }
+}
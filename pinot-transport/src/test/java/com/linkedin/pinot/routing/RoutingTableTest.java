@@ -16,9 +16,13 @@
 package com.linkedin.pinot.routing;
 
 import com.linkedin.pinot.common.config.AbstractTableConfig;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.common.metadata.ZKMetadataProvider;
 import com.linkedin.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
 import com.linkedin.pinot.common.metrics.BrokerMetrics;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.request.helper.ControllerRequestBuilder;
 import com.yammer.metrics.core.MetricsRegistry;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
@@ -46,6 +50,8 @@ import com.linkedin.pinot.common.response.ServerInstance;
 import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.common.utils.HLCSegmentName;
 import com.linkedin.pinot.common.utils.LLCSegmentName;
+import com.linkedin.pinot.common.utils.SchemaUtils;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
 import com.linkedin.pinot.routing.builder.KafkaHighLevelConsumerBasedRoutingTableBuilder;
 import com.linkedin.pinot.routing.builder.RandomRoutingTableBuilder;
 import com.linkedin.pinot.routing.builder.RoutingTableBuilder;
@@ -143,6 +149,78 @@ public class RoutingTableTest {
     Assert.assertTrue(timeBoundaryUpdated.booleanValue());
   }
 
+  @Test
+  public void testSegmentRefresh() throws Exception {
+    FakePropertyStore propertyStore = new FakePropertyStore();
+    AbstractTableConfig tableConfig = AbstractTableConfig.init(ControllerRequestBuilder.buildCreateOfflineTableJSON(
+        "myTable", "server", "broker", "daysSinceEpoch", "DAYS", "DAYS", "700", 1,
+        "BalanceNumSegmentAssignmentStrategy").toString());
+    propertyStore.setContents(ZKMetadataProvider.constructPropertyStorePathForResourceConfig("myTable_OFFLINE"),
+        AbstractTableConfig.toZnRecord(tableConfig));
+    Schema schema = new Schema.SchemaBuilder().setSchemaName("baseball")
+        .addTime("daysSinceEpoch", TimeUnit.DAYS, FieldSpec.DataType.INT)
+        .build();
+    propertyStore.setContents(ZKMetadataProvider.constructPropertyStorePathForSchema("baseball"),
+        SchemaUtils.toZNRecord(schema));
+    setSegmentZKMetadata(propertyStore, "segment0", 100, 109, 1L);
+    setSegmentZKMetadata(propertyStore, "segment1", 110, 119, 2L);
+
+    ExternalView externalView = new ExternalView("myTable_OFFLINE");
+    externalView.setState("segment0", "Server_1.2.3.4_1234", "ONLINE");
+    externalView.setState("segment1", "Server_1.2.3.4_1234", "ONLINE");
+    HelixExternalViewBasedRouting routingTable =
+        new HelixExternalViewBasedRouting(propertyStore, NO_LLC_ROUTING, null, new BaseConfiguration());
+    routingTable.setBrokerMetrics(new BrokerMetrics(new MetricsRegistry()));
+    routingTable.markDataResourceOnline("myTable_OFFLINE", externalView,
+        Collections.singletonList(new InstanceConfig("Server_1.2.3.4_1234")));
+    final List<String> changedTables = new ArrayList<>();
+    routingTable.addRoutingTableChangeListener(new RoutingTableChangeListener() {
+      @Override
+      public void onRoutingTableChange(String tableName) {
+        changedTables.add(tableName);
+      }
+    });
+    Assert.assertEquals(findSegments(routingTable, "daysSinceEpoch = 105"), Collections.singletonList("segment0"));
+
+    // Refreshing a segment with the same name does not change the external view, but changes its ZK metadata
+    setSegmentZKMetadata(propertyStore, "segment0", 200, 209, 3L);
+    Assert.assertEquals(changedTables, Collections.singletonList("myTable_OFFLINE"));
+    Assert.assertEquals(findSegments(routingTable, "daysSinceEpoch = 205"), Collections.singletonList("segment0"));
+    Assert.assertEquals(findSegments(routingTable, "daysSinceEpoch = 115"), Collections.singletonList("segment1"));
+
+    // ZK metadata change without CRC change does not change the routing
+    setSegmentZKMetadata(propertyStore, "segment0", 200, 209, 3L);
+    Assert.assertEquals(changedTables.size(), 1);
+
+    // Segments not routed are ignored
+    setSegmentZKMetadata(propertyStore, "segment2", 300, 309, 4L);
+    Assert.assertEquals(changedTables.size(), 1);
+  }
+
+  private static void setSegmentZKMetadata(FakePropertyStore propertyStore, String segmentName, long startDay,
+      long endDay, long crc) throws Exception {
+    OfflineSegmentZKMetadata offlineSegmentZKMetadata = new OfflineSegmentZKMetadata();
+    offlineSegmentZKMetadata.setSegmentName(segmentName);
+    offlineSegmentZKMetadata.setTimeUnit(TimeUnit.DAYS);
+    offlineSegmentZKMetadata.setStartTime(startDay);
+    offlineSegmentZKMetadata.setEndTime(endDay);
+    offlineSegmentZKMetadata.setCrc(crc);
+    propertyStore.setContents(ZKMetadataProvider.constructPropertyStorePathForSegment("myTable_OFFLINE", segmentName),
+        offlineSegmentZKMetadata.toZNRecord());
+  }
+
+  private static List<String> findSegments(HelixExternalViewBasedRouting routingTable, String filter) {
+    BrokerRequest brokerRequest =
+        new Pql2Compiler().compileToBrokerRequest("SELECT COUNT(*) FROM myTable WHERE " + filter);
+    Map<ServerInstance, SegmentIdSet> serversMap = routingTable.findServers(
+        new RoutingTableLookupRequest("myTable_OFFLINE", Collections.<String>emptyList(), brokerRequest));
+    List<String> segments = new ArrayList<>();
+    for (SegmentIdSet segmentIdSet : serversMap.values()) {
+      segments.addAll(segmentIdSet.getSegmentsNameList());
+    }
+    return segments;
+  }
+
   private void assertResourceRequest(HelixExternalViewBasedRouting routingTable, String resource,
       String expectedSegmentList, int expectedNumSegment) {
     RoutingTableLookupRequest request = new RoutingTableLookupRequest(resource, Collections.<String>emptyList());
@@ -467,11 +545,36 @@ public class RoutingTableTest {
       return _contents.get(path);
     }
 
+    @Override
+    public boolean exists(String path, int options) {
+      for (String contentPath : _contents.keySet()) {
+        if (contentPath.startsWith(path)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public List<ZNRecord> getChildren(String parentPath, List<Stat> stats, int options) {
+      List<ZNRecord> children = new ArrayList<>();
+      for (Map.Entry<String, ZNRecord> entry : _contents.entrySet()) {
+        if (entry.getKey().startsWith(parentPath + "/")) {
+          children.add(entry.getValue());
+        }
+      }
+      return children;
+    }
+
     @Override
     public void subscribeDataChanges(String path, IZkDataListener listener) {
       _listener = listener;
     }
 
+    @Override
+    public void unsubscribeDataChanges(String path, IZkDataListener listener) {
+    }
+
     public void setContents(String path, ZNRecord contents) throws Exception {
       _contents.put(path, contents);
       if (_listener != null) {
@@ -584,6 +584,45 @@ public class CompositeFutureTest {
     }
   }
 
+  @Test
+  /**
+   * Responses are handed to the response listener as soon as each underlying future completes, including the ones
+   * completed before the listener is set
+   * @throws Exception
+   */
+  public void testResponseListener() throws Exception {
+    int numFutures = 10;
+    List<KeyedFuture<String, String>> futures = new ArrayList<KeyedFuture<String, String>>();
+    for (int i = 0; i < numFutures; i++) {
+      futures.add(new AsyncResponseFuture<String, String>("key_" + i, ""));
+    }
+    CompositeFuture<String, String> compositeFuture =
+        new CompositeFuture<String, String>("test", GatherModeOnError.SHORTCIRCUIT_AND);
+    compositeFuture.start(futures);
+    ((AsyncResponseFuture<String, String>) futures.get(0)).onSuccess("message_0");
+
+    final Map<String, String> receivedMessages = new HashMap<String, String>();
+    compositeFuture.setResponseListener(new CompositeFuture.ResponseListener<String, String>() {
+      @Override
+      public void onResponse(String key, String response) {
+        receivedMessages.put(key, response);
+      }
+    });
+    Assert.assertEquals(receivedMessages.size(), 1);
+    Assert.assertEquals(receivedMessages.get("key_0"), "message_0");
+
+    for (int i = 1; i < numFutures; i++) {
+      ((AsyncResponseFuture<String, String>) futures.get(i)).onSuccess("message_" + i);
+      Assert.assertEquals(receivedMessages.size(), i + 1);
+      Assert.assertEquals(receivedMessages.get("key_" + i), "message_" + i);
+      Assert.assertEquals(compositeFuture.isDone(), i == numFutures - 1);
+    }
+
+    // Responses handed to the listener are not kept in the composite response
+    Assert.assertTrue(compositeFuture.get().isEmpty());
+    Assert.assertEquals(compositeFuture.getResponseTimes().size(), numFutures);
+  }
+
   /**
    * Same class used both as a listener and the one that blocks on get().
    */